@@ -49,8 +49,10 @@ public class TSFileConfigUtil {
 		globalConfig.setHdfsSitePath(config.getHdfsSitePath());
 		globalConfig.setKerberosKeytabFilePath(config.getKerberosKeytabFilePath());
 		globalConfig.setKerberosPrincipal(config.getKerberosPrincipal());
+		globalConfig.setMaxDictionarySizeInByte(config.getMaxDictionarySizeInByte());
 		globalConfig.setMaxNumberOfPointsInPage(config.getMaxNumberOfPointsInPage());
 		globalConfig.setMaxStringLength(config.getMaxStringLength());
+		globalConfig.setPaaMaxError(config.getPaaMaxError());
 		globalConfig.setPageCheckSizeThreshold(config.getPageCheckSizeThreshold());
 		globalConfig.setPageSizeInByte(config.getPageSizeInByte());
 		globalConfig.setPlaMaxError(config.getPlaMaxError());
@@ -56,8 +56,10 @@ public class TSFileConfigUtilCompletenessTest {
 			"setHdfsSitePath",
 			"setKerberosKeytabFilePath",
 			"setKerberosPrincipal",
+			"setMaxDictionarySizeInByte",
 			"setMaxNumberOfPointsInPage",
 			"setMaxStringLength",
+			"setPaaMaxError",
 			"setPageCheckSizeThreshold",
 			"setPageSizeInByte",
 			"setPlaMaxError",
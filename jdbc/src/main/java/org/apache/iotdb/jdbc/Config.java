@@ -54,4 +54,9 @@ public class Config {
 
   public static boolean rpcThriftCompressionEnable = false;
 
+  /**
+   * the server serves the clients with the non-blocking server, which reads framed requests
+   */
+  public static boolean rpcThriftFramedTransportEnable = false;
+
 }
@@ -33,12 +33,12 @@ IF ["%IOTDB_HEAP_OPTS%"] EQU [""] (
 		java -d64 -version >nul 2>&1
 		IF NOT ERRORLEVEL 1 (
 			rem 64-bit Java
-			echo Detect 64-bit Java, maximum memory allocation pool = 2GB, initial memory allocation pool = 2GB
-			set IOTDB_HEAP_OPTS=-Xmx2G -Xms2G -Xloggc:"%IOTDB_HOME%\gc.log" -XX:+PrintGCDateStamps -XX:+PrintGCDetails
+			echo Detect 64-bit Java, maximum memory allocation pool = 2GB, initial memory allocation pool = 2GB, maximum direct memory = 2GB
+			set IOTDB_HEAP_OPTS=-Xmx2G -Xms2G -XX:MaxDirectMemorySize=2G -Xloggc:"%IOTDB_HOME%\gc.log" -XX:+PrintGCDateStamps -XX:+PrintGCDetails
 		) ELSE (
 			rem 32-bit Java
-			echo Detect 32-bit Java, maximum memory allocation pool = 512MB, initial memory allocation pool = 512MB
-			set IOTDB_HEAP_OPTS=-Xmx512M -Xms512M -Xloggc:"%IOTDB_HOME%\gc.log" -XX:+PrintGCDateStamps -XX:+PrintGCDetails
+			echo Detect 32-bit Java, maximum memory allocation pool = 512MB, initial memory allocation pool = 512MB, maximum direct memory = 512MB
+			set IOTDB_HEAP_OPTS=-Xmx512M -Xms512M -XX:MaxDirectMemorySize=512M -Xloggc:"%IOTDB_HOME%\gc.log" -XX:+PrintGCDateStamps -XX:+PrintGCDetails
 		)
 		goto end_config_setting
 	) ELSE (
@@ -55,12 +55,12 @@ for /f "tokens=1-3" %%j in ('java -version 2^>^&1') do (
 )
 IF "%BIT_VERSION%" == "64-Bit" (
 	rem 64-bit Java
-	echo Detect 64-bit Java, maximum memory allocation pool = 2GB, initial memory allocation pool = 2GB
-	set IOTDB_HEAP_OPTS=-Xmx2G -Xms2G
+	echo Detect 64-bit Java, maximum memory allocation pool = 2GB, initial memory allocation pool = 2GB, maximum direct memory = 2GB
+	set IOTDB_HEAP_OPTS=-Xmx2G -Xms2G -XX:MaxDirectMemorySize=2G
 ) ELSE (
 	rem 32-bit Java
-	echo Detect 32-bit Java, maximum memory allocation pool = 512MB, initial memory allocation pool = 512MB
-	set IOTDB_HEAP_OPTS=-Xmx512M -Xms512M
+	echo Detect 32-bit Java, maximum memory allocation pool = 512MB, initial memory allocation pool = 512MB, maximum direct memory = 512MB
+	set IOTDB_HEAP_OPTS=-Xmx512M -Xms512M -XX:MaxDirectMemorySize=512M
 )
 
 @REM You can put your env variable here
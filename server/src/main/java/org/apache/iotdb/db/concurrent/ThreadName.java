@@ -34,14 +34,18 @@ public enum ThreadName {
   STAT_MONITOR("StatMonitor-ServerServiceImpl"),
   FLUSH_SERVICE("Flush-ServerServiceImpl"),
   FLUSH_SUB_TASK_SERVICE("Flush-SubTask-ServerServiceImpl"),
+  FLUSH_ENCODING_TASK_SERVICE("Flush-EncodingTask-ServerServiceImpl"),
   WAL_DAEMON("IoTDB-MultiFileLogNodeManager-Sync-Thread"),
   WAL_FORCE_DAEMON("IoTDB-MultiFileLogNodeManager-Force-Thread"),
+  WAL_GROUP_COMMIT_DAEMON("IoTDB-WAL-GroupCommit-Thread"),
   INDEX_SERVICE("Index-ServerServiceImpl"),
   SYNC_CLIENT("Sync-Client"),
   SYNC_SERVER("Sync-Server"),
   SYNC_MONITOR("Sync-Monitor"),
   LOAD_TSFILE("Load TsFile"),
   TIME_COST_STATSTIC("TIME_COST_STATSTIC"),
+  MTREE_SNAPSHOT("MTree-Snapshot"),
+  MTREE_SNAPSHOT_LOAD("MTree-Snapshot-Load"),
   QUERY_SERVICE("Query-ServerServiceImpl");
 
   private String name;
@@ -20,6 +20,7 @@ package org.apache.iotdb.db.conf;
 
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.merge.selector.MergeFileStrategy;
+import org.apache.iotdb.db.engine.rollup.RollupRules;
 import org.apache.iotdb.db.exception.LoadConfigurationException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.service.TSServiceImpl;
@@ -95,6 +96,28 @@ public class IoTDBConfig {
    */
   private int rpcMaxConcurrentClientNum = 65535;
 
+  /**
+   * whether to serve the clients with a non-blocking server, whose selector threads watch all the
+   * connections and whose worker threads process the requests, instead of a thread per client.
+   * The clients must use framed transport if it is enabled.
+   */
+  private boolean rpcNonBlockingServerEnable = false;
+
+  /**
+   * the number of selector threads of the non-blocking server
+   */
+  private int rpcSelectorThreadNum = 2;
+
+  /**
+   * the number of worker threads of the non-blocking server
+   */
+  private int rpcWorkerThreadNum = Runtime.getRuntime().availableProcessors() * 2;
+
+  /**
+   * the number of requests that may wait for each worker thread of the non-blocking server
+   */
+  private int rpcWorkerQueueSize = 1024;
+
   /**
    * JMX user name
    */
@@ -144,6 +167,26 @@ public class IoTDBConfig {
    */
   private long forceWalPeriodInMs = 10;
 
+  /**
+   * Whether the write ahead logs of all log nodes are written and forced by a dedicated writer
+   * thread in groups. When enabled, an insertion returns only after its log is forced to the disk,
+   * and flushWalThreshold and forceWalPeriodInMs do not apply.
+   */
+  private boolean enableWalGroupCommit = false;
+
+  /**
+   * The longest time (in milliseconds) the WAL writer thread waits for more logs before writing
+   * and forcing a group. It only waits while other insertions are appending their logs, so a lone
+   * insertion is forced at once. A larger delay makes larger groups and fewer forces, at the cost
+   * of the latency of each insertion. If set to 0, a group contains only the logs already queued.
+   */
+  private long walGroupCommitMaxDelayInMs = 2;
+
+  /**
+   * How many logs can be queued for the WAL writer thread. Insertions wait when the queue is full.
+   */
+  private int walGroupCommitQueueSize = 65536;
+
   /**
    * Size of log buffer in each log node(in byte). If WAL is enabled and the size of a insert plan
    * is smaller than this parameter, then the insert plan will be rejected by WAL.
@@ -205,11 +248,38 @@ public class IoTDBConfig {
    */
   private int concurrentFlushThread = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * How many threads can concurrently sort and encode series of flushing memtables. When <= 0,
+   * use CPU core number.
+   */
+  private int concurrentFlushEncodingThread = Runtime.getRuntime().availableProcessors();
+
   /**
    * How many threads can concurrently query. When <= 0, use CPU core number.
    */
   private int concurrentQueryThread = Runtime.getRuntime().availableProcessors();
 
+  /**
+   * How many series of one aggregation query can be aggregated concurrently, the series are
+   * aggregated in the query thread pool. 1 means the series are aggregated one by one in the rpc
+   * thread. When <= 0, use concurrentQueryThread.
+   */
+  private int aggregationSeriesParallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * How many devices of one align by device query are queried concurrently, the current device is
+   * read by the rpc thread and the following ones are prefetched in the query thread pool. 1 means
+   * the devices are queried one by one in the rpc thread. When <= 0, use concurrentQueryThread.
+   */
+  private int alignByDeviceParallelism = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The rollups maintained for the series when the sequence files are flushed or merged, a group by
+   * query without value filter reads the buckets of the coarsest rollup that is aligned with its
+   * intervals instead of the raw data.
+   */
+  private RollupRules rollupRules = RollupRules.EMPTY;
+
   private ZoneId zoneID = ZoneId.systemDefault();
 
   /**
@@ -222,6 +292,23 @@ public class IoTDBConfig {
    */
   private long memtableSizeThreshold = 128 * 1024 * 1024L;
 
+  /**
+   * The number of points in each primitive array of the memtables.
+   */
+  private int primitiveArraySize = 128;
+
+  /**
+   * The max bytes of the primitive arrays in use and in the pool, the pool drops the released
+   * arrays beyond it and the memtables are flushed earlier when the arrays in use exceed it. When
+   * <= 0, use the memory allocated for writing.
+   */
+  private long primitiveArrayMemoryBudget = 0;
+
+  /**
+   * Whether the memtables keep the points of fixed-length data types in direct memory.
+   */
+  private boolean memtableOffHeapEnable = false;
+
   /**
    * whether to cache meta data(ChunkMetaData and TsFileMetaData) or not.
    */
@@ -270,6 +357,18 @@ public class IoTDBConfig {
    */
   private int mManagerCacheSize = 400000;
 
+  /**
+   * Interval in seconds to check whether a new snapshot of the MTree should be taken, 0 or negative
+   * means no periodical snapshot. A snapshot is always taken at shutdown.
+   */
+  private int mtreeSnapshotIntervalInSec = 600;
+
+  /**
+   * A periodical MTree snapshot is taken only after at least so many lines are appended to the
+   * metadata log since the last snapshot.
+   */
+  private int mtreeSnapshotThreshold = 100000;
+
   /**
    * Is external sort enable.
    */
@@ -300,6 +399,24 @@ public class IoTDBConfig {
    */
   private long cacheFileReaderClearPeriod = 100000;
 
+  /**
+   * Whether readers of sealed TsFiles read the files through read-only memory mappings instead of
+   * file channels. A mapping is released when its reader is closed.
+   */
+  private boolean enableMmapTsFileInput = false;
+
+  /**
+   * The total size of the TsFiles which can be memory mapped at the same time, readers of other
+   * files fall back to file channels.
+   */
+  private long mmapTsFileBudgetInMB = 4096;
+
+  /**
+   * The total size of the bloom filters of the sealed TsFiles kept in memory, the least recently
+   * used ones beyond it are loaded again from their file metadata.
+   */
+  private long bloomFilterCacheBudgetInMB = 64;
+
   /**
    * Replace implementation class of JDBC service
    */
@@ -739,6 +856,30 @@ public class IoTDBConfig {
     this.forceWalPeriodInMs = forceWalPeriodInMs;
   }
 
+  public boolean isEnableWalGroupCommit() {
+    return enableWalGroupCommit;
+  }
+
+  public void setEnableWalGroupCommit(boolean enableWalGroupCommit) {
+    this.enableWalGroupCommit = enableWalGroupCommit;
+  }
+
+  public long getWalGroupCommitMaxDelayInMs() {
+    return walGroupCommitMaxDelayInMs;
+  }
+
+  public void setWalGroupCommitMaxDelayInMs(long walGroupCommitMaxDelayInMs) {
+    this.walGroupCommitMaxDelayInMs = walGroupCommitMaxDelayInMs;
+  }
+
+  public int getWalGroupCommitQueueSize() {
+    return walGroupCommitQueueSize;
+  }
+
+  public void setWalGroupCommitQueueSize(int walGroupCommitQueueSize) {
+    this.walGroupCommitQueueSize = walGroupCommitQueueSize;
+  }
+
   public String getSystemDir() {
     return systemDir;
   }
@@ -811,6 +952,14 @@ public class IoTDBConfig {
     this.concurrentFlushThread = concurrentFlushThread;
   }
 
+  public int getConcurrentFlushEncodingThread() {
+    return concurrentFlushEncodingThread;
+  }
+
+  void setConcurrentFlushEncodingThread(int concurrentFlushEncodingThread) {
+    this.concurrentFlushEncodingThread = concurrentFlushEncodingThread;
+  }
+
   public int getConcurrentQueryThread() {
     return concurrentQueryThread;
   }
@@ -819,6 +968,30 @@ public class IoTDBConfig {
     this.concurrentQueryThread = concurrentQueryThread;
   }
 
+  public int getAggregationSeriesParallelism() {
+    return aggregationSeriesParallelism;
+  }
+
+  public void setAggregationSeriesParallelism(int aggregationSeriesParallelism) {
+    this.aggregationSeriesParallelism = aggregationSeriesParallelism;
+  }
+
+  public int getAlignByDeviceParallelism() {
+    return alignByDeviceParallelism;
+  }
+
+  public void setAlignByDeviceParallelism(int alignByDeviceParallelism) {
+    this.alignByDeviceParallelism = alignByDeviceParallelism;
+  }
+
+  public RollupRules getRollupRules() {
+    return rollupRules;
+  }
+
+  public void setRollupRules(RollupRules rollupRules) {
+    this.rollupRules = rollupRules;
+  }
+
   public long getTsFileSizeThreshold() {
     return tsFileSizeThreshold;
   }
@@ -851,6 +1024,38 @@ public class IoTDBConfig {
     this.rpcMaxConcurrentClientNum = rpcMaxConcurrentClientNum;
   }
 
+  public boolean isRpcNonBlockingServerEnable() {
+    return rpcNonBlockingServerEnable;
+  }
+
+  public void setRpcNonBlockingServerEnable(boolean rpcNonBlockingServerEnable) {
+    this.rpcNonBlockingServerEnable = rpcNonBlockingServerEnable;
+  }
+
+  public int getRpcSelectorThreadNum() {
+    return rpcSelectorThreadNum;
+  }
+
+  public void setRpcSelectorThreadNum(int rpcSelectorThreadNum) {
+    this.rpcSelectorThreadNum = rpcSelectorThreadNum;
+  }
+
+  public int getRpcWorkerThreadNum() {
+    return rpcWorkerThreadNum;
+  }
+
+  public void setRpcWorkerThreadNum(int rpcWorkerThreadNum) {
+    this.rpcWorkerThreadNum = rpcWorkerThreadNum;
+  }
+
+  public int getRpcWorkerQueueSize() {
+    return rpcWorkerQueueSize;
+  }
+
+  public void setRpcWorkerQueueSize(int rpcWorkerQueueSize) {
+    this.rpcWorkerQueueSize = rpcWorkerQueueSize;
+  }
+
   public int getStatMonitorDetectFreqSec() {
     return statMonitorDetectFreqSec;
   }
@@ -875,6 +1080,22 @@ public class IoTDBConfig {
     this.mManagerCacheSize = mManagerCacheSize;
   }
 
+  public int getMtreeSnapshotIntervalInSec() {
+    return mtreeSnapshotIntervalInSec;
+  }
+
+  void setMtreeSnapshotIntervalInSec(int mtreeSnapshotIntervalInSec) {
+    this.mtreeSnapshotIntervalInSec = mtreeSnapshotIntervalInSec;
+  }
+
+  public int getMtreeSnapshotThreshold() {
+    return mtreeSnapshotThreshold;
+  }
+
+  void setMtreeSnapshotThreshold(int mtreeSnapshotThreshold) {
+    this.mtreeSnapshotThreshold = mtreeSnapshotThreshold;
+  }
+
   public boolean isSyncEnable() {
     return isSyncEnable;
   }
@@ -923,6 +1144,30 @@ public class IoTDBConfig {
     this.cacheFileReaderClearPeriod = cacheFileReaderClearPeriod;
   }
 
+  public boolean isEnableMmapTsFileInput() {
+    return enableMmapTsFileInput;
+  }
+
+  public void setEnableMmapTsFileInput(boolean enableMmapTsFileInput) {
+    this.enableMmapTsFileInput = enableMmapTsFileInput;
+  }
+
+  public long getMmapTsFileBudgetInMB() {
+    return mmapTsFileBudgetInMB;
+  }
+
+  public void setMmapTsFileBudgetInMB(long mmapTsFileBudgetInMB) {
+    this.mmapTsFileBudgetInMB = mmapTsFileBudgetInMB;
+  }
+
+  public long getBloomFilterCacheBudgetInMB() {
+    return bloomFilterCacheBudgetInMB;
+  }
+
+  public void setBloomFilterCacheBudgetInMB(long bloomFilterCacheBudgetInMB) {
+    this.bloomFilterCacheBudgetInMB = bloomFilterCacheBudgetInMB;
+  }
+
   public boolean isReadOnly() {
     return readOnly;
   }
@@ -1075,6 +1320,30 @@ public class IoTDBConfig {
     this.memtableSizeThreshold = memtableSizeThreshold;
   }
 
+  public int getPrimitiveArraySize() {
+    return primitiveArraySize;
+  }
+
+  void setPrimitiveArraySize(int primitiveArraySize) {
+    this.primitiveArraySize = primitiveArraySize;
+  }
+
+  public long getPrimitiveArrayMemoryBudget() {
+    return primitiveArrayMemoryBudget;
+  }
+
+  public void setPrimitiveArrayMemoryBudget(long primitiveArrayMemoryBudget) {
+    this.primitiveArrayMemoryBudget = primitiveArrayMemoryBudget;
+  }
+
+  public boolean isMemtableOffHeapEnable() {
+    return memtableOffHeapEnable;
+  }
+
+  public void setMemtableOffHeapEnable(boolean memtableOffHeapEnable) {
+    this.memtableOffHeapEnable = memtableOffHeapEnable;
+  }
+
   public MergeFileStrategy getMergeFileStrategy() {
     return mergeFileStrategy;
   }
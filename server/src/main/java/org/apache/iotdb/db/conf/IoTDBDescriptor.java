@@ -25,6 +25,7 @@ import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
+import org.apache.iotdb.db.engine.rollup.RollupRules;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.utils.FilePathUtils;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
@@ -235,6 +236,19 @@ public class IoTDBDescriptor {
         conf.setMemtableSizeThreshold(memTableSizeThreshold);
       }
 
+      int primitiveArraySize = Integer.parseInt(properties
+          .getProperty("primitive_array_size", Integer.toString(conf.getPrimitiveArraySize()))
+          .trim());
+      if (primitiveArraySize > 0) {
+        conf.setPrimitiveArraySize(primitiveArraySize);
+      }
+      conf.setPrimitiveArrayMemoryBudget(Long.parseLong(properties
+          .getProperty("primitive_array_memory_budget",
+              Long.toString(conf.getPrimitiveArrayMemoryBudget())).trim()));
+      conf.setMemtableOffHeapEnable(Boolean.parseBoolean(properties
+          .getProperty("memtable_off_heap_enable",
+              Boolean.toString(conf.isMemtableOffHeapEnable())).trim()));
+
       conf.setSyncEnable(Boolean
           .parseBoolean(properties.getProperty("is_sync_enable",
               Boolean.toString(conf.isSyncEnable()))));
@@ -253,6 +267,14 @@ public class IoTDBDescriptor {
         conf.setConcurrentFlushThread(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setConcurrentFlushEncodingThread(Integer
+          .parseInt(properties.getProperty("concurrent_flush_encoding_thread",
+              Integer.toString(conf.getConcurrentFlushEncodingThread()))));
+
+      if (conf.getConcurrentFlushEncodingThread() <= 0) {
+        conf.setConcurrentFlushEncodingThread(Runtime.getRuntime().availableProcessors());
+      }
+
       conf.setConcurrentQueryThread(Integer
           .parseInt(properties.getProperty("concurrent_query_thread",
               Integer.toString(conf.getConcurrentQueryThread()))));
@@ -261,10 +283,49 @@ public class IoTDBDescriptor {
         conf.setConcurrentQueryThread(Runtime.getRuntime().availableProcessors());
       }
 
+      conf.setAggregationSeriesParallelism(Integer
+          .parseInt(properties.getProperty("aggregation_series_parallelism",
+              Integer.toString(conf.getAggregationSeriesParallelism())).trim()));
+
+      if (conf.getAggregationSeriesParallelism() <= 0) {
+        conf.setAggregationSeriesParallelism(conf.getConcurrentQueryThread());
+      }
+
+      conf.setAlignByDeviceParallelism(Integer
+          .parseInt(properties.getProperty("align_by_device_parallelism",
+              Integer.toString(conf.getAlignByDeviceParallelism())).trim()));
+
+      if (conf.getAlignByDeviceParallelism() <= 0) {
+        conf.setAlignByDeviceParallelism(conf.getConcurrentQueryThread());
+      }
+
+      conf.setRollupRules(RollupRules.parse(properties.getProperty("rollup_rules", "").trim(),
+          conf.getTimestampPrecision()));
+
       conf.setmManagerCacheSize(Integer
           .parseInt(properties.getProperty("metadata_node_cache_size",
               Integer.toString(conf.getmManagerCacheSize())).trim()));
 
+      conf.setMtreeSnapshotIntervalInSec(Integer
+          .parseInt(properties.getProperty("mtree_snapshot_interval_in_second",
+              Integer.toString(conf.getMtreeSnapshotIntervalInSec())).trim()));
+
+      conf.setMtreeSnapshotThreshold(Integer
+          .parseInt(properties.getProperty("mtree_snapshot_threshold",
+              Integer.toString(conf.getMtreeSnapshotThreshold())).trim()));
+
+      conf.setEnableMmapTsFileInput(Boolean
+          .parseBoolean(properties.getProperty("enable_mmap_tsfile_input",
+              Boolean.toString(conf.isEnableMmapTsFileInput())).trim()));
+
+      conf.setMmapTsFileBudgetInMB(Long
+          .parseLong(properties.getProperty("mmap_tsfile_budget_in_mb",
+              Long.toString(conf.getMmapTsFileBudgetInMB())).trim()));
+
+      conf.setBloomFilterCacheBudgetInMB(Long
+          .parseLong(properties.getProperty("bloom_filter_cache_budget_in_mb",
+              Long.toString(conf.getBloomFilterCacheBudgetInMB())).trim()));
+
       conf.setLanguageVersion(properties.getProperty("language_version",
           conf.getLanguageVersion()).trim());
 
@@ -333,6 +394,25 @@ public class IoTDBDescriptor {
 
       conf.setRpcMaxConcurrentClientNum(maxConcurrentClientNum);
 
+      conf.setRpcNonBlockingServerEnable(
+          Boolean.parseBoolean(properties.getProperty("rpc_nonblocking_server_enable",
+              Boolean.toString(conf.isRpcNonBlockingServerEnable())).trim()));
+      int selectorThreadNum = Integer.parseInt(properties.getProperty("rpc_selector_thread_num",
+          Integer.toString(conf.getRpcSelectorThreadNum())).trim());
+      if (selectorThreadNum > 0) {
+        conf.setRpcSelectorThreadNum(selectorThreadNum);
+      }
+      int workerThreadNum = Integer.parseInt(properties.getProperty("rpc_worker_thread_num",
+          Integer.toString(conf.getRpcWorkerThreadNum())).trim());
+      if (workerThreadNum > 0) {
+        conf.setRpcWorkerThreadNum(workerThreadNum);
+      }
+      int workerQueueSize = Integer.parseInt(properties.getProperty("rpc_worker_queue_size",
+          Integer.toString(conf.getRpcWorkerQueueSize())).trim());
+      if (workerQueueSize > 0) {
+        conf.setRpcWorkerQueueSize(workerQueueSize);
+      }
+
       conf.setTsFileStorageFs(properties.getProperty("tsfile_storage_fs",
           conf.getTsFileStorageFs().toString()));
       conf.setCoreSitePath(
@@ -450,6 +530,19 @@ public class IoTDBDescriptor {
         .parseLong(properties.getProperty("force_wal_period_in_ms",
             Long.toString(conf.getForceWalPeriodInMs()))));
 
+    conf.setEnableWalGroupCommit(Boolean.parseBoolean(properties.getProperty(
+        "enable_wal_group_commit", Boolean.toString(conf.isEnableWalGroupCommit()))));
+
+    conf.setWalGroupCommitMaxDelayInMs(Long
+        .parseLong(properties.getProperty("wal_group_commit_max_delay_in_ms",
+            Long.toString(conf.getWalGroupCommitMaxDelayInMs()))));
+
+    int walGroupCommitQueueSize = Integer
+        .parseInt(properties.getProperty("wal_group_commit_queue_size",
+            Integer.toString(conf.getWalGroupCommitQueueSize())));
+    if (walGroupCommitQueueSize > 0) {
+      conf.setWalGroupCommitQueueSize(walGroupCommitQueueSize);
+    }
   }
 
   private void loadAutoCreateSchemaProps(Properties properties) {
@@ -503,6 +596,10 @@ public class IoTDBDescriptor {
     TSFileDescriptor.getInstance().getConfig().setMaxStringLength(Integer
         .parseInt(properties.getProperty("max_string_length",
             Integer.toString(TSFileDescriptor.getInstance().getConfig().getMaxStringLength()))));
+    TSFileDescriptor.getInstance().getConfig().setMaxDictionarySizeInByte(Integer
+        .parseInt(properties.getProperty("max_dictionary_size_in_byte",
+            Integer.toString(
+                TSFileDescriptor.getInstance().getConfig().getMaxDictionarySizeInByte()))));
     TSFileDescriptor.getInstance().getConfig().setBloomFilterErrorRate(Double
         .parseDouble(properties.getProperty("bloom_filter_error_rate",
             Double.toString(
@@ -520,6 +617,15 @@ public class IoTDBDescriptor {
     TSFileDescriptor.getInstance().getConfig().setCompressor(properties
         .getProperty("compressor",
             TSFileDescriptor.getInstance().getConfig().getCompressor().toString()));
+    TSFileDescriptor.getInstance().getConfig().setSdtMaxError(Double
+        .parseDouble(properties.getProperty("sdt_max_error",
+            Double.toString(TSFileDescriptor.getInstance().getConfig().getSdtMaxError()))));
+    TSFileDescriptor.getInstance().getConfig().setPaaMaxError(Double
+        .parseDouble(properties.getProperty("paa_max_error",
+            Double.toString(TSFileDescriptor.getInstance().getConfig().getPaaMaxError()))));
+    TSFileDescriptor.getInstance().getConfig().setPlaMaxError(Double
+        .parseDouble(properties.getProperty("pla_max_error",
+            Double.toString(TSFileDescriptor.getInstance().getConfig().getPlaMaxError()))));
   }
 
   public void loadHotModifiedProps() throws QueryProcessException {
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -64,6 +65,7 @@ import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.db.utils.FilePathUtils;
 import org.apache.iotdb.db.utils.UpgradeUtils;
+import org.apache.iotdb.rpc.RpcUtils;
 import org.apache.iotdb.service.rpc.thrift.TSStatus;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.expression.impl.SingleSeriesExpression;
@@ -282,6 +284,41 @@ public class StorageEngine implements IService {
     }
   }
 
+  /**
+   * insert the BatchInsertPlans of many devices, the plans of each storage group are inserted
+   * under one lock acquisition of the StorageGroupProcessor.
+   *
+   * @return results of the rows of each plan, a plan whose storage group cannot be got has only
+   * one result
+   */
+  public TSStatus[][] insertBatches(List<BatchInsertPlan> batchInsertPlans) {
+    TSStatus[][] results = new TSStatus[batchInsertPlans.size()][];
+    Map<StorageGroupProcessor, List<Integer>> processorPlanIndexes = new LinkedHashMap<>();
+    for (int i = 0; i < batchInsertPlans.size(); i++) {
+      try {
+        processorPlanIndexes
+            .computeIfAbsent(getProcessor(batchInsertPlans.get(i).getDeviceId()),
+                p -> new ArrayList<>()).add(i);
+      } catch (StorageEngineException e) {
+        logger.warn("get StorageGroupProcessor of device {} failed, because {}",
+            batchInsertPlans.get(i).getDeviceId(), e.getMessage(), e);
+        results[i] = new TSStatus[]{RpcUtils.getStatus(e.getErrorCode(), e.getMessage())};
+      }
+    }
+
+    for (Entry<StorageGroupProcessor, List<Integer>> entry : processorPlanIndexes.entrySet()) {
+      List<BatchInsertPlan> plans = new ArrayList<>(entry.getValue().size());
+      for (int index : entry.getValue()) {
+        plans.add(batchInsertPlans.get(index));
+      }
+      TSStatus[][] processorResults = entry.getKey().insertBatches(plans);
+      for (int i = 0; i < processorResults.length; i++) {
+        results[entry.getValue().get(i)] = processorResults[i];
+      }
+    }
+    return results;
+  }
+
   /**
    * flush command Sync asyncCloseOneProcessor all file node processors.
    */
@@ -334,9 +371,17 @@ public class StorageEngine implements IService {
    */
   public void delete(String deviceId, String measurementId, long timestamp)
       throws StorageEngineException {
+    delete(deviceId, measurementId, Long.MIN_VALUE, timestamp);
+  }
+
+  /**
+   * delete data of the timeseries whose time is in [startTime, endTime].
+   */
+  public void delete(String deviceId, String measurementId, long startTime, long endTime)
+      throws StorageEngineException {
     StorageGroupProcessor storageGroupProcessor = getProcessor(deviceId);
     try {
-      storageGroupProcessor.delete(deviceId, measurementId, timestamp);
+      storageGroupProcessor.delete(deviceId, measurementId, startTime, endTime);
     } catch (IOException e) {
       throw new StorageEngineException(e.getMessage());
     }
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.query.control.FileReaderManager;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.file.metadata.TsFileMetadata;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
+
+/**
+ * This class checks the series of a query against the bloom filters of the sealed files kept in
+ * memory, so a file without the series is skipped before reading its file metadata, and it counts
+ * how well the bloom filters prune the files.
+ *
+ * The bloom filter of a file is put when the file is sealed by a flush, or loaded from its file
+ * metadata when it is queried and not in memory. The bloom filters are bounded by
+ * bloom_filter_cache_budget_in_mb, and the least recently used ones are evicted beyond it.
+ */
+public class BloomFilterManager {
+
+  private static final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  /**
+   * the estimated bytes of a BloomFilter besides its bits
+   */
+  private static final long BLOOM_FILTER_OVERHEAD = 256;
+
+  /**
+   * TsFile path -> bloom filter, in access order
+   */
+  private final Map<String, BloomFilter> cache = new LinkedHashMap<>(128, 0.75f, true);
+  /**
+   * the estimated bytes of the cached bloom filters, guarded by the cache
+   */
+  private long usedMemInB;
+
+  /**
+   * the number of series checked against a bloom filter
+   */
+  private AtomicLong checkNum = new AtomicLong();
+  /**
+   * the number of series rejected by a bloom filter, i.e., the files skipped
+   */
+  private AtomicLong rejectNum = new AtomicLong();
+  /**
+   * the number of series passed by a bloom filter but absent from the file
+   */
+  private AtomicLong falsePositiveNum = new AtomicLong();
+  /**
+   * the bytes of the file metadata that the skipped files would read to find the series
+   */
+  private AtomicLong savedBytes = new AtomicLong();
+  /**
+   * the number of bloom filters evicted for the memory budget
+   */
+  private AtomicLong evictionNum = new AtomicLong();
+
+  private BloomFilterManager() {
+  }
+
+  public static BloomFilterManager getInstance() {
+    return BloomFilterManagerHolder.INSTANCE;
+  }
+
+  /**
+   * @param resource a sealed file
+   * @return false if the bloom filter of the file rejects the series, so the file does not
+   * contain it
+   */
+  public boolean mayContain(TsFileResource resource, Path seriesPath) throws IOException {
+    BloomFilter bloomFilter = get(resource);
+    if (bloomFilter == null) {
+      bloomFilter = load(resource);
+      if (bloomFilter == null) {
+        // the files of old versions have no bloom filter
+        return true;
+      }
+    }
+    checkNum.incrementAndGet();
+    if (bloomFilter.contains(seriesPath.getFullPath())) {
+      return true;
+    }
+    rejectNum.incrementAndGet();
+    savedBytes.addAndGet(resource.getFileMetadataSize());
+    return false;
+  }
+
+  /**
+   * record that a sealed file passed by its bloom filter does not contain the series.
+   */
+  public void recordFalsePositive(TsFileResource resource) {
+    if (get(resource) != null) {
+      falsePositiveNum.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return the bloom filter of the file in memory, null if it is not loaded or evicted
+   */
+  public BloomFilter get(TsFileResource resource) {
+    synchronized (cache) {
+      return cache.get(resource.getPath());
+    }
+  }
+
+  /**
+   * keep the bloom filter of the file in memory and evict the least recently used ones beyond the
+   * memory budget
+   */
+  public void put(TsFileResource resource, BloomFilter bloomFilter) {
+    String filePath = resource.getPath();
+    synchronized (cache) {
+      BloomFilter previous = cache.put(filePath, bloomFilter);
+      if (previous != null) {
+        usedMemInB -= calEntrySize(filePath, previous);
+      }
+      usedMemInB += calEntrySize(filePath, bloomFilter);
+      long memoryThreshold = getMemoryThreshold();
+      Iterator<Entry<String, BloomFilter>> iterator = cache.entrySet().iterator();
+      while (usedMemInB > memoryThreshold && iterator.hasNext()) {
+        Entry<String, BloomFilter> eldest = iterator.next();
+        usedMemInB -= calEntrySize(eldest.getKey(), eldest.getValue());
+        iterator.remove();
+        evictionNum.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * drop the bloom filter of a rewritten or removed file
+   */
+  public void remove(TsFileResource resource) {
+    String filePath = resource.getPath();
+    synchronized (cache) {
+      BloomFilter previous = cache.remove(filePath);
+      if (previous != null) {
+        usedMemInB -= calEntrySize(filePath, previous);
+      }
+    }
+  }
+
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+      usedMemInB = 0;
+    }
+  }
+
+  private long calEntrySize(String filePath, BloomFilter bloomFilter) {
+    return filePath.getBytes(TSFileConfig.STRING_CHARSET).length + BLOOM_FILTER_OVERHEAD
+        + bloomFilter.getSize() / Byte.SIZE;
+  }
+
+  private BloomFilter load(TsFileResource resource) throws IOException {
+    TsFileMetadata fileMetadata = TsFileMetaDataCache.getInstance().get(resource.getPath());
+    int fileMetadataSize = FileReaderManager.getInstance().get(resource.getPath(), true)
+        .getFileMetadataSize();
+    resource.setBloomFilter(fileMetadata.getBloomFilter(), fileMetadataSize);
+    return fileMetadata.getBloomFilter();
+  }
+
+  /**
+   * calculate the proportion of the memory budget used by the bloom filters.
+   */
+  public double getUsedMemoryProportion() {
+    synchronized (cache) {
+      return usedMemInB * 1.0 / getMemoryThreshold();
+    }
+  }
+
+  private long getMemoryThreshold() {
+    return config.getBloomFilterCacheBudgetInMB() * 1024 * 1024;
+  }
+
+  public long getEvictionNum() {
+    return evictionNum.get();
+  }
+
+  public long getCheckNum() {
+    return checkNum.get();
+  }
+
+  public long getRejectNum() {
+    return rejectNum.get();
+  }
+
+  public long getFalsePositiveNum() {
+    return falsePositiveNum.get();
+  }
+
+  /**
+   * @return the ratio of the series absent from the checked files that passed the bloom filters
+   */
+  public double getFalsePositiveRate() {
+    long falsePositives = falsePositiveNum.get();
+    long negatives = falsePositives + rejectNum.get();
+    return negatives == 0 ? 0 : falsePositives * 1.0 / negatives;
+  }
+
+  public long getSavedBytes() {
+    return savedBytes.get();
+  }
+
+  /**
+   * Singleton pattern
+   */
+  private static class BloomFilterManagerHolder {
+
+    private BloomFilterManagerHolder() {
+    }
+
+    private static final BloomFilterManager INSTANCE = new BloomFilterManager();
+  }
+}
@@ -76,6 +76,86 @@ public class CacheHitRatioMonitor implements CacheHitRatioMonitorMXBean, IServic
     return TimeSeriesMetadataCache.getInstance().calculateTimeSeriesMetadataHitRatio();
   }
 
+  @Override
+  public long getChunkCacheHitCount() {
+    return ChunkCache.getInstance().getHitCount();
+  }
+
+  @Override
+  public long getChunkCacheMissCount() {
+    return ChunkCache.getInstance().getMissCount();
+  }
+
+  @Override
+  public long getChunkCacheEvictionCount() {
+    return ChunkCache.getInstance().getEvictionCount();
+  }
+
+  @Override
+  public double getChunkCacheAverageLoadPenalty() {
+    return ChunkCache.getInstance().getAverageLoadPenalty();
+  }
+
+  @Override
+  public double getChunkCacheUsedMemoryProportion() {
+    return ChunkCache.getInstance().getUsedMemoryProportion();
+  }
+
+  @Override
+  public long getTimeSeriesMetadataCacheHitCount() {
+    return TimeSeriesMetadataCache.getInstance().getHitCount();
+  }
+
+  @Override
+  public long getTimeSeriesMetadataCacheMissCount() {
+    return TimeSeriesMetadataCache.getInstance().getMissCount();
+  }
+
+  @Override
+  public long getTimeSeriesMetadataCacheEvictionCount() {
+    return TimeSeriesMetadataCache.getInstance().getEvictionCount();
+  }
+
+  @Override
+  public double getTimeSeriesMetadataCacheAverageLoadPenalty() {
+    return TimeSeriesMetadataCache.getInstance().getAverageLoadPenalty();
+  }
+
+  @Override
+  public double getTimeSeriesMetadataCacheUsedMemoryProportion() {
+    return TimeSeriesMetadataCache.getInstance().getUsedMemoryProportion();
+  }
+
+  @Override
+  public long getBloomFilterCheckCount() {
+    return BloomFilterManager.getInstance().getCheckNum();
+  }
+
+  @Override
+  public long getBloomFilterRejectCount() {
+    return BloomFilterManager.getInstance().getRejectNum();
+  }
+
+  @Override
+  public double getBloomFilterFalsePositiveRate() {
+    return BloomFilterManager.getInstance().getFalsePositiveRate();
+  }
+
+  @Override
+  public long getBloomFilterSavedBytes() {
+    return BloomFilterManager.getInstance().getSavedBytes();
+  }
+
+  @Override
+  public long getBloomFilterEvictionCount() {
+    return BloomFilterManager.getInstance().getEvictionNum();
+  }
+
+  @Override
+  public double getBloomFilterUsedMemoryProportion() {
+    return BloomFilterManager.getInstance().getUsedMemoryProportion();
+  }
+
   public static CacheHitRatioMonitor getInstance() {
     return instance;
   }
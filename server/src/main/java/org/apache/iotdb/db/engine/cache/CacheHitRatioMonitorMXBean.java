@@ -27,4 +27,36 @@ public interface CacheHitRatioMonitorMXBean {
   double getChunkHitRatio();
 
   double getTimeSeriesMetadataHitRatio();
+
+  long getChunkCacheHitCount();
+
+  long getChunkCacheMissCount();
+
+  long getChunkCacheEvictionCount();
+
+  double getChunkCacheAverageLoadPenalty();
+
+  double getChunkCacheUsedMemoryProportion();
+
+  long getTimeSeriesMetadataCacheHitCount();
+
+  long getTimeSeriesMetadataCacheMissCount();
+
+  long getTimeSeriesMetadataCacheEvictionCount();
+
+  double getTimeSeriesMetadataCacheAverageLoadPenalty();
+
+  double getTimeSeriesMetadataCacheUsedMemoryProportion();
+
+  long getBloomFilterCheckCount();
+
+  long getBloomFilterRejectCount();
+
+  double getBloomFilterFalsePositiveRate();
+
+  long getBloomFilterSavedBytes();
+
+  long getBloomFilterEvictionCount();
+
+  double getBloomFilterUsedMemoryProportion();
 }
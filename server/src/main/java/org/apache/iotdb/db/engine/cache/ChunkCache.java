@@ -28,14 +28,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.nio.ByteBuffer;
 
 /**
  * This class is used to cache <code>Chunk</code> of <code>ChunkMetaData</code> in IoTDB. The caching
- * strategy is LRU.
+ * strategy is W-TinyLFU, see {@link WTinyLFUCache}.
  */
 public class ChunkCache {
 
@@ -44,36 +41,13 @@ public class ChunkCache {
   private static final long MEMORY_THRESHOLD_IN_CHUNK_CACHE = config.getAllocateMemoryForChunkCache();
   private static boolean cacheEnable = config.isMetaDataCacheEnable();
 
-  private final LRULinkedHashMap<ChunkMetadata, Chunk> lruCache;
-
-  private AtomicLong cacheHitNum = new AtomicLong();
-  private AtomicLong cacheRequestNum = new AtomicLong();
-
-  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final WTinyLFUCache<ChunkMetadata, Chunk> cache;
 
 
   private ChunkCache() {
-    lruCache = new LRULinkedHashMap<ChunkMetadata, Chunk>(MEMORY_THRESHOLD_IN_CHUNK_CACHE, true) {
-
-      int count = 0;
-      long averageSize = 0;
-
-      @Override
-      protected long calEntrySize(ChunkMetadata key, Chunk value) {
-        if (count < 10) {
-          long currentSize = RamUsageEstimator.shallowSizeOf(key) + RamUsageEstimator.sizeOf(value);
-          averageSize = (averageSize * count) + currentSize / (++count);
-          return currentSize;
-        } else if (count < 10000) {
-          count++;
-          return averageSize;
-        } else {
-          averageSize = RamUsageEstimator.shallowSizeOf(key) + RamUsageEstimator.sizeOf(value);
-          count = 1;
-          return averageSize;
-        }
-      }
-    };
+    cache = new WTinyLFUCache<>(MEMORY_THRESHOLD_IN_CHUNK_CACHE,
+        new SampledWeigher<>((key, value) -> RamUsageEstimator.shallowSizeOf(key)
+            + RamUsageEstimator.sizeOf(value)));
   }
 
   public static ChunkCache getInstance() {
@@ -83,87 +57,83 @@ public class ChunkCache {
   public Chunk get(ChunkMetadata chunkMetaData, TsFileSequenceReader reader) throws IOException {
     if (!cacheEnable) {
       Chunk chunk = reader.readMemChunk(chunkMetaData);
-      return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeletedAt(), reader.getEndianType());
-    }
-
-    cacheRequestNum.incrementAndGet();
-
-    try {
-      lock.readLock().lock();
-      if (lruCache.containsKey(chunkMetaData)) {
-        cacheHitNum.incrementAndGet();
-        printCacheLog(true);
-        Chunk chunk = lruCache.get(chunkMetaData);
-        return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeletedAt(), reader.getEndianType());
-      }
-    } finally {
-      lock.readLock().unlock();
+      return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeleteIntervalList(), reader.getEndianType());
     }
 
-    Lock cacheLock = lock.writeLock();
+    Chunk chunk;
     try {
-      cacheLock.lock();
-      if (lruCache.containsKey(chunkMetaData)) {
-        try {
-          cacheLock = lock.readLock();
-          cacheLock.lock();
-        } finally {
-          lock.writeLock().unlock();
-        }
-        cacheHitNum.incrementAndGet();
-        printCacheLog(true);
-        Chunk chunk = lruCache.get(chunkMetaData);
-        return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeletedAt(), reader.getEndianType());
-      }
-      printCacheLog(false);
-      Chunk chunk = reader.readMemChunk(chunkMetaData);
-      lruCache.put(chunkMetaData, chunk);
-      return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeletedAt(), reader.getEndianType());
+      chunk = cache.get(chunkMetaData, key -> readHeapChunk(key, reader));
     } catch (IOException e) {
       logger.error("something wrong happened while reading {}", reader.getFileName());
       throw e;
-    } finally {
-      cacheLock.unlock();
     }
+    printCacheLog();
+    return new Chunk(chunk.getHeader(), chunk.getData().duplicate(), chunk.getDeleteIntervalList(), reader.getEndianType());
+  }
 
+  /**
+   * read a chunk whose data is on the heap, a chunk read from a memory mapped file is copied so
+   * that the cache never keeps the mapping of a closed and maybe deleted file alive.
+   */
+  private Chunk readHeapChunk(ChunkMetadata chunkMetaData, TsFileSequenceReader reader)
+      throws IOException {
+    Chunk chunk = reader.readMemChunk(chunkMetaData);
+    ByteBuffer data = chunk.getData();
+    if (data.hasArray()) {
+      return chunk;
+    }
+    ByteBuffer heapData = ByteBuffer.allocate(data.remaining());
+    heapData.put(data.duplicate());
+    heapData.flip();
+    return new Chunk(chunk.getHeader(), heapData, chunk.getDeleteIntervalList(), chunk.getEndianType());
   }
 
-  private void printCacheLog(boolean isHit) {
+  private void printCacheLog() {
     if (!logger.isDebugEnabled()) {
       return;
     }
     logger.debug(
-            "[ChunkMetaData cache {}hit] The number of requests for cache is {}, hit rate is {}.",
-            isHit ? "" : "didn't ", cacheRequestNum.get(),
-            cacheHitNum.get() * 1.0 / cacheRequestNum.get());
+            "[Chunk cache] The number of requests for cache is {}, hit rate is {}, evicted {}.",
+            cache.getHitCount() + cache.getMissCount(), cache.getHitRatio(),
+            cache.getEvictionCount());
   }
 
   public double calculateChunkHitRatio() {
-    if (cacheRequestNum.get() != 0) {
-      return cacheHitNum.get() * 1.0 / cacheRequestNum.get();
-    } else {
-      return 0;
-    }
+    return cache.getHitRatio();
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return cache.getEvictionCount();
+  }
+
+  public double getAverageLoadPenalty() {
+    return cache.getAverageLoadPenalty();
+  }
+
+  public double getUsedMemoryProportion() {
+    return cache.getUsedMemoryProportion();
   }
 
 
   /**
-   * clear LRUCache.
+   * clear the cache.
    */
   public void clear() {
-    lock.writeLock().lock();
-    if (lruCache != null) {
-      lruCache.clear();
-    }
-    lock.writeLock().unlock();
+    cache.clear();
   }
 
   public void remove(ChunkMetadata chunkMetaData) {
-    lock.writeLock().lock();
     if (chunkMetaData != null) {
-      lruCache.remove(chunkMetaData);
+      cache.remove(chunkMetaData);
     }
-    lock.writeLock().unlock();
   }
 
   /**
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+/**
+ * Estimate the weights of the entries by sampling, as measuring every entry is expensive on the
+ * read path. The first entries of every period are measured by the exact weigher, and the other
+ * entries of the period are weighed by the average of them.
+ */
+class SampledWeigher<K, V> implements WTinyLFUCache.Weigher<K, V> {
+
+  private static final int SAMPLE_NUM = 10;
+  private static final int SAMPLE_PERIOD = 10000;
+
+  private final WTinyLFUCache.Weigher<K, V> exactWeigher;
+
+  private int count = 0;
+  private long averageSize = 0;
+
+  SampledWeigher(WTinyLFUCache.Weigher<K, V> exactWeigher) {
+    this.exactWeigher = exactWeigher;
+  }
+
+  @Override
+  public long weigh(K key, V value) {
+    synchronized (this) {
+      if (count >= SAMPLE_PERIOD) {
+        count = 0;
+      }
+      if (count >= SAMPLE_NUM) {
+        count++;
+        return averageSize;
+      }
+    }
+    long currentSize = exactWeigher.weigh(key, value);
+    synchronized (this) {
+      if (count < SAMPLE_NUM) {
+        averageSize = (averageSize * count + currentSize) / (count + 1);
+        count++;
+      }
+    }
+    return currentSize;
+  }
+}
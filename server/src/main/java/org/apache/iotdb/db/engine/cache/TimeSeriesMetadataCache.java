@@ -33,13 +33,10 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * This class is used to cache <code>TimeSeriesMetadata</code> in IoTDB. The caching
- * strategy is LRU.
+ * strategy is W-TinyLFU, see {@link WTinyLFUCache}.
  */
 public class TimeSeriesMetadataCache {
 
@@ -48,34 +45,13 @@ public class TimeSeriesMetadataCache {
   private static final long MEMORY_THRESHOLD_IN_TIME_SERIES_METADATA_CACHE = config.getAllocateMemoryForTimeSeriesMetaDataCache();
   private static boolean cacheEnable = config.isMetaDataCacheEnable();
 
-  private final LRULinkedHashMap<TimeSeriesMetadataCacheKey, TimeseriesMetadata> lruCache;
-
-  private AtomicLong cacheHitNum = new AtomicLong();
-  private AtomicLong cacheRequestNum = new AtomicLong();
-
-  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final WTinyLFUCache<TimeSeriesMetadataCacheKey, TimeseriesMetadata> cache;
 
 
   private TimeSeriesMetadataCache() {
-    lruCache = new LRULinkedHashMap<TimeSeriesMetadataCacheKey, TimeseriesMetadata>(MEMORY_THRESHOLD_IN_TIME_SERIES_METADATA_CACHE, true) {
-      int count = 0;
-      long averageSize = 0;
-      @Override
-      protected long calEntrySize(TimeSeriesMetadataCacheKey key, TimeseriesMetadata value) {
-        if (count < 10) {
-          long currentSize = RamUsageEstimator.shallowSizeOf(key) + RamUsageEstimator.sizeOf(value);
-          averageSize = ((averageSize * count) + currentSize) / (++count);
-          return currentSize;
-        } else if (count < 10000) {
-          count++;
-          return averageSize;
-        } else {
-          averageSize = RamUsageEstimator.shallowSizeOf(key) + RamUsageEstimator.sizeOf(value);
-          count = 1;
-          return averageSize;
-        }
-      }
-    };
+    cache = new WTinyLFUCache<>(MEMORY_THRESHOLD_IN_TIME_SERIES_METADATA_CACHE,
+        new SampledWeigher<>((key, value) -> RamUsageEstimator.shallowSizeOf(key)
+            + RamUsageEstimator.sizeOf(value)));
   }
 
   public static TimeSeriesMetadataCache getInstance() {
@@ -95,95 +71,90 @@ public class TimeSeriesMetadataCache {
       return reader.readDeviceMetadata(key.device).get(key.measurement);
     }
 
-    cacheRequestNum.incrementAndGet();
-
-    try {
-      lock.readLock().lock();
-      if (lruCache.containsKey(key)) {
-        cacheHitNum.incrementAndGet();
-        printCacheLog(true);
-        return lruCache.get(key);
-      }
-    } finally {
-      lock.readLock().unlock();
-    }
-
+    TimeseriesMetadata res;
     try {
-      lock.writeLock().lock();
-      if (lruCache.containsKey(key)) {
-        cacheHitNum.incrementAndGet();
-        printCacheLog(true);
-        return lruCache.get(key);
-      }
-      printCacheLog(false);
-      // bloom filter part
-      TsFileMetadata fileMetaData = TsFileMetaDataCache.getInstance().get(key.filePath);
-      BloomFilter bloomFilter = fileMetaData.getBloomFilter();
-      if (bloomFilter != null && !bloomFilter
-          .contains(key.device + IoTDBConstant.PATH_SEPARATOR + key.measurement)) {
-        return null;
-      }
-      TsFileSequenceReader reader = FileReaderManager.getInstance().get(key.filePath, true);
-      Map<String, TimeseriesMetadata> timeSeriesMetadataMap = reader.readDeviceMetadata(key.device);
-      TimeseriesMetadata res = timeSeriesMetadataMap.get(key.measurement);
-      lruCache.put(key, res);
-
-      if (!allSensors.isEmpty()) {
-        // put TimeSeriesMetadata of all sensors used in this query into cache
-        allSensors.forEach(sensor -> {
-          if (timeSeriesMetadataMap.containsKey(sensor)) {
-            lruCache.put(new TimeSeriesMetadataCacheKey(key.filePath, key.device, sensor),
-                timeSeriesMetadataMap.get(sensor));
-          }
-        });
-      }
-      return res;
+      res = cache.get(key, k -> loadTimeseriesMetadata(k, allSensors));
     } catch (IOException e) {
       logger.error("something wrong happened while reading {}", key.filePath);
       throw e;
-    } finally {
-      lock.writeLock().unlock();
     }
+    printCacheLog();
+    return res;
+  }
 
+  private TimeseriesMetadata loadTimeseriesMetadata(TimeSeriesMetadataCacheKey key,
+      Set<String> allSensors) throws IOException {
+    // the metadata of the other sensors is dropped if any key is invalidated during the load
+    long loadGeneration = cache.getGeneration();
+    // bloom filter part
+    TsFileMetadata fileMetaData = TsFileMetaDataCache.getInstance().get(key.filePath);
+    BloomFilter bloomFilter = fileMetaData.getBloomFilter();
+    if (bloomFilter != null && !bloomFilter
+        .contains(key.device + IoTDBConstant.PATH_SEPARATOR + key.measurement)) {
+      return null;
+    }
+    TsFileSequenceReader reader = FileReaderManager.getInstance().get(key.filePath, true);
+    Map<String, TimeseriesMetadata> timeSeriesMetadataMap = reader.readDeviceMetadata(key.device);
+
+    if (!allSensors.isEmpty()) {
+      // put TimeSeriesMetadata of all sensors used in this query into cache
+      allSensors.forEach(sensor -> {
+        if (!sensor.equals(key.measurement) && timeSeriesMetadataMap.containsKey(sensor)) {
+          cache.put(new TimeSeriesMetadataCacheKey(key.filePath, key.device, sensor),
+              timeSeriesMetadataMap.get(sensor), loadGeneration);
+        }
+      });
+    }
+    return timeSeriesMetadataMap.get(key.measurement);
   }
 
 
-  private void printCacheLog(boolean isHit) {
+  private void printCacheLog() {
     if (!logger.isDebugEnabled()) {
       return;
     }
     logger.debug(
-            "[TimeSeriesMetadata cache {}hit] The number of requests for cache is {}, hit rate is {}.",
-            isHit ? "" : "didn't ", cacheRequestNum.get(),
-            cacheHitNum.get() * 1.0 / cacheRequestNum.get());
+            "[TimeSeriesMetadata cache] The number of requests for cache is {}, hit rate is {}, evicted {}.",
+            cache.getHitCount() + cache.getMissCount(), cache.getHitRatio(),
+            cache.getEvictionCount());
   }
 
   public double calculateTimeSeriesMetadataHitRatio() {
-    if (cacheRequestNum.get() != 0) {
-      return cacheHitNum.get() * 1.0 / cacheRequestNum.get();
-    } else {
-      return 0;
-    }
+    return cache.getHitRatio();
+  }
+
+  public long getHitCount() {
+    return cache.getHitCount();
+  }
+
+  public long getMissCount() {
+    return cache.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return cache.getEvictionCount();
+  }
+
+  public double getAverageLoadPenalty() {
+    return cache.getAverageLoadPenalty();
+  }
+
+  public double getUsedMemoryProportion() {
+    return cache.getUsedMemoryProportion();
   }
 
 
   /**
-   * clear LRUCache.
+   * clear the cache.
    */
   public void clear() {
-    lock.writeLock().lock();
-    if (lruCache != null) {
-      lruCache.clear();
-    }
-    lock.writeLock().unlock();
+    cache.clear();
   }
 
   public void remove(TimeSeriesMetadataCacheKey key) {
-    lock.writeLock().lock();
     if (key != null) {
-      lruCache.remove(key);
+      cache.remove(key);
     }
-    lock.writeLock().unlock();
   }
 
   public static class TimeSeriesMetadataCacheKey {
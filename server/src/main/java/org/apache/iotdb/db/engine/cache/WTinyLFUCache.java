@@ -0,0 +1,530 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A byte-weighted concurrent cache with W-TinyLFU eviction.
+ * <p>
+ * Keys are spread over independently locked segments. Each segment is split into a small LRU
+ * admission window and a segmented LRU main space (probation and protected). An entry evicted
+ * from the window only enters the main space if a frequency sketch says it was accessed more
+ * often than the entry it would replace, so that a single scan cannot flush the hot entries.
+ * <p>
+ * Values are loaded outside of any segment lock. Concurrent misses on the same key share one
+ * load, misses on different keys never wait for each other. A load which overlaps a remove or a
+ * clear is returned to its callers but not cached, so that an invalidated value never comes back.
+ */
+public class WTinyLFUCache<K, V> {
+
+  private static final int MAX_SEGMENT_NUM = 64;
+  private static final double WINDOW_PROPORTION = 0.01;
+  private static final double PROTECTED_PROPORTION = 0.8;
+
+  private final Segment<K, V>[] segments;
+  private final int segmentMask;
+  private final long maxMemInB;
+  private final Weigher<K, V> weigher;
+
+  private final Map<K, CompletableFuture<V>> loadingMap = new ConcurrentHashMap<>();
+
+  /**
+   * increased by every remove and clear, a load only caches its value if the generation has not
+   * changed since the load started.
+   */
+  private final AtomicLong generation = new AtomicLong();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder loadCount = new LongAdder();
+  private final LongAdder totalLoadTimeInNs = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  public WTinyLFUCache(long maxMemInB, Weigher<K, V> weigher) {
+    this(maxMemInB, defaultSegmentNum(), weigher);
+  }
+
+  @SuppressWarnings("unchecked")
+  public WTinyLFUCache(long maxMemInB, int segmentNum, Weigher<K, V> weigher) {
+    int num = 1;
+    while (num < segmentNum) {
+      num <<= 1;
+    }
+    this.segments = new Segment[num];
+    this.segmentMask = num - 1;
+    this.maxMemInB = maxMemInB;
+    this.weigher = weigher;
+    long segmentMaxMem = Math.max(1, maxMemInB / num);
+    for (int i = 0; i < num; i++) {
+      segments[i] = new Segment<>(segmentMaxMem, evictionCount);
+    }
+  }
+
+  private static int defaultSegmentNum() {
+    return Math.min(MAX_SEGMENT_NUM, Runtime.getRuntime().availableProcessors() * 4);
+  }
+
+  /**
+   * get the value of the key, load it by the loader if it is not cached. Concurrent callers on
+   * the same key wait for a single load, the loaded value is not cached if it is null.
+   */
+  public V get(K key, CacheLoader<K, V> loader) throws IOException {
+    Segment<K, V> segment = segmentFor(key);
+    V value = segment.get(key);
+    if (value != null) {
+      hitCount.increment();
+      return value;
+    }
+    missCount.increment();
+
+    CompletableFuture<V> newLoad = new CompletableFuture<>();
+    CompletableFuture<V> load = loadingMap.computeIfAbsent(key, k -> newLoad);
+    if (load != newLoad) {
+      return waitForLoad(load);
+    }
+    try {
+      // another load of the key may have finished between the miss and the registration
+      value = segment.peek(key);
+      if (value == null) {
+        long loadGeneration = generation.get();
+        long startTime = System.nanoTime();
+        value = loader.load(key);
+        totalLoadTimeInNs.add(System.nanoTime() - startTime);
+        loadCount.increment();
+        if (value != null) {
+          putLoaded(segment, key, value, loadGeneration);
+        }
+      }
+      newLoad.complete(value);
+      return value;
+    } catch (IOException | RuntimeException e) {
+      newLoad.completeExceptionally(e);
+      throw e;
+    } finally {
+      loadingMap.remove(key, newLoad);
+    }
+  }
+
+  private void putLoaded(Segment<K, V> segment, K key, V value, long loadGeneration) {
+    long weight = weigher.weigh(key, value);
+    segment.lock.lock();
+    try {
+      if (generation.get() == loadGeneration) {
+        segment.put(key, value, weight);
+      }
+    } finally {
+      segment.lock.unlock();
+    }
+  }
+
+  private V waitForLoad(CompletableFuture<V> load) throws IOException {
+    try {
+      return load.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a cache load", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * @return the cached value or null, the access is recorded as a hit or a miss.
+   */
+  public V getIfPresent(K key) {
+    V value = segmentFor(key).get(key);
+    if (value != null) {
+      hitCount.increment();
+    } else {
+      missCount.increment();
+    }
+    return value;
+  }
+
+  public void put(K key, V value) {
+    if (value == null) {
+      return;
+    }
+    segmentFor(key).put(key, value, weigher.weigh(key, value));
+  }
+
+  /**
+   * @return the current generation, a loader which caches other values read along with its key
+   * takes it before reading them and passes it to {@link #put(Object, Object, long)}.
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * put a value which was loaded since the given generation, it is not cached if a remove or a
+   * clear has happened since then, just like the value of {@link #get(Object, CacheLoader)}.
+   */
+  public void put(K key, V value, long loadGeneration) {
+    if (value == null) {
+      return;
+    }
+    putLoaded(segmentFor(key), key, value, loadGeneration);
+  }
+
+  public void remove(K key) {
+    Segment<K, V> segment = segmentFor(key);
+    segment.lock.lock();
+    try {
+      generation.incrementAndGet();
+      segment.remove(key);
+    } finally {
+      segment.lock.unlock();
+    }
+  }
+
+  public void clear() {
+    generation.incrementAndGet();
+    for (Segment<K, V> segment : segments) {
+      segment.clear();
+    }
+  }
+
+  public long size() {
+    long size = 0;
+    for (Segment<K, V> segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  public long getUsedMemory() {
+    long usedMemory = 0;
+    for (Segment<K, V> segment : segments) {
+      usedMemory += segment.weightedSize();
+    }
+    return usedMemory;
+  }
+
+  public double getUsedMemoryProportion() {
+    return getUsedMemory() * 1.0 / maxMemInB;
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  public long getLoadCount() {
+    return loadCount.sum();
+  }
+
+  public long getTotalLoadTimeInNs() {
+    return totalLoadTimeInNs.sum();
+  }
+
+  public double getHitRatio() {
+    long hit = hitCount.sum();
+    long request = hit + missCount.sum();
+    return request == 0 ? 0 : hit * 1.0 / request;
+  }
+
+  /**
+   * @return average time in milliseconds spent loading a missed value.
+   */
+  public double getAverageLoadPenalty() {
+    long count = loadCount.sum();
+    return count == 0 ? 0 : totalLoadTimeInNs.sum() / 1_000_000.0 / count;
+  }
+
+  private Segment<K, V> segmentFor(K key) {
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return segments[h & segmentMask];
+  }
+
+  @FunctionalInterface
+  public interface CacheLoader<K, V> {
+
+    V load(K key) throws IOException;
+  }
+
+  @FunctionalInterface
+  public interface Weigher<K, V> {
+
+    /**
+     * approximately estimate the memory occupied by key and value.
+     */
+    long weigh(K key, V value);
+  }
+
+  private static class Node<V> {
+
+    private final V value;
+    private final long weight;
+
+    private Node(V value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  private static class Segment<K, V> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final long windowMaxMem;
+    private final long protectedMaxMem;
+    private final long mainMaxMem;
+
+    private final LinkedHashMap<K, Node<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<V>> protectedSpace = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long windowMem;
+    private long probationMem;
+    private long protectedMem;
+
+    private final FrequencySketch sketch = new FrequencySketch(16);
+    private final LongAdder evictionCount;
+
+    private Segment(long maxMemInB, LongAdder evictionCount) {
+      this.windowMaxMem = Math.max(1, (long) (maxMemInB * WINDOW_PROPORTION));
+      this.mainMaxMem = Math.max(1, maxMemInB - windowMaxMem);
+      this.protectedMaxMem = (long) (mainMaxMem * PROTECTED_PROPORTION);
+      this.evictionCount = evictionCount;
+    }
+
+    private V get(K key) {
+      lock.lock();
+      try {
+        sketch.increment(key);
+        Node<V> node = window.get(key);
+        if (node != null) {
+          return node.value;
+        }
+        node = protectedSpace.get(key);
+        if (node != null) {
+          return node.value;
+        }
+        node = probation.remove(key);
+        if (node != null) {
+          probationMem -= node.weight;
+          protectedSpace.put(key, node);
+          protectedMem += node.weight;
+          demoteProtected();
+          return node.value;
+        }
+        return null;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * @return the cached value or null, without recording the access.
+     */
+    private V peek(K key) {
+      lock.lock();
+      try {
+        Node<V> node = window.get(key);
+        if (node == null) {
+          node = protectedSpace.get(key);
+        }
+        if (node == null) {
+          node = probation.get(key);
+        }
+        return node == null ? null : node.value;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void put(K key, V value, long weight) {
+      lock.lock();
+      try {
+        removeNode(key);
+        window.put(key, new Node<>(value, weight));
+        windowMem += weight;
+        int entryNum = size();
+        if (entryNum > sketch.tableLength()) {
+          sketch.ensureCapacity(entryNum << 1);
+        }
+        evictFromWindow();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void remove(K key) {
+      lock.lock();
+      try {
+        removeNode(key);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void clear() {
+      lock.lock();
+      try {
+        window.clear();
+        probation.clear();
+        protectedSpace.clear();
+        windowMem = 0;
+        probationMem = 0;
+        protectedMem = 0;
+        sketch.clear();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private int size() {
+      return window.size() + probation.size() + protectedSpace.size();
+    }
+
+    private long weightedSize() {
+      lock.lock();
+      try {
+        return windowMem + probationMem + protectedMem;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void removeNode(K key) {
+      Node<V> node = window.remove(key);
+      if (node != null) {
+        windowMem -= node.weight;
+        return;
+      }
+      node = probation.remove(key);
+      if (node != null) {
+        probationMem -= node.weight;
+        return;
+      }
+      node = protectedSpace.remove(key);
+      if (node != null) {
+        protectedMem -= node.weight;
+      }
+    }
+
+    /**
+     * move the least recently used entries of the protected space back to probation until the
+     * protected space fits its limit.
+     */
+    private void demoteProtected() {
+      Iterator<Entry<K, Node<V>>> iterator = protectedSpace.entrySet().iterator();
+      while (protectedMem > protectedMaxMem && protectedSpace.size() > 1) {
+        Entry<K, Node<V>> eldest = iterator.next();
+        iterator.remove();
+        protectedMem -= eldest.getValue().weight;
+        probation.put(eldest.getKey(), eldest.getValue());
+        probationMem += eldest.getValue().weight;
+      }
+    }
+
+    /**
+     * the window always keeps its most recent entry, the others leave the window as candidates
+     * of the main space.
+     */
+    private void evictFromWindow() {
+      Iterator<Entry<K, Node<V>>> iterator = window.entrySet().iterator();
+      while (windowMem > windowMaxMem && window.size() > 1) {
+        Entry<K, Node<V>> candidate = iterator.next();
+        iterator.remove();
+        windowMem -= candidate.getValue().weight;
+        admit(candidate.getKey(), candidate.getValue());
+      }
+    }
+
+    private void admit(K candidateKey, Node<V> candidate) {
+      if (candidate.weight > mainMaxMem) {
+        evictionCount.increment();
+        return;
+      }
+      long overflow = probationMem + protectedMem + candidate.weight - mainMaxMem;
+      if (overflow > 0) {
+        if (sketch.frequency(candidateKey) <= maxVictimFrequency(overflow)) {
+          evictionCount.increment();
+          return;
+        }
+        while (probationMem + protectedMem + candidate.weight > mainMaxMem) {
+          evictMainVictim();
+        }
+      }
+      probation.put(candidateKey, candidate);
+      probationMem += candidate.weight;
+    }
+
+    /**
+     * @return the highest frequency of the victims which are evicted to free the overflow, the
+     * candidate is only admitted if it is accessed more often than all of them.
+     */
+    private int maxVictimFrequency(long overflow) {
+      int maxFrequency = 0;
+      long freedMem = 0;
+      for (LinkedHashMap<K, Node<V>> victimSpace : Arrays.asList(probation, protectedSpace)) {
+        for (Entry<K, Node<V>> victim : victimSpace.entrySet()) {
+          maxFrequency = Math.max(maxFrequency, sketch.frequency(victim.getKey()));
+          freedMem += victim.getValue().weight;
+          if (freedMem >= overflow) {
+            return maxFrequency;
+          }
+        }
+      }
+      return maxFrequency;
+    }
+
+    private void evictMainVictim() {
+      LinkedHashMap<K, Node<V>> victimSpace = probation.isEmpty() ? protectedSpace : probation;
+      Iterator<Entry<K, Node<V>>> iterator = victimSpace.entrySet().iterator();
+      Entry<K, Node<V>> victim = iterator.next();
+      iterator.remove();
+      if (victimSpace == probation) {
+        probationMem -= victim.getValue().weight;
+      } else {
+        protectedMem -= victim.getValue().weight;
+      }
+      evictionCount.increment();
+    }
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.iotdb.db.engine.flush;
 
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.iotdb.db.concurrent.WrappedRunnable;
 import org.apache.iotdb.db.engine.flush.pool.FlushSubTaskPoolManager;
@@ -40,6 +41,11 @@ public class FlushManager implements FlushManagerMBean, IService {
 
   private FlushTaskPoolManager flushPool = FlushTaskPoolManager.getInstance();
 
+  private LongAdder flushedMemTableNum = new LongAdder();
+  private LongAdder totalSortTime = new LongAdder();
+  private LongAdder totalEncodingTime = new LongAdder();
+  private LongAdder totalIOTime = new LongAdder();
+
   @Override
   public void start() throws StartupException {
     FlushSubTaskPoolManager.getInstance().start();
@@ -83,6 +89,47 @@ public class FlushManager implements FlushManagerMBean, IService {
     return FlushSubTaskPoolManager.getInstance().getWaitingTasksNumber();
   }
 
+  @Override
+  public int getNumberOfWorkingEncodingTasks() {
+    return FlushSubTaskPoolManager.getInstance().getWorkingEncodingTasksNumber();
+  }
+
+  @Override
+  public int getNumberOfPendingEncodingTasks() {
+    return FlushSubTaskPoolManager.getInstance().getWaitingEncodingTasksNumber();
+  }
+
+  @Override
+  public long getNumberOfFlushedMemTables() {
+    return flushedMemTableNum.sum();
+  }
+
+  @Override
+  public long getTotalSortTimeInMs() {
+    return totalSortTime.sum();
+  }
+
+  @Override
+  public long getTotalEncodingTimeInMs() {
+    return totalEncodingTime.sum();
+  }
+
+  @Override
+  public long getTotalIOTimeInMs() {
+    return totalIOTime.sum();
+  }
+
+  /**
+   * record the time costs of each stage of a finished memtable flush, the sort and encoding time
+   * is summed over all encoding threads.
+   */
+  public void recordFlushCost(long sortTime, long encodingTime, long ioTime) {
+    flushedMemTableNum.increment();
+    totalSortTime.add(sortTime);
+    totalEncodingTime.add(encodingTime);
+    totalIOTime.add(ioTime);
+  }
+
   class FlushThread extends WrappedRunnable{
 
     @Override
@@ -29,4 +29,16 @@ public interface FlushManagerMBean {
 
   public int getNumberOfPendingSubTasks();
 
+  public int getNumberOfWorkingEncodingTasks();
+
+  public int getNumberOfPendingEncodingTasks();
+
+  public long getNumberOfFlushedMemTables();
+
+  public long getTotalSortTimeInMs();
+
+  public long getTotalEncodingTimeInMs();
+
+  public long getTotalIOTimeInMs();
+
 }
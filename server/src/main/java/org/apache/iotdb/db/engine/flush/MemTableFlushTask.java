@@ -19,47 +19,100 @@
 package org.apache.iotdb.db.engine.flush;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.adapter.ActiveTimeSeriesCounter;
 import org.apache.iotdb.db.engine.flush.pool.FlushSubTaskPoolManager;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.IWritableMemChunk;
+import org.apache.iotdb.db.engine.rollup.RollupFile;
+import org.apache.iotdb.db.engine.rollup.RollupRules;
+import org.apache.iotdb.db.engine.rollup.SeriesRollup;
 import org.apache.iotdb.db.exception.runtime.FlushRunTimeException;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
-import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.write.chunk.ChunkWriterImpl;
 import org.apache.iotdb.tsfile.write.chunk.IChunkWriter;
-import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * MemTableFlushTask flushes a memtable in a pipeline: the series are sorted and encoded in
+ * parallel on the bounded encoding pool of FlushSubTaskPoolManager, while a single io task
+ * writes the encoded chunks into the file. The io task consumes the futures of the encoding
+ * tasks in the order they are submitted, so the chunk groups are written in the same order as
+ * a serial flush.
+ *
+ * <p>
+ * When the rollups are maintained, the buckets of the series declared by the RollupRules are
+ * calculated while the series are encoded and appended to the RollupFile after the data is
+ * written.
+ * </p>
+ */
 public class MemTableFlushTask {
 
   private static final Logger logger = LoggerFactory.getLogger(MemTableFlushTask.class);
   private static final FlushSubTaskPoolManager subTaskPoolManager = FlushSubTaskPoolManager
       .getInstance();
-  private Future encodingTaskFuture;
+  /**
+   * how many io messages (and thus encoded but unwritten chunks) may be queued for each encoding
+   * thread, it bounds the memory of a flush when the io is slower than the encoding.
+   */
+  private static final int IO_TASK_QUEUE_SIZE_PER_ENCODING_THREAD = 4;
+  private static final long IO_TASK_QUEUE_OFFER_TIMEOUT_MS = 100;
+
   private Future ioTaskFuture;
   private RestorableTsFileIOWriter writer;
 
-  private ConcurrentLinkedQueue ioTaskQueue = new ConcurrentLinkedQueue();
-  private ConcurrentLinkedQueue encodingTaskQueue = new ConcurrentLinkedQueue();
+  private final BlockingQueue<Object> ioTaskQueue = new LinkedBlockingQueue<>(
+      IO_TASK_QUEUE_SIZE_PER_ENCODING_THREAD * IoTDBDescriptor.getInstance().getConfig()
+          .getConcurrentFlushEncodingThread());
   private String storageGroup;
 
   private IMemTable memTable;
 
-  private volatile boolean noMoreEncodingTask = false;
-  private volatile boolean noMoreIOTask = false;
+  /**
+   * null if the flush does not maintain rollups
+   */
+  private final RollupRules rollupRules;
+  private final Queue<SeriesRollup> rollups = new ConcurrentLinkedQueue<>();
+
+  /**
+   * the submitted encoding tasks, they are cancelled once the flush fails so that the encoding
+   * pool does not keep working for a flush which will never write their chunks
+   */
+  private final Queue<Future<IChunkWriter>> encodingFutures = new ConcurrentLinkedQueue<>();
+
+  private final AtomicLong sortTime = new AtomicLong();
+  private final AtomicLong encodingTime = new AtomicLong();
+  private volatile long ioTime = 0;
 
   public MemTableFlushTask(IMemTable memTable, RestorableTsFileIOWriter writer, String storageGroup) {
+    this(memTable, writer, storageGroup, false);
+  }
+
+  /**
+   * @param maintainRollups whether to maintain the rollups of the file, only sequence files have
+   * rollups as the points of an unsequence file may be overwritten by its later flushes
+   */
+  public MemTableFlushTask(IMemTable memTable, RestorableTsFileIOWriter writer, String storageGroup,
+      boolean maintainRollups) {
     this.memTable = memTable;
     this.writer = writer;
     this.storageGroup = storageGroup;
-    this.encodingTaskFuture = subTaskPoolManager.submit(encodingTask);
+    RollupRules rules = IoTDBDescriptor.getInstance().getConfig().getRollupRules();
+    this.rollupRules = maintainRollups && !rules.isEmpty() ? rules : null;
     this.ioTaskFuture = subTaskPoolManager.submit(ioTask);
     logger.debug("flush task of Storage group {} memtable {} is created ",
         storageGroup, memTable.getVersion());
@@ -71,177 +124,225 @@ public class MemTableFlushTask {
    */
   public void syncFlushMemTable() throws ExecutionException, InterruptedException {
     long start = System.currentTimeMillis();
-    long sortTime = 0;
-    for (String deviceId : memTable.getMemTableMap().keySet()) {
-      encodingTaskQueue.add(new StartFlushGroupIOTask(deviceId));
-      for (String measurementId : memTable.getMemTableMap().get(deviceId).keySet()) {
-        long startTime = System.currentTimeMillis();
-        IWritableMemChunk series = memTable.getMemTableMap().get(deviceId).get(measurementId);
-        MeasurementSchema desc = series.getSchema();
-        TVList tvList = series.getSortedTVList();
-        sortTime += System.currentTimeMillis() - startTime;
-        encodingTaskQueue.add(new Pair<>(tvList, desc));
-        // register active time series to the ActiveTimeSeriesCounter
-        ActiveTimeSeriesCounter.getInstance().offer(storageGroup, deviceId, measurementId);
+    try {
+      for (Map.Entry<String, Map<String, IWritableMemChunk>> deviceEntry : memTable
+          .getMemTableMap().entrySet()) {
+        String deviceId = deviceEntry.getKey();
+        addIOTask(new StartFlushGroupIOTask(deviceId));
+        for (Map.Entry<String, IWritableMemChunk> seriesEntry : deviceEntry.getValue()
+            .entrySet()) {
+          Future<IChunkWriter> encodingFuture = subTaskPoolManager
+              .submitEncodingTask(new EncodingTask(deviceId, seriesEntry.getValue()));
+          encodingFutures.add(encodingFuture);
+          addIOTask(encodingFuture);
+          // register active time series to the ActiveTimeSeriesCounter
+          ActiveTimeSeriesCounter.getInstance().offer(storageGroup, deviceId, seriesEntry.getKey());
+        }
+        addIOTask(new EndChunkGroupIoTask());
       }
-      encodingTaskQueue.add(new EndChunkGroupIoTask());
+      ActiveTimeSeriesCounter.getInstance().updateActiveRatio(storageGroup);
+      addIOTask(new TaskEnd());
+    } catch (InterruptedException | ExecutionException | RuntimeException e) {
+      // avoid ioTask waiting forever
+      ioTaskFuture.cancel(true);
+      cancelEncodingTasks();
+      throw e;
     }
-    ActiveTimeSeriesCounter.getInstance().updateActiveRatio(storageGroup);
-    noMoreEncodingTask = true;
-    logger.debug(
-        "Storage group {} memtable {}, flushing into disk: data sort time cost {} ms.",
-        storageGroup, memTable.getVersion(), sortTime);
 
     try {
-      encodingTaskFuture.get();
+      ioTaskFuture.get();
     } catch (InterruptedException | ExecutionException e) {
-      // avoid ioTask waiting forever
-      noMoreIOTask = true;
-      ioTaskFuture.cancel(true);
+      cancelEncodingTasks();
       throw e;
     }
 
-    ioTaskFuture.get();
-
     try {
       writer.writeVersion(memTable.getVersion());
     } catch (IOException e) {
       throw new ExecutionException(e);
     }
+    if (!rollups.isEmpty()) {
+      appendRollups();
+    }
 
+    FlushManager.getInstance().recordFlushCost(sortTime.get(), encodingTime.get(), ioTime);
+    logger.debug(
+        "Storage group {} memtable {}, flushing into disk: data sort time cost {} ms, encoding "
+            + "time cost {} ms, io time cost {} ms.", storageGroup, memTable.getVersion(),
+        sortTime.get(), encodingTime.get(), ioTime);
     logger.info(
         "Storage group {} memtable {} flushing a memtable has finished! Time consumption: {}ms",
         storageGroup, memTable, System.currentTimeMillis() - start);
   }
 
+  /**
+   * the rollups are only a cache of the data, so a failure does not fail the flush but drops the
+   * rollups of the whole file as the failed append may leave a broken entry.
+   */
+  private void appendRollups() {
+    try {
+      RollupFile.append(writer.getFile(), rollups);
+    } catch (IOException e) {
+      logger.warn("Storage group {} memtable {}, cannot write the rollups of {}, drop them",
+          storageGroup, memTable.getVersion(), writer.getFile(), e);
+      try {
+        RollupFile.delete(writer.getFile());
+      } catch (IOException ex) {
+        logger.error("Storage group {} memtable {}, cannot delete the rollups of {}", storageGroup,
+            memTable.getVersion(), writer.getFile(), ex);
+      }
+    }
+  }
 
-  private Runnable encodingTask = new Runnable() {
-    private void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
-        TSDataType dataType){
-      for (int i = 0; i < tvPairs.size(); i++) {
-        long time = tvPairs.getTime(i);
+  private void cancelEncodingTasks() {
+    for (Future<IChunkWriter> encodingFuture : encodingFutures) {
+      encodingFuture.cancel(true);
+    }
+  }
 
-        // skip duplicated data
-        if ((i + 1 < tvPairs.size() && (time == tvPairs.getTime(i + 1)))) {
-          continue;
-        }
+  /**
+   * block until the io task queue has room for the message, or report the failure of the io
+   * task if it has stopped so that the caller does not wait forever.
+   */
+  private void addIOTask(Object ioMessage) throws InterruptedException, ExecutionException {
+    while (!ioTaskQueue.offer(ioMessage, IO_TASK_QUEUE_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+      if (ioTaskFuture.isDone()) {
+        ioTaskFuture.get();
+        throw new ExecutionException(new FlushRunTimeException(new IOException(String.format(
+            "Storage group %s memtable %d, io task exits before all data is flushed",
+            storageGroup, memTable.getVersion()))));
+      }
+    }
+  }
 
-        switch (dataType) {
-          case BOOLEAN:
-            seriesWriterImpl.write(time, tvPairs.getBoolean(i));
-            break;
-          case INT32:
-            seriesWriterImpl.write(time, tvPairs.getInt(i));
-            break;
-          case INT64:
-            seriesWriterImpl.write(time, tvPairs.getLong(i));
-            break;
-          case FLOAT:
-            seriesWriterImpl.write(time, tvPairs.getFloat(i));
-            break;
-          case DOUBLE:
-            seriesWriterImpl.write(time, tvPairs.getDouble(i));
-            break;
-          case TEXT:
-            seriesWriterImpl.write(time, tvPairs.getBinary(i));
-            break;
-          default:
-            logger.error("Storage group {} does not support data type: {}", storageGroup,
-                dataType);
-            break;
-        }
+  private void writeOneSeries(TVList tvPairs, IChunkWriter seriesWriterImpl,
+      TSDataType dataType, SeriesRollup[] seriesRollups) {
+    for (int i = 0; i < tvPairs.size(); i++) {
+      long time = tvPairs.getTime(i);
+
+      // skip duplicated data
+      if ((i + 1 < tvPairs.size() && (time == tvPairs.getTime(i + 1)))) {
+        continue;
+      }
+
+      switch (dataType) {
+        case BOOLEAN:
+          seriesWriterImpl.write(time, tvPairs.getBoolean(i));
+          break;
+        case INT32:
+          seriesWriterImpl.write(time, tvPairs.getInt(i));
+          break;
+        case INT64:
+          seriesWriterImpl.write(time, tvPairs.getLong(i));
+          break;
+        case FLOAT:
+          seriesWriterImpl.write(time, tvPairs.getFloat(i));
+          break;
+        case DOUBLE:
+          seriesWriterImpl.write(time, tvPairs.getDouble(i));
+          break;
+        case TEXT:
+          seriesWriterImpl.write(time, tvPairs.getBinary(i));
+          break;
+        default:
+          logger.error("Storage group {} does not support data type: {}", storageGroup,
+              dataType);
+          break;
+      }
+      for (SeriesRollup seriesRollup : seriesRollups) {
+        seriesRollup.update(time, tvPairs, i);
       }
     }
+  }
+
+  private SeriesRollup[] createSeriesRollups(String deviceId, IWritableMemChunk series) {
+    if (rollupRules == null) {
+      return new SeriesRollup[0];
+    }
+    String measurement = series.getSchema().getMeasurementId();
+    TSDataType dataType = series.getSchema().getType();
+    return Arrays.stream(rollupRules.getIntervals(deviceId, measurement))
+        .mapToObj(interval -> new SeriesRollup(deviceId, measurement, interval, dataType))
+        .toArray(SeriesRollup[]::new);
+  }
+
+  /**
+   * sort and encode one series into a chunk writer, different series are encoded concurrently.
+   */
+  private class EncodingTask implements Callable<IChunkWriter> {
+
+    private final String deviceId;
+    private final IWritableMemChunk series;
+
+    EncodingTask(String deviceId, IWritableMemChunk series) {
+      this.deviceId = deviceId;
+      this.series = series;
+    }
 
-    @SuppressWarnings("squid:S135")
     @Override
-    public void run() {
-      long memSerializeTime = 0;
-      boolean noMoreMessages = false;
-      logger.debug("Storage group {} memtable {}, starts to encoding data.", storageGroup,
-          memTable.getVersion());
-      while (true) {
-        if (noMoreEncodingTask) {
-          noMoreMessages = true;
-        }
-        Object task = encodingTaskQueue.poll();
-        if (task == null) {
-          if (noMoreMessages) {
-            break;
-          }
-          try {
-            Thread.sleep(10);
-          } catch (@SuppressWarnings("squid:S2142") InterruptedException e) {
-            logger.error("Storage group {} memtable {}, encoding task is interrupted.",
-                storageGroup, memTable.getVersion(), e);
-            // generally it is because the thread pool is shutdown so the task should be aborted
-            break;
-          }
-        } else {
-          if (task instanceof StartFlushGroupIOTask) {
-            ioTaskQueue.add(task);
-          } else if (task instanceof EndChunkGroupIoTask) {
-            ioTaskQueue.add(task);
-          } else {
-            long starTime = System.currentTimeMillis();
-            Pair<TVList, MeasurementSchema> encodingMessage = (Pair<TVList, MeasurementSchema>) task;
-            IChunkWriter seriesWriter = new ChunkWriterImpl(encodingMessage.right);
-            writeOneSeries(encodingMessage.left, seriesWriter, encodingMessage.right.getType());
-            ioTaskQueue.add(seriesWriter);
-            memSerializeTime += System.currentTimeMillis() - starTime;
-          }
-        }
-      }
-      noMoreIOTask = true;
-      logger.debug("Storage group {}, flushing memtable {} into disk: Encoding data cost "
-              + "{} ms.",
-          storageGroup, memTable.getVersion(), memSerializeTime);
+    public IChunkWriter call() {
+      long startTime = System.currentTimeMillis();
+      TVList tvList = series.getSortedTVList();
+      long sortEndTime = System.currentTimeMillis();
+      sortTime.addAndGet(sortEndTime - startTime);
+
+      IChunkWriter seriesWriter = new ChunkWriterImpl(series.getSchema());
+      SeriesRollup[] seriesRollups = createSeriesRollups(deviceId, series);
+      writeOneSeries(tvList, seriesWriter, series.getSchema().getType(), seriesRollups);
+      rollups.addAll(Arrays.asList(seriesRollups));
+      encodingTime.addAndGet(System.currentTimeMillis() - sortEndTime);
+      return seriesWriter;
     }
-  };
+  }
 
-  @SuppressWarnings("squid:S135")
+  @SuppressWarnings({"squid:S135", "unchecked"})
   private Runnable ioTask = () -> {
-    long ioTime = 0;
-    boolean returnWhenNoTask = false;
+    long ioTimeCost = 0;
     logger.debug("Storage group {} memtable {}, start io.", storageGroup, memTable.getVersion());
     while (true) {
-      if (noMoreIOTask) {
-        returnWhenNoTask = true;
-      }
-      Object ioMessage = ioTaskQueue.poll();
-      if (ioMessage == null) {
-        if (returnWhenNoTask) {
+      Object ioMessage;
+      try {
+        ioMessage = ioTaskQueue.take();
+        if (ioMessage instanceof TaskEnd) {
           break;
         }
-        try {
-          Thread.sleep(10);
-        } catch (@SuppressWarnings("squid:S2142") InterruptedException e) {
-          logger.error("Storage group {} memtable, io task is interrupted.", storageGroup
-              , memTable.getVersion(), e);
-          // generally it is because the thread pool is shutdown so the task should be aborted
-          break;
+        if (ioMessage instanceof Future) {
+          // wait for the encoding of this series while later series are still being encoded
+          ioMessage = ((Future<IChunkWriter>) ioMessage).get();
         }
-      } else {
-        long starTime = System.currentTimeMillis();
-        try {
-          if (ioMessage instanceof StartFlushGroupIOTask) {
-            writer.startChunkGroup(((StartFlushGroupIOTask) ioMessage).deviceId);
-          } else if (ioMessage instanceof IChunkWriter) {
-            ChunkWriterImpl chunkWriter = (ChunkWriterImpl) ioMessage;
-            chunkWriter.writeToFileWriter(MemTableFlushTask.this.writer);
-          } else {
-            writer.endChunkGroup();
-          }
-        } catch (IOException e) {
-          logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
-              memTable.getVersion(), e);
-          throw new FlushRunTimeException(e);
+      } catch (@SuppressWarnings("squid:S2142") InterruptedException e) {
+        logger.error("Storage group {} memtable {}, io task is interrupted.", storageGroup
+            , memTable.getVersion(), e);
+        // generally it is because the thread pool is shutdown so the task should be aborted
+        break;
+      } catch (ExecutionException e) {
+        logger.error("Storage group {} memtable {}, encoding task meets error.", storageGroup,
+            memTable.getVersion(), e);
+        cancelEncodingTasks();
+        throw new FlushRunTimeException(e);
+      }
+
+      long starTime = System.currentTimeMillis();
+      try {
+        if (ioMessage instanceof StartFlushGroupIOTask) {
+          writer.startChunkGroup(((StartFlushGroupIOTask) ioMessage).deviceId);
+        } else if (ioMessage instanceof IChunkWriter) {
+          ChunkWriterImpl chunkWriter = (ChunkWriterImpl) ioMessage;
+          chunkWriter.writeToFileWriter(MemTableFlushTask.this.writer);
+        } else {
+          writer.endChunkGroup();
         }
-        ioTime += System.currentTimeMillis() - starTime;
+      } catch (IOException e) {
+        logger.error("Storage group {} memtable {}, io task meets error.", storageGroup,
+            memTable.getVersion(), e);
+        cancelEncodingTasks();
+        throw new FlushRunTimeException(e);
       }
+      ioTimeCost += System.currentTimeMillis() - starTime;
     }
+    ioTime = ioTimeCost;
     logger.debug("flushing a memtable {} in storage group {}, io cost {}ms", memTable.getVersion(),
-        storageGroup, ioTime);
+        storageGroup, ioTimeCost);
   };
 
   static class EndChunkGroupIoTask {
@@ -260,4 +361,11 @@ public class MemTableFlushTask {
     }
   }
 
+  static class TaskEnd {
+
+    TaskEnd() {
+
+    }
+  }
+
 }
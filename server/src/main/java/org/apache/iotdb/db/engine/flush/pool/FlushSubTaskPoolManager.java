@@ -19,8 +19,14 @@
 
 package org.apache.iotdb.db.engine.flush.pool;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,9 +35,39 @@ public class FlushSubTaskPoolManager extends AbstractPoolManager {
   private static final Logger LOGGER = LoggerFactory
       .getLogger(FlushSubTaskPoolManager.class);
 
+  /**
+   * a bounded pool that sorts and encodes series of all flushing memtables, so that the encoding
+   * of one memtable uses many cores but all flushes together do not use more than the configured
+   * number of threads. It is kept after it is shut down, so the submissions are rejected and the
+   * monitors still work.
+   */
+  private volatile ExecutorService encodingPool;
+
   private FlushSubTaskPoolManager() {
     this.pool = IoTDBThreadPoolFactory
         .newCachedThreadPool(ThreadName.FLUSH_SUB_TASK_SERVICE.getName());
+    this.encodingPool = newEncodingPool();
+  }
+
+  private static ExecutorService newEncodingPool() {
+    return IoTDBThreadPoolFactory.newFixedThreadPool(
+        IoTDBDescriptor.getInstance().getConfig().getConcurrentFlushEncodingThread(),
+        ThreadName.FLUSH_ENCODING_TASK_SERVICE.getName());
+  }
+
+  public synchronized <T> Future<T> submitEncodingTask(Callable<T> task) {
+    if (encodingPool.isShutdown()) {
+      throw new RejectedExecutionException("The flush encoding pool has been stopped");
+    }
+    return encodingPool.submit(task);
+  }
+
+  public int getWorkingEncodingTasksNumber() {
+    return ((ThreadPoolExecutor) encodingPool).getActiveCount();
+  }
+
+  public int getWaitingEncodingTasksNumber() {
+    return ((ThreadPoolExecutor) encodingPool).getQueue().size();
   }
 
   public static FlushSubTaskPoolManager getInstance() {
@@ -54,6 +90,9 @@ public class FlushSubTaskPoolManager extends AbstractPoolManager {
       this.pool = IoTDBThreadPoolFactory
           .newCachedThreadPool(ThreadName.FLUSH_SUB_TASK_SERVICE.getName());
     }
+    if (encodingPool.isShutdown()) {
+      this.encodingPool = newEncodingPool();
+    }
     LOGGER.info("Flush sub task manager started.");
   }
 
@@ -63,6 +102,7 @@ public class FlushSubTaskPoolManager extends AbstractPoolManager {
       close();
       pool = null;
     }
+    encodingPool.shutdownNow();
     LOGGER.info("Flush sub task manager stopped");
   }
 
@@ -20,10 +20,11 @@ package org.apache.iotdb.db.engine.memtable;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.iotdb.db.engine.modification.Deletion;
 import org.apache.iotdb.db.engine.modification.Modification;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
@@ -37,6 +38,7 @@ import org.apache.iotdb.db.utils.MemUtils;
 import org.apache.iotdb.db.utils.datastructure.TVList;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 
 public abstract class AbstractMemTable implements IMemTable {
@@ -45,12 +47,16 @@ public abstract class AbstractMemTable implements IMemTable {
 
   private List<Modification> modifications = new ArrayList<>();
 
+  /**
+   * the devices are inserted concurrently, while the series of a device are inserted by one thread
+   * at a time, see StorageGroupProcessor
+   */
   private final Map<String, Map<String, IWritableMemChunk>> memTableMap;
 
-  private long memSize = 0;
+  private final AtomicLong memSize = new AtomicLong();
 
   public AbstractMemTable() {
-    this.memTableMap = new HashMap<>();
+    this.memTableMap = new ConcurrentHashMap<>();
   }
 
   public AbstractMemTable(Map<String, Map<String, IWritableMemChunk>> memTableMap) {
@@ -68,19 +74,15 @@ public abstract class AbstractMemTable implements IMemTable {
    * @return true if seriesPath is within this memtable
    */
   private boolean checkPath(String deviceId, String measurement) {
-    return memTableMap.containsKey(deviceId) && memTableMap.get(deviceId).containsKey(measurement);
+    Map<String, IWritableMemChunk> memSeries = memTableMap.get(deviceId);
+    return memSeries != null && memSeries.containsKey(measurement);
   }
 
   private IWritableMemChunk createIfNotExistAndGet(String deviceId, String measurement,
       MeasurementSchema schema) {
-    if (!memTableMap.containsKey(deviceId)) {
-      memTableMap.put(deviceId, new HashMap<>());
-    }
-    Map<String, IWritableMemChunk> memSeries = memTableMap.get(deviceId);
-    if (!memSeries.containsKey(measurement)) {
-      memSeries.put(measurement, genMemSeries(schema));
-    }
-    return memSeries.get(measurement);
+    Map<String, IWritableMemChunk> memSeries = memTableMap
+        .computeIfAbsent(deviceId, k -> new ConcurrentHashMap<>());
+    return memSeries.computeIfAbsent(measurement, k -> genMemSeries(schema));
   }
 
   protected abstract IWritableMemChunk genMemSeries(MeasurementSchema schema);
@@ -97,7 +99,7 @@ public abstract class AbstractMemTable implements IMemTable {
             insertPlan.getSchemas()[i], insertPlan.getTime(), value);
       }
       long recordSizeInByte = MemUtils.getRecordSize(insertPlan);
-      memSize += recordSizeInByte;
+      memSize.addAndGet(recordSizeInByte);
     } catch (QueryProcessException e) {
       throw new WriteProcessException(e.getMessage());
     }
@@ -109,7 +111,7 @@ public abstract class AbstractMemTable implements IMemTable {
     try {
       write(batchInsertPlan, start, end);
       long recordSizeInByte = MemUtils.getRecordSize(batchInsertPlan, start, end);
-      memSize += recordSizeInByte;
+      memSize.addAndGet(recordSizeInByte);
     } catch (RuntimeException e) {
       throw new WriteProcessException(e.getMessage());
     }
@@ -147,14 +149,14 @@ public abstract class AbstractMemTable implements IMemTable {
 
   @Override
   public long memSize() {
-    return memSize;
+    return memSize.get();
   }
 
   @Override
   public void clear() {
     memTableMap.clear();
     modifications.clear();
-    memSize = 0;
+    memSize.set(0);
   }
 
   @Override
@@ -169,38 +171,51 @@ public abstract class AbstractMemTable implements IMemTable {
     if (!checkPath(deviceId, measurement)) {
       return null;
     }
-    long undeletedTime = findUndeletedTime(deviceId, measurement, timeLowerBound);
+    List<TimeRange> deletionList = findDeletionList(deviceId, measurement);
+    long undeletedTime = timeLowerBound;
+    if (deletionList != null && deletionList.get(0).getMin() == Long.MIN_VALUE
+        && deletionList.get(0).getMax() < Long.MAX_VALUE) {
+      // the data earlier than the first deleted range are dropped by the time offset
+      undeletedTime = Math.max(deletionList.remove(0).getMax() + 1, timeLowerBound);
+    }
     IWritableMemChunk memChunk = memTableMap.get(deviceId).get(measurement);
-    TVList chunkCopy = memChunk.getTVList().clone();
+    TVList chunkSnapshot = memChunk.getTVListSnapshot();
 
-    chunkCopy.setTimeOffset(undeletedTime);
-    return new ReadOnlyMemChunk(measurement, dataType, encoding, chunkCopy, props, getVersion());
+    chunkSnapshot.setTimeOffset(undeletedTime);
+    chunkSnapshot.setDeletionList(deletionList == null || deletionList.isEmpty() ? null
+        : deletionList);
+    return new ReadOnlyMemChunk(measurement, dataType, encoding, chunkSnapshot, props,
+        getVersion());
   }
 
 
-  private long findUndeletedTime(String deviceId, String measurement, long timeLowerBound) {
-    long undeletedTime = Long.MIN_VALUE;
+  /**
+   * @return the sorted and disjoint ranges deleted from the timeseries after the MemTable began
+   * flushing, null if there is none
+   */
+  private List<TimeRange> findDeletionList(String deviceId, String measurement) {
+    List<TimeRange> deletionList = null;
     for (Modification modification : modifications) {
       if (modification instanceof Deletion) {
         Deletion deletion = (Deletion) modification;
-        if (deletion.getDevice().equals(deviceId) && deletion.getMeasurement().equals(measurement)
-            && deletion.getTimestamp() > undeletedTime) {
-          undeletedTime = deletion.getTimestamp();
+        if (deletion.getDevice().equals(deviceId) && deletion.getMeasurement().equals(measurement)) {
+          deletionList = TimeRange.insertIntoSortedRanges(deletionList, deletion.getStartTime(),
+              deletion.getEndTime());
         }
       }
     }
-    return Math.max(undeletedTime + 1, timeLowerBound);
+    return deletionList;
   }
 
   @Override
-  public void delete(String deviceId, String measurementId, long timestamp) {
+  public void delete(String deviceId, String measurementId, long startTime, long endTime) {
     Map<String, IWritableMemChunk> deviceMap = memTableMap.get(deviceId);
     if (deviceMap != null) {
       IWritableMemChunk chunk = deviceMap.get(measurementId);
       if (chunk == null) {
         return;
       }
-      chunk.delete(timestamp);
+      chunk.delete(startTime, endTime);
     }
   }
 
@@ -94,9 +94,20 @@ public interface IWritableMemChunk {
     return null;
   }
 
+  /**
+   * served for query requests, the snapshot shares the data with the working list instead of
+   * copying it.
+   */
+  default TVList getTVListSnapshot() {
+    return null;
+  }
+
   default long getMinTime() {
     return Long.MIN_VALUE;
   }
 
-  void delete(long upperBound);
+  /**
+   * remove the points whose timestamp is in [lowerBound, upperBound].
+   */
+  void delete(long lowerBound, long upperBound);
 }
@@ -194,6 +194,15 @@ public class WritableMemChunk implements IWritableMemChunk {
     return list;
   }
 
+  /**
+   * synchronized with getSortedTVList() so that a flushing list is not sorted in place while a
+   * query is taking its snapshot
+   */
+  @Override
+  public synchronized TVList getTVListSnapshot() {
+    return list.snapshot();
+  }
+
   @Override
   public long count() {
     return list.size();
@@ -215,8 +224,8 @@ public class WritableMemChunk implements IWritableMemChunk {
   }
 
   @Override
-  public void delete(long upperBound) {
-    list.delete(upperBound);
+  public void delete(long lowerBound, long upperBound) {
+    list.delete(lowerBound, upperBound);
   }
 
   @Override
@@ -22,11 +22,9 @@ package org.apache.iotdb.db.engine.merge.manage;
 import static org.apache.iotdb.db.engine.merge.task.MergeTask.MERGE_SUFFIX;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -59,7 +57,6 @@ public class MergeResource {
 
   private Map<TsFileResource, TsFileSequenceReader> fileReaderCache = new HashMap<>();
   private Map<TsFileResource, RestorableTsFileIOWriter> fileWriterCache = new HashMap<>();
-  private Map<TsFileResource, List<Modification>> modificationCache = new HashMap<>();
   private Map<Path, MeasurementSchema> measurementSchemaMap = new HashMap<>(); //is this too waste?
   private Map<MeasurementSchema, IChunkWriter> chunkWriterCache = new ConcurrentHashMap<>();
 
@@ -97,7 +94,6 @@ public class MergeResource {
 
     fileReaderCache.clear();
     fileWriterCache.clear();
-    modificationCache.clear();
     measurementSchemaMap.clear();
     chunkWriterCache.clear();
   }
@@ -163,33 +159,21 @@ public class MergeResource {
 
   /**
    * Construct the a new or get an existing ChunkWriter of a measurement. Different timeseries of
-   * the same measurement and data type shares the same instance.
+   * the same measurement and data type shares the same instance. The points of a lossy compression
+   * have been reduced when they were flushed, and are kept as they are to bound the errors.
    */
   public IChunkWriter getChunkWriter(MeasurementSchema measurementSchema) {
-    return chunkWriterCache.computeIfAbsent(measurementSchema, ChunkWriterImpl::new);
+    return chunkWriterCache
+        .computeIfAbsent(measurementSchema, schema -> new ChunkWriterImpl(schema, false));
   }
 
   /**
-   * Get the modifications of a timeseries in the ModificationFile of a TsFile. Once the
-   * modifications of the timeseries are found out, they will be removed from the list to boost
-   * the next query, so two calls of the same file and timeseries are forbidden.
+   * Get the modifications of a timeseries in the ModificationFile of a TsFile, which are indexed
+   * by timeseries in the ModificationFile.
    * @param path name of the time series
    */
   public List<Modification> getModifications(TsFileResource tsFileResource, Path path) {
-    // copy from TsFileResource so queries are not affected
-    List<Modification> modifications = modificationCache.computeIfAbsent(tsFileResource,
-        resource -> new LinkedList<>(resource.getModFile().getModifications()));
-    List<Modification> pathModifications = new ArrayList<>();
-    Iterator<Modification> modificationIterator = modifications.iterator();
-    // each path is visited only once in a merge, so the modifications can be removed after visiting
-    while (modificationIterator.hasNext()) {
-      Modification modification = modificationIterator.next();
-      if (modification.getPath().equals(path)) {
-        pathModifications.add(modification);
-        modificationIterator.remove();
-      }
-    }
-    return pathModifications;
+    return tsFileResource.getModFile().getModifications(path.getFullPath());
   }
 
   /**
@@ -28,11 +28,13 @@ import java.util.Map.Entry;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.cache.ChunkMetadataCache;
 import org.apache.iotdb.db.engine.cache.TsFileMetaDataCache;
 import org.apache.iotdb.db.engine.merge.manage.MergeContext;
 import org.apache.iotdb.db.engine.merge.manage.MergeResource;
 import org.apache.iotdb.db.engine.merge.recover.MergeLogger;
+import org.apache.iotdb.db.engine.rollup.RollupFile;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.tsfile.exception.write.TsFileNotCompleteException;
@@ -121,7 +123,10 @@ class MergeFileTask {
     try {
       TsFileMetaDataCache.getInstance().remove(seqFile);
       ChunkMetadataCache.getInstance().remove(seqFile);
+      // the series of the rewritten file are loaded again from its file metadata
+      seqFile.setBloomFilter(null, 0);
       FileReaderManager.getInstance().closeFileAndRemoveReader(seqFile.getPath());
+      RollupFile.delete(seqFile.getFile());
 
       resource.removeFileReader(seqFile);
       TsFileIOWriter oldFileWriter;
@@ -182,6 +187,20 @@ class MergeFileTask {
     } finally {
       seqFile.getWriteQueryLock().writeLock().unlock();
     }
+    generateRollups(seqFile);
+  }
+
+  /**
+   * the rollups of the merged file are rebuilt after it is visible to the queries again, the
+   * queries read the raw data of the file until then.
+   */
+  private void generateRollups(TsFileResource seqFile) {
+    try {
+      RollupFile.generate(seqFile.getFile(),
+          IoTDBDescriptor.getInstance().getConfig().getRollupRules());
+    } catch (IOException e) {
+      logger.warn("{} cannot generate the rollups of {}", taskName, seqFile, e);
+    }
   }
 
   private void updateHistoricalVersions(TsFileResource seqFile) {
@@ -258,7 +277,10 @@ class MergeFileTask {
       resource.removeFileReader(seqFile);
       TsFileMetaDataCache.getInstance().remove(seqFile);
       ChunkMetadataCache.getInstance().remove(seqFile);
+      // the series of the rewritten file are loaded again from its file metadata
+      seqFile.setBloomFilter(null, 0);
       FileReaderManager.getInstance().closeFileAndRemoveReader(seqFile.getPath());
+      RollupFile.delete(seqFile.getFile());
       seqFile.getFile().delete();
 
       File nextMergeVersionFile = getNextMergeVersionFile(seqFile.getFile());
@@ -272,6 +294,7 @@ class MergeFileTask {
     } finally {
       seqFile.getWriteQueryLock().writeLock().unlock();
     }
+    generateRollups(seqFile);
   }
 
   private File getNextMergeVersionFile(File seqFile) {
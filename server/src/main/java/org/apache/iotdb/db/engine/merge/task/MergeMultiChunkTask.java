@@ -336,7 +336,8 @@ class MergeMultiChunkTask {
       IChunkWriter chunkWriter, TsFileResource currFile) throws IOException {
 
     int unclosedChunkPoint = lastUnclosedChunkPoint;
-    boolean chunkModified = currMeta.getDeletedAt() > Long.MIN_VALUE;
+    boolean chunkModified = currMeta.getDeleteIntervalList() != null
+        && !currMeta.getDeleteIntervalList().isEmpty();
 
     // no need to write the chunk to .merge file
     if (!fullMerge && lastUnclosedChunkPoint == 0 && !chunkTooSmall && !chunkOverflowed
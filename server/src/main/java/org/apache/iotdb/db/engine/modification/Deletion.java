@@ -28,21 +28,38 @@ import org.apache.iotdb.tsfile.read.common.Path;
 public class Deletion extends Modification {
 
   /**
-   * data whose timestamp <= this field are to be deleted.
+   * data whose timestamp is in [startTime, endTime] are to be deleted.
    */
-  private long timestamp;
+  private long startTime;
+  private long endTime;
 
-  public Deletion(Path path, long versionNum, long timestamp) {
+  /**
+   * constructor of a deletion of data whose timestamp <= endTime.
+   */
+  public Deletion(Path path, long versionNum, long endTime) {
+    this(path, versionNum, Long.MIN_VALUE, endTime);
+  }
+
+  public Deletion(Path path, long versionNum, long startTime, long endTime) {
     super(Type.DELETION, path, versionNum);
-    this.timestamp = timestamp;
+    this.startTime = startTime;
+    this.endTime = endTime;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public void setStartTime(long startTime) {
+    this.startTime = startTime;
   }
 
-  public long getTimestamp() {
-    return timestamp;
+  public long getEndTime() {
+    return endTime;
   }
 
-  public void setTimestamp(long timestamp) {
-    this.timestamp = timestamp;
+  public void setEndTime(long endTime) {
+    this.endTime = endTime;
   }
 
   @Override
@@ -54,11 +71,11 @@ public class Deletion extends Modification {
       return false;
     }
     Deletion del = (Deletion) obj;
-    return super.equals(obj) && del.timestamp == this.timestamp;
+    return super.equals(obj) && del.startTime == this.startTime && del.endTime == this.endTime;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), timestamp);
+    return Objects.hash(super.hashCode(), startTime, endTime);
   }
 }
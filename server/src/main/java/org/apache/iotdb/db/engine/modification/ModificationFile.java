@@ -22,8 +22,12 @@ package org.apache.iotdb.db.engine.modification;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.iotdb.db.engine.modification.io.LocalBinaryModificationAccessor;
 import org.apache.iotdb.db.engine.modification.io.LocalTextModificationAccessor;
 import org.apache.iotdb.db.engine.modification.io.ModificationReader;
 import org.apache.iotdb.db.engine.modification.io.ModificationWriter;
@@ -32,12 +36,21 @@ import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 /**
  * ModificationFile stores the Modifications of a TsFile or unseq file in another file in the same
  * directory. Methods in this class are highly synchronized for concurrency safety.
+ * <p>
+ * The modifications are stored in binary, except that a file written in text by the older
+ * versions is still appended in text. Once read, the modifications are cached and indexed by
+ * timeseries until the file is closed or removed.
  */
 public class ModificationFile implements AutoCloseable {
 
   public static final String FILE_SUFFIX = ".mods";
 
   private List<Modification> modifications;
+  /**
+   * the key is the full path of a timeseries and the value is its modifications in the order they
+   * are written
+   */
+  private Map<String, List<Modification>> pathModifications;
   private ModificationWriter writer;
   private ModificationReader reader;
   private String filePath;
@@ -48,15 +61,30 @@ public class ModificationFile implements AutoCloseable {
    * @param filePath the path of the storage file.
    */
   public ModificationFile(String filePath) {
-    LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(filePath);
-    this.writer = accessor;
-    this.reader = accessor;
     this.filePath = filePath;
+    initAccessor();
+  }
+
+  private void initAccessor() {
+    if (LocalBinaryModificationAccessor.isBinaryFile(filePath)) {
+      LocalBinaryModificationAccessor accessor = new LocalBinaryModificationAccessor(filePath);
+      this.writer = accessor;
+      this.reader = accessor;
+    } else {
+      LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(filePath);
+      this.writer = accessor;
+      this.reader = accessor;
+    }
   }
 
   private void init() {
     synchronized (this) {
       modifications = (List<Modification>) reader.read();
+      pathModifications = new HashMap<>();
+      for (Modification modification : modifications) {
+        pathModifications.computeIfAbsent(modification.getPathString(), k -> new ArrayList<>())
+            .add(modification);
+      }
     }
   }
 
@@ -67,20 +95,26 @@ public class ModificationFile implements AutoCloseable {
   }
 
   /**
-   * Release resources such as streams and caches.
+   * Release resources such as streams and the cached modifications, which are read again when they
+   * are needed.
    */
   public void close() throws IOException {
     synchronized (this) {
       writer.close();
       modifications = null;
+      pathModifications = null;
     }
   }
 
   public void abort() throws IOException {
     synchronized (this) {
+      checkInit();
       if (!modifications.isEmpty()) {
         writer.abort();
-        modifications.remove(modifications.size() - 1);
+        Modification modification = modifications.remove(modifications.size() - 1);
+        List<Modification> modificationsOfPath = pathModifications
+            .get(modification.getPathString());
+        modificationsOfPath.remove(modificationsOfPath.size() - 1);
       }
     }
   }
@@ -97,6 +131,7 @@ public class ModificationFile implements AutoCloseable {
       checkInit();
       writer.write(mod);
       modifications.add(mod);
+      pathModifications.computeIfAbsent(mod.getPathString(), k -> new ArrayList<>()).add(mod);
     }
   }
 
@@ -112,6 +147,20 @@ public class ModificationFile implements AutoCloseable {
     }
   }
 
+  /**
+   * Get the modifications of a timeseries stored in this file, without examining the ones of the
+   * other timeseries.
+   *
+   * @param path the full path of the timeseries
+   * @return an ArrayList of the modifications of the timeseries in the order they are written
+   */
+  public List<Modification> getModifications(String path) {
+    synchronized (this) {
+      checkInit();
+      return new ArrayList<>(pathModifications.getOrDefault(path, Collections.emptyList()));
+    }
+  }
+
   public String getFilePath() {
     return filePath;
   }
@@ -121,8 +170,11 @@ public class ModificationFile implements AutoCloseable {
   }
 
   public void remove() throws IOException {
-    close();
-    FSFactoryProducer.getFSFactory().getFile(filePath).delete();
+    synchronized (this) {
+      close();
+      FSFactoryProducer.getFSFactory().getFile(filePath).delete();
+      initAccessor();
+    }
   }
 
 }
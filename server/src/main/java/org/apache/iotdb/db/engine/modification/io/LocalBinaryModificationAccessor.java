@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.modification.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LocalBinaryModificationAccessor uses a file on local file system to store the modifications
+ * in a compact binary format, and writes modifications by appending to the tail of the file.
+ * <p>
+ * The file starts with MAGIC and is followed by the records. A deletion record consists of its
+ * type, the id of its path as an unsigned var int, the path itself only if the path appears in
+ * the file for the first time, the version, the start time and the end time. An abort record
+ * consists of its type only and cancels the last modification. A record left incomplete by a
+ * crash is ignored when reading, and cut off before the next record is written.
+ */
+public class LocalBinaryModificationAccessor implements ModificationReader, ModificationWriter,
+    AutoCloseable {
+
+  private static final Logger logger = LoggerFactory
+      .getLogger(LocalBinaryModificationAccessor.class);
+
+  /**
+   * the first byte never starts a text modification file, and the last byte is the version of the
+   * format.
+   */
+  private static final byte[] MAGIC = {0, 'M', 'O', 'D', 1};
+  private static final byte DELETION = 0;
+  private static final byte ABORT = 1;
+
+  private String filePath;
+  private OutputStream writer;
+
+  /**
+   * the ids of the paths in the file, null before the file is read
+   */
+  private Map<String, Integer> pathIds;
+
+  /**
+   * the length of the complete records in the file, -1 if the file is not a binary modification
+   * file
+   */
+  private long validLength;
+
+  /**
+   * Construct a LocalBinaryModificationAccessor using a file specified by filePath.
+   *
+   * @param filePath the path of the file that is used for storing modifications.
+   */
+  public LocalBinaryModificationAccessor(String filePath) {
+    this.filePath = filePath;
+  }
+
+  /**
+   * @return true if the file does not exist, is empty or is written by a
+   * LocalBinaryModificationAccessor
+   */
+  public static boolean isBinaryFile(String filePath) {
+    File file = FSFactoryProducer.getFSFactory().getFile(filePath);
+    if (!file.exists() || file.length() == 0) {
+      return true;
+    }
+    if (file.length() < MAGIC.length) {
+      return false;
+    }
+    byte[] magic = new byte[MAGIC.length];
+    try (DataInputStream inputStream = new DataInputStream(
+        FSFactoryProducer.getFSFactory().getBufferedInputStream(filePath))) {
+      inputStream.readFully(magic);
+    } catch (IOException e) {
+      logger.error("Cannot read the modification file {}", filePath, e);
+      return false;
+    }
+    return Arrays.equals(MAGIC, magic);
+  }
+
+  @Override
+  public Collection<Modification> read() {
+    pathIds = new HashMap<>();
+    validLength = 0;
+    List<Modification> modificationList = new ArrayList<>();
+    File file = FSFactoryProducer.getFSFactory().getFile(filePath);
+    if (!file.exists() || file.length() == 0) {
+      logger.debug("No modification has been written to this file");
+      return modificationList;
+    }
+
+    ByteBuffer buffer;
+    try (InputStream inputStream = FSFactoryProducer.getFSFactory()
+        .getBufferedInputStream(filePath)) {
+      buffer = ByteBuffer.wrap(readAll(inputStream, file.length()));
+    } catch (IOException e) {
+      logger.error("An error occurred when reading modifications, and the remaining modifications "
+          + "were ignored.", e);
+      validLength = -1;
+      return modificationList;
+    }
+    byte[] magic = new byte[MAGIC.length];
+    if (buffer.remaining() < MAGIC.length || !Arrays.equals(MAGIC, getBytes(buffer, magic))) {
+      logger.error("{} is not a binary modification file", filePath);
+      validLength = -1;
+      return modificationList;
+    }
+    validLength = buffer.position();
+
+    List<String> paths = new ArrayList<>();
+    try {
+      while (buffer.hasRemaining()) {
+        byte type = buffer.get();
+        if (type == ABORT) {
+          if (!modificationList.isEmpty()) {
+            modificationList.remove(modificationList.size() - 1);
+          }
+        } else if (type == DELETION) {
+          modificationList.add(decodeDeletion(buffer, paths));
+        } else {
+          throw new IOException("Unknown modification type: " + type);
+        }
+        validLength = buffer.position();
+      }
+    } catch (BufferUnderflowException | IOException e) {
+      logger.warn("The modification at {} of {} is incomplete, and it was ignored.", validLength,
+          filePath, e);
+    }
+    for (int i = 0; i < paths.size(); i++) {
+      pathIds.put(paths.get(i), i);
+    }
+    return modificationList;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (writer != null) {
+      writer.close();
+      writer = null;
+    }
+  }
+
+  @Override
+  public void abort() throws IOException {
+    writeRecord(new byte[]{ABORT});
+  }
+
+  @Override
+  public void write(Modification mod) throws IOException {
+    if (pathIds == null) {
+      read();
+    }
+    if (!(mod instanceof Deletion)) {
+      throw new IOException("Unsupported modification: " + mod);
+    }
+    Deletion deletion = (Deletion) mod;
+    ByteArrayOutputStream record = new ByteArrayOutputStream();
+    record.write(DELETION);
+    Integer pathId = pathIds.get(deletion.getPathString());
+    boolean newPath = pathId == null;
+    if (newPath) {
+      pathId = pathIds.size();
+    }
+    ReadWriteForEncodingUtils.writeUnsignedVarInt(pathId, record);
+    if (newPath) {
+      byte[] pathBytes = deletion.getPathString().getBytes(StandardCharsets.UTF_8);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(pathBytes.length, record);
+      record.write(pathBytes);
+    }
+    DataOutputStream recordStream = new DataOutputStream(record);
+    recordStream.writeLong(deletion.getVersionNum());
+    recordStream.writeLong(deletion.getStartTime());
+    recordStream.writeLong(deletion.getEndTime());
+    writeRecord(record.toByteArray());
+    if (newPath) {
+      pathIds.put(deletion.getPathString(), pathId);
+    }
+  }
+
+  /**
+   * append a record to the file, the writer is closed if the record fails to be written, so that
+   * the incomplete record is cut off before the next one.
+   */
+  private void writeRecord(byte[] record) throws IOException {
+    if (writer == null) {
+      openWriter();
+    }
+    try {
+      writer.write(record);
+      writer.flush();
+    } catch (IOException e) {
+      writer.close();
+      writer = null;
+      throw e;
+    }
+    validLength += record.length;
+  }
+
+  private void openWriter() throws IOException {
+    if (pathIds == null) {
+      read();
+    }
+    if (validLength < 0) {
+      throw new IOException(filePath + " is not a binary modification file");
+    }
+    File file = FSFactoryProducer.getFSFactory().getFile(filePath);
+    if (file.length() > validLength) {
+      logger.warn("Truncate the incomplete modification of {} from {} to {}", filePath,
+          file.length(), validLength);
+      try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+        randomAccessFile.setLength(validLength);
+      }
+    }
+    writer = new BufferedOutputStream(new FileOutputStream(file, true));
+    if (validLength == 0) {
+      writer.write(MAGIC);
+      validLength = MAGIC.length;
+    }
+  }
+
+  private static Deletion decodeDeletion(ByteBuffer buffer, List<String> paths)
+      throws IOException {
+    int pathId = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+    if (pathId == paths.size()) {
+      int length = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+      if (length > buffer.remaining()) {
+        throw new BufferUnderflowException();
+      }
+      paths.add(new String(getBytes(buffer, new byte[length]), StandardCharsets.UTF_8));
+    } else if (pathId > paths.size()) {
+      throw new IOException("Invalid path id: " + pathId);
+    }
+    String path = paths.get(pathId);
+    long versionNum = buffer.getLong();
+    long startTime = buffer.getLong();
+    long endTime = buffer.getLong();
+    return new Deletion(new Path(path), versionNum, startTime, endTime);
+  }
+
+  private static byte[] getBytes(ByteBuffer buffer, byte[] bytes) {
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  private static byte[] readAll(InputStream inputStream, long length) throws IOException {
+    byte[] bytes = new byte[(int) length];
+    int read = 0;
+    while (read < bytes.length) {
+      int n = inputStream.read(bytes, read, bytes.length - read);
+      if (n < 0) {
+        return Arrays.copyOf(bytes, read);
+      }
+      read += n;
+    }
+    return bytes;
+  }
+}
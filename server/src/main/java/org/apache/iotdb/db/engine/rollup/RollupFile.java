@@ -0,0 +1,398 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.apache.iotdb.db.engine.cache.LRULinkedHashMap;
+import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+
+/**
+ * RollupFile stores the rollups of the series in a sequence TsFile in another file in the same
+ * directory. Each flush of the TsFile appends one entry for every rollup of every flushed series:
+ *
+ * <p>
+ * device, measurement, interval, data type, bucket number, byte length, bucket statistics...
+ * </p>
+ *
+ * The rollups are only a cache of the raw data: a missing or broken RollupFile makes the queries
+ * read the raw data, so it is simply deleted whenever it may be stale and is never repaired.
+ *
+ * <p>
+ * The offsets of the entries of the recently read RollupFiles are cached, so a query only reads
+ * the entries of its series instead of scanning the whole file for every series.
+ * </p>
+ */
+public class RollupFile {
+
+  public static final String FILE_SUFFIX = ".rollup";
+  private static final String TEMP_SUFFIX = ".temp";
+
+  private static final long INDEX_CACHE_SIZE_IN_BYTES = 16L * 1024 * 1024;
+  /**
+   * the lengths of the device and the measurement, interval, data type, bucket number and byte
+   * length in an entry
+   */
+  private static final int ENTRY_FIXED_HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES + Short.BYTES
+      + Integer.BYTES * 2;
+  private static final int INDEX_ENTRY_SIZE = 64;
+
+  /**
+   * path of a RollupFile -> the offsets of its entries
+   */
+  private static final Map<String, RollupIndex> indexCache = new LRULinkedHashMap<String,
+      RollupIndex>(INDEX_CACHE_SIZE_IN_BYTES, true) {
+    @Override
+    protected long calEntrySize(String key, RollupIndex value) {
+      return key.length() * 2L + value.estimatedSize;
+    }
+  };
+
+  private RollupFile() {
+    // util class
+  }
+
+  public static File getRollupFile(File tsFile) {
+    return new File(tsFile.getPath() + FILE_SUFFIX);
+  }
+
+  /**
+   * append the rollups of a flush to the RollupFile of the TsFile.
+   */
+  public static void append(File tsFile, Collection<SeriesRollup> rollups) throws IOException {
+    invalidateIndex(tsFile);
+    try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+        new FileOutputStream(getRollupFile(tsFile), true)))) {
+      for (SeriesRollup rollup : rollups) {
+        write(rollup, outputStream);
+      }
+    }
+  }
+
+  private static void write(SeriesRollup rollup, DataOutputStream outputStream)
+      throws IOException {
+    if (rollup.isEmpty()) {
+      return;
+    }
+    PublicBAOS bucketBuffer = new PublicBAOS();
+    for (Statistics bucket : rollup.getBuckets()) {
+      bucket.serialize(bucketBuffer);
+    }
+    writeString(rollup.getDevice(), outputStream);
+    writeString(rollup.getMeasurement(), outputStream);
+    outputStream.writeLong(rollup.getInterval());
+    outputStream.writeShort(rollup.getDataType().serialize());
+    outputStream.writeInt(rollup.getBuckets().size());
+    outputStream.writeInt(bucketBuffer.size());
+    outputStream.write(bucketBuffer.getBuf(), 0, bucketBuffer.size());
+  }
+
+  /**
+   * read the buckets of a series at the interval, the buckets of different flushes are merged.
+   *
+   * @return the buckets in ascending time order, or null if the series has no such rollup
+   */
+  public static List<Statistics> read(File tsFile, String device, String measurement,
+      long interval) throws IOException {
+    File rollupFile = getRollupFile(tsFile);
+    if (!rollupFile.exists()) {
+      return null;
+    }
+    List<EntryPosition> positions = getIndex(rollupFile).entries
+        .get(getSeriesKey(device, measurement));
+    if (positions == null) {
+      return null;
+    }
+    List<Statistics> buckets = null;
+    try (RandomAccessFile input = new RandomAccessFile(rollupFile, "r")) {
+      for (EntryPosition position : positions) {
+        if (position.interval != interval) {
+          continue;
+        }
+        byte[] bytes = new byte[position.byteLength];
+        input.seek(position.offset);
+        input.readFully(bytes);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buckets == null) {
+          buckets = new ArrayList<>();
+        }
+        for (int i = 0; i < position.bucketNum; i++) {
+          if (!mergeBucket(buckets, Statistics.deserialize(buffer, position.dataType),
+              interval)) {
+            throw new IOException(String.format("The rollup of %s.%s in %s is out of order",
+                device, measurement, rollupFile));
+          }
+        }
+      }
+    }
+    return buckets;
+  }
+
+  private static RollupIndex getIndex(File rollupFile) throws IOException {
+    long fileLength = rollupFile.length();
+    long lastModified = rollupFile.lastModified();
+    synchronized (indexCache) {
+      RollupIndex index = indexCache.get(rollupFile.getPath());
+      if (index != null && index.fileLength == fileLength
+          && index.lastModified == lastModified) {
+        return index;
+      }
+    }
+    RollupIndex index = buildIndex(rollupFile, fileLength, lastModified);
+    synchronized (indexCache) {
+      // remove first so that the size of the replaced index is not counted
+      indexCache.remove(rollupFile.getPath());
+      indexCache.put(rollupFile.getPath(), index);
+    }
+    return index;
+  }
+
+  /**
+   * scan the headers of the entries in the first fileLength bytes, the entries appended later are
+   * left to the next index.
+   */
+  private static RollupIndex buildIndex(File rollupFile, long fileLength, long lastModified)
+      throws IOException {
+    RollupIndex index = new RollupIndex(fileLength, lastModified);
+    try (DataInputStream inputStream = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(rollupFile)))) {
+      long offset = 0;
+      while (offset < fileLength) {
+        String entryDevice = readString(inputStream);
+        String entryMeasurement = readString(inputStream);
+        EntryPosition position = new EntryPosition();
+        position.interval = inputStream.readLong();
+        position.dataType = TSDataType.deserialize(inputStream.readShort());
+        position.bucketNum = inputStream.readInt();
+        position.byteLength = inputStream.readInt();
+        position.offset = offset + ENTRY_FIXED_HEADER_SIZE
+            + entryDevice.getBytes(StandardCharsets.UTF_8).length
+            + entryMeasurement.getBytes(StandardCharsets.UTF_8).length;
+        offset = position.offset + position.byteLength;
+        if (offset > fileLength) {
+          break;
+        }
+        skipFully(inputStream, position.byteLength);
+        String seriesKey = getSeriesKey(entryDevice, entryMeasurement);
+        List<EntryPosition> positions = index.entries.get(seriesKey);
+        if (positions == null) {
+          positions = new ArrayList<>();
+          index.entries.put(seriesKey, positions);
+          index.estimatedSize += seriesKey.length() * 2L + INDEX_ENTRY_SIZE;
+        }
+        positions.add(position);
+        index.estimatedSize += INDEX_ENTRY_SIZE;
+      }
+    }
+    return index;
+  }
+
+  private static String getSeriesKey(String device, String measurement) {
+    return device + TsFileConstant.PATH_SEPARATOR + measurement;
+  }
+
+  private static void invalidateIndex(File tsFile) {
+    synchronized (indexCache) {
+      indexCache.remove(getRollupFile(tsFile).getPath());
+    }
+  }
+
+  /**
+   * the last bucket of a flush and the first bucket of the next flush may be the same bucket.
+   *
+   * @return false if the bucket is before the last bucket
+   */
+  private static boolean mergeBucket(List<Statistics> buckets, Statistics bucket, long interval) {
+    if (buckets.isEmpty()) {
+      buckets.add(bucket);
+      return true;
+    }
+    Statistics lastBucket = buckets.get(buckets.size() - 1);
+    long lastBucketStartTime = SeriesRollup.getBucketStartTime(lastBucket.getStartTime(), interval);
+    long bucketStartTime = SeriesRollup.getBucketStartTime(bucket.getStartTime(), interval);
+    if (bucketStartTime < lastBucketStartTime || bucket.getStartTime() <= lastBucket
+        .getEndTime()) {
+      return false;
+    }
+    if (bucketStartTime == lastBucketStartTime) {
+      lastBucket.mergeStatistics(bucket);
+    } else {
+      buckets.add(bucket);
+    }
+    return true;
+  }
+
+  /**
+   * rebuild the RollupFile of a sealed TsFile from its data, e.g., after it is rewritten by a
+   * merge.
+   */
+  public static void generate(File tsFile, RollupRules rules) throws IOException {
+    delete(tsFile);
+    if (rules.isEmpty()) {
+      return;
+    }
+    File tempFile = new File(getRollupFile(tsFile).getPath() + TEMP_SUFFIX);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsFile.getPath());
+        DataOutputStream outputStream = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+      for (String device : reader.readFileMetadata().getDeviceMetadataIndex().keySet()) {
+        for (Entry<String, List<ChunkMetadata>> entry : reader.readChunkMetadataInDevice(device)
+            .entrySet()) {
+          long[] intervals = rules.getIntervals(device, entry.getKey());
+          if (intervals.length > 0) {
+            for (SeriesRollup rollup : generate(reader, device, entry.getKey(), entry.getValue(),
+                intervals)) {
+              write(rollup, outputStream);
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      Files.deleteIfExists(tempFile.toPath());
+      throw e;
+    }
+    Files.move(tempFile.toPath(), getRollupFile(tsFile).toPath(),
+        StandardCopyOption.REPLACE_EXISTING);
+    invalidateIndex(tsFile);
+  }
+
+  private static List<SeriesRollup> generate(TsFileSequenceReader reader, String device,
+      String measurement, List<ChunkMetadata> chunkMetadataList, long[] intervals)
+      throws IOException {
+    chunkMetadataList.sort(Comparator.comparingLong(ChunkMetadata::getStartTime));
+    List<SeriesRollup> rollups = new ArrayList<>(intervals.length);
+    for (long interval : intervals) {
+      rollups.add(new SeriesRollup(device, measurement, interval,
+          chunkMetadataList.get(0).getDataType()));
+    }
+    long lastEndTime = Long.MIN_VALUE;
+    for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+      if (chunkMetadata.getStartTime() <= lastEndTime) {
+        throw new IOException(String.format("The chunks of %s.%s in %s overlap", device,
+            measurement, reader.getFileName()));
+      }
+      lastEndTime = chunkMetadata.getEndTime();
+      ChunkReader chunkReader = new ChunkReader(reader.readMemChunk(chunkMetadata), null);
+      while (chunkReader.hasNextSatisfiedPage()) {
+        BatchData batchData = chunkReader.nextPageData();
+        while (batchData.hasCurrent()) {
+          for (SeriesRollup rollup : rollups) {
+            rollup.update(batchData);
+          }
+          batchData.next();
+        }
+      }
+    }
+    return rollups;
+  }
+
+  public static void delete(File tsFile) throws IOException {
+    invalidateIndex(tsFile);
+    Files.deleteIfExists(getRollupFile(tsFile).toPath());
+  }
+
+  /**
+   * move the RollupFile along with its TsFile if it exists.
+   */
+  public static void move(File tsFile, File targetTsFile) throws IOException {
+    File rollupFile = getRollupFile(tsFile);
+    invalidateIndex(tsFile);
+    if (rollupFile.exists()) {
+      Files.move(rollupFile.toPath(), getRollupFile(targetTsFile).toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static void writeString(String str, DataOutputStream outputStream) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    outputStream.writeInt(bytes.length);
+    outputStream.write(bytes);
+  }
+
+  private static String readString(DataInputStream inputStream) throws IOException {
+    byte[] bytes = new byte[inputStream.readInt()];
+    inputStream.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void skipFully(DataInputStream inputStream, int length) throws IOException {
+    int skipped = 0;
+    while (skipped < length) {
+      int n = inputStream.skipBytes(length - skipped);
+      if (n <= 0) {
+        throw new EOFException();
+      }
+      skipped += n;
+    }
+  }
+
+  private static class RollupIndex {
+
+    private final long fileLength;
+    private final long lastModified;
+    /**
+     * device.measurement -> the entries of the series in the order they are appended
+     */
+    private final Map<String, List<EntryPosition>> entries = new HashMap<>();
+    private long estimatedSize;
+
+    private RollupIndex(long fileLength, long lastModified) {
+      this.fileLength = fileLength;
+      this.lastModified = lastModified;
+    }
+  }
+
+  private static class EntryPosition {
+
+    private long interval;
+    private TSDataType dataType;
+    private int bucketNum;
+    /**
+     * the offset of the serialized buckets in the file
+     */
+    private long offset;
+    private int byteLength;
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.metadata.MetaUtils;
+import org.apache.iotdb.db.qp.constant.DatetimeUtils;
+
+/**
+ * RollupRules declares the bucket intervals of the rollups maintained for each series, e.g.,
+ * "root.ln.*.temperature=1m,1h,1d;root.sg=3600000". A rule applies to the series of its path and
+ * all the series under it, "*" matches any one node of the path. An interval is a duration like
+ * "1h" or a number in the timestamp precision.
+ */
+public class RollupRules {
+
+  public static final RollupRules EMPTY = new RollupRules(new ArrayList<>());
+
+  private static final String RULE_SEPARATOR = ";";
+  private static final String PATH_INTERVAL_SEPARATOR = "=";
+  private static final String INTERVAL_SEPARATOR = ",";
+  private static final Pattern INTERVAL_PATTERN = Pattern.compile("(\\d+)([a-z]*)");
+
+  private final List<Rule> rules;
+
+  private RollupRules(List<Rule> rules) {
+    this.rules = rules;
+  }
+
+  /**
+   * @param rulesStr the rules separated by ";", an empty string means no rollups
+   * @param timestampPrecision the precision in which the durations are converted
+   * @throws IllegalArgumentException if a rule is malformed
+   */
+  public static RollupRules parse(String rulesStr, String timestampPrecision) {
+    List<Rule> rules = new ArrayList<>();
+    for (String ruleStr : rulesStr.split(RULE_SEPARATOR)) {
+      if (ruleStr.trim().isEmpty()) {
+        continue;
+      }
+      String[] pathAndIntervals = ruleStr.split(PATH_INTERVAL_SEPARATOR);
+      if (pathAndIntervals.length != 2) {
+        throw new IllegalArgumentException("Illegal rollup rule: " + ruleStr);
+      }
+      String[] nodes = MetaUtils.getNodeNames(pathAndIntervals[0].trim());
+      if (!nodes[0].equals(IoTDBConstant.PATH_ROOT)) {
+        throw new IllegalArgumentException("Illegal rollup path: " + pathAndIntervals[0]);
+      }
+      String[] intervalStrs = pathAndIntervals[1].split(INTERVAL_SEPARATOR);
+      long[] intervals = new long[intervalStrs.length];
+      for (int i = 0; i < intervalStrs.length; i++) {
+        intervals[i] = parseInterval(intervalStrs[i].trim(), timestampPrecision);
+      }
+      rules.add(new Rule(nodes, intervals));
+    }
+    return rules.isEmpty() ? EMPTY : new RollupRules(rules);
+  }
+
+  private static long parseInterval(String intervalStr, String timestampPrecision) {
+    Matcher matcher = INTERVAL_PATTERN.matcher(intervalStr.toLowerCase());
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Illegal rollup interval: " + intervalStr);
+    }
+    long value = Long.parseLong(matcher.group(1));
+    long interval = matcher.group(2).isEmpty() ? value
+        : DatetimeUtils.convertDurationStrToLong(value, matcher.group(2), timestampPrecision);
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Rollup interval must be positive: " + intervalStr);
+    }
+    return interval;
+  }
+
+  public boolean isEmpty() {
+    return rules.isEmpty();
+  }
+
+  /**
+   * @return the rollup intervals of the series in ascending order, empty if it has no rollups
+   */
+  public long[] getIntervals(String device, String measurement) {
+    if (rules.isEmpty()) {
+      return new long[0];
+    }
+    String[] deviceNodes = MetaUtils.getNodeNames(device);
+    TreeSet<Long> intervals = new TreeSet<>();
+    for (Rule rule : rules) {
+      if (rule.matches(deviceNodes, measurement)) {
+        for (long interval : rule.intervals) {
+          intervals.add(interval);
+        }
+      }
+    }
+    return intervals.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /**
+   * find the coarsest rollup whose buckets are aligned with all the intervals of a group by query,
+   * so that every interval is covered by whole buckets.
+   *
+   * @return the bucket interval of the rollup, or 0 if no rollup can be used
+   */
+  public long getCoarsestAlignedInterval(String device, String measurement, long startTime,
+      long interval, long slidingStep) {
+    long[] intervals = getIntervals(device, measurement);
+    for (int i = intervals.length - 1; i >= 0; i--) {
+      long bucket = intervals[i];
+      if (interval % bucket == 0 && slidingStep % bucket == 0
+          && Math.floorMod(startTime, bucket) == 0) {
+        return bucket;
+      }
+    }
+    return 0;
+  }
+
+  private static class Rule {
+
+    private final String[] nodes;
+    private final long[] intervals;
+
+    private Rule(String[] nodes, long[] intervals) {
+      this.nodes = nodes;
+      this.intervals = intervals;
+    }
+
+    private boolean matches(String[] deviceNodes, String measurement) {
+      if (nodes.length > deviceNodes.length + 1) {
+        return false;
+      }
+      for (int i = 0; i < nodes.length; i++) {
+        String node = i < deviceNodes.length ? deviceNodes[i] : measurement;
+        if (!nodes[i].equals(IoTDBConstant.PATH_WILDCARD) && !nodes[i].equals(node)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+
+/**
+ * SeriesRollup builds the rollup of one series at one interval: the points are cut into buckets
+ * [k * interval, (k + 1) * interval) and each bucket keeps the statistics (count, sum, min, max,
+ * first and last) of its points. The points must be added in ascending time order.
+ */
+public class SeriesRollup {
+
+  private final String device;
+  private final String measurement;
+  private final long interval;
+  private final TSDataType dataType;
+
+  private final List<Statistics> buckets = new ArrayList<>();
+  private Statistics currentBucket;
+  private long currentBucketStartTime;
+
+  public SeriesRollup(String device, String measurement, long interval, TSDataType dataType) {
+    this.device = device;
+    this.measurement = measurement;
+    this.interval = interval;
+    this.dataType = dataType;
+  }
+
+  /**
+   * add the point at the index of a sorted TVList
+   */
+  public void update(long time, TVList tvList, int index) {
+    Statistics bucket = getBucket(time);
+    switch (dataType) {
+      case BOOLEAN:
+        bucket.update(time, tvList.getBoolean(index));
+        break;
+      case INT32:
+        bucket.update(time, tvList.getInt(index));
+        break;
+      case INT64:
+        bucket.update(time, tvList.getLong(index));
+        break;
+      case FLOAT:
+        bucket.update(time, tvList.getFloat(index));
+        break;
+      case DOUBLE:
+        bucket.update(time, tvList.getDouble(index));
+        break;
+      case TEXT:
+        bucket.update(time, tvList.getBinary(index));
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+    }
+  }
+
+  /**
+   * add the current point of a BatchData
+   */
+  public void update(BatchData batchData) {
+    long time = batchData.currentTime();
+    Statistics bucket = getBucket(time);
+    switch (dataType) {
+      case BOOLEAN:
+        bucket.update(time, batchData.getBoolean());
+        break;
+      case INT32:
+        bucket.update(time, batchData.getInt());
+        break;
+      case INT64:
+        bucket.update(time, batchData.getLong());
+        break;
+      case FLOAT:
+        bucket.update(time, batchData.getFloat());
+        break;
+      case DOUBLE:
+        bucket.update(time, batchData.getDouble());
+        break;
+      case TEXT:
+        bucket.update(time, batchData.getBinary());
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported data type: " + dataType);
+    }
+  }
+
+  private Statistics getBucket(long time) {
+    // compare the offset instead of the end time of the bucket, which may overflow
+    if (currentBucket == null || time - currentBucketStartTime >= interval) {
+      currentBucket = Statistics.getStatsByType(dataType);
+      currentBucketStartTime = getBucketStartTime(time, interval);
+      buckets.add(currentBucket);
+    }
+    return currentBucket;
+  }
+
+  public static long getBucketStartTime(long time, long interval) {
+    return Math.floorDiv(time, interval) * interval;
+  }
+
+  public String getDevice() {
+    return device;
+  }
+
+  public String getMeasurement() {
+    return measurement;
+  }
+
+  public long getInterval() {
+    return interval;
+  }
+
+  public TSDataType getDataType() {
+    return dataType;
+  }
+
+  public List<Statistics> getBuckets() {
+    return buckets;
+  }
+
+  public boolean isEmpty() {
+    return buckets.isEmpty();
+  }
+}
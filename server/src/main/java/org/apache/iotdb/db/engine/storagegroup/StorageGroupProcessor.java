@@ -37,9 +37,11 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.io.FileUtils;
+import org.apache.iotdb.db.concurrent.HashLock;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
@@ -132,9 +134,17 @@ public class StorageGroupProcessor {
    * a read write lock for guaranteeing concurrent safety when accessing all fields in this class
    * (i.e., schema, (un)sequenceFileList, work(un)SequenceTsFileProcessor,
    * closing(Un)SequenceTsFileProcessor, latestTimeForEachDevice, and
-   * partitionLatestFlushedTimeForEachDevice)
+   * partitionLatestFlushedTimeForEachDevice). The inserts into existing TsFileProcessors and the
+   * queries only take the read lock, while creating, flushing and closing TsFileProcessors take
+   * the write lock.
    */
   private final ReadWriteLock insertLock = new ReentrantReadWriteLock();
+  /**
+   * the inserts of a device take the write lock of the device under the read lock of insertLock,
+   * so that the inserts of different devices run concurrently. The queries take the read lock of
+   * the device when reading the memtables.
+   */
+  private final HashLock deviceLock = new HashLock();
   /**
    * closeStorageGroupCondition is used to wait for all currently closing TsFiles to be done.
    */
@@ -164,13 +174,16 @@ public class StorageGroupProcessor {
   // includes sealed and unsealed unSequence TsFiles
   private List<TsFileResource> unSequenceFileList = new ArrayList<>();
   private CopyOnReadLinkedList<TsFileProcessor> closingUnSequenceTsFileProcessor = new CopyOnReadLinkedList<>();
+  // device -> time ranges of the closed files, must be invalidated after the file lists change
+  private TsFileResourceIntervalIndex sequenceFileIndex = new TsFileResourceIntervalIndex();
+  private TsFileResourceIntervalIndex unSequenceFileIndex = new TsFileResourceIntervalIndex();
   /*
    * time partition id -> map, which contains
    * device -> global latest timestamp of each device latestTimeForEachDevice caches non-flushed
    * changes upon timestamps of each device, and is used to update partitionLatestFlushedTimeForEachDevice
    * when a flush is issued.
    */
-  private Map<Long, Map<String, Long>> latestTimeForEachDevice = new HashMap<>();
+  private Map<Long, Map<String, Long>> latestTimeForEachDevice = new ConcurrentHashMap<>();
   /**
    * time partition id -> map, which contains device -> largest timestamp of the latest memtable to
    * be submitted to asyncTryToFlush partitionLatestFlushedTimeForEachDevice determines whether a
@@ -254,6 +267,7 @@ public class StorageGroupProcessor {
 
       recoverSeqFiles(tmpSeqTsFiles);
       recoverUnseqFiles(tmpUnseqTsFiles);
+      invalidateFileIndexes();
 
       for (TsFileResource resource : sequenceFileTreeSet) {
         long partitionNum = resource.getTimePartition();
@@ -285,7 +299,7 @@ public class StorageGroupProcessor {
 
     for (TsFileResource resource : sequenceFileTreeSet) {
       long timePartitionId = resource.getTimePartition();
-      latestTimeForEachDevice.computeIfAbsent(timePartitionId, l -> new HashMap<>())
+      latestTimeForEachDevice.computeIfAbsent(timePartitionId, l -> new ConcurrentHashMap<>())
           .putAll(resource.getEndTimeMap());
       partitionLatestFlushedTimeForEachDevice
           .computeIfAbsent(timePartitionId, id -> new HashMap<>())
@@ -454,101 +468,229 @@ public class StorageGroupProcessor {
     if (!checkTTL(insertPlan.getTime())) {
       throw new OutOfTTLException(insertPlan.getTime(), (System.currentTimeMillis() - dataTTL));
     }
-    writeLock();
+    TsFileProcessor tsFileProcessor;
+    insertLock.readLock().lock();
+    deviceLock.writeLock(insertPlan.getDeviceId());
     try {
-      // init map
-      long timePartitionId = StorageEngine.getTimePartition(insertPlan.getTime());
-
-      latestTimeForEachDevice.computeIfAbsent(timePartitionId, l -> new HashMap<>());
-      partitionLatestFlushedTimeForEachDevice.computeIfAbsent(timePartitionId, id -> new HashMap<>());
+      tsFileProcessor = insertToTsFileProcessor(insertPlan, false);
+    } finally {
+      deviceLock.writeUnlock(insertPlan.getDeviceId());
+      insertLock.readLock().unlock();
+    }
 
-      // insert to sequence or unSequence file
-      insertToTsFileProcessor(insertPlan,
-          insertPlan.getTime() > partitionLatestFlushedTimeForEachDevice.get(timePartitionId)
-              .getOrDefault(insertPlan.getDeviceId(), Long.MIN_VALUE));
+    if (tsFileProcessor == null) {
+      // the TsFileProcessor is not created yet, which can only be done exclusively
+      writeLock();
+      try {
+        tsFileProcessor = insertToTsFileProcessor(insertPlan, true);
+      } finally {
+        writeUnlock();
+      }
+    }
+    if (tsFileProcessor != null) {
+      tryToFlush(Collections.singletonList(tsFileProcessor));
+    }
+  }
 
+  public TSStatus[] insertBatch(BatchInsertPlan batchInsertPlan) throws WriteProcessException {
+    List<TsFileProcessor> insertedProcessors = new ArrayList<>();
+    TSStatus[] results;
+    insertLock.readLock().lock();
+    deviceLock.writeLock(batchInsertPlan.getDeviceId());
+    try {
+      results = insertBatchWithoutLock(batchInsertPlan, false, insertedProcessors);
     } finally {
-      writeUnlock();
+      deviceLock.writeUnlock(batchInsertPlan.getDeviceId());
+      insertLock.readLock().unlock();
     }
+
+    if (results == null) {
+      // some TsFileProcessors are not created yet, which can only be done exclusively
+      writeLock();
+      try {
+        results = insertBatchWithoutLock(batchInsertPlan, true, insertedProcessors);
+      } finally {
+        writeUnlock();
+      }
+    }
+    tryToFlush(insertedProcessors);
+    return results;
   }
 
-  public TSStatus[] insertBatch(BatchInsertPlan batchInsertPlan) throws WriteProcessException {
-    writeLock();
+  /**
+   * insert the BatchInsertPlans of the devices in this storage group, e.g., the tablets of one
+   * RPC, with one acquisition of the read lock. The plans that need new TsFileProcessors are
+   * inserted together with one acquisition of the write lock.
+   *
+   * @return the results of the rows of each plan
+   */
+  public TSStatus[][] insertBatches(List<BatchInsertPlan> batchInsertPlans) {
+    TSStatus[][] results = new TSStatus[batchInsertPlans.size()][];
+    List<TsFileProcessor> insertedProcessors = new ArrayList<>();
+    boolean allInserted = true;
+    insertLock.readLock().lock();
     try {
-      TSStatus[] results = new TSStatus[batchInsertPlan.getRowCount()];
-
-      /*
-       * assume that batch has been sorted by client
-       */
-      int loc = 0;
-      while (loc < batchInsertPlan.getRowCount()) {
-        long currTime = batchInsertPlan.getTimes()[loc];
-        // skip points that do not satisfy TTL
-        if (!checkTTL(currTime)) {
-          results[loc] = RpcUtils.getStatus(TSStatusCode.OUT_OF_TTL_ERROR,
-              "time " + currTime + " in current line is out of TTL: " + dataTTL);
-          loc++;
-        } else {
-          break;
+      for (int i = 0; i < batchInsertPlans.size(); i++) {
+        BatchInsertPlan batchInsertPlan = batchInsertPlans.get(i);
+        deviceLock.writeLock(batchInsertPlan.getDeviceId());
+        try {
+          results[i] = insertBatchWithoutLock(batchInsertPlan, false, insertedProcessors);
+          allInserted &= results[i] != null;
+        } catch (WriteProcessException e) {
+          results[i] = getInsertBatchFailure(batchInsertPlan, e);
+        } finally {
+          deviceLock.writeUnlock(batchInsertPlan.getDeviceId());
         }
       }
-      // loc pointing at first legal position
-      if (loc == batchInsertPlan.getRowCount()) {
-        return results;
-      }
-      // before is first start point
-      int before = loc;
-      // before time partition
-      long beforeTimePartition = StorageEngine.getTimePartition(batchInsertPlan.getTimes()[before]);
-      // init map
-      long lastFlushTime = partitionLatestFlushedTimeForEachDevice.
-          computeIfAbsent(beforeTimePartition, id -> new HashMap<>()).
-          computeIfAbsent(batchInsertPlan.getDeviceId(), id -> Long.MIN_VALUE);
-      // if is sequence
-      boolean isSequence = false;
-      while (loc < batchInsertPlan.getRowCount()) {
-        long time = batchInsertPlan.getTimes()[loc];
-        long curTimePartition = StorageEngine.getTimePartition(time);
-        results[loc] = RpcUtils.SUCCESS_STATUS;
-        // start next partition
-        if (curTimePartition != beforeTimePartition) {
-          // insert last time partition
-          insertBatchToTsFileProcessor(batchInsertPlan, before, loc, isSequence, results,
-              beforeTimePartition);
-          // re initialize
-          before = loc;
-          beforeTimePartition = curTimePartition;
-          lastFlushTime = partitionLatestFlushedTimeForEachDevice.
-              computeIfAbsent(beforeTimePartition, id -> new HashMap<>()).
-              computeIfAbsent(batchInsertPlan.getDeviceId(), id -> Long.MIN_VALUE);
-          isSequence = false;
-        }
-        // still in this partition
-        else {
-          // judge if we should insert sequence
-          if (!isSequence && time > lastFlushTime) {
-            // insert into unsequence and then start sequence
-            insertBatchToTsFileProcessor(batchInsertPlan, before, loc, false, results,
-                beforeTimePartition);
-            before = loc;
-            isSequence = true;
+    } finally {
+      insertLock.readLock().unlock();
+    }
+
+    if (!allInserted) {
+      writeLock();
+      try {
+        for (int i = 0; i < batchInsertPlans.size(); i++) {
+          if (results[i] == null) {
+            try {
+              results[i] = insertBatchWithoutLock(batchInsertPlans.get(i), true,
+                  insertedProcessors);
+            } catch (WriteProcessException e) {
+              results[i] = getInsertBatchFailure(batchInsertPlans.get(i), e);
+            }
           }
-          loc++;
         }
+      } finally {
+        writeUnlock();
       }
+    }
+    tryToFlush(insertedProcessors);
+    return results;
+  }
+
+  private TSStatus[] getInsertBatchFailure(BatchInsertPlan batchInsertPlan,
+      WriteProcessException e) {
+    logger.error("{}: insert batch of {} failed", storageGroupName,
+        batchInsertPlan.getDeviceId(), e);
+    return new TSStatus[]{RpcUtils.getStatus(e.getErrorCode(), e.getMessage())};
+  }
 
-      // do not forget last part
-      if (before < loc) {
-        insertBatchToTsFileProcessor(batchInsertPlan, before, loc, isSequence, results,
-            beforeTimePartition);
+  /**
+   * The caller holds either the write lock, or the read lock and the lock of the device, so the
+   * TsFileProcessors and the flushed times do not change.
+   *
+   * @param exclusive whether the caller holds the write lock, so that the TsFileProcessors can be
+   * created
+   * @param insertedProcessors the TsFileProcessors inserted into are added to it
+   * @return the results of the rows, or null if some TsFileProcessor does not exist and the caller
+   * is not exclusive, when nothing is inserted
+   */
+  private TSStatus[] insertBatchWithoutLock(BatchInsertPlan batchInsertPlan, boolean exclusive,
+      List<TsFileProcessor> insertedProcessors) throws WriteProcessException {
+    TSStatus[] results = new TSStatus[batchInsertPlan.getRowCount()];
+    List<BatchRange> ranges = splitBatch(batchInsertPlan, results);
+
+    TsFileProcessor[] tsFileProcessors = new TsFileProcessor[ranges.size()];
+    if (!exclusive) {
+      for (int i = 0; i < ranges.size(); i++) {
+        tsFileProcessors[i] = getWorkTsFileProcessor(ranges.get(i).timePartitionId,
+            ranges.get(i).sequence);
+        if (tsFileProcessors[i] == null) {
+          return null;
+        }
       }
+    }
+    for (int i = 0; i < ranges.size(); i++) {
+      BatchRange range = ranges.get(i);
+      TsFileProcessor tsFileProcessor = exclusive ? getOrCreateTsFileProcessor(
+          range.timePartitionId, range.sequence) : tsFileProcessors[i];
+      insertBatchToTsFileProcessor(batchInsertPlan, range.start, range.end, range.sequence,
+          results, range.timePartitionId, tsFileProcessor);
+      if (tsFileProcessor != null) {
+        insertedProcessors.add(tsFileProcessor);
+      }
+    }
+    return results;
+  }
 
-      return results;
-    } finally {
-      writeUnlock();
+  /**
+   * split the rows of a batch into the ranges inserted into different TsFileProcessors. The batch
+   * is assumed to be sorted by the client. The rows of each time partition are split into the
+   * unsequence rows and the sequence rows after the latest flushed time of the device.
+   *
+   * @param results the rows out of TTL are marked in it
+   */
+  private List<BatchRange> splitBatch(BatchInsertPlan batchInsertPlan, TSStatus[] results) {
+    List<BatchRange> ranges = new ArrayList<>();
+    int loc = 0;
+    while (loc < batchInsertPlan.getRowCount()) {
+      long currTime = batchInsertPlan.getTimes()[loc];
+      // skip points that do not satisfy TTL
+      if (!checkTTL(currTime)) {
+        results[loc] = RpcUtils.getStatus(TSStatusCode.OUT_OF_TTL_ERROR,
+            "time " + currTime + " in current line is out of TTL: " + dataTTL);
+        loc++;
+      } else {
+        break;
+      }
+    }
+    // loc pointing at first legal position
+    if (loc == batchInsertPlan.getRowCount()) {
+      return ranges;
+    }
+    // before is first start point
+    int before = loc;
+    // before time partition
+    long beforeTimePartition = StorageEngine.getTimePartition(batchInsertPlan.getTimes()[before]);
+    long lastFlushTime = getPartitionLatestFlushedTime(beforeTimePartition,
+        batchInsertPlan.getDeviceId());
+    // if is sequence
+    boolean isSequence = false;
+    while (loc < batchInsertPlan.getRowCount()) {
+      long time = batchInsertPlan.getTimes()[loc];
+      long curTimePartition = StorageEngine.getTimePartition(time);
+      // start next partition
+      if (curTimePartition != beforeTimePartition) {
+        // the range of last time partition
+        addBatchRange(ranges, before, loc, beforeTimePartition, isSequence);
+        // re initialize
+        before = loc;
+        beforeTimePartition = curTimePartition;
+        lastFlushTime = getPartitionLatestFlushedTime(beforeTimePartition,
+            batchInsertPlan.getDeviceId());
+        isSequence = false;
+      }
+      // still in this partition
+      else {
+        // judge if we should insert sequence
+        if (!isSequence && time > lastFlushTime) {
+          // the unsequence range and then start sequence
+          addBatchRange(ranges, before, loc, beforeTimePartition, false);
+          before = loc;
+          isSequence = true;
+        }
+        loc++;
+      }
+    }
+
+    // do not forget last part
+    addBatchRange(ranges, before, loc, beforeTimePartition, isSequence);
+    return ranges;
+  }
+
+  private void addBatchRange(List<BatchRange> ranges, int start, int end, long timePartitionId,
+      boolean sequence) {
+    if (start < end) {
+      ranges.add(new BatchRange(start, end, timePartitionId, sequence));
     }
   }
 
+  private long getPartitionLatestFlushedTime(long timePartitionId, String deviceId) {
+    Map<String, Long> latestFlushedTimes = partitionLatestFlushedTimeForEachDevice
+        .get(timePartitionId);
+    return latestFlushedTimes == null ? Long.MIN_VALUE
+        : latestFlushedTimes.getOrDefault(deviceId, Long.MIN_VALUE);
+  }
+
   /**
    * @return whether the given time falls in ttl
    */
@@ -563,16 +705,16 @@ public class StorageGroupProcessor {
    * @param sequence whether is sequence
    * @param results result array
    * @param timePartitionId time partition id
+   * @param tsFileProcessor null if it cannot be created
    */
   private void insertBatchToTsFileProcessor(BatchInsertPlan batchInsertPlan,
-      int start, int end, boolean sequence, TSStatus[] results, long timePartitionId)
-      throws WriteProcessException {
+      int start, int end, boolean sequence, TSStatus[] results, long timePartitionId,
+      TsFileProcessor tsFileProcessor) throws WriteProcessException {
     // return when start >= end
     if (start >= end) {
       return;
     }
 
-    TsFileProcessor tsFileProcessor = getOrCreateTsFileProcessor(timePartitionId, sequence);
     if (tsFileProcessor == null) {
       for (int i = start; i < end; i++) {
         results[i] = RpcUtils.getStatus(TSStatusCode.INTERNAL_SERVER_ERROR,
@@ -588,21 +730,45 @@ public class StorageGroupProcessor {
       return;
     }
 
-    latestTimeForEachDevice.computeIfAbsent(timePartitionId, t -> new HashMap<>());
+    Map<String, Long> latestTimes = latestTimeForEachDevice
+        .computeIfAbsent(timePartitionId, t -> new ConcurrentHashMap<>());
     // try to update the latest time of the device of this tsRecord
-    if (sequence && latestTimeForEachDevice.get(timePartitionId)
-        .getOrDefault(batchInsertPlan.getDeviceId(), Long.MIN_VALUE)
+    if (sequence && latestTimes.getOrDefault(batchInsertPlan.getDeviceId(), Long.MIN_VALUE)
         < batchInsertPlan.getTimes()[end - 1]) {
-      latestTimeForEachDevice.get(timePartitionId)
-          .put(batchInsertPlan.getDeviceId(), batchInsertPlan.getTimes()[end - 1]);
+      latestTimes.put(batchInsertPlan.getDeviceId(), batchInsertPlan.getTimes()[end - 1]);
     }
     long globalLatestFlushedTime = globalLatestFlushedTimeForEachDevice.getOrDefault(
         batchInsertPlan.getDeviceId(), Long.MIN_VALUE);
     tryToUpdateBatchInsertLastCache(batchInsertPlan, globalLatestFlushedTime);
+  }
 
-    // check memtable size and may async try to flush the work memtable
-    if (tsFileProcessor.shouldFlush()) {
-      fileFlushPolicy.apply(this, tsFileProcessor, sequence);
+  /**
+   * flush or close the TsFileProcessors whose work memtables are full after the inserts. It
+   * changes the TsFileProcessors, so it is done exclusively after the inserts release the read
+   * lock.
+   */
+  private void tryToFlush(List<TsFileProcessor> tsFileProcessors) {
+    boolean shouldFlush = false;
+    for (TsFileProcessor tsFileProcessor : tsFileProcessors) {
+      shouldFlush |= tsFileProcessor.shouldFlush();
+    }
+    if (!shouldFlush) {
+      return;
+    }
+    writeLock();
+    try {
+      for (TsFileProcessor tsFileProcessor : tsFileProcessors) {
+        // another insert may have flushed or closed it before the write lock is acquired
+        TreeMap<Long, TsFileProcessor> workTsFileProcessors = tsFileProcessor.isSequence()
+            ? workSequenceTsFileProcessors : workUnsequenceTsFileProcessors;
+        if (workTsFileProcessors.get(tsFileProcessor.getTimeRangeId()) == tsFileProcessor
+            && tsFileProcessor.shouldFlush()) {
+          // check memtable size and may async try to flush the work memtable
+          fileFlushPolicy.apply(this, tsFileProcessor, tsFileProcessor.isSequence());
+        }
+      }
+    } finally {
+      writeUnlock();
     }
   }
 
@@ -623,35 +789,45 @@ public class StorageGroupProcessor {
     }
   }
 
-  private void insertToTsFileProcessor(InsertPlan insertPlan, boolean sequence)
+  /**
+   * The caller holds either the write lock, or the read lock and the lock of the device.
+   *
+   * @param exclusive whether the caller holds the write lock, so that the TsFileProcessor can be
+   * created
+   * @return the TsFileProcessor inserted into, or null if it does not exist and the caller is not
+   * exclusive or it cannot be created
+   */
+  private TsFileProcessor insertToTsFileProcessor(InsertPlan insertPlan, boolean exclusive)
       throws WriteProcessException {
     long timePartitionId = StorageEngine.getTimePartition(insertPlan.getTime());
+    // insert to sequence or unSequence file
+    boolean sequence = insertPlan.getTime() > getPartitionLatestFlushedTime(timePartitionId,
+        insertPlan.getDeviceId());
 
-    TsFileProcessor tsFileProcessor = getOrCreateTsFileProcessor(timePartitionId, sequence);
+    TsFileProcessor tsFileProcessor = exclusive
+        ? getOrCreateTsFileProcessor(timePartitionId, sequence)
+        : getWorkTsFileProcessor(timePartitionId, sequence);
 
     if (tsFileProcessor == null) {
-      return;
+      return null;
     }
 
     // insert TsFileProcessor
     tsFileProcessor.insert(insertPlan);
 
     // try to update the latest time of the device of this tsRecord
-    if (latestTimeForEachDevice.get(timePartitionId)
-        .getOrDefault(insertPlan.getDeviceId(), Long.MIN_VALUE) < insertPlan.getTime()) {
-      latestTimeForEachDevice.get(timePartitionId)
-          .put(insertPlan.getDeviceId(), insertPlan.getTime());
+    Map<String, Long> latestTimes = latestTimeForEachDevice
+        .computeIfAbsent(timePartitionId, t -> new ConcurrentHashMap<>());
+    if (latestTimes.getOrDefault(insertPlan.getDeviceId(), Long.MIN_VALUE)
+        < insertPlan.getTime()) {
+      latestTimes.put(insertPlan.getDeviceId(), insertPlan.getTime());
     }
 
     long globalLatestFlushTime = globalLatestFlushedTimeForEachDevice.getOrDefault(
         insertPlan.getDeviceId(), Long.MIN_VALUE);
 
     tryToUpdateInsertLastCache(insertPlan, globalLatestFlushTime);
-
-    // check memtable size and may asyncTryToFlush the work memtable
-    if (tsFileProcessor.shouldFlush()) {
-      fileFlushPolicy.apply(this, tsFileProcessor, sequence);
-    }
+    return tsFileProcessor;
   }
 
   public void tryToUpdateInsertLastCache(InsertPlan plan, Long latestFlushedTime)
@@ -671,6 +847,14 @@ public class StorageGroupProcessor {
     }
   }
 
+  /**
+   * @return the working TsFileProcessor of the time partition, or null if it is not created yet
+   */
+  private TsFileProcessor getWorkTsFileProcessor(long timeRangeId, boolean sequence) {
+    return sequence ? workSequenceTsFileProcessors.get(timeRangeId)
+        : workUnsequenceTsFileProcessors.get(timeRangeId);
+  }
+
   private TsFileProcessor getOrCreateTsFileProcessor(long timeRangeId, boolean sequence) {
     TsFileProcessor tsFileProcessor = null;
     try {
@@ -731,6 +915,8 @@ public class StorageGroupProcessor {
         TsFileProcessor newProcessor = createTsFileProcessor(sequence, timeRangeId);
         tsFileProcessorTreeMap.put(timeRangeId, newProcessor);
         fileList.add(newProcessor.getTsFileResource());
+        (sequence ? sequenceFileIndex : unSequenceFileIndex)
+            .addUnsealedResource(fileList, newProcessor.getTsFileResource());
         res = newProcessor;
       } else {
         res = tsFileProcessorTreeMap.get(timeRangeId);
@@ -884,6 +1070,7 @@ public class StorageGroupProcessor {
       this.workUnsequenceTsFileProcessors.clear();
       this.sequenceFileTreeSet.clear();
       this.unSequenceFileList.clear();
+      invalidateFileIndexes();
       this.partitionLatestFlushedTimeForEachDevice.clear();
       this.globalLatestFlushedTimeForEachDevice.clear();
       this.latestTimeForEachDevice.clear();
@@ -960,6 +1147,7 @@ public class StorageGroupProcessor {
           } else {
             unSequenceFileList.remove(resource);
           }
+          invalidateFileIndexes();
         } finally {
           resource.getWriteQueryLock().writeLock().unlock();
         }
@@ -1018,9 +1206,9 @@ public class StorageGroupProcessor {
     mergeLock.readLock().lock();
     try {
       List<TsFileResource> seqResources = getFileResourceListForQuery(sequenceFileTreeSet,
-          deviceId, measurementId, context, timeFilter);
+          sequenceFileIndex, deviceId, measurementId, context, timeFilter);
       List<TsFileResource> unseqResources = getFileResourceListForQuery(unSequenceFileList,
-          deviceId, measurementId, context, timeFilter);
+          unSequenceFileIndex, deviceId, measurementId, context, timeFilter);
       QueryDataSource dataSource = new QueryDataSource(new Path(deviceId, measurementId),
           seqResources, unseqResources);
       // used files should be added before mergeLock is unlocked, or they may be deleted by
@@ -1043,6 +1231,11 @@ public class StorageGroupProcessor {
     insertLock.writeLock().lock();
   }
 
+  private void invalidateFileIndexes() {
+    sequenceFileIndex.invalidate();
+    unSequenceFileIndex.invalidate();
+  }
+
   public void writeUnlock() {
     insertLock.writeLock().unlock();
   }
@@ -1053,7 +1246,7 @@ public class StorageGroupProcessor {
    * @return fill unsealed tsfile resources with memory data and ChunkMetadataList of data in disk
    */
   private List<TsFileResource> getFileResourceListForQuery(
-      Collection<TsFileResource> tsFileResources,
+      Collection<TsFileResource> tsFileResources, TsFileResourceIntervalIndex fileIndex,
       String deviceId, String measurementId, QueryContext context, Filter timeFilter)
       throws MetadataException {
 
@@ -1064,7 +1257,11 @@ public class StorageGroupProcessor {
         .MIN_VALUE;
     context.setQueryTimeLowerBound(timeLowerBound);
 
-    for (TsFileResource tsFileResource : tsFileResources) {
+    // only the files overlapping the queried time range are checked one by one
+    long[] timeRange = TsFileResourceIntervalIndex.getTimeRange(timeFilter);
+    List<TsFileResource> candidates = fileIndex.getOverlappedResources(tsFileResources, deviceId,
+        Math.max(timeRange[0], timeLowerBound), timeRange[1]);
+    for (TsFileResource tsFileResource : candidates) {
       if (!isTsFileResourceSatisfied(tsFileResource, deviceId, timeFilter)) {
         continue;
       }
@@ -1075,10 +1272,15 @@ public class StorageGroupProcessor {
           tsfileResourcesForQuery.add(tsFileResource);
         } else {
           // left: in-memory data, right: meta of disk data
-          Pair<List<ReadOnlyMemChunk>, List<ChunkMetadata>> pair =
-              tsFileResource.getUnsealedFileProcessor()
-                  .query(deviceId, measurementId, schema.getType(), schema.getEncodingType(),
-                      schema.getProps(), context);
+          Pair<List<ReadOnlyMemChunk>, List<ChunkMetadata>> pair;
+          deviceLock.readLock(deviceId);
+          try {
+            pair = tsFileResource.getUnsealedFileProcessor()
+                .query(deviceId, measurementId, schema.getType(), schema.getEncodingType(),
+                    schema.getProps(), context);
+          } finally {
+            deviceLock.readUnlock(deviceId);
+          }
 
           tsfileResourcesForQuery.add(new TsFileResource(tsFileResource.getFile(),
               tsFileResource.getStartTimeMap(), tsFileResource.getEndTimeMap(), pair.left,
@@ -1124,6 +1326,20 @@ public class StorageGroupProcessor {
    * @param timestamp the delete range is (0, timestamp].
    */
   public void delete(String deviceId, String measurementId, long timestamp) throws IOException {
+    delete(deviceId, measurementId, Long.MIN_VALUE, timestamp);
+  }
+
+  /**
+   * Delete data whose timestamp is in [startTime, endTime] and belongs to the time series
+   * deviceId.measurementId.
+   *
+   * @param deviceId the deviceId of the timeseries to be deleted.
+   * @param measurementId the measurementId of the timeseries to be deleted.
+   * @param startTime the start of the delete range, inclusive.
+   * @param endTime the end of the delete range, inclusive.
+   */
+  public void delete(String deviceId, String measurementId, long startTime, long endTime)
+      throws IOException {
     // TODO: how to avoid partial deletion?
     //FIXME: notice that if we may remove a SGProcessor out of memory, we need to close all opened
     //mod files in mergingModification, sequenceFileList, and unsequenceFileList
@@ -1148,14 +1364,17 @@ public class StorageGroupProcessor {
         return;
       }
 
-      // time partition to divide storage group
-      long timePartitionId = StorageEngine.getTimePartition(timestamp);
+      // time partitions to divide storage group
+      long startTimePartitionId = StorageEngine.getTimePartition(startTime);
+      long endTimePartitionId = StorageEngine.getTimePartition(endTime);
       // write log to impacted working TsFileProcessors
-      logDeletion(timestamp, deviceId, measurementId, timePartitionId);
+      logDeletion(startTime, endTime, deviceId, measurementId, startTimePartitionId,
+          endTimePartitionId);
 
       Path fullPath = new Path(deviceId, measurementId);
       Deletion deletion = new Deletion(fullPath,
-          getVersionControllerByTimePartitionId(timePartitionId).nextVersion(), timestamp);
+          getVersionControllerByTimePartitionId(endTimePartitionId).nextVersion(), startTime,
+          endTime);
       if (mergingModification != null) {
         mergingModification.write(deletion);
         updatedModFiles.add(mergingModification);
@@ -1176,18 +1395,19 @@ public class StorageGroupProcessor {
     }
   }
 
-  private void logDeletion(long timestamp, String deviceId, String measurementId, long timePartitionId)
-      throws IOException {
+  private void logDeletion(long startTime, long endTime, String deviceId, String measurementId,
+      long startTimePartitionId, long endTimePartitionId) throws IOException {
     if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
-      DeletePlan deletionPlan = new DeletePlan(timestamp, new Path(deviceId, measurementId));
+      DeletePlan deletionPlan = new DeletePlan(startTime, endTime,
+          new Path(deviceId, measurementId));
       for (Map.Entry<Long, TsFileProcessor> entry : workSequenceTsFileProcessors.entrySet()) {
-        if (entry.getKey() <= timePartitionId) {
+        if (entry.getKey() >= startTimePartitionId && entry.getKey() <= endTimePartitionId) {
           entry.getValue().getLogNode().write(deletionPlan);
         }
       }
 
       for (Map.Entry<Long, TsFileProcessor> entry : workUnsequenceTsFileProcessors.entrySet()) {
-        if (entry.getKey() <= timePartitionId) {
+        if (entry.getKey() >= startTimePartitionId && entry.getKey() <= endTimePartitionId) {
           entry.getValue().getLogNode().write(deletionPlan);
         }
       }
@@ -1200,8 +1420,11 @@ public class StorageGroupProcessor {
       throws IOException {
     String deviceId = deletion.getDevice();
     for (TsFileResource tsFileResource : tsFileResourceList) {
+      // skip the files whose data of the device are out of the deleted range
       if (!tsFileResource.containsDevice(deviceId) ||
-          deletion.getTimestamp() < tsFileResource.getStartTimeMap().get(deviceId)) {
+          deletion.getEndTime() < tsFileResource.getStartTimeMap().get(deviceId) ||
+          deletion.getStartTime() > tsFileResource.getEndTimeMap()
+              .getOrDefault(deviceId, Long.MAX_VALUE)) {
         continue;
       }
 
@@ -1278,6 +1501,10 @@ public class StorageGroupProcessor {
     } finally {
       closeQueryLock.writeLock().unlock();
     }
+    // the time range of the closed file becomes fixed and can be indexed
+    TsFileResource closedResource = tsFileProcessor.getTsFileResource();
+    sequenceFileIndex.sealResource(closedResource);
+    unSequenceFileIndex.sealResource(closedResource);
     //closingSequenceTsFileProcessor is a thread safety class.
     if (closingSequenceTsFileProcessor.contains(tsFileProcessor)) {
       closingSequenceTsFileProcessor.remove(tsFileProcessor);
@@ -1401,6 +1628,7 @@ public class StorageGroupProcessor {
     mergeLock.writeLock().lock();
     try {
       unSequenceFileList.removeAll(unseqFiles);
+      invalidateFileIndexes();
     } finally {
       mergeLock.writeLock().unlock();
     }
@@ -1470,6 +1698,8 @@ public class StorageGroupProcessor {
       try {
         updateMergeModification(seqFile);
         if (i == seqFiles.size() - 1) {
+          // the time ranges of the merged seq files have been updated
+          invalidateFileIndexes();
           //FIXME if there is an exception, the the modification file will be not closed.
           removeMergingModification();
           isMerging = false;
@@ -1683,6 +1913,7 @@ public class StorageGroupProcessor {
 
       iterator = unSequenceFileList.iterator();
       removeFullyOverlapFiles(resource, iterator);
+      invalidateFileIndexes();
     } finally {
       closeQueryLock.writeLock().unlock();
       writeUnlock();
@@ -1774,7 +2005,7 @@ public class StorageGroupProcessor {
       String device = entry.getKey();
       long endTime = newTsFileResource.getEndTimeMap().get(device);
       long timePartitionId = StorageEngine.getTimePartition(endTime);
-      if (!latestTimeForEachDevice.computeIfAbsent(timePartitionId, id -> new HashMap<>())
+      if (!latestTimeForEachDevice.computeIfAbsent(timePartitionId, id -> new ConcurrentHashMap<>())
           .containsKey(device)
           || latestTimeForEachDevice.get(timePartitionId).get(device) < endTime) {
         latestTimeForEachDevice.get(timePartitionId).put(device, endTime);
@@ -1818,6 +2049,7 @@ public class StorageGroupProcessor {
           return false;
         }
         unSequenceFileList.add(tsFileResource);
+        invalidateFileIndexes();
         logger.info("Load tsfile in unsequence list, move file from {} to {}",
             syncedTsFile.getAbsolutePath(), targetFile.getAbsolutePath());
         break;
@@ -1832,6 +2064,7 @@ public class StorageGroupProcessor {
           return false;
         }
         sequenceFileTreeSet.add(tsFileResource);
+        invalidateFileIndexes();
         logger.info("Load tsfile in sequence list, move file from {} to {}",
             syncedTsFile.getAbsolutePath(), targetFile.getAbsolutePath());
         break;
@@ -1909,6 +2142,7 @@ public class StorageGroupProcessor {
           }
         }
       }
+      invalidateFileIndexes();
     } finally {
       mergeLock.writeLock().unlock();
       writeUnlock();
@@ -1967,6 +2201,7 @@ public class StorageGroupProcessor {
           }
         }
       }
+      invalidateFileIndexes();
     } finally {
       mergeLock.writeLock().unlock();
       writeUnlock();
@@ -2028,4 +2263,22 @@ public class StorageGroupProcessor {
 
     boolean call(TsFileProcessor caller);
   }
+
+  /**
+   * the rows [start, end) of a batch inserted into one TsFileProcessor
+   */
+  private static class BatchRange {
+
+    private final int start;
+    private final int end;
+    private final long timePartitionId;
+    private final boolean sequence;
+
+    private BatchRange(int start, int end, long timePartitionId, boolean sequence) {
+      this.start = start;
+      this.end = end;
+      this.timePartitionId = timePartitionId;
+      this.sequence = sequence;
+    }
+  }
 }
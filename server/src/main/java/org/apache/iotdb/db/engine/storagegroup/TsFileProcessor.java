@@ -51,6 +51,7 @@ import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.rescon.MemTablePool;
+import org.apache.iotdb.db.rescon.PrimitiveArrayPool;
 import org.apache.iotdb.db.utils.QueryUtils;
 import org.apache.iotdb.db.writelog.manager.MultiFileLogNodeManager;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
@@ -87,7 +88,11 @@ public class TsFileProcessor {
    * and its flushingMemTables are all flushed, then the flush thread will close this file.)
    */
   private volatile boolean shouldClose;
-  private IMemTable workMemTable;
+  /**
+   * the devices of the StorageGroupProcessor are inserted concurrently, while the work memtable is
+   * only replaced under the write lock of the StorageGroupProcessor
+   */
+  private volatile IMemTable workMemTable;
   private VersionController versionController;
   /**
    * this callback is called after the corresponding TsFile is called endFile().
@@ -151,12 +156,8 @@ public class TsFileProcessor {
    */
   public void insert(InsertPlan insertPlan) throws WriteProcessException {
 
-    if (workMemTable == null) {
-      workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
-    }
-
     // insert insertPlan to the work memtable
-    workMemTable.insert(insertPlan);
+    getOrCreateWorkMemTable().insert(insertPlan);
 
     if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
       try {
@@ -179,13 +180,9 @@ public class TsFileProcessor {
   public void insertBatch(BatchInsertPlan batchInsertPlan, int start, int end,
       TSStatus[] results) throws WriteProcessException {
 
-    if (workMemTable == null) {
-      workMemTable = MemTablePool.getInstance().getAvailableMemTable(this);
-    }
-
     // insert insertPlan to the work memtable
     try {
-      workMemTable.insertBatch(batchInsertPlan, start, end);
+      getOrCreateWorkMemTable().insertBatch(batchInsertPlan, start, end);
       if (IoTDBDescriptor.getInstance().getConfig().isEnableWal()) {
         batchInsertPlan.setStart(start);
         batchInsertPlan.setEnd(end);
@@ -213,9 +210,23 @@ public class TsFileProcessor {
     }
   }
 
+  private IMemTable getOrCreateWorkMemTable() {
+    IMemTable memTable = workMemTable;
+    if (memTable == null) {
+      synchronized (this) {
+        memTable = workMemTable;
+        if (memTable == null) {
+          memTable = MemTablePool.getInstance().getAvailableMemTable(this);
+          workMemTable = memTable;
+        }
+      }
+    }
+    return memTable;
+  }
+
   /**
    * Delete data which belongs to the timeseries `deviceId.measurementId` and the timestamp of which
-   * <= 'timestamp' in the deletion. <br/>
+   * is in [startTime, endTime] of the deletion. <br/>
    * <p>
    * Delete data in both working MemTable and flushing MemTables.
    */
@@ -226,8 +237,8 @@ public class TsFileProcessor {
     }
     try {
       if (workMemTable != null) {
-        workMemTable
-            .delete(deletion.getDevice(), deletion.getMeasurement(), deletion.getTimestamp());
+        workMemTable.delete(deletion.getDevice(), deletion.getMeasurement(),
+            deletion.getStartTime(), deletion.getEndTime());
       }
       // flushing memTables are immutable, only record this deletion in these memTables for query
       for (IMemTable memTable : flushingMemTables) {
@@ -247,9 +258,18 @@ public class TsFileProcessor {
   }
 
 
+  /**
+   * a memtable is flushed when it reaches the threshold, or half of it when the primitive arrays
+   * in use exceed their memory budget.
+   */
   boolean shouldFlush() {
-    return workMemTable != null
-        && workMemTable.memSize() > getMemtableSizeThresholdBasedOnSeriesNum();
+    IMemTable memTable = workMemTable;
+    if (memTable == null) {
+      return false;
+    }
+    long threshold = getMemtableSizeThresholdBasedOnSeriesNum();
+    return memTable.memSize() > threshold || memTable.memSize() > threshold / 2
+        && PrimitiveArrayPool.getInstance().isOverBudget();
   }
 
   /**
@@ -507,7 +527,7 @@ public class TsFileProcessor {
     // signal memtable only may appear when calling asyncClose()
     if (!memTableToFlush.isSignalMemTable()) {
       MemTableFlushTask flushTask = new MemTableFlushTask(memTableToFlush, writer,
-          storageGroupName);
+          storageGroupName, sequence);
       try {
         writer.mark();
         flushTask.syncFlushMemTable();
@@ -599,6 +619,7 @@ public class TsFileProcessor {
     long closeStartTime = System.currentTimeMillis();
     tsFileResource.serialize();
     writer.endFile();
+    tsFileResource.setBloomFilter(writer.getBloomFilter(), writer.getFileMetadataSize());
     tsFileResource.cleanCloseFlag();
 
     // remove this processor from Closing list in StorageGroupProcessor,
@@ -726,6 +747,10 @@ public class TsFileProcessor {
     return null;
   }
 
+  public boolean isSequence() {
+    return sequence;
+  }
+
   public long getTimeRangeId() {
     return timeRangeId;
   }
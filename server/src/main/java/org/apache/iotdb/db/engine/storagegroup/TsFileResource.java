@@ -21,8 +21,10 @@ package org.apache.iotdb.db.engine.storagegroup;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.cache.BloomFilterManager;
 import org.apache.iotdb.db.engine.modification.ModificationFile;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
+import org.apache.iotdb.db.engine.rollup.RollupFile;
 import org.apache.iotdb.db.engine.upgrade.UpgradeTask;
 import org.apache.iotdb.db.exception.PartitionViolationException;
 import org.apache.iotdb.db.service.UpgradeSevice;
@@ -34,6 +36,7 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -102,6 +105,11 @@ public class TsFileResource {
    */
   private TimeseriesMetadata timeSeriesMetadata;
 
+  /**
+   * the byte size of the file metadata, which the queries read to find a series in this file
+   */
+  private int fileMetadataSize;
+
   private ReentrantReadWriteLock writeQueryLock = new ReentrantReadWriteLock();
 
   private FSFactory fsFactory = FSFactoryProducer.getFSFactory();
@@ -124,6 +132,7 @@ public class TsFileResource {
     this.writeQueryLock = other.writeQueryLock;
     this.fsFactory = other.fsFactory;
     this.historicalVersions = other.historicalVersions;
+    this.fileMetadataSize = other.fileMetadataSize;
   }
 
   /**
@@ -359,12 +368,16 @@ public class TsFileResource {
     file.delete();
     fsFactory.getFile(file.getPath() + RESOURCE_SUFFIX).delete();
     fsFactory.getFile(file.getPath() + ModificationFile.FILE_SUFFIX).delete();
+    RollupFile.getRollupFile(file).delete();
+    BloomFilterManager.getInstance().remove(this);
   }
 
   void moveTo(File targetDir) throws IOException {
+    BloomFilterManager.getInstance().remove(this);
     FileUtils.moveFile(file, new File(targetDir, file.getName()));
     FileUtils.moveFile(fsFactory.getFile(file.getPath() + RESOURCE_SUFFIX),
         new File(targetDir, file.getName() + RESOURCE_SUFFIX));
+    RollupFile.move(file, new File(targetDir, file.getName()));
     fsFactory.getFile(file.getPath() + ModificationFile.FILE_SUFFIX).delete();
   }
 
@@ -467,6 +480,32 @@ public class TsFileResource {
     this.historicalVersions = historicalVersions;
   }
 
+  /**
+   * @return the bloom filter of the series in this sealed file kept by the BloomFilterManager, null
+   * if it is not loaded yet, evicted or the file is rewritten
+   */
+  public BloomFilter getBloomFilter() {
+    return BloomFilterManager.getInstance().get(this);
+  }
+
+  public int getFileMetadataSize() {
+    return fileMetadataSize;
+  }
+
+  /**
+   * @param bloomFilter the bloom filter of the series in the file metadata, or null when the file
+   * is rewritten
+   * @param fileMetadataSize the byte size of the file metadata
+   */
+  public void setBloomFilter(BloomFilter bloomFilter, int fileMetadataSize) {
+    this.fileMetadataSize = fileMetadataSize;
+    if (bloomFilter != null) {
+      BloomFilterManager.getInstance().put(this, bloomFilter);
+    } else {
+      BloomFilterManager.getInstance().remove(this);
+    }
+  }
+
   public void setProcessor(TsFileProcessor processor) {
     this.processor = processor;
   }
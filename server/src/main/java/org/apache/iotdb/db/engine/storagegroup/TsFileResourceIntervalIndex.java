@@ -0,0 +1,367 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.iotdb.tsfile.read.filter.GroupByFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.basic.UnaryFilter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterType;
+import org.apache.iotdb.tsfile.read.filter.operator.AndFilter;
+import org.apache.iotdb.tsfile.read.filter.operator.Eq;
+import org.apache.iotdb.tsfile.read.filter.operator.Gt;
+import org.apache.iotdb.tsfile.read.filter.operator.GtEq;
+import org.apache.iotdb.tsfile.read.filter.operator.Lt;
+import org.apache.iotdb.tsfile.read.filter.operator.LtEq;
+import org.apache.iotdb.tsfile.read.filter.operator.OrFilter;
+
+/**
+ * TsFileResourceIntervalIndex indexes the time ranges of the closed TsFileResources in a file
+ * list by device, so that a query only visits the files whose time range of the device overlaps
+ * the queried range. For each device, the closed files containing the device are sorted by their
+ * start times and organized as an implicit balanced binary tree augmented with the max end time
+ * of each subtree, which enumerates the k overlapping files in O(log n + k).
+ * <p>
+ * The index is built lazily from the file list. A new unsealed file appended to the list and the
+ * close of an unsealed file are applied incrementally, other changes of the file list or of the
+ * time range of a closed file (merge, load, remove, TTL) must invalidate the index. Unsealed files are always returned as candidates because their time ranges keep growing. The
+ * returned files keep their order in the file list and the caller should still check each of them
+ * precisely.
+ */
+public class TsFileResourceIntervalIndex {
+
+  private volatile Snapshot snapshot = new Snapshot();
+
+  /**
+   * drop the index, it will be rebuilt from the file list by the next query.
+   */
+  public synchronized void invalidate() {
+    snapshot = new Snapshot();
+  }
+
+  /**
+   * add a new unsealed file to the index, the file must have been added into fileList.
+   */
+  public synchronized void addUnsealedResource(Collection<TsFileResource> fileList,
+      TsFileResource resource) {
+    Snapshot currSnapshot = snapshot;
+    synchronized (currSnapshot) {
+      TsFileResource[] resources = currSnapshot.resources;
+      if (resources == null) {
+        // not built yet, the next query builds it with the new file
+        return;
+      }
+      if (resources.length + 1 != fileList.size() || getLast(fileList) != resource) {
+        // the file is not appended to the end, the ordinals of the files are changed
+        snapshot = new Snapshot();
+        return;
+      }
+      Snapshot newSnapshot = new Snapshot();
+      TsFileResource[] newResources = Arrays.copyOf(resources, resources.length + 1);
+      newResources[resources.length] = resource;
+      newSnapshot.unsealed = Arrays.copyOf(currSnapshot.unsealed, newResources.length);
+      newSnapshot.unsealed[resources.length] = true;
+      int[] unsealedOrdinals = currSnapshot.unsealedOrdinals;
+      newSnapshot.unsealedOrdinals = Arrays.copyOf(unsealedOrdinals, unsealedOrdinals.length + 1);
+      newSnapshot.unsealedOrdinals[unsealedOrdinals.length] = resources.length;
+      newSnapshot.resources = newResources;
+      // the indexed closed files keep their ordinals
+      newSnapshot.deviceTrees.putAll(currSnapshot.deviceTrees);
+      snapshot = newSnapshot;
+    }
+  }
+
+  /**
+   * index an unsealed file after it is closed and its time ranges become fixed.
+   */
+  public synchronized void sealResource(TsFileResource resource) {
+    Snapshot currSnapshot = snapshot;
+    synchronized (currSnapshot) {
+      TsFileResource[] resources = currSnapshot.resources;
+      if (resources == null) {
+        return;
+      }
+      int[] unsealedOrdinals = currSnapshot.unsealedOrdinals;
+      int index = 0;
+      while (index < unsealedOrdinals.length && resources[unsealedOrdinals[index]] != resource) {
+        index++;
+      }
+      if (index == unsealedOrdinals.length) {
+        // the file is not in the index
+        return;
+      }
+      int ordinal = unsealedOrdinals[index];
+      Snapshot newSnapshot = new Snapshot();
+      newSnapshot.unsealed = currSnapshot.unsealed.clone();
+      newSnapshot.unsealed[ordinal] = false;
+      newSnapshot.unsealedOrdinals = new int[unsealedOrdinals.length - 1];
+      System.arraycopy(unsealedOrdinals, 0, newSnapshot.unsealedOrdinals, 0, index);
+      System.arraycopy(unsealedOrdinals, index + 1, newSnapshot.unsealedOrdinals, index,
+          unsealedOrdinals.length - index - 1);
+      newSnapshot.resources = resources;
+
+      Map<String, Long> startTimeMap = resource.getStartTimeMap();
+      Map<String, Long> endTimeMap = resource.getEndTimeMap();
+      for (Map.Entry<String, DeviceIntervalTree> entry : currSnapshot.deviceTrees.entrySet()) {
+        Long startTime = startTimeMap.get(entry.getKey());
+        if (startTime == null) {
+          newSnapshot.deviceTrees.put(entry.getKey(), entry.getValue());
+        } else {
+          Long endTime = endTimeMap.get(entry.getKey());
+          newSnapshot.deviceTrees.put(entry.getKey(), new DeviceIntervalTree(entry.getValue(),
+              ordinal, startTime, endTime == null ? Long.MAX_VALUE : endTime));
+        }
+      }
+      snapshot = newSnapshot;
+    }
+  }
+
+  private static TsFileResource getLast(Collection<TsFileResource> fileList) {
+    if (fileList.isEmpty()) {
+      return null;
+    } else if (fileList instanceof List) {
+      List<TsFileResource> list = (List<TsFileResource>) fileList;
+      return list.get(list.size() - 1);
+    } else if (fileList instanceof NavigableSet) {
+      return ((NavigableSet<TsFileResource>) fileList).last();
+    }
+    return null;
+  }
+
+  /**
+   * @param fileList the file list this index is built on, it must not be modified concurrently
+   * @return the files in fileList that may contain data of the device within [startTime, endTime],
+   * in the same order as in fileList
+   */
+  public List<TsFileResource> getOverlappedResources(Collection<TsFileResource> fileList,
+      String deviceId, long startTime, long endTime) {
+    Snapshot currSnapshot = snapshot;
+    TsFileResource[] resources = currSnapshot.getResources(fileList);
+    if (startTime > endTime) {
+      return new ArrayList<>();
+    }
+    DeviceIntervalTree tree = currSnapshot.deviceTrees.computeIfAbsent(deviceId,
+        d -> new DeviceIntervalTree(resources, currSnapshot.unsealed, d));
+
+    int[] unsealedOrdinals = currSnapshot.unsealedOrdinals;
+    int[] ordinals = new int[tree.size() + unsealedOrdinals.length];
+    int size = tree.search(startTime, endTime, ordinals);
+    System.arraycopy(unsealedOrdinals, 0, ordinals, size, unsealedOrdinals.length);
+    size += unsealedOrdinals.length;
+    Arrays.sort(ordinals, 0, size);
+
+    List<TsFileResource> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(resources[ordinals[i]]);
+    }
+    return result;
+  }
+
+  /**
+   * @return a time range [startTime, endTime] that covers all the timestamps satisfying the
+   * filter, or [Long.MIN_VALUE, Long.MAX_VALUE] if the filter is null or not a time filter.
+   */
+  public static long[] getTimeRange(Filter timeFilter) {
+    if (timeFilter instanceof AndFilter) {
+      long[] left = getTimeRange(((AndFilter) timeFilter).getLeft());
+      long[] right = getTimeRange(((AndFilter) timeFilter).getRight());
+      return new long[]{Math.max(left[0], right[0]), Math.min(left[1], right[1])};
+    } else if (timeFilter instanceof OrFilter) {
+      long[] left = getTimeRange(((OrFilter) timeFilter).getLeft());
+      long[] right = getTimeRange(((OrFilter) timeFilter).getRight());
+      return new long[]{Math.min(left[0], right[0]), Math.max(left[1], right[1])};
+    } else if (timeFilter instanceof GroupByFilter) {
+      return new long[]{((GroupByFilter) timeFilter).getStartTime(),
+          ((GroupByFilter) timeFilter).getEndTime()};
+    } else if (timeFilter instanceof UnaryFilter
+        && ((UnaryFilter) timeFilter).getFilterType() == FilterType.TIME_FILTER) {
+      long value = (Long) ((UnaryFilter) timeFilter).getValue();
+      if (timeFilter instanceof Eq) {
+        return new long[]{value, value};
+      } else if (timeFilter instanceof Gt) {
+        return new long[]{value == Long.MAX_VALUE ? value : value + 1, Long.MAX_VALUE};
+      } else if (timeFilter instanceof GtEq) {
+        return new long[]{value, Long.MAX_VALUE};
+      } else if (timeFilter instanceof Lt) {
+        return new long[]{Long.MIN_VALUE, value == Long.MIN_VALUE ? value : value - 1};
+      } else if (timeFilter instanceof LtEq) {
+        return new long[]{Long.MIN_VALUE, value};
+      }
+    }
+    return new long[]{Long.MIN_VALUE, Long.MAX_VALUE};
+  }
+
+  private static class Snapshot {
+
+    private volatile TsFileResource[] resources;
+    // whether the file was unsealed when the snapshot was taken, such files are not indexed
+    private boolean[] unsealed;
+    private int[] unsealedOrdinals;
+    private final Map<String, DeviceIntervalTree> deviceTrees = new ConcurrentHashMap<>();
+
+    private TsFileResource[] getResources(Collection<TsFileResource> fileList) {
+      if (resources == null) {
+        synchronized (this) {
+          if (resources == null) {
+            TsFileResource[] array = fileList.toArray(new TsFileResource[0]);
+            boolean[] unsealedFlags = new boolean[array.length];
+            int[] ordinals = new int[array.length];
+            int size = 0;
+            for (int i = 0; i < array.length; i++) {
+              if (!array[i].isClosed()) {
+                unsealedFlags[i] = true;
+                ordinals[size++] = i;
+              }
+            }
+            unsealed = unsealedFlags;
+            unsealedOrdinals = Arrays.copyOf(ordinals, size);
+            resources = array;
+          }
+        }
+      }
+      return resources;
+    }
+  }
+
+  /**
+   * The closed files containing a device sorted by their start times. The node of range [l, r] is
+   * at mid = (l + r) / 2, with its left subtree in [l, mid - 1] and its right subtree in
+   * [mid + 1, r]; maxEndTimes[mid] is the max end time of the whole range [l, r].
+   */
+  private static class DeviceIntervalTree {
+
+    private final int[] ordinals;
+    private final long[] startTimes;
+    private final long[] endTimes;
+    private final long[] maxEndTimes;
+
+    private DeviceIntervalTree(TsFileResource[] resources, boolean[] unsealed, String deviceId) {
+      List<long[]> intervals = new ArrayList<>();
+      for (int i = 0; i < resources.length; i++) {
+        TsFileResource resource = resources[i];
+        if (unsealed[i]) {
+          continue;
+        }
+        Long startTime = resource.getStartTimeMap().get(deviceId);
+        if (startTime == null) {
+          continue;
+        }
+        Long endTime = resource.getEndTimeMap().get(deviceId);
+        intervals.add(new long[]{startTime, endTime == null ? Long.MAX_VALUE : endTime, i});
+      }
+      intervals.sort((a, b) -> Long.compare(a[0], b[0]));
+
+      int size = intervals.size();
+      ordinals = new int[size];
+      startTimes = new long[size];
+      endTimes = new long[size];
+      maxEndTimes = new long[size];
+      for (int i = 0; i < size; i++) {
+        long[] interval = intervals.get(i);
+        startTimes[i] = interval[0];
+        endTimes[i] = interval[1];
+        ordinals[i] = (int) interval[2];
+      }
+      buildMaxEndTimes(0, size - 1);
+    }
+
+    /**
+     * a copy of tree with one more closed file, the files are merged in O(n) instead of sorted.
+     */
+    private DeviceIntervalTree(DeviceIntervalTree tree, int ordinal, long startTime,
+        long endTime) {
+      int size = tree.size() + 1;
+      int pos = 0;
+      while (pos < tree.size() && tree.startTimes[pos] <= startTime) {
+        pos++;
+      }
+      ordinals = insert(tree.ordinals, pos, ordinal);
+      startTimes = insert(tree.startTimes, pos, startTime);
+      endTimes = insert(tree.endTimes, pos, endTime);
+      maxEndTimes = new long[size];
+      buildMaxEndTimes(0, size - 1);
+    }
+
+    private static int[] insert(int[] array, int pos, int value) {
+      int[] result = new int[array.length + 1];
+      System.arraycopy(array, 0, result, 0, pos);
+      result[pos] = value;
+      System.arraycopy(array, pos, result, pos + 1, array.length - pos);
+      return result;
+    }
+
+    private static long[] insert(long[] array, int pos, long value) {
+      long[] result = new long[array.length + 1];
+      System.arraycopy(array, 0, result, 0, pos);
+      result[pos] = value;
+      System.arraycopy(array, pos, result, pos + 1, array.length - pos);
+      return result;
+    }
+
+    private int size() {
+      return ordinals.length;
+    }
+
+    private long buildMaxEndTimes(int l, int r) {
+      if (l > r) {
+        return Long.MIN_VALUE;
+      }
+      int mid = (l + r) >>> 1;
+      long maxEndTime = Math.max(endTimes[mid],
+          Math.max(buildMaxEndTimes(l, mid - 1), buildMaxEndTimes(mid + 1, r)));
+      maxEndTimes[mid] = maxEndTime;
+      return maxEndTime;
+    }
+
+    /**
+     * put the ordinals of the files overlapping [startTime, endTime] into result.
+     *
+     * @return the number of the overlapped files
+     */
+    private int search(long startTime, long endTime, int[] result) {
+      return search(0, ordinals.length - 1, startTime, endTime, result, 0);
+    }
+
+    private int search(int l, int r, long startTime, long endTime, int[] result, int size) {
+      if (l > r) {
+        return size;
+      }
+      int mid = (l + r) >>> 1;
+      if (maxEndTimes[mid] < startTime) {
+        // no file in this subtree ends after the queried start time
+        return size;
+      }
+      size = search(l, mid - 1, startTime, endTime, result, size);
+      if (startTimes[mid] > endTime) {
+        // the files in the right subtree start even later
+        return size;
+      }
+      if (endTimes[mid] >= startTime) {
+        result[size++] = ordinals[mid];
+      }
+      return search(mid + 1, r, startTime, endTime, result, size);
+    }
+  }
+}
@@ -18,12 +18,21 @@
  */
 package org.apache.iotdb.db.metadata;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -35,7 +44,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.adapter.ActiveTimeSeriesCounter;
@@ -78,6 +92,12 @@ public class MManager {
   private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
   // the log file seriesPath
   private String logFilePath;
+  private String snapshotFilePath;
+  private String snapshotTmpFilePath;
+  // the number of lines in the log file
+  private volatile long logLineNumber;
+  // the number of lines in the log file that are covered by the latest snapshot
+  private volatile long snapshotLogLineNumber;
   private MTree mtree;
   private BufferedWriter logWriter;
   private boolean writeToLog;
@@ -102,6 +122,8 @@ public class MManager {
       }
     }
     logFilePath = schemaDir + File.separator + MetadataConstant.METADATA_LOG;
+    snapshotFilePath = schemaDir + File.separator + MetadataConstant.MTREE_SNAPSHOT;
+    snapshotTmpFilePath = schemaDir + File.separator + MetadataConstant.MTREE_SNAPSHOT_TMP;
     writeToLog = false;
 
     int cacheSize = config.getmManagerCacheSize();
@@ -132,8 +154,10 @@ public class MManager {
       return;
     }
     File logFile = SystemFileFactory.INSTANCE.getFile(logFilePath);
+    File snapshotFile = SystemFileFactory.INSTANCE.getFile(snapshotFilePath);
 
     try {
+      initFromSnapshot(snapshotFile);
       initFromLog(logFile);
 
       // storage group name -> the series number
@@ -151,6 +175,13 @@ public class MManager {
             .max(Integer::compareTo).get();
       }
       writeToLog = true;
+
+      if (logLineNumber < snapshotLogLineNumber) {
+        // the tail of the log was lost but the snapshot survived, renumber the log lines
+        logger.warn("The metadata log has {} lines but the MTree snapshot covers {} lines",
+            logLineNumber, snapshotLogLineNumber);
+        createSnapshot();
+      }
     } catch (IOException | MetadataException e) {
       mtree = new MTree();
       logger.error("Cannot read MTree from file, using an empty new one", e);
@@ -158,14 +189,82 @@ public class MManager {
     initialized = true;
   }
 
+  /**
+   * load the MTree from the latest snapshot and its storage groups are deserialized in parallel.
+   * If there is no snapshot or it is broken, start from an empty MTree and the whole log will be
+   * replayed.
+   */
+  private void initFromSnapshot(File snapshotFile) {
+    mtree = new MTree();
+    snapshotLogLineNumber = 0;
+    if (!snapshotFile.exists()) {
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    ExecutorService loadPool = IoTDBThreadPoolFactory.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), ThreadName.MTREE_SNAPSHOT_LOAD.getName());
+    try (DataInputStream inputStream = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+      long coveredLogLineNumber = MTreeSnapshot.deserializeHeader(inputStream);
+      List<Future<?>> futures = new ArrayList<>();
+      ByteBuffer record;
+      while ((record = MTreeSnapshot.readRecord(inputStream)) != null) {
+        // storage groups are set one by one as they share ancestors, their subtrees do not
+        String storageGroup = MTreeSnapshot.readStorageGroupName(record);
+        mtree.setStorageGroup(storageGroup);
+        StorageGroupMNode storageGroupNode = mtree.getStorageGroupNode(storageGroup);
+        storageGroupNode.setDataTTL(MTreeSnapshot.readDataTTL(record));
+        ByteBuffer subtree = record;
+        futures.add(loadPool
+            .submit(() -> MTreeSnapshot.deserializeChildren(storageGroupNode, subtree)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      snapshotLogLineNumber = coveredLogLineNumber;
+    } catch (IOException | MetadataException | ExecutionException e) {
+      logger.error("Cannot load MTree snapshot {}, replay the whole metadata log", snapshotFile,
+          e);
+      mtree = new MTree();
+      return;
+    } catch (InterruptedException e) {
+      logger.error("Interrupted when loading MTree snapshot {}", snapshotFile);
+      Thread.currentThread().interrupt();
+      mtree = new MTree();
+      return;
+    } finally {
+      loadPool.shutdown();
+    }
+
+    for (StorageGroupMNode storageGroupNode : mtree.getAllStorageGroupNodes()) {
+      try {
+        IoTDBConfigDynamicAdapter.getInstance().addOrDeleteStorageGroup(1);
+        IoTDBConfigDynamicAdapter.getInstance()
+            .addOrDeleteTimeSeries(storageGroupNode.getLeafCount());
+      } catch (ConfigAdjusterException e) {
+        logger.error("Cannot adjust the parameters for storage group {}",
+            storageGroupNode.getFullPath(), e);
+      }
+      ActiveTimeSeriesCounter.getInstance().init(storageGroupNode.getFullPath());
+    }
+    logger.info("Loaded MTree snapshot covering {} lines of the metadata log in {}ms",
+        snapshotLogLineNumber, System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * replay the lines of the log that are not covered by the snapshot.
+   */
   private void initFromLog(File logFile) throws IOException {
     // init the metadata from the operation log
-    mtree = new MTree();
+    logLineNumber = 0;
     if (logFile.exists()) {
       try (FileReader fr = new FileReader(logFile);
           BufferedReader br = new BufferedReader(fr)) {
         String cmd;
         while ((cmd = br.readLine()) != null) {
+          if (++logLineNumber <= snapshotLogLineNumber) {
+            continue;
+          }
           try {
             operation(cmd);
           } catch (Exception e) {
@@ -176,6 +275,72 @@ public class MManager {
     }
   }
 
+  /**
+   * Save the MTree into a binary snapshot, so that the next start only replays the log lines
+   * appended after it. Storage groups are serialized one by one, each under the read lock, so
+   * timeseries can still be created during a snapshot. A snapshot may thus contain some changes
+   * logged after its recorded line number, replaying them again on the snapshot still leads to the
+   * same MTree.
+   */
+  public synchronized void createSnapshot() throws IOException {
+    long startTime = System.currentTimeMillis();
+    long currentLogLineNumber;
+    List<StorageGroupMNode> storageGroupNodes;
+    lock.readLock().lock();
+    try {
+      currentLogLineNumber = logLineNumber;
+      storageGroupNodes = mtree.getAllStorageGroupNodes();
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    File tmpFile = SystemFileFactory.INSTANCE.getFile(snapshotTmpFilePath);
+    try (FileOutputStream fileOutputStream = new FileOutputStream(tmpFile);
+        DataOutputStream outputStream = new DataOutputStream(
+            new BufferedOutputStream(fileOutputStream))) {
+      MTreeSnapshot.serializeHeader(currentLogLineNumber, outputStream);
+      for (StorageGroupMNode storageGroupNode : storageGroupNodes) {
+        byte[] record;
+        lock.readLock().lock();
+        try {
+          if (!isStorageGroupNodeInTree(storageGroupNode)) {
+            // deleted after being listed, the deletion is in the log after the snapshot
+            continue;
+          }
+          record = MTreeSnapshot.serializeStorageGroup(storageGroupNode);
+        } finally {
+          lock.readLock().unlock();
+        }
+        outputStream.writeInt(record.length);
+        outputStream.write(record);
+      }
+      MTreeSnapshot.serializeEnd(outputStream);
+      outputStream.flush();
+      fileOutputStream.getFD().sync();
+    }
+    File snapshotFile = SystemFileFactory.INSTANCE.getFile(snapshotFilePath);
+    Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    snapshotLogLineNumber = currentLogLineNumber;
+    logger.info("MTree snapshot of {} storage groups covering {} log lines is created in {}ms",
+        storageGroupNodes.size(), currentLogLineNumber, System.currentTimeMillis() - startTime);
+  }
+
+  private boolean isStorageGroupNodeInTree(StorageGroupMNode storageGroupNode) {
+    try {
+      return mtree.getStorageGroupNode(storageGroupNode.getFullPath()) == storageGroupNode;
+    } catch (MetadataException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return the number of log lines appended after the latest snapshot
+   */
+  public long getLogLineNumberSinceSnapshot() {
+    return logLineNumber - snapshotLogLineNumber;
+  }
+
   /**
    * function for clearing MTree
    */
@@ -186,6 +351,8 @@ public class MManager {
       this.mNodeCache.clear();
       this.seriesNumberInStorageGroups.clear();
       this.maxSeriesNumberAmongStorageGroup = 0;
+      this.logLineNumber = 0;
+      this.snapshotLogLineNumber = 0;
       if (logWriter != null) {
         logWriter.close();
         logWriter = null;
@@ -197,6 +364,17 @@ public class MManager {
     }
   }
 
+  /**
+   * drop the MTree in memory and recover it from the snapshot and the log again, as a restart
+   */
+  @TestOnly
+  public synchronized void reload() {
+    clear();
+    writeToLog = false;
+    initialized = false;
+    init();
+  }
+
   public void operation(String cmd) throws IOException, MetadataException {
     //see createTimeseries() to get the detailed format of the cmd
     String[] args = cmd.trim().split(",");
@@ -344,6 +522,7 @@ public class MManager {
           }
         }
         writer.newLine();
+        logLineNumber++;
         writer.flush();
       }
     } catch (IOException e) {
@@ -403,6 +582,7 @@ public class MManager {
         BufferedWriter writer = getLogWriter();
         writer.write(MetadataOperationType.DELETE_TIMESERIES + "," + path);
         writer.newLine();
+        logLineNumber++;
         writer.flush();
       }
       // TODO: delete the path node and all its ancestors
@@ -438,6 +618,7 @@ public class MManager {
         BufferedWriter writer = getLogWriter();
         writer.write(MetadataOperationType.SET_STORAGE_GROUP + "," + storageGroup);
         writer.newLine();
+        logLineNumber++;
         writer.flush();
       }
       IoTDBConfigDynamicAdapter.getInstance().addOrDeleteStorageGroup(1);
@@ -470,6 +651,7 @@ public class MManager {
         if (writeToLog) {
           writer.write(MetadataOperationType.DELETE_STORAGE_GROUP + storageGroup);
           writer.newLine();
+          logLineNumber++;
           writer.flush();
         }
         mNodeCache.clear();
@@ -794,6 +976,7 @@ public class MManager {
         writer
             .write(String.format("%s,%s,%s", MetadataOperationType.SET_TTL, storageGroup, dataTTL));
         writer.newLine();
+        logLineNumber++;
         writer.flush();
       }
     } finally {
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.db.metadata.mnode.InternalMNode;
+import org.apache.iotdb.db.metadata.mnode.LeafMNode;
+import org.apache.iotdb.db.metadata.mnode.MNode;
+import org.apache.iotdb.db.metadata.mnode.StorageGroupMNode;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+/**
+ * The binary snapshot format of the MTree:
+ * <pre>
+ * magic string, version int, the number of metadata log lines covered by the snapshot long,
+ * {record length int, storage group record}*, -1 int
+ * </pre>
+ * Each storage group record is self-contained so that the records can be deserialized in
+ * parallel:
+ * <pre>
+ * storage group path string, TTL long, children
+ * children: child number int, {node type byte, (name string, children) | MeasurementSchema}*
+ * </pre>
+ * Internal nodes above the storage groups are not recorded, they are created again when the
+ * storage groups are set.
+ */
+class MTreeSnapshot {
+
+  private static final String MAGIC_STRING = "MTreeSnapshot";
+  private static final int VERSION = 1;
+  private static final int END_OF_RECORDS = -1;
+
+  private static final byte INTERNAL_NODE = 0;
+  private static final byte LEAF_NODE = 1;
+
+  private MTreeSnapshot() {
+    // util class
+  }
+
+  static void serializeHeader(long logLineNumber, OutputStream outputStream) throws IOException {
+    ReadWriteIOUtils.write(MAGIC_STRING, outputStream);
+    ReadWriteIOUtils.write(VERSION, outputStream);
+    ReadWriteIOUtils.write(logLineNumber, outputStream);
+  }
+
+  /**
+   * @return the number of metadata log lines covered by the snapshot
+   */
+  static long deserializeHeader(DataInputStream inputStream) throws IOException {
+    String magicString = ReadWriteIOUtils.readString(inputStream);
+    if (!MAGIC_STRING.equals(magicString)) {
+      throw new IOException("Not a MTree snapshot, magic string: " + magicString);
+    }
+    int version = inputStream.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported MTree snapshot version " + version);
+    }
+    return inputStream.readLong();
+  }
+
+  static void serializeEnd(OutputStream outputStream) throws IOException {
+    ReadWriteIOUtils.write(END_OF_RECORDS, outputStream);
+  }
+
+  /**
+   * @return the next storage group record, or null if all records have been read
+   */
+  static ByteBuffer readRecord(DataInputStream inputStream) throws IOException {
+    int length = inputStream.readInt();
+    if (length == END_OF_RECORDS) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    inputStream.readFully(bytes);
+    return ByteBuffer.wrap(bytes);
+  }
+
+  /**
+   * serialize a storage group with all its descendants into a record, the caller should guard the
+   * subtree from modifications.
+   */
+  static byte[] serializeStorageGroup(StorageGroupMNode storageGroupMNode) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ReadWriteIOUtils.write(storageGroupMNode.getFullPath(), outputStream);
+    ReadWriteIOUtils.write(storageGroupMNode.getDataTTL(), outputStream);
+    serializeChildren(storageGroupMNode, outputStream);
+    return outputStream.toByteArray();
+  }
+
+  private static void serializeChildren(MNode node, OutputStream outputStream)
+      throws IOException {
+    ReadWriteIOUtils.write(node.getChildren().size(), outputStream);
+    for (MNode child : node.getChildren().values()) {
+      if (child instanceof LeafMNode) {
+        ReadWriteIOUtils.write(LEAF_NODE, outputStream);
+        ((LeafMNode) child).getSchema().serializeTo(outputStream);
+      } else {
+        ReadWriteIOUtils.write(INTERNAL_NODE, outputStream);
+        ReadWriteIOUtils.write(child.getName(), outputStream);
+        serializeChildren(child, outputStream);
+      }
+    }
+  }
+
+  static String readStorageGroupName(ByteBuffer record) {
+    return ReadWriteIOUtils.readString(record);
+  }
+
+  static long readDataTTL(ByteBuffer record) {
+    return ReadWriteIOUtils.readLong(record);
+  }
+
+  /**
+   * deserialize the remaining of a record into the descendants of the storage group node, only the
+   * subtree of the storage group is modified so records can be deserialized concurrently.
+   */
+  static void deserializeChildren(MNode parent, ByteBuffer record) {
+    int childNum = ReadWriteIOUtils.readInt(record);
+    for (int i = 0; i < childNum; i++) {
+      byte nodeType = record.get();
+      if (nodeType == LEAF_NODE) {
+        MeasurementSchema schema = MeasurementSchema.deserializeFrom(record);
+        parent.addChild(new LeafMNode(parent, schema.getMeasurementId(), schema));
+      } else {
+        MNode child = new InternalMNode(parent, ReadWriteIOUtils.readString(record));
+        parent.addChild(child);
+        deserializeChildren(child, record);
+      }
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MTreeSnapshotService periodically saves the MTree into a snapshot when enough metadata logs are
+ * appended since the last one, and saves a final snapshot when the service stops.
+ */
+public class MTreeSnapshotService implements IService {
+
+  private static final Logger logger = LoggerFactory.getLogger(MTreeSnapshotService.class);
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private ScheduledExecutorService snapshotThread;
+
+  private MTreeSnapshotService() {
+  }
+
+  public static MTreeSnapshotService getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  @Override
+  public void start() {
+    int interval = config.getMtreeSnapshotIntervalInSec();
+    if (interval > 0 && snapshotThread == null) {
+      snapshotThread = IoTDBThreadPoolFactory
+          .newSingleThreadScheduledExecutor(ThreadName.MTREE_SNAPSHOT.getName());
+      snapshotThread.scheduleWithFixedDelay(this::checkAndCreateSnapshot, interval, interval,
+          TimeUnit.SECONDS);
+    }
+    logger.info("MTree snapshot service started, check interval {}s", interval);
+  }
+
+  @Override
+  public void stop() {
+    if (snapshotThread != null) {
+      snapshotThread.shutdownNow();
+      try {
+        snapshotThread.awaitTermination(60, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        logger.warn("Interrupted when waiting for the MTree snapshot thread to exit");
+        Thread.currentThread().interrupt();
+      }
+      snapshotThread = null;
+    }
+    if (MManager.getInstance().getLogLineNumberSinceSnapshot() > 0) {
+      createSnapshot();
+    }
+    logger.info("MTree snapshot service stopped");
+  }
+
+  private void checkAndCreateSnapshot() {
+    if (MManager.getInstance().getLogLineNumberSinceSnapshot()
+        >= config.getMtreeSnapshotThreshold()) {
+      createSnapshot();
+    }
+  }
+
+  private void createSnapshot() {
+    try {
+      MManager.getInstance().createSnapshot();
+    } catch (IOException e) {
+      logger.error("Cannot create MTree snapshot", e);
+    }
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.MTREE_SNAPSHOT_SERVICE;
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+    }
+
+    private static final MTreeSnapshotService INSTANCE = new MTreeSnapshotService();
+  }
+}
@@ -24,7 +24,7 @@ import org.apache.iotdb.db.conf.IoTDBConstant;
 import org.apache.iotdb.db.exception.metadata.IllegalPathException;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 
-class MetaUtils {
+public class MetaUtils {
 
   public static final String PATH_SEPARATOR = "\\.";
 
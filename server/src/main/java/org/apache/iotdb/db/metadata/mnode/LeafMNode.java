@@ -43,6 +43,11 @@ public class LeafMNode extends MNode {
     this.schema = new MeasurementSchema(name, dataType, encoding, type, props);
   }
 
+  public LeafMNode(MNode parent, String name, MeasurementSchema schema) {
+    super(parent, name);
+    this.schema = schema;
+  }
+
   @Override
   public boolean hasChild(String name) {
     return false;
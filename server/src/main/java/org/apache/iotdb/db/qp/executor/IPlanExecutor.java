@@ -20,6 +20,7 @@ package org.apache.iotdb.db.qp.executor;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.List;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
@@ -74,10 +75,11 @@ public interface IPlanExecutor {
   /**
    * execute delete command and return whether the operator is successful.
    *
-   * @param path       : delete series seriesPath
-   * @param deleteTime end time in delete command
+   * @param path      : delete series seriesPath
+   * @param startTime start time in delete command
+   * @param endTime   end time in delete command
    */
-  void delete(Path path, long deleteTime) throws QueryProcessException;
+  void delete(Path path, long startTime, long endTime) throws QueryProcessException;
 
   /**
    * execute insert command and return whether the operator is successful.
@@ -92,4 +94,11 @@ public interface IPlanExecutor {
    * @return result of each row
    */
   TSStatus[] insertBatch(BatchInsertPlan batchInsertPlan) throws QueryProcessException;
+
+  /**
+   * execute the batch insert plans of many devices, a failed plan does not stop the others
+   *
+   * @return results of the rows of each plan, a plan failed as a whole has only one result
+   */
+  TSStatus[][] insertBatches(List<BatchInsertPlan> batchInsertPlans);
 }
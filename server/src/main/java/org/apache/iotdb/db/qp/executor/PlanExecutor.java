@@ -109,6 +109,7 @@ import org.apache.iotdb.db.utils.AuthUtils;
 import org.apache.iotdb.db.utils.FileLoaderUtils;
 import org.apache.iotdb.db.utils.TypeInferenceUtils;
 import org.apache.iotdb.db.utils.UpgradeUtils;
+import org.apache.iotdb.rpc.RpcUtils;
 import org.apache.iotdb.service.rpc.thrift.TSStatus;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
@@ -528,7 +529,7 @@ public class PlanExecutor implements IPlanExecutor {
             "TimeSeries does not exist and its data cannot be deleted");
       }
       for (String path : existingPaths) {
-        delete(new Path(path), deletePlan.getDeleteTime());
+        delete(new Path(path), deletePlan.getDeleteStartTime(), deletePlan.getDeleteEndTime());
       }
     } catch (MetadataException e) {
       throw new QueryProcessException(e);
@@ -682,7 +683,7 @@ public class PlanExecutor implements IPlanExecutor {
   }
 
   @Override
-  public void delete(Path path, long timestamp) throws QueryProcessException {
+  public void delete(Path path, long startTime, long endTime) throws QueryProcessException {
     String deviceId = path.getDevice();
     String measurementId = path.getMeasurement();
     try {
@@ -691,7 +692,7 @@ public class PlanExecutor implements IPlanExecutor {
             String.format("Time series %s does not exist.", path.getFullPath()));
       }
       mManager.getStorageGroupName(path.getFullPath());
-      StorageEngine.getInstance().delete(deviceId, measurementId, timestamp);
+      StorageEngine.getInstance().delete(deviceId, measurementId, startTime, endTime);
     } catch (MetadataException | StorageEngineException e) {
       throw new QueryProcessException(e);
     }
@@ -770,43 +771,73 @@ public class PlanExecutor implements IPlanExecutor {
   @Override
   public TSStatus[] insertBatch(BatchInsertPlan batchInsertPlan) throws QueryProcessException {
     try {
-      String[] measurementList = batchInsertPlan.getMeasurements();
-      String deviceId = batchInsertPlan.getDeviceId();
-      MNode node = mManager.getDeviceNodeWithAutoCreateStorageGroup(deviceId);
-      TSDataType[] dataTypes = batchInsertPlan.getDataTypes();
-      IoTDBConfig conf = IoTDBDescriptor.getInstance().getConfig();
-      MeasurementSchema[] schemas = new MeasurementSchema[measurementList.length];
-
-      for (int i = 0; i < measurementList.length; i++) {
-        // check if timeseries exists
-        if (!node.hasChild(measurementList[i])) {
-          if (!conf.isAutoCreateSchemaEnabled()) {
-            throw new QueryProcessException(
-                String.format("Current deviceId[%s] does not contain measurement:%s",
-                    deviceId, measurementList[i]));
-          }
-          Path path = new Path(deviceId, measurementList[i]);
-          TSDataType dataType = dataTypes[i];
-          internalCreateTimeseries(path.getFullPath(), dataType);
-        }
-        LeafMNode measurementNode = (LeafMNode) node.getChild(measurementList[i]);
-
-        // check data type
-        if (measurementNode.getSchema().getType() != batchInsertPlan.getDataTypes()[i]) {
-          throw new QueryProcessException(String
-              .format("Datatype mismatch, Insert measurement %s type %s, metadata tree type %s",
-                  measurementList[i], batchInsertPlan.getDataTypes()[i],
-                  measurementNode.getSchema().getType()));
-        }
-        schemas[i] = measurementNode.getSchema();
-      }
-      batchInsertPlan.setSchemas(schemas);
+      checkBatchInsertSchema(batchInsertPlan);
       return StorageEngine.getInstance().insertBatch(batchInsertPlan);
     } catch (StorageEngineException | MetadataException e) {
       throw new QueryProcessException(e);
     }
   }
 
+  @Override
+  public TSStatus[][] insertBatches(List<BatchInsertPlan> batchInsertPlans) {
+    TSStatus[][] results = new TSStatus[batchInsertPlans.size()][];
+    List<BatchInsertPlan> checkedPlans = new ArrayList<>(batchInsertPlans.size());
+    List<Integer> checkedPlanIndexes = new ArrayList<>(batchInsertPlans.size());
+    for (int i = 0; i < batchInsertPlans.size(); i++) {
+      try {
+        checkBatchInsertSchema(batchInsertPlans.get(i));
+        checkedPlans.add(batchInsertPlans.get(i));
+        checkedPlanIndexes.add(i);
+      } catch (QueryProcessException | MetadataException e) {
+        results[i] = new TSStatus[]{RpcUtils.getStatus(e.getErrorCode(), e.getMessage())};
+      }
+    }
+
+    TSStatus[][] checkedPlanResults = StorageEngine.getInstance().insertBatches(checkedPlans);
+    for (int i = 0; i < checkedPlanResults.length; i++) {
+      results[checkedPlanIndexes.get(i)] = checkedPlanResults[i];
+    }
+    return results;
+  }
+
+  /**
+   * create the absent timeseries if enabled, check the data types and set the schemas of the plan
+   */
+  private void checkBatchInsertSchema(BatchInsertPlan batchInsertPlan)
+      throws QueryProcessException, MetadataException {
+    String[] measurementList = batchInsertPlan.getMeasurements();
+    String deviceId = batchInsertPlan.getDeviceId();
+    MNode node = mManager.getDeviceNodeWithAutoCreateStorageGroup(deviceId);
+    TSDataType[] dataTypes = batchInsertPlan.getDataTypes();
+    IoTDBConfig conf = IoTDBDescriptor.getInstance().getConfig();
+    MeasurementSchema[] schemas = new MeasurementSchema[measurementList.length];
+
+    for (int i = 0; i < measurementList.length; i++) {
+      // check if timeseries exists
+      if (!node.hasChild(measurementList[i])) {
+        if (!conf.isAutoCreateSchemaEnabled()) {
+          throw new QueryProcessException(
+              String.format("Current deviceId[%s] does not contain measurement:%s",
+                  deviceId, measurementList[i]));
+        }
+        Path path = new Path(deviceId, measurementList[i]);
+        TSDataType dataType = dataTypes[i];
+        internalCreateTimeseries(path.getFullPath(), dataType);
+      }
+      LeafMNode measurementNode = (LeafMNode) node.getChild(measurementList[i]);
+
+      // check data type
+      if (measurementNode.getSchema().getType() != batchInsertPlan.getDataTypes()[i]) {
+        throw new QueryProcessException(String
+            .format("Datatype mismatch, Insert measurement %s type %s, metadata tree type %s",
+                measurementList[i], batchInsertPlan.getDataTypes()[i],
+                measurementNode.getSchema().getType()));
+      }
+      schemas[i] = measurementNode.getSchema();
+    }
+    batchInsertPlan.setSchemas(schemas);
+  }
+
   private boolean operateAuthor(AuthorPlan author) throws QueryProcessException {
     AuthorOperator.AuthorType authorType = author.getAuthorType();
     String userName = author.getUserName();
@@ -947,7 +978,7 @@ public class PlanExecutor implements IPlanExecutor {
     for (Path p : pathList) {
       DeletePlan deletePlan = new DeletePlan();
       deletePlan.addPath(p);
-      deletePlan.setDeleteTime(Long.MAX_VALUE);
+      deletePlan.setDeleteEndTime(Long.MAX_VALUE);
       processNonQuery(deletePlan);
     }
   }
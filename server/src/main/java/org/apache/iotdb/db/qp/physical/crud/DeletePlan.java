@@ -30,7 +30,8 @@ import org.apache.iotdb.tsfile.read.common.Path;
 
 public class DeletePlan extends PhysicalPlan {
 
-  private long deleteTime;
+  private long deleteStartTime = Long.MIN_VALUE;
+  private long deleteEndTime;
   private List<Path> paths = new ArrayList<>();
 
   public DeletePlan() {
@@ -44,8 +45,20 @@ public class DeletePlan extends PhysicalPlan {
    * @param path time series path
    */
   public DeletePlan(long deleteTime, Path path) {
+    this(Long.MIN_VALUE, deleteTime, path);
+  }
+
+  /**
+   * constructor of DeletePlan with single path.
+   *
+   * @param startTime the start of the deleted time range, inclusive
+   * @param endTime the end of the deleted time range, inclusive
+   * @param path time series path
+   */
+  public DeletePlan(long startTime, long endTime, Path path) {
     super(false, Operator.OperatorType.DELETE);
-    this.deleteTime = deleteTime;
+    this.deleteStartTime = startTime;
+    this.deleteEndTime = endTime;
     this.paths.add(path);
   }
 
@@ -56,17 +69,37 @@ public class DeletePlan extends PhysicalPlan {
    * @param paths time series paths in List structure
    */
   public DeletePlan(long deleteTime, List<Path> paths) {
+    this(Long.MIN_VALUE, deleteTime, paths);
+  }
+
+  /**
+   * constructor of DeletePlan with multiple paths.
+   *
+   * @param startTime the start of the deleted time range, inclusive
+   * @param endTime the end of the deleted time range, inclusive
+   * @param paths time series paths in List structure
+   */
+  public DeletePlan(long startTime, long endTime, List<Path> paths) {
     super(false, Operator.OperatorType.DELETE);
-    this.deleteTime = deleteTime;
+    this.deleteStartTime = startTime;
+    this.deleteEndTime = endTime;
     this.paths = paths;
   }
 
-  public long getDeleteTime() {
-    return deleteTime;
+  public long getDeleteStartTime() {
+    return deleteStartTime;
+  }
+
+  public void setDeleteStartTime(long deleteStartTime) {
+    this.deleteStartTime = deleteStartTime;
   }
 
-  public void setDeleteTime(long delTime) {
-    this.deleteTime = delTime;
+  public long getDeleteEndTime() {
+    return deleteEndTime;
+  }
+
+  public void setDeleteEndTime(long deleteEndTime) {
+    this.deleteEndTime = deleteEndTime;
   }
 
   public void addPath(Path path) {
@@ -88,7 +121,7 @@ public class DeletePlan extends PhysicalPlan {
 
   @Override
   public int hashCode() {
-    return Objects.hash(deleteTime, paths);
+    return Objects.hash(deleteStartTime, deleteEndTime, paths);
   }
 
   @Override
@@ -100,29 +133,51 @@ public class DeletePlan extends PhysicalPlan {
       return false;
     }
     DeletePlan that = (DeletePlan) o;
-    return deleteTime == that.deleteTime && Objects.equals(paths, that.paths);
+    return deleteStartTime == that.deleteStartTime && deleteEndTime == that.deleteEndTime
+        && Objects.equals(paths, that.paths);
   }
 
+  /**
+   * A plan without a start time keeps the layout of DELETE, so the logs written before the time
+   * ranges are still read the same way. A plan with a start time is a RANGE_DELETE, whose start
+   * time precedes the layout of DELETE.
+   */
   @Override
   public void serializeTo(DataOutputStream stream) throws IOException {
-    int type = PhysicalPlanType.DELETE.ordinal();
-    stream.writeByte((byte) type);
-    stream.writeLong(deleteTime);
+    if (deleteStartTime == Long.MIN_VALUE) {
+      stream.writeByte((byte) PhysicalPlanType.DELETE.ordinal());
+    } else {
+      stream.writeByte((byte) PhysicalPlanType.RANGE_DELETE.ordinal());
+      stream.writeLong(deleteStartTime);
+    }
+    stream.writeLong(deleteEndTime);
     putString(stream, paths.get(0).getFullPath());
   }
 
   @Override
   public void serializeTo(ByteBuffer buffer) {
-    int type = PhysicalPlanType.DELETE.ordinal();
-    buffer.put((byte) type);
-    buffer.putLong(deleteTime);
+    if (deleteStartTime == Long.MIN_VALUE) {
+      buffer.put((byte) PhysicalPlanType.DELETE.ordinal());
+    } else {
+      buffer.put((byte) PhysicalPlanType.RANGE_DELETE.ordinal());
+      buffer.putLong(deleteStartTime);
+    }
+    buffer.putLong(deleteEndTime);
     putString(buffer, paths.get(0).getFullPath());
   }
 
   @Override
   public void deserializeFrom(ByteBuffer buffer) {
-    this.deleteTime = buffer.getLong();
+    this.deleteEndTime = buffer.getLong();
     this.paths = new ArrayList();
     this.paths.add(new Path(readString(buffer)));
   }
+
+  /**
+   * deserialize a RANGE_DELETE, whose start time is followed by the layout of DELETE.
+   */
+  public void deserializeRangeFrom(ByteBuffer buffer) {
+    this.deleteStartTime = buffer.getLong();
+    deserializeFrom(buffer);
+  }
 }
@@ -146,6 +146,7 @@ import org.apache.iotdb.db.query.fill.LinearFill;
 import org.apache.iotdb.db.query.fill.PreviousFill;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+import org.apache.iotdb.tsfile.compress.ILossyCompressor;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
@@ -157,6 +158,10 @@ import org.apache.iotdb.tsfile.utils.StringContainer;
  */
 public class LogicalGenerator extends SqlBaseBaseListener {
 
+  private static final String DELETE_TIME_FILTER_ERROR = "For delete command, where clause must "
+      + "be like : time < XXX, time <= XXX, time > XXX, time >= XXX, time = XXX or their "
+      + "conjunction";
+
   private RootOperator initializedOperator = null;
   private ZoneId zoneId;
   private int operatorType;
@@ -678,9 +683,10 @@ public class LogicalGenerator extends SqlBaseBaseListener {
     // parse sliding step
     if (ctx.DURATION().size() == 2) {
       queryOp.setSlidingStep(parseDuration(ctx.DURATION(1).getText()));
-      if (queryOp.getSlidingStep() < queryOp.getUnit()) {
+      // a sliding step smaller than the time interval makes the intervals overlap
+      if (queryOp.getSlidingStep() <= 0) {
         throw new SQLParserException(
-            "The third parameter sliding step shouldn't be smaller than the second parameter time interval.");
+            "The third parameter sliding step should be greater than 0.");
       }
     }
 
@@ -910,6 +916,7 @@ public class LogicalGenerator extends SqlBaseBaseListener {
             property.propertyValue().getText().toLowerCase());
       }
     }
+    checkLossyCompression(TSDataType.valueOf(dataType), compressor, props);
     createTimeSeriesOperator.setCompressor(compressor);
     createTimeSeriesOperator.setProps(props);
     initializedOperator = createTimeSeriesOperator;
@@ -1064,8 +1071,7 @@ public class LogicalGenerator extends SqlBaseBaseListener {
     switch (operatorType) {
       case SQLConstant.TOK_DELETE:
         deleteDataOp.setFilterOperator(whereOp.getChildren().get(0));
-        long deleteTime = parseDeleteTimeFilter(deleteDataOp);
-        deleteDataOp.setTime(deleteTime);
+        parseDeleteTimeFilter(deleteDataOp);
         break;
       case SQLConstant.TOK_QUERY:
         queryOp.setFilterOperator(whereOp.getChildren().get(0));
@@ -1239,18 +1245,57 @@ public class LogicalGenerator extends SqlBaseBaseListener {
    *
    * @param operator delete logical plan
    */
-  private long parseDeleteTimeFilter(DeleteDataOperator operator) {
-    FilterOperator filterOperator = operator.getFilterOperator();
-    if (filterOperator.getTokenIntType() != SQLConstant.LESSTHAN
-        && filterOperator.getTokenIntType() != SQLConstant.LESSTHANOREQUALTO) {
-      throw new SQLParserException(
-          "For delete command, where clause must be like : time < XXX or time <= XXX");
+  /**
+   * set the deleted time range [startTime, endTime] of the operator by its filter, which is like
+   * time < XXX, time <= XXX, time > XXX, time >= XXX, time = XXX or a conjunction of them.
+   */
+  private void parseDeleteTimeFilter(DeleteDataOperator operator) {
+    long[] timeRange = {Long.MIN_VALUE, Long.MAX_VALUE};
+    parseDeleteTimeFilter(operator.getFilterOperator(), timeRange);
+    if (timeRange[0] > timeRange[1]) {
+      throw new SQLParserException("For delete command, the time range is empty");
+    }
+    operator.setStartTime(timeRange[0]);
+    operator.setTime(timeRange[1]);
+  }
+
+  private void parseDeleteTimeFilter(FilterOperator filterOperator, long[] timeRange) {
+    if (filterOperator.getTokenIntType() == SQLConstant.KW_AND) {
+      for (FilterOperator child : filterOperator.getChildren()) {
+        parseDeleteTimeFilter(child, timeRange);
+      }
+      return;
+    }
+    if (!(filterOperator instanceof BasicFunctionOperator)) {
+      throw new SQLParserException(DELETE_TIME_FILTER_ERROR);
     }
     long time = Long.parseLong(((BasicFunctionOperator) filterOperator).getValue());
-    if (filterOperator.getTokenIntType() == SQLConstant.LESSTHAN) {
-      time = time - 1;
+    switch (filterOperator.getTokenIntType()) {
+      case SQLConstant.LESSTHAN:
+        if (time == Long.MIN_VALUE) {
+          throw new SQLParserException("For delete command, the time range is empty");
+        }
+        timeRange[1] = Math.min(timeRange[1], time - 1);
+        break;
+      case SQLConstant.LESSTHANOREQUALTO:
+        timeRange[1] = Math.min(timeRange[1], time);
+        break;
+      case SQLConstant.GREATERTHAN:
+        if (time == Long.MAX_VALUE) {
+          throw new SQLParserException("For delete command, the time range is empty");
+        }
+        timeRange[0] = Math.max(timeRange[0], time + 1);
+        break;
+      case SQLConstant.GREATERTHANOREQUALTO:
+        timeRange[0] = Math.max(timeRange[0], time);
+        break;
+      case SQLConstant.EQUAL:
+        timeRange[0] = Math.max(timeRange[0], time);
+        timeRange[1] = Math.min(timeRange[1], time);
+        break;
+      default:
+        throw new SQLParserException(DELETE_TIME_FILTER_ERROR);
     }
-    return time;
   }
 
   private void checkMetadataArgs(String dataType, String encoding, String compressor) {
@@ -1285,6 +1330,32 @@ public class LogicalGenerator extends SqlBaseBaseListener {
     checkDataTypeEncoding(tsDataType, tsEncoding);
   }
 
+  private void checkLossyCompression(TSDataType tsDataType, CompressionType compressor,
+      Map<String, String> props) {
+    if (compressor != CompressionType.SDT && compressor != CompressionType.PAA
+        && compressor != CompressionType.PLA) {
+      return;
+    }
+    if (tsDataType != TSDataType.INT32 && tsDataType != TSDataType.INT64
+        && tsDataType != TSDataType.FLOAT && tsDataType != TSDataType.DOUBLE) {
+      throw new SQLParserException(
+          String.format("compressor %s does not support %s", compressor, tsDataType));
+    }
+    String maxError = props.get(ILossyCompressor.MAX_ERROR);
+    if (maxError == null) {
+      return;
+    }
+    try {
+      if (Double.parseDouble(maxError) >= 0) {
+        return;
+      }
+    } catch (NumberFormatException e) {
+      // rejected below
+    }
+    throw new SQLParserException(String
+        .format("%s %s is not a non-negative number", ILossyCompressor.MAX_ERROR, maxError));
+  }
+
   private void checkDataTypeEncoding(TSDataType tsDataType, TSEncoding tsEncoding) {
     boolean throwExp = false;
     switch (tsDataType) {
@@ -1308,7 +1379,8 @@ public class LogicalGenerator extends SqlBaseBaseListener {
         }
         break;
       case TEXT:
-        if (!tsEncoding.equals(TSEncoding.PLAIN)) {
+        if (!(tsEncoding.equals(TSEncoding.PLAIN)
+            || tsEncoding.equals(TSEncoding.PLAIN_DICTIONARY))) {
           throwExp = true;
         }
         break;
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.aggregation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AggregationSkipCounter counts, over all aggregation queries, the files, chunks and pages that are
+ * answered by their statistics without being read, and the pages that have to be decoded. The
+ * counters are accumulated once per series so that concurrent series do not contend on them.
+ * They are exposed through JMX.
+ */
+public class AggregationSkipCounter implements AggregationSkipCounterMXBean, IService {
+
+  private static final Logger logger = LoggerFactory.getLogger(AggregationSkipCounter.class);
+
+  private final AtomicLong skippedFileNum = new AtomicLong();
+  private final AtomicLong skippedChunkNum = new AtomicLong();
+  private final AtomicLong skippedPageNum = new AtomicLong();
+  private final AtomicLong decodedPageNum = new AtomicLong();
+
+  private AggregationSkipCounter() {
+  }
+
+  public static AggregationSkipCounter getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  public void add(long skippedFiles, long skippedChunks, long skippedPages, long decodedPages) {
+    skippedFileNum.addAndGet(skippedFiles);
+    skippedChunkNum.addAndGet(skippedChunks);
+    skippedPageNum.addAndGet(skippedPages);
+    decodedPageNum.addAndGet(decodedPages);
+  }
+
+  @Override
+  public long getSkippedFileNum() {
+    return skippedFileNum.get();
+  }
+
+  @Override
+  public long getSkippedChunkNum() {
+    return skippedChunkNum.get();
+  }
+
+  @Override
+  public long getSkippedPageNum() {
+    return skippedPageNum.get();
+  }
+
+  @Override
+  public long getDecodedPageNum() {
+    return decodedPageNum.get();
+  }
+
+  @Override
+  public void reset() {
+    skippedFileNum.set(0);
+    skippedChunkNum.set(0);
+    skippedPageNum.set(0);
+    decodedPageNum.set(0);
+  }
+
+  @Override
+  public void start() throws StartupException {
+    try {
+      JMXService.registerMBean(getInstance(),
+          ServiceType.AGGREGATION_SKIP_COUNTER_SERVICE.getJmxName());
+    } catch (Exception e) {
+      throw new StartupException(this.getID().getName(), e.getMessage());
+    }
+  }
+
+  @Override
+  public void stop() {
+    JMXService.deregisterMBean(ServiceType.AGGREGATION_SKIP_COUNTER_SERVICE.getJmxName());
+    logger.info("{}: stop {}...", IoTDBConstant.GLOBAL_DB_NAME, this.getID().getName());
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.AGGREGATION_SKIP_COUNTER_SERVICE;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "skipped files: %d, skipped chunks: %d, skipped pages: %d, decoded pages: %d",
+        getSkippedFileNum(), getSkippedChunkNum(), getSkippedPageNum(), getDecodedPageNum());
+  }
+
+  private static class InstanceHolder {
+
+    private static final AggregationSkipCounter INSTANCE = new AggregationSkipCounter();
+
+    private InstanceHolder() {
+    }
+  }
+}
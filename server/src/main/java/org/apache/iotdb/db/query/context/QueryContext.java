@@ -19,8 +19,6 @@
 
 package org.apache.iotdb.db.query.context;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -38,12 +36,6 @@ public class QueryContext {
    * the value is the Modifications of a timeseries in this file.
    */
   private Map<String, Map<String, List<Modification>>> filePathModCache = new ConcurrentHashMap<>();
-  /**
-   * The key is the path of a ModificationFile and the value is all Modifications in this file. We
-   * use this field because each call of Modification.getModifications() return a copy of the
-   * Modifications, and we do not want it to create multiple copies within a query.
-   */
-  private Map<String, List<Modification>> fileModCache = new HashMap<>();
 
   private long queryId;
 
@@ -63,22 +55,7 @@ public class QueryContext {
   public List<Modification> getPathModifications(ModificationFile modFile, String path) {
     Map<String, List<Modification>> fileModifications =
         filePathModCache.computeIfAbsent(modFile.getFilePath(), k -> new ConcurrentHashMap<>());
-    return fileModifications.computeIfAbsent(path, k -> {
-      List<Modification> allModifications = fileModCache.get(modFile.getFilePath());
-      if (allModifications == null) {
-        allModifications = (List<Modification>) modFile.getModifications();
-        fileModCache.put(modFile.getFilePath(), allModifications);
-      }
-      List<Modification> finalPathModifications = new ArrayList<>();
-      if (!allModifications.isEmpty()) {
-        allModifications.forEach(modification -> {
-          if (modification.getPathString().equals(path)) {
-            finalPathModifications.add(modification);
-          }
-        });
-      }
-      return finalPathModifications;
-    });
+    return fileModifications.computeIfAbsent(path, modFile::getModifications);
   }
 
   public long getQueryId() {
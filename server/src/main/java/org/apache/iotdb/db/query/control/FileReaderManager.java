@@ -19,22 +19,29 @@
 package org.apache.iotdb.db.query.control;
 
 import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.service.IService;
 import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.fileSystem.FSType;
 import org.apache.iotdb.tsfile.read.UnClosedTsFileReader;
+import org.apache.iotdb.tsfile.read.reader.MmapTsFileInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * FileReaderManager is a singleton, which is used to manage
@@ -72,6 +79,24 @@ public class FileReaderManager implements IService {
    */
   private Map<String, AtomicInteger> unclosedReferenceMap;
 
+  /**
+   * the key of mappedInputMap is the path of a memory mapped file and the value is the input over
+   * the mapping, it is removed when the file is unmapped.
+   */
+  private Map<String, MmapTsFileInput> mappedInputMap;
+
+  /**
+   * the key of closedFileLockMap is the path of a closed file and the value is the write query lock
+   * of the file. A mapped file is only unmapped under its write lock, when no query can still read
+   * the buffers over the mapping.
+   */
+  private Map<String, ReentrantReadWriteLock> closedFileLockMap;
+
+  /**
+   * the total size of the memory mapped files which are not unmapped yet.
+   */
+  private long mappedFileSize = 0;
+
   private ScheduledExecutorService executorService;
 
   private FileReaderManager() {
@@ -79,6 +104,8 @@ public class FileReaderManager implements IService {
     unclosedFileReaderMap = new ConcurrentHashMap<>();
     closedReferenceMap = new ConcurrentHashMap<>();
     unclosedReferenceMap = new ConcurrentHashMap<>();
+    mappedInputMap = new ConcurrentHashMap<>();
+    closedFileLockMap = new ConcurrentHashMap<>();
     executorService = IoTDBThreadPoolFactory.newScheduledThreadPool(1,
         "open-files-manager");
 
@@ -89,11 +116,16 @@ public class FileReaderManager implements IService {
     return FileReaderManagerHelper.INSTANCE;
   }
 
+  /**
+   * Close the readers of a file which is rewritten or removed, the caller must hold the write query
+   * lock of the file, so its mapping can be released at once.
+   */
   public synchronized void closeFileAndRemoveReader(String filePath) throws IOException {
     closedReferenceMap.remove(filePath);
+    closedFileLockMap.remove(filePath);
     TsFileSequenceReader reader = closedFileReaderMap.remove(filePath);
     if (reader != null) {
-      reader.close();
+      closeAndUnmap(filePath, reader);
     }
     unclosedReferenceMap.remove(filePath);
     reader = unclosedFileReaderMap.remove(filePath);
@@ -106,12 +138,13 @@ public class FileReaderManager implements IService {
 
     long examinePeriod = IoTDBDescriptor.getInstance().getConfig().getCacheFileReaderClearPeriod();
 
-    executorService.scheduleAtFixedRate(() -> {
-      synchronized (this) {
-        clearMap(closedFileReaderMap, closedReferenceMap);
-        clearMap(unclosedFileReaderMap, unclosedReferenceMap);
-      }
-    }, 0, examinePeriod, TimeUnit.MILLISECONDS);
+    executorService.scheduleAtFixedRate(this::clearUnusedReaders, 0, examinePeriod,
+        TimeUnit.MILLISECONDS);
+  }
+
+  synchronized void clearUnusedReaders() {
+    clearMap(closedFileReaderMap, closedReferenceMap);
+    clearMap(unclosedFileReaderMap, unclosedReferenceMap);
   }
 
   private void clearMap(Map<String, TsFileSequenceReader> readerMap,
@@ -123,13 +156,24 @@ public class FileReaderManager implements IService {
       AtomicInteger refAtom = refMap.get(entry.getKey());
 
       if (refAtom != null && refAtom.get() == 0) {
-        try {
-          reader.close();
-        } catch (IOException e) {
-          logger.error("Can not close TsFileSequenceReader {} !", reader.getFileName(), e);
+        if (readerMap == closedFileReaderMap && mappedInputMap.containsKey(entry.getKey())) {
+          // a query may still read the mapping after it releases the reference and before it
+          // releases the read lock, the mapped reader is closed in a later round then
+          if (!tryCloseMappedReader(entry.getKey(), reader)) {
+            continue;
+          }
+        } else {
+          try {
+            reader.close();
+          } catch (IOException e) {
+            logger.error("Can not close TsFileSequenceReader {} !", reader.getFileName(), e);
+          }
         }
         iterator.remove();
         refMap.remove(entry.getKey());
+        if (readerMap == closedFileReaderMap) {
+          closedFileLockMap.remove(entry.getKey());
+        }
         if (resourceLogger.isDebugEnabled()) {
           resourceLogger.debug("{} TsFileReader is closed because of no reference.", entry.getKey());
         }
@@ -159,7 +203,7 @@ public class FileReaderManager implements IService {
       }
 
       TsFileSequenceReader tsFileReader = !isClosed ? new UnClosedTsFileReader(filePath)
-          : new TsFileSequenceReader(filePath);
+          : openClosedFileReader(filePath);
 
       readerMap.put(filePath, tsFileReader);
       return tsFileReader;
@@ -169,6 +213,72 @@ public class FileReaderManager implements IService {
   }
 
 
+  /**
+   * @return whether the mapped reader is closed and unmapped under the write query lock of the file
+   */
+  private boolean tryCloseMappedReader(String filePath, TsFileSequenceReader reader) {
+    ReentrantReadWriteLock lock = closedFileLockMap.get(filePath);
+    if (lock == null || !lock.writeLock().tryLock()) {
+      return false;
+    }
+    try {
+      closeAndUnmap(filePath, reader);
+    } catch (IOException e) {
+      logger.error("Can not close TsFileSequenceReader {} !", reader.getFileName(), e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return true;
+  }
+
+  /**
+   * Close the reader of a closed file and release its mapping if it is memory mapped, the mapped
+   * size is only taken out of the budget when the mapping is released.
+   */
+  private void closeAndUnmap(String filePath, TsFileSequenceReader reader) throws IOException {
+    MmapTsFileInput input = mappedInputMap.remove(filePath);
+    try {
+      reader.close();
+    } finally {
+      if (input != null) {
+        if (!input.unmap()) {
+          logger.warn("Can not unmap {}, the mapping is left to the GC", filePath);
+        }
+        mappedFileSize -= input.size();
+      }
+    }
+  }
+
+  /**
+   * Open a reader of a sealed file, the file is memory mapped if it is enabled and the mapping
+   * fits into the budget, so queries can read its chunks without system calls or copies. The
+   * mapping is released when the reader is closed under the write query lock of the file, which
+   * only happens after all queries on the file have released their references.
+   */
+  private TsFileSequenceReader openClosedFileReader(String filePath) throws IOException {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    if (!config.isEnableMmapTsFileInput()
+        || TSFileDescriptor.getInstance().getConfig().getTSFileStorageFs() != FSType.LOCAL) {
+      return new TsFileSequenceReader(filePath);
+    }
+    long fileSize = new File(filePath).length();
+    if (mappedFileSize + fileSize > config.getMmapTsFileBudgetInMB() * 1024 * 1024) {
+      return new TsFileSequenceReader(filePath);
+    }
+    MmapTsFileInput input = new MmapTsFileInput(Paths.get(filePath));
+    TsFileSequenceReader reader = new TsFileSequenceReader(filePath, input);
+    mappedInputMap.put(filePath, input);
+    mappedFileSize += input.size();
+    return reader;
+  }
+
+  /**
+   * @return the total size of the memory mapped files which are not unmapped yet
+   */
+  synchronized long getMappedFileSize() {
+    return mappedFileSize;
+  }
+
   /**
    * Increase the reference count of the reader specified by filePath. Only when the reference count
    * of a reader equals zero, the reader can be closed and removed.
@@ -180,6 +290,7 @@ public class FileReaderManager implements IService {
         unclosedReferenceMap.computeIfAbsent(tsFile.getPath(), k -> new AtomicInteger()).getAndIncrement();
       } else {
         closedReferenceMap.computeIfAbsent(tsFile.getPath(), k -> new AtomicInteger()).getAndIncrement();
+        closedFileLockMap.put(tsFile.getPath(), tsFile.getWriteQueryLock());
       }
     }
   }
@@ -201,7 +312,7 @@ public class FileReaderManager implements IService {
 
   /**
    * Only for <code>EnvironmentUtils.cleanEnv</code> method. To make sure that unit tests and
-   * integration tests will not conflict with each other.
+   * integration tests will not conflict with each other. The mappings are left to the GC.
    */
   public synchronized void closeAndRemoveAllOpenedReaders() throws IOException {
     Iterator<Map.Entry<String, TsFileSequenceReader>> iterator = closedFileReaderMap.entrySet().iterator();
@@ -212,6 +323,11 @@ public class FileReaderManager implements IService {
         resourceLogger.debug("{} closedTsFileReader is closed.", entry.getKey());
       }
       closedReferenceMap.remove(entry.getKey());
+      closedFileLockMap.remove(entry.getKey());
+      MmapTsFileInput input = mappedInputMap.remove(entry.getKey());
+      if (input != null) {
+        mappedFileSize -= input.size();
+      }
       iterator.remove();
     }
     iterator = unclosedFileReaderMap.entrySet().iterator();
@@ -47,8 +47,9 @@ public class QueryFileManager {
    * this method must be invoked.
    */
   void addQueryId(long queryId) {
-    sealedFilePathsMap.computeIfAbsent(queryId, x -> new HashSet<>());
-    unsealedFilePathsMap.computeIfAbsent(queryId, x -> new HashSet<>());
+    // the series of a query may be read by several threads concurrently
+    sealedFilePathsMap.computeIfAbsent(queryId, x -> ConcurrentHashMap.newKeySet());
+    unsealedFilePathsMap.computeIfAbsent(queryId, x -> ConcurrentHashMap.newKeySet());
   }
 
 
@@ -113,9 +114,7 @@ public class QueryFileManager {
   void addFilePathToMap(long queryId, TsFileResource tsFile, boolean isClosed) {
     Map<Long, Set<TsFileResource>> pathMap = isClosed ? unsealedFilePathsMap :
         sealedFilePathsMap;
-    //TODO this is not an atomic operation, is there concurrent problem?
-    if (!pathMap.get(queryId).contains(tsFile)) {
-      pathMap.get(queryId).add(tsFile);
+    if (pathMap.get(queryId).add(tsFile)) {
       FileReaderManager.getInstance().increaseFileReaderReference(tsFile, isClosed);
     }
   }
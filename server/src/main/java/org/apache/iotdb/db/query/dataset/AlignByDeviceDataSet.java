@@ -19,12 +19,17 @@
 package org.apache.iotdb.db.query.dataset;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
@@ -37,7 +42,9 @@ import org.apache.iotdb.db.qp.physical.crud.FillQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.GroupByPlan;
 import org.apache.iotdb.db.qp.physical.crud.RawDataQueryPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.executor.AggregationExecutor.PreparedAggregation;
 import org.apache.iotdb.db.query.executor.IQueryRouter;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Field;
@@ -46,6 +53,8 @@ import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
 import org.apache.iotdb.tsfile.utils.Binary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
@@ -53,6 +62,8 @@ import org.apache.iotdb.tsfile.utils.Binary;
  */
 public class AlignByDeviceDataSet extends QueryDataSet {
 
+  private static final Logger logger = LoggerFactory.getLogger(AlignByDeviceDataSet.class);
+
   private DataSetType dataSetType;
   private IQueryRouter queryRouter;
   private QueryContext context;
@@ -69,11 +80,26 @@ public class AlignByDeviceDataSet extends QueryDataSet {
   private AggregationPlan aggregationPlan;
   private RawDataQueryPlan rawDataQueryPlan;
 
+  /**
+   * how many rows of a device are read in advance by its prefetching task, which bounds the memory
+   * of the prefetched devices.
+   */
+  private static final int PREFETCH_ROW_NUM = 1024;
+
+  private static final QueryTaskPoolManager TASK_POOL_MANAGER = QueryTaskPoolManager.getInstance();
+
+  /**
+   * how many devices are queried concurrently, the current one and the prefetched ones.
+   */
+  private int parallelism;
+
   private boolean curDataSetInitialized;
-  private String currentDevice;
-  private QueryDataSet currentDataSet;
+  private DeviceQuery currentQuery;
+  /**
+   * the queries of the devices following the current one, in the order of the devices
+   */
+  private Deque<DeviceQuery> prefetchedQueries = new ArrayDeque<>();
   private Iterator<String> deviceIterator;
-  private List<String> executeColumns;
 
   public AlignByDeviceDataSet(AlignByDevicePlan alignByDevicePlan, QueryContext context,
       IQueryRouter queryRouter) {
@@ -105,101 +131,147 @@ public class AlignByDeviceDataSet extends QueryDataSet {
         this.rawDataQueryPlan = new RawDataQueryPlan();
     }
 
+    this.parallelism = IoTDBDescriptor.getInstance().getConfig().getAlignByDeviceParallelism();
     this.curDataSetInitialized = false;
     this.deviceIterator = devices.iterator();
   }
 
+  /**
+   * The devices following the current one are prefetched: their files are opened and their readers
+   * are created in the rpc thread, as the files used by a query are locked and released by the
+   * thread of the query, then at most PREFETCH_ROW_NUM rows of each device are read in the query
+   * pool. The rows are still returned in the order of the devices.
+   */
   protected boolean hasNextWithoutConstraint() throws IOException {
-    if (curDataSetInitialized && currentDataSet.hasNext()) {
+    if (curDataSetInitialized && currentQuery.hasNext()) {
       return true;
     } else {
       curDataSetInitialized = false;
     }
 
-    while (deviceIterator.hasNext()) {
-      currentDevice = deviceIterator.next();
-      // get all measurements of current device
-      Set<String> measurementOfGivenDevice;
-      try {
-        MNode deviceNode = MManager.getInstance().getNodeByPath(currentDevice);
-        measurementOfGivenDevice = deviceNode.getChildren().keySet();
-      } catch (MetadataException e) {
-        throw new IOException("Cannot get node from " + currentDevice);
+    while (true) {
+      if (!prefetchedQueries.isEmpty()) {
+        currentQuery = prefetchedQueries.poll();
+      } else if (deviceIterator.hasNext()) {
+        currentQuery = createDeviceQuery(deviceIterator.next(), false);
+      } else {
+        return false;
       }
-      // extract paths and aggregations queried from all measurements
-      // executeColumns is for calculating rowRecord
-      executeColumns = new ArrayList<>();
-      List<Path> executePaths = new ArrayList<>();
-      List<TSDataType> tsDataTypes = new ArrayList<>();
-      List<String> executeAggregations = new ArrayList<>();
-      for (String column : measurementDataTpeMap.keySet()) {
-        String measurement = column;
-        if (dataSetType == DataSetType.GROUPBY || dataSetType == DataSetType.AGGREGATE) {
-          measurement = column.substring(column.indexOf('(') + 1, column.indexOf(')'));
-          if (measurementOfGivenDevice.contains(measurement)) {
-            executeAggregations.add(column.substring(0, column.indexOf('(')));
-          }
-        }
-        if (measurementOfGivenDevice.contains(measurement)) {
-          executeColumns.add(column);
-          executePaths.add(new Path(currentDevice, measurement));
-          tsDataTypes.add(measurementDataTpeMap.get(column));
-        }
+      while (prefetchedQueries.size() < parallelism - 1 && deviceIterator.hasNext()) {
+        DeviceQuery deviceQuery = createDeviceQuery(deviceIterator.next(), true);
+        deviceQuery.prefetch();
+        prefetchedQueries.add(deviceQuery);
       }
 
-      // get filter to execute for the current device
-      if (deviceToFilterMap != null) {
-        this.expression = deviceToFilterMap.get(currentDevice);
+      if (currentQuery.hasNext()) {
+        curDataSetInitialized = true;
+        return true;
       }
+    }
+  }
 
-      try {
-        switch (dataSetType) {
-          case GROUPBY:
-            groupByPlan.setDeduplicatedPaths(executePaths);
-            groupByPlan.setDeduplicatedDataTypes(tsDataTypes);
-            groupByPlan.setDeduplicatedAggregations(executeAggregations);
-            currentDataSet = queryRouter.groupBy(groupByPlan, context);
-            break;
-          case AGGREGATE:
-            aggregationPlan.setDeduplicatedPaths(executePaths);
-            aggregationPlan.setDeduplicatedAggregations(executeAggregations);
-            aggregationPlan.setDeduplicatedDataTypes(tsDataTypes);
-            aggregationPlan.setExpression(expression);
-            currentDataSet = queryRouter.aggregate(aggregationPlan, context);
-            break;
-          case FILL:
-            fillQueryPlan.setDeduplicatedDataTypes(tsDataTypes);
-            fillQueryPlan.setDeduplicatedPaths(executePaths);
-            currentDataSet = queryRouter.fill(fillQueryPlan, context);
-            break;
-          case QUERY:
-            rawDataQueryPlan.setDeduplicatedPaths(executePaths);
-            rawDataQueryPlan.setDeduplicatedDataTypes(tsDataTypes);
-            rawDataQueryPlan.setExpression(expression);
-            currentDataSet = queryRouter.rawDataQuery(rawDataQueryPlan, context);
-            break;
-          default:
-            throw new IOException("unsupported DataSetType");
+  /**
+   * @param prefetch whether the device is read by a prefetching task, otherwise it is read by the
+   * rpc thread right now
+   */
+  private DeviceQuery createDeviceQuery(String currentDevice, boolean prefetch)
+      throws IOException {
+    // get all measurements of current device
+    Set<String> measurementOfGivenDevice;
+    try {
+      MNode deviceNode = MManager.getInstance().getNodeByPath(currentDevice);
+      measurementOfGivenDevice = deviceNode.getChildren().keySet();
+    } catch (MetadataException e) {
+      throw new IOException("Cannot get node from " + currentDevice);
+    }
+    // extract paths and aggregations queried from all measurements
+    // executeColumns is for calculating rowRecord
+    List<String> executeColumns = new ArrayList<>();
+    List<Path> executePaths = new ArrayList<>();
+    List<TSDataType> tsDataTypes = new ArrayList<>();
+    List<String> executeAggregations = new ArrayList<>();
+    for (String column : measurementDataTpeMap.keySet()) {
+      String measurement = column;
+      if (dataSetType == DataSetType.GROUPBY || dataSetType == DataSetType.AGGREGATE) {
+        measurement = column.substring(column.indexOf('(') + 1, column.indexOf(')'));
+        if (measurementOfGivenDevice.contains(measurement)) {
+          executeAggregations.add(column.substring(0, column.indexOf('(')));
         }
-      } catch (QueryProcessException | QueryFilterOptimizationException | StorageEngineException e) {
-        throw new IOException(e);
       }
+      if (measurementOfGivenDevice.contains(measurement)) {
+        executeColumns.add(column);
+        executePaths.add(new Path(currentDevice, measurement));
+        tsDataTypes.add(measurementDataTpeMap.get(column));
+      }
+    }
 
-      if (currentDataSet.hasNext()) {
-        curDataSetInitialized = true;
-        return true;
+    // get filter to execute for the current device
+    if (deviceToFilterMap != null) {
+      this.expression = deviceToFilterMap.get(currentDevice);
+    }
+
+    DeviceQuery deviceQuery = new DeviceQuery(currentDevice, executeColumns);
+    try {
+      switch (dataSetType) {
+        case GROUPBY:
+          groupByPlan.setDeduplicatedPaths(executePaths);
+          groupByPlan.setDeduplicatedDataTypes(tsDataTypes);
+          groupByPlan.setDeduplicatedAggregations(executeAggregations);
+          deviceQuery.dataSet = queryRouter.groupBy(groupByPlan, context);
+          break;
+        case AGGREGATE:
+          aggregationPlan.setDeduplicatedPaths(executePaths);
+          aggregationPlan.setDeduplicatedAggregations(executeAggregations);
+          aggregationPlan.setDeduplicatedDataTypes(tsDataTypes);
+          aggregationPlan.setExpression(expression);
+          if (prefetch) {
+            deviceQuery.aggregation = queryRouter.prepareAggregate(aggregationPlan, context);
+          } else {
+            deviceQuery.dataSet = queryRouter.aggregate(aggregationPlan, context);
+          }
+          break;
+        case FILL:
+          fillQueryPlan.setDeduplicatedDataTypes(tsDataTypes);
+          fillQueryPlan.setDeduplicatedPaths(executePaths);
+          deviceQuery.dataSet = queryRouter.fill(fillQueryPlan, context);
+          break;
+        case QUERY:
+          rawDataQueryPlan.setDeduplicatedPaths(executePaths);
+          rawDataQueryPlan.setDeduplicatedDataTypes(tsDataTypes);
+          rawDataQueryPlan.setExpression(expression);
+          deviceQuery.dataSet = queryRouter.rawDataQuery(rawDataQueryPlan, context);
+          break;
+        default:
+          throw new IOException("unsupported DataSetType");
       }
+    } catch (QueryProcessException | QueryFilterOptimizationException | StorageEngineException e) {
+      throw new IOException(e);
+    }
+    return deviceQuery;
+  }
+
+  /**
+   * cancel the prefetching tasks and wait for the running ones, so that no task reads the files of
+   * the query after they are released. It must be called before the query resource is released.
+   */
+  public void cancelPrefetch() {
+    if (currentQuery != null) {
+      currentQuery.cancelPrefetch();
+    }
+    for (DeviceQuery deviceQuery : prefetchedQueries) {
+      deviceQuery.cancelPrefetch();
     }
-    return false;
+    prefetchedQueries.clear();
   }
 
   protected RowRecord nextWithoutConstraint() throws IOException {
-    RowRecord originRowRecord = currentDataSet.next();
+    RowRecord originRowRecord = currentQuery.next();
+    List<String> executeColumns = currentQuery.executeColumns;
 
     RowRecord rowRecord = new RowRecord(originRowRecord.getTimestamp());
 
     Field deviceField = new Field(TSDataType.TEXT);
-    deviceField.setBinaryV(new Binary(currentDevice));
+    deviceField.setBinaryV(new Binary(currentQuery.device));
     rowRecord.addField(deviceField);
 
     List<Field> measurementFields = originRowRecord.getFields();
@@ -235,4 +307,109 @@ public class AlignByDeviceDataSet extends QueryDataSet {
     GROUPBY, AGGREGATE, FILL, QUERY
   }
 
+  /**
+   * the query of one device, whose first rows may be read by a prefetching task.
+   */
+  private static class DeviceQuery {
+
+    private final String device;
+    private final List<String> executeColumns;
+    /**
+     * null until the aggregation of an aggregation query is calculated
+     */
+    private QueryDataSet dataSet;
+    private PreparedAggregation aggregation;
+
+    private Future<List<RowRecord>> prefetchFuture;
+    private volatile boolean cancelled;
+    private List<RowRecord> prefetchedRows;
+    private int prefetchedRowIndex;
+
+    private DeviceQuery(String device, List<String> executeColumns) {
+      this.device = device;
+      this.executeColumns = executeColumns;
+    }
+
+    private void prefetch() {
+      if (dataSet instanceof RawQueryDataSetWithoutValueFilter) {
+        // it has read its series in the query pool since it was created, a task waiting for them
+        // would only occupy a thread of the pool
+        return;
+      }
+      prefetchFuture = TASK_POOL_MANAGER.submit(() -> {
+        List<RowRecord> rows = new ArrayList<>();
+        QueryDataSet queryDataSet = getDataSet();
+        while (!cancelled && rows.size() < PREFETCH_ROW_NUM && queryDataSet.hasNext()) {
+          rows.add(queryDataSet.next());
+        }
+        return rows;
+      });
+    }
+
+    /**
+     * the task is not interrupted, as an interrupt closes the file channels shared by the readers,
+     * it stops after the row being read instead.
+     */
+    private void cancelPrefetch() {
+      if (prefetchFuture == null) {
+        return;
+      }
+      cancelled = true;
+      if (!prefetchFuture.cancel(false)) {
+        try {
+          prefetchFuture.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          logger.warn("Interrupted when waiting for the prefetching of {}", device);
+        } catch (ExecutionException e) {
+          logger.debug("Prefetching {} fails after the query is cancelled", device, e);
+        }
+      }
+      prefetchFuture = null;
+    }
+
+    private QueryDataSet getDataSet() throws IOException {
+      if (dataSet == null) {
+        try {
+          dataSet = aggregation.calculate();
+        } catch (StorageEngineException | QueryProcessException e) {
+          throw new IOException(e);
+        }
+      }
+      return dataSet;
+    }
+
+    private boolean hasNext() throws IOException {
+      if (prefetchFuture != null) {
+        try {
+          prefetchedRows = prefetchFuture.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Prefetching " + device + " is interrupted", e);
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+          }
+          throw new IOException(e.getCause());
+        } finally {
+          prefetchFuture = null;
+        }
+      }
+      if (prefetchedRows != null) {
+        if (prefetchedRowIndex < prefetchedRows.size()) {
+          return true;
+        }
+        prefetchedRows = null;
+      }
+      return getDataSet().hasNext();
+    }
+
+    private RowRecord next() throws IOException {
+      if (prefetchedRows != null) {
+        return prefetchedRows.get(prefetchedRowIndex++);
+      }
+      return dataSet.next();
+    }
+  }
+
 }
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.Field;
+import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * ColumnBatch holds a batch of aligned rows column by column: a time array, a primitive value
+ * array for each column and a null bitmap for each column. The bitmap has the same layout as the
+ * bitmaps of TSQueryDataSet, the bit of row i is the (7 - i % 8)th bit of byte i / 8 and is set
+ * when the row has a value in the column.
+ *
+ * <p>
+ * A row is built by setting the values of its non-null columns and then committed with {@link
+ * #commitRow(long)}, or abandoned with {@link #discardRow()}.
+ * </p>
+ */
+public class ColumnBatch {
+
+  private final TSDataType[] dataTypes;
+  private final int capacity;
+  private final long[] times;
+  private final Object[] values;
+  private final byte[][] bitmaps;
+  private int size;
+
+  public ColumnBatch(List<TSDataType> dataTypes, int capacity) {
+    this.dataTypes = dataTypes.toArray(new TSDataType[0]);
+    this.capacity = capacity;
+    this.times = new long[capacity];
+    this.values = new Object[this.dataTypes.length];
+    this.bitmaps = new byte[this.dataTypes.length][(capacity + 7) / 8];
+    for (int i = 0; i < this.dataTypes.length; i++) {
+      values[i] = createValueArray(this.dataTypes[i], capacity);
+    }
+  }
+
+  private static Object createValueArray(TSDataType dataType, int capacity) {
+    switch (dataType) {
+      case INT32:
+        return new int[capacity];
+      case INT64:
+        return new long[capacity];
+      case FLOAT:
+        return new float[capacity];
+      case DOUBLE:
+        return new double[capacity];
+      case BOOLEAN:
+        return new boolean[capacity];
+      case TEXT:
+        return new Binary[capacity];
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataType));
+    }
+  }
+
+  public int getColumnNum() {
+    return dataTypes.length;
+  }
+
+  public TSDataType getDataType(int column) {
+    return dataTypes[column];
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isFull() {
+    return size == capacity;
+  }
+
+  public void clear() {
+    for (byte[] bitmap : bitmaps) {
+      Arrays.fill(bitmap, 0, (size + 7) / 8, (byte) 0);
+    }
+    size = 0;
+  }
+
+  /**
+   * set the value of the given column in the row being built, the type of the value must match
+   * the data type of the column.
+   */
+  public void setValue(int column, Object value) {
+    switch (dataTypes[column]) {
+      case INT32:
+        ((int[]) values[column])[size] = (int) value;
+        break;
+      case INT64:
+        ((long[]) values[column])[size] = (long) value;
+        break;
+      case FLOAT:
+        ((float[]) values[column])[size] = (float) value;
+        break;
+      case DOUBLE:
+        ((double[]) values[column])[size] = (double) value;
+        break;
+      case BOOLEAN:
+        ((boolean[]) values[column])[size] = (boolean) value;
+        break;
+      case TEXT:
+        ((Binary[]) values[column])[size] = (Binary) value;
+        break;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataTypes[column]));
+    }
+    bitmaps[column][size >>> 3] |= (byte) (0x80 >>> (size & 7));
+  }
+
+  /**
+   * commit the row being built with the given timestamp.
+   */
+  public void commitRow(long time) {
+    times[size++] = time;
+  }
+
+  /**
+   * abandon the values set for the row being built.
+   */
+  public void discardRow() {
+    byte mask = (byte) ~(0x80 >>> (size & 7));
+    for (byte[] bitmap : bitmaps) {
+      bitmap[size >>> 3] &= mask;
+    }
+  }
+
+  /**
+   * put a whole row, only used when a data set has already materialized a row.
+   */
+  public void putRowRecord(RowRecord rowRecord) {
+    List<Field> fields = rowRecord.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      Field field = fields.get(i);
+      if (field != null && field.getDataType() != null) {
+        setValue(i, field.getObjectValue(field.getDataType()));
+      }
+    }
+    commitRow(rowRecord.getTimestamp());
+  }
+
+  public long[] getTimes() {
+    return times;
+  }
+
+  public boolean isNull(int column, int row) {
+    return (bitmaps[column][row >>> 3] & (0x80 >>> (row & 7))) == 0;
+  }
+
+  public byte[] getBitmap(int column) {
+    return bitmaps[column];
+  }
+
+  public int[] getIntValues(int column) {
+    return (int[]) values[column];
+  }
+
+  public long[] getLongValues(int column) {
+    return (long[]) values[column];
+  }
+
+  public float[] getFloatValues(int column) {
+    return (float[]) values[column];
+  }
+
+  public double[] getDoubleValues(int column) {
+    return (double[]) values[column];
+  }
+
+  public boolean[] getBooleanValues(int column) {
+    return (boolean[]) values[column];
+  }
+
+  public Binary[] getBinaryValues(int column) {
+    return (Binary[]) values[column];
+  }
+}
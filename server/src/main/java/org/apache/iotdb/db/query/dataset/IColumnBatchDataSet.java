@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset;
+
+import java.io.IOException;
+
+/**
+ * A query data set which can hand out its rows column by column, so that the rows can be
+ * serialized without creating a RowRecord and a Field for each cell. The OFFSET and LIMIT
+ * constraints of the data set are respected just like hasNext() and next().
+ */
+public interface IColumnBatchDataSet {
+
+  /**
+   * clear the batch and fill it with the next rows until it is full, fewer rows are filled only if
+   * there are no more rows.
+   */
+  void fillColumnBatch(ColumnBatch batch) throws IOException;
+}
@@ -22,13 +22,12 @@ import java.io.IOException;
 import java.util.List;
 import org.apache.iotdb.db.query.reader.series.IReaderByTimestamp;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
-import org.apache.iotdb.tsfile.read.common.Field;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
 import org.apache.iotdb.tsfile.read.query.timegenerator.TimeGenerator;
 
-public class RawQueryDataSetWithValueFilter extends QueryDataSet {
+public class RawQueryDataSetWithValueFilter extends QueryDataSet implements IColumnBatchDataSet {
 
   private TimeGenerator timeGenerator;
   private List<IReaderByTimestamp> seriesReaderByTimestampList;
@@ -67,6 +66,47 @@ public class RawQueryDataSetWithValueFilter extends QueryDataSet {
     return cachedRowRecord;
   }
 
+  @Override
+  public void fillColumnBatch(ColumnBatch batch) throws IOException {
+    batch.clear();
+    while (!batch.isFull() && (rowLimit <= 0 || alreadyReturnedRowNum < rowLimit)) {
+      if (hasCachedRowRecord) {
+        // a row has been cached by hasNext()
+        hasCachedRowRecord = false;
+        if (rowOffset > 0) {
+          rowOffset--;
+          continue;
+        }
+        batch.putRowRecord(cachedRowRecord);
+      } else {
+        if (!timeGenerator.hasNext()) {
+          break;
+        }
+        long timestamp = timeGenerator.next();
+        boolean hasField = false;
+        for (int i = 0; i < seriesReaderByTimestampList.size(); i++) {
+          Object value = seriesReaderByTimestampList.get(i).getValueInTimestamp(timestamp);
+          if (value != null) {
+            hasField = true;
+            batch.setValue(i, value);
+          }
+        }
+        if (!hasField) {
+          continue;
+        }
+        if (rowOffset > 0) {
+          batch.discardRow();
+          rowOffset--;
+          continue;
+        }
+        batch.commitRow(timestamp);
+      }
+      if (rowLimit > 0) {
+        alreadyReturnedRowNum++;
+      }
+    }
+  }
+
   /**
    * Cache row record
    *
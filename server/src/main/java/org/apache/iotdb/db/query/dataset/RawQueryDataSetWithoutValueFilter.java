@@ -23,6 +23,7 @@ import org.apache.iotdb.db.concurrent.WrappedRunnable;
 import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.series.ManagedSeriesReader;
 import org.apache.iotdb.db.tools.watermark.WatermarkEncoder;
+import org.apache.iotdb.db.utils.datastructure.TimeSelector;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -38,7 +39,6 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -117,7 +117,7 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
 
   private List<ManagedSeriesReader> seriesReaderList;
 
-  private TreeSet<Long> timeHeap;
+  private TimeSelector timeHeap;
 
   // Blocking queue list for each batch reader
   private BlockingQueue<BatchData>[] blockingQueueArray;
@@ -164,7 +164,7 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
   }
 
   private void init() throws IOException, InterruptedException {
-    timeHeap = new TreeSet<>();
+    timeHeap = new TimeSelector(seriesReaderList.size());
     for (int i = 0; i < seriesReaderList.size(); i++) {
       ManagedSeriesReader reader = seriesReaderList.get(i);
       reader.setHasRemaining(true);
@@ -202,6 +202,8 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
 
     // used to record a bitmap for every 8 row records
     int[] currentBitmapList = new int[seriesNum];
+    // reused to serialize the timestamps and values without allocating an array for each
+    byte[] bytes = new byte[Long.BYTES];
     int rowCount = 0;
     while (rowCount < fetchSize) {
 
@@ -212,7 +214,7 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
       long minTime = timeHeap.pollFirst();
 
       if (rowOffset == 0) {
-        timeBAOS.write(BytesUtils.longToBytes(minTime));
+        timeBAOS.write(BytesUtils.longToBytes(minTime, bytes, 0), 0, Long.BYTES);
       }
 
       for (int seriesIndex = 0; seriesIndex < seriesNum; seriesIndex++) {
@@ -235,28 +237,32 @@ public class RawQueryDataSetWithoutValueFilter extends QueryDataSet {
                 if (encoder != null && encoder.needEncode(minTime)) {
                   intValue = encoder.encodeInt(intValue, minTime);
                 }
-                ReadWriteIOUtils.write(intValue, valueBAOSList[seriesIndex]);
+                valueBAOSList[seriesIndex]
+                    .write(BytesUtils.intToBytes(intValue, bytes, 0), 0, Integer.BYTES);
                 break;
               case INT64:
                 long longValue = cachedBatchDataArray[seriesIndex].getLong();
                 if (encoder != null && encoder.needEncode(minTime)) {
                   longValue = encoder.encodeLong(longValue, minTime);
                 }
-                ReadWriteIOUtils.write(longValue, valueBAOSList[seriesIndex]);
+                valueBAOSList[seriesIndex]
+                    .write(BytesUtils.longToBytes(longValue, bytes, 0), 0, Long.BYTES);
                 break;
               case FLOAT:
                 float floatValue = cachedBatchDataArray[seriesIndex].getFloat();
                 if (encoder != null && encoder.needEncode(minTime)) {
                   floatValue = encoder.encodeFloat(floatValue, minTime);
                 }
-                ReadWriteIOUtils.write(floatValue, valueBAOSList[seriesIndex]);
+                BytesUtils.floatToBytes(floatValue, bytes, 0);
+                valueBAOSList[seriesIndex].write(bytes, 0, Float.BYTES);
                 break;
               case DOUBLE:
                 double doubleValue = cachedBatchDataArray[seriesIndex].getDouble();
                 if (encoder != null && encoder.needEncode(minTime)) {
                   doubleValue = encoder.encodeDouble(doubleValue, minTime);
                 }
-                ReadWriteIOUtils.write(doubleValue, valueBAOSList[seriesIndex]);
+                BytesUtils.doubleToBytes(doubleValue, bytes, 0);
+                valueBAOSList[seriesIndex].write(bytes, 0, Double.BYTES);
                 break;
               case BOOLEAN:
                 ReadWriteIOUtils.write(cachedBatchDataArray[seriesIndex].getBoolean(),
@@ -45,7 +45,11 @@ import java.util.List;
 public class GroupByWithValueFilterDataSet extends GroupByEngineDataSet {
 
   private List<IReaderByTimestamp> allDataReaderList;
-  private GroupByPlan groupByPlan;
+  /**
+   * the aggregations of the plan when this data set is created, as the plan of an align by device
+   * query is reused by the following devices
+   */
+  private List<String> aggregations;
   private TimeGenerator timestampGenerator;
   /**
    * cached timestamp for next group by partition.
@@ -61,6 +65,11 @@ public class GroupByWithValueFilterDataSet extends GroupByEngineDataSet {
    */
   protected int timeStampFetchSize;
 
+  /**
+   * only used when the intervals overlap
+   */
+  private SlidingWindowAggregator slidingWindowAggregator;
+
   public GroupByWithValueFilterDataSet() {
   }
 
@@ -77,6 +86,7 @@ public class GroupByWithValueFilterDataSet extends GroupByEngineDataSet {
   public GroupByWithValueFilterDataSet(long queryId, GroupByPlan groupByPlan) {
     super(new QueryContext(queryId), groupByPlan);
     this.allDataReaderList = new ArrayList<>();
+    this.aggregations = groupByPlan.getDeduplicatedAggregations();
     this.timeStampFetchSize = IoTDBDescriptor.getInstance().getConfig().getBatchSize();
   }
 
@@ -87,7 +97,7 @@ public class GroupByWithValueFilterDataSet extends GroupByEngineDataSet {
       throws StorageEngineException, QueryProcessException {
     this.timestampGenerator = getTimeGenerator(groupByPlan.getExpression(), context, groupByPlan);
     this.allDataReaderList = new ArrayList<>();
-    this.groupByPlan = groupByPlan;
+    this.aggregations = groupByPlan.getDeduplicatedAggregations();
     for (int i = 0; i < paths.size(); i++) {
       Path path = paths.get(i);
       allDataReaderList.add(getReaderByTime(path, groupByPlan, dataTypes.get(i), context, null));
@@ -113,28 +123,60 @@ public class GroupByWithValueFilterDataSet extends GroupByEngineDataSet {
           + " in GroupByWithoutValueFilterDataSet.");
     }
     hasCachedTimeInterval = false;
+    List<AggregateResult> aggregateResultList;
+    if (slidingStep < interval) {
+      try {
+        aggregateResultList = getSlidingWindowAggregator()
+            .calcResult(curStartTime, curEndTime, this::calcResult);
+      } catch (QueryProcessException e) {
+        throw new IOException(e.getMessage(), e);
+      }
+    } else {
+      aggregateResultList = calcResult(curStartTime, curEndTime);
+    }
+    return constructRowRecord(aggregateResultList);
+  }
+
+  private SlidingWindowAggregator getSlidingWindowAggregator() {
+    if (slidingWindowAggregator == null) {
+      slidingWindowAggregator = new SlidingWindowAggregator(startTime, interval, slidingStep);
+      for (int i = 0; i < paths.size(); i++) {
+        TSDataType dataType = dataTypes.get(i);
+        slidingWindowAggregator.addAggregateResult(AggregateResultFactory.getAggrResultByName(
+            aggregations.get(i), dataType), dataType);
+      }
+    }
+    return slidingWindowAggregator;
+  }
+
+  /**
+   * calculate the aggregations in [intervalStartTime, intervalEndTime), which is an interval, or a
+   * segment of overlapped intervals.
+   */
+  private List<AggregateResult> calcResult(long intervalStartTime, long intervalEndTime)
+      throws IOException {
     List<AggregateResult> aggregateResultList = new ArrayList<>();
     for (int i = 0; i < paths.size(); i++) {
       aggregateResultList.add(AggregateResultFactory.getAggrResultByName(
-          groupByPlan.getDeduplicatedAggregations().get(i),
-          groupByPlan.getDeduplicatedDataTypes().get(i)));
+          aggregations.get(i), dataTypes.get(i)));
     }
 
     long[] timestampArray = new long[timeStampFetchSize];
     int timeArrayLength = 0;
     if (hasCachedTimestamp) {
-      if (timestamp < curEndTime) {
-        if (timestamp >= curStartTime) {
+      if (timestamp < intervalEndTime) {
+        if (timestamp >= intervalStartTime) {
           hasCachedTimestamp = false;
           timestampArray[timeArrayLength++] = timestamp;
         }
       } else {
-        return constructRowRecord(aggregateResultList);
+        return aggregateResultList;
       }
     }
     while (timestampGenerator.hasNext()) {
       // construct timestamp array
-      timeArrayLength = constructTimeArrayForOneCal(timestampArray, timeArrayLength);
+      timeArrayLength = constructTimeArrayForOneCal(timestampArray, timeArrayLength,
+          intervalEndTime);
 
       // cal result using timestamp array
       for (int i = 0; i < paths.size(); i++) {
@@ -144,7 +186,7 @@ public class GroupByWithValueFilterDataSet extends GroupByEngineDataSet {
 
       timeArrayLength = 0;
       // judge if it's end
-      if (timestamp >= curEndTime) {
+      if (timestamp >= intervalEndTime) {
         hasCachedTimestamp = true;
         break;
       }
@@ -157,7 +199,7 @@ public class GroupByWithValueFilterDataSet extends GroupByEngineDataSet {
             timestampArray, timeArrayLength, allDataReaderList.get(i));
       }
     }
-    return constructRowRecord(aggregateResultList);
+    return aggregateResultList;
   }
 
   /**
@@ -165,13 +207,14 @@ public class GroupByWithValueFilterDataSet extends GroupByEngineDataSet {
    *
    * @param timestampArray  timestamp array
    * @param timeArrayLength the current size of timestamp array
+   * @param intervalEndTime the end time of the group by partition
    * @return time array size
    */
-  private int constructTimeArrayForOneCal(long[] timestampArray, int timeArrayLength)
-      throws IOException {
+  private int constructTimeArrayForOneCal(long[] timestampArray, int timeArrayLength,
+      long intervalEndTime) throws IOException {
     for (int cnt = 1; cnt < timeStampFetchSize && timestampGenerator.hasNext(); cnt++) {
       timestamp = timestampGenerator.next();
-      if (timestamp < curEndTime) {
+      if (timestamp < intervalEndTime) {
         timestampArray[timeArrayLength++] = timestamp;
       } else {
         hasCachedTimestamp = true;
@@ -19,6 +19,7 @@
 
 package org.apache.iotdb.db.query.dataset.groupby;
 
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.qp.physical.crud.GroupByPlan;
@@ -59,6 +60,11 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
    */
   private Map<Path, List<Integer>> resultIndexes = new HashMap<>();
 
+  /**
+   * path -> sliding window aggregator, only used when the intervals overlap
+   */
+  private Map<Path, SlidingWindowAggregator> slidingWindowAggregators = new HashMap<>();
+
   public GroupByWithoutValueFilterDataSet() {
   }
 
@@ -86,14 +92,22 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
       Path path = paths.get(i);
       if (!pathExecutors.containsKey(path)) {
         //init GroupByExecutor
+        long rollupInterval = IoTDBDescriptor.getInstance().getConfig().getRollupRules()
+            .getCoarsestAlignedInterval(path.getDevice(), path.getMeasurement(), startTime,
+                interval, slidingStep);
         pathExecutors.put(path,
-                getGroupByExecutor(path, groupByPlan.getAllMeasurementsInDevice(path.getDevice()), dataTypes.get(i), context, timeFilter, null));
+                getGroupByExecutor(path, groupByPlan.getAllMeasurementsInDevice(path.getDevice()), dataTypes.get(i), context, timeFilter, null, rollupInterval));
         resultIndexes.put(path, new ArrayList<>());
       }
       resultIndexes.get(path).add(i);
       AggregateResult aggrResult = AggregateResultFactory
               .getAggrResultByName(groupByPlan.getDeduplicatedAggregations().get(i), dataTypes.get(i));
       pathExecutors.get(path).addAggregateResult(aggrResult);
+      if (slidingStep < interval) {
+        slidingWindowAggregators
+            .computeIfAbsent(path, p -> new SlidingWindowAggregator(startTime, interval, slidingStep))
+            .addAggregateResult(aggrResult, dataTypes.get(i));
+      }
     }
   }
 
@@ -111,7 +125,11 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
     try {
       for (Entry<Path, GroupByExecutor> pathToExecutorEntry : pathExecutors.entrySet()) {
         GroupByExecutor executor = pathToExecutorEntry.getValue();
-        List<AggregateResult> aggregations = executor.calcResult(curStartTime, curEndTime);
+        SlidingWindowAggregator slidingWindowAggregator = slidingWindowAggregators
+            .get(pathToExecutorEntry.getKey());
+        List<AggregateResult> aggregations = slidingWindowAggregator == null
+            ? executor.calcResult(curStartTime, curEndTime)
+            : slidingWindowAggregator.calcResult(curStartTime, curEndTime, executor::calcResult);
         for (int i = 0; i < aggregations.size(); i++) {
           int resultIndex = resultIndexes.get(pathToExecutorEntry.getKey()).get(i);
           fields[resultIndex] = aggregations.get(i);
@@ -133,8 +151,10 @@ public class GroupByWithoutValueFilterDataSet extends GroupByEngineDataSet {
   }
 
   protected GroupByExecutor getGroupByExecutor(Path path, Set<String> allSensors, TSDataType dataType,
-                                               QueryContext context, Filter timeFilter, TsFileFilter fileFilter)
+                                               QueryContext context, Filter timeFilter, TsFileFilter fileFilter,
+                                               long rollupInterval)
           throws StorageEngineException, QueryProcessException {
-    return new LocalGroupByExecutor(path, allSensors, dataType, context, timeFilter, fileFilter);
+    return new LocalGroupByExecutor(path, allSensors, dataType, context, timeFilter, fileFilter,
+        rollupInterval);
   }
 }
\ No newline at end of file
@@ -20,6 +20,9 @@
 package org.apache.iotdb.db.query.dataset.groupby;
 
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.rollup.RollupFile;
+import org.apache.iotdb.db.engine.rollup.SeriesRollup;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.query.aggregation.AggregateResult;
@@ -34,6 +37,8 @@ import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -42,6 +47,10 @@ import java.util.Set;
 
 public class LocalGroupByExecutor implements GroupByExecutor {
 
+  private static final Logger logger = LoggerFactory.getLogger(LocalGroupByExecutor.class);
+
+  private Path path;
+  private Filter timeFilter;
   private IAggregateReader reader;
   private BatchData preCachedData;
 
@@ -49,16 +58,39 @@ public class LocalGroupByExecutor implements GroupByExecutor {
   private List<AggregateResult> results = new ArrayList<>();
   private TimeRange timeRange;
 
+  /**
+   * the bucket interval of the rollup that the sealed files are read from, 0 if the rollups are
+   * not used. The buckets of the current file are loaded once and consumed by the intervals in
+   * time order.
+   */
+  private long rollupInterval;
+  private Statistics rollupFileStatistics;
+  private List<Statistics> rollupBuckets;
+  private int rollupBucketIndex;
+
   public LocalGroupByExecutor(Path path, Set<String> allSensors, TSDataType dataType, QueryContext context, Filter timeFilter,
                               TsFileFilter fileFilter)
       throws StorageEngineException, QueryProcessException {
+    this(path, allSensors, dataType, context, timeFilter, fileFilter, 0);
+  }
+
+  /**
+   * @param rollupInterval the bucket interval of the rollup aligned with the intervals of the
+   * query, 0 if no rollup is aligned
+   */
+  public LocalGroupByExecutor(Path path, Set<String> allSensors, TSDataType dataType,
+      QueryContext context, Filter timeFilter, TsFileFilter fileFilter, long rollupInterval)
+      throws StorageEngineException, QueryProcessException {
     QueryDataSource queryDataSource = QueryResourceManager.getInstance()
         .getQueryDataSource(path, context, timeFilter);
     // update filter by TTL
     timeFilter = queryDataSource.updateFilterUsingTTL(timeFilter);
+    this.path = path;
+    this.timeFilter = timeFilter;
     this.reader = new SeriesAggregateReader(path, allSensors, dataType, context, queryDataSource, timeFilter,
         null, fileFilter);
     this.preCachedData = null;
+    this.rollupInterval = rollupInterval;
     timeRange = new TimeRange(Long.MIN_VALUE, Long.MAX_VALUE);
   }
 
@@ -87,25 +119,30 @@ public class LocalGroupByExecutor implements GroupByExecutor {
     // is error data
     if (batchData == null
         || !batchData.hasCurrent()
-        || batchData.getMaxTimestamp() < curStartTime
-        || batchData.currentTime() >= curEndTime) {
+        || batchData.getMaxTimestamp() < curStartTime) {
+      return;
+    }
+
+    // the intervals move forward and no result reads beyond the end of the last interval, so the
+    // points before the current interval are skipped from where the last interval stops instead
+    // of from the first point of the batch
+    while (batchData.hasCurrent() && batchData.currentTime() < curStartTime) {
+      batchData.next();
+    }
+    if (!batchData.hasCurrent() || batchData.currentTime() >= curEndTime) {
       return;
     }
+    int readCurArrayIndex = batchData.getReadCurArrayIndex();
+    int readCurListIndex = batchData.getReadCurListIndex();
 
     for (AggregateResult result : results) {
       //current agg method has been calculated
       if (result.isCalculatedAggregationResult()) {
         continue;
       }
-      //lazy reset batch data for calculation
-      batchData.resetBatchData();
-      //skip points that cannot be calculated
-      while (batchData.currentTime() < curStartTime && batchData.hasCurrent()) {
-        batchData.next();
-      }
-      if (batchData.hasCurrent()) {
-        result.updateResultFromPageData(batchData, curEndTime);
-      }
+      //lazy reset batch data to the first point of the interval for calculation
+      batchData.resetBatchData(readCurArrayIndex, readCurListIndex);
+      result.updateResultFromPageData(batchData, curEndTime);
     }
     //can calc for next interval
     if (batchData.getMaxTimestamp() >= curEndTime) {
@@ -156,6 +193,14 @@ public class LocalGroupByExecutor implements GroupByExecutor {
         reader.skipCurrentFile();
         continue;
       }
+      // calc from the rollup of the file
+      if (rollupInterval > 0 && calcFromRollup(fileStatistics, curStartTime, curEndTime)) {
+        if (fileStatistics.getEndTime() < curEndTime) {
+          reader.skipCurrentFile();
+          continue;
+        }
+        return results;
+      }
 
       //read chunk
       while (reader.hasNextChunk()) {
@@ -179,6 +224,82 @@ public class LocalGroupByExecutor implements GroupByExecutor {
     return results;
   }
 
+  /**
+   * calculate the points of the current file in [curStartTime, curEndTime) from the buckets of
+   * its rollup, only when the buckets lie in the interval and satisfy the time filter as a whole.
+   *
+   * @return false if the rollup cannot be used, then nothing is calculated
+   */
+  private boolean calcFromRollup(Statistics fileStatistics, long curStartTime, long curEndTime)
+      throws IOException, QueryProcessException {
+    if (!loadRollup(fileStatistics)) {
+      return false;
+    }
+    // the buckets before the interval are calculated by the previous intervals or filtered out
+    while (rollupBucketIndex < rollupBuckets.size()
+        && rollupBuckets.get(rollupBucketIndex).getEndTime() < curStartTime) {
+      rollupBucketIndex++;
+    }
+    int endIndex = rollupBucketIndex;
+    while (endIndex < rollupBuckets.size()
+        && rollupBuckets.get(endIndex).getStartTime() < curEndTime) {
+      Statistics bucket = rollupBuckets.get(endIndex);
+      long bucketStartTime = SeriesRollup.getBucketStartTime(bucket.getStartTime(), rollupInterval);
+      if (bucketStartTime < curStartTime || bucketStartTime > curEndTime - rollupInterval
+          || (timeFilter != null
+          && !timeFilter.containStartEndTime(bucket.getStartTime(), bucket.getEndTime()))) {
+        return false;
+      }
+      endIndex++;
+    }
+    for (; rollupBucketIndex < endIndex; rollupBucketIndex++) {
+      calcFromStatistics(rollupBuckets.get(rollupBucketIndex));
+    }
+    return true;
+  }
+
+  /**
+   * load the buckets of the current file if it is sealed, not overlapped with other files and
+   * not modified, and its rollup covers all its points.
+   *
+   * @return whether the buckets of the current file are loaded
+   */
+  private boolean loadRollup(Statistics fileStatistics) throws IOException {
+    if (fileStatistics == rollupFileStatistics) {
+      return rollupBuckets != null;
+    }
+    rollupFileStatistics = fileStatistics;
+    rollupBuckets = null;
+    rollupBucketIndex = 0;
+
+    TsFileResource resource = reader.currentFileResource();
+    if (resource == null || !fileStatistics.canUseStatistics()
+        || reader.isCurrentFileOverlapped()) {
+      return false;
+    }
+    List<Statistics> buckets;
+    try {
+      buckets = RollupFile.read(resource.getFile(), path.getDevice(), path.getMeasurement(),
+          rollupInterval);
+    } catch (IOException e) {
+      logger.warn("Cannot read the rollup of {} in {}, read the raw data instead", path,
+          resource, e);
+      return false;
+    }
+    if (buckets == null) {
+      return false;
+    }
+    // the rollups of some flushes may be lost, e.g., after a crash
+    long count = 0;
+    for (Statistics bucket : buckets) {
+      count += bucket.getCount();
+    }
+    if (count == fileStatistics.getCount()) {
+      rollupBuckets = buckets;
+    }
+    return rollupBuckets != null;
+  }
+
   private boolean readAndCalcFromPage(long curStartTime, long curEndTime) throws IOException,
       QueryProcessException {
     while (reader.hasNextPage()) {
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset.groupby;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.query.aggregation.AggregateResult;
+import org.apache.iotdb.db.query.factory.AggregateResultFactory;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+/**
+ * SlidingWindowAggregator calculates the overlapped intervals of a group by query whose sliding
+ * step is smaller than its interval, e.g., group by ([0, 100), 30ms, 10ms).
+ *
+ * <p>
+ * The time range is cut into segments by the start and end times of all the intervals, e.g.,
+ * [0, 10), [10, 20), [20, 30), [30, 40) ... Each segment is calculated only once and in time order,
+ * so the data is still read in one forward pass, and the result of an interval is merged from the
+ * partial results of the segments it covers instead of being recomputed.
+ * </p>
+ */
+public class SlidingWindowAggregator {
+
+  private final long startTime;
+  private final long interval;
+  private final long slidingStep;
+
+  /**
+   * the results of the current interval and the series data types to create them
+   */
+  private final List<AggregateResult> results = new ArrayList<>();
+  private final List<TSDataType> dataTypes = new ArrayList<>();
+
+  /**
+   * the calculated segments that the current or later intervals may cover, in time order
+   */
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  private long calculatedEndTime = Long.MIN_VALUE;
+
+  public SlidingWindowAggregator(long startTime, long interval, long slidingStep) {
+    this.startTime = startTime;
+    this.interval = interval;
+    this.slidingStep = slidingStep;
+  }
+
+  /**
+   * add an aggregation, in the same order as the results returned by the SegmentCalculator.
+   *
+   * @param dataType data type of the aggregated series
+   */
+  public void addAggregateResult(AggregateResult aggrResult, TSDataType dataType) {
+    results.add(AggregateResultFactory.getAggrResultByType(aggrResult.getAggregationType(),
+        dataType));
+    dataTypes.add(dataType);
+  }
+
+  /**
+   * calculate the interval [curStartTime, curEndTime), the intervals must be calculated in time
+   * order.
+   *
+   * @return the results of the interval, which are reused by the next interval
+   */
+  public List<AggregateResult> calcResult(long curStartTime, long curEndTime,
+      SegmentCalculator calculator) throws IOException, QueryProcessException {
+    // the segments before the interval are not needed by the following intervals either
+    while (!segments.isEmpty() && segments.peekFirst().endTime <= curStartTime) {
+      segments.pollFirst();
+    }
+
+    long segmentStartTime = Math.max(calculatedEndTime, curStartTime);
+    while (segmentStartTime < curEndTime) {
+      long segmentEndTime = Math.min(nextBoundary(segmentStartTime), curEndTime);
+      List<AggregateResult> partialResults = calculator
+          .calcResult(segmentStartTime, segmentEndTime);
+      segments.addLast(new Segment(segmentEndTime, copy(partialResults)));
+      segmentStartTime = segmentEndTime;
+    }
+    calculatedEndTime = Math.max(calculatedEndTime, curEndTime);
+
+    for (AggregateResult result : results) {
+      result.reset();
+    }
+    for (Segment segment : segments) {
+      for (int i = 0; i < results.size(); i++) {
+        results.get(i).merge(segment.results.get(i));
+      }
+      if (segment.endTime >= curEndTime) {
+        break;
+      }
+    }
+    return results;
+  }
+
+  /**
+   * @return the first start or end time of an interval after the given time
+   */
+  private long nextBoundary(long time) {
+    long nextStartTime =
+        startTime + (Math.floorDiv(time - startTime, slidingStep) + 1) * slidingStep;
+    long nextEndTime = startTime + interval
+        + Math.max(Math.floorDiv(time - startTime - interval, slidingStep) + 1, 0) * slidingStep;
+    return Math.min(nextStartTime, nextEndTime);
+  }
+
+  /**
+   * the calculator may reuse its result objects, so the partial results are copied by merging
+   * them into new ones.
+   */
+  private List<AggregateResult> copy(List<AggregateResult> partialResults) {
+    List<AggregateResult> copies = new ArrayList<>(partialResults.size());
+    for (int i = 0; i < partialResults.size(); i++) {
+      AggregateResult partialResult = partialResults.get(i);
+      AggregateResult copy = AggregateResultFactory
+          .getAggrResultByType(partialResult.getAggregationType(), dataTypes.get(i));
+      copy.merge(partialResult);
+      copies.add(copy);
+    }
+    return copies;
+  }
+
+  @FunctionalInterface
+  public interface SegmentCalculator {
+
+    /**
+     * calculate the aggregations in [segmentStartTime, segmentEndTime)
+     */
+    List<AggregateResult> calcResult(long segmentStartTime, long segmentEndTime)
+        throws IOException, QueryProcessException;
+  }
+
+  private static class Segment {
+
+    private final long endTime;
+    private final List<AggregateResult> results;
+
+    private Segment(long endTime, List<AggregateResult> results) {
+      this.endTime = endTime;
+      this.results = results;
+    }
+  }
+}
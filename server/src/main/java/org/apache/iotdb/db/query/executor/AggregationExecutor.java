@@ -26,11 +26,13 @@ import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.qp.physical.crud.AggregationPlan;
 import org.apache.iotdb.db.qp.physical.crud.RawDataQueryPlan;
 import org.apache.iotdb.db.query.aggregation.AggregateResult;
+import org.apache.iotdb.db.query.aggregation.AggregationSkipCounter;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.dataset.SingleDataSet;
 import org.apache.iotdb.db.query.factory.AggregateResultFactory;
 import org.apache.iotdb.db.query.filter.TsFileFilter;
+import org.apache.iotdb.db.query.pool.QueryTaskPoolManager;
 import org.apache.iotdb.db.query.reader.series.IAggregateReader;
 import org.apache.iotdb.db.query.reader.series.IReaderByTimestamp;
 import org.apache.iotdb.db.query.reader.series.SeriesAggregateReader;
@@ -50,6 +52,11 @@ import org.apache.iotdb.tsfile.read.query.timegenerator.TimeGenerator;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AggregationExecutor {
 
@@ -58,17 +65,26 @@ public class AggregationExecutor {
   protected List<String> aggregations;
   protected IExpression expression;
 
+  private static final QueryTaskPoolManager TASK_POOL_MANAGER = QueryTaskPoolManager.getInstance();
+
   /**
    * aggregation batch calculation size.
    **/
   private int aggregateFetchSize;
 
+  /**
+   * how many series of this query can be aggregated concurrently.
+   */
+  private int seriesParallelism;
+
   protected AggregationExecutor(AggregationPlan aggregationPlan) {
     this.selectedSeries = aggregationPlan.getDeduplicatedPaths();
     this.dataTypes = aggregationPlan.getDeduplicatedDataTypes();
     this.aggregations = aggregationPlan.getDeduplicatedAggregations();
     this.expression = aggregationPlan.getExpression();
     this.aggregateFetchSize = IoTDBDescriptor.getInstance().getConfig().getBatchSize();
+    this.seriesParallelism = IoTDBDescriptor.getInstance().getConfig()
+        .getAggregationSeriesParallelism();
   }
 
   /**
@@ -84,21 +100,190 @@ public class AggregationExecutor {
       timeFilter = ((GlobalTimeExpression) expression).getFilter();
     }
 
-    // TODO use multi-thread
     Map<Path, List<Integer>> pathToAggrIndexesMap = groupAggregationsBySeries(selectedSeries);
     AggregateResult[] aggregateResultList = new AggregateResult[selectedSeries.size()];
-    for (Map.Entry<Path, List<Integer>> entry : pathToAggrIndexesMap.entrySet()) {
-      List<AggregateResult> aggregateResults = aggregateOneSeries(entry, aggregationPlan.getAllMeasurementsInDevice(entry.getKey().getDevice()), timeFilter, context);
-      int index = 0;
-      for (int i : entry.getValue()) {
-        aggregateResultList[i] = aggregateResults.get(index);
-        index++;
+    int parallelism = Math.min(seriesParallelism, pathToAggrIndexesMap.size());
+    if (parallelism <= 1) {
+      for (Map.Entry<Path, List<Integer>> entry : pathToAggrIndexesMap.entrySet()) {
+        List<AggregateResult> aggregateResults = aggregateOneSeries(entry,
+            aggregationPlan.getAllMeasurementsInDevice(entry.getKey().getDevice()), timeFilter,
+            context);
+        fillAggregateResults(entry, aggregateResults, aggregateResultList);
       }
+    } else {
+      aggregateSeriesInParallel(pathToAggrIndexesMap, parallelism, aggregationPlan, timeFilter,
+          context, aggregateResultList);
     }
 
     return constructDataSet(Arrays.asList(aggregateResultList));
   }
 
+  /**
+   * open the files and create the readers of an aggregation with only time filter or no filter in
+   * the current thread, the returned aggregation aggregates the series one by one and can be
+   * calculated by another thread.
+   *
+   * @param context query context
+   */
+  public PreparedAggregation prepareWithoutValueFilter(QueryContext context,
+      AggregationPlan aggregationPlan) throws StorageEngineException, QueryProcessException {
+
+    Filter timeFilter = null;
+    if (expression != null) {
+      timeFilter = ((GlobalTimeExpression) expression).getFilter();
+    }
+
+    List<Map.Entry<Path, List<Integer>>> seriesEntries = new ArrayList<>(
+        groupAggregationsBySeries(selectedSeries).entrySet());
+    List<IAggregateReader> seriesReaders = new ArrayList<>(seriesEntries.size());
+    List<List<AggregateResult>> seriesResults = new ArrayList<>(seriesEntries.size());
+    createAggregateReaders(seriesEntries, aggregationPlan, timeFilter, context, seriesReaders,
+        seriesResults);
+
+    return () -> {
+      AggregateResult[] aggregateResultList = new AggregateResult[selectedSeries.size()];
+      for (int i = 0; i < seriesEntries.size(); i++) {
+        aggregateFromReader(seriesReaders.get(i), seriesResults.get(i));
+        fillAggregateResults(seriesEntries.get(i), seriesResults.get(i), aggregateResultList);
+      }
+      return constructDataSet(Arrays.asList(aggregateResultList));
+    };
+  }
+
+  /**
+   * Aggregate the series with at most parallelism threads: the rpc thread and parallelism - 1 tasks
+   * of the query pool take the series one by one, so a busy pool never blocks the query. The readers
+   * are created in the rpc thread beforehand, as the files used by a query are locked and released
+   * by the thread of the query.
+   *
+   * <p>
+   * When one series fails, the others stop taking new series and the failure is thrown after all the
+   * running ones end, so that no reader is used after the resources of the query are released. The
+   * running tasks are not interrupted, as an interrupt closes the file channels shared by other
+   * queries.
+   * </p>
+   */
+  private void aggregateSeriesInParallel(Map<Path, List<Integer>> pathToAggrIndexesMap,
+      int parallelism, AggregationPlan aggregationPlan, Filter timeFilter, QueryContext context,
+      AggregateResult[] aggregateResultList)
+      throws StorageEngineException, IOException, QueryProcessException {
+    List<Map.Entry<Path, List<Integer>>> seriesEntries = new ArrayList<>(
+        pathToAggrIndexesMap.entrySet());
+    List<IAggregateReader> seriesReaders = new ArrayList<>(seriesEntries.size());
+    List<List<AggregateResult>> seriesResults = new ArrayList<>(seriesEntries.size());
+    createAggregateReaders(seriesEntries, aggregationPlan, timeFilter, context, seriesReaders,
+        seriesResults);
+
+    AtomicInteger nextSeriesIndex = new AtomicInteger();
+    AtomicBoolean stopped = new AtomicBoolean();
+    Callable<Void> task = () -> {
+      int index;
+      while (!stopped.get() && (index = nextSeriesIndex.getAndIncrement()) < seriesEntries
+          .size()) {
+        aggregateFromReader(seriesReaders.get(index), seriesResults.get(index));
+      }
+      return null;
+    };
+
+    List<Future<Void>> futures = new ArrayList<>(parallelism - 1);
+    Throwable failure = null;
+    try {
+      for (int i = 1; i < parallelism; i++) {
+        futures.add(TASK_POOL_MANAGER.submit(task));
+      }
+      task.call();
+    } catch (Exception e) {
+      failure = e;
+      stopped.set(true);
+    }
+    boolean interrupted = false;
+    for (Future<Void> future : futures) {
+      while (true) {
+        try {
+          future.get();
+          break;
+        } catch (InterruptedException e) {
+          // the query is cancelled, stop taking new series but still wait for the running ones
+          interrupted = true;
+          stopped.set(true);
+        } catch (ExecutionException e) {
+          stopped.set(true);
+          if (failure == null) {
+            failure = e.getCause();
+          }
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      if (failure == null) {
+        throw new QueryProcessException("Aggregation is interrupted");
+      }
+    }
+    if (failure != null) {
+      throwAggregationFailure(failure);
+    }
+
+    for (int i = 0; i < seriesEntries.size(); i++) {
+      fillAggregateResults(seriesEntries.get(i), seriesResults.get(i), aggregateResultList);
+    }
+  }
+
+  private void createAggregateReaders(List<Map.Entry<Path, List<Integer>>> seriesEntries,
+      AggregationPlan aggregationPlan, Filter timeFilter, QueryContext context,
+      List<IAggregateReader> seriesReaders, List<List<AggregateResult>> seriesResults)
+      throws StorageEngineException, QueryProcessException {
+    for (Map.Entry<Path, List<Integer>> entry : seriesEntries) {
+      Path seriesPath = entry.getKey();
+      TSDataType tsDataType = dataTypes.get(entry.getValue().get(0));
+      seriesReaders.add(createAggregateReader(seriesPath,
+          aggregationPlan.getAllMeasurementsInDevice(seriesPath.getDevice()), context, timeFilter,
+          tsDataType, null));
+      seriesResults.add(createAggregateResults(entry, tsDataType));
+    }
+  }
+
+  private static void throwAggregationFailure(Throwable failure)
+      throws StorageEngineException, IOException, QueryProcessException {
+    if (failure instanceof StorageEngineException) {
+      throw (StorageEngineException) failure;
+    } else if (failure instanceof IOException) {
+      throw (IOException) failure;
+    } else if (failure instanceof QueryProcessException) {
+      throw (QueryProcessException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    throw new QueryProcessException(failure.getMessage());
+  }
+
+  /**
+   * put the results of one series into aggregateResultList by the aggregation indexes.
+   */
+  private static void fillAggregateResults(Map.Entry<Path, List<Integer>> pathToAggrIndexes,
+      List<AggregateResult> aggregateResults, AggregateResult[] aggregateResultList) {
+    int index = 0;
+    for (int i : pathToAggrIndexes.getValue()) {
+      aggregateResultList[i] = aggregateResults.get(index);
+      index++;
+    }
+  }
+
+  private List<AggregateResult> createAggregateResults(
+      Map.Entry<Path, List<Integer>> pathToAggrIndexes, TSDataType tsDataType) {
+    List<AggregateResult> aggregateResultList = new ArrayList<>();
+    for (int i : pathToAggrIndexes.getValue()) {
+      // construct AggregateResult
+      AggregateResult aggregateResult = AggregateResultFactory
+          .getAggrResultByName(aggregations.get(i), tsDataType);
+      aggregateResultList.add(aggregateResult);
+    }
+    return aggregateResultList;
+  }
+
   /**
    * get aggregation result for one series
    *
@@ -112,17 +297,11 @@ public class AggregationExecutor {
       Set<String> measurements,
       Filter timeFilter, QueryContext context)
       throws IOException, QueryProcessException, StorageEngineException {
-    List<AggregateResult> aggregateResultList = new ArrayList<>();
-
     Path seriesPath = pathToAggrIndexes.getKey();
     TSDataType tsDataType = dataTypes.get(pathToAggrIndexes.getValue().get(0));
 
-    for (int i : pathToAggrIndexes.getValue()) {
-      // construct AggregateResult
-      AggregateResult aggregateResult = AggregateResultFactory
-          .getAggrResultByName(aggregations.get(i), tsDataType);
-      aggregateResultList.add(aggregateResult);
-    }
+    List<AggregateResult> aggregateResultList = createAggregateResults(pathToAggrIndexes,
+        tsDataType);
     aggregateOneSeries(seriesPath, measurements, context, timeFilter, tsDataType, aggregateResultList, null);
     return aggregateResultList;
   }
@@ -130,7 +309,14 @@ public class AggregationExecutor {
   public static void aggregateOneSeries(Path seriesPath, Set<String> measurements, QueryContext context, Filter timeFilter,
       TSDataType tsDataType, List<AggregateResult> aggregateResultList, TsFileFilter fileFilter)
       throws StorageEngineException, IOException, QueryProcessException {
+    IAggregateReader seriesReader = createAggregateReader(seriesPath, measurements, context,
+        timeFilter, tsDataType, fileFilter);
+    aggregateFromReader(seriesReader, aggregateResultList);
+  }
 
+  private static IAggregateReader createAggregateReader(Path seriesPath, Set<String> measurements,
+      QueryContext context, Filter timeFilter, TSDataType tsDataType, TsFileFilter fileFilter)
+      throws StorageEngineException, QueryProcessException {
     // construct series reader without value filter
     QueryDataSource queryDataSource = QueryResourceManager.getInstance()
         .getQueryDataSource(seriesPath, context, timeFilter);
@@ -140,46 +326,55 @@ public class AggregationExecutor {
     // update filter by TTL
     timeFilter = queryDataSource.updateFilterUsingTTL(timeFilter);
 
-    IAggregateReader seriesReader = new SeriesAggregateReader(seriesPath, measurements,
+    return new SeriesAggregateReader(seriesPath, measurements,
         tsDataType, context, queryDataSource, timeFilter, null, null);
-    aggregateFromReader(seriesReader, aggregateResultList);
   }
 
   private static void aggregateFromReader(IAggregateReader seriesReader,
       List<AggregateResult> aggregateResultList) throws QueryProcessException, IOException {
     int remainingToCalculate = aggregateResultList.size();
     boolean[] isCalculatedArray = new boolean[aggregateResultList.size()];
+    SkipCount skipCount = new SkipCount();
 
-    while (seriesReader.hasNextFile()) {
-      // cal by file statistics
-      if (seriesReader.canUseCurrentFileStatistics()) {
-        Statistics fileStatistics = seriesReader.currentFileStatistics();
-        remainingToCalculate = aggregateStatistics(aggregateResultList, isCalculatedArray,
-                remainingToCalculate, fileStatistics);
-        if (remainingToCalculate == 0) {
-          return;
-        }
-        seriesReader.skipCurrentFile();
-        continue;
-      }
-
-      while (seriesReader.hasNextChunk()) {
-        // cal by chunk statistics
-        if (seriesReader.canUseCurrentChunkStatistics()) {
-          Statistics chunkStatistics = seriesReader.currentChunkStatistics();
+    try {
+      while (seriesReader.hasNextFile()) {
+        // cal by file statistics
+        if (seriesReader.canUseCurrentFileStatistics()) {
+          Statistics fileStatistics = seriesReader.currentFileStatistics();
           remainingToCalculate = aggregateStatistics(aggregateResultList, isCalculatedArray,
-                  remainingToCalculate, chunkStatistics);
+              remainingToCalculate, fileStatistics);
+          skipCount.files++;
           if (remainingToCalculate == 0) {
             return;
           }
-          seriesReader.skipCurrentChunk();
+          seriesReader.skipCurrentFile();
           continue;
         }
-        remainingToCalculate = aggregateOverlappedPages(seriesReader, aggregateResultList,
-                isCalculatedArray, remainingToCalculate);
+
+        while (seriesReader.hasNextChunk()) {
+          // cal by chunk statistics
+          if (seriesReader.canUseCurrentChunkStatistics()) {
+            Statistics chunkStatistics = seriesReader.currentChunkStatistics();
+            remainingToCalculate = aggregateStatistics(aggregateResultList, isCalculatedArray,
+                remainingToCalculate, chunkStatistics);
+            skipCount.chunks++;
+            if (remainingToCalculate == 0) {
+              return;
+            }
+            seriesReader.skipCurrentChunk();
+            continue;
+          }
+          remainingToCalculate = aggregatePages(seriesReader, aggregateResultList,
+              isCalculatedArray, remainingToCalculate, skipCount);
+          if (remainingToCalculate == 0) {
+            return;
+          }
+        }
       }
+    } finally {
+      AggregationSkipCounter.getInstance()
+          .add(skipCount.files, skipCount.chunks, skipCount.pages, skipCount.decodedPages);
     }
-
   }
 
   /**
@@ -211,13 +406,26 @@ public class AggregationExecutor {
     return newRemainingToCalculate;
   }
 
-  private static int aggregateOverlappedPages(IAggregateReader seriesReader,
-      List<AggregateResult> aggregateResultList, boolean[] isCalculatedArray, int remainingToCalculate)
-      throws IOException {
-    // cal by page data
+  private static int aggregatePages(IAggregateReader seriesReader,
+      List<AggregateResult> aggregateResultList, boolean[] isCalculatedArray,
+      int remainingToCalculate, SkipCount skipCount) throws IOException, QueryProcessException {
     int newRemainingToCalculate = remainingToCalculate;
     while (seriesReader.hasNextPage()) {
+      // cal by page statistics, only non overlapped pages have statistics
+      if (seriesReader.canUseCurrentPageStatistics()) {
+        Statistics pageStatistics = seriesReader.currentPageStatistics();
+        newRemainingToCalculate = aggregateStatistics(aggregateResultList, isCalculatedArray,
+            newRemainingToCalculate, pageStatistics);
+        skipCount.pages++;
+        if (newRemainingToCalculate == 0) {
+          return newRemainingToCalculate;
+        }
+        seriesReader.skipCurrentPage();
+        continue;
+      }
+      // cal by page data
       BatchData nextOverlappedPageData = seriesReader.nextPage();
+      skipCount.decodedPages++;
       for (int i = 0; i < aggregateResultList.size(); i++) {
         if (!isCalculatedArray[i]) {
           AggregateResult aggregateResult = aggregateResultList.get(i);
@@ -243,6 +451,17 @@ public class AggregationExecutor {
    */
   public QueryDataSet executeWithValueFilter(QueryContext context, RawDataQueryPlan queryPlan)
       throws StorageEngineException, IOException, QueryProcessException {
+    return prepareWithValueFilter(context, queryPlan).calculate();
+  }
+
+  /**
+   * open the files and create the readers of an aggregation with value filter in the current
+   * thread, the returned aggregation can be calculated by another thread.
+   *
+   * @param context query context.
+   */
+  public PreparedAggregation prepareWithValueFilter(QueryContext context,
+      RawDataQueryPlan queryPlan) throws StorageEngineException, QueryProcessException {
 
     TimeGenerator timestampGenerator = getTimeGenerator(context, queryPlan);
     List<IReaderByTimestamp> readersOfSelectedSeries = new ArrayList<>();
@@ -259,8 +478,10 @@ public class AggregationExecutor {
       AggregateResult result = AggregateResultFactory.getAggrResultByName(aggregations.get(i), type);
       aggregateResults.add(result);
     }
-    aggregateWithValueFilter(aggregateResults, timestampGenerator, readersOfSelectedSeries);
-    return constructDataSet(aggregateResults);
+    return () -> {
+      aggregateWithValueFilter(aggregateResults, timestampGenerator, readersOfSelectedSeries);
+      return constructDataSet(aggregateResults);
+    };
   }
 
   protected TimeGenerator getTimeGenerator(QueryContext context, RawDataQueryPlan queryPlan) throws StorageEngineException {
@@ -334,4 +555,24 @@ public class AggregationExecutor {
     }
     return pathToAggrIndexesMap;
   }
+
+  /**
+   * the files, chunks and pages of one series answered by statistics, and the decoded pages.
+   */
+  private static class SkipCount {
+
+    private long files;
+    private long chunks;
+    private long pages;
+    private long decodedPages;
+  }
+
+  /**
+   * an aggregation whose files are opened and readers are created, but not calculated yet.
+   */
+  @FunctionalInterface
+  public interface PreparedAggregation {
+
+    QueryDataSet calculate() throws StorageEngineException, IOException, QueryProcessException;
+  }
 }
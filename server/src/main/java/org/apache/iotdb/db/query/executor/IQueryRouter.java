@@ -28,6 +28,7 @@ import org.apache.iotdb.db.qp.physical.crud.GroupByPlan;
 import org.apache.iotdb.db.qp.physical.crud.RawDataQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.LastQueryPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.executor.AggregationExecutor.PreparedAggregation;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
 
@@ -45,6 +46,14 @@ public interface IQueryRouter {
   QueryDataSet aggregate(AggregationPlan aggregationPlan, QueryContext context)
       throws QueryFilterOptimizationException, StorageEngineException, IOException, QueryProcessException;
 
+  /**
+   * Open the files and create the readers of an aggregation query in the current thread, the
+   * series are aggregated one by one when the returned aggregation is calculated, so it can be
+   * calculated in the query thread pool.
+   */
+  PreparedAggregation prepareAggregate(AggregationPlan aggregationPlan, QueryContext context)
+      throws QueryFilterOptimizationException, StorageEngineException, QueryProcessException;
+
   /**
    * Execute groupBy query.
    */
@@ -25,6 +25,7 @@ import org.apache.iotdb.db.qp.physical.crud.*;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.dataset.groupby.GroupByWithValueFilterDataSet;
 import org.apache.iotdb.db.query.dataset.groupby.GroupByWithoutValueFilterDataSet;
+import org.apache.iotdb.db.query.executor.AggregationExecutor.PreparedAggregation;
 import org.apache.iotdb.db.query.fill.IFill;
 import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -85,15 +86,7 @@ public class QueryRouter implements IQueryRouter {
       throws QueryFilterOptimizationException, StorageEngineException, QueryProcessException,
       IOException {
 
-    IExpression expression = aggregationPlan.getExpression();
-    List<Path> deduplicatedPaths = aggregationPlan.getDeduplicatedPaths();
-
-    // optimize expression to an executable one
-    IExpression optimizedExpression =
-        expression == null ? null :
-            ExpressionOptimizer.getInstance().optimize(expression, deduplicatedPaths);
-
-    aggregationPlan.setExpression(optimizedExpression);
+    IExpression optimizedExpression = optimizeAggregationExpression(aggregationPlan);
 
     AggregationExecutor engineExecutor = getAggregationExecutor(aggregationPlan);
 
@@ -105,6 +98,37 @@ public class QueryRouter implements IQueryRouter {
     return engineExecutor.executeWithoutValueFilter(context, aggregationPlan);
   }
 
+  @Override
+  public PreparedAggregation prepareAggregate(AggregationPlan aggregationPlan,
+      QueryContext context)
+      throws QueryFilterOptimizationException, StorageEngineException, QueryProcessException {
+
+    IExpression optimizedExpression = optimizeAggregationExpression(aggregationPlan);
+
+    AggregationExecutor engineExecutor = getAggregationExecutor(aggregationPlan);
+
+    if (optimizedExpression != null
+        && optimizedExpression.getType() != ExpressionType.GLOBAL_TIME) {
+      return engineExecutor.prepareWithValueFilter(context, aggregationPlan);
+    }
+
+    return engineExecutor.prepareWithoutValueFilter(context, aggregationPlan);
+  }
+
+  private IExpression optimizeAggregationExpression(AggregationPlan aggregationPlan)
+      throws QueryFilterOptimizationException {
+    IExpression expression = aggregationPlan.getExpression();
+    List<Path> deduplicatedPaths = aggregationPlan.getDeduplicatedPaths();
+
+    // optimize expression to an executable one
+    IExpression optimizedExpression =
+        expression == null ? null :
+            ExpressionOptimizer.getInstance().optimize(expression, deduplicatedPaths);
+
+    aggregationPlan.setExpression(optimizedExpression);
+    return optimizedExpression;
+  }
+
   protected AggregationExecutor getAggregationExecutor(AggregationPlan aggregationPlan) {
     return new AggregationExecutor(aggregationPlan);
   }
@@ -47,6 +47,10 @@ public class DiskChunkMetadataLoader implements IChunkMetadataLoader {
     this.timeFilter = timeFilter;
   }
 
+  public TsFileResource getResource() {
+    return resource;
+  }
+
   @Override
   public List<ChunkMetadata> loadChunkMetadataList() throws IOException {
     List<ChunkMetadata> chunkMetadataList = ChunkMetadataCache
@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.query.reader.series;
 
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 
@@ -33,6 +34,16 @@ public interface IAggregateReader {
 
   void skipCurrentFile();
 
+  /**
+   * whether the data of the current file overlaps the data of other files
+   */
+  boolean isCurrentFileOverlapped() throws IOException;
+
+  /**
+   * @return the resource of the current file if it is sealed, otherwise null
+   */
+  TsFileResource currentFileResource();
+
   boolean hasNextChunk() throws IOException;
 
   boolean canUseCurrentChunkStatistics() throws IOException;
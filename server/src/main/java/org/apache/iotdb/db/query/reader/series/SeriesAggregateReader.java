@@ -19,6 +19,7 @@
 package org.apache.iotdb.db.query.reader.series;
 
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.filter.TsFileFilter;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -62,6 +63,16 @@ public class SeriesAggregateReader implements IAggregateReader {
     seriesReader.skipCurrentFile();
   }
 
+  @Override
+  public boolean isCurrentFileOverlapped() throws IOException {
+    return seriesReader.isFileOverlapped();
+  }
+
+  @Override
+  public TsFileResource currentFileResource() {
+    return seriesReader.currentFileResource();
+  }
+
   @Override
   public boolean hasNextChunk() throws IOException {
     return seriesReader.hasNextChunk();
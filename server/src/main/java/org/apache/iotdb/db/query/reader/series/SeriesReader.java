@@ -22,6 +22,7 @@ import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.filter.TsFileFilter;
+import org.apache.iotdb.db.query.reader.chunk.metadata.DiskChunkMetadataLoader;
 import org.apache.iotdb.db.query.reader.universal.PriorityMergeReader;
 import org.apache.iotdb.db.utils.FileLoaderUtils;
 import org.apache.iotdb.db.utils.QueryUtils;
@@ -33,6 +34,7 @@ import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.TimeValuePair;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.controller.IChunkMetadataLoader;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.basic.UnaryFilter;
 import org.apache.iotdb.tsfile.read.reader.IPageReader;
@@ -184,6 +186,16 @@ class SeriesReader {
     firstTimeSeriesMetadata = null;
   }
 
+  /**
+   * @return the resource of the current file if its metadata is read from the disk, i.e., the
+   * file is sealed, otherwise null
+   */
+  TsFileResource currentFileResource() {
+    IChunkMetadataLoader loader = firstTimeSeriesMetadata.getChunkMetadataLoader();
+    return loader instanceof DiskChunkMetadataLoader
+        ? ((DiskChunkMetadataLoader) loader).getResource() : null;
+  }
+
   /**
    * This method should be called after hasNextFile() until no next chunk, make sure that all
    * overlapped chunks are consumed
@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
+
+/**
+ * Manage the direct memory slabs of the off-heap TVLists. The slabs are carved out of large direct
+ * chunks, which the arena keeps for its lifetime, so allocating a slab rarely reserves direct
+ * memory and never waits for the garbage collector to free it. The released slabs are pooled by
+ * their capacity and reused. Once the chunks reach the memory budget of PrimitiveArrayPool, the
+ * new slabs are heap buffers.
+ *
+ * The slabs still read by the snapshots of a list are handed over as SharedSlabs and return to
+ * the pool when the list and all its snapshots have let them go, or when the snapshots that never
+ * let them go are collected.
+ */
+public class OffHeapArena implements OffHeapArenaMBean, IService {
+
+  /**
+   * the size of the chunks that the slabs are carved out of
+   */
+  private static final int CHUNK_BYTES = 1024 * 1024;
+
+  /**
+   * slab capacity -> free slabs
+   */
+  private final Map<Integer, Deque<ByteBuffer>> freeSlabsMap = new ConcurrentHashMap<>();
+
+  private final LongAdder pooledBytes = new LongAdder();
+  private final LongAdder inUseBytes = new LongAdder();
+  private final AtomicLong chunkBytes = new AtomicLong();
+
+  /**
+   * the shared slabs that are not returned yet, the references are enqueued when all the lists
+   * sharing the slabs are collected
+   */
+  private final Set<SlabsReference> sharedSlabsSet = ConcurrentHashMap.newKeySet();
+  private final ReferenceQueue<SharedSlabs> collectedSharedSlabs = new ReferenceQueue<>();
+
+  private String mbeanName = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
+          getID().getJmxName());
+
+  private static final OffHeapArena INSTANCE = new OffHeapArena();
+
+  public static OffHeapArena getInstance() {
+    return INSTANCE;
+  }
+
+  private OffHeapArena() {
+  }
+
+  /**
+   * @return a slab in the native byte order, its content is undefined
+   */
+  public ByteBuffer allocate(int capacity) {
+    releaseCollectedSlabs();
+    Deque<ByteBuffer> freeSlabs = freeSlabsMap
+        .computeIfAbsent(capacity, k -> new ConcurrentLinkedDeque<>());
+    ByteBuffer slab = freeSlabs.pollFirst();
+    if (slab != null) {
+      pooledBytes.add(-capacity);
+    } else {
+      slab = carveChunk(capacity, freeSlabs);
+    }
+    inUseBytes.add(capacity);
+    return slab;
+  }
+
+  /**
+   * allocate a chunk, return its first slab and pool the others. A heap slab is returned if the
+   * chunks would exceed the memory budget.
+   */
+  private ByteBuffer carveChunk(int capacity, Deque<ByteBuffer> freeSlabs) {
+    int slabNum = Math.max(1, CHUNK_BYTES / capacity);
+    long budget = PrimitiveArrayPool.getInstance().getMemoryBudget();
+    long reserved;
+    do {
+      reserved = chunkBytes.get();
+      slabNum = (int) Math.min(slabNum, (budget - reserved) / capacity);
+      if (slabNum <= 0) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.nativeOrder());
+      }
+    } while (!chunkBytes.compareAndSet(reserved, reserved + (long) slabNum * capacity));
+
+    ByteBuffer chunk = ByteBuffer.allocateDirect(slabNum * capacity);
+    for (int i = 1; i < slabNum; i++) {
+      chunk.limit((i + 1) * capacity).position(i * capacity);
+      freeSlabs.offerFirst(chunk.slice().order(ByteOrder.nativeOrder()));
+    }
+    pooledBytes.add((long) (slabNum - 1) * capacity);
+    chunk.limit(capacity).position(0);
+    return chunk.slice().order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * return a slab to the pool, heap slabs are left to the garbage collector
+   */
+  public void release(ByteBuffer slab) {
+    int capacity = slab.capacity();
+    inUseBytes.add(-capacity);
+    if (!slab.isDirect()) {
+      return;
+    }
+    pooledBytes.add(capacity);
+    freeSlabsMap.computeIfAbsent(capacity, k -> new ConcurrentLinkedDeque<>()).offerFirst(slab);
+  }
+
+  /**
+   * @return the slabs shared by a list and its snapshots, held by the list itself
+   */
+  public SharedSlabs share() {
+    SharedSlabs sharedSlabs = new SharedSlabs();
+    sharedSlabs.reference = new SlabsReference(sharedSlabs, collectedSharedSlabs);
+    sharedSlabsSet.add(sharedSlabs.reference);
+    return sharedSlabs;
+  }
+
+  private void releaseCollectedSlabs() {
+    Reference<? extends SharedSlabs> reference;
+    while ((reference = collectedSharedSlabs.poll()) != null) {
+      ((SlabsReference) reference).releaseSlabs();
+    }
+  }
+
+  @Override
+  public long getPooledBytes() {
+    return pooledBytes.sum();
+  }
+
+  @Override
+  public long getInUseBytes() {
+    return inUseBytes.sum();
+  }
+
+  @Override
+  public long getChunkBytes() {
+    return chunkBytes.get();
+  }
+
+  /**
+   * drop all pooled slabs, the chunks are freed by the garbage collector once none of their slabs
+   * is in use
+   */
+  public void clear() {
+    releaseCollectedSlabs();
+    for (Deque<ByteBuffer> freeSlabs : freeSlabsMap.values()) {
+      ByteBuffer slab;
+      while ((slab = freeSlabs.pollFirst()) != null) {
+        pooledBytes.add(-slab.capacity());
+        chunkBytes.addAndGet(-slab.capacity());
+      }
+    }
+  }
+
+  @Override
+  public void start() throws StartupException {
+    try {
+      JMXService.registerMBean(INSTANCE, mbeanName);
+    } catch (Exception e) {
+      throw new StartupException(this.getID().getName(), e.getMessage());
+    }
+  }
+
+  @Override
+  public void stop() {
+    JMXService.deregisterMBean(mbeanName);
+    clear();
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.OFF_HEAP_ARENA_SERVICE;
+  }
+
+  /**
+   * The slabs shared by a list and its snapshots. Each of them holds the SharedSlabs until it stops
+   * reading the slabs, the list hands the slabs over when it stops using them, and the slabs are
+   * returned to the pool when they are handed over and no one holds them.
+   */
+  public static class SharedSlabs {
+
+    private SlabsReference reference;
+    private int holderNum = 1;
+
+    public synchronized void retain() {
+      holderNum++;
+    }
+
+    /**
+     * @param slabs the slabs that may be read by the other holders, they are returned to the pool
+     * once all holders release them
+     */
+    public synchronized void handOver(List<ByteBuffer> slabs) {
+      reference.slabs.addAll(slabs);
+    }
+
+    public void release() {
+      boolean lastHolder;
+      synchronized (this) {
+        lastHolder = --holderNum == 0;
+      }
+      if (lastHolder) {
+        reference.releaseSlabs();
+      }
+    }
+  }
+
+  /**
+   * returns the slabs if the lists holding the SharedSlabs are collected without releasing them,
+   * e.g., the snapshots that are read by queries and then dropped
+   */
+  private static class SlabsReference extends PhantomReference<SharedSlabs> {
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+
+    private SlabsReference(SharedSlabs referent, ReferenceQueue<SharedSlabs> queue) {
+      super(referent, queue);
+    }
+
+    private void releaseSlabs() {
+      if (!INSTANCE.sharedSlabsSet.remove(this)) {
+        return;
+      }
+      for (ByteBuffer slab : slabs) {
+        INSTANCE.release(slab);
+      }
+      slabs.clear();
+    }
+  }
+}
@@ -18,32 +18,55 @@
  */
 package org.apache.iotdb.db.rescon;
 
-import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.StartupException;
+import org.apache.iotdb.db.service.IService;
+import org.apache.iotdb.db.service.JMXService;
+import org.apache.iotdb.db.service.ServiceType;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.utils.Binary;
 
 /**
  * Manage all primitive data list in memory, including get and release operation.
+ *
+ * The free arrays of each data type are kept in several lock-free stacks, a thread uses the stack
+ * of its stripe first and steals from the others before allocating a new array, so concurrent
+ * writers seldom contend on the same stack.
+ *
+ * The pool accounts the bytes of the arrays it holds and of the arrays it has handed out, which are
+ * in use until they are released or abandoned. The arrays are not pooled once the total exceeds
+ * the memory budget, and the memtables are flushed earlier when the arrays in use exceed it. The
+ * budget also covers the slabs of the OffHeapArena.
  */
-public class PrimitiveArrayPool {
+public class PrimitiveArrayPool implements PrimitiveArrayPoolMBean, IService {
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  public static final int ARRAY_SIZE = CONFIG.getPrimitiveArraySize();
+
+  private static final int STRIPE_NUM = Runtime.getRuntime().availableProcessors();
 
   /**
-   * data type -> Array<PrimitiveArray>
+   * data type -> stripes of free arrays
    */
-  private static final EnumMap<TSDataType, ArrayDeque<Object>> primitiveArraysMap = new EnumMap<>(TSDataType.class);
+  private final EnumMap<TSDataType, Deque<Object>[]> primitiveArraysMap = new EnumMap<>(
+      TSDataType.class);
 
-  public static final int ARRAY_SIZE = 128;
+  private final LongAdder pooledBytes = new LongAdder();
+  private final LongAdder inUseBytes = new LongAdder();
 
-  static {
-    primitiveArraysMap.put(TSDataType.BOOLEAN, new ArrayDeque<>());
-    primitiveArraysMap.put(TSDataType.INT32, new ArrayDeque<>());
-    primitiveArraysMap.put(TSDataType.INT64, new ArrayDeque<>());
-    primitiveArraysMap.put(TSDataType.FLOAT, new ArrayDeque<>());
-    primitiveArraysMap.put(TSDataType.DOUBLE, new ArrayDeque<>());
-    primitiveArraysMap.put(TSDataType.TEXT, new ArrayDeque<>());
-  }
+  private String mbeanName = String
+      .format("%s:%s=%s", IoTDBConstant.IOTDB_PACKAGE, IoTDBConstant.JMX_TYPE,
+          getID().getJmxName());
 
   public static PrimitiveArrayPool getInstance() {
     return INSTANCE;
@@ -52,62 +75,132 @@ public class PrimitiveArrayPool {
   private static final PrimitiveArrayPool INSTANCE = new PrimitiveArrayPool();
 
 
-  private PrimitiveArrayPool() {}
+  @SuppressWarnings("unchecked")
+  private PrimitiveArrayPool() {
+    for (TSDataType dataType : TSDataType.values()) {
+      Deque<Object>[] stripes = new Deque[STRIPE_NUM];
+      for (int i = 0; i < STRIPE_NUM; i++) {
+        stripes[i] = new ConcurrentLinkedDeque<>();
+      }
+      primitiveArraysMap.put(dataType, stripes);
+    }
+  }
+
+  public Object getPrimitiveDataListByType(TSDataType dataType) {
+    Object dataArray = poll(primitiveArraysMap.get(dataType));
+    long arrayBytes = getArrayBytes(dataType);
+    if (dataArray != null) {
+      pooledBytes.add(-arrayBytes);
+    } else {
+      dataArray = newArray(dataType);
+    }
+    inUseBytes.add(arrayBytes);
+    return dataArray;
+  }
+
+  private Object poll(Deque<Object>[] stripes) {
+    int stripe = getStripe();
+    for (int i = 0; i < STRIPE_NUM; i++) {
+      Object dataArray = stripes[(stripe + i) % STRIPE_NUM].pollFirst();
+      if (dataArray != null) {
+        return dataArray;
+      }
+    }
+    return null;
+  }
+
+  private static int getStripe() {
+    return (int) (Thread.currentThread().getId() % STRIPE_NUM);
+  }
 
-  public synchronized Object getPrimitiveDataListByType(TSDataType dataType) {
-    ArrayDeque<Object> dataListQueue = primitiveArraysMap.computeIfAbsent(dataType, k ->new ArrayDeque<>());
-    Object dataArray = dataListQueue.poll();
+  private static Object newArray(TSDataType dataType) {
     switch (dataType) {
       case BOOLEAN:
-        if (dataArray == null) {
-          dataArray = new boolean[ARRAY_SIZE];
-        }
-        break;
+        return new boolean[ARRAY_SIZE];
       case INT32:
-        if (dataArray == null) {
-          dataArray = new int[ARRAY_SIZE];
-        }
-        break;
+        return new int[ARRAY_SIZE];
       case INT64:
-        if (dataArray == null) {
-          dataArray = new long[ARRAY_SIZE];
-        }
-        break;
+        return new long[ARRAY_SIZE];
       case FLOAT:
-        if (dataArray == null) {
-          dataArray = new float[ARRAY_SIZE];
-        }
-        break;
+        return new float[ARRAY_SIZE];
       case DOUBLE:
-        if (dataArray == null) {
-          dataArray = new double[ARRAY_SIZE];
-        }
-        break;
+        return new double[ARRAY_SIZE];
       case TEXT:
-        if (dataArray == null) {
-          dataArray = new Binary[ARRAY_SIZE];
-        }
-        break;
+        return new Binary[ARRAY_SIZE];
       default:
         throw new UnSupportedDataTypeException("DataType: " + dataType);
     }
-    return dataArray;
   }
 
+  /**
+   * return an array got from this pool, it is dropped instead of pooled if the arrays in the pool
+   * and in use exceed the memory budget.
+   */
+  public void release(Object dataArray) {
+    TSDataType dataType = getDataType(dataArray);
+    if (dataType == null) {
+      return;
+    }
+    long arrayBytes = getArrayBytes(dataType);
+    inUseBytes.add(-arrayBytes);
+    if (pooledBytes.sum() + inUseBytes.sum() + OffHeapArena.getInstance().getInUseBytes()
+        + arrayBytes > getMemoryBudget()) {
+      return;
+    }
+    if (dataType == TSDataType.TEXT) {
+      // do not keep the values alive in the pool
+      Arrays.fill((Binary[]) dataArray, null);
+    }
+    pooledBytes.add(arrayBytes);
+    primitiveArraysMap.get(dataType)[getStripe()].offerFirst(dataArray);
+  }
+
+  /**
+   * stop accounting arrays got from this pool that will not be released, e.g., arrays still read by
+   * snapshots of a list, they are left to the garbage collector.
+   */
+  public void abandon(List<?> dataArrays) {
+    for (Object dataArray : dataArrays) {
+      TSDataType dataType = getDataType(dataArray);
+      if (dataType != null) {
+        inUseBytes.add(-getArrayBytes(dataType));
+      }
+    }
+  }
 
-  public synchronized void release(Object dataArray) {
+  private static TSDataType getDataType(Object dataArray) {
     if (dataArray instanceof boolean[]) {
-      primitiveArraysMap.get(TSDataType.BOOLEAN).add(dataArray);
+      return TSDataType.BOOLEAN;
     } else if (dataArray instanceof int[]) {
-      primitiveArraysMap.get(TSDataType.INT32).add(dataArray);
-    } else if (dataArray instanceof long[]){
-      primitiveArraysMap.get(TSDataType.INT64).add(dataArray);
+      return TSDataType.INT32;
+    } else if (dataArray instanceof long[]) {
+      return TSDataType.INT64;
     } else if (dataArray instanceof float[]) {
-      primitiveArraysMap.get(TSDataType.FLOAT).add(dataArray);
+      return TSDataType.FLOAT;
     } else if (dataArray instanceof double[]) {
-      primitiveArraysMap.get(TSDataType.DOUBLE).add(dataArray);
+      return TSDataType.DOUBLE;
     } else if (dataArray instanceof Binary[]) {
-      primitiveArraysMap.get(TSDataType.TEXT).add(dataArray);
+      return TSDataType.TEXT;
+    }
+    return null;
+  }
+
+  /**
+   * @return the bytes of an array of the data type, a TEXT array only counts its references
+   */
+  private static long getArrayBytes(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return ARRAY_SIZE;
+      case INT32:
+      case FLOAT:
+        return ARRAY_SIZE * 4L;
+      case INT64:
+      case DOUBLE:
+      case TEXT:
+        return ARRAY_SIZE * 8L;
+      default:
+        throw new UnSupportedDataTypeException("DataType: " + dataType);
     }
   }
 
@@ -115,7 +208,7 @@ public class PrimitiveArrayPool {
    * @param size needed capacity
    * @return an array of primitive data arrays
    */
-  public synchronized Object getDataListsByType(TSDataType dataType, int size) {
+  public Object getDataListsByType(TSDataType dataType, int size) {
     int arrayNumber = (int) Math.ceil((float) size / (float)ARRAY_SIZE);
     switch (dataType) {
       case BOOLEAN:
@@ -159,4 +252,61 @@ public class PrimitiveArrayPool {
     }
   }
 
+  /**
+   * @return whether the arrays and the off-heap slabs in use exceed the memory budget, so the
+   * memtables should be flushed to release them
+   */
+  public boolean isOverBudget() {
+    return inUseBytes.sum() + OffHeapArena.getInstance().getInUseBytes() > getMemoryBudget();
+  }
+
+  @Override
+  public long getPooledBytes() {
+    return pooledBytes.sum();
+  }
+
+  @Override
+  public long getInUseBytes() {
+    return inUseBytes.sum();
+  }
+
+  @Override
+  public long getMemoryBudget() {
+    long budget = CONFIG.getPrimitiveArrayMemoryBudget();
+    return budget > 0 ? budget : CONFIG.getAllocateMemoryForWrite();
+  }
+
+  /**
+   * drop all pooled arrays
+   */
+  public void clear() {
+    for (Deque<Object>[] stripes : primitiveArraysMap.values()) {
+      for (Deque<Object> stripe : stripes) {
+        Object dataArray;
+        while ((dataArray = stripe.pollFirst()) != null) {
+          pooledBytes.add(-getArrayBytes(getDataType(dataArray)));
+        }
+      }
+    }
+  }
+
+  @Override
+  public void start() throws StartupException {
+    try {
+      JMXService.registerMBean(INSTANCE, mbeanName);
+    } catch (Exception e) {
+      throw new StartupException(this.getID().getName(), e.getMessage());
+    }
+  }
+
+  @Override
+  public void stop() {
+    JMXService.deregisterMBean(mbeanName);
+    clear();
+  }
+
+  @Override
+  public ServiceType getID() {
+    return ServiceType.PRIMITIVE_ARRAY_POOL_SERVICE;
+  }
 }
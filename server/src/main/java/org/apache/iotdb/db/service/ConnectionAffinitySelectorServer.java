@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.iotdb.db.concurrent.IoTThreadFactory;
+import org.apache.thrift.server.TThreadedSelectorServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A non-blocking server whose selector threads watch all the connections, so an idle connection
+ * does not occupy a thread, and whose bounded worker threads process the requests.
+ *
+ * Unlike TThreadedSelectorServer, all the requests of a connection are processed by the same
+ * worker. The queries hold the read locks of their files in the thread that starts them and release
+ * them when the client closes them, which must happen in the same thread. So the connections
+ * cannot share a pool through per-connection serial queues; instead a connection is bound to the
+ * least loaded worker when it sends its first request.
+ *
+ * The queue of each worker is bounded. When it is full, the selector thread waits for room before
+ * reading more requests, which pushes back on the clients, and the connection is closed only if the
+ * worker stays busy longer than the stop timeout.
+ */
+public class ConnectionAffinitySelectorServer extends TThreadedSelectorServer {
+
+  private static final Logger logger = LoggerFactory
+      .getLogger(ConnectionAffinitySelectorServer.class);
+
+  /**
+   * the worker that the current thread belongs to, null if it is not a worker thread
+   */
+  private static final ThreadLocal<ExecutorService> currWorker = new ThreadLocal<>();
+
+  private final ThreadPoolExecutor[] workers;
+  private final long stopTimeoutMs;
+
+  /**
+   * the worker of each connection, the entry is removed once the connection is collected
+   */
+  private final Map<FrameBuffer, ThreadPoolExecutor> connectionWorkers = Collections
+      .synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * where the search for the least loaded worker starts, so that idle workers take turns
+   */
+  private final AtomicInteger nextWorker = new AtomicInteger();
+
+  /**
+   * @param args the workerThreads and executorService of the args are ignored
+   * @param workerNum the number of worker threads
+   * @param workerQueueSize the number of requests that may wait for each worker
+   * @param workerName the name of the worker threads
+   */
+  public ConnectionAffinitySelectorServer(Args args, int workerNum, int workerQueueSize,
+      String workerName) {
+    super(args.workerThreads(0).executorService(null));
+    this.stopTimeoutMs = args.getStopTimeoutUnit().toMillis(args.getStopTimeoutVal());
+    RejectedExecutionHandler waitForRoom = this::waitForRoom;
+    IoTThreadFactory threadFactory = new IoTThreadFactory(workerName);
+    workers = new ThreadPoolExecutor[workerNum];
+    for (int i = 0; i < workerNum; i++) {
+      ThreadPoolExecutor worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<>(workerQueueSize), threadFactory, waitForRoom);
+      worker.execute(() -> currWorker.set(worker));
+      workers[i] = worker;
+    }
+    logger.info("{} workers of the RPC server are started, each queues at most {} requests",
+        workerNum, workerQueueSize);
+  }
+
+  /**
+   * blocks the selector thread until the worker has room for the task, so that the selector stops
+   * reading the requests of its connections.
+   */
+  private void waitForRoom(Runnable task, ThreadPoolExecutor worker) {
+    if (worker.isShutdown()) {
+      throw new RejectedExecutionException("The worker is shut down");
+    }
+    try {
+      if (!worker.getQueue().offer(task, stopTimeoutMs, TimeUnit.MILLISECONDS)) {
+        throw new RejectedExecutionException(
+            String.format("The worker is still busy after %dms", stopTimeoutMs));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for the worker", e);
+    }
+  }
+
+  /**
+   * @return the worker that the current thread belongs to, null if it is not a worker thread
+   */
+  static ExecutorService getCurrWorker() {
+    return currWorker.get();
+  }
+
+  /**
+   * the FrameBuffer of a connection lives as long as the connection, so it identifies the
+   * connection.
+   */
+  @Override
+  protected boolean requestInvoke(FrameBuffer frameBuffer) {
+    ThreadPoolExecutor worker = connectionWorkers
+        .computeIfAbsent(frameBuffer, k -> leastLoadedWorker());
+    try {
+      worker.execute(frameBuffer::invoke);
+      return true;
+    } catch (RejectedExecutionException e) {
+      logger.warn("Worker rejected the request of a connection", e);
+      return false;
+    }
+  }
+
+  private ThreadPoolExecutor leastLoadedWorker() {
+    int start = Math.floorMod(nextWorker.getAndIncrement(), workers.length);
+    ThreadPoolExecutor leastLoaded = workers[start];
+    int leastLoad = Integer.MAX_VALUE;
+    for (int i = 0; i < workers.length && leastLoad > 0; i++) {
+      ThreadPoolExecutor worker = workers[(start + i) % workers.length];
+      int load = worker.getQueue().size() + worker.getActiveCount();
+      if (load < leastLoad) {
+        leastLoaded = worker;
+        leastLoad = load;
+      }
+    }
+    return leastLoaded;
+  }
+
+  /**
+   * TThreadedSelectorServer does not notify the event handler when it starts serving.
+   */
+  @Override
+  public void serve() {
+    if (!startThreads() || !startListening()) {
+      return;
+    }
+    setServing(true);
+    if (eventHandler_ != null) {
+      eventHandler_.preServe();
+    }
+    waitForShutdown();
+    setServing(false);
+    stopListening();
+  }
+
+  @Override
+  protected void gracefullyShutdownInvokerPool() {
+    for (ExecutorService worker : workers) {
+      worker.shutdown();
+    }
+    connectionWorkers.clear();
+    long deadline = System.currentTimeMillis() + stopTimeoutMs;
+    try {
+      for (ExecutorService worker : workers) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0 || !worker.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+          logger.warn("Workers of the RPC server are not terminated in {}ms", stopTimeoutMs);
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
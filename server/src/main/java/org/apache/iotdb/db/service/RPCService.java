@@ -35,7 +35,10 @@ import org.apache.thrift.protocol.TProtocolFactory;
 import org.apache.thrift.server.TServer;
 import org.apache.thrift.server.TThreadPoolServer;
 import org.apache.thrift.server.TThreadPoolServer.Args;
+import org.apache.thrift.server.TThreadedSelectorServer;
+import org.apache.thrift.transport.TNonblockingServerSocket;
 import org.apache.thrift.transport.TServerSocket;
+import org.apache.thrift.transport.TServerTransport;
 import org.apache.thrift.transport.TTransportException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -175,7 +178,7 @@ public class RPCService implements RPCServiceMBean, IService {
 
   private class RPCServiceThread extends Thread {
 
-    private TServerSocket serverTransport;
+    private TServerTransport serverTransport;
     private TServer poolServer;
     private CountDownLatch threadStartLatch;
     private CountDownLatch threadStopLatch;
@@ -200,17 +203,21 @@ public class RPCService implements RPCServiceMBean, IService {
     public void run() {
       try {
         IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
-        serverTransport = new TServerSocket(new InetSocketAddress(config.getRpcAddress(),
-            config.getRpcPort()));
-        poolArgs = new Args(serverTransport).maxWorkerThreads(IoTDBDescriptor.
-            getInstance().getConfig().getRpcMaxConcurrentClientNum()).minWorkerThreads(1)
-            .stopTimeoutVal(
-                IoTDBDescriptor.getInstance().getConfig().getThriftServerAwaitTimeForStopService());
-        poolArgs.executorService = IoTDBThreadPoolFactory.createThriftRpcClientThreadPool(poolArgs,
-            ThreadName.RPC_CLIENT.getName());
-        poolArgs.processor(processor);
-        poolArgs.protocolFactory(protocolFactory);
-        poolServer = new TThreadPoolServer(poolArgs);
+        if (config.isRpcNonBlockingServerEnable()) {
+          poolServer = createNonBlockingServer(config);
+        } else {
+          serverTransport = new TServerSocket(new InetSocketAddress(config.getRpcAddress(),
+              config.getRpcPort()));
+          poolArgs = new Args(serverTransport).maxWorkerThreads(IoTDBDescriptor.
+              getInstance().getConfig().getRpcMaxConcurrentClientNum()).minWorkerThreads(1)
+              .stopTimeoutVal(
+                  IoTDBDescriptor.getInstance().getConfig().getThriftServerAwaitTimeForStopService());
+          poolArgs.executorService = IoTDBThreadPoolFactory.createThriftRpcClientThreadPool(poolArgs,
+              ThreadName.RPC_CLIENT.getName());
+          poolArgs.processor(processor);
+          poolArgs.protocolFactory(protocolFactory);
+          poolServer = new TThreadPoolServer(poolArgs);
+        }
         poolServer.setServerEventHandler(new RPCServiceEventHandler(impl, threadStartLatch));
         poolServer.serve();
       } catch (TTransportException e) {
@@ -234,6 +241,23 @@ public class RPCService implements RPCServiceMBean, IService {
       }
     }
 
+    /**
+     * the selector threads watch all the connections and the workers process the requests, so the
+     * number of threads does not grow with the clients. The requests are read as frames.
+     */
+    private TServer createNonBlockingServer(IoTDBConfig config) throws TTransportException {
+      TNonblockingServerSocket nonblockingServerTransport = new TNonblockingServerSocket(
+          new InetSocketAddress(config.getRpcAddress(), config.getRpcPort()));
+      serverTransport = nonblockingServerTransport;
+      TThreadedSelectorServer.Args args = new TThreadedSelectorServer.Args(
+          nonblockingServerTransport).selectorThreads(config.getRpcSelectorThreadNum())
+          .stopTimeoutVal(config.getThriftServerAwaitTimeForStopService());
+      args.processor(processor);
+      args.protocolFactory(protocolFactory);
+      return new ConnectionAffinitySelectorServer(args, config.getRpcWorkerThreadNum(),
+          config.getRpcWorkerQueueSize(), ThreadName.RPC_CLIENT.getName());
+    }
+
     private synchronized void close() {
       if (poolServer != null) {
         poolServer.stop();
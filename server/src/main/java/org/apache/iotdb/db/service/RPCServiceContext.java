@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.service;
+
+import java.util.concurrent.ExecutorService;
+import org.apache.thrift.server.ServerContext;
+
+/**
+ * The state of a client connection. The non-blocking server serves many connections with a thread,
+ * so the state is bound to the connection instead of the thread.
+ */
+public class RPCServiceContext implements ServerContext {
+
+  /**
+   * the session opened by the connection, null if it has not logged in
+   */
+  private Long sessionId;
+
+  /**
+   * the worker of the non-blocking server that processes the requests of the connection, null if
+   * the connection is served by its own thread or has sent no request
+   */
+  private ExecutorService worker;
+
+  public Long getSessionId() {
+    return sessionId;
+  }
+
+  public void setSessionId(Long sessionId) {
+    this.sessionId = sessionId;
+  }
+
+  public ExecutorService getWorker() {
+    return worker;
+  }
+
+  public void setWorker(ExecutorService worker) {
+    this.worker = worker;
+  }
+}
@@ -19,13 +19,19 @@
 package org.apache.iotdb.db.service;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.server.ServerContext;
 import org.apache.thrift.server.TServerEventHandler;
 import org.apache.thrift.transport.TTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class RPCServiceEventHandler implements TServerEventHandler {
 
+  private static final Logger logger = LoggerFactory.getLogger(RPCServiceEventHandler.class);
+
   private TSServiceImpl serviceImpl;
   private CountDownLatch startLatch;
 
@@ -36,11 +42,30 @@ public class RPCServiceEventHandler implements TServerEventHandler {
 
   @Override
   public ServerContext createContext(TProtocol arg0, TProtocol arg1) {
-    return null;
+    return new RPCServiceContext();
   }
 
+  /**
+   * the non-blocking server closes a connection in a selector thread, while the session must be
+   * closed in the worker that has processed its queries.
+   */
   @Override
   public void deleteContext(ServerContext arg0, TProtocol arg1, TProtocol arg2) {
+    RPCServiceContext context = (RPCServiceContext) arg0;
+    ExecutorService worker = context.getWorker();
+    if (worker == null) {
+      handleClientExit(context);
+      return;
+    }
+    try {
+      worker.execute(() -> handleClientExit(context));
+    } catch (RejectedExecutionException e) {
+      logger.warn("Cannot close the session {} in its worker", context.getSessionId(), e);
+    }
+  }
+
+  private void handleClientExit(RPCServiceContext context) {
+    serviceImpl.setCurrContext(context);
     serviceImpl.handleClientExit();
   }
 
@@ -51,6 +76,9 @@ public class RPCServiceEventHandler implements TServerEventHandler {
 
   @Override
   public void processContext(ServerContext arg0, TTransport arg1, TTransport arg2) {
+    RPCServiceContext context = (RPCServiceContext) arg0;
+    context.setWorker(ConnectionAffinitySelectorServer.getCurrWorker());
+    serviceImpl.setCurrContext(context);
   }
 
 }
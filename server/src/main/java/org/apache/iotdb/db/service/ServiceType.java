@@ -40,8 +40,13 @@ public enum ServiceType {
   PERFORMANCE_STATISTIC_SERVICE("PERFORMANCE_STATISTIC_SERVICE", "PERFORMANCE_STATISTIC_SERVICE"),
   MANAGE_DYNAMIC_PARAMETERS_SERVICE("Manage Dynamic Parameters", "Manage Dynamic Parameters"),
   TVLIST_ALLOCATOR_SERVICE("TVList Allocator", ""),
+  PRIMITIVE_ARRAY_POOL_SERVICE("Primitive Array Pool", "Primitive Array Pool"),
+  OFF_HEAP_ARENA_SERVICE("Off-heap Arena", "Off-heap Arena"),
+  MTREE_SNAPSHOT_SERVICE("MTree Snapshot ServerService", ""),
   CACHE_HIT_RATIO_DISPLAY_SERVICE("CACHE_HIT_RATIO_DISPLAY_SERVICE",
       generateJmxName(IoTDBConstant.IOTDB_PACKAGE, "Cache Hit Ratio")),
+  AGGREGATION_SKIP_COUNTER_SERVICE("Aggregation Skip Counter",
+      generateJmxName(IoTDBConstant.IOTDB_PACKAGE, "Aggregation Skip Counter")),
 
   FLUSH_SERVICE("Flush ServerService",
       generateJmxName("org.apache.iotdb.db.engine.pool", "Flush Manager")),
@@ -48,6 +48,8 @@ import org.apache.iotdb.db.qp.physical.crud.AlignByDevicePlan.MeasurementType;
 import org.apache.iotdb.db.qp.physical.sys.*;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
+import org.apache.iotdb.db.query.dataset.AlignByDeviceDataSet;
+import org.apache.iotdb.db.query.dataset.IColumnBatchDataSet;
 import org.apache.iotdb.db.query.dataset.NonAlignEngineDataSet;
 import org.apache.iotdb.db.query.dataset.RawQueryDataSetWithoutValueFilter;
 import org.apache.iotdb.db.tools.watermark.GroupedLSBWatermarkEncoder;
@@ -117,7 +119,9 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
   private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
 
   // When the client abnormally exits, we can still know who to disconnect
-  private ThreadLocal<Long> currSessionId = new ThreadLocal<>();
+  // the connection whose request is being processed by the current thread
+  private ThreadLocal<RPCServiceContext> currContext = ThreadLocal
+      .withInitial(RPCServiceContext::new);
 
   public TSServiceImpl() throws QueryProcessException {
     processor = new Planner();
@@ -163,7 +167,7 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       sessionId = sessionIdGenerator.incrementAndGet();
       sessionIdUsernameMap.put(sessionId, req.getUsername());
       sessionIdZoneIdMap.put(sessionId, config.getZoneID());
-      currSessionId.set(sessionId);
+      currContext.get().setSessionId(sessionId);
     } else {
       tsStatus = RpcUtils.getStatus(TSStatusCode.WRONG_LOGIN_PASSWORD_ERROR);
     }
@@ -259,7 +263,11 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
    */
   protected void releaseQueryResource(long queryId) throws StorageEngineException {
     // remove the corresponding Physical Plan
-    queryId2DataSet.remove(queryId);
+    QueryDataSet queryDataSet = queryId2DataSet.remove(queryId);
+    if (queryDataSet instanceof AlignByDeviceDataSet) {
+      // the prefetching tasks must not read the files after they are released
+      ((AlignByDeviceDataSet) queryDataSet).cancelPrefetch();
+    }
     QueryResourceManager.getInstance().endQuery(queryId);
   }
 
@@ -845,6 +853,9 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       if (queryDataSet instanceof RawQueryDataSetWithoutValueFilter) {
         // optimize for query without value filter
         result = ((RawQueryDataSetWithoutValueFilter) queryDataSet).fillBuffer(fetchSize, encoder);
+      } else if (queryDataSet instanceof IColumnBatchDataSet) {
+        result = QueryDataSetUtils.convertColumnBatchDataSetByFetchSize(
+            (IColumnBatchDataSet) queryDataSet, queryDataSet.getDataTypes(), fetchSize, encoder);
       } else {
         result = QueryDataSetUtils.convertQueryDataSetByFetchSize(queryDataSet, fetchSize, encoder);
       }
@@ -852,6 +863,9 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
       if (queryDataSet instanceof RawQueryDataSetWithoutValueFilter) {
         // optimize for query without value filter
         result = ((RawQueryDataSetWithoutValueFilter) queryDataSet).fillBuffer(fetchSize, null);
+      } else if (queryDataSet instanceof IColumnBatchDataSet) {
+        result = QueryDataSetUtils.convertColumnBatchDataSetByFetchSize(
+            (IColumnBatchDataSet) queryDataSet, queryDataSet.getDataTypes(), fetchSize, null);
       } else {
         result = QueryDataSetUtils.convertQueryDataSetByFetchSize(queryDataSet, fetchSize);
       }
@@ -976,12 +990,17 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return AuthorityChecker.check(username, paths, plan.getOperatorType(), targetUser);
   }
 
+  void setCurrContext(RPCServiceContext context) {
+    currContext.set(context);
+  }
+
   protected void handleClientExit() {
-    Long sessionId = currSessionId.get();
+    Long sessionId = currContext.get().getSessionId();
     if (sessionId != null) {
       TSCloseSessionReq req = new TSCloseSessionReq(sessionId);
       closeSession(req);
     }
+    currContext.remove();
   }
 
   @Override
@@ -1060,6 +1079,12 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     return RpcUtils.getTSBatchExecuteStatementResp(TSStatusCode.SUCCESS_STATUS);
   }
 
+  @Override
+  public TSExecuteBatchStatementResp testInsertTablets(TSInsertTabletsReq req) {
+    logger.debug("Test insert tablets request receive.");
+    return RpcUtils.getTSBatchExecuteStatementResp(TSStatusCode.SUCCESS_STATUS);
+  }
+
   @Override
   public TSStatus testInsertRow(TSInsertReq req) {
     logger.debug("Test insert row request receive.");
@@ -1105,7 +1130,10 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
 
     DeletePlan plan = new DeletePlan();
-    plan.setDeleteTime(req.getTimestamp());
+    if (req.isSetStartTime()) {
+      plan.setDeleteStartTime(req.getStartTime());
+    }
+    plan.setDeleteEndTime(req.getTimestamp());
     List<Path> paths = new ArrayList<>();
     for (String path : req.getPaths()) {
       paths.add(new Path(path));
@@ -1168,6 +1196,132 @@ public class TSServiceImpl implements TSIService.Iface, ServerContext {
     }
   }
 
+  @Override
+  public TSExecuteBatchStatementResp insertTablets(TSInsertTabletsReq req) {
+    long t1 = System.currentTimeMillis();
+    try {
+      if (!checkLogin(req.getSessionId())) {
+        logger.info(INFO_NOT_LOGIN, IoTDBConstant.GLOBAL_DB_NAME);
+        return RpcUtils.getTSBatchExecuteStatementResp(TSStatusCode.NOT_LOGIN_ERROR);
+      }
+
+      // the status of each tablet, the tablets without permission are not executed
+      TSStatus[] tabletStatuses = new TSStatus[req.getDeviceIdsSize()];
+      List<BatchInsertPlan> batchInsertPlans = new ArrayList<>();
+      List<Integer> planTabletIndexes = new ArrayList<>();
+      for (int i = 0; i < req.getDeviceIdsSize(); i++) {
+        List<BatchInsertPlan> tabletPlans = getBatchInsertPlans(req, i);
+        for (BatchInsertPlan plan : tabletPlans) {
+          TSStatus status = checkAuthority(plan, req.getSessionId());
+          if (status != null) {
+            tabletStatuses[i] = status;
+            break;
+          }
+        }
+        if (tabletStatuses[i] == null) {
+          for (BatchInsertPlan plan : tabletPlans) {
+            batchInsertPlans.add(plan);
+            planTabletIndexes.add(i);
+          }
+        }
+      }
+
+      TSStatus[][] planResults = executor.insertBatches(batchInsertPlans);
+      for (int i = 0; i < planResults.length; i++) {
+        int tabletIndex = planTabletIndexes.get(i);
+        for (TSStatus tsStatus : planResults[i]) {
+          if (tabletStatuses[tabletIndex] == null
+              && tsStatus.code != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
+            tabletStatuses[tabletIndex] = tsStatus;
+          }
+        }
+      }
+
+      boolean isAllSuccessful = true;
+      for (int i = 0; i < tabletStatuses.length; i++) {
+        if (tabletStatuses[i] == null) {
+          tabletStatuses[i] = RpcUtils.SUCCESS_STATUS;
+        } else {
+          isAllSuccessful = false;
+        }
+      }
+      if (isAllSuccessful) {
+        if (logger.isDebugEnabled()) {
+          logger.debug("Insert {} tablets successfully", tabletStatuses.length);
+        }
+        return RpcUtils.getTSBatchExecuteStatementResp(TSStatusCode.SUCCESS_STATUS);
+      } else {
+        logger.debug("Insert tablets failed!");
+        return RpcUtils.getTSBatchExecuteStatementResp(Arrays.asList(tabletStatuses));
+      }
+    } catch (Exception e) {
+      logger.info("{}: error occurs when executing statements", IoTDBConstant.GLOBAL_DB_NAME, e);
+      return RpcUtils
+          .getTSBatchExecuteStatementResp(TSStatusCode.EXECUTE_STATEMENT_ERROR, e.getMessage());
+    } finally {
+      Measurement.INSTANCE.addOperationLatency(Operation.EXECUTE_RPC_BATCH_INSERT, t1);
+    }
+  }
+
+  /**
+   * decode a tablet of the request into BatchInsertPlans. The measurements without null share one
+   * plan, and each measurement with nulls has a plan of its own that only keeps its non-null rows,
+   * so that the nulls never reach the storage engine.
+   *
+   * @param index the index of the tablet in the request
+   */
+  private List<BatchInsertPlan> getBatchInsertPlans(TSInsertTabletsReq req, int index) {
+    String deviceId = req.getDeviceIds().get(index);
+    List<String> measurements = req.getMeasurementsList().get(index);
+    List<Integer> types = req.getTypesList().get(index);
+    int size = req.getSizeList().get(index);
+    long[] times = QueryDataSetUtils.readTimesFromBuffer(req.getTimestampsList().get(index), size);
+    Object[] columns = QueryDataSetUtils.readValuesFromBuffer(req.getValuesList().get(index),
+        types, measurements.size(), size);
+    BitSet[] nullRows = req.isSetBitmapsList() ? QueryDataSetUtils
+        .readBitmapsFromBuffer(req.getBitmapsList().get(index), measurements.size(), size)
+        : new BitSet[measurements.size()];
+
+    List<BatchInsertPlan> plans = new ArrayList<>();
+    List<Integer> nonNullColumns = new ArrayList<>();
+    for (int i = 0; i < measurements.size(); i++) {
+      if (nullRows[i] == null) {
+        nonNullColumns.add(i);
+        continue;
+      }
+      int nonNullSize = size - nullRows[i].get(0, size).cardinality();
+      if (nonNullSize == 0) {
+        continue;
+      }
+      BatchInsertPlan plan = new BatchInsertPlan(deviceId,
+          Collections.singletonList(measurements.get(i)));
+      plan.setDataTypes(Collections.singletonList(types.get(i)));
+      plan.setTimes(
+          (long[]) QueryDataSetUtils.removeNullRows(times, TSDataType.INT64, nullRows[i], size));
+      plan.setColumns(new Object[]{QueryDataSetUtils
+          .removeNullRows(columns[i], plan.getDataTypes()[0], nullRows[i], size)});
+      plan.setRowCount(nonNullSize);
+      plans.add(plan);
+    }
+
+    if (!nonNullColumns.isEmpty()) {
+      BatchInsertPlan plan = new BatchInsertPlan(deviceId, new String[nonNullColumns.size()]);
+      List<Integer> nonNullTypes = new ArrayList<>(nonNullColumns.size());
+      Object[] nonNullValues = new Object[nonNullColumns.size()];
+      for (int i = 0; i < nonNullColumns.size(); i++) {
+        plan.getMeasurements()[i] = measurements.get(nonNullColumns.get(i));
+        nonNullTypes.add(types.get(nonNullColumns.get(i)));
+        nonNullValues[i] = columns[nonNullColumns.get(i)];
+      }
+      plan.setDataTypes(nonNullTypes);
+      plan.setTimes(times);
+      plan.setColumns(nonNullValues);
+      plan.setRowCount(size);
+      plans.add(0, plan);
+    }
+    return plans;
+  }
+
   @Override
   public TSStatus setStorageGroup(long sessionId, String storageGroup) {
     if (!checkLogin(sessionId)) {
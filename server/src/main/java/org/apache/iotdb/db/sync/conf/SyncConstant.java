@@ -70,6 +70,12 @@ public class SyncConstant {
 
   public static final String RECEIVER_DATA_FOLDER_NAME = "data";
 
+  /**
+   * the files being received are kept in this folder until their MD5 are checked, so that a broken
+   * transfer can be resumed in the next sync task
+   */
+  public static final String RECEIVER_PARTIAL_DATA_FOLDER_NAME = "partial";
+
   public static final String LOAD_LOG_NAME = "load.log";
 
   public static final String DEVICE_OWNER_FILE_NAME = "device_owner";
@@ -82,4 +88,9 @@ public class SyncConstant {
 
   public static final int CONFLICT_CODE = -2;
 
+  /**
+   * the offset of a piece differs from the length of the data received, which is the msg
+   */
+  public static final int OFFSET_MISMATCH_CODE = -3;
+
 }
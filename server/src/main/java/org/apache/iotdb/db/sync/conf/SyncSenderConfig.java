@@ -21,6 +21,7 @@ package org.apache.iotdb.db.sync.conf;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 
 public class SyncSenderConfig {
 
@@ -41,6 +42,21 @@ public class SyncSenderConfig {
    */
   private int maxNumOfSyncFileRetry = 5;
 
+  /**
+   * The number of connections to transfer data files to the receiver in parallel.
+   */
+  private int syncConnectionNum = 1;
+
+  /**
+   * The compression of the pieces of data files on the wire.
+   */
+  private CompressionType syncCompressor = CompressionType.UNCOMPRESSED;
+
+  /**
+   * The size of a piece of a data file, a failed piece is sent again alone.
+   */
+  private int syncPieceSizeInByte = SyncConstant.DATA_CHUNK_SIZE;
+
   /**
    * Storage groups which participate in sync process
    */
@@ -127,4 +143,28 @@ public class SyncSenderConfig {
   public void setMaxNumOfSyncFileRetry(int maxNumOfSyncFileRetry) {
     this.maxNumOfSyncFileRetry = maxNumOfSyncFileRetry;
   }
+
+  public int getSyncConnectionNum() {
+    return syncConnectionNum;
+  }
+
+  public void setSyncConnectionNum(int syncConnectionNum) {
+    this.syncConnectionNum = syncConnectionNum;
+  }
+
+  public CompressionType getSyncCompressor() {
+    return syncCompressor;
+  }
+
+  public void setSyncCompressor(CompressionType syncCompressor) {
+    this.syncCompressor = syncCompressor;
+  }
+
+  public int getSyncPieceSizeInByte() {
+    return syncPieceSizeInByte;
+  }
+
+  public void setSyncPieceSizeInByte(int syncPieceSizeInByte) {
+    this.syncPieceSizeInByte = syncPieceSizeInByte;
+  }
 }
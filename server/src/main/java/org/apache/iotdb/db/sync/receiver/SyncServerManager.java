@@ -134,6 +134,7 @@ public class SyncServerManager implements IService {
     private TServerSocket serverTransport;
     private TServer poolServer;
     private TProtocolFactory protocolFactory;
+    private SyncServiceImpl serviceImpl;
     private Processor<SyncService.Iface> processor;
     private TThreadPoolServer.Args poolArgs;
     //we add this latch for avoiding in some ITs, the syncService is not startup but the IT has finished.
@@ -141,7 +142,8 @@ public class SyncServerManager implements IService {
     private CountDownLatch threadStopLatch;
 
     public SyncServiceThread(CountDownLatch startLatch, CountDownLatch stopLatch) {
-      processor = new SyncService.Processor<>(new SyncServiceImpl());
+      serviceImpl = new SyncServiceImpl();
+      processor = new SyncService.Processor<>(serviceImpl);
       this.threadStartLatch = startLatch;
       this.threadStopLatch = stopLatch;
     }
@@ -156,7 +158,6 @@ public class SyncServerManager implements IService {
         } else {
           protocolFactory = new TBinaryProtocol.Factory();
         }
-        processor = new SyncService.Processor<>(new SyncServiceImpl());
         poolArgs = new TThreadPoolServer.Args(serverTransport).stopTimeoutVal(
             IoTDBDescriptor.getInstance().getConfig().getThriftServerAwaitTimeForStopService());
         poolArgs.executorService = IoTDBThreadPoolFactory.createThriftRpcClientThreadPool(poolArgs,
@@ -164,7 +165,7 @@ public class SyncServerManager implements IService {
         poolArgs.protocolFactory(protocolFactory);
         poolArgs.processor(processor);
         poolServer = new TThreadPoolServer(poolArgs);
-        poolServer.setServerEventHandler(new SyncServiceEventHandler(threadStartLatch));
+        poolServer.setServerEventHandler(new SyncServiceEventHandler(serviceImpl, threadStartLatch));
         poolServer.serve();
       } catch (TTransportException e) {
         logger.error("{}: failed to start {}, because ", IoTDBConstant.GLOBAL_DB_NAME,
@@ -23,10 +23,16 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 
+/**
+ * The connections of a sender share the logger, so a file name is always written after the start
+ * line of its type even if the lines of the connections interleave.
+ */
 public class SyncReceiverLogger implements ISyncReceiverLogger {
 
   private BufferedWriter bw;
 
+  private String currentStartLine;
+
   public SyncReceiverLogger(File logFile) throws IOException {
     if (!logFile.getParentFile().exists()) {
       logFile.getParentFile().mkdirs();
@@ -35,35 +41,43 @@ public class SyncReceiverLogger implements ISyncReceiverLogger {
   }
 
   @Override
-  public void startSyncDeletedFilesName() throws IOException {
-    bw.write(SYNC_DELETED_FILE_NAME_START);
-    bw.newLine();
-    bw.flush();
+  public synchronized void startSyncDeletedFilesName() throws IOException {
+    writeStartLine(SYNC_DELETED_FILE_NAME_START);
   }
 
   @Override
-  public void finishSyncDeletedFileName(File file) throws IOException {
+  public synchronized void finishSyncDeletedFileName(File file) throws IOException {
+    writeStartLine(SYNC_DELETED_FILE_NAME_START);
     bw.write(file.getAbsolutePath());
     bw.newLine();
     bw.flush();
   }
 
   @Override
-  public void startSyncTsFiles() throws IOException {
-    bw.write(SYNC_TSFILE_START);
-    bw.newLine();
-    bw.flush();
+  public synchronized void startSyncTsFiles() throws IOException {
+    writeStartLine(SYNC_TSFILE_START);
   }
 
   @Override
-  public void finishSyncTsfile(File file) throws IOException {
+  public synchronized void finishSyncTsfile(File file) throws IOException {
+    writeStartLine(SYNC_TSFILE_START);
     bw.write(file.getAbsolutePath());
     bw.newLine();
     bw.flush();
   }
 
+  private void writeStartLine(String startLine) throws IOException {
+    if (startLine.equals(currentStartLine)) {
+      return;
+    }
+    bw.write(startLine);
+    bw.newLine();
+    bw.flush();
+    currentStartLine = startLine;
+  }
+
   @Override
-  public void close() throws IOException {
+  public synchronized void close() throws IOException {
     if(bw != null) {
       bw.close();
       bw = null;
@@ -20,13 +20,23 @@ package org.apache.iotdb.db.sync.receiver.transfer;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.concurrent.ThreadName;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBConstant;
@@ -49,6 +59,8 @@ import org.apache.iotdb.db.utils.SyncUtils;
 import org.apache.iotdb.service.sync.thrift.ConfirmInfo;
 import org.apache.iotdb.service.sync.thrift.SyncService;
 import org.apache.iotdb.service.sync.thrift.SyncStatus;
+import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,11 +85,49 @@ public class SyncServiceImpl implements SyncService.Iface {
 
   private ThreadLocal<MessageDigest> messageDigest = new ThreadLocal<>();
 
+  /**
+   * The sync tasks which have started, the key is the sender name. The connections which join a
+   * sync task share its folder and its sync log.
+   */
+  private Map<String, SyncTask> syncTasks = new ConcurrentHashMap<>();
+
   /**
    * Verify IP address of sender
    */
   @Override
   public SyncStatus check(ConfirmInfo info) {
+    SyncStatus status = verifySender(info);
+    if (status.code != SyncConstant.SUCCESS_CODE) {
+      return status;
+    }
+    if (checkRecovery()) {
+      logger.info("Start to sync with sender {}", senderName.get());
+      return getSuccessResult();
+    } else {
+      return getErrorResult("Receiver is processing data from previous sync tasks");
+    }
+  }
+
+  @Override
+  public SyncStatus joinSync(ConfirmInfo info) {
+    SyncStatus status = verifySender(info);
+    if (status.code != SyncConstant.SUCCESS_CODE) {
+      return status;
+    }
+    SyncTask syncTask = syncTasks.get(senderName.get());
+    if (syncTask == null) {
+      return getErrorResult(
+          String.format("Sync task of sender %s has not started", senderName.get()));
+    }
+    closeCurrentFileWriter();
+    syncFolderPath.set(syncTask.syncFolderPath);
+    syncLog.set(syncTask.syncLog);
+    currentSG.remove();
+    logger.info("A new connection joins the sync task of sender {}", senderName.get());
+    return getSuccessResult();
+  }
+
+  private SyncStatus verifySender(ConfirmInfo info) {
     String ipAddress = info.address, uuid = info.uuid;
     Thread.currentThread().setName(ThreadName.SYNC_SERVER.getName());
     if (!info.version.equals(IoTDBConstant.VERSION)) {
@@ -93,12 +143,7 @@ public class SyncServiceImpl implements SyncService.Iface {
     }
     if (SyncUtils.verifyIPSegment(config.getIpWhiteList(), ipAddress)) {
       senderName.set(ipAddress + SyncConstant.SYNC_DIR_NAME_SEPARATOR + uuid);
-      if (checkRecovery()) {
-        logger.info("Start to sync with sender {}", senderName.get());
-        return getSuccessResult();
-      } else {
-        return getErrorResult("Receiver is processing data from previous sync tasks");
-      }
+      return getSuccessResult();
     } else {
       return getErrorResult(
           "Sender IP is not in the white list of receiver IP and synchronization tasks are not allowed.");
@@ -107,12 +152,14 @@ public class SyncServiceImpl implements SyncService.Iface {
 
   private boolean checkRecovery() {
     try {
-      if (currentFileWriter.get() != null && currentFileWriter.get().isOpen()) {
-        currentFileWriter.get().close();
-      }
+      closeCurrentFileWriter();
       if (syncLog.get() != null) {
         syncLog.get().close();
       }
+      SyncTask syncTask = syncTasks.remove(senderName.get());
+      if (syncTask != null) {
+        syncTask.syncLog.close();
+      }
       return SyncReceiverLogAnalyzer.getInstance().recover(senderName.get());
     } catch (IOException e) {
       logger.error("Check recovery state fail", e);
@@ -128,6 +175,7 @@ public class SyncServiceImpl implements SyncService.Iface {
       FileLoader.createFileLoader(senderName.get(), syncFolderPath.get());
       syncLog
           .set(new SyncReceiverLogger(new File(syncFolderPath.get(), SyncConstant.SYNC_LOG_NAME)));
+      syncTasks.put(senderName.get(), new SyncTask(syncFolderPath.get(), syncLog.get()));
       return getSuccessResult();
     } catch (DiskSpaceInsufficientException | IOException e) {
       logger.error("Can not receiver data from sender", e);
@@ -136,14 +184,47 @@ public class SyncServiceImpl implements SyncService.Iface {
   }
 
   /**
-   * Init file path.
+   * Init file path. The sync folder of the sender stays in the data dir that holds its latest
+   * partial files, so that their transfers are resumed, otherwise the next data dir is used.
    */
   private void initPath() throws DiskSpaceInsufficientException {
+    File partialFolder = null;
+    long lastModified = Long.MIN_VALUE;
+    for (File folder : getPartialFolders(senderName.get())) {
+      for (File file : FileUtils.listFiles(folder, null, true)) {
+        if (file.lastModified() > lastModified) {
+          partialFolder = folder;
+          lastModified = file.lastModified();
+        }
+      }
+    }
+    if (partialFolder != null) {
+      syncFolderPath.set(partialFolder.getParentFile().getAbsolutePath());
+      return;
+    }
     String dataDir = new File(DirectoryManager.getInstance().getNextFolderForSequenceFile())
         .getParentFile().getAbsolutePath();
-    syncFolderPath
-        .set(FilePathUtils.regularizePath(dataDir) + SyncConstant.SYNC_RECEIVER + File.separatorChar
-            + senderName.get());
+    syncFolderPath.set(getSyncFolderPath(dataDir, senderName.get()));
+  }
+
+  private static String getSyncFolderPath(String dataDir, String senderName) {
+    return FilePathUtils.regularizePath(dataDir) + SyncConstant.SYNC_RECEIVER + File.separatorChar
+        + senderName;
+  }
+
+  /**
+   * @return the existing partial folders of the sender in all data dirs
+   */
+  private List<File> getPartialFolders(String senderName) {
+    List<File> partialFolders = new ArrayList<>();
+    for (String dataDir : config.getDataDirs()) {
+      File partialFolder = new File(getSyncFolderPath(dataDir, senderName),
+          SyncConstant.RECEIVER_PARTIAL_DATA_FOLDER_NAME);
+      if (partialFolder.isDirectory()) {
+        partialFolders.add(partialFolder);
+      }
+    }
+    return partialFolders;
   }
 
   /**
@@ -180,20 +261,13 @@ public class SyncServiceImpl implements SyncService.Iface {
   @Override
   public SyncStatus initSyncData(String filename) throws TException {
     try {
-      File file;
-      if (currentSG.get() == null) { // schema mlog.txt file
-        file = new File(getSyncDataPath(), filename);
-      } else {
-        file = new File(getSyncDataPath(), currentSG.get() + File.separatorChar + filename);
-      }
+      File file = getPartialFile(filename);
       file.delete();
       currentFile.set(file);
       if (!file.getParentFile().exists()) {
         file.getParentFile().mkdirs();
       }
-      if (currentFileWriter.get() != null && currentFileWriter.get().isOpen()) {
-        currentFileWriter.get().close();
-      }
+      closeCurrentFileWriter();
       currentFileWriter.set(new FileOutputStream(file).getChannel());
       syncLog.get().startSyncTsFiles();
       messageDigest.set(MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME));
@@ -206,6 +280,84 @@ public class SyncServiceImpl implements SyncService.Iface {
     return getSuccessResult();
   }
 
+  /**
+   * Open the partial file which is received by a previous transfer in append mode, and compute
+   * the MD5 of the data in it, so that the sender only needs to send the rest of the file.
+   */
+  @Override
+  public SyncStatus resumeSyncData(String filename) {
+    try {
+      File file = getPartialFile(filename);
+      currentFile.set(file);
+      if (!file.getParentFile().exists()) {
+        file.getParentFile().mkdirs();
+      }
+      MessageDigest md = MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME);
+      if (file.exists()) {
+        try (InputStream inputStream = new FileInputStream(file)) {
+          byte[] buffer = new byte[SyncConstant.DATA_CHUNK_SIZE >> 6];
+          int readLength;
+          while ((readLength = inputStream.read(buffer)) != -1) {
+            md.update(buffer, 0, readLength);
+          }
+        }
+      }
+      closeCurrentFileWriter();
+      currentFileWriter.set(new FileOutputStream(file, true).getChannel());
+      syncLog.get().startSyncTsFiles();
+      messageDigest.set(md);
+      if (file.length() > 0) {
+        logger.info("Resume receiving file {} from {} bytes.", file, file.length());
+      }
+      return new SyncStatus(SyncConstant.SUCCESS_CODE, Long.toString(file.length()));
+    } catch (IOException | NoSuchAlgorithmException e) {
+      logger.error("Can not resume sync resource for file {}", filename, e);
+      return getErrorResult(
+          String.format("Can not resume sync resource for file %s because %s", filename,
+              e.getMessage()));
+    }
+  }
+
+  /**
+   * Append a piece of the current file. The piece is rejected if it does not start where the
+   * received data ends or if its checksum is wrong, the sender should send it again then.
+   */
+  @Override
+  public SyncStatus syncDataPiece(long offset, ByteBuffer buff, long checksum,
+      short compressionType) {
+    try {
+      FileChannel fileWriter = currentFileWriter.get();
+      if (offset != fileWriter.size()) {
+        return new SyncStatus(SyncConstant.OFFSET_MISMATCH_CODE,
+            Long.toString(fileWriter.size()));
+      }
+      CompressionType type = CompressionType.deserialize(compressionType);
+      ByteBuffer data = buff;
+      if (type != CompressionType.UNCOMPRESSED) {
+        byte[] compressed = new byte[buff.remaining()];
+        buff.get(compressed);
+        data = ByteBuffer.wrap(IUnCompressor.getUnCompressor(type).uncompress(compressed));
+      }
+      CRC32 crc32 = new CRC32();
+      crc32.update(data.duplicate());
+      if (crc32.getValue() != checksum) {
+        return getErrorResult(String
+            .format("Checksum of the piece at %d of file %s is wrong", offset,
+                currentFile.get().getName()));
+      }
+      messageDigest.get().update(data.duplicate());
+      while (data.hasRemaining()) {
+        fileWriter.write(data);
+      }
+    } catch (IOException e) {
+      logger.error("Can not sync data for file {}", currentFile.get().getAbsoluteFile(), e);
+      return getErrorResult(String
+          .format("Can not sync data for file %s because %s", currentFile.get().getName(),
+              e.getMessage()));
+    }
+    return getSuccessResult();
+  }
+
   @Override
   public SyncStatus syncData(ByteBuffer buff) {
     try {
@@ -225,9 +377,7 @@ public class SyncServiceImpl implements SyncService.Iface {
   public SyncStatus checkDataMD5(String md5OfSender) throws TException {
     String md5OfReceiver = (new BigInteger(1, messageDigest.get().digest())).toString(16);
     try {
-      if (currentFileWriter.get() != null && currentFileWriter.get().isOpen()) {
-        currentFileWriter.get().close();
-      }
+      closeCurrentFileWriter();
       if (!md5OfSender.equals(md5OfReceiver)) {
         currentFile.get().delete();
         currentFileWriter.set(new FileOutputStream(currentFile.get()).getChannel());
@@ -235,6 +385,15 @@ public class SyncServiceImpl implements SyncService.Iface {
             .format("MD5 of the sender is differ from MD5 of the receiver of the file %s.",
                 currentFile.get().getAbsolutePath()));
       } else {
+        // the file is complete, move it to where the loader finds it
+        File dataFile = new File(getSyncDataPath(),
+            getSyncDataRelativePath(currentFile.get().getName()));
+        if (!dataFile.getParentFile().exists()) {
+          dataFile.getParentFile().mkdirs();
+        }
+        Files.move(currentFile.get().toPath(), dataFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING);
+        currentFile.set(dataFile);
         if (currentFile.get().getName().endsWith(MetadataConstant.METADATA_LOG)) {
           loadMetadata();
         } else {
@@ -288,6 +447,10 @@ public class SyncServiceImpl implements SyncService.Iface {
       if (syncLog.get() != null) {
         syncLog.get().close();
       }
+      SyncTask syncTask = syncTasks.remove(senderName.get());
+      if (syncTask != null) {
+        cleanStalePartialFiles(senderName.get(), syncTask);
+      }
       IFileLoader loader = FileLoaderManager.getInstance().getFileLoader(senderName.get());
       if (loader != null) {
         loader.endSync();
@@ -303,6 +466,56 @@ public class SyncServiceImpl implements SyncService.Iface {
     return getSuccessResult();
   }
 
+  /**
+   * Remove the partial files of the sender in all data dirs which are not touched by the finished
+   * sync task, their transfers will not be resumed because the sender does not have them any more.
+   */
+  private void cleanStalePartialFiles(String senderName, SyncTask syncTask) {
+    for (File partialFolder : getPartialFolders(senderName)) {
+      for (File file : FileUtils.listFiles(partialFolder, null, true)) {
+        if (file.lastModified() < syncTask.startTime && !file.delete()) {
+          logger.warn("Can not delete stale partial file {}", file);
+        }
+      }
+    }
+  }
+
+  /**
+   * Release the resources of a connection when its sender exits.
+   */
+  public void handleClientExit() {
+    closeCurrentFileWriter();
+    syncFolderPath.remove();
+    currentSG.remove();
+    syncLog.remove();
+    senderName.remove();
+    currentFile.remove();
+    currentFileWriter.remove();
+    messageDigest.remove();
+  }
+
+  private void closeCurrentFileWriter() {
+    try {
+      if (currentFileWriter.get() != null && currentFileWriter.get().isOpen()) {
+        currentFileWriter.get().close();
+      }
+    } catch (IOException e) {
+      logger.error("Can not close the writer of file {}", currentFile.get(), e);
+    }
+  }
+
+  private File getPartialFile(String filename) {
+    return new File(syncFolderPath.get() + File.separatorChar
+        + SyncConstant.RECEIVER_PARTIAL_DATA_FOLDER_NAME, getSyncDataRelativePath(filename));
+  }
+
+  private String getSyncDataRelativePath(String filename) {
+    if (currentSG.get() == null) { // schema mlog.txt file
+      return filename;
+    }
+    return currentSG.get() + File.separatorChar + filename;
+  }
+
   private String getSyncDataPath() {
     return syncFolderPath.get() + File.separatorChar + SyncConstant.RECEIVER_DATA_FOLDER_NAME;
   }
@@ -315,4 +528,20 @@ public class SyncServiceImpl implements SyncService.Iface {
     return new SyncStatus(SyncConstant.ERROR_CODE, errorMsg);
   }
 
-}
\ No newline at end of file
+  private static class SyncTask {
+
+    private final String syncFolderPath;
+
+    private final SyncReceiverLogger syncLog;
+
+    /**
+     * truncated to seconds, as the modification time of a file may be
+     */
+    private final long startTime = System.currentTimeMillis() / 1000 * 1000;
+
+    private SyncTask(String syncFolderPath, SyncReceiverLogger syncLog) {
+      this.syncFolderPath = syncFolderPath;
+      this.syncLog = syncLog;
+    }
+  }
+}
@@ -18,14 +18,12 @@
  */
 package org.apache.iotdb.db.sync.sender.transfer;
 
-import static org.apache.iotdb.db.sync.conf.SyncConstant.CONFLICT_CODE;
 import static org.apache.iotdb.db.sync.conf.SyncConstant.SUCCESS_CODE;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
@@ -43,6 +41,7 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -50,6 +49,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.FileUtils;
 import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.concurrent.ThreadName;
@@ -89,7 +89,7 @@ public class SyncClient implements ISyncClient {
 
   private static final int BATCH_LINE = 1000;
 
-  private static final int TIMEOUT_MS = 1000;
+  static final int TIMEOUT_MS = 1000;
 
   /**
    * When transferring schema information, it is a better choice to transfer only new schema
@@ -103,6 +103,15 @@ public class SyncClient implements ISyncClient {
 
   private SyncService.Client serviceClient;
 
+  private ConfirmInfo confirmInfo;
+
+  /**
+   * The data files are transferred by these connections in parallel.
+   */
+  private SyncTransferPool transferPool;
+
+  private SyncTransferMetrics metrics = SyncTransferMetrics.getInstance();
+
   private Map<String, Set<Long>> allSG;
 
   private Map<String, Map<Long, Set<File>>> toBeSyncedFilesMap;
@@ -192,13 +201,15 @@ public class SyncClient implements ISyncClient {
       executorService = IoTDBThreadPoolFactory.newScheduledThreadPool(2,
           "sync-client-timer");
     }
+    metrics.register();
   }
 
   @Override
   public void startMonitor() {
     executorService.scheduleWithFixedDelay(() -> {
       if (syncStatus) {
-        logger.info("Sync process for receiver {} is in execution!", config.getSyncReceiverName());
+        logger.info("Sync process for receiver {} is in execution, {}",
+            config.getSyncReceiverName(), metrics);
       }
     }, SyncConstant.SYNC_MONITOR_DELAY, SyncConstant.SYNC_MONITOR_PERIOD, TimeUnit.SECONDS);
   }
@@ -227,11 +238,32 @@ public class SyncClient implements ISyncClient {
     establishConnection(config.getServerIp(), config.getServerPort());
     confirmIdentity();
     serviceClient.startSync();
+    metrics.reset();
 
     // 2. Sync Schema
     syncSchema();
 
     // 3. Sync all data
+    transferPool = new SyncTransferPool(config, confirmInfo);
+    try {
+      syncAllDataDirs();
+    } finally {
+      transferPool.close();
+      transferPool = null;
+    }
+
+    // 4. notify receiver that synchronization finish
+    // At this point the synchronization has finished even if connection fails
+    try {
+      serviceClient.endSync();
+      transport.close();
+      logger.info("Sync process has finished, {}", metrics);
+    } catch (TException e) {
+      logger.error("Unable to connect to receiver.", e);
+    }
+  }
+
+  private void syncAllDataDirs() throws IOException {
     String[] dataDirs = IoTDBDescriptor.getInstance().getConfig().getDataDirs();
     logger.info("There are {} data dirs to be synced.", dataDirs.length);
     for (int i = 0 ; i < dataDirs.length; i++) {
@@ -255,16 +287,6 @@ public class SyncClient implements ISyncClient {
       logger.info("Finish to sync data in data dir {}, the process is {}/{}", dataDir, i + 1,
           dataDirs.length);
     }
-
-    // 4. notify receiver that synchronization finish
-    // At this point the synchronization has finished even if connection fails
-    try {
-      serviceClient.endSync();
-      transport.close();
-      logger.info("Sync process has finished.");
-    } catch (TException e) {
-      logger.error("Unable to connect to receiver.", e);
-    }
   }
 
   private void checkRecovery() throws IOException {
@@ -289,11 +311,11 @@ public class SyncClient implements ISyncClient {
   @Override
   public void confirmIdentity() throws SyncConnectionException {
     try (Socket socket = new Socket(config.getServerIp(), config.getServerPort())) {
-      ConfirmInfo info = new ConfirmInfo(socket.getLocalAddress().getHostAddress(),
+      confirmInfo = new ConfirmInfo(socket.getLocalAddress().getHostAddress(),
           getOrCreateUUID(getUuidFile()),
           IoTDBDescriptor.getInstance().getConfig().getPartitionInterval(), IoTDBConstant.VERSION);
       SyncStatus status = serviceClient
-          .check(info);
+          .check(confirmInfo);
       if (status.code != SUCCESS_CODE) {
         throw new SyncConnectionException(
             "The receiver rejected the synchronization task because " + status.msg);
@@ -458,6 +480,15 @@ public class SyncClient implements ISyncClient {
       syncStatus = true;
 
       List<String> storageGroups = config.getStorageGroupList();
+      for (Entry<String, Map<Long, Set<File>>> entry : toBeSyncedFilesMap.entrySet()) {
+        if (storageGroups.isEmpty() || storageGroups.contains(entry.getKey())) {
+          for (Set<File> files : entry.getValue().values()) {
+            for (File file : files) {
+              metrics.addBacklog(getSyncedBytes(file));
+            }
+          }
+        }
+      }
       for (Entry<String, Set<Long>> entry : allSG.entrySet()) {
         String sgName = entry.getKey();
         if (!storageGroups.isEmpty() && !storageGroups.contains(sgName)) {
@@ -539,26 +570,37 @@ public class SyncClient implements ISyncClient {
     }
     syncLog.startSyncTsFiles();
     logger.info("Sync process starts to transfer data of storage group {}", sgName);
-    int cnt = 0;
+    AtomicInteger cnt = new AtomicInteger();
+    Map<File, File> snapshotFiles = new LinkedHashMap<>();
     for (File tsfile : toBeSyncFiles) {
-      cnt++;
       try {
-        File snapshotFile = makeFileSnapshot(tsfile);
-        // firstly sync .resource file, then sync tsfile
-        syncSingleFile(new File(snapshotFile.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX));
-        syncSingleFile(snapshotFile);
-        lastLocalFilesMap.get(sgName).get(timeRangeId).add(tsfile);
-        syncLog.finishSyncTsfile(tsfile);
-        logger.info("Task of synchronization has completed {}/{}.", cnt, toBeSyncFiles.size());
+        snapshotFiles.put(tsfile, makeFileSnapshot(tsfile));
       } catch (IOException e) {
         logger.info(
             "Tsfile {} can not make snapshot, so skip the tsfile and continue to sync other tsfiles",
             tsfile, e);
       }
     }
+    transferPool.syncFiles(sgName, snapshotFiles, tsfile -> {
+      finishSyncTsfile(sgName, timeRangeId, tsfile);
+      logger.info("Task of synchronization has completed {}/{}.", cnt.incrementAndGet(),
+          toBeSyncFiles.size());
+    });
     logger.info("Sync process has finished storage group {}.", sgName);
   }
 
+  private synchronized void finishSyncTsfile(String sgName, Long timeRangeId, File tsfile)
+      throws IOException {
+    lastLocalFilesMap.get(sgName).get(timeRangeId).add(tsfile);
+    syncLog.finishSyncTsfile(tsfile);
+    metrics.finishFile(getSyncedBytes(tsfile));
+  }
+
+  private long getSyncedBytes(File tsfile) {
+    return tsfile.length() + new File(tsfile.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX)
+        .length();
+  }
+
   /**
    * Make snapshot<hard link> for new tsfile and its .restore file.
    *
@@ -580,60 +622,6 @@ public class SyncClient implements ISyncClient {
     return snapshotFile;
   }
 
-  /**
-   * Transfer data of a tsfile to the receiver.
-   */
-  private void syncSingleFile(File snapshotFile)
-      throws SyncConnectionException, SyncDeviceOwnerConflictException {
-    try {
-      int retryCount = 0;
-      MessageDigest md = MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME);
-      serviceClient.initSyncData(snapshotFile.getName());
-      outer:
-      while (true) {
-        retryCount++;
-        if (retryCount > config.getMaxNumOfSyncFileRetry()) {
-          throw new SyncConnectionException(String
-              .format("Can not sync file %s after %s tries.", snapshotFile.getAbsoluteFile(),
-                  config.getMaxNumOfSyncFileRetry()));
-        }
-        md.reset();
-        byte[] buffer = new byte[SyncConstant.DATA_CHUNK_SIZE];
-        int dataLength;
-        try (FileInputStream fis = new FileInputStream(snapshotFile);
-            ByteArrayOutputStream bos = new ByteArrayOutputStream(SyncConstant.DATA_CHUNK_SIZE)) {
-          while ((dataLength = fis.read(buffer)) != -1) { // cut the file into pieces to send
-            bos.write(buffer, 0, dataLength);
-            md.update(buffer, 0, dataLength);
-            ByteBuffer buffToSend = ByteBuffer.wrap(bos.toByteArray());
-            bos.reset();
-            SyncStatus status = serviceClient.syncData(buffToSend);
-            if(status.code == CONFLICT_CODE){
-              throw new SyncDeviceOwnerConflictException(status.msg);
-            }
-            if (status.code != SUCCESS_CODE) {
-              logger.info("Receiver failed to receive data from {} because {}, retry.",
-                  status.msg, snapshotFile.getAbsoluteFile());
-              continue outer;
-            }
-          }
-        }
-
-        // the file is sent successfully
-        String md5OfSender = (new BigInteger(1, md.digest())).toString(16);
-        SyncStatus status = serviceClient.checkDataMD5(md5OfSender);
-        if (status.code == SUCCESS_CODE && md5OfSender.equals(status.msg)) {
-          logger.info("Receiver has received {} successfully.", snapshotFile.getAbsoluteFile());
-          break;
-        } else {
-          logger.error("MD5 check of tsfile {} failed, retry", snapshotFile.getAbsoluteFile());
-        }
-      }
-    } catch (IOException | TException | NoSuchAlgorithmException e) {
-      throw new SyncConnectionException("Cannot sync data with receiver.", e);
-    }
-  }
-
   private void endSync() throws IOException {
     File currentLocalFile = getCurrentLogFile();
     File lastLocalFile = new File(config.getLastFileInfoPath());
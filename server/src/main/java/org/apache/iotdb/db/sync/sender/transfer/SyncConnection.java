@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.sync.sender.transfer;
+
+import static org.apache.iotdb.db.sync.conf.SyncConstant.CONFLICT_CODE;
+import static org.apache.iotdb.db.sync.conf.SyncConstant.OFFSET_MISMATCH_CODE;
+import static org.apache.iotdb.db.sync.conf.SyncConstant.SUCCESS_CODE;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+import org.apache.iotdb.db.exception.SyncConnectionException;
+import org.apache.iotdb.db.exception.SyncDeviceOwnerConflictException;
+import org.apache.iotdb.db.sync.conf.SyncConstant;
+import org.apache.iotdb.db.sync.conf.SyncSenderConfig;
+import org.apache.iotdb.service.sync.thrift.ConfirmInfo;
+import org.apache.iotdb.service.sync.thrift.SyncService;
+import org.apache.iotdb.service.sync.thrift.SyncStatus;
+import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A connection which joins the sync task started by the sync client and transfers data files to
+ * the receiver. A file is sent in pieces with their offsets and checksums, so that a failed piece
+ * is sent again alone, and a file whose transfer is broken is resumed from the data the receiver
+ * has already received.
+ */
+class SyncConnection {
+
+  private static final Logger logger = LoggerFactory.getLogger(SyncConnection.class);
+
+  private SyncSenderConfig config;
+
+  private ConfirmInfo confirmInfo;
+
+  private TTransport transport;
+
+  private SyncService.Client serviceClient;
+
+  private String currentSG;
+
+  private ICompressor compressor;
+
+  private byte[] pieceBuffer;
+
+  private byte[] compressedBuffer;
+
+  private CRC32 crc32 = new CRC32();
+
+  private SyncTransferMetrics metrics = SyncTransferMetrics.getInstance();
+
+  SyncConnection(SyncSenderConfig config, ConfirmInfo confirmInfo) {
+    this.config = config;
+    this.confirmInfo = confirmInfo;
+    this.compressor = ICompressor.getCompressor(config.getSyncCompressor());
+    this.pieceBuffer = new byte[config.getSyncPieceSizeInByte()];
+    if (compressor.getType() != CompressionType.UNCOMPRESSED) {
+      this.compressedBuffer = new byte[compressor
+          .getMaxBytesForCompression(config.getSyncPieceSizeInByte())];
+    }
+  }
+
+  private void open() throws SyncConnectionException {
+    close();
+    transport = new TSocket(config.getServerIp(), config.getServerPort(), SyncClient.TIMEOUT_MS);
+    serviceClient = new SyncService.Client(new TBinaryProtocol(transport));
+    currentSG = null;
+    try {
+      transport.open();
+      SyncStatus status = serviceClient.joinSync(confirmInfo);
+      if (status.code != SUCCESS_CODE) {
+        throw new SyncConnectionException(
+            "The receiver rejected the connection because " + status.msg);
+      }
+    } catch (TException e) {
+      throw new SyncConnectionException("Cannot connect to the receiver", e);
+    }
+  }
+
+  /**
+   * Transfer a file of a storage group to the receiver, the connection is reopened if it fails.
+   */
+  void syncFile(String sgName, File file)
+      throws SyncConnectionException, SyncDeviceOwnerConflictException {
+    boolean restart = false;
+    for (int retryCount = 0; retryCount <= config.getMaxNumOfSyncFileRetry(); retryCount++) {
+      try {
+        if (transport == null || !transport.isOpen()) {
+          open();
+        }
+        if (!sgName.equals(currentSG)) {
+          checkStatus(serviceClient.init(sgName));
+          currentSG = sgName;
+        }
+        if (transferFile(file, restart)) {
+          logger.info("Receiver has received {} successfully.", file.getAbsoluteFile());
+          return;
+        }
+        logger.error("MD5 check of file {} failed, retry", file.getAbsoluteFile());
+        restart = true;
+      } catch (TException | SyncConnectionException e) {
+        logger.error("Connection failed when syncing file {}, resume it after reconnecting",
+            file.getAbsoluteFile(), e);
+        close();
+      } catch (IOException e) {
+        logger.error("Can not sync file {}, retry", file.getAbsoluteFile(), e);
+      }
+    }
+    throw new SyncConnectionException(String
+        .format("Can not sync file %s after %s tries.", file.getAbsoluteFile(),
+            config.getMaxNumOfSyncFileRetry()));
+  }
+
+  /**
+   * Send the pieces of the file which the receiver has not received yet.
+   *
+   * @param restart whether to send the file from the beginning instead of resuming it
+   * @return whether the MD5 of the file is checked by the receiver
+   */
+  private boolean transferFile(File file, boolean restart)
+      throws TException, IOException, SyncDeviceOwnerConflictException {
+    long offset = 0;
+    if (!restart) {
+      offset = Long.parseLong(checkStatus(serviceClient.resumeSyncData(file.getName())));
+      if (offset > file.length()) {
+        restart = true;
+      }
+    }
+    if (restart) {
+      checkStatus(serviceClient.initSyncData(file.getName()));
+      offset = 0;
+    }
+    metrics.addResumedBytes(offset);
+
+    MessageDigest md = digest(file, offset);
+    int resentNum = 0;
+    try (RandomAccessFile reader = new RandomAccessFile(file, "r")) {
+      reader.seek(offset);
+      int dataLength;
+      while ((dataLength = reader.read(pieceBuffer)) != -1) {
+        crc32.reset();
+        crc32.update(pieceBuffer, 0, dataLength);
+        ByteBuffer piece = ByteBuffer.wrap(pieceBuffer, 0, dataLength);
+        CompressionType type = CompressionType.UNCOMPRESSED;
+        if (compressedBuffer != null) {
+          int compressedLength = compressor.compress(pieceBuffer, 0, dataLength, compressedBuffer);
+          // send the piece as it is if it can not be compressed
+          if (compressedLength < dataLength) {
+            piece = ByteBuffer.wrap(compressedBuffer, 0, compressedLength);
+            type = compressor.getType();
+          }
+        }
+        int wireLength = piece.remaining();
+        SyncStatus status = serviceClient
+            .syncDataPiece(offset, piece, crc32.getValue(), type.serialize());
+        if (status.code == SUCCESS_CODE) {
+          md.update(pieceBuffer, 0, dataLength);
+          offset += dataLength;
+          metrics.addTransferredPiece(dataLength, wireLength);
+          continue;
+        }
+        if (++resentNum > config.getMaxNumOfSyncFileRetry()) {
+          throw new IOException(String
+              .format("Receiver failed to receive the piece at %d because %s", offset,
+                  status.msg));
+        }
+        metrics.addResentPiece();
+        if (status.code == OFFSET_MISMATCH_CODE) {
+          // continue from where the data received by the receiver ends
+          long receivedLength = Long.parseLong(status.msg);
+          if (receivedLength > file.length()) {
+            return false;
+          }
+          offset = receivedLength;
+          md = digest(file, offset);
+        } else {
+          logger.warn("Receiver failed to receive the piece at {} of {} because {}, retry.",
+              offset, file.getAbsoluteFile(), status.msg);
+        }
+        reader.seek(offset);
+      }
+    }
+
+    String md5OfSender = (new BigInteger(1, md.digest())).toString(16);
+    SyncStatus status = serviceClient.checkDataMD5(md5OfSender);
+    if (status.code == CONFLICT_CODE) {
+      throw new SyncDeviceOwnerConflictException(status.msg);
+    }
+    return status.code == SUCCESS_CODE && md5OfSender.equals(status.msg);
+  }
+
+  /**
+   * @return the message digest of the first length bytes of the file
+   */
+  private MessageDigest digest(File file, long length) throws IOException {
+    MessageDigest md;
+    try {
+      md = MessageDigest.getInstance(SyncConstant.MESSAGE_DIGIT_NAME);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+    try (InputStream inputStream = new FileInputStream(file)) {
+      long remaining = length;
+      while (remaining > 0) {
+        int readLength = inputStream
+            .read(pieceBuffer, 0, (int) Math.min(pieceBuffer.length, remaining));
+        if (readLength == -1) {
+          break;
+        }
+        md.update(pieceBuffer, 0, readLength);
+        remaining -= readLength;
+      }
+    }
+    return md;
+  }
+
+  /**
+   * @return the msg of the status if it succeeds
+   */
+  private String checkStatus(SyncStatus status) throws IOException {
+    if (status.code != SUCCESS_CODE) {
+      throw new IOException("Receiver failed to handle the request because " + status.msg);
+    }
+    return status.msg;
+  }
+
+  void close() {
+    if (transport != null) {
+      transport.close();
+      transport = null;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.sync.sender.transfer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.service.JMXService;
+
+public class SyncTransferMetrics implements SyncTransferMetricsMXBean {
+
+  private static final String MBEAN_NAME = String
+      .format("%s:type=%s", IoTDBConstant.IOTDB_PACKAGE, "Sync Transfer");
+
+  private final AtomicLong backlogFileNum = new AtomicLong();
+
+  private final AtomicLong backlogBytes = new AtomicLong();
+
+  private final AtomicLong syncedFileNum = new AtomicLong();
+
+  private final AtomicLong transferredBytes = new AtomicLong();
+
+  private final AtomicLong transferredWireBytes = new AtomicLong();
+
+  private final AtomicLong resumedBytes = new AtomicLong();
+
+  private final AtomicLong resentPieceNum = new AtomicLong();
+
+  private volatile long startTime = System.currentTimeMillis();
+
+  private SyncTransferMetrics() {
+  }
+
+  public static SyncTransferMetrics getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  void register() {
+    JMXService.registerMBean(this, MBEAN_NAME);
+  }
+
+  /**
+   * Reset the metrics when a sync task starts.
+   */
+  void reset() {
+    backlogFileNum.set(0);
+    backlogBytes.set(0);
+    syncedFileNum.set(0);
+    transferredBytes.set(0);
+    transferredWireBytes.set(0);
+    resumedBytes.set(0);
+    resentPieceNum.set(0);
+    startTime = System.currentTimeMillis();
+  }
+
+  void addBacklog(long bytes) {
+    backlogFileNum.incrementAndGet();
+    backlogBytes.addAndGet(bytes);
+  }
+
+  void finishFile(long bytes) {
+    backlogFileNum.decrementAndGet();
+    backlogBytes.addAndGet(-bytes);
+    syncedFileNum.incrementAndGet();
+  }
+
+  void addTransferredPiece(long bytes, long wireBytes) {
+    transferredBytes.addAndGet(bytes);
+    transferredWireBytes.addAndGet(wireBytes);
+  }
+
+  void addResumedBytes(long bytes) {
+    resumedBytes.addAndGet(bytes);
+  }
+
+  void addResentPiece() {
+    resentPieceNum.incrementAndGet();
+  }
+
+  @Override
+  public long getBacklogFileNum() {
+    return backlogFileNum.get();
+  }
+
+  @Override
+  public long getBacklogBytes() {
+    return backlogBytes.get();
+  }
+
+  @Override
+  public long getSyncedFileNum() {
+    return syncedFileNum.get();
+  }
+
+  @Override
+  public long getTransferredBytes() {
+    return transferredBytes.get();
+  }
+
+  @Override
+  public long getTransferredWireBytes() {
+    return transferredWireBytes.get();
+  }
+
+  @Override
+  public long getResumedBytes() {
+    return resumedBytes.get();
+  }
+
+  @Override
+  public long getResentPieceNum() {
+    return resentPieceNum.get();
+  }
+
+  @Override
+  public double getThroughputInBytePerSecond() {
+    long elapsedTime = System.currentTimeMillis() - startTime;
+    return elapsedTime <= 0 ? 0 : transferredBytes.get() * 1000.0 / elapsedTime;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "backlog: %d files, %d bytes; synced: %d files; transferred: %d bytes, %d bytes on the "
+            + "wire, %.2f bytes/s; resumed: %d bytes; resent: %d pieces",
+        getBacklogFileNum(), getBacklogBytes(), getSyncedFileNum(), getTransferredBytes(),
+        getTransferredWireBytes(), getThroughputInBytePerSecond(), getResumedBytes(),
+        getResentPieceNum());
+  }
+
+  private static class InstanceHolder {
+
+    private static final SyncTransferMetrics INSTANCE = new SyncTransferMetrics();
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.sync.sender.transfer;
+
+/**
+ * The metrics of the data files transferred by the sync client in the current sync task.
+ */
+public interface SyncTransferMetricsMXBean {
+
+  long getBacklogFileNum();
+
+  long getBacklogBytes();
+
+  long getSyncedFileNum();
+
+  /**
+   * @return the bytes of the files which are transferred, before compression
+   */
+  long getTransferredBytes();
+
+  /**
+   * @return the bytes of the pieces sent on the wire, after compression
+   */
+  long getTransferredWireBytes();
+
+  /**
+   * @return the bytes which the receiver has already received when the files are resumed
+   */
+  long getResumedBytes();
+
+  long getResentPieceNum();
+
+  double getThroughputInBytePerSecond();
+}
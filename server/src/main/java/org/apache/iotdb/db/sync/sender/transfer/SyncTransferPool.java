@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.sync.sender.transfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.iotdb.db.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.SyncConnectionException;
+import org.apache.iotdb.db.exception.SyncDeviceOwnerConflictException;
+import org.apache.iotdb.db.sync.conf.SyncSenderConfig;
+import org.apache.iotdb.service.sync.thrift.ConfirmInfo;
+
+/**
+ * The connections which transfer the data files in parallel, they join the sync task of the
+ * receiver when they transfer their first files.
+ */
+class SyncTransferPool {
+
+  private ExecutorService transferPool;
+
+  private BlockingQueue<SyncConnection> idleConnections = new LinkedBlockingQueue<>();
+
+  SyncTransferPool(SyncSenderConfig config, ConfirmInfo confirmInfo) {
+    transferPool = IoTDBThreadPoolFactory
+        .newFixedThreadPool(config.getSyncConnectionNum(), "sync-client-transfer");
+    for (int i = 0; i < config.getSyncConnectionNum(); i++) {
+      idleConnections.add(new SyncConnection(config, confirmInfo));
+    }
+  }
+
+  /**
+   * Transfer the snapshots of the tsfiles of a storage group with their .resource files, the other
+   * tsfiles in the storage group are skipped once the device owner conflicts.
+   *
+   * @param snapshotFiles the snapshots of the tsfiles
+   * @param callback called in the transfer threads after a tsfile is received
+   */
+  void syncFiles(String sgName, Map<File, File> snapshotFiles, FinishCallback callback)
+      throws SyncConnectionException, IOException, SyncDeviceOwnerConflictException {
+    AtomicBoolean hasConflict = new AtomicBoolean();
+    List<Future<Void>> futures = new ArrayList<>();
+    for (Entry<File, File> entry : snapshotFiles.entrySet()) {
+      File tsfile = entry.getKey();
+      File snapshotFile = entry.getValue();
+      futures.add(transferPool.submit(() -> {
+        if (hasConflict.get()) {
+          return null;
+        }
+        SyncConnection connection = idleConnections.take();
+        try {
+          // firstly sync .resource file, then sync tsfile
+          connection.syncFile(sgName,
+              new File(snapshotFile.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX));
+          connection.syncFile(sgName, snapshotFile);
+        } catch (SyncDeviceOwnerConflictException e) {
+          hasConflict.set(true);
+          throw e;
+        } finally {
+          idleConnections.add(connection);
+        }
+        callback.onFinish(tsfile);
+        return null;
+      }));
+    }
+    waitForTransfer(futures);
+  }
+
+  /**
+   * Wait for all the transfer tasks, and throw the device owner conflict first if any, as it
+   * decides to skip the storage group.
+   */
+  private void waitForTransfer(List<Future<Void>> futures)
+      throws SyncConnectionException, IOException, SyncDeviceOwnerConflictException {
+    Throwable exception = null;
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SyncConnectionException("Sync process is interrupted", e);
+      } catch (ExecutionException e) {
+        if (exception == null || e.getCause() instanceof SyncDeviceOwnerConflictException) {
+          exception = e.getCause();
+        }
+      }
+    }
+    if (exception instanceof SyncDeviceOwnerConflictException) {
+      throw (SyncDeviceOwnerConflictException) exception;
+    } else if (exception instanceof SyncConnectionException) {
+      throw (SyncConnectionException) exception;
+    } else if (exception instanceof IOException) {
+      throw (IOException) exception;
+    } else if (exception != null) {
+      throw new SyncConnectionException("Cannot sync data with receiver.", exception);
+    }
+  }
+
+  void close() {
+    transferPool.shutdownNow();
+    for (SyncConnection connection : idleConnections) {
+      connection.close();
+    }
+    idleConnections.clear();
+  }
+
+  interface FinishCallback {
+
+    void onFinish(File tsfile) throws IOException;
+  }
+}
@@ -20,6 +20,7 @@
 package org.apache.iotdb.db.sync.thrift;
 
 import java.util.concurrent.CountDownLatch;
+import org.apache.iotdb.db.sync.receiver.transfer.SyncServiceImpl;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.server.ServerContext;
 import org.apache.thrift.server.TServerEventHandler;
@@ -27,9 +28,12 @@ import org.apache.thrift.transport.TTransport;
 
 public class SyncServiceEventHandler  implements TServerEventHandler {
 
+  private SyncServiceImpl serviceImpl;
+
   private CountDownLatch startLatch;
 
-  public SyncServiceEventHandler(CountDownLatch startLatch) {
+  public SyncServiceEventHandler(SyncServiceImpl serviceImpl, CountDownLatch startLatch) {
+    this.serviceImpl = serviceImpl;
     this.startLatch = startLatch;
   }
 
@@ -45,7 +49,7 @@ public class SyncServiceEventHandler  implements TServerEventHandler {
 
   @Override
   public void deleteContext(ServerContext serverContext, TProtocol input, TProtocol output) {
-
+    serviceImpl.handleClientExit();
   }
 
   @Override
@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.utils;
 
+import org.apache.iotdb.db.engine.cache.BloomFilterManager;
 import org.apache.iotdb.db.engine.cache.ChunkMetadataCache;
 import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache;
 import org.apache.iotdb.db.engine.modification.Modification;
@@ -80,6 +81,7 @@ public class FileLoaderUtils {
         tsFileResource.updateEndTime(device, timeseriesMetaData.getStatistics().getEndTime());
       }
     }
+    tsFileResource.setBloomFilter(metaData.getBloomFilter(), reader.getFileMetadataSize());
   }
 
 
@@ -93,12 +95,18 @@ public class FileLoaderUtils {
       QueryContext context, Filter timeFilter, Set<String> allSensors) throws IOException {
     TimeseriesMetadata timeSeriesMetadata;
     if (resource.isClosed()) {
+      // skip the file without any I/O if its resident bloom filter rejects the series
+      if (!BloomFilterManager.getInstance().mayContain(resource, seriesPath)) {
+        return null;
+      }
       timeSeriesMetadata = TimeSeriesMetadataCache.getInstance()
           .get(new TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey(resource.getPath(),
               seriesPath.getDevice(), seriesPath.getMeasurement()), allSensors);
       if (timeSeriesMetadata != null) {
         timeSeriesMetadata.setChunkMetadataLoader(
             new DiskChunkMetadataLoader(resource, seriesPath, context, timeFilter));
+      } else {
+        BloomFilterManager.getInstance().recordFalsePositive(resource);
       }
     } else {
       timeSeriesMetadata = resource.getTimeSeriesMetadata();
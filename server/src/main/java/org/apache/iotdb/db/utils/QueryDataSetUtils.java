@@ -18,6 +18,8 @@
  */
 package org.apache.iotdb.db.utils;
 
+import org.apache.iotdb.db.query.dataset.ColumnBatch;
+import org.apache.iotdb.db.query.dataset.IColumnBatchDataSet;
 import org.apache.iotdb.db.tools.watermark.WatermarkEncoder;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
@@ -27,11 +29,14 @@ import org.apache.iotdb.tsfile.read.common.RowRecord;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.BytesUtils;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -42,6 +47,12 @@ public class QueryDataSetUtils {
 
   private static final int flag = 0x01;
 
+  /**
+   * the max number of rows in a column batch, a multiple of 8 so that the bitmaps of the batches
+   * can be concatenated directly.
+   */
+  private static final int COLUMN_BATCH_SIZE = 1024;
+
   private QueryDataSetUtils() {
   }
 
@@ -175,6 +186,155 @@ public class QueryDataSetUtils {
     return tsQueryDataSet;
   }
 
+  /**
+   * convert query data set by fetch size, the rows are fetched column batch by column batch and
+   * copied into the buffers directly without creating a RowRecord for each row.
+   */
+  public static TSQueryDataSet convertColumnBatchDataSetByFetchSize(
+      IColumnBatchDataSet queryDataSet, List<TSDataType> dataTypes, int fetchSize,
+      WatermarkEncoder watermarkEncoder) throws IOException {
+    int columnNum = dataTypes.size();
+    PublicBAOS timeBAOS = new PublicBAOS();
+    PublicBAOS[] valueBAOSList = new PublicBAOS[columnNum];
+    PublicBAOS[] bitmapBAOSList = new PublicBAOS[columnNum];
+    for (int i = 0; i < columnNum; i++) {
+      valueBAOSList[i] = new PublicBAOS();
+      bitmapBAOSList[i] = new PublicBAOS();
+    }
+
+    ColumnBatch batch = new ColumnBatch(dataTypes, Math.min(COLUMN_BATCH_SIZE, fetchSize));
+    // reused to serialize a column of a batch
+    byte[] bytes = new byte[batch.capacity() * Long.BYTES];
+    int rowCount = 0;
+    while (rowCount < fetchSize) {
+      if (fetchSize - rowCount < batch.capacity()) {
+        batch = new ColumnBatch(dataTypes, fetchSize - rowCount);
+      }
+      queryDataSet.fillColumnBatch(batch);
+      int size = batch.size();
+      if (size == 0) {
+        break;
+      }
+      long[] times = batch.getTimes();
+      for (int row = 0; row < size; row++) {
+        BytesUtils.longToBytes(times[row], bytes, row * Long.BYTES);
+      }
+      timeBAOS.write(bytes, 0, size * Long.BYTES);
+      for (int column = 0; column < columnNum; column++) {
+        writeColumn(batch, column, bytes, valueBAOSList[column], watermarkEncoder);
+        bitmapBAOSList[column].write(batch.getBitmap(column), 0, (size + 7) / 8);
+      }
+      rowCount += size;
+      if (!batch.isFull()) {
+        // the data set is exhausted
+        break;
+      }
+    }
+
+    TSQueryDataSet tsQueryDataSet = new TSQueryDataSet();
+    tsQueryDataSet.setTime(toByteBuffer(timeBAOS));
+    List<ByteBuffer> valueList = new ArrayList<>(columnNum);
+    List<ByteBuffer> bitmapList = new ArrayList<>(columnNum);
+    for (int i = 0; i < columnNum; i++) {
+      valueList.add(toByteBuffer(valueBAOSList[i]));
+      bitmapList.add(toByteBuffer(bitmapBAOSList[i]));
+    }
+    tsQueryDataSet.setValueList(valueList);
+    tsQueryDataSet.setBitmapList(bitmapList);
+    return tsQueryDataSet;
+  }
+
+  private static void writeColumn(ColumnBatch batch, int column, byte[] bytes,
+      PublicBAOS outputStream, WatermarkEncoder watermarkEncoder) throws IOException {
+    int size = batch.size();
+    long[] times = batch.getTimes();
+    int length = 0;
+    TSDataType type = batch.getDataType(column);
+    switch (type) {
+      case INT32:
+        int[] intValues = batch.getIntValues(column);
+        for (int row = 0; row < size; row++) {
+          if (!batch.isNull(column, row)) {
+            int intValue = intValues[row];
+            if (watermarkEncoder != null && watermarkEncoder.needEncode(times[row])) {
+              intValue = watermarkEncoder.encodeInt(intValue, times[row]);
+            }
+            BytesUtils.intToBytes(intValue, bytes, length);
+            length += Integer.BYTES;
+          }
+        }
+        break;
+      case INT64:
+        long[] longValues = batch.getLongValues(column);
+        for (int row = 0; row < size; row++) {
+          if (!batch.isNull(column, row)) {
+            long longValue = longValues[row];
+            if (watermarkEncoder != null && watermarkEncoder.needEncode(times[row])) {
+              longValue = watermarkEncoder.encodeLong(longValue, times[row]);
+            }
+            BytesUtils.longToBytes(longValue, bytes, length);
+            length += Long.BYTES;
+          }
+        }
+        break;
+      case FLOAT:
+        float[] floatValues = batch.getFloatValues(column);
+        for (int row = 0; row < size; row++) {
+          if (!batch.isNull(column, row)) {
+            float floatValue = floatValues[row];
+            if (watermarkEncoder != null && watermarkEncoder.needEncode(times[row])) {
+              floatValue = watermarkEncoder.encodeFloat(floatValue, times[row]);
+            }
+            BytesUtils.floatToBytes(floatValue, bytes, length);
+            length += Float.BYTES;
+          }
+        }
+        break;
+      case DOUBLE:
+        double[] doubleValues = batch.getDoubleValues(column);
+        for (int row = 0; row < size; row++) {
+          if (!batch.isNull(column, row)) {
+            double doubleValue = doubleValues[row];
+            if (watermarkEncoder != null && watermarkEncoder.needEncode(times[row])) {
+              doubleValue = watermarkEncoder.encodeDouble(doubleValue, times[row]);
+            }
+            BytesUtils.doubleToBytes(doubleValue, bytes, length);
+            length += Double.BYTES;
+          }
+        }
+        break;
+      case BOOLEAN:
+        boolean[] booleanValues = batch.getBooleanValues(column);
+        for (int row = 0; row < size; row++) {
+          if (!batch.isNull(column, row)) {
+            bytes[length++] = (byte) (booleanValues[row] ? 1 : 0);
+          }
+        }
+        break;
+      case TEXT:
+        Binary[] binaryValues = batch.getBinaryValues(column);
+        for (int row = 0; row < size; row++) {
+          if (!batch.isNull(column, row)) {
+            byte[] values = binaryValues[row].getValues();
+            outputStream.write(BytesUtils.intToBytes(values.length, bytes, 0), 0, Integer.BYTES);
+            outputStream.write(values);
+          }
+        }
+        return;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", type));
+    }
+    outputStream.write(bytes, 0, length);
+  }
+
+  private static ByteBuffer toByteBuffer(PublicBAOS outputStream) {
+    ByteBuffer buffer = ByteBuffer.allocate(outputStream.size());
+    buffer.put(outputStream.getBuf(), 0, outputStream.size());
+    buffer.flip();
+    return buffer;
+  }
+
   public static long[] readTimesFromBuffer(ByteBuffer buffer, int size) {
     long[] times = new long[size];
     for (int i = 0; i < size; i++) {
@@ -256,4 +416,89 @@ public class QueryDataSetUtils {
     }
     return values;
   }
+
+  /**
+   * @param buffer  null bitmaps, (size + 7) / 8 bytes for each column in which the bit
+   *                (7 - row % 8) of byte (row / 8) is set if the row is null, or empty if no row
+   *                is null
+   * @param columns column number
+   * @param size    row count
+   * @return the null rows of each column, null if the column has no null
+   */
+  public static BitSet[] readBitmapsFromBuffer(ByteBuffer buffer, int columns, int size) {
+    BitSet[] nullRows = new BitSet[columns];
+    if (!buffer.hasRemaining()) {
+      return nullRows;
+    }
+    byte[] bitmap = new byte[(size + 7) / 8];
+    for (int i = 0; i < columns; i++) {
+      buffer.get(bitmap);
+      for (int j = 0; j < bitmap.length; j++) {
+        if (bitmap[j] == 0) {
+          continue;
+        }
+        if (nullRows[i] == null) {
+          nullRows[i] = new BitSet(size);
+        }
+        for (int bit = 0; bit < 8; bit++) {
+          if ((bitmap[j] & (0x80 >>> bit)) != 0) {
+            nullRows[i].set(j * 8 + bit);
+          }
+        }
+      }
+    }
+    return nullRows;
+  }
+
+  /**
+   * @param column   a primitive array of the type, long[] can also be a time column
+   * @param nullRows rows to be removed
+   * @param size     row count of the column
+   * @return a new array with only the rows not in nullRows
+   */
+  public static Object removeNullRows(Object column, TSDataType type, BitSet nullRows, int size) {
+    int nonNullSize = size - nullRows.get(0, size).cardinality();
+    int index = 0;
+    switch (type) {
+      case BOOLEAN:
+        boolean[] boolValues = new boolean[nonNullSize];
+        for (int row = nullRows.nextClearBit(0); row < size; row = nullRows.nextClearBit(row + 1)) {
+          boolValues[index++] = ((boolean[]) column)[row];
+        }
+        return boolValues;
+      case INT32:
+        int[] intValues = new int[nonNullSize];
+        for (int row = nullRows.nextClearBit(0); row < size; row = nullRows.nextClearBit(row + 1)) {
+          intValues[index++] = ((int[]) column)[row];
+        }
+        return intValues;
+      case INT64:
+        long[] longValues = new long[nonNullSize];
+        for (int row = nullRows.nextClearBit(0); row < size; row = nullRows.nextClearBit(row + 1)) {
+          longValues[index++] = ((long[]) column)[row];
+        }
+        return longValues;
+      case FLOAT:
+        float[] floatValues = new float[nonNullSize];
+        for (int row = nullRows.nextClearBit(0); row < size; row = nullRows.nextClearBit(row + 1)) {
+          floatValues[index++] = ((float[]) column)[row];
+        }
+        return floatValues;
+      case DOUBLE:
+        double[] doubleValues = new double[nonNullSize];
+        for (int row = nullRows.nextClearBit(0); row < size; row = nullRows.nextClearBit(row + 1)) {
+          doubleValues[index++] = ((double[]) column)[row];
+        }
+        return doubleValues;
+      case TEXT:
+        Binary[] binaryValues = new Binary[nonNullSize];
+        for (int row = nullRows.nextClearBit(0); row < size; row = nullRows.nextClearBit(row + 1)) {
+          binaryValues[index++] = ((Binary[]) column)[row];
+        }
+        return binaryValues;
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("data type %s is not supported when removing nulls", type));
+    }
+  }
 }
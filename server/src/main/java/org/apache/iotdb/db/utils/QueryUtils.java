@@ -25,7 +25,10 @@ import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.filter.TsFileFilter;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public class QueryUtils {
@@ -36,7 +39,9 @@ public class QueryUtils {
 
   /**
    * modifyChunkMetaData iterates the chunkMetaData and applies all available modifications on it to
-   * generate a ModifiedChunkMetadata.
+   * generate a ModifiedChunkMetadata. The deleted ranges overlapping a chunk are recorded in its
+   * deleteIntervalList, the chunks that are completely deleted are removed, and the statistics of
+   * the chunks partly deleted can not be used.
    * <br/>
    * the caller should guarantee that chunkMetaData and modifications refer to the same time series
    * paths.
@@ -45,30 +50,24 @@ public class QueryUtils {
    */
   public static void modifyChunkMetaData(List<ChunkMetadata> chunkMetaData,
                                          List<Modification> modifications) {
-    int modIndex = 0;
-
-    for (int metaIndex = 0; metaIndex < chunkMetaData.size(); metaIndex++) {
-      ChunkMetadata metaData = chunkMetaData.get(metaIndex);
-      for (int j = modIndex; j < modifications.size(); j++) {
-        // iterate each modification to find the max deletion time
-        Modification modification = modifications.get(j);
-        if (modification.getVersionNum() > metaData.getVersion()) {
-          // this modification is after the Chunk, try modifying the chunk
-          // if this modification succeeds, update modIndex so in the next loop the previous
-          // modifications will not be examined
-          modIndex = doModifyChunkMetaData(modification, metaData)? j : modIndex;
-        } else {
-          // skip old modifications for next metadata
-          modIndex++;
-        }
+    List<Deletion> deletions = new ArrayList<>();
+    for (Modification modification : modifications) {
+      if (modification instanceof Deletion) {
+        deletions.add((Deletion) modification);
+      }
+    }
+    if (!deletions.isEmpty()) {
+      deletions.sort(Comparator.comparingLong(Deletion::getStartTime));
+      for (ChunkMetadata metaData : chunkMetaData) {
+        doModifyChunkMetaData(deletions, metaData);
       }
     }
     // remove chunks that are completely deleted
     chunkMetaData.removeIf(metaData -> {
-      if (metaData.getDeletedAt() >= metaData.getEndTime()) {
+      if (metaData.isDeleted()) {
         return true;
       } else {
-        if (metaData.getDeletedAt() >= metaData.getStartTime()) {
+        if (metaData.isPartlyDeleted()) {
           metaData.getStatistics().setCanUseStatistics(false);
         }
         return false;
@@ -76,15 +75,68 @@ public class QueryUtils {
     });
   }
 
-  private static boolean doModifyChunkMetaData(Modification modification, ChunkMetadata metaData) {
-    if (modification instanceof Deletion) {
-      Deletion deletion = (Deletion) modification;
-      if (metaData.getDeletedAt() < deletion.getTimestamp()) {
-        metaData.setDeletedAt(deletion.getTimestamp());
-        return true;
+  /**
+   * merge the deletions overlapping the chunk into its deleteIntervalList in one pass.
+   *
+   * @param deletions sorted by their start times
+   */
+  private static void doModifyChunkMetaData(List<Deletion> deletions, ChunkMetadata metaData) {
+    // the deletions from this index on start after the chunk
+    int low = 0;
+    int high = deletions.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (deletions.get(mid).getStartTime() <= metaData.getEndTime()) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    List<TimeRange> oldIntervals = metaData.getDeleteIntervalList();
+    int oldIndex = 0;
+    List<TimeRange> intervals = null;
+    for (int i = 0; i < low; i++) {
+      Deletion deletion = deletions.get(i);
+      // only the modifications after the chunk is written are applied to it
+      if (deletion.getVersionNum() <= metaData.getVersion()
+          || deletion.getEndTime() < metaData.getStartTime()) {
+        continue;
+      }
+      if (intervals == null) {
+        intervals = new ArrayList<>();
+      }
+      while (oldIntervals != null && oldIndex < oldIntervals.size()
+          && oldIntervals.get(oldIndex).getMin() <= deletion.getStartTime()) {
+        TimeRange oldInterval = oldIntervals.get(oldIndex++);
+        appendToSortedRanges(intervals, oldInterval.getMin(), oldInterval.getMax());
+      }
+      appendToSortedRanges(intervals, deletion.getStartTime(), deletion.getEndTime());
+    }
+    if (intervals == null) {
+      return;
+    }
+    while (oldIntervals != null && oldIndex < oldIntervals.size()) {
+      TimeRange oldInterval = oldIntervals.get(oldIndex++);
+      appendToSortedRanges(intervals, oldInterval.getMin(), oldInterval.getMax());
+    }
+    metaData.setDeleteIntervalList(intervals);
+  }
+
+  /**
+   * append [min, max] to the sorted and disjoint ranges, min is not less than the start of any of
+   * them, and merge it with the last range if they overlap or adjoin.
+   */
+  private static void appendToSortedRanges(List<TimeRange> ranges, long min, long max) {
+    if (!ranges.isEmpty()) {
+      TimeRange last = ranges.get(ranges.size() - 1);
+      // compare before adding 1 to avoid overflows
+      if (last.getMax() >= min || last.getMax() + 1 == min) {
+        ranges.set(ranges.size() - 1, new TimeRange(last.getMin(), Math.max(last.getMax(), max)));
+        return;
       }
     }
-    return false;
+    ranges.add(new TimeRange(min, max));
   }
 
   // remove files that do not satisfy the filter
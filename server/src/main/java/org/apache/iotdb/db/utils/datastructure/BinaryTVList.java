@@ -81,18 +81,25 @@ public class BinaryTVList extends TVList {
     BinaryTVList cloneList = new BinaryTVList();
     cloneAs(cloneList);
     for (Binary[] valueArray : values) {
-      cloneList.values.add(cloneValue(valueArray));
+      cloneList.values.add(cloneArray(valueArray, TSDataType.TEXT));
     }
     return cloneList;
   }
 
-  private Binary[] cloneValue(Binary[] array) {
-    Binary[] cloneArray = new Binary[array.length];
-    System.arraycopy(array, 0, cloneArray, 0, array.length);
-    return cloneArray;
+  @Override
+  protected BinaryTVList shareValues() {
+    BinaryTVList snapshot = new BinaryTVList();
+    snapshot.values = new ArrayList<>(values);
+    return snapshot;
+  }
+
+  @Override
+  protected void cloneValues(int[] arrayIndices, int arrayNum) {
+    values = cloneArrays(values, arrayIndices, arrayNum, TSDataType.TEXT);
   }
 
-  public void sort() {
+  @Override
+  protected void sortInPlace() {
     if (sortedTimestamps == null || sortedTimestamps.length < size) {
       sortedTimestamps = (long[][]) PrimitiveArrayPool
           .getInstance().getDataListsByType(TSDataType.INT64, size);
@@ -110,10 +117,7 @@ public class BinaryTVList extends TVList {
   @Override
   void clearValue() {
     if (values != null) {
-      for (Binary[] dataArray : values) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
-      }
-      values.clear();
+      releaseArrays(values);
     }
   }
 
@@ -187,7 +191,7 @@ public class BinaryTVList extends TVList {
 
   @Override
   protected void releaseLastValueArray() {
-    PrimitiveArrayPool.getInstance().release(values.remove(values.size() - 1));
+    releaseArray(values.remove(values.size() - 1));
   }
 
   @Override
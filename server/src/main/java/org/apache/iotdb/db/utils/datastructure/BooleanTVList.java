@@ -80,18 +80,25 @@ public class BooleanTVList extends TVList {
     BooleanTVList cloneList = new BooleanTVList();
     cloneAs(cloneList);
     for (boolean[] valueArray : values) {
-      cloneList.values.add(cloneValue(valueArray));
+      cloneList.values.add(cloneArray(valueArray, TSDataType.BOOLEAN));
     }
     return cloneList;
   }
 
-  private boolean[] cloneValue(boolean[] array) {
-    boolean[] cloneArray = new boolean[array.length];
-    System.arraycopy(array, 0, cloneArray, 0, array.length);
-    return cloneArray;
+  @Override
+  protected BooleanTVList shareValues() {
+    BooleanTVList snapshot = new BooleanTVList();
+    snapshot.values = new ArrayList<>(values);
+    return snapshot;
+  }
+
+  @Override
+  protected void cloneValues(int[] arrayIndices, int arrayNum) {
+    values = cloneArrays(values, arrayIndices, arrayNum, TSDataType.BOOLEAN);
   }
 
-  public void sort() {
+  @Override
+  protected void sortInPlace() {
     if (sortedTimestamps == null || sortedTimestamps.length < size) {
       sortedTimestamps = (long[][]) PrimitiveArrayPool
           .getInstance().getDataListsByType(TSDataType.INT64, size);
@@ -109,10 +116,7 @@ public class BooleanTVList extends TVList {
   @Override
   void clearValue() {
     if (values != null) {
-      for (boolean[] dataArray : values) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
-      }
-      values.clear();
+      releaseArrays(values);
     }
   }
 
@@ -187,7 +191,7 @@ public class BooleanTVList extends TVList {
 
   @Override
   protected void releaseLastValueArray() {
-    PrimitiveArrayPool.getInstance().release(values.remove(values.size() - 1));
+    releaseArray(values.remove(values.size() - 1));
   }
 
   @Override
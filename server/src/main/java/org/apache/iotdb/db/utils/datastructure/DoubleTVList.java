@@ -81,18 +81,25 @@ public class DoubleTVList extends TVList {
     DoubleTVList cloneList = new DoubleTVList();
     cloneAs(cloneList);
     for (double[] valueArray : values) {
-      cloneList.values.add(cloneValue(valueArray));
+      cloneList.values.add(cloneArray(valueArray, TSDataType.DOUBLE));
     }
     return cloneList;
   }
 
-  private double[] cloneValue(double[] array) {
-    double[] cloneArray = new double[array.length];
-    System.arraycopy(array, 0, cloneArray, 0, array.length);
-    return cloneArray;
+  @Override
+  protected DoubleTVList shareValues() {
+    DoubleTVList snapshot = new DoubleTVList();
+    snapshot.values = new ArrayList<>(values);
+    return snapshot;
+  }
+
+  @Override
+  protected void cloneValues(int[] arrayIndices, int arrayNum) {
+    values = cloneArrays(values, arrayIndices, arrayNum, TSDataType.DOUBLE);
   }
 
-  public void sort() {
+  @Override
+  protected void sortInPlace() {
     if (sortedTimestamps == null || sortedTimestamps.length < size) {
       sortedTimestamps = (long[][]) PrimitiveArrayPool
           .getInstance().getDataListsByType(TSDataType.INT64, size);
@@ -110,10 +117,7 @@ public class DoubleTVList extends TVList {
   @Override
   void clearValue() {
     if (values != null) {
-      for (double[] dataArray : values) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
-      }
-      values.clear();
+      releaseArrays(values);
     }
   }
 
@@ -191,7 +195,7 @@ public class DoubleTVList extends TVList {
 
   @Override
   protected void releaseLastValueArray() {
-    PrimitiveArrayPool.getInstance().release(values.remove(values.size() - 1));
+    releaseArray(values.remove(values.size() - 1));
   }
 
   @Override
@@ -81,18 +81,25 @@ public class FloatTVList extends TVList {
     FloatTVList cloneList = new FloatTVList();
     cloneAs(cloneList);
     for (float[] valueArray : values) {
-      cloneList.values.add(cloneValue(valueArray));
+      cloneList.values.add(cloneArray(valueArray, TSDataType.FLOAT));
     }
     return cloneList;
   }
 
-  private float[] cloneValue(float[] array) {
-    float[] cloneArray = new float[array.length];
-    System.arraycopy(array, 0, cloneArray, 0, array.length);
-    return cloneArray;
+  @Override
+  protected FloatTVList shareValues() {
+    FloatTVList snapshot = new FloatTVList();
+    snapshot.values = new ArrayList<>(values);
+    return snapshot;
+  }
+
+  @Override
+  protected void cloneValues(int[] arrayIndices, int arrayNum) {
+    values = cloneArrays(values, arrayIndices, arrayNum, TSDataType.FLOAT);
   }
 
-  public void sort() {
+  @Override
+  protected void sortInPlace() {
     if (sortedTimestamps == null || sortedTimestamps.length < size) {
       sortedTimestamps = (long[][]) PrimitiveArrayPool
           .getInstance().getDataListsByType(TSDataType.INT64, size);
@@ -110,10 +117,7 @@ public class FloatTVList extends TVList {
   @Override
   void clearValue() {
     if (values != null) {
-      for (float[] dataArray : values) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
-      }
-      values.clear();
+      releaseArrays(values);
     }
   }
 
@@ -191,7 +195,7 @@ public class FloatTVList extends TVList {
 
   @Override
   protected void releaseLastValueArray() {
-    PrimitiveArrayPool.getInstance().release(values.remove(values.size() - 1));
+    releaseArray(values.remove(values.size() - 1));
   }
 
   @Override
@@ -80,18 +80,25 @@ public class IntTVList extends TVList {
     IntTVList cloneList = new IntTVList();
     cloneAs(cloneList);
     for (int[] valueArray : values) {
-      cloneList.values.add(cloneValue(valueArray));
+      cloneList.values.add(cloneArray(valueArray, TSDataType.INT32));
     }
     return cloneList;
   }
 
-  private int[] cloneValue(int[] array) {
-    int[] cloneArray = new int[array.length];
-    System.arraycopy(array, 0, cloneArray, 0, array.length);
-    return cloneArray;
+  @Override
+  protected IntTVList shareValues() {
+    IntTVList snapshot = new IntTVList();
+    snapshot.values = new ArrayList<>(values);
+    return snapshot;
+  }
+
+  @Override
+  protected void cloneValues(int[] arrayIndices, int arrayNum) {
+    values = cloneArrays(values, arrayIndices, arrayNum, TSDataType.INT32);
   }
 
-  public void sort() {
+  @Override
+  protected void sortInPlace() {
     if (sortedTimestamps == null || sortedTimestamps.length < size) {
       sortedTimestamps = (long[][]) PrimitiveArrayPool
           .getInstance().getDataListsByType(TSDataType.INT64, size);
@@ -109,10 +116,7 @@ public class IntTVList extends TVList {
   @Override
   void clearValue() {
     if (values != null) {
-      for (int[] dataArray : values) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
-      }
-      values.clear();
+      releaseArrays(values);
     }
   }
 
@@ -187,7 +191,7 @@ public class IntTVList extends TVList {
 
   @Override
   protected void releaseLastValueArray() {
-    PrimitiveArrayPool.getInstance().release(values.remove(values.size() - 1));
+    releaseArray(values.remove(values.size() - 1));
   }
 
   @Override
@@ -0,0 +1,530 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.rescon.OffHeapArena;
+import org.apache.iotdb.db.rescon.OffHeapArena.SharedSlabs;
+import org.apache.iotdb.db.utils.MathUtils;
+import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.utils.TsPrimitiveType;
+
+/**
+ * A TVList of a fixed-length data type that keeps its points in direct memory slabs from the
+ * OffHeapArena, so the memtables only leave small slab headers on the heap. Each slab holds
+ * ARRAY_SIZE timestamps followed by ARRAY_SIZE values, the values are stored as their raw bits.
+ *
+ * The slabs are returned to the arena when the list is cleared after flushing. The slabs shared
+ * with snapshots are handed over to the arena when the list detaches from them, and return to the
+ * pool once the snapshots are done with them. Sorting uses slabs from the arena as its buffer, and
+ * the flush and the queries read the points from the slabs directly.
+ */
+public class OffHeapTVList extends TVList {
+
+  private final TSDataType dataType;
+  private final int valueBytes;
+  private final int slabBytes;
+
+  private List<ByteBuffer> slabs;
+
+  private ByteBuffer[] sortedSlabs;
+
+  /**
+   * the slabs shared with the snapshots, null if the list does not share slabs of the arena
+   */
+  private SharedSlabs sharedSlabs;
+
+  /**
+   * the number of leading slabs that may be read by the snapshots
+   */
+  private int sharedSlabNum;
+
+  private long pivotValue;
+
+  OffHeapTVList(TSDataType dataType) {
+    super();
+    this.dataType = dataType;
+    this.valueBytes = getValueBytes(dataType);
+    this.slabBytes = ARRAY_SIZE * (Long.BYTES + valueBytes);
+    slabs = new ArrayList<>();
+  }
+
+  private static int getValueBytes(TSDataType dataType) {
+    switch (dataType) {
+      case BOOLEAN:
+        return 1;
+      case INT32:
+      case FLOAT:
+        return Integer.BYTES;
+      case INT64:
+      case DOUBLE:
+        return Long.BYTES;
+      default:
+        throw new UnSupportedDataTypeException("DataType: " + dataType);
+    }
+  }
+
+  public TSDataType getDataType() {
+    return dataType;
+  }
+
+  @Override
+  public long getTime(int index) {
+    if (index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return slabs.get(index / ARRAY_SIZE).getLong(index % ARRAY_SIZE * Long.BYTES);
+  }
+
+  private long getValue(int index) {
+    if (index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return readValue(slabs.get(index / ARRAY_SIZE), index % ARRAY_SIZE);
+  }
+
+  private long readValue(ByteBuffer slab, int elementIndex) {
+    int offset = ARRAY_SIZE * Long.BYTES + elementIndex * valueBytes;
+    switch (valueBytes) {
+      case Long.BYTES:
+        return slab.getLong(offset);
+      case Integer.BYTES:
+        return slab.getInt(offset);
+      default:
+        return slab.get(offset);
+    }
+  }
+
+  private void writeValue(ByteBuffer slab, int elementIndex, long value) {
+    int offset = ARRAY_SIZE * Long.BYTES + elementIndex * valueBytes;
+    switch (valueBytes) {
+      case Long.BYTES:
+        slab.putLong(offset, value);
+        break;
+      case Integer.BYTES:
+        slab.putInt(offset, (int) value);
+        break;
+      default:
+        slab.put(offset, (byte) value);
+        break;
+    }
+  }
+
+  private void set(int index, long timestamp, long value) {
+    if (index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    ByteBuffer slab = slabs.get(index / ARRAY_SIZE);
+    int elementIndex = index % ARRAY_SIZE;
+    slab.putLong(elementIndex * Long.BYTES, timestamp);
+    writeValue(slab, elementIndex, value);
+  }
+
+  private void put(long timestamp, long value) {
+    minTime = minTime <= timestamp ? minTime : timestamp;
+    append(timestamp, value);
+    if (sorted && size > 1 && timestamp < getTime(size - 2)) {
+      sorted = false;
+    }
+  }
+
+  private void append(long timestamp, long value) {
+    checkExpansion();
+    ByteBuffer slab = slabs.get(size / ARRAY_SIZE);
+    int elementIndex = size % ARRAY_SIZE;
+    slab.putLong(elementIndex * Long.BYTES, timestamp);
+    writeValue(slab, elementIndex, value);
+    size++;
+  }
+
+  private void checkDataType(TSDataType expected) {
+    if (dataType != expected) {
+      throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
+    }
+  }
+
+  @Override
+  public void putLong(long time, long value) {
+    checkDataType(TSDataType.INT64);
+    put(time, value);
+  }
+
+  @Override
+  public void putInt(long time, int value) {
+    checkDataType(TSDataType.INT32);
+    put(time, value);
+  }
+
+  @Override
+  public void putFloat(long time, float value) {
+    checkDataType(TSDataType.FLOAT);
+    put(time, Float.floatToRawIntBits(value));
+  }
+
+  @Override
+  public void putDouble(long time, double value) {
+    checkDataType(TSDataType.DOUBLE);
+    put(time, Double.doubleToRawLongBits(value));
+  }
+
+  @Override
+  public void putBoolean(long time, boolean value) {
+    checkDataType(TSDataType.BOOLEAN);
+    put(time, value ? 1 : 0);
+  }
+
+  @Override
+  public void putLongs(long[] time, long[] value) {
+    putLongs(time, value, 0, time.length);
+  }
+
+  @Override
+  public void putInts(long[] time, int[] value) {
+    putInts(time, value, 0, time.length);
+  }
+
+  @Override
+  public void putFloats(long[] time, float[] value) {
+    putFloats(time, value, 0, time.length);
+  }
+
+  @Override
+  public void putDoubles(long[] time, double[] value) {
+    putDoubles(time, value, 0, time.length);
+  }
+
+  @Override
+  public void putBooleans(long[] time, boolean[] value) {
+    putBooleans(time, value, 0, time.length);
+  }
+
+  @Override
+  public void putLongs(long[] time, long[] value, int start, int end) {
+    checkDataType(TSDataType.INT64);
+    updateMinTimeAndSorted(time, start, end);
+    for (int i = start; i < end; i++) {
+      append(time[i], value[i]);
+    }
+  }
+
+  @Override
+  public void putInts(long[] time, int[] value, int start, int end) {
+    checkDataType(TSDataType.INT32);
+    updateMinTimeAndSorted(time, start, end);
+    for (int i = start; i < end; i++) {
+      append(time[i], value[i]);
+    }
+  }
+
+  @Override
+  public void putFloats(long[] time, float[] value, int start, int end) {
+    checkDataType(TSDataType.FLOAT);
+    updateMinTimeAndSorted(time, start, end);
+    for (int i = start; i < end; i++) {
+      append(time[i], Float.floatToRawIntBits(value[i]));
+    }
+  }
+
+  @Override
+  public void putDoubles(long[] time, double[] value, int start, int end) {
+    checkDataType(TSDataType.DOUBLE);
+    updateMinTimeAndSorted(time, start, end);
+    for (int i = start; i < end; i++) {
+      append(time[i], Double.doubleToRawLongBits(value[i]));
+    }
+  }
+
+  @Override
+  public void putBooleans(long[] time, boolean[] value, int start, int end) {
+    checkDataType(TSDataType.BOOLEAN);
+    updateMinTimeAndSorted(time, start, end);
+    for (int i = start; i < end; i++) {
+      append(time[i], value[i] ? 1 : 0);
+    }
+  }
+
+  @Override
+  public long getLong(int index) {
+    checkDataType(TSDataType.INT64);
+    return getValue(index);
+  }
+
+  @Override
+  public int getInt(int index) {
+    checkDataType(TSDataType.INT32);
+    return (int) getValue(index);
+  }
+
+  @Override
+  public float getFloat(int index) {
+    checkDataType(TSDataType.FLOAT);
+    return Float.intBitsToFloat((int) getValue(index));
+  }
+
+  @Override
+  public double getDouble(int index) {
+    checkDataType(TSDataType.DOUBLE);
+    return Double.longBitsToDouble(getValue(index));
+  }
+
+  @Override
+  public boolean getBoolean(int index) {
+    checkDataType(TSDataType.BOOLEAN);
+    return getValue(index) != 0;
+  }
+
+  /**
+   * a snapshot copies the slabs into heap buffers, which are left to the garbage collector, and
+   * the sorting buffers are always taken from the arena and returned after sorting.
+   */
+  private ByteBuffer allocateSlab(boolean fromArena) {
+    return fromArena ? OffHeapArena.getInstance().allocate(slabBytes)
+        : ByteBuffer.allocate(slabBytes).order(ByteOrder.nativeOrder());
+  }
+
+  private ByteBuffer copySlab(ByteBuffer slab) {
+    ByteBuffer copy = allocateSlab(pooled);
+    copy.put(slab.duplicate());
+    copy.clear();
+    return copy;
+  }
+
+  @Override
+  protected void checkExpansion() {
+    if ((size % ARRAY_SIZE) == 0) {
+      expandValues();
+    }
+  }
+
+  @Override
+  protected void expandValues() {
+    slabs.add(allocateSlab(pooled));
+  }
+
+  @Override
+  protected int getArrayNum() {
+    return slabs.size();
+  }
+
+  @Override
+  public OffHeapTVList clone() {
+    OffHeapTVList cloneList = new OffHeapTVList(dataType);
+    cloneAs(cloneList);
+    for (ByteBuffer slab : slabs) {
+      cloneList.slabs.add(copySlab(slab));
+    }
+    return cloneList;
+  }
+
+  @Override
+  protected OffHeapTVList shareValues() {
+    OffHeapTVList snapshot = new OffHeapTVList(dataType);
+    snapshot.slabs = new ArrayList<>(slabs);
+    if (pooled) {
+      if (sharedSlabs == null) {
+        sharedSlabs = OffHeapArena.getInstance().share();
+      }
+      sharedSlabNum = slabs.size();
+    }
+    if (sharedSlabs != null) {
+      sharedSlabs.retain();
+      snapshot.sharedSlabs = sharedSlabs;
+    }
+    return snapshot;
+  }
+
+  @Override
+  protected void detach(long lowerBound) {
+    List<ByteBuffer> sharedSlabList = slabs;
+    int sharedSize = size;
+    int slabNum = (sharedSize + ARRAY_SIZE - 1) / ARRAY_SIZE;
+    slabs = new ArrayList<>(slabNum);
+    size = 0;
+    for (int slabIndex = 0; slabIndex < slabNum; slabIndex++) {
+      ByteBuffer slab = sharedSlabList.get(slabIndex);
+      int length = Math.min(ARRAY_SIZE, sharedSize - slabIndex * ARRAY_SIZE);
+      for (int i = 0; i < length; i++) {
+        if (slab.getLong(i * Long.BYTES) >= lowerBound) {
+          slabs.add(copySlab(slab));
+          size += length;
+          break;
+        }
+      }
+    }
+    releaseSharedSlabs(sharedSlabList);
+    shared = false;
+  }
+
+  @Override
+  protected void cloneValues(int[] arrayIndices, int arrayNum) {
+    // the values are copied along with the timestamps in detach()
+  }
+
+  @Override
+  protected void releaseLastTimeArray() {
+    ByteBuffer slab = slabs.remove(slabs.size() - 1);
+    if (pooled) {
+      OffHeapArena.getInstance().release(slab);
+    }
+  }
+
+  @Override
+  protected void releaseLastValueArray() {
+    // the values are released along with the timestamps in the same slab
+  }
+
+  /**
+   * stop reading the shared slabs. The list hands the slabs read by the snapshots over to the arena
+   * and releases the others at once.
+   */
+  private void releaseSharedSlabs(List<ByteBuffer> slabList) {
+    if (sharedSlabs == null) {
+      return;
+    }
+    if (pooled) {
+      sharedSlabs.handOver(slabList.subList(0, sharedSlabNum));
+      for (ByteBuffer slab : slabList.subList(sharedSlabNum, slabList.size())) {
+        OffHeapArena.getInstance().release(slab);
+      }
+    }
+    sharedSlabs.release();
+    sharedSlabs = null;
+  }
+
+  @Override
+  void clearValue() {
+    if (slabs != null) {
+      if (!shared) {
+        while (!slabs.isEmpty()) {
+          releaseLastTimeArray();
+        }
+      } else {
+        releaseSharedSlabs(slabs);
+        slabs.clear();
+      }
+    }
+  }
+
+  @Override
+  void clearSortedValue() {
+    if (sortedSlabs != null) {
+      for (ByteBuffer slab : sortedSlabs) {
+        OffHeapArena.getInstance().release(slab);
+      }
+      sortedSlabs = null;
+    }
+  }
+
+  @Override
+  protected void sortInPlace() {
+    int slabNum = (size + ARRAY_SIZE - 1) / ARRAY_SIZE;
+    sortedSlabs = new ByteBuffer[slabNum];
+    for (int i = 0; i < slabNum; i++) {
+      sortedSlabs[i] = allocateSlab(true);
+    }
+    sort(0, size);
+    clearSortedValue();
+    sorted = true;
+  }
+
+  @Override
+  protected void set(int src, int dest) {
+    set(dest, getTime(src), getValue(src));
+  }
+
+  @Override
+  protected void setFromSorted(int src, int dest) {
+    ByteBuffer slab = sortedSlabs[src / ARRAY_SIZE];
+    int elementIndex = src % ARRAY_SIZE;
+    set(dest, slab.getLong(elementIndex * Long.BYTES), readValue(slab, elementIndex));
+  }
+
+  @Override
+  protected void setToSorted(int src, int dest) {
+    ByteBuffer slab = sortedSlabs[dest / ARRAY_SIZE];
+    int elementIndex = dest % ARRAY_SIZE;
+    slab.putLong(elementIndex * Long.BYTES, getTime(src));
+    writeValue(slab, elementIndex, getValue(src));
+  }
+
+  @Override
+  protected void reverseRange(int lo, int hi) {
+    hi--;
+    while (lo < hi) {
+      long loT = getTime(lo);
+      long loV = getValue(lo);
+      long hiT = getTime(hi);
+      long hiV = getValue(hi);
+      set(lo++, hiT, hiV);
+      set(hi--, loT, loV);
+    }
+  }
+
+  @Override
+  protected void saveAsPivot(int pos) {
+    pivotTime = getTime(pos);
+    pivotValue = getValue(pos);
+  }
+
+  @Override
+  protected void setPivotTo(int pos) {
+    set(pos, pivotTime, pivotValue);
+  }
+
+  @Override
+  public TimeValuePair getTimeValuePair(int index) {
+    return getTimeValuePair(index, getTime(index), null, null);
+  }
+
+  @Override
+  protected TimeValuePair getTimeValuePair(int index, long time, Integer floatPrecision,
+      TSEncoding encoding) {
+    boolean round = floatPrecision != null && !encoding.equals(TSEncoding.GORILLA);
+    switch (dataType) {
+      case BOOLEAN:
+        return new TimeValuePair(time, TsPrimitiveType.getByType(dataType, getBoolean(index)));
+      case INT32:
+        return new TimeValuePair(time, TsPrimitiveType.getByType(dataType, getInt(index)));
+      case INT64:
+        return new TimeValuePair(time, TsPrimitiveType.getByType(dataType, getLong(index)));
+      case FLOAT:
+        float floatValue = getFloat(index);
+        if (round) {
+          floatValue = MathUtils.roundWithGivenPrecision(floatValue, floatPrecision);
+        }
+        return new TimeValuePair(time, TsPrimitiveType.getByType(dataType, floatValue));
+      case DOUBLE:
+        double doubleValue = getDouble(index);
+        if (round) {
+          doubleValue = MathUtils.roundWithGivenPrecision(doubleValue, floatPrecision);
+        }
+        return new TimeValuePair(time, TsPrimitiveType.getByType(dataType, doubleValue));
+      default:
+        throw new UnSupportedDataTypeException("DataType: " + dataType);
+    }
+  }
+}
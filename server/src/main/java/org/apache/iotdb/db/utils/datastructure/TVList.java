@@ -22,18 +22,21 @@ package org.apache.iotdb.db.utils.datastructure;
 import static org.apache.iotdb.db.rescon.PrimitiveArrayPool.ARRAY_SIZE;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.rescon.PrimitiveArrayPool;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.reader.IPointReader;
 import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.utils.Binary;
 
 public abstract class TVList {
 
-  private static final String ERR_DATATYPE_NOT_CONSISTENT = "DataType not consistent";
+  protected static final String ERR_DATATYPE_NOT_CONSISTENT = "DataType not consistent";
 
   protected static final int SMALL_ARRAY_LENGTH = 32;
 
@@ -47,12 +50,29 @@ public abstract class TVList {
    * this field is effective only in the Tvlist in a RealOnlyMemChunk.
    */
   private long timeOffset = Long.MIN_VALUE;
+
+  /**
+   * the sorted and disjoint time ranges deleted from the list, this field is effective only in the
+   * TVList in a ReadOnlyMemChunk.
+   */
+  private List<TimeRange> deletionList;
   private long version;
 
   protected long pivotTime;
 
   protected long minTime;
 
+  /**
+   * whether the arrays are referenced by both a working list and its snapshots. Shared arrays are
+   * never modified in place or returned to the pool, they are copied before such modifications.
+   */
+  protected boolean shared;
+
+  /**
+   * whether the private arrays of this list are got from and returned to the pool. A snapshot
+   * copies the shared arrays into arrays of its own, which are left to the garbage collector.
+   */
+  protected boolean pooled = true;
 
   public TVList() {
     timestamps = new ArrayList<>();
@@ -169,7 +189,24 @@ public abstract class TVList {
     throw new UnsupportedOperationException(ERR_DATATYPE_NOT_CONSISTENT);
   }
 
-  public abstract void sort();
+  /**
+   * sort the list by time. A list sharing its arrays copies them first, and a snapshot only copies
+   * the arrays holding points not earlier than its time offset, the other points are dropped.
+   */
+  public void sort() {
+    if (sorted) {
+      return;
+    }
+    if (shared) {
+      detach(timeOffset);
+      if (timeOffset != Long.MIN_VALUE) {
+        delete(timeOffset - 1);
+      }
+    }
+    sortInPlace();
+  }
+
+  protected abstract void sortInPlace();
 
   public long getMinTime() {
     return minTime;
@@ -196,18 +233,124 @@ public abstract class TVList {
     return clone();
   }
 
+  /**
+   * Create a read-only view of the current points without copying them. Filled arrays are never
+   * modified by appending, and the points after the current size in the last array are invisible
+   * to the snapshot, so the snapshot shares all arrays with this list and only copies the
+   * references. The caller should guard this method from concurrent writes and sorting.
+   */
+  public TVList snapshot() {
+    TVList snapshot = shareValues();
+    shared = true;
+    snapshot.shared = true;
+    snapshot.pooled = false;
+    snapshot.timestamps = new ArrayList<>(timestamps);
+    snapshot.size = size;
+    snapshot.sorted = sorted;
+    snapshot.minTime = minTime;
+    return snapshot;
+  }
+
+  /**
+   * @return an empty list of the same type referencing all value arrays of this list
+   */
+  protected abstract TVList shareValues();
+
+  /**
+   * Replace the shared arrays with private copies, arrays in which all points are earlier than
+   * lowerBound are not copied and their points are removed.
+   */
+  protected void detach(long lowerBound) {
+    List<long[]> sharedTimestamps = timestamps;
+    int sharedSize = size;
+    int[] retainedArrays = new int[(sharedSize + ARRAY_SIZE - 1) / ARRAY_SIZE];
+    int retainedNum = 0;
+    size = 0;
+    for (int arrayIndex = 0; arrayIndex < retainedArrays.length; arrayIndex++) {
+      long[] timeArray = sharedTimestamps.get(arrayIndex);
+      int length = Math.min(ARRAY_SIZE, sharedSize - arrayIndex * ARRAY_SIZE);
+      for (int i = 0; i < length; i++) {
+        if (timeArray[i] >= lowerBound) {
+          retainedArrays[retainedNum++] = arrayIndex;
+          size += length;
+          break;
+        }
+      }
+    }
+    timestamps = new ArrayList<>(retainedNum);
+    for (int i = 0; i < retainedNum; i++) {
+      timestamps.add(cloneTime(sharedTimestamps.get(retainedArrays[i])));
+    }
+    abandonArrays(sharedTimestamps);
+    cloneValues(retainedArrays, retainedNum);
+    shared = false;
+  }
+
+  /**
+   * replace the shared value arrays with private copies of the arrays at arrayIndices.
+   */
+  protected abstract void cloneValues(int[] arrayIndices, int arrayNum);
+
+  /**
+   * @return private copies of the arrays at arrayIndices, the shared arrays are abandoned
+   */
+  protected <T> List<T> cloneArrays(List<T> sharedArrays, int[] arrayIndices, int arrayNum,
+      TSDataType dataType) {
+    List<T> cloneArrays = new ArrayList<>(arrayNum);
+    for (int i = 0; i < arrayNum; i++) {
+      cloneArrays.add(cloneArray(sharedArrays.get(arrayIndices[i]), dataType));
+    }
+    abandonArrays(sharedArrays);
+    return cloneArrays;
+  }
+
+  @SuppressWarnings("unchecked")
+  protected <T> T cloneArray(T array, TSDataType dataType) {
+    int length = Array.getLength(array);
+    T cloneArray = pooled ? (T) PrimitiveArrayPool.getInstance()
+        .getPrimitiveDataListByType(dataType)
+        : (T) Array.newInstance(array.getClass().getComponentType(), length);
+    System.arraycopy(array, 0, cloneArray, 0, length);
+    return cloneArray;
+  }
+
   protected abstract void releaseLastValueArray();
 
   protected void releaseLastTimeArray() {
-    PrimitiveArrayPool.getInstance().release(timestamps.remove(timestamps.size() - 1));
+    releaseArray(timestamps.remove(timestamps.size() - 1));
+  }
+
+  protected void releaseArray(Object dataArray) {
+    if (pooled) {
+      PrimitiveArrayPool.getInstance().release(dataArray);
+    }
+  }
+
+  /**
+   * the arrays still read by snapshots are not returned to the pool, stop accounting them
+   */
+  protected void abandonArrays(List<?> arrays) {
+    if (pooled) {
+      PrimitiveArrayPool.getInstance().abandon(arrays);
+    }
   }
 
   public void delete(long upperBound) {
+    delete(Long.MIN_VALUE, upperBound);
+  }
+
+  /**
+   * delete the points in [lowerBound, upperBound].
+   */
+  public void delete(long lowerBound, long upperBound) {
+    if (shared) {
+      detach(Long.MIN_VALUE);
+    }
     int newSize = 0;
     minTime = Long.MAX_VALUE;
     for (int i = 0; i < size; i++) {
       long time = getTime(i);
-      if (time > upperBound) {
+      if (time < lowerBound || time > upperBound) {
         set(i, newSize++);
         minTime = time < minTime ? time : minTime;
       }
@@ -218,13 +361,18 @@ public abstract class TVList {
     if (newSize % ARRAY_SIZE != 0) {
       newArrayNum++;
     }
-    for (int releaseIdx = newArrayNum; releaseIdx < timestamps.size(); releaseIdx++) {
+    while (getArrayNum() > newArrayNum) {
       releaseLastTimeArray();
       releaseLastValueArray();
     }
   }
 
+  protected int getArrayNum() {
+    return timestamps.size();
+  }
+
   protected void cloneAs(TVList cloneList) {
+    cloneList.pooled = pooled;
     for (long[] timestampArray : timestamps) {
       cloneList.timestamps.add(cloneTime(timestampArray));
     }
@@ -236,6 +384,7 @@ public abstract class TVList {
   public void clear() {
     size = 0;
     timeOffset = Long.MIN_VALUE;
+    deletionList = null;
     sorted = true;
     minTime = Long.MIN_VALUE;
     clearTime();
@@ -243,15 +392,27 @@ public abstract class TVList {
 
     clearValue();
     clearSortedValue();
+    shared = false;
   }
 
   protected void clearTime() {
     if (timestamps != null) {
-      for (long[] dataArray : timestamps) {
-        PrimitiveArrayPool.getInstance().release(dataArray);
+      releaseArrays(timestamps);
+    }
+  }
+
+  /**
+   * return the arrays to the pool unless they are shared with snapshots, which still read them
+   */
+  protected void releaseArrays(List<?> arrays) {
+    if (!shared) {
+      for (Object dataArray : arrays) {
+        releaseArray(dataArray);
       }
-      timestamps.clear();
+    } else {
+      abandonArrays(arrays);
     }
+    arrays.clear();
   }
 
   protected void clearSortedTime() {
@@ -276,9 +437,7 @@ public abstract class TVList {
   }
 
   protected long[] cloneTime(long[] array) {
-    long[] cloneArray = new long[array.length];
-    System.arraycopy(array, 0, cloneArray, 0, array.length);
-    return cloneArray;
+    return cloneArray(array, TSDataType.INT64);
   }
 
   protected void sort(int lo, int hi) {
@@ -321,7 +480,15 @@ public abstract class TVList {
     return runHi - lo;
   }
 
+  /**
+   * @return an off-heap list if it is enabled and the data type is of fixed length, otherwise a
+   * list of primitive arrays
+   */
   public static TVList newList(TSDataType dataType) {
+    if (IoTDBDescriptor.getInstance().getConfig().isMemtableOffHeapEnable()
+        && dataType != TSDataType.TEXT) {
+      return new OffHeapTVList(dataType);
+    }
     switch (dataType) {
       case TEXT:
         return new BinaryTVList();
@@ -350,6 +517,10 @@ public abstract class TVList {
     this.timeOffset = timeOffset;
   }
 
+  public void setDeletionList(List<TimeRange> deletionList) {
+    this.deletionList = deletionList;
+  }
+
   protected int compare(int idx1, int idx2) {
     long t1 = getTime(idx1);
     long t2 = getTime(idx2);
@@ -498,6 +669,7 @@ public abstract class TVList {
     private TimeValuePair cachedTimeValuePair;
     private boolean hasCachedPair;
     private int cur;
+    private int deleteCursor;
     private Integer floatPrecision;
     private TSEncoding encoding;
 
@@ -517,7 +689,8 @@ public abstract class TVList {
 
       while (cur < size) {
         long time = getTime(cur);
-        if (time < getTimeOffset() || (cur + 1 < size() && (time == getTime(cur + 1)))) {
+        if (time < getTimeOffset() || (cur + 1 < size() && (time == getTime(cur + 1)))
+            || isDeleted(time)) {
           cur++;
           continue;
         }
@@ -529,6 +702,21 @@ public abstract class TVList {
       return hasCachedPair;
     }
 
+    /**
+     * the times are visited in ascending order, so the deleted ranges before time are skipped
+     */
+    private boolean isDeleted(long time) {
+      while (deletionList != null && deleteCursor < deletionList.size()) {
+        TimeRange range = deletionList.get(deleteCursor);
+        if (range.getMax() < time) {
+          deleteCursor++;
+        } else {
+          return range.getMin() <= time;
+        }
+      }
+      return false;
+    }
+
     @Override
     public TimeValuePair nextTimeValuePair() throws IOException {
       if (hasCachedPair || hasNextTimeValuePair()) {
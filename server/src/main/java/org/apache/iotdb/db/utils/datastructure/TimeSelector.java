@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.Arrays;
+
+/**
+ * TimeSelector is a binary min heap of primitive long timestamps, used to align the timestamps of
+ * multiple series without boxing. Duplicated timestamps may be added, {@link #pollFirst()} removes
+ * all the copies of the smallest one so that each timestamp is selected only once, just like a
+ * TreeSet.
+ */
+public class TimeSelector {
+
+  private static final int MIN_DEFAULT_CAPACITY = 8;
+
+  private long[] timeHeap;
+  private int heapSize;
+
+  /**
+   * the last added timestamp, aligned series usually add the same timestamp one after another, so
+   * the copies are skipped as long as it is still in the heap.
+   */
+  private long lastAddedTime;
+  private boolean lastAddedInHeap = false;
+
+  /**
+   * @param defaultCapacity usually the number of series to be aligned, as each series adds at most
+   *                        one timestamp at a time
+   */
+  public TimeSelector(int defaultCapacity) {
+    timeHeap = new long[Math.max(defaultCapacity, MIN_DEFAULT_CAPACITY)];
+    heapSize = 0;
+  }
+
+  public boolean isEmpty() {
+    return heapSize == 0;
+  }
+
+  public void add(long time) {
+    if (lastAddedInHeap && time == lastAddedTime) {
+      return;
+    }
+    lastAddedTime = time;
+    lastAddedInHeap = true;
+    if (heapSize == timeHeap.length) {
+      timeHeap = Arrays.copyOf(timeHeap, timeHeap.length << 1);
+    }
+    // sift up
+    int index = heapSize++;
+    while (index > 0) {
+      int parentIndex = (index - 1) >>> 1;
+      long parent = timeHeap[parentIndex];
+      if (parent <= time) {
+        break;
+      }
+      timeHeap[index] = parent;
+      index = parentIndex;
+    }
+    timeHeap[index] = time;
+  }
+
+  /**
+   * @return the smallest timestamp without removing it
+   */
+  public long first() {
+    if (heapSize == 0) {
+      throw new IllegalStateException("TimeSelector is empty");
+    }
+    return timeHeap[0];
+  }
+
+  /**
+   * remove the smallest timestamp together with all its copies.
+   *
+   * @return the smallest timestamp
+   */
+  public long pollFirst() {
+    long minTime = first();
+    if (lastAddedTime == minTime) {
+      lastAddedInHeap = false;
+    }
+    do {
+      removeFirst();
+    } while (heapSize > 0 && timeHeap[0] == minTime);
+    return minTime;
+  }
+
+  public void clear() {
+    heapSize = 0;
+    lastAddedInHeap = false;
+  }
+
+  private void removeFirst() {
+    long last = timeHeap[--heapSize];
+    // sift down
+    int index = 0;
+    int half = heapSize >>> 1;
+    while (index < half) {
+      int childIndex = (index << 1) + 1;
+      long child = timeHeap[childIndex];
+      int rightIndex = childIndex + 1;
+      if (rightIndex < heapSize && timeHeap[rightIndex] < child) {
+        childIndex = rightIndex;
+        child = timeHeap[rightIndex];
+      }
+      if (last <= child) {
+        break;
+      }
+      timeHeap[index] = child;
+      index = childIndex;
+    }
+    timeHeap[index] = last;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(timeHeap, heapSize));
+  }
+}
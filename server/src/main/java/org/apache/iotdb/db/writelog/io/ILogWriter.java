@@ -38,6 +38,15 @@ public interface ILogWriter {
    */
   void write(ByteBuffer logBuffer) throws IOException;
 
+  /**
+   * Write the given logs as one batch with a single gathering write, so that they share one size
+   * header and one check sum. Unlike write(ByteBuffer), the buffers must be ready to be read
+   * (flipped), and the logs are not forced even if force_wal_period_in_ms is 0.
+   * @param logBuffers WAL logs that have been converted to bytes
+   * @throws IOException
+   */
+  void write(ByteBuffer[] logBuffers) throws IOException;
+
   /**
    * force the OS/FileSystem to flush its cache to make sure logs are persisted.
    * @throws IOException
@@ -52,20 +52,35 @@ public class LogWriter implements ILogWriter {
 
   @Override
   public void write(ByteBuffer logBuffer) throws IOException {
+    logBuffer.flip();
+    writeBatch(new ByteBuffer[]{logBuffer});
+
+    if (config.getForceWalPeriodInMs() == 0) {
+      channel.force(true);
+    }
+  }
+
+  @Override
+  public void write(ByteBuffer[] logBuffers) throws IOException {
+    writeBatch(logBuffers);
+  }
+
+  private void writeBatch(ByteBuffer[] logBuffers) throws IOException {
     if (channel == null) {
       fileOutputStream = new FileOutputStream(logFile, true);
       channel = fileOutputStream.getChannel();
     }
-    logBuffer.flip();
-    int logSize = logBuffer.limit();
     // 4 bytes size and 8 bytes check sum
-
+    int logSize = 0;
     checkSummer.reset();
-    checkSummer.update(logBuffer);
+    for (ByteBuffer logBuffer : logBuffers) {
+      logSize += logBuffer.remaining();
+      logBuffer.mark();
+      checkSummer.update(logBuffer);
+      logBuffer.reset();
+    }
     long checkSum = checkSummer.getValue();
 
-    logBuffer.flip();
-
     lengthBuffer.clear();
     checkSumBuffer.clear();
     lengthBuffer.putInt(logSize);
@@ -73,12 +88,15 @@ public class LogWriter implements ILogWriter {
     lengthBuffer.flip();
     checkSumBuffer.flip();
 
-    channel.write(lengthBuffer);
-    channel.write(logBuffer);
-    channel.write(checkSumBuffer);
-
-    if (config.getForceWalPeriodInMs() == 0) {
-      channel.force(true);
+    ByteBuffer[] buffers = new ByteBuffer[logBuffers.length + 2];
+    buffers[0] = lengthBuffer;
+    System.arraycopy(logBuffers, 0, buffers, 1, logBuffers.length);
+    buffers[buffers.length - 1] = checkSumBuffer;
+    // a gathering write may write only a part of the buffers, so repeat until all are written
+    long totalSize = logSize + (long) lengthBuffer.remaining() + checkSumBuffer.remaining();
+    long written = 0;
+    while (written < totalSize) {
+      written += channel.write(buffers);
     }
   }
 
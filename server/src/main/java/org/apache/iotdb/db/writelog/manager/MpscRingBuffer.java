@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.manager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free ring buffer with many producers and a single consumer. Producers claim a
+ * slot by a CAS on the producer index and then publish the element into the slot; the consumer
+ * is the only thread that advances the consumer index.
+ */
+class MpscRingBuffer<E> {
+
+  private final AtomicReferenceArray<E> slots;
+  private final int mask;
+  private final int capacity;
+
+  private final AtomicLong producerIndex = new AtomicLong();
+  private volatile long consumerIndex = 0;
+
+  MpscRingBuffer(int expectedCapacity) {
+    int size = 1;
+    while (size < expectedCapacity) {
+      size <<= 1;
+    }
+    this.capacity = size;
+    this.mask = size - 1;
+    this.slots = new AtomicReferenceArray<>(size);
+  }
+
+  /**
+   * @return false if the buffer is full.
+   */
+  boolean offer(E element) {
+    while (true) {
+      long index = producerIndex.get();
+      if (index - consumerIndex >= capacity) {
+        return false;
+      }
+      if (producerIndex.compareAndSet(index, index + 1)) {
+        slots.lazySet((int) (index & mask), element);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * should only be called by the consumer thread.
+   *
+   * @return the eldest element or null if the buffer is empty.
+   */
+  E poll() {
+    long index = consumerIndex;
+    int slot = (int) (index & mask);
+    E element = slots.get(slot);
+    if (element == null) {
+      if (index == producerIndex.get()) {
+        return null;
+      }
+      // a producer has claimed the slot but not yet published its element
+      do {
+        element = slots.get(slot);
+      } while (element == null);
+    }
+    slots.lazySet(slot, null);
+    consumerIndex = index + 1;
+    return element;
+  }
+
+  boolean isEmpty() {
+    return consumerIndex == producerIndex.get();
+  }
+
+  int size() {
+    return (int) (producerIndex.get() - consumerIndex);
+  }
+}
@@ -105,11 +105,14 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
 
   @Override
   public void close() {
-    if (!isActivated(forceThread)) {
+    WALGroupCommitter groupCommitter = WALGroupCommitter.getInstance();
+    if (!isActivated(forceThread) && !groupCommitter.isRunning()) {
       logger.warn("MultiFileLogNodeManager has not yet started");
       return;
     }
     logger.info("LogNodeManager starts closing..");
+    // commit the queued logs before the nodes are closed
+    groupCommitter.stop();
     if (isActivated(forceThread)) {
       forceThread.interrupt();
       logger.info("Waiting for force thread to stop");
@@ -135,6 +138,11 @@ public class MultiFileLogNodeManager implements WriteLogNodeManager, IService {
       if (!config.isEnableWal()) {
         return;
       }
+      if (config.isEnableWalGroupCommit()) {
+        // every group is forced by the WAL writer thread, no periodical force is needed
+        WALGroupCommitter.getInstance().start();
+        return;
+      }
       if (!isActivated(forceThread)) {
         if (config.getForceWalPeriodInMs() > 0) {
           InstanceHolder.instance.forceThread = new Thread(InstanceHolder.instance.forceTask,
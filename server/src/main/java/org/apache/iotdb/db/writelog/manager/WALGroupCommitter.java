@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.writelog.manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.iotdb.db.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * WALGroupCommitter owns the WAL writer thread of the group commit mode. Inserting threads
+ * append their serialized logs into a lock-free ring buffer and wait for the returned future. The
+ * writer thread collects logs of all log nodes into a group, until the queue is drained and no
+ * other thread is appending a log, or wal_group_commit_max_delay_in_ms has passed, or the group
+ * reaches wal_buffer_size. Then it writes the logs of each node with a single gathering write,
+ * forces each touched node once and finally completes the futures of the whole group. So a lone
+ * inserting thread never waits for the delay, and the logs appended while a group is forced make
+ * up the next group.
+ */
+public class WALGroupCommitter {
+
+  private static final Logger logger = LoggerFactory.getLogger(WALGroupCommitter.class);
+  private static final long IDLE_PARK_TIME_NS = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long FULL_QUEUE_PARK_TIME_NS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private MpscRingBuffer<LogEntry> logQueue;
+  private Thread writerThread;
+  private volatile boolean running = false;
+  private volatile boolean writerWaiting = false;
+
+  /**
+   * the number of threads which are appending logs in submit(), the writer only waits for more
+   * logs while it is not zero.
+   */
+  private AtomicInteger submittingNum = new AtomicInteger();
+
+  private AtomicLong committedGroupNum = new AtomicLong();
+  private AtomicLong committedLogNum = new AtomicLong();
+
+  private WALGroupCommitter() {
+  }
+
+  public static WALGroupCommitter getInstance() {
+    return InstanceHolder.instance;
+  }
+
+  public synchronized void start() {
+    if (running) {
+      logger.warn("WAL group committer has already started");
+      return;
+    }
+    logQueue = new MpscRingBuffer<>(config.getWalGroupCommitQueueSize());
+    running = true;
+    writerThread = new Thread(this::runWriter, ThreadName.WAL_GROUP_COMMIT_DAEMON.getName());
+    writerThread.start();
+    logger.info("WAL group committer started, max commit delay {}ms",
+        config.getWalGroupCommitMaxDelayInMs());
+  }
+
+  /**
+   * stop the writer thread after the queued logs are committed.
+   */
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(writerThread);
+    try {
+      writerThread.join();
+    } catch (InterruptedException e) {
+      logger.warn("Interrupted when waiting for the WAL writer thread to exit");
+      Thread.currentThread().interrupt();
+    }
+    // logs appended while the writer was exiting
+    commitRemaining(logQueue);
+    writerThread = null;
+    logger.info("WAL group committer stopped, {} logs are committed in {} groups",
+        committedLogNum.get(), committedGroupNum.get());
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * append a serialized log of the node into the commit queue, wait if the queue is full.
+   *
+   * @param log a serialized log that is ready to be read
+   * @return a future that is completed after the log is forced to the disk, or null if the
+   * committer is stopped before the log is appended
+   */
+  public CompletableFuture<Void> submit(ExclusiveWriteLogNode node, ByteBuffer log) {
+    MpscRingBuffer<LogEntry> queue = logQueue;
+    LogEntry entry = new LogEntry(node, log);
+    submittingNum.incrementAndGet();
+    try {
+      while (!queue.offer(entry)) {
+        if (!running) {
+          return null;
+        }
+        LockSupport.unpark(writerThread);
+        LockSupport.parkNanos(FULL_QUEUE_PARK_TIME_NS);
+      }
+    } finally {
+      submittingNum.decrementAndGet();
+    }
+    if (!running) {
+      // stop() may have drained the queue before the log was appended, nobody else commits it
+      commitRemaining(queue);
+    } else if (writerWaiting) {
+      LockSupport.unpark(writerThread);
+    }
+    return entry.future;
+  }
+
+  /**
+   * commit the logs left in the queue of a stopped writer. It holds the lock of stop(), so the
+   * queue is only consumed after the writer thread has exited.
+   */
+  private synchronized void commitRemaining(MpscRingBuffer<LogEntry> queue) {
+    if (running && queue == logQueue) {
+      // the queue has been consumed by a restarted writer thread
+      return;
+    }
+    List<LogEntry> remaining = new ArrayList<>();
+    LogEntry entry;
+    while ((entry = queue.poll()) != null) {
+      remaining.add(entry);
+    }
+    if (!remaining.isEmpty()) {
+      commit(remaining);
+    }
+  }
+
+  public long getCommittedGroupNum() {
+    return committedGroupNum.get();
+  }
+
+  public long getCommittedLogNum() {
+    return committedLogNum.get();
+  }
+
+  private void runWriter() {
+    long maxDelayInNs = TimeUnit.MILLISECONDS.toNanos(config.getWalGroupCommitMaxDelayInMs());
+    long maxGroupSize = config.getWalBufferSize();
+    while (true) {
+      LogEntry first = logQueue.poll();
+      if (first == null) {
+        if (!running) {
+          break;
+        }
+        waitForLogs(IDLE_PARK_TIME_NS);
+        continue;
+      }
+
+      List<LogEntry> group = new ArrayList<>();
+      group.add(first);
+      long groupSize = first.log.remaining();
+      long deadline = System.nanoTime() + maxDelayInNs;
+      while (groupSize < maxGroupSize) {
+        LogEntry entry = logQueue.poll();
+        if (entry != null) {
+          group.add(entry);
+          groupSize += entry.log.remaining();
+          continue;
+        }
+        long remainingTime = deadline - System.nanoTime();
+        // no more logs are known to come, committing now does not make the group smaller
+        if (remainingTime <= 0 || !running || submittingNum.get() == 0) {
+          break;
+        }
+        waitForLogs(remainingTime);
+      }
+      commit(group);
+    }
+    logger.info("WAL writer thread exits.");
+  }
+
+  private void waitForLogs(long timeInNs) {
+    writerWaiting = true;
+    // re-check after announcing the wait so that a wake-up is not lost
+    if (logQueue.isEmpty() && running) {
+      LockSupport.parkNanos(this, timeInNs);
+    }
+    writerWaiting = false;
+  }
+
+  private void commit(List<LogEntry> group) {
+    Map<ExclusiveWriteLogNode, List<LogEntry>> nodeGroups = new IdentityHashMap<>();
+    for (LogEntry entry : group) {
+      nodeGroups.computeIfAbsent(entry.node, n -> new ArrayList<>()).add(entry);
+    }
+
+    List<ExclusiveWriteLogNode> writtenNodes = new ArrayList<>(nodeGroups.size());
+    for (Entry<ExclusiveWriteLogNode, List<LogEntry>> nodeGroup : nodeGroups.entrySet()) {
+      List<LogEntry> entries = nodeGroup.getValue();
+      ByteBuffer[] logs = new ByteBuffer[entries.size()];
+      for (int i = 0; i < logs.length; i++) {
+        logs[i] = entries.get(i).log;
+      }
+      try {
+        nodeGroup.getKey().writeGroup(logs);
+        writtenNodes.add(nodeGroup.getKey());
+      } catch (IOException e) {
+        failEntries(nodeGroup.getKey(), entries, e);
+      }
+    }
+
+    for (ExclusiveWriteLogNode node : writtenNodes) {
+      List<LogEntry> entries = nodeGroups.get(node);
+      try {
+        node.forceGroup();
+        for (LogEntry entry : entries) {
+          entry.future.complete(null);
+        }
+      } catch (IOException e) {
+        failEntries(node, entries, e);
+      }
+    }
+    committedGroupNum.incrementAndGet();
+    committedLogNum.addAndGet(group.size());
+  }
+
+  private void failEntries(ExclusiveWriteLogNode node, List<LogEntry> entries, IOException e) {
+    logger.error("{} group commit failed, change system mode to read-only", node, e);
+    config.setReadOnly(true);
+    for (LogEntry entry : entries) {
+      entry.future.completeExceptionally(e);
+    }
+  }
+
+  private static class LogEntry {
+
+    private final ExclusiveWriteLogNode node;
+    private final ByteBuffer log;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    private LogEntry(ExclusiveWriteLogNode node, ByteBuffer log) {
+      this.node = node;
+      this.log = log;
+    }
+  }
+
+  private static class InstanceHolder {
+
+    private InstanceHolder() {
+    }
+
+    private static WALGroupCommitter instance = new WALGroupCommitter();
+  }
+}
@@ -24,6 +24,8 @@ import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.io.FileUtils;
@@ -36,6 +38,7 @@ import org.apache.iotdb.db.writelog.io.ILogReader;
 import org.apache.iotdb.db.writelog.io.ILogWriter;
 import org.apache.iotdb.db.writelog.io.LogWriter;
 import org.apache.iotdb.db.writelog.io.MultiFileLogReader;
+import org.apache.iotdb.db.writelog.manager.WALGroupCommitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +50,13 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
   public static final String WAL_FILE_NAME = "wal";
   private static final Logger logger = LoggerFactory.getLogger(ExclusiveWriteLogNode.class);
   private static int logBufferSize = IoTDBDescriptor.getInstance().getConfig().getWalBufferSize();
+  private static final int INITIAL_SERIALIZE_BUFFER_SIZE = 4096;
+
+  /**
+   * buffers that serialize plans in the group commit mode, they grow up to logBufferSize.
+   */
+  private static final ThreadLocal<ByteBuffer> serializeBuffer = ThreadLocal
+      .withInitial(() -> ByteBuffer.allocate(Math.min(INITIAL_SERIALIZE_BUFFER_SIZE, logBufferSize)));
 
   private String identifier;
 
@@ -81,6 +91,10 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
 
   @Override
   public void write(PhysicalPlan plan) throws IOException {
+    WALGroupCommitter groupCommitter = WALGroupCommitter.getInstance();
+    if (groupCommitter.isRunning() && groupCommit(groupCommitter, plan)) {
+      return;
+    }
     lock.writeLock().lock();
     try {
       putLog(plan);
@@ -94,6 +108,74 @@ public class ExclusiveWriteLogNode implements WriteLogNode, Comparable<Exclusive
     }
   }
 
+  /**
+   * serialize the plan outside of the node lock, hand it to the WAL writer thread and wait until
+   * it is forced to the disk.
+   */
+  private boolean groupCommit(WALGroupCommitter groupCommitter, PhysicalPlan plan)
+      throws IOException {
+    CompletableFuture<Void> future = groupCommitter.submit(this, serialize(plan));
+    if (future == null) {
+      // the committer has been stopped, write the log by this node
+      return false;
+    }
+    try {
+      future.get();
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted when waiting for the group commit of " + identifier, e);
+    } catch (ExecutionException e) {
+      throw new IOException("Group commit of " + identifier + " failed", e.getCause());
+    }
+  }
+
+  private ByteBuffer serialize(PhysicalPlan plan) throws IOException {
+    ByteBuffer buffer = serializeBuffer.get();
+    while (true) {
+      buffer.clear();
+      try {
+        plan.serializeTo(buffer);
+        break;
+      } catch (BufferOverflowException e) {
+        if (buffer.capacity() >= logBufferSize) {
+          throw new IOException("Log cannot fit into buffer, please increase wal_buffer_size", e);
+        }
+        buffer = ByteBuffer.allocate((int) Math.min(buffer.capacity() * 2L, logBufferSize));
+        serializeBuffer.set(buffer);
+      }
+    }
+    buffer.flip();
+    ByteBuffer log = ByteBuffer.allocate(buffer.remaining());
+    log.put(buffer);
+    log.flip();
+    return log;
+  }
+
+  /**
+   * write logs collected by the WAL writer thread as one batch, they are not forced until
+   * forceGroup() is called.
+   */
+  public void writeGroup(ByteBuffer[] logs) throws IOException {
+    lock.writeLock().lock();
+    try {
+      getCurrentFileWriter().write(logs);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void forceGroup() throws IOException {
+    lock.writeLock().lock();
+    try {
+      if (currentFileWriter != null) {
+        currentFileWriter.force();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
   private void putLog(PhysicalPlan plan) {
     logBuffer.mark();
     try {
@@ -32,6 +32,7 @@ import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
 import org.apache.iotdb.db.engine.flush.MemTableFlushTask;
 import org.apache.iotdb.db.engine.memtable.IMemTable;
 import org.apache.iotdb.db.engine.memtable.PrimitiveMemTable;
+import org.apache.iotdb.db.engine.rollup.RollupFile;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.engine.version.VersionController;
 import org.apache.iotdb.db.exception.StorageGroupProcessorException;
@@ -127,6 +128,12 @@ public class TsFileRecoverPerformer {
       // due to failure, the last ChunkGroup may contain the same data as the WALs, so the time
       // map must be updated first to avoid duplicated insertion
       recoverResourceFromWriter(restorableTsFileIOWriter);
+      // the rollups may not match the truncated file and the data redone from the WALs
+      try {
+        RollupFile.delete(file);
+      } catch (IOException e) {
+        throw new StorageGroupProcessorException(e);
+      }
     }
 
     // redo logs
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import java.io.File;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BloomFilterManagerTest {
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private long prevBudgetInMB;
+
+  private TsFileResource[] resources = new TsFileResource[3];
+
+  @Before
+  public void setUp() {
+    prevBudgetInMB = config.getBloomFilterCacheBudgetInMB();
+    config.setBloomFilterCacheBudgetInMB(1);
+    // drop the bloom filters left by other tests
+    BloomFilterManager.getInstance().clear();
+    for (int i = 0; i < resources.length; i++) {
+      resources[i] = new TsFileResource(new File("target", "bloom-" + i + ".tsfile"));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    for (TsFileResource resource : resources) {
+      resource.setBloomFilter(null, 0);
+    }
+    config.setBloomFilterCacheBudgetInMB(prevBudgetInMB);
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    BloomFilterManager manager = BloomFilterManager.getInstance();
+    long evictionNum = manager.getEvictionNum();
+    // each filter takes about 400KB, so the budget of 1MB holds two of them
+    for (int i = 0; i < 2; i++) {
+      BloomFilter bloomFilter = BloomFilter.getEmptyBloomFilter(0.05, 512 * 1024);
+      bloomFilter.add("root.sg.d" + i + ".s0");
+      resources[i].setBloomFilter(bloomFilter, 100);
+    }
+    Assert.assertNotNull(resources[0].getBloomFilter());
+
+    resources[2].setBloomFilter(BloomFilter.getEmptyBloomFilter(0.05, 512 * 1024), 100);
+    Assert.assertEquals(evictionNum + 1, manager.getEvictionNum());
+    Assert.assertNull(resources[1].getBloomFilter());
+    Assert.assertTrue(resources[0].getBloomFilter().contains("root.sg.d0.s0"));
+    Assert.assertNotNull(resources[2].getBloomFilter());
+    Assert.assertEquals(100, resources[1].getFileMetadataSize());
+
+    double usedMemoryProportion = manager.getUsedMemoryProportion();
+    Assert.assertTrue(usedMemoryProportion <= 1);
+    resources[0].setBloomFilter(null, 0);
+    Assert.assertNull(resources[0].getBloomFilter());
+    Assert.assertTrue(manager.getUsedMemoryProportion() < usedMemoryProportion);
+  }
+}
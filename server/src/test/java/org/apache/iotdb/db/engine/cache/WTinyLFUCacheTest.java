@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class WTinyLFUCacheTest {
+
+  @Test
+  public void testHitAndMiss() throws IOException {
+    WTinyLFUCache<Integer, String> cache = new WTinyLFUCache<>(1000, 1, (k, v) -> 10);
+    assertEquals("1", cache.get(1, String::valueOf));
+    assertEquals("1", cache.get(1, k -> {
+      throw new IOException("should not load a cached key");
+    }));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getLoadCount());
+    assertEquals(0.5, cache.getHitRatio(), 0.0001);
+
+    cache.remove(1);
+    assertNull(cache.getIfPresent(1));
+    cache.put(2, "2");
+    assertEquals("2", cache.getIfPresent(2));
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testNullNotCached() throws IOException {
+    WTinyLFUCache<Integer, String> cache = new WTinyLFUCache<>(1000, 1, (k, v) -> 10);
+    assertNull(cache.get(1, k -> null));
+    assertEquals(0, cache.size());
+    assertEquals(2, cache.getLoadCount() + cache.getMissCount());
+  }
+
+  @Test
+  public void testWeightBound() throws IOException {
+    WTinyLFUCache<Integer, String> cache = new WTinyLFUCache<>(1000, 4, (k, v) -> 30);
+    for (int i = 0; i < 1000; i++) {
+      cache.get(i, String::valueOf);
+    }
+    assertTrue(cache.getUsedMemory() <= 1000 + 4 * 30);
+    assertTrue(cache.getEvictionCount() > 0);
+  }
+
+  @Test
+  public void testScanResistance() throws IOException {
+    WTinyLFUCache<Integer, String> cache = new WTinyLFUCache<>(1000, 1, (k, v) -> 10);
+    // the hot set is accessed many times
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 50; i++) {
+        cache.get(i, String::valueOf);
+      }
+    }
+    // a large scan touches every other key once
+    for (int i = 1000; i < 10000; i++) {
+      cache.get(i, String::valueOf);
+    }
+    int hotHit = 0;
+    for (int i = 0; i < 50; i++) {
+      if (cache.getIfPresent(i) != null) {
+        hotHit++;
+      }
+    }
+    // a plain LRU cache would have lost the whole hot set
+    assertTrue(hotHit >= 45);
+  }
+
+  @Test
+  public void testConcurrentLoadOnce() throws Exception {
+    WTinyLFUCache<Integer, String> cache = new WTinyLFUCache<>(1000, (k, v) -> 10);
+    AtomicInteger loadNum = new AtomicInteger();
+    CountDownLatch startLatch = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    List<Future<String>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(pool.submit(() -> {
+        startLatch.await();
+        return cache.get(1, k -> {
+          loadNum.incrementAndGet();
+          try {
+            Thread.sleep(100);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return String.valueOf(k);
+        });
+      }));
+    }
+    startLatch.countDown();
+    for (Future<String> future : futures) {
+      assertEquals("1", future.get());
+    }
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(1, loadNum.get());
+  }
+
+  @Test
+  public void testLoadFailure() {
+    WTinyLFUCache<Integer, String> cache = new WTinyLFUCache<>(1000, 1, (k, v) -> 10);
+    try {
+      cache.get(1, k -> {
+        throw new IOException("disk failure");
+      });
+      fail();
+    } catch (IOException e) {
+      assertEquals("disk failure", e.getMessage());
+    }
+    assertNull(cache.getIfPresent(1));
+  }
+
+  @Test
+  public void testRemoveDuringLoad() throws Exception {
+    WTinyLFUCache<Integer, String> cache = new WTinyLFUCache<>(1000, 1, (k, v) -> 10);
+    CountDownLatch loadingLatch = new CountDownLatch(1);
+    CountDownLatch removedLatch = new CountDownLatch(1);
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    Future<String> future = pool.submit(() -> cache.get(1, k -> {
+      loadingLatch.countDown();
+      try {
+        removedLatch.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return String.valueOf(k);
+    }));
+    loadingLatch.await();
+    cache.remove(1);
+    removedLatch.countDown();
+    // the caller gets the loaded value, but it is not cached as it was invalidated
+    assertEquals("1", future.get());
+    assertNull(cache.getIfPresent(1));
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testRemoveDuringSiblingLoad() throws Exception {
+    WTinyLFUCache<Integer, String> cache = new WTinyLFUCache<>(1000, 1, (k, v) -> 10);
+    CountDownLatch loadingLatch = new CountDownLatch(1);
+    CountDownLatch removedLatch = new CountDownLatch(1);
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    // the loader of key 1 reads the value of key 2 along with it
+    Future<String> future = pool.submit(() -> cache.get(1, k -> {
+      long loadGeneration = cache.getGeneration();
+      loadingLatch.countDown();
+      try {
+        removedLatch.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      cache.put(2, "2", loadGeneration);
+      return String.valueOf(k);
+    }));
+    loadingLatch.await();
+    cache.remove(2);
+    removedLatch.countDown();
+    assertEquals("1", future.get());
+    // the sibling read before the remove is not cached
+    assertNull(cache.getIfPresent(2));
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+    // without an invalidation the sibling is cached
+    cache.get(3, k -> {
+      cache.put(4, "4", cache.getGeneration());
+      return String.valueOf(k);
+    });
+    assertEquals("4", cache.getIfPresent(4));
+  }
+
+  @Test
+  public void testAdmissionAgainstAllVictims() throws IOException {
+    WTinyLFUCache<Integer, Integer> cache = new WTinyLFUCache<>(1000, 1, (k, v) -> v);
+    // a cold entry is the first victim, the hot entries after it fill the main space
+    cache.put(0, 10);
+    for (int i = 1; i < 98; i++) {
+      cache.put(i, 10);
+    }
+    for (int j = 0; j < 6; j++) {
+      for (int i = 1; i < 98; i++) {
+        cache.getIfPresent(i);
+      }
+    }
+    // the large candidate is accessed more often than the cold entry but less often than the
+    // hot entries it would evict, it leaves the window when the next entry is put
+    assertNull(cache.getIfPresent(1000));
+    cache.put(1000, 500);
+    cache.put(1001, 1);
+    assertNull(cache.getIfPresent(1000));
+    for (int i = 1; i < 97; i++) {
+      assertEquals(10, (int) cache.getIfPresent(i));
+    }
+  }
+}
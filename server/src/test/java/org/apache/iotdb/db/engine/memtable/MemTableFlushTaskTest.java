@@ -20,12 +20,17 @@ package org.apache.iotdb.db.engine.memtable;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import org.apache.iotdb.db.conf.adapter.ActiveTimeSeriesCounter;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.MetadataManagerHelper;
+import org.apache.iotdb.db.engine.flush.FlushManager;
 import org.apache.iotdb.db.engine.flush.MemTableFlushTask;
+import org.apache.iotdb.db.engine.flush.pool.FlushSubTaskPoolManager;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
@@ -82,4 +87,62 @@ public class MemTableFlushTaskTest {
     assertEquals(MemTableTestUtils.dataType0, chunkMetaData.getDataType());
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFlushManySeries() throws ExecutionException, InterruptedException {
+    int deviceNum = 5;
+    int measurementNum = 20;
+    for (int i = 0; i < deviceNum; i++) {
+      for (int j = 0; j < measurementNum; j++) {
+        // write in reversed order so that every series has to be sorted
+        MemTableTestUtils.produceData(memTable, endTime, endTime, "d" + i, "s" + j,
+            MemTableTestUtils.dataType0);
+        MemTableTestUtils.produceData(memTable, startTime, endTime - 1, "d" + i, "s" + j,
+            MemTableTestUtils.dataType0);
+      }
+    }
+    long flushedNum = FlushManager.getInstance().getNumberOfFlushedMemTables();
+    MemTableFlushTask memTableFlushTask = new MemTableFlushTask(memTable, writer, storageGroup);
+    memTableFlushTask.syncFlushMemTable();
+    writer.makeMetadataVisible();
+
+    for (int i = 0; i < deviceNum; i++) {
+      for (int j = 0; j < measurementNum; j++) {
+        List<ChunkMetadata> chunkMetadataList = writer
+            .getVisibleMetadataList("d" + i, "s" + j, MemTableTestUtils.dataType0);
+        assertEquals(1, chunkMetadataList.size());
+        assertEquals(startTime, chunkMetadataList.get(0).getStartTime());
+        assertEquals(endTime, chunkMetadataList.get(0).getEndTime());
+        assertEquals(endTime - startTime + 1, chunkMetadataList.get(0).getNumOfPoints());
+      }
+    }
+    assertEquals(flushedNum + 1, FlushManager.getInstance().getNumberOfFlushedMemTables());
+  }
+
+  @Test
+  public void testFlushAfterEncodingPoolRestarted()
+      throws ExecutionException, InterruptedException {
+    FlushSubTaskPoolManager poolManager = FlushSubTaskPoolManager.getInstance();
+    poolManager.stop();
+    try {
+      // the stopped pool rejects the encoding tasks and can still be monitored
+      assertEquals(0, poolManager.getWaitingEncodingTasksNumber());
+      try {
+        poolManager.submitEncodingTask(() -> null);
+        fail();
+      } catch (RejectedExecutionException e) {
+        // expected
+      }
+    } finally {
+      poolManager.start();
+    }
+    MemTableTestUtils.produceData(memTable, startTime, endTime, MemTableTestUtils.deviceId0,
+        MemTableTestUtils.measurementId0,
+        MemTableTestUtils.dataType0);
+    new MemTableFlushTask(memTable, writer, storageGroup).syncFlushMemTable();
+    writer.makeMetadataVisible();
+    assertEquals(1, writer
+        .getVisibleMetadataList(MemTableTestUtils.deviceId0, MemTableTestUtils.measurementId0,
+            MemTableTestUtils.dataType0).size());
+  }
+}
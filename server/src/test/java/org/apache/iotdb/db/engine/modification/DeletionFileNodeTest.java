@@ -30,7 +30,7 @@ import java.util.Collection;
 import java.util.List;
 import org.apache.iotdb.db.conf.directories.DirectoryManager;
 import org.apache.iotdb.db.engine.StorageEngine;
-import org.apache.iotdb.db.engine.modification.io.LocalTextModificationAccessor;
+import org.apache.iotdb.db.engine.modification.io.LocalBinaryModificationAccessor;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
@@ -154,8 +154,8 @@ public class DeletionFileNodeTest {
 
     assertEquals(1, modFiles.size());
 
-    LocalTextModificationAccessor accessor =
-        new LocalTextModificationAccessor(modFiles.get(0).getPath());
+    LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(modFiles.get(0).getPath());
     try {
       Collection<Modification> modifications = accessor.read();
       assertEquals(3, modifications.size());
@@ -266,8 +266,8 @@ public class DeletionFileNodeTest {
     }
     assertEquals(1, modFiles.size());
 
-    LocalTextModificationAccessor accessor =
-        new LocalTextModificationAccessor(modFiles.get(0).getPath());
+    LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(modFiles.get(0).getPath());
     Collection<Modification> modifications = accessor.read();
     assertEquals(3, modifications.size());
     int i = 0;
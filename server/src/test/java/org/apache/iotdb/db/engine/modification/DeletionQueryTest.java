@@ -24,6 +24,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.apache.iotdb.db.engine.StorageEngine;
@@ -34,6 +35,7 @@ import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.RawDataQueryPlan;
+import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.executor.QueryRouter;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
@@ -324,4 +326,59 @@ public class DeletionQueryTest {
     }
     assertEquals(100, count);
   }
+
+  @Test
+  public void testRangeDeletion()
+      throws StorageEngineException, IOException, QueryProcessException {
+    for (int i = 1; i <= 100; i++) {
+      TSRecord record = new TSRecord(i, processorName);
+      for (int j = 0; j < 10; j++) {
+        record.addTuple(new DoubleDataPoint(measurements[j], i * 1.0));
+      }
+      StorageEngine.getInstance().insert(new InsertPlan(record));
+    }
+
+    // delete in the working MemTable
+    StorageEngine.getInstance().delete(processorName, measurements[3], 20, 30);
+    StorageEngine.getInstance().delete(processorName, measurements[3], 40, 50);
+    StorageEngine.getInstance().delete(processorName, measurements[4], 95, Long.MAX_VALUE);
+    List<Long> times = queryTimes(measurements[3]);
+    assertEquals(78, times.size());
+    assertEquals(Arrays.asList(19L, 31L, 39L, 51L),
+        Arrays.asList(times.get(18), times.get(19), times.get(27), times.get(28)));
+    times = queryTimes(measurements[4]);
+    assertEquals(94, times.size());
+    assertEquals(94L, (long) times.get(93));
+
+    StorageEngine.getInstance().syncCloseAllProcessor();
+
+    // delete in the sealed file
+    StorageEngine.getInstance().delete(processorName, measurements[3], 60, 70);
+    StorageEngine.getInstance().delete(processorName, measurements[3], 1, 10);
+    StorageEngine.getInstance().delete(processorName, measurements[4], Long.MIN_VALUE, 5);
+    times = queryTimes(measurements[3]);
+    assertEquals(57, times.size());
+    assertEquals(Arrays.asList(11L, 59L, 71L),
+        Arrays.asList(times.get(0), times.get(26), times.get(27)));
+    times = queryTimes(measurements[4]);
+    assertEquals(89, times.size());
+    assertEquals(6L, (long) times.get(0));
+  }
+
+  private List<Long> queryTimes(String measurement)
+      throws StorageEngineException, IOException, QueryProcessException {
+    RawDataQueryPlan queryPlan = new RawDataQueryPlan();
+    queryPlan.setDeduplicatedDataTypes(Collections.singletonList(TSDataType.valueOf(dataType)));
+    queryPlan.setDeduplicatedPaths(
+        Collections.singletonList(new Path(processorName, measurement)));
+    // a new context, as the modifications are cached in a context
+    QueryDataSet dataSet = router
+        .rawDataQuery(queryPlan, new QueryContext(EnvironmentUtils.TEST_QUERY_JOB_ID));
+
+    List<Long> times = new ArrayList<>();
+    while (dataSet.hasNext()) {
+      times.add(dataSet.next().getTimestamp());
+    }
+    return times;
+  }
 }
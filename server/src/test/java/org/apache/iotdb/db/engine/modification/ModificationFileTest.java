@@ -20,13 +20,19 @@
 package org.apache.iotdb.db.engine.modification;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.modification.io.LocalBinaryModificationAccessor;
+import org.apache.iotdb.db.engine.modification.io.LocalTextModificationAccessor;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -65,6 +71,70 @@ public class ModificationFileTest {
     }
   }
 
+  @Test
+  public void readMyWriteRange() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    List<Modification> modifications = Arrays.asList(
+        new Deletion(new Path("d1", "s1"), 1, 10, 20),
+        new Deletion(new Path("d1", "s2"), 2, Long.MIN_VALUE, 30),
+        new Deletion(new Path("d1", "s1"), 3, 40, Long.MAX_VALUE));
+    ModificationFile mFile = new ModificationFile(tempFileName);
+    try {
+      for (Modification modification : modifications) {
+        mFile.write(modification);
+      }
+      assertEquals(modifications, mFile.getModifications());
+      // the cached modifications are dropped by close() and read again from the file
+      mFile.close();
+      assertEquals(modifications, mFile.getModifications());
+      assertEquals(Arrays.asList(modifications.get(0), modifications.get(2)),
+          mFile.getModifications("d1.s1"));
+    } finally {
+      mFile.close();
+      new File(tempFileName).delete();
+    }
+  }
+
+  @Test
+  public void testPathModifications() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+      mFile.write(new Deletion(new Path("d1", "s1"), 1, 10));
+      mFile.write(new Deletion(new Path("d1", "s2"), 2, 20, 30));
+      mFile.write(new Deletion(new Path("d1", "s1"), 3, 40, 50));
+      mFile.abort();
+      mFile.write(new Deletion(new Path("d1", "s1"), 4, 60, 70));
+    }
+    try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+      assertEquals(Arrays.asList(new Deletion(new Path("d1", "s1"), 1, 10),
+          new Deletion(new Path("d1", "s1"), 4, 60, 70)), mFile.getModifications("d1.s1"));
+      assertEquals(Collections.singletonList(new Deletion(new Path("d1", "s2"), 2, 20, 30)),
+          mFile.getModifications("d1.s2"));
+      assertTrue(mFile.getModifications("d1.s3").isEmpty());
+    } finally {
+      new File(tempFileName).delete();
+    }
+  }
+
+  @Test
+  public void testLegacyTextFile() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    try (LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(tempFileName)) {
+      accessor.write(new Deletion(new Path("d1", "s1"), 1, 10));
+    }
+    // the modification files of older versions are still appended in text
+    try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+      mFile.write(new Deletion(new Path("d1", "s1"), 2, 20, 30));
+    }
+    assertFalse(LocalBinaryModificationAccessor.isBinaryFile(tempFileName));
+    try (ModificationFile mFile = new ModificationFile(tempFileName)) {
+      assertEquals(Arrays.asList(new Deletion(new Path("d1", "s1"), 1, 10),
+          new Deletion(new Path("d1", "s1"), 2, 20, 30)), mFile.getModifications("d1.s1"));
+    } finally {
+      new File(tempFileName).delete();
+    }
+  }
+
   @Test
   public void testAbort() {
     String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
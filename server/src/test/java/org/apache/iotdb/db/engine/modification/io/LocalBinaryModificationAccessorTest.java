@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.modification.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.junit.After;
+import org.junit.Test;
+
+public class LocalBinaryModificationAccessorTest {
+
+  private String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+
+  private Modification[] modifications = new Modification[]{
+      new Deletion(new Path("d1", "s1"), 1, 1),
+      new Deletion(new Path("d1", "s2"), 2, 2, 20),
+      new Deletion(new Path("d1", "s1"), 3, 30, Long.MAX_VALUE),
+      new Deletion(new Path("d1", "s4"), 4, Long.MIN_VALUE, 4),
+  };
+
+  @After
+  public void tearDown() {
+    new File(tempFileName).delete();
+  }
+
+  @Test
+  public void readMyWrite() {
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(tempFileName)) {
+      for (int i = 0; i < 2; i++) {
+        accessor.write(modifications[i]);
+      }
+      List<Modification> modificationList = (List<Modification>) accessor.read();
+      assertEquals(Arrays.asList(modifications).subList(0, 2), modificationList);
+
+      for (int i = 2; i < 4; i++) {
+        accessor.write(modifications[i]);
+      }
+      modificationList = (List<Modification>) accessor.read();
+      assertEquals(Arrays.asList(modifications), modificationList);
+    } catch (IOException e) {
+      fail(e.getMessage());
+    }
+
+    // the ids of the paths are restored by another accessor
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(tempFileName)) {
+      Deletion deletion = new Deletion(new Path("d1", "s2"), 5, 50, 60);
+      accessor.write(deletion);
+      List<Modification> modificationList = (List<Modification>) accessor.read();
+      assertEquals(5, modificationList.size());
+      assertEquals(deletion, modificationList.get(4));
+    } catch (IOException e) {
+      fail(e.getMessage());
+    }
+    assertTrue(LocalBinaryModificationAccessor.isBinaryFile(tempFileName));
+  }
+
+  @Test
+  public void testAbort() throws IOException {
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(tempFileName)) {
+      for (Modification modification : modifications) {
+        accessor.write(modification);
+      }
+      accessor.abort();
+    }
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(tempFileName)) {
+      assertEquals(Arrays.asList(modifications).subList(0, 3), accessor.read());
+    }
+  }
+
+  @Test
+  public void testIncompleteRecord() throws IOException {
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(tempFileName)) {
+      for (int i = 0; i < 2; i++) {
+        accessor.write(modifications[i]);
+      }
+    }
+    // a crash leaves the last record incomplete
+    try (RandomAccessFile file = new RandomAccessFile(tempFileName, "rw")) {
+      file.setLength(file.length() - 3);
+    }
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(tempFileName)) {
+      assertEquals(Arrays.asList(modifications).subList(0, 1), accessor.read());
+      // the incomplete record is cut off before the next one
+      accessor.write(modifications[2]);
+    }
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(tempFileName)) {
+      assertEquals(Arrays.asList(modifications[0], modifications[2]), accessor.read());
+    }
+  }
+
+  @Test
+  public void testTextFile() throws IOException {
+    try (LocalTextModificationAccessor accessor =
+        new LocalTextModificationAccessor(tempFileName)) {
+      accessor.write(modifications[0]);
+    }
+    assertFalse(LocalBinaryModificationAccessor.isBinaryFile(tempFileName));
+    try (LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(tempFileName)) {
+      assertEquals(new ArrayList<>(), accessor.read());
+      accessor.write(modifications[1]);
+      fail();
+    } catch (IOException e) {
+      // a text file is never written in binary
+    }
+  }
+
+  @Test
+  public void readNull() {
+    LocalBinaryModificationAccessor accessor =
+        new LocalBinaryModificationAccessor(tempFileName);
+    new File(tempFileName).delete();
+    Collection<Modification> modifications = accessor.read();
+    assertEquals(new ArrayList<>(), modifications);
+    assertTrue(LocalBinaryModificationAccessor.isBinaryFile(tempFileName));
+  }
+}
@@ -24,6 +24,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -69,6 +70,46 @@ public class LocalTextModificationAccessorTest {
     }
   }
 
+  @Test
+  public void readMyWriteRange() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    Modification[] modifications = new Modification[]{
+        new Deletion(new Path("d1", "s1"), 1, 10, 20),
+        new Deletion(new Path("d1", "s2"), 2, Long.MIN_VALUE, 30),
+        new Deletion(new Path("d1", "s3"), 3, 40, Long.MAX_VALUE),
+    };
+    try (LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(tempFileName)) {
+      for (Modification modification : modifications) {
+        accessor.write(modification);
+      }
+      List<Modification> modificationList = (List<Modification>) accessor.read();
+      assertEquals(modifications.length, modificationList.size());
+      for (int i = 0; i < modifications.length; i++) {
+        assertEquals(modifications[i], modificationList.get(i));
+      }
+    } finally {
+      new File(tempFileName).delete();
+    }
+  }
+
+  @Test
+  public void readLegacyDeletion() throws IOException {
+    String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
+    // the deletions of older versions have no start time
+    try (FileWriter writer = new FileWriter(tempFileName)) {
+      writer.write("DELETION,d1.s1,1,100" + System.lineSeparator());
+    }
+    try (LocalTextModificationAccessor accessor = new LocalTextModificationAccessor(tempFileName)) {
+      accessor.write(new Deletion(new Path("d1", "s1"), 2, 200, 300));
+      List<Modification> modificationList = (List<Modification>) accessor.read();
+      assertEquals(new Deletion(new Path("d1", "s1"), 1, Long.MIN_VALUE, 100),
+          modificationList.get(0));
+      assertEquals(new Deletion(new Path("d1", "s1"), 2, 200, 300), modificationList.get(1));
+    } finally {
+      new File(tempFileName).delete();
+    }
+  }
+
   @Test
   public void readNull() throws IOException {
     String tempFileName = TestConstant.BASE_OUTPUT_PATH.concat("mod.temp");
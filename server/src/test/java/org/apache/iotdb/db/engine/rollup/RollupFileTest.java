@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.junit.After;
+import org.junit.Test;
+
+public class RollupFileTest {
+
+  private File tsFile = new File("target", "rollupFileTest.tsfile");
+
+  @After
+  public void tearDown() throws IOException {
+    RollupFile.delete(tsFile);
+  }
+
+  @Test
+  public void testReadAfterAppend() throws IOException {
+    // the first flush
+    RollupFile.append(tsFile, Arrays.asList(rollup("root.sg.d1", "s1", 10, 0, 25),
+        rollup("root.sg.d1", "s1", 100, 0, 25), rollup("root.sg.d2", "s1", 10, 0, 5)));
+    List<Statistics> buckets = RollupFile.read(tsFile, "root.sg.d1", "s1", 10);
+    assertEquals(3, buckets.size());
+    assertEquals(5, buckets.get(2).getCount());
+    assertEquals(1, RollupFile.read(tsFile, "root.sg.d2", "s1", 10).size());
+    assertNull(RollupFile.read(tsFile, "root.sg.d1", "s2", 10));
+    assertNull(RollupFile.read(tsFile, "root.sg.d1", "s1", 1000));
+
+    // the second flush continues the last bucket of the first one
+    RollupFile.append(tsFile, Arrays.asList(rollup("root.sg.d1", "s1", 10, 25, 40),
+        rollup("root.sg.d1", "s1", 100, 25, 40)));
+    buckets = RollupFile.read(tsFile, "root.sg.d1", "s1", 10);
+    assertEquals(4, buckets.size());
+    assertEquals(10, buckets.get(2).getCount());
+    assertEquals(40, RollupFile.read(tsFile, "root.sg.d1", "s1", 100).get(0).getCount());
+    assertEquals(1, RollupFile.read(tsFile, "root.sg.d2", "s1", 10).size());
+
+    RollupFile.delete(tsFile);
+    assertNull(RollupFile.read(tsFile, "root.sg.d1", "s1", 10));
+  }
+
+  /**
+   * a rollup of the points at [startTime, endTime)
+   */
+  private SeriesRollup rollup(String device, String measurement, long interval, long startTime,
+      long endTime) {
+    SeriesRollup rollup = new SeriesRollup(device, measurement, interval, TSDataType.INT64);
+    BatchData batchData = new BatchData(TSDataType.INT64);
+    for (long time = startTime; time < endTime; time++) {
+      batchData.putLong(time, time);
+    }
+    while (batchData.hasCurrent()) {
+      rollup.update(batchData);
+      batchData.next();
+    }
+    return rollup;
+  }
+}
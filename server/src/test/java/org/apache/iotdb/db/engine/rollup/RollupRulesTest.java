@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.rollup;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RollupRulesTest {
+
+  @Test
+  public void testParse() {
+    RollupRules rules = RollupRules
+        .parse("root.ln.*.temperature=1m,1h; root.ln.wf01=1000,1m ;root.sg=1d", "ms");
+    assertArrayEquals(new long[]{1000, 60_000, 3600_000},
+        rules.getIntervals("root.ln.wf01", "temperature"));
+    assertArrayEquals(new long[]{60_000, 3600_000},
+        rules.getIntervals("root.ln.wf02", "temperature"));
+    assertArrayEquals(new long[]{1000, 60_000}, rules.getIntervals("root.ln.wf01", "status"));
+    assertArrayEquals(new long[0], rules.getIntervals("root.ln.wf02", "status"));
+    assertArrayEquals(new long[0], rules.getIntervals("root.ln", "temperature"));
+    assertArrayEquals(new long[]{86400_000}, rules.getIntervals("root.sg.d1.d2", "s1"));
+
+    assertArrayEquals(new long[]{60_000_000},
+        RollupRules.parse("root.sg=1m", "us").getIntervals("root.sg.d1", "s1"));
+    assertTrue(RollupRules.parse(" ", "ms").isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalInterval() {
+    RollupRules.parse("root.sg=1x", "ms");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalPath() {
+    RollupRules.parse("sg=1h", "ms");
+  }
+
+  @Test
+  public void testCoarsestAlignedInterval() {
+    RollupRules rules = RollupRules.parse("root.sg=10,100,1000", "ms");
+    assertEquals(1000, rules.getCoarsestAlignedInterval("root.sg.d1", "s1", 0, 3000, 3000));
+    assertEquals(100, rules.getCoarsestAlignedInterval("root.sg.d1", "s1", 0, 3000, 300));
+    assertEquals(100, rules.getCoarsestAlignedInterval("root.sg.d1", "s1", -200, 1000, 1000));
+    assertEquals(10, rules.getCoarsestAlignedInterval("root.sg.d1", "s1", 50, 1000, 1000));
+    assertEquals(0, rules.getCoarsestAlignedInterval("root.sg.d1", "s1", 5, 1000, 1000));
+    assertEquals(0, rules.getCoarsestAlignedInterval("root.other.d1", "s1", 0, 1000, 1000));
+  }
+}
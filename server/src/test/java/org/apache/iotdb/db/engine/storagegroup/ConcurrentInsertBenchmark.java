@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.exception.metadata.MetadataException;
+import org.apache.iotdb.db.metadata.MManager;
+import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+
+/**
+ * Bench the inserts of one storage group with one writer and with many writers, each writer
+ * inserts to its own devices.
+ */
+public class ConcurrentInsertBenchmark {
+
+  private static int numOfWorker = 8;
+  private static int numOfDevice = 64;
+  private static int numOfMeasurement = 10;
+  private static long numOfLinePerDevice = 100000;
+
+  private static String[] devices = new String[numOfDevice];
+  private static String prefix = "root.bench";
+  private static String[] measurements = new String[numOfMeasurement];
+
+  static {
+    for (int i = 0; i < numOfDevice; i++) {
+      devices[i] = prefix + "." + "device_" + i;
+    }
+  }
+
+  static {
+    for (int i = 0; i < numOfMeasurement; i++) {
+      measurements[i] = "measurement_" + i;
+    }
+  }
+
+  private static void prepare() throws MetadataException {
+    MManager manager = MManager.getInstance();
+    manager.setStorageGroup(prefix);
+    for (String device : devices) {
+      for (String measurement : measurements) {
+        manager.createTimeseries(device + "." + measurement, TSDataType.INT64.toString(),
+            TSEncoding.PLAIN.toString());
+      }
+    }
+  }
+
+  private static void tearDown() throws IOException, StorageEngineException {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  public static void main(String[] args)
+      throws InterruptedException, IOException, MetadataException, StorageEngineException {
+    bench(1);
+    bench(numOfWorker);
+  }
+
+  private static void bench(int workerNum)
+      throws InterruptedException, IOException, MetadataException, StorageEngineException {
+    tearDown();
+    prepare();
+    CountDownLatch latch = new CountDownLatch(workerNum);
+    long startTime = System.currentTimeMillis();
+    for (int i = 0; i < workerNum; i++) {
+      new Worker(i, workerNum, latch).start();
+    }
+    latch.await();
+    long elapsedTime = System.currentTimeMillis() - startTime;
+    System.out.println(String.format("%d writer(s), elapsed time: %dms, %d points/s", workerNum,
+        elapsedTime, numOfDevice * numOfLinePerDevice * numOfMeasurement * 1000
+            / Math.max(elapsedTime, 1)));
+    tearDown();
+  }
+
+  private static TSRecord getRecord(String deviceId, long timestamp) {
+    TSRecord tsRecord = new TSRecord(timestamp, deviceId);
+    for (String measurement : measurements) {
+      tsRecord.addTuple(new LongDataPoint(measurement, timestamp));
+    }
+    return tsRecord;
+  }
+
+  private static class Worker extends Thread {
+
+    private int index;
+    private int workerNum;
+    private CountDownLatch latch;
+
+    private Worker(int index, int workerNum, CountDownLatch latch) {
+      this.index = index;
+      this.workerNum = workerNum;
+      this.latch = latch;
+    }
+
+    @Override
+    public void run() {
+      try {
+        for (long time = 1; time <= numOfLinePerDevice; time++) {
+          for (int i = index; i < numOfDevice; i += workerNum) {
+            StorageEngine.getInstance().insert(new InsertPlan(getRecord(devices[i], time)));
+          }
+        }
+      } catch (StorageEngineException e) {
+        e.printStackTrace();
+      } finally {
+        latch.countDown();
+      }
+    }
+  }
+}
@@ -29,6 +29,7 @@ import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.StorageGroupProcessorException;
 import org.apache.iotdb.db.exception.WriteProcessException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.qp.physical.crud.BatchInsertPlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.query.context.QueryContext;
@@ -52,6 +53,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertFalse;
@@ -284,6 +288,60 @@ public class StorageGroupProcessorTest {
     }
   }
 
+  @Test
+  public void testConcurrentInsertToDifferentDevices() throws Exception {
+    int deviceNum = 4;
+    int pointNum = 1000;
+    for (int i = 0; i < deviceNum; i++) {
+      MManager.getInstance().createTimeseries(deviceId + ".g" + i + "." + measurementId,
+          TSDataType.INT32.toString(), TSEncoding.RLE.toString());
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(deviceNum);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < deviceNum; i++) {
+        String device = deviceId + ".g" + i;
+        futures.add(pool.submit(() -> {
+          for (int j = 1; j <= pointNum; j++) {
+            TSRecord record = new TSRecord(j, device);
+            record.addTuple(
+                DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+            processor.insert(new InsertPlan(record));
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    Assert.assertEquals(1, processor.getWorkSequenceTsFileProcessors().size());
+    TsFileProcessor tsFileProcessor = processor.getWorkSequenceTsFileProcessors().iterator().next();
+    for (int i = 0; i < deviceNum; i++) {
+      List<ReadOnlyMemChunk> memChunks = tsFileProcessor
+          .query(deviceId + ".g" + i, measurementId, TSDataType.INT32, TSEncoding.RLE,
+              Collections.emptyMap(), new QueryContext()).left;
+      long time = 1;
+      for (ReadOnlyMemChunk memChunk : memChunks) {
+        IPointReader iterator = memChunk.getPointReader();
+        while (iterator.hasNextTimeValuePair()) {
+          Assert.assertEquals(time++, iterator.nextTimeValuePair().getTimestamp());
+        }
+      }
+      Assert.assertEquals(pointNum + 1, time);
+    }
+
+    processor.syncCloseAllWorkingTsFileProcessors();
+    TsFileResource resource = processor.getSequenceFileTreeSet().get(0);
+    for (int i = 0; i < deviceNum; i++) {
+      Assert.assertEquals(1L, (long) resource.getStartTimeMap().get(deviceId + ".g" + i));
+      Assert.assertEquals(pointNum, (long) resource.getEndTimeMap().get(deviceId + ".g" + i));
+    }
+  }
+
   class DummySGP extends StorageGroupProcessor {
 
     DummySGP(String systemInfoDir, String storageGroupName) throws StorageGroupProcessorException {
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.iotdb.tsfile.read.filter.GroupByFilter;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+import org.junit.Test;
+
+public class TsFileResourceIntervalIndexTest {
+
+  private static final String DEVICE = "root.sg.d1";
+
+  @Test
+  public void testOverlappedResources() {
+    Random random = new Random(10);
+    List<TsFileResource> resources = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      TsFileResource resource = new TsFileResource(new File("0", i + "-0-0.tsfile"));
+      long startTime = random.nextInt(100000);
+      // every third file does not contain the device
+      String device = i % 3 == 0 ? "root.sg.d2" : DEVICE;
+      resource.updateStartTime(device, startTime);
+      resource.updateEndTime(device, startTime + random.nextInt(1000));
+      resource.setClosed(true);
+      resources.add(resource);
+    }
+
+    TsFileResourceIntervalIndex index = new TsFileResourceIntervalIndex();
+    for (int i = 0; i < 200; i++) {
+      long startTime = random.nextInt(110000) - 5000;
+      long endTime = startTime + random.nextInt(3000);
+      List<TsFileResource> expected = new ArrayList<>();
+      for (TsFileResource resource : resources) {
+        Long resourceStartTime = resource.getStartTimeMap().get(DEVICE);
+        if (resourceStartTime != null && resourceStartTime <= endTime
+            && resource.getEndTimeMap().get(DEVICE) >= startTime) {
+          expected.add(resource);
+        }
+      }
+      assertEquals(expected, index.getOverlappedResources(resources, DEVICE, startTime, endTime));
+    }
+    assertTrue(index.getOverlappedResources(resources, DEVICE, 10, 9).isEmpty());
+    assertTrue(index.getOverlappedResources(resources, "root.sg.d3", 0, 100000).isEmpty());
+  }
+
+  @Test
+  public void testUnsealedAndInvalidate() {
+    List<TsFileResource> resources = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      TsFileResource resource = new TsFileResource(new File("0", i + "-0-0.tsfile"));
+      resource.updateStartTime(DEVICE, i * 100L);
+      resource.updateEndTime(DEVICE, i * 100L + 50);
+      resource.setClosed(true);
+      resources.add(resource);
+    }
+    TsFileResource unsealed = new TsFileResource(new File("0", "3-0-0.tsfile"));
+    resources.add(unsealed);
+
+    TsFileResourceIntervalIndex index = new TsFileResourceIntervalIndex();
+    List<TsFileResource> result = index.getOverlappedResources(resources, DEVICE, 160, 1000);
+    assertEquals(2, result.size());
+    assertEquals(resources.get(2), result.get(0));
+    // an unsealed file is always a candidate
+    assertEquals(unsealed, result.get(1));
+
+    unsealed.updateStartTime(DEVICE, 300);
+    unsealed.updateEndTime(DEVICE, 350);
+    unsealed.setClosed(true);
+    resources.remove(2);
+    index.invalidate();
+    result = index.getOverlappedResources(resources, DEVICE, 160, 1000);
+    assertEquals(1, result.size());
+    assertEquals(unsealed, result.get(0));
+    assertTrue(index.getOverlappedResources(resources, DEVICE, 400, 1000).isEmpty());
+  }
+
+  @Test
+  public void testIncrementalUpdate() {
+    // files are appended and then closed one by one, the index updated incrementally must give
+    // the same result as an index rebuilt from the file list
+    Random random = new Random(11);
+    List<TsFileResource> resources = new ArrayList<>();
+    TsFileResourceIntervalIndex index = new TsFileResourceIntervalIndex();
+    index.getOverlappedResources(resources, DEVICE, 0, 0);
+    for (int i = 0; i < 100; i++) {
+      TsFileResource resource = new TsFileResource(new File("0", i + "-0-0.tsfile"));
+      resources.add(resource);
+      index.addUnsealedResource(resources, resource);
+      assertEquals(resource, index.getOverlappedResources(resources, DEVICE, -1, -1).get(0));
+
+      long startTime = random.nextInt(10000);
+      resource.updateStartTime(i % 3 == 0 ? "root.sg.d2" : DEVICE, startTime);
+      resource.updateEndTime(i % 3 == 0 ? "root.sg.d2" : DEVICE, startTime + random.nextInt(500));
+      resource.setClosed(true);
+      index.sealResource(resource);
+
+      long queryStartTime = random.nextInt(10000);
+      long queryEndTime = queryStartTime + random.nextInt(1000);
+      TsFileResourceIntervalIndex rebuilt = new TsFileResourceIntervalIndex();
+      assertEquals(rebuilt.getOverlappedResources(resources, DEVICE, queryStartTime, queryEndTime),
+          index.getOverlappedResources(resources, DEVICE, queryStartTime, queryEndTime));
+    }
+    assertTrue(index.getOverlappedResources(resources, DEVICE, -1, -1).isEmpty());
+  }
+
+  @Test
+  public void testTimeRange() {
+    assertArrayEquals(new long[]{Long.MIN_VALUE, Long.MAX_VALUE},
+        TsFileResourceIntervalIndex.getTimeRange(null));
+    assertArrayEquals(new long[]{Long.MIN_VALUE, Long.MAX_VALUE},
+        TsFileResourceIntervalIndex.getTimeRange(ValueFilter.gt(10L)));
+    assertArrayEquals(new long[]{11, 19}, TsFileResourceIntervalIndex
+        .getTimeRange(FilterFactory.and(TimeFilter.gt(10L), TimeFilter.lt(20L))));
+    assertArrayEquals(new long[]{Long.MIN_VALUE, 20}, TsFileResourceIntervalIndex
+        .getTimeRange(FilterFactory.or(TimeFilter.eq(10L), TimeFilter.ltEq(20L))));
+    assertArrayEquals(new long[]{5, Long.MAX_VALUE}, TsFileResourceIntervalIndex
+        .getTimeRange(FilterFactory.and(TimeFilter.gtEq(5L), ValueFilter.lt(3))));
+    assertArrayEquals(new long[]{100, 200},
+        TsFileResourceIntervalIndex.getTimeRange(new GroupByFilter(10, 10, 100, 200)));
+  }
+}
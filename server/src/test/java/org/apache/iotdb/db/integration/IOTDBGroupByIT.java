@@ -28,6 +28,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.apache.iotdb.db.constant.TestConstant.*;
 import static org.junit.Assert.fail;
@@ -559,6 +561,64 @@ public class IOTDBGroupByIT {
     }
   }
 
+  @Test
+  public void slidingStepSmallerThanIntervalTest() {
+    String selectClause = "select count(temperature), sum(temperature), avg(temperature), "
+        + "max_value(temperature), min_value(temperature), first_value(temperature), "
+        + "last_value(temperature), max_time(temperature), min_time(temperature) "
+        + "from root.ln.wf01.wt01 ";
+    try (Connection connection = DriverManager.
+        getConnection("jdbc:iotdb://127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      for (String whereClause : new String[]{"", "where temperature > 3 "}) {
+        // each overlapped interval equals the group by of that interval only
+        List<String> actual = queryRows(statement,
+            selectClause + whereClause + "GROUP BY ([0, 650), 70ms, 20ms)");
+        Assert.assertEquals(33, actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+          long startTime = i * 20L;
+          List<String> expected = queryRows(statement, selectClause + whereClause
+              + "GROUP BY ([" + startTime + ", " + Math.min(startTime + 70, 650) + "), 70ms)");
+          Assert.assertEquals(1, expected.size());
+          assertRowEquals(expected.get(0), actual.get(i));
+        }
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail(e.getMessage());
+    }
+  }
+
+  private List<String> queryRows(Statement statement, String sql) throws SQLException {
+    List<String> rows = new ArrayList<>();
+    try (ResultSet resultSet = statement.executeQuery(sql)) {
+      int columnCount = resultSet.getMetaData().getColumnCount();
+      while (resultSet.next()) {
+        StringBuilder builder = new StringBuilder(resultSet.getString(TIMESTAMP_STR));
+        for (int i = 2; i <= columnCount; i++) {
+          builder.append(",").append(resultSet.getString(i));
+        }
+        rows.add(builder.toString());
+      }
+    }
+    return rows;
+  }
+
+  private void assertRowEquals(String expected, String actual) {
+    String[] expectedFields = expected.split(",");
+    String[] actualFields = actual.split(",");
+    Assert.assertEquals(expected, expectedFields.length, actualFields.length);
+    for (int i = 0; i < expectedFields.length; i++) {
+      if ("null".equals(expectedFields[i])) {
+        Assert.assertEquals(expected + " vs " + actual, expectedFields[i], actualFields[i]);
+      } else {
+        // the sum and avg of the segments are added in a different order
+        Assert.assertEquals(expected + " vs " + actual, Double.parseDouble(expectedFields[i]),
+            Double.parseDouble(actualFields[i]), 1e-6);
+      }
+    }
+  }
+
   private void prepareData() {
     try (Connection connection = DriverManager
         .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root",
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.cache.BloomFilterManager;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Skip the sealed files whose resident bloom filters reject the queried series, and keep the
+ * bloom filters consistent with the files rewritten by merges.
+ */
+public class IoTDBBloomFilterIT {
+
+  private static final int SERIES_NUM = 4;
+  private static final int POINT_NUM = 10;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    EnvironmentUtils.envSetUp();
+    Class.forName(Config.JDBC_DRIVER_NAME);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void skipFilesTest() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      // every series of the device is in its own sequence file
+      for (int s = 0; s < SERIES_NUM; s++) {
+        statement.execute(String.format(
+            "CREATE TIMESERIES root.sg.d0.s%d WITH DATATYPE=INT64, ENCODING=PLAIN", s));
+        insertData(statement, s, s * POINT_NUM);
+        statement.execute("flush");
+      }
+      List<TsFileResource> seqFiles = StorageEngine.getInstance().getProcessor("root.sg")
+          .getSequenceFileTreeSet();
+      assertEquals(SERIES_NUM, seqFiles.size());
+      for (TsFileResource seqFile : seqFiles) {
+        assertNotNull(seqFile.getBloomFilter());
+        assertTrue(seqFile.getFileMetadataSize() > 0);
+      }
+
+      BloomFilterManager manager = BloomFilterManager.getInstance();
+      long checkNum = manager.getCheckNum();
+      long rejectNum = manager.getRejectNum();
+      long falsePositiveNum = manager.getFalsePositiveNum();
+      long savedBytes = manager.getSavedBytes();
+      for (int s = 0; s < SERIES_NUM; s++) {
+        assertEquals(POINT_NUM, count(statement, s));
+      }
+      // every file of the device is checked, and the ones without the series are either
+      // rejected or false positives
+      assertEquals(SERIES_NUM * SERIES_NUM, manager.getCheckNum() - checkNum);
+      assertEquals(SERIES_NUM * (SERIES_NUM - 1), manager.getRejectNum() - rejectNum
+          + manager.getFalsePositiveNum() - falsePositiveNum);
+      assertTrue(manager.getRejectNum() > rejectNum);
+      assertTrue(manager.getSavedBytes() > savedBytes);
+      assertTrue(manager.getFalsePositiveRate() < 1);
+    }
+  }
+
+  /**
+   * the bloom filter of a sequence file rewritten by a merge is loaded again from the new file.
+   */
+  @Test
+  public void mergeTest() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      for (int s = 0; s < 2; s++) {
+        statement.execute(String.format(
+            "CREATE TIMESERIES root.sg.d0.s%d WITH DATATYPE=INT64, ENCODING=PLAIN", s));
+        insertData(statement, s, 0);
+      }
+      statement.execute("flush");
+      // unsequence data overwriting the points of s0
+      insertData(statement, 0, 0);
+      statement.execute("flush");
+      statement.execute("merge");
+      waitForMerge();
+
+      List<TsFileResource> seqFiles = StorageEngine.getInstance().getProcessor("root.sg")
+          .getSequenceFileTreeSet();
+      assertEquals(1, seqFiles.size());
+      assertNull(seqFiles.get(0).getBloomFilter());
+      assertEquals(POINT_NUM, count(statement, 0));
+      assertEquals(POINT_NUM, count(statement, 1));
+      assertNotNull(seqFiles.get(0).getBloomFilter());
+      assertTrue(seqFiles.get(0).getBloomFilter().contains("root.sg.d0.s1"));
+    }
+  }
+
+  private void waitForMerge() throws Exception {
+    long startTime = System.currentTimeMillis();
+    while (!StorageEngine.getInstance().getProcessor("root.sg").getUnSequenceFileList()
+        .isEmpty()) {
+      assertTrue("merge timeout", System.currentTimeMillis() - startTime < 60_000);
+      Thread.sleep(100);
+    }
+  }
+
+  private void insertData(Statement statement, int series, int startTime) throws Exception {
+    for (int time = startTime; time < startTime + POINT_NUM; time++) {
+      statement.addBatch(String.format("insert into root.sg.d0(timestamp,s%d) values(%d,%d)",
+          series, time, time));
+    }
+    statement.executeBatch();
+    statement.clearBatch();
+  }
+
+  private long count(Statement statement, int series) throws Exception {
+    long count = 0;
+    try (ResultSet resultSet = statement
+        .executeQuery(String.format("select s%d from root.sg.d0", series))) {
+      while (resultSet.next()) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
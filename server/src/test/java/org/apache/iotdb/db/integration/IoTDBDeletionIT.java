@@ -21,6 +21,8 @@ package org.apache.iotdb.db.integration;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -109,6 +111,50 @@ public class IoTDBDeletionIT {
     cleanData();
   }
 
+  @Test
+  public void testRangeDelete() throws SQLException {
+    prepareData();
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root",
+            "root");
+        Statement statement = connection.createStatement()) {
+
+      statement.execute("DELETE FROM root.vehicle.d0.s0 WHERE time > 50 AND time <= 250");
+      statement.execute("DELETE FROM root.vehicle.d0.s1 WHERE time >= 351");
+      statement.execute("DELETE FROM root.vehicle.d0.s2 WHERE time = 120");
+      try {
+        statement.execute("DELETE FROM root.vehicle.d0.s3 WHERE time > 300 AND time < 200");
+        fail();
+      } catch (SQLException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("the time range is empty"));
+      }
+      checkRangeDeleted(statement);
+
+      // merge rewrites the chunks deleted partly
+      statement.execute("merge");
+      checkRangeDeleted(statement);
+    }
+    cleanData();
+  }
+
+  private void checkRangeDeleted(Statement statement) throws SQLException {
+    try (ResultSet set = statement.executeQuery(
+        "SELECT count(s0), count(s1), count(s2), count(s3), max_time(s1) FROM root.vehicle.d0")) {
+      assertTrue(set.next());
+      assertEquals(200, set.getLong("count(root.vehicle.d0.s0)"));
+      assertEquals(350, set.getLong("count(root.vehicle.d0.s1)"));
+      assertEquals(399, set.getLong("count(root.vehicle.d0.s2)"));
+      assertEquals(400, set.getLong("count(root.vehicle.d0.s3)"));
+      assertEquals(350, set.getLong("max_time(root.vehicle.d0.s1)"));
+    }
+    try (ResultSet set = statement.executeQuery("SELECT s0 FROM root.vehicle.d0")) {
+      while (set.next()) {
+        long time = set.getLong(1);
+        assertTrue(String.valueOf(time), time <= 50 || time > 250);
+      }
+    }
+  }
+
   @Test
   public void testMerge() throws SQLException {
     prepareMerge();
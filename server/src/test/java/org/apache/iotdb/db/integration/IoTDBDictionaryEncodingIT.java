@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Query the TEXT series encoded by PLAIN_DICTIONARY, including the pages falling back to PLAIN,
+ * and compare the results with the ones of the same data encoded by PLAIN.
+ */
+public class IoTDBDictionaryEncodingIT {
+
+  private static final String[] STATUS = {"OK", "WARN", "ERROR", "OFFLINE"};
+  private static final int POINT_NUM = 2000;
+
+  private TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+  private int prevMaxDictionarySize;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    prevMaxDictionarySize = config.getMaxDictionarySizeInByte();
+    // the dictionaries of the unique values overflow
+    config.setMaxDictionarySizeInByte(256);
+    EnvironmentUtils.envSetUp();
+    Class.forName(Config.JDBC_DRIVER_NAME);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+    config.setMaxDictionarySizeInByte(prevMaxDictionarySize);
+  }
+
+  @Test
+  public void test() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.sg");
+      // root.sg.d0 is encoded by PLAIN_DICTIONARY and root.sg.d1 by PLAIN
+      for (String device : new String[]{"root.sg.d0", "root.sg.d1"}) {
+        String encoding = device.equals("root.sg.d0") ? "PLAIN_DICTIONARY" : "PLAIN";
+        statement.execute(String.format(
+            "CREATE TIMESERIES %s.s0 WITH DATATYPE=TEXT, ENCODING=%s", device, encoding));
+        statement.execute(String.format(
+            "CREATE TIMESERIES %s.s1 WITH DATATYPE=TEXT, ENCODING=%s", device, encoding));
+      }
+      // a sealed sequence file, an unsequence file and data in memory
+      insertData(statement, 0, POINT_NUM);
+      statement.execute("flush");
+      insertData(statement, 0, POINT_NUM / 10);
+      statement.execute("flush");
+      insertData(statement, POINT_NUM, POINT_NUM + 100);
+
+      String[] conditions = {"", "where s0 = 'WARN'", "where s0 != 'OK'",
+          "where s0 > 'OFFLINE'", "where s0 = 'UNKNOWN'",
+          "where s0 = 'ERROR' or time > 1900", "where s1 = 'name123'",
+          "where s1 >= 'name1990'"};
+      for (String condition : conditions) {
+        List<String> dictResult = query(statement,
+            "select s0, s1 from root.sg.d0 " + condition);
+        List<String> plainResult = query(statement,
+            "select s0, s1 from root.sg.d1 " + condition);
+        assertEquals(condition, plainResult, dictResult);
+        if (!condition.contains("UNKNOWN")) {
+          assertFalse(condition, dictResult.isEmpty());
+        }
+      }
+      List<String> result = query(statement,
+          "select s0, s1 from root.sg.d0 where s0 = 'WARN'");
+      assertTrue(result.size() > POINT_NUM / STATUS.length);
+    }
+  }
+
+  private void insertData(Statement statement, int startTime, int endTime) throws Exception {
+    for (int time = startTime; time < endTime; time++) {
+      for (String device : new String[]{"root.sg.d0", "root.sg.d1"}) {
+        statement.addBatch(String.format(
+            "insert into %s(timestamp,s0,s1) values(%d,'%s','name%d')", device, time,
+            STATUS[time / 3 % STATUS.length], time));
+      }
+    }
+    statement.executeBatch();
+    statement.clearBatch();
+  }
+
+  private List<String> query(Statement statement, String sql) throws Exception {
+    List<String> rows = new ArrayList<>();
+    try (ResultSet resultSet = statement.executeQuery(sql)) {
+      while (resultSet.next()) {
+        rows.add(resultSet.getString(1) + "," + resultSet.getString(2) + ","
+            + resultSet.getString(3));
+      }
+    }
+    return rows;
+  }
+}
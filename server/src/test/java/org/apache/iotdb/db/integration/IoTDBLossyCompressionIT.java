@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Write the series of SDT, PAA and PLA through flush and merge, and check that the kept points
+ * reconstruct the written ones within MAX_ERROR.
+ */
+public class IoTDBLossyCompressionIT {
+
+  private static final String[] COMPRESSORS = {"SDT", "PAA", "PLA"};
+  private static final int POINT_NUM = 5000;
+  private static final int SEQ_START_TIME = 1000;
+  private static final int UNSEQ_POINT_NUM = 10;
+  private static final double MAX_ERROR = 0.5;
+  private static final double DELTA = 1e-6;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    EnvironmentUtils.envSetUp();
+    Class.forName(Config.JDBC_DRIVER_NAME);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void test() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.sg");
+      for (String compressor : COMPRESSORS) {
+        statement.execute(String.format("CREATE TIMESERIES root.sg.d0.%s WITH DATATYPE=DOUBLE, "
+            + "ENCODING=GORILLA, COMPRESSOR=%s, MAX_ERROR=%s", compressor, compressor, MAX_ERROR));
+      }
+      insertData(statement, SEQ_START_TIME, SEQ_START_TIME + POINT_NUM);
+      statement.execute("flush");
+      // an unsequence file to merge
+      insertData(statement, 0, UNSEQ_POINT_NUM);
+      statement.execute("flush");
+
+      List<List<double[]>> before = new ArrayList<>();
+      for (String compressor : COMPRESSORS) {
+        List<double[]> points = query(statement, compressor);
+        assertTrue(compressor, points.size() * 10 < POINT_NUM);
+        assertReconstructed(compressor, points);
+        before.add(points);
+      }
+
+      // merge keeps the kept points as they are
+      statement.execute("merge");
+      for (int i = 0; i < COMPRESSORS.length; i++) {
+        List<double[]> points = query(statement, COMPRESSORS[i]);
+        assertEquals(before.get(i).size(), points.size());
+        assertReconstructed(COMPRESSORS[i], points);
+      }
+    }
+  }
+
+  @Test
+  public void testCreateTimeseries() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.sg");
+      statement.execute("CREATE TIMESERIES root.sg.d0.s0 WITH DATATYPE=INT32, ENCODING=RLE, "
+          + "COMPRESSOR=PLA, MAX_ERROR=2");
+      try {
+        statement.execute("CREATE TIMESERIES root.sg.d0.s1 WITH DATATYPE=TEXT, ENCODING=PLAIN, "
+            + "COMPRESSOR=SDT");
+        fail();
+      } catch (SQLException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("does not support TEXT"));
+      }
+      try {
+        statement.execute("CREATE TIMESERIES root.sg.d0.s2 WITH DATATYPE=DOUBLE, "
+            + "ENCODING=GORILLA, COMPRESSOR=PAA, MAX_ERROR=-1");
+        fail();
+      } catch (SQLException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("max_error"));
+      }
+    }
+  }
+
+  private static double valueAt(long time) {
+    return 10 * Math.sin(time / 100.0) + (time * 7919 % 13) / 13.0 * 0.3;
+  }
+
+  private void insertData(Statement statement, int startTime, int endTime) throws SQLException {
+    for (int time = startTime; time < endTime; time++) {
+      double value = valueAt(time);
+      statement.addBatch(String.format("insert into root.sg.d0(timestamp,%s,%s,%s) "
+          + "values(%d,%s,%s,%s)", COMPRESSORS[0], COMPRESSORS[1], COMPRESSORS[2], time, value,
+          value, value));
+    }
+    statement.executeBatch();
+    statement.clearBatch();
+  }
+
+  private List<double[]> query(Statement statement, String measurement) throws SQLException {
+    List<double[]> points = new ArrayList<>();
+    try (ResultSet resultSet = statement
+        .executeQuery("select " + measurement + " from root.sg.d0")) {
+      while (resultSet.next()) {
+        if (resultSet.getString(2) != null) {
+          points.add(new double[]{resultSet.getLong(1), resultSet.getDouble(2)});
+        }
+      }
+    }
+    return points;
+  }
+
+  /**
+   * PAA holds the kept values, SDT and PLA interpolate them linearly.
+   */
+  private void assertReconstructed(String compressor, List<double[]> points) {
+    int k = 0;
+    for (int time = 0; time < SEQ_START_TIME + POINT_NUM; time++) {
+      if (time == UNSEQ_POINT_NUM) {
+        time = SEQ_START_TIME;
+      }
+      while (k + 1 < points.size() && points.get(k + 1)[0] <= time) {
+        k++;
+      }
+      double[] left = points.get(k);
+      double approximation = left[1];
+      if (!"PAA".equals(compressor) && k + 1 < points.size() && left[0] < time) {
+        double[] right = points.get(k + 1);
+        approximation += (right[1] - left[1]) * (time - left[0]) / (right[0] - left[0]);
+      }
+      assertEquals(compressor + " " + time, valueAt(time), approximation, MAX_ERROR + DELTA);
+    }
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.apache.iotdb.rpc.TSStatusCode;
+import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementReq;
+import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementResp;
+import org.apache.iotdb.service.rpc.thrift.TSIService;
+import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.transport.TFramedTransport;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Serve many concurrent clients with the non-blocking server and compare the number of server
+ * threads with the thread-per-client server.
+ */
+public class IoTDBNonBlockingServerIT {
+
+  private static final int CLIENT_NUM = 64;
+  private static final int WORKER_NUM = 2;
+  private static final int POINT_NUM = 100;
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+  private boolean prevNonBlockingServerEnable;
+  private int prevWorkerThreadNum;
+
+  private void setUp(boolean nonBlocking) throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    prevNonBlockingServerEnable = config.isRpcNonBlockingServerEnable();
+    prevWorkerThreadNum = config.getRpcWorkerThreadNum();
+    config.setRpcNonBlockingServerEnable(nonBlocking);
+    config.setRpcWorkerThreadNum(WORKER_NUM);
+    Config.rpcThriftFramedTransportEnable = nonBlocking;
+    EnvironmentUtils.envSetUp();
+    Class.forName(Config.JDBC_DRIVER_NAME);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+    config.setRpcNonBlockingServerEnable(prevNonBlockingServerEnable);
+    config.setRpcWorkerThreadNum(prevWorkerThreadNum);
+    Config.rpcThriftFramedTransportEnable = false;
+  }
+
+  @Test
+  public void nonBlockingServerTest() throws Exception {
+    setUp(true);
+    prepareData();
+    int threadNum = threadMXBean.getThreadCount();
+    List<Connection> connections = openConnections();
+    try {
+      // idle clients do not occupy threads
+      assertTrue(threadMXBean.getThreadCount() - threadNum < CLIENT_NUM / 2);
+      interleavedQueryTest(connections);
+      concurrentQueryTest(connections);
+    } finally {
+      for (Connection connection : connections) {
+        connection.close();
+      }
+    }
+  }
+
+  @Test
+  public void threadPoolServerTest() throws Exception {
+    setUp(false);
+    prepareData();
+    int threadNum = threadMXBean.getThreadCount();
+    List<Connection> connections = openConnections();
+    try {
+      // every client occupies a thread
+      assertTrue(threadMXBean.getThreadCount() - threadNum > CLIENT_NUM / 2);
+      interleavedQueryTest(connections);
+      concurrentQueryTest(connections);
+    } finally {
+      for (Connection connection : connections) {
+        connection.close();
+      }
+    }
+  }
+
+  /**
+   * the queries of a client that exits without closing them are released by the worker that
+   * started them, so the read locks of their files are released.
+   */
+  @Test
+  public void clientExitTest() throws Exception {
+    setUp(true);
+    prepareData();
+    List<TsFileResource> seqFiles = StorageEngine.getInstance().getProcessor("root.sg")
+        .getSequenceFileTreeSet();
+    assertFalse(seqFiles.isEmpty());
+
+    TTransport transport = new TFramedTransport(new TSocket("127.0.0.1", 6667));
+    transport.open();
+    TSIService.Iface client = new TSIService.Client(new TBinaryProtocol(transport));
+    TSOpenSessionReq openReq = new TSOpenSessionReq();
+    openReq.setUsername("root");
+    openReq.setPassword("root");
+    long sessionId = client.openSession(openReq).getSessionId();
+    TSExecuteStatementReq req = new TSExecuteStatementReq(sessionId, "select s0 from root.sg.d0",
+        client.requestStatementId(sessionId));
+    req.setFetchSize(10);
+    TSExecuteStatementResp resp = client.executeQueryStatement(req);
+    assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(), resp.getStatus().getCode());
+    for (TsFileResource seqFile : seqFiles) {
+      assertTrue(seqFile.getWriteQueryLock().getReadLockCount() > 0);
+    }
+    transport.close();
+
+    long startTime = System.currentTimeMillis();
+    for (TsFileResource seqFile : seqFiles) {
+      while (seqFile.getWriteQueryLock().getReadLockCount() > 0) {
+        assertTrue("the query is not released",
+            System.currentTimeMillis() - startTime < 10_000);
+        Thread.sleep(10);
+      }
+    }
+  }
+
+  private void prepareData() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.sg");
+      statement.execute("CREATE TIMESERIES root.sg.d0.s0 WITH DATATYPE=INT64, ENCODING=PLAIN");
+      for (int time = 1; time <= POINT_NUM; time++) {
+        statement.addBatch(
+            String.format("insert into root.sg.d0(timestamp,s0) values(%d,%d)", time, time));
+      }
+      statement.executeBatch();
+      statement.execute("flush");
+    }
+  }
+
+  private List<Connection> openConnections() throws Exception {
+    List<Connection> connections = new ArrayList<>();
+    for (int i = 0; i < CLIENT_NUM; i++) {
+      connections.add(DriverManager
+          .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root"));
+    }
+    return connections;
+  }
+
+  /**
+   * every client keeps a query open while the others fetch theirs, so the workers process the
+   * requests of the open queries of many clients.
+   */
+  private void interleavedQueryTest(List<Connection> connections) throws Exception {
+    List<Statement> statements = new ArrayList<>();
+    List<ResultSet> resultSets = new ArrayList<>();
+    for (Connection connection : connections) {
+      Statement statement = connection.createStatement();
+      statement.setFetchSize(10);
+      statements.add(statement);
+      resultSets.add(statement.executeQuery("select s0 from root.sg.d0"));
+    }
+    for (int time = 1; time <= POINT_NUM; time++) {
+      for (ResultSet resultSet : resultSets) {
+        assertTrue(resultSet.next());
+        assertEquals(time, resultSet.getLong("root.sg.d0.s0"));
+      }
+    }
+    for (int i = 0; i < resultSets.size(); i++) {
+      assertFalse(resultSets.get(i).next());
+      resultSets.get(i).close();
+      statements.get(i).close();
+    }
+  }
+
+  private void concurrentQueryTest(List<Connection> connections) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(connections.size());
+    try {
+      List<Future<Long>> futures = new ArrayList<>();
+      for (Connection connection : connections) {
+        futures.add(pool.submit(() -> {
+          long count = 0;
+          for (int i = 0; i < 10; i++) {
+            try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement
+                    .executeQuery("select count(s0) from root.sg.d0")) {
+              assertTrue(resultSet.next());
+              count += resultSet.getLong(1);
+            }
+          }
+          return count;
+        }));
+      }
+      for (Future<Long> future : futures) {
+        assertEquals(10L * POINT_NUM, (long) future.get());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
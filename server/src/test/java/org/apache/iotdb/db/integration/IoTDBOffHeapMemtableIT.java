@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Insert, query and flush the series of all data types with the off-heap memtables.
+ */
+public class IoTDBOffHeapMemtableIT {
+
+  private static final int POINT_NUM = 1000;
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private boolean prevOffHeapEnable;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    prevOffHeapEnable = config.isMemtableOffHeapEnable();
+    config.setMemtableOffHeapEnable(true);
+    EnvironmentUtils.envSetUp();
+    Class.forName(Config.JDBC_DRIVER_NAME);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+    config.setMemtableOffHeapEnable(prevOffHeapEnable);
+  }
+
+  @Test
+  public void insertQueryAndFlushTest() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET STORAGE GROUP TO root.sg");
+      String[] dataTypes = {"BOOLEAN", "INT32", "INT64", "FLOAT", "DOUBLE", "TEXT"};
+      for (int s = 0; s < dataTypes.length; s++) {
+        statement.execute(String.format("CREATE TIMESERIES root.sg.d0.s%d WITH DATATYPE=%s, "
+            + "ENCODING=PLAIN", s, dataTypes[s]));
+      }
+      // out of order inserts make the lists sort themselves
+      for (int time = POINT_NUM; time > 0; time--) {
+        statement.addBatch(String.format(
+            "insert into root.sg.d0(timestamp,s0,s1,s2,s3,s4,s5) values(%d,%s,%d,%d,%d.5,%d.25,'%d')",
+            time, time % 2 == 0, time, time * 10L, time, time, time));
+      }
+      statement.executeBatch();
+      checkData(statement);
+
+      statement.execute("flush");
+      checkData(statement);
+    }
+  }
+
+  private void checkData(Statement statement) throws Exception {
+    try (ResultSet resultSet = statement.executeQuery("select * from root.sg.d0")) {
+      for (int time = 1; time <= POINT_NUM; time++) {
+        assertTrue(resultSet.next());
+        assertEquals(time, resultSet.getLong(1));
+        assertEquals(time % 2 == 0, resultSet.getBoolean("root.sg.d0.s0"));
+        assertEquals(time, resultSet.getInt("root.sg.d0.s1"));
+        assertEquals(time * 10L, resultSet.getLong("root.sg.d0.s2"));
+        assertEquals(time + 0.5f, resultSet.getFloat("root.sg.d0.s3"), 0);
+        assertEquals(time + 0.25, resultSet.getDouble("root.sg.d0.s4"), 0);
+        assertEquals(String.valueOf(time), resultSet.getString("root.sg.d0.s5"));
+      }
+      assertFalse(resultSet.next());
+    }
+  }
+}
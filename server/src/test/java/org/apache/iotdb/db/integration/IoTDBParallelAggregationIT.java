@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.query.aggregation.AggregationSkipCounter;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Aggregate many series concurrently and compare with aggregating them one by one, and check that
+ * the non overlapped data is answered by statistics.
+ */
+public class IoTDBParallelAggregationIT {
+
+  private static final int DEVICE_NUM = 4;
+  private static final int SENSOR_NUM = 4;
+  private static final int POINT_NUM = 1000;
+  private static final String[] DATA_TYPES = {"INT32", "INT64", "FLOAT", "DOUBLE"};
+
+  private static final String AGGREGATION_SQL =
+      "select count(*), sum(*), max_value(*), min_value(*), first_value(*), last_value(*), "
+          + "max_time(*), min_time(*) from root.sg";
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private TSFileConfig tsFileConfig = TSFileDescriptor.getInstance().getConfig();
+  private int prevParallelism;
+  private int prevPagePointNum;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    prevParallelism = config.getAggregationSeriesParallelism();
+    prevPagePointNum = tsFileConfig.getMaxNumberOfPointsInPage();
+    // several pages in a chunk
+    tsFileConfig.setMaxNumberOfPointsInPage(100);
+    EnvironmentUtils.envSetUp();
+    Class.forName(Config.JDBC_DRIVER_NAME);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+    config.setAggregationSeriesParallelism(prevParallelism);
+    tsFileConfig.setMaxNumberOfPointsInPage(prevPagePointNum);
+  }
+
+  @Test
+  public void parallelEqualsSerialTest() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      createTimeseries(statement);
+      insertData(statement, 0);
+      statement.execute("flush");
+      // unsequence data overlapping the flushed file
+      insertData(statement, POINT_NUM / 2);
+
+      for (String sql : new String[]{AGGREGATION_SQL, AGGREGATION_SQL + " where time > 123",
+          AGGREGATION_SQL + " where time >= 10 and time < 900"}) {
+        config.setAggregationSeriesParallelism(1);
+        String expected = query(statement, sql);
+        config.setAggregationSeriesParallelism(4);
+        assertEquals(sql, expected, query(statement, sql));
+      }
+    }
+  }
+
+  @Test
+  public void statisticsOnlyTest() throws Exception {
+    config.setAggregationSeriesParallelism(4);
+    AggregationSkipCounter counter = AggregationSkipCounter.getInstance();
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      createTimeseries(statement);
+      insertData(statement, 0);
+      statement.execute("flush");
+
+      // every file is covered by the query and not overlapped
+      counter.reset();
+      String result = query(statement, "select count(*) from root.sg");
+      assertEquals(DEVICE_NUM * SENSOR_NUM, counter.getSkippedFileNum());
+      assertEquals(0, counter.getDecodedPageNum());
+      assertTrue(result, result.startsWith(POINT_NUM + ","));
+
+      // the pages covered by the time filter are answered by statistics, only the page across the
+      // bound of the filter is decoded
+      counter.reset();
+      result = query(statement, "select count(*) from root.sg where time >= 150");
+      assertTrue(counter.getSkippedPageNum() > 0);
+      assertEquals(DEVICE_NUM * SENSOR_NUM, counter.getDecodedPageNum());
+      assertTrue(result, result.startsWith((POINT_NUM - 150) + ","));
+    }
+  }
+
+  private void createTimeseries(Statement statement) throws Exception {
+    for (int d = 0; d < DEVICE_NUM; d++) {
+      for (int s = 0; s < SENSOR_NUM; s++) {
+        statement.execute(String.format("CREATE TIMESERIES root.sg.d%d.s%d WITH DATATYPE=%s, "
+            + "ENCODING=PLAIN", d, s, DATA_TYPES[s]));
+      }
+    }
+  }
+
+  private void insertData(Statement statement, int startTime) throws Exception {
+    for (int time = startTime; time < startTime + POINT_NUM; time++) {
+      for (int d = 0; d < DEVICE_NUM; d++) {
+        statement.addBatch(String.format(
+            "insert into root.sg.d%d(timestamp,s0,s1,s2,s3) values(%d,%d,%d,%d.5,%d.25)", d, time,
+            time % 97 + d, time * 3 + d, time % 31, time % 53));
+      }
+    }
+    statement.executeBatch();
+    statement.clearBatch();
+  }
+
+  private String query(Statement statement, String sql) throws Exception {
+    StringBuilder builder = new StringBuilder();
+    try (ResultSet resultSet = statement.executeQuery(sql)) {
+      ResultSetMetaData metaData = resultSet.getMetaData();
+      while (resultSet.next()) {
+        // skip the time column
+        for (int i = 2; i <= metaData.getColumnCount(); i++) {
+          builder.append(resultSet.getString(i)).append(',');
+        }
+      }
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Query many devices with prefetching and compare with querying them one by one.
+ */
+public class IoTDBParallelAlignByDeviceIT {
+
+  private static final int DEVICE_NUM = 12;
+  /**
+   * more than the rows prefetched for a device
+   */
+  private static final int POINT_NUM = 1500;
+
+  private static final String[] SQLS = {
+      "select * from root.sg.* align by device",
+      "select s0, s1 from root.sg.* where time >= 100 and time < 1300 align by device",
+      "select * from root.sg.* where s0 > 20 align by device",
+      "select * from root.sg.* limit 30 offset 1490 align by device",
+      "select count(*), sum(s1), max_value(s0), last_value(s1) from root.sg.* align by device",
+      "select count(s0), min_time(s1) from root.sg.* where s1 > 100 align by device",
+      "select count(s0), avg(s1) from root.sg.* group by ([0, 1500), 100ms) align by device",
+      "select count(s0) from root.sg.* where s0 > 20 group by ([0, 1500), 100ms) "
+          + "align by device"};
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private int prevParallelism;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    prevParallelism = config.getAlignByDeviceParallelism();
+    EnvironmentUtils.envSetUp();
+    Class.forName(Config.JDBC_DRIVER_NAME);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+    config.setAlignByDeviceParallelism(prevParallelism);
+  }
+
+  @Test
+  public void parallelEqualsSerialTest() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      prepareData(statement);
+
+      for (String sql : SQLS) {
+        config.setAlignByDeviceParallelism(1);
+        String expected = query(statement, sql);
+        assertTrue(sql, !expected.isEmpty());
+        config.setAlignByDeviceParallelism(4);
+        assertEquals(sql, expected, query(statement, sql));
+      }
+    }
+  }
+
+  @Test
+  public void closeWhilePrefetchingTest() throws Exception {
+    // the result sets are closed while the following devices are still being prefetched
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      prepareData(statement);
+      String sql = SQLS[0];
+      config.setAlignByDeviceParallelism(1);
+      String expected = query(statement, sql);
+
+      config.setAlignByDeviceParallelism(4);
+      int fetchSize = statement.getFetchSize();
+      statement.setFetchSize(10);
+      for (int i = 0; i < 10; i++) {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+          int rowNum = 0;
+          while (rowNum < i * 10 && resultSet.next()) {
+            rowNum++;
+          }
+          assertEquals(i * 10, rowNum);
+        }
+      }
+      statement.setFetchSize(fetchSize);
+      assertEquals(expected, query(statement, sql));
+      statement.execute("DELETE TIMESERIES root.sg.*");
+    }
+  }
+
+  private void prepareData(Statement statement) throws Exception {
+    for (int d = 0; d < DEVICE_NUM; d++) {
+      statement.execute(String.format(
+          "CREATE TIMESERIES root.sg.d%d.s0 WITH DATATYPE=INT32, ENCODING=RLE", d));
+      statement.execute(String.format(
+          "CREATE TIMESERIES root.sg.d%d.s1 WITH DATATYPE=DOUBLE, ENCODING=GORILLA", d));
+    }
+    for (int time = 0; time < POINT_NUM; time++) {
+      for (int d = 0; d < DEVICE_NUM; d++) {
+        // the devices have different numbers of points
+        if (time % (d + 1) == 0) {
+          statement.addBatch(String.format(
+              "insert into root.sg.d%d(timestamp,s0,s1) values(%d,%d,%d.5)", d, time,
+              time % 41, time * d));
+        }
+      }
+    }
+    statement.executeBatch();
+    statement.clearBatch();
+    statement.execute("flush");
+  }
+
+  private String query(Statement statement, String sql) throws Exception {
+    StringBuilder builder = new StringBuilder();
+    try (ResultSet resultSet = statement.executeQuery(sql)) {
+      ResultSetMetaData metaData = resultSet.getMetaData();
+      while (resultSet.next()) {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+          builder.append(resultSet.getString(i)).append(',');
+        }
+        builder.append('\n');
+      }
+    }
+    return builder.toString();
+  }
+}
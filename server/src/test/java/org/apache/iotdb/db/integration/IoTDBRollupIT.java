@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.rollup.RollupFile;
+import org.apache.iotdb.db.engine.rollup.RollupRules;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.jdbc.Config;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Maintain rollups when flushing and merging, and compare the group by results answered from the
+ * rollups with the ones from the raw data.
+ */
+public class IoTDBRollupIT {
+
+  private static final String STORAGE_GROUP = "root.sg";
+  private static final String DEVICE = "root.sg.d0";
+  private static final int FILE_POINT_NUM = 1005;
+  private static final String[] DATA_TYPES = {"INT32", "INT64", "FLOAT", "DOUBLE"};
+
+  private static final String AGGREGATIONS = "select count(s0), sum(s1), max_value(s2), "
+      + "min_value(s3), first_value(s0), last_value(s1), avg(s2), max_time(s3), min_time(s0) "
+      + "from root.sg.d0 ";
+
+  private static final String[] GROUP_BY_SQLS = {
+      // answered by the 1000ms rollup
+      AGGREGATIONS + "group by ([0, 3000), 1000ms)",
+      // answered by the 100ms rollup
+      AGGREGATIONS + "group by ([0, 3000), 300ms)",
+      AGGREGATIONS + "group by ([100, 2900), 300ms, 100ms)",
+      AGGREGATIONS + "where time >= 500 group by ([0, 3000), 500ms)",
+      // answered by the 10ms rollup
+      AGGREGATIONS + "group by ([50, 2950), 20ms, 30ms)",
+      // the last interval is cut by the end time
+      AGGREGATIONS + "group by ([0, 2995), 100ms)",
+      // not aligned with any rollup
+      AGGREGATIONS + "group by ([3, 2990), 100ms)",
+      AGGREGATIONS + "where time > 123 group by ([0, 3000), 100ms)"
+  };
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private RollupRules prevRollupRules;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.closeStatMonitor();
+    prevRollupRules = config.getRollupRules();
+    config.setRollupRules(RollupRules.parse("root.sg.*=10ms,100;root.sg.d0.s0=1s",
+        config.getTimestampPrecision()));
+    EnvironmentUtils.envSetUp();
+    Class.forName(Config.JDBC_DRIVER_NAME);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+    config.setRollupRules(prevRollupRules);
+  }
+
+  @Test
+  public void rollupEqualsRawTest() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      createTimeseries(statement);
+      // the files are not aligned with the buckets
+      for (int startTime = 0; startTime < 3 * FILE_POINT_NUM; startTime += FILE_POINT_NUM) {
+        insertData(statement, startTime, FILE_POINT_NUM, 0);
+        statement.execute("flush");
+      }
+      checkRollupFiles();
+
+      compareWithRawData(statement);
+    }
+  }
+
+  @Test
+  public void deletionTest() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      createTimeseries(statement);
+      insertData(statement, 0, 3000, 0);
+      statement.execute("flush");
+      statement.execute("delete from root.sg.d0.s0 where time < 150");
+      statement.execute("delete from root.sg.d0.s3 where time < 1550");
+
+      compareWithRawData(statement);
+    }
+  }
+
+  @Test
+  public void mergeTest() throws Exception {
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      createTimeseries(statement);
+      insertData(statement, 0, 3000, 0);
+      statement.execute("flush");
+      // unsequence data overwriting some points of the sequence file
+      insertData(statement, 1200, 100, 7);
+      statement.execute("flush");
+      List<String> unseqResult = query(statement, GROUP_BY_SQLS[0]);
+
+      statement.execute("merge");
+      waitForMerge();
+      checkRollupFiles();
+
+      assertResultEquals(GROUP_BY_SQLS[0], unseqResult, query(statement, GROUP_BY_SQLS[0]));
+      compareWithRawData(statement);
+    }
+  }
+
+  private void compareWithRawData(Statement statement) throws Exception {
+    RollupRules rules = config.getRollupRules();
+    for (String sql : GROUP_BY_SQLS) {
+      List<String> rollupResult = query(statement, sql);
+      config.setRollupRules(RollupRules.EMPTY);
+      List<String> rawResult = query(statement, sql);
+      config.setRollupRules(rules);
+      assertFalse(sql, rawResult.isEmpty());
+      assertResultEquals(sql, rawResult, rollupResult);
+    }
+  }
+
+  /**
+   * the averages are accumulated in different orders, so they may differ in rounding
+   */
+  private void assertResultEquals(String sql, List<String> expected, List<String> actual) {
+    assertEquals(sql, expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      if (!expected.get(i).equals(actual.get(i))) {
+        double expectedValue = Double.parseDouble(expected.get(i));
+        assertEquals(sql, expectedValue, Double.parseDouble(actual.get(i)),
+            Math.abs(expectedValue) * 1e-9);
+      }
+    }
+  }
+
+  /**
+   * every sealed sequence file has the rollups of all its points
+   */
+  private void checkRollupFiles() throws Exception {
+    List<TsFileResource> seqFiles = StorageEngine.getInstance().getProcessor(STORAGE_GROUP)
+        .getSequenceFileTreeSet();
+    assertFalse(seqFiles.isEmpty());
+    for (TsFileResource seqFile : seqFiles) {
+      long pointNum = seqFile.getEndTimeMap().get(DEVICE) - seqFile.getStartTimeMap().get(DEVICE)
+          + 1;
+      for (int s = 0; s < DATA_TYPES.length; s++) {
+        for (long interval : new long[]{10, 100}) {
+          assertEquals(pointNum, countPoints(seqFile, "s" + s, interval));
+        }
+      }
+      assertEquals(pointNum, countPoints(seqFile, "s0", 1000));
+      assertEquals(-1, countPoints(seqFile, "s1", 1000));
+    }
+  }
+
+  private long countPoints(TsFileResource seqFile, String measurement, long interval)
+      throws Exception {
+    List<Statistics> buckets = RollupFile.read(seqFile.getFile(), DEVICE, measurement, interval);
+    if (buckets == null) {
+      return -1;
+    }
+    long count = 0;
+    for (Statistics bucket : buckets) {
+      assertTrue(bucket.getEndTime() - bucket.getStartTime() < interval);
+      count += bucket.getCount();
+    }
+    return count;
+  }
+
+  private void waitForMerge() throws Exception {
+    long startTime = System.currentTimeMillis();
+    while (true) {
+      boolean merged = StorageEngine.getInstance().getProcessor(STORAGE_GROUP)
+          .getUnSequenceFileList().isEmpty();
+      for (TsFileResource seqFile : StorageEngine.getInstance().getProcessor(STORAGE_GROUP)
+          .getSequenceFileTreeSet()) {
+        merged &= RollupFile.getRollupFile(seqFile.getFile()).exists();
+      }
+      if (merged) {
+        return;
+      }
+      assertTrue("merge timeout", System.currentTimeMillis() - startTime < 60_000);
+      Thread.sleep(100);
+    }
+  }
+
+  private void createTimeseries(Statement statement) throws Exception {
+    for (int s = 0; s < DATA_TYPES.length; s++) {
+      statement.execute(String.format("CREATE TIMESERIES %s.s%d WITH DATATYPE=%s, "
+          + "ENCODING=PLAIN", DEVICE, s, DATA_TYPES[s]));
+    }
+  }
+
+  private void insertData(Statement statement, int startTime, int pointNum, int offset)
+      throws Exception {
+    for (int time = startTime; time < startTime + pointNum; time++) {
+      statement.addBatch(String.format(
+          "insert into %s(timestamp,s0,s1,s2,s3) values(%d,%d,%d,%d.5,%d.25)", DEVICE, time,
+          time % 97 + offset, time * 3 + offset, (time + offset) % 31, (time + offset) % 53));
+    }
+    statement.executeBatch();
+    statement.clearBatch();
+  }
+
+  private List<String> query(Statement statement, String sql) throws Exception {
+    List<String> fields = new ArrayList<>();
+    try (ResultSet resultSet = statement.executeQuery(sql)) {
+      ResultSetMetaData metaData = resultSet.getMetaData();
+      while (resultSet.next()) {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+          fields.add(String.valueOf(resultSet.getString(i)));
+        }
+      }
+    }
+    return fields;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.metadata.MetadataException;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MTreeSnapshotTest {
+
+  private MManager manager;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.envSetUp();
+    manager = MManager.getInstance();
+
+    manager.setStorageGroup("root.sg1");
+    manager.setStorageGroup("root.a.sg2");
+    for (int i = 0; i < 10; i++) {
+      manager.createTimeseries("root.sg1.d" + i + ".s1", TSDataType.INT64, TSEncoding.RLE,
+          CompressionType.SNAPPY, Collections.singletonMap("max_point_number", "3"));
+      manager.createTimeseries("root.a.sg2.d" + i + ".s1", "DOUBLE", "GORILLA");
+    }
+    manager.setTTL("root.a.sg2", 1000);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void testSnapshotAndLogTail() throws IOException, MetadataException {
+    manager.createSnapshot();
+    assertEquals(0, manager.getLogLineNumberSinceSnapshot());
+
+    manager.createTimeseries("root.sg1.d10.s1", "INT32", "PLAIN");
+    manager.deleteTimeseries("root.a.sg2.d0.s1");
+    manager.setStorageGroup("root.sg3");
+    assertEquals(3, manager.getLogLineNumberSinceSnapshot());
+
+    manager.reload();
+    checkMTree();
+    // only the log tail is counted
+    assertEquals(3, manager.getLogLineNumberSinceSnapshot());
+  }
+
+  @Test
+  public void testBrokenSnapshot() throws IOException, MetadataException {
+    manager.createTimeseries("root.sg1.d10.s1", "INT32", "PLAIN");
+    manager.deleteTimeseries("root.a.sg2.d0.s1");
+    manager.setStorageGroup("root.sg3");
+
+    File snapshotFile = new File(IoTDBDescriptor.getInstance().getConfig().getSchemaDir(),
+        MetadataConstant.MTREE_SNAPSHOT);
+    try (FileOutputStream outputStream = new FileOutputStream(snapshotFile)) {
+      outputStream.write(new byte[]{0, 0, 0, 3, 'b', 'a', 'd'});
+    }
+
+    // the whole log is replayed
+    manager.reload();
+    checkMTree();
+    assertEquals(26, manager.getLogLineNumberSinceSnapshot());
+  }
+
+  private void checkMTree() throws MetadataException {
+    assertEquals(3, manager.getAllStorageGroupNames().size());
+    assertEquals(11, manager.getAllTimeseriesName("root.sg1").size());
+    assertEquals(9, manager.getAllTimeseriesName("root.a.sg2").size());
+    assertFalse(manager.isPathExist("root.a.sg2.d0.s1"));
+    assertTrue(manager.isPathExist("root.sg3"));
+    assertEquals(1000, manager.getStorageGroupNode("root.a.sg2").getDataTTL());
+
+    MeasurementSchema schema = manager.getSeriesSchema("root.sg1.d3", "s1");
+    assertEquals(TSDataType.INT64, schema.getType());
+    assertEquals(TSEncoding.RLE, schema.getEncodingType());
+    assertEquals(CompressionType.SNAPPY, schema.getCompressor());
+    assertEquals("3", schema.getProps().get("max_point_number"));
+  }
+}
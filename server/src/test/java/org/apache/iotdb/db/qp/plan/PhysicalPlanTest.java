@@ -29,11 +29,13 @@ import java.util.Set;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.metadata.MetadataException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.exception.runtime.SQLParserException;
 import org.apache.iotdb.db.metadata.MManager;
 import org.apache.iotdb.db.qp.Planner;
 import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.AggregationPlan;
+import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.FillQueryPlan;
 import org.apache.iotdb.db.qp.physical.crud.GroupByPlan;
 import org.apache.iotdb.db.qp.physical.crud.QueryPlan;
@@ -104,6 +106,38 @@ public class PhysicalPlanTest {
     assertEquals("seriesPath: root.vehicle.d1.s2, resultDataType: INT32, encoding: RLE, compression: SNAPPY", plan.toString());
   }
 
+  @Test
+  public void testDeleteRange() throws QueryProcessException {
+    Planner processor = new Planner();
+    DeletePlan plan = (DeletePlan) processor.parseSQLToPhysicalPlan(
+        "delete from root.vehicle.d1.s1 where time > 100 and time <= 200");
+    assertEquals(101, plan.getDeleteStartTime());
+    assertEquals(200, plan.getDeleteEndTime());
+
+    plan = (DeletePlan) processor.parseSQLToPhysicalPlan(
+        "delete from root.vehicle.d1.s1 where time >= 100");
+    assertEquals(100, plan.getDeleteStartTime());
+    assertEquals(Long.MAX_VALUE, plan.getDeleteEndTime());
+
+    plan = (DeletePlan) processor.parseSQLToPhysicalPlan(
+        "delete from root.vehicle.d1.s1 where time = 100");
+    assertEquals(100, plan.getDeleteStartTime());
+    assertEquals(100, plan.getDeleteEndTime());
+
+    plan = (DeletePlan) processor.parseSQLToPhysicalPlan(
+        "delete from root.vehicle.d1.s1 where time < 100");
+    assertEquals(Long.MIN_VALUE, plan.getDeleteStartTime());
+    assertEquals(99, plan.getDeleteEndTime());
+
+    try {
+      processor.parseSQLToPhysicalPlan("delete from root.vehicle.d1.s1 where time > 100 or "
+          + "time < 50");
+      fail();
+    } catch (SQLParserException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("where clause must be like"));
+    }
+  }
+
   @Test
   public void testAuthor() throws QueryProcessException {
     String sql = "grant role xm privileges 'SET_STORAGE_GROUP','DELETE_TIMESERIES' on root.vehicle.d1.s1";
@@ -28,6 +28,14 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.engine.fileSystem.SystemFileFactory;
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -142,4 +150,60 @@ public class FileReaderManagerTest {
       }
     }
   }
+
+  @Test
+  public void testUnmapAfterQueriesRelease() throws IOException, WriteProcessException {
+    boolean enableMmap = dbConfig.isEnableMmapTsFileInput();
+    dbConfig.setEnableMmapTsFileInput(true);
+    File file = SystemFileFactory.INSTANCE
+        .getFile(TestConstant.BASE_OUTPUT_PATH.concat("mmap.tsfile"));
+    try {
+      file.getParentFile().mkdirs();
+      try (TsFileWriter writer = new TsFileWriter(file)) {
+        writer.registerTimeseries(new Path("root.sg.d1", "s1"),
+            new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.RLE));
+        for (long i = 0; i < 100; i++) {
+          TSRecord record = new TSRecord(i, "root.sg.d1");
+          record.addTuple(new LongDataPoint("s1", i));
+          writer.write(record);
+        }
+      }
+      TsFileResource tsFile = new TsFileResource(file);
+      FileReaderManager manager = FileReaderManager.getInstance();
+      long mappedFileSize = manager.getMappedFileSize();
+
+      manager.increaseFileReaderReference(tsFile, true);
+      manager.get(tsFile.getPath(), true);
+      Assert.assertEquals(mappedFileSize + file.length(), manager.getMappedFileSize());
+
+      // the query has released its reference but may still read the mapping until it releases the
+      // read lock, so the mapping and its budget are kept
+      tsFile.getWriteQueryLock().readLock().lock();
+      manager.decreaseFileReaderReference(tsFile, true);
+      manager.clearUnusedReaders();
+      Assert.assertTrue(manager.contains(tsFile, true));
+      Assert.assertEquals(mappedFileSize + file.length(), manager.getMappedFileSize());
+
+      tsFile.getWriteQueryLock().readLock().unlock();
+      manager.clearUnusedReaders();
+      Assert.assertFalse(manager.contains(tsFile, true));
+      Assert.assertEquals(mappedFileSize, manager.getMappedFileSize());
+
+      // a rewritten file is unmapped under its write lock before it is truncated
+      manager.get(tsFile.getPath(), true);
+      Assert.assertEquals(mappedFileSize + file.length(), manager.getMappedFileSize());
+      tsFile.getWriteQueryLock().writeLock().lock();
+      try {
+        manager.closeFileAndRemoveReader(tsFile.getPath());
+      } finally {
+        tsFile.getWriteQueryLock().writeLock().unlock();
+      }
+      Assert.assertEquals(mappedFileSize, manager.getMappedFileSize());
+    } finally {
+      dbConfig.setEnableMmapTsFileInput(enableMmap);
+      if (!file.delete()) {
+        fail();
+      }
+    }
+  }
 }
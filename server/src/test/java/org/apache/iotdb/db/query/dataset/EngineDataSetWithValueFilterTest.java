@@ -30,6 +30,8 @@ import org.apache.iotdb.db.qp.executor.IPlanExecutor;
 import org.apache.iotdb.db.qp.executor.PlanExecutor;
 import org.apache.iotdb.db.qp.physical.crud.QueryPlan;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.QueryDataSetUtils;
+import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
 import org.junit.After;
 import org.junit.Before;
@@ -129,4 +131,34 @@ public class EngineDataSetWithValueFilterTest {
     assertNull(dataSet.next());
 
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testColumnBatch() throws Exception {
+    String[] queries = {
+        "select d0.s0, d0.s1 from root.vehicle where root.vehicle.d0.s0 > 100",
+        "select * from root where root.test.d0.s0 > 100 or root.vehicle.d0.s1 > 120",
+        "select * from root where root.test.d0.s0 > 100 limit 5 offset 2"};
+    for (String sql : queries) {
+      for (int fetchSize : new int[]{1, 3, 8, 1000}) {
+        QueryPlan queryPlan = (QueryPlan) processor.parseSQLToPhysicalPlan(sql);
+        QueryDataSet rowDataSet = queryExecutor
+            .processQuery(queryPlan, EnvironmentUtils.TEST_QUERY_CONTEXT);
+        QueryDataSet batchDataSet = queryExecutor
+            .processQuery(queryPlan, EnvironmentUtils.TEST_QUERY_CONTEXT);
+        assertTrue(batchDataSet instanceof IColumnBatchDataSet);
+        while (true) {
+          TSQueryDataSet expected = QueryDataSetUtils
+              .convertQueryDataSetByFetchSize(rowDataSet, fetchSize);
+          TSQueryDataSet actual = QueryDataSetUtils.convertColumnBatchDataSetByFetchSize(
+              (IColumnBatchDataSet) batchDataSet, batchDataSet.getDataTypes(), fetchSize, null);
+          assertEquals(expected.time, actual.time);
+          assertEquals(expected.valueList, actual.valueList);
+          assertEquals(expected.bitmapList, actual.bitmapList);
+          if (!expected.time.hasRemaining()) {
+            break;
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.dataset.groupby;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.iotdb.db.qp.constant.SQLConstant;
+import org.apache.iotdb.db.query.aggregation.AggregateResult;
+import org.apache.iotdb.db.query.factory.AggregateResultFactory;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlidingWindowAggregatorTest {
+
+  /**
+   * one point per millisecond in [0, 100), the value is the timestamp
+   */
+  private static final long DATA_END_TIME = 100;
+
+  @Test
+  public void test() throws Exception {
+    check(0, 120, 30, 10);
+    check(5, 100, 7, 3);
+    check(-20, 90, 25, 10);
+  }
+
+  private void check(long startTime, long endTime, long interval, long slidingStep)
+      throws Exception {
+    List<AggregateResult> segmentResults = Arrays.asList(
+        AggregateResultFactory.getAggrResultByName(SQLConstant.COUNT, TSDataType.INT64),
+        AggregateResultFactory.getAggrResultByName(SQLConstant.MAX_VALUE, TSDataType.INT64),
+        AggregateResultFactory.getAggrResultByName(SQLConstant.FIRST_VALUE, TSDataType.INT64));
+    SlidingWindowAggregator aggregator = new SlidingWindowAggregator(startTime, interval,
+        slidingStep);
+    for (AggregateResult result : segmentResults) {
+      aggregator.addAggregateResult(result, TSDataType.INT64);
+    }
+
+    List<long[]> segments = new ArrayList<>();
+    SlidingWindowAggregator.SegmentCalculator calculator = (segmentStartTime, segmentEndTime) -> {
+      segments.add(new long[]{segmentStartTime, segmentEndTime});
+      BatchData batchData = new BatchData(TSDataType.INT64);
+      for (long time = Math.max(segmentStartTime, 0);
+          time < Math.min(segmentEndTime, DATA_END_TIME); time++) {
+        batchData.putLong(time, time);
+      }
+      // the calculator reuses its results like LocalGroupByExecutor
+      for (AggregateResult result : segmentResults) {
+        result.reset();
+        batchData.resetBatchData();
+        result.updateResultFromPageData(batchData);
+      }
+      return segmentResults;
+    };
+
+    for (long curStartTime = startTime; curStartTime < endTime; curStartTime += slidingStep) {
+      long curEndTime = Math.min(curStartTime + interval, endTime);
+      List<AggregateResult> results = aggregator.calcResult(curStartTime, curEndTime, calculator);
+
+      long firstTime = Math.max(curStartTime, 0);
+      long lastTime = Math.min(curEndTime, DATA_END_TIME) - 1;
+      long count = Math.max(lastTime - firstTime + 1, 0);
+      Assert.assertEquals(count, results.get(0).getResult());
+      Assert.assertEquals(count == 0 ? null : lastTime, results.get(1).getResult());
+      Assert.assertEquals(count == 0 ? null : firstTime, results.get(2).getResult());
+    }
+
+    // the segments are contiguous and each one is calculated only once
+    Assert.assertEquals(startTime, segments.get(0)[0]);
+    for (int i = 1; i < segments.size(); i++) {
+      Assert.assertEquals(segments.get(i - 1)[1], segments.get(i)[0]);
+      Assert.assertTrue(segments.get(i)[0] < segments.get(i)[1]);
+    }
+    Assert.assertEquals(endTime, segments.get(segments.size() - 1)[1]);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.rescon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.datastructure.TVList;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrimitiveArrayPoolTest {
+
+  private IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+  private PrimitiveArrayPool pool = PrimitiveArrayPool.getInstance();
+  private long prevBudget;
+
+  @Before
+  public void setUp() {
+    prevBudget = config.getPrimitiveArrayMemoryBudget();
+    pool.clear();
+  }
+
+  @After
+  public void tearDown() {
+    config.setPrimitiveArrayMemoryBudget(prevBudget);
+    pool.clear();
+  }
+
+  @Test
+  public void testAccounting() {
+    long inUseBytes = pool.getInUseBytes();
+    Object dataArray = pool.getPrimitiveDataListByType(TSDataType.INT64);
+    assertEquals(inUseBytes + PrimitiveArrayPool.ARRAY_SIZE * 8L, pool.getInUseBytes());
+    pool.release(dataArray);
+    assertEquals(inUseBytes, pool.getInUseBytes());
+    assertEquals(PrimitiveArrayPool.ARRAY_SIZE * 8L, pool.getPooledBytes());
+    // the pooled array is reused
+    assertTrue(dataArray == pool.getPrimitiveDataListByType(TSDataType.INT64));
+    assertEquals(0, pool.getPooledBytes());
+    pool.release(dataArray);
+  }
+
+  @Test
+  public void testSnapshotAccounting() {
+    long inUseBytes = pool.getInUseBytes();
+    TVList tvList = TVList.newList(TSDataType.INT32);
+    for (int i = 1000; i > 0; i--) {
+      tvList.putInt(i, i);
+    }
+    TVList snapshot = tvList.snapshot();
+    snapshot.setTimeOffset(500);
+    snapshot.sort();
+    // the working list copies the arrays shared with the snapshot
+    tvList.delete(100);
+    tvList.sort();
+    tvList.clear();
+    assertEquals(inUseBytes, pool.getInUseBytes());
+  }
+
+  @Test
+  public void testBudget() {
+    config.setPrimitiveArrayMemoryBudget(pool.getInUseBytes() + PrimitiveArrayPool.ARRAY_SIZE * 8L
+        * 10);
+    List<Object> dataArrays = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      dataArrays.add(pool.getPrimitiveDataListByType(TSDataType.DOUBLE));
+    }
+    assertTrue(pool.isOverBudget());
+    for (Object dataArray : dataArrays) {
+      pool.release(dataArray);
+    }
+    assertFalse(pool.isOverBudget());
+    assertEquals(PrimitiveArrayPool.ARRAY_SIZE * 8L * 10, pool.getPooledBytes());
+  }
+
+  @Test
+  public void testConcurrentGetAndRelease() throws Exception {
+    long inUseBytes = pool.getInUseBytes();
+    ExecutorService threadPool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(threadPool.submit(() -> {
+          for (int j = 0; j < 1000; j++) {
+            long[][] dataArrays = (long[][]) pool.getDataListsByType(TSDataType.INT64,
+                PrimitiveArrayPool.ARRAY_SIZE * 4);
+            for (long[] dataArray : dataArrays) {
+              pool.release(dataArray);
+            }
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      threadPool.shutdown();
+    }
+    assertEquals(inUseBytes, pool.getInUseBytes());
+    assertTrue(pool.getPooledBytes() <= PrimitiveArrayPool.ARRAY_SIZE * 8L * 4 * 8);
+  }
+}
@@ -0,0 +1,484 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.sync.sender.transfer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.db.conf.IoTDBConstant;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.conf.directories.DirectoryManager;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.SyncDeviceOwnerConflictException;
+import org.apache.iotdb.db.sync.conf.SyncConstant;
+import org.apache.iotdb.db.sync.conf.SyncSenderConfig;
+import org.apache.iotdb.db.sync.receiver.load.FileLoaderManager;
+import org.apache.iotdb.db.sync.receiver.transfer.SyncServiceImpl;
+import org.apache.iotdb.db.sync.thrift.SyncServiceEventHandler;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.db.utils.FilePathUtils;
+import org.apache.iotdb.service.sync.thrift.ConfirmInfo;
+import org.apache.iotdb.service.sync.thrift.SyncService;
+import org.apache.iotdb.service.sync.thrift.SyncStatus;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.server.TThreadPoolServer;
+import org.apache.thrift.transport.TServerSocket;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Transfer files by SyncConnection to a SyncServiceImpl receiver on a local port. The receiver is
+ * wrapped to reject, drop or refuse chosen pieces and files.
+ */
+public class SyncConnectionTest {
+
+  private static final String SG_NAME = "root.sg1";
+  private static final int PIECE_SIZE = 1024;
+
+  private TServer server;
+  private TTransport transport;
+  private SyncService.Client controlClient;
+  private SyncSenderConfig config = new SyncSenderConfig();
+  private ConfirmInfo confirmInfo;
+  private String senderFolderPath;
+  private SyncTransferMetrics metrics = SyncTransferMetrics.getInstance();
+
+  /**
+   * The piece at this offset is rejected by a wrong checksum once.
+   */
+  private volatile long corruptedOffset = -1;
+
+  /**
+   * The piece at this offset is acknowledged without being received once.
+   */
+  private volatile long droppedOffset = -1;
+
+  /**
+   * The receiver reports a device owner conflict for the file of this name.
+   */
+  private volatile String conflictFileName;
+
+  private ThreadLocal<String> currentFileName = new ThreadLocal<>();
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.envSetUp();
+    FileLoaderManager.getInstance().start();
+
+    TServerSocket serverSocket = new TServerSocket(0);
+    SyncServiceImpl serviceImpl = new SyncServiceImpl();
+    SyncService.Iface receiver = (SyncService.Iface) Proxy
+        .newProxyInstance(getClass().getClassLoader(), new Class[]{SyncService.Iface.class},
+            (proxy, method, args) -> intercept(serviceImpl, method, args));
+    server = new TThreadPoolServer(new TThreadPoolServer.Args(serverSocket)
+        .processor(new SyncService.Processor<>(receiver))
+        .protocolFactory(new TBinaryProtocol.Factory()));
+    CountDownLatch startLatch = new CountDownLatch(1);
+    server.setServerEventHandler(new SyncServiceEventHandler(serviceImpl, startLatch));
+    new Thread(server::serve).start();
+    startLatch.await();
+
+    config.setServerIp("127.0.0.1");
+    config.setServerPort(serverSocket.getServerSocket().getLocalPort());
+    config.setSyncPieceSizeInByte(PIECE_SIZE);
+    config.setSyncCompressor(CompressionType.SNAPPY);
+    config.setMaxNumOfSyncFileRetry(3);
+
+    // start a sync task on the control connection, as the sync client does
+    String uuid = UUID.randomUUID().toString().replaceAll("-", "");
+    confirmInfo = new ConfirmInfo("127.0.0.1", uuid,
+        IoTDBDescriptor.getInstance().getConfig().getPartitionInterval(), IoTDBConstant.VERSION);
+    transport = new TSocket(config.getServerIp(), config.getServerPort());
+    transport.open();
+    controlClient = new SyncService.Client(new TBinaryProtocol(transport));
+    assertEquals(SyncConstant.SUCCESS_CODE, controlClient.check(confirmInfo).code);
+    assertEquals(SyncConstant.SUCCESS_CODE, controlClient.startSync().code);
+    senderFolderPath = FilePathUtils.regularizePath(
+        new File(DirectoryManager.getInstance().getNextFolderForSequenceFile()).getParentFile()
+            .getAbsolutePath()) + SyncConstant.SYNC_RECEIVER + File.separator + "127.0.0.1"
+        + SyncConstant.SYNC_DIR_NAME_SEPARATOR + uuid;
+    metrics.reset();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    controlClient.endSync();
+    transport.close();
+    server.stop();
+    EnvironmentUtils.cleanEnv();
+  }
+
+  private Object intercept(SyncServiceImpl serviceImpl, Method method, Object[] args)
+      throws Throwable {
+    switch (method.getName()) {
+      case "initSyncData":
+      case "resumeSyncData":
+        currentFileName.set((String) args[0]);
+        break;
+      case "syncDataPiece":
+        long offset = (long) args[0];
+        if (offset == corruptedOffset) {
+          corruptedOffset = -1;
+          args[2] = (long) args[2] ^ 1;
+        } else if (offset == droppedOffset) {
+          droppedOffset = -1;
+          return new SyncStatus(SyncConstant.SUCCESS_CODE, "");
+        }
+        break;
+      case "checkDataMD5":
+        if (currentFileName.get().equals(conflictFileName)) {
+          return new SyncStatus(SyncConstant.CONFLICT_CODE, "conflict");
+        }
+        break;
+      default:
+        break;
+    }
+    try {
+      return method.invoke(serviceImpl, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  @Test
+  public void syncFile() throws Exception {
+    byte[] data = generateData(10 * PIECE_SIZE + 100);
+    File file = createSenderFile("1.tsfile.resource", data);
+    SyncConnection connection = new SyncConnection(config, confirmInfo);
+    try {
+      connection.syncFile(SG_NAME, file);
+    } finally {
+      connection.close();
+    }
+    assertArrayEquals(data, Files.readAllBytes(getReceivedFile(file).toPath()));
+    assertEquals(data.length, metrics.getTransferredBytes());
+    assertTrue(metrics.getTransferredWireBytes() < metrics.getTransferredBytes());
+    assertEquals(0, metrics.getResumedBytes());
+    assertEquals(0, metrics.getResentPieceNum());
+  }
+
+  @Test
+  public void resumeFile() throws Exception {
+    byte[] data = generateData(10 * PIECE_SIZE + 100);
+    File file = createSenderFile("2.tsfile.resource", data);
+    // the first 3.5 pieces have been received by a broken transfer
+    int receivedLength = 3 * PIECE_SIZE + PIECE_SIZE / 2;
+    writePartialFile(file, Arrays.copyOf(data, receivedLength));
+
+    SyncConnection connection = new SyncConnection(config, confirmInfo);
+    try {
+      connection.syncFile(SG_NAME, file);
+    } finally {
+      connection.close();
+    }
+    assertArrayEquals(data, Files.readAllBytes(getReceivedFile(file).toPath()));
+    assertEquals(receivedLength, metrics.getResumedBytes());
+    assertEquals(data.length - receivedLength, metrics.getTransferredBytes());
+  }
+
+  @Test
+  public void restartBrokenFile() throws Exception {
+    byte[] data = generateData(5 * PIECE_SIZE);
+    File file = createSenderFile("3.tsfile.resource", data);
+    // the partial data differs from the file, so the MD5 check fails and the file is sent again
+    byte[] wrongData = Arrays.copyOf(data, 2 * PIECE_SIZE);
+    wrongData[10]++;
+    writePartialFile(file, wrongData);
+    File otherFile = createSenderFile("4.tsfile.resource", data);
+    // the partial data is longer than the file
+    writePartialFile(otherFile, generateData(6 * PIECE_SIZE));
+
+    SyncConnection connection = new SyncConnection(config, confirmInfo);
+    try {
+      connection.syncFile(SG_NAME, file);
+      connection.syncFile(SG_NAME, otherFile);
+    } finally {
+      connection.close();
+    }
+    assertArrayEquals(data, Files.readAllBytes(getReceivedFile(file).toPath()));
+    assertArrayEquals(data, Files.readAllBytes(getReceivedFile(otherFile).toPath()));
+    assertEquals(2 * PIECE_SIZE, metrics.getResumedBytes());
+    assertEquals(3 * PIECE_SIZE + 2 * data.length, metrics.getTransferredBytes());
+  }
+
+  @Test
+  public void resendRejectedPiece() throws Exception {
+    byte[] data = generateData(6 * PIECE_SIZE + 100);
+    File file = createSenderFile("5.tsfile.resource", data);
+    corruptedOffset = 2 * PIECE_SIZE;
+
+    SyncConnection connection = new SyncConnection(config, confirmInfo);
+    try {
+      connection.syncFile(SG_NAME, file);
+    } finally {
+      connection.close();
+    }
+    assertArrayEquals(data, Files.readAllBytes(getReceivedFile(file).toPath()));
+    assertEquals(1, metrics.getResentPieceNum());
+    assertEquals(data.length, metrics.getTransferredBytes());
+  }
+
+  @Test
+  public void resendMismatchedPiece() throws Exception {
+    byte[] data = generateData(6 * PIECE_SIZE + 100);
+    File file = createSenderFile("6.tsfile.resource", data);
+    // the receiver misses the third piece, so the fourth one mismatches the received data and
+    // only the third piece is sent again before it
+    droppedOffset = 2 * PIECE_SIZE;
+
+    SyncConnection connection = new SyncConnection(config, confirmInfo);
+    try {
+      connection.syncFile(SG_NAME, file);
+    } finally {
+      connection.close();
+    }
+    assertArrayEquals(data, Files.readAllBytes(getReceivedFile(file).toPath()));
+    assertEquals(1, metrics.getResentPieceNum());
+    assertEquals(data.length + PIECE_SIZE, metrics.getTransferredBytes());
+  }
+
+  @Test
+  public void cleanStalePartialFiles() throws Exception {
+    byte[] data = generateData(2 * PIECE_SIZE);
+    File staleFile = writePartialFile(createSenderFile("7.tsfile.resource", data), data);
+    assertTrue(staleFile.setLastModified(System.currentTimeMillis() - 60_000));
+    File file = createSenderFile("8.tsfile.resource", data);
+    File partialFile = writePartialFile(file, Arrays.copyOf(data, PIECE_SIZE));
+
+    // the partial file touched by the sync task is kept until its transfer is resumed
+    assertEquals(SyncConstant.SUCCESS_CODE, controlClient.endSync().code);
+    assertFalse(staleFile.exists());
+    assertTrue(partialFile.exists());
+
+    assertEquals(SyncConstant.SUCCESS_CODE, controlClient.startSync().code);
+    SyncConnection connection = new SyncConnection(config, confirmInfo);
+    try {
+      connection.syncFile(SG_NAME, file);
+    } finally {
+      connection.close();
+    }
+    assertArrayEquals(data, Files.readAllBytes(getReceivedFile(file).toPath()));
+    assertEquals(PIECE_SIZE, metrics.getResumedBytes());
+  }
+
+  @Test
+  public void syncFilesInParallel() throws Exception {
+    int connectionNum = 3;
+    int fileNum = 12;
+    List<byte[]> dataList = new ArrayList<>();
+    List<File> files = new ArrayList<>();
+    for (int i = 0; i < fileNum; i++) {
+      byte[] data = generateData((i + 1) * PIECE_SIZE + i);
+      dataList.add(data);
+      files.add(createSenderFile((10 + i) + ".tsfile.resource", data));
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(connectionNum);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < connectionNum; i++) {
+      int connectionIndex = i;
+      futures.add(pool.submit(() -> {
+        SyncConnection connection = new SyncConnection(config, confirmInfo);
+        try {
+          for (int j = connectionIndex; j < fileNum; j += connectionNum) {
+            connection.syncFile(SG_NAME + connectionIndex, files.get(j));
+          }
+        } finally {
+          connection.close();
+        }
+        return null;
+      }));
+    }
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+
+    long totalLength = 0;
+    for (int i = 0; i < fileNum; i++) {
+      File receivedFile = new File(senderFolderPath + File.separator
+          + SyncConstant.RECEIVER_DATA_FOLDER_NAME + File.separator + SG_NAME + (i % connectionNum),
+          files.get(i).getName());
+      assertArrayEquals(dataList.get(i), Files.readAllBytes(receivedFile.toPath()));
+      totalLength += dataList.get(i).length;
+    }
+    assertEquals(totalLength, metrics.getTransferredBytes());
+  }
+
+  @Test
+  public void syncFilesByTransferPool() throws Exception {
+    int fileNum = 9;
+    config.setSyncConnectionNum(3);
+    Map<File, File> snapshotFiles = new LinkedHashMap<>();
+    for (int i = 0; i < fileNum; i++) {
+      File file = createTsFilePair((30 + i) + ".tsfile.resource", generateData((i + 1) * 500));
+      snapshotFiles.put(file, file);
+    }
+    Set<File> finishedFiles = ConcurrentHashMap.newKeySet();
+
+    SyncTransferPool transferPool = new SyncTransferPool(config, confirmInfo);
+    try {
+      transferPool.syncFiles(SG_NAME, snapshotFiles, finishedFiles::add);
+    } finally {
+      transferPool.close();
+    }
+    assertEquals(snapshotFiles.keySet(), finishedFiles);
+    for (File file : snapshotFiles.keySet()) {
+      assertArrayEquals(Files.readAllBytes(file.toPath()),
+          Files.readAllBytes(getReceivedFile(file).toPath()));
+      assertTrue(getReceivedFile(getResourceFile(file)).exists());
+    }
+  }
+
+  @Test
+  public void skipFilesAfterConflict() throws Exception {
+    // a single connection transfers the files in order
+    config.setSyncConnectionNum(1);
+    List<File> files = new ArrayList<>();
+    Map<File, File> snapshotFiles = new LinkedHashMap<>();
+    for (int i = 0; i < 4; i++) {
+      File file = createTsFilePair((40 + i) + ".tsfile.resource", generateData(PIECE_SIZE));
+      files.add(file);
+      snapshotFiles.put(file, file);
+    }
+    conflictFileName = files.get(1).getName();
+    List<File> finishedFiles = new ArrayList<>();
+
+    SyncTransferPool transferPool = new SyncTransferPool(config, confirmInfo);
+    try {
+      transferPool.syncFiles(SG_NAME, snapshotFiles, finishedFiles::add);
+      fail("The device owner conflict is not thrown");
+    } catch (SyncDeviceOwnerConflictException e) {
+      // expected
+    } finally {
+      transferPool.close();
+    }
+    assertEquals(files.subList(0, 1), finishedFiles);
+    assertTrue(getReceivedFile(files.get(0)).exists());
+    assertFalse(getReceivedFile(files.get(2)).exists());
+    assertFalse(getReceivedFile(getResourceFile(files.get(3))).exists());
+  }
+
+  @Test
+  public void throwConflictBeforeFailure() throws Exception {
+    config.setSyncConnectionNum(1);
+    Map<File, File> snapshotFiles = new LinkedHashMap<>();
+    // the first file can not be read, so its transfer fails after retries
+    File missingFile = new File(IoTDBDescriptor.getInstance().getConfig().getSyncDir(),
+        "sender" + File.separator + "50.tsfile.resource");
+    snapshotFiles.put(missingFile, missingFile);
+    File conflictFile = createTsFilePair("51.tsfile.resource", generateData(PIECE_SIZE));
+    snapshotFiles.put(conflictFile, conflictFile);
+    conflictFileName = conflictFile.getName();
+    List<File> finishedFiles = new ArrayList<>();
+
+    SyncTransferPool transferPool = new SyncTransferPool(config, confirmInfo);
+    try {
+      transferPool.syncFiles(SG_NAME, snapshotFiles, finishedFiles::add);
+      fail("The device owner conflict is not thrown");
+    } catch (SyncDeviceOwnerConflictException e) {
+      // expected
+    } finally {
+      transferPool.close();
+    }
+    assertTrue(finishedFiles.isEmpty());
+  }
+
+  /**
+   * @return random data which can be compressed
+   */
+  private byte[] generateData(int length) {
+    Random random = new Random(length);
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) (i % 3 == 0 ? random.nextInt() : i % 7);
+    }
+    return data;
+  }
+
+  /**
+   * The files are named as .resource files, so that the receiver does not load them.
+   */
+  private File createSenderFile(String name, byte[] data) throws IOException {
+    File file = new File(IoTDBDescriptor.getInstance().getConfig().getSyncDir(),
+        "sender" + File.separator + name);
+    assertTrue(name.endsWith(TsFileResource.RESOURCE_SUFFIX));
+    file.getParentFile().mkdirs();
+    try (FileOutputStream outputStream = new FileOutputStream(file)) {
+      outputStream.write(data);
+    }
+    return file;
+  }
+
+  /**
+   * Create a sender file together with its .resource file, as a snapshot of a tsfile.
+   */
+  private File createTsFilePair(String name, byte[] data) throws IOException {
+    createSenderFile(name + TsFileResource.RESOURCE_SUFFIX, generateData(100));
+    return createSenderFile(name, data);
+  }
+
+  private File getResourceFile(File file) {
+    return new File(file.getAbsolutePath() + TsFileResource.RESOURCE_SUFFIX);
+  }
+
+  private File writePartialFile(File file, byte[] data) throws IOException {
+    File partialFile = new File(senderFolderPath + File.separator
+        + SyncConstant.RECEIVER_PARTIAL_DATA_FOLDER_NAME + File.separator + SG_NAME,
+        file.getName());
+    partialFile.getParentFile().mkdirs();
+    try (FileOutputStream outputStream = new FileOutputStream(partialFile)) {
+      outputStream.write(data);
+    }
+    return partialFile;
+  }
+
+  private File getReceivedFile(File file) {
+    return new File(senderFolderPath + File.separator + SyncConstant.RECEIVER_DATA_FOLDER_NAME
+        + File.separator + SG_NAME, file.getName());
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.iotdb.db.engine.modification.Deletion;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.junit.Test;
+
+public class QueryUtilsTest {
+
+  private Path path = new Path("root.sg.d1", "s1");
+
+  private ChunkMetadata chunkMetadata(long version, long startTime, long endTime) {
+    Statistics statistics = Statistics.getStatsByType(TSDataType.INT64);
+    statistics.update(startTime, startTime);
+    statistics.update(endTime, endTime);
+    ChunkMetadata chunkMetadata = new ChunkMetadata("s1", TSDataType.INT64, 0, statistics);
+    chunkMetadata.setVersion(version);
+    return chunkMetadata;
+  }
+
+  @Test
+  public void testModifyChunkMetaData() {
+    ChunkMetadata chunk1 = chunkMetadata(1, 0, 99);
+    ChunkMetadata chunk2 = chunkMetadata(5, 100, 199);
+    ChunkMetadata chunk3 = chunkMetadata(1, 200, 299);
+    List<ChunkMetadata> chunkMetadataList = new ArrayList<>(Arrays.asList(chunk1, chunk2, chunk3));
+    // written in a different order from their start times
+    List<Modification> modifications = Arrays.asList(
+        new Deletion(path, 2, 50, 60),
+        new Deletion(path, 2, 10, 20),
+        new Deletion(path, 3, 21, 30),
+        new Deletion(path, 4, 150, 160),
+        new Deletion(path, 6, 180, 250),
+        new Deletion(path, 7, 15, 25),
+        new Deletion(path, 8, 200, 299));
+
+    QueryUtils.modifyChunkMetaData(chunkMetadataList, modifications);
+
+    // chunk3 is deleted completely
+    assertEquals(Arrays.asList(chunk1, chunk2), chunkMetadataList);
+    assertEquals(Arrays.asList(new TimeRange(10, 30), new TimeRange(50, 60)),
+        chunk1.getDeleteIntervalList());
+    assertFalse(chunk1.getStatistics().canUseStatistics());
+    // the deletion of version 4 is written before chunk2
+    assertEquals(Arrays.asList(new TimeRange(180, 250)), chunk2.getDeleteIntervalList());
+  }
+
+  @Test
+  public void testMergeExistingIntervals() {
+    ChunkMetadata chunk = chunkMetadata(1, 0, 99);
+    chunk.setDeleteIntervalList(new ArrayList<>(
+        Arrays.asList(new TimeRange(0, 5), new TimeRange(40, 45), new TimeRange(90, 95))));
+    List<ChunkMetadata> chunkMetadataList = new ArrayList<>(Arrays.asList(chunk));
+
+    QueryUtils.modifyChunkMetaData(chunkMetadataList, Arrays.asList(
+        new Deletion(path, 2, 6, 10),
+        new Deletion(path, 2, 30, 42),
+        new Deletion(path, 2, 100, 200)));
+
+    assertEquals(Arrays.asList(new TimeRange(0, 10), new TimeRange(30, 45),
+        new TimeRange(90, 95)), chunk.getDeleteIntervalList());
+    assertTrue(chunk.isPartlyDeleted());
+
+    ChunkMetadata untouched = chunkMetadata(1, 0, 99);
+    QueryUtils.modifyChunkMetaData(new ArrayList<>(Arrays.asList(untouched)),
+        Arrays.asList(new Deletion(path, 1, 0, 99), new Deletion(path, 2, 100, 200)));
+    assertNull(untouched.getDeleteIntervalList());
+  }
+}
@@ -75,6 +75,55 @@ public class LongTVListTest {
   }
 
 
+  @Test
+  public void testSnapshot() {
+    LongTVList tvList = new LongTVList();
+    for (long i = 999; i >= 0; i--) {
+      tvList.putLong(i, i);
+    }
+    TVList snapshot = tvList.snapshot();
+
+    // modifications of the working list are invisible to the snapshot
+    for (long i = 2000; i <= 2100; i++) {
+      tvList.putLong(i, i);
+    }
+    tvList.delete(100);
+    tvList.sort();
+    Assert.assertEquals(1000, tvList.size());
+    Assert.assertEquals(101, tvList.getTime(0));
+    Assert.assertEquals(2100, tvList.getLong(999));
+
+    // only the points not earlier than the time offset are sorted
+    snapshot.setTimeOffset(500);
+    snapshot.sort();
+    Assert.assertEquals(500, snapshot.size());
+    for (int i = 0; i < snapshot.size(); i++) {
+      Assert.assertEquals(500 + i, snapshot.getTime(i));
+      Assert.assertEquals(500 + i, snapshot.getLong(i));
+    }
+  }
+
+  @Test
+  public void testSnapshotAfterClear() {
+    LongTVList tvList = new LongTVList();
+    for (long i = 0; i < 1000; i++) {
+      tvList.putLong(i, i);
+    }
+    TVList snapshot = tvList.snapshot();
+    // the shared arrays are not returned to the pool and reused by other lists
+    tvList.clear();
+    LongTVList otherList = new LongTVList();
+    for (long i = 0; i < 1000; i++) {
+      otherList.putLong(-1, -1);
+    }
+    snapshot.sort();
+    Assert.assertEquals(1000, snapshot.size());
+    for (int i = 0; i < snapshot.size(); i++) {
+      Assert.assertEquals(i, snapshot.getTime(i));
+      Assert.assertEquals(i, snapshot.getLong(i));
+    }
+  }
+
   @Test
   public void compareLongTVListSortTime() {
     for (int j = 0; j < 100; j++) {
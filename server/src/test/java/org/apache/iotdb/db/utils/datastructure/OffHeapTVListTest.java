@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.iotdb.db.rescon.OffHeapArena;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.utils.TsPrimitiveType.TsDouble;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapTVListTest {
+
+  @Test
+  public void testSort() {
+    Random random = new Random();
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.DOUBLE);
+    List<TimeValuePair> inputs = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      long time = random.nextInt(10000);
+      double value = random.nextDouble();
+      tvList.putDouble(time, value);
+      inputs.add(new TimeValuePair(time, new TsDouble(value)));
+    }
+    tvList.sort();
+    inputs.sort(TimeValuePair::compareTo);
+    for (int i = 0; i < tvList.size(); i++) {
+      Assert.assertEquals(inputs.get(i).getTimestamp(), tvList.getTime(i));
+      Assert.assertEquals(inputs.get(i).getValue().getDouble(), tvList.getDouble(i), 0);
+    }
+  }
+
+  @Test
+  public void testDataTypes() {
+    OffHeapTVList booleanList = new OffHeapTVList(TSDataType.BOOLEAN);
+    OffHeapTVList intList = new OffHeapTVList(TSDataType.INT32);
+    OffHeapTVList longList = new OffHeapTVList(TSDataType.INT64);
+    OffHeapTVList floatList = new OffHeapTVList(TSDataType.FLOAT);
+    long[] times = new long[300];
+    int[] ints = new int[300];
+    for (int i = 0; i < 300; i++) {
+      times[i] = 299 - i;
+      ints[i] = -i;
+      booleanList.putBoolean(299 - i, i % 2 == 0);
+      longList.putLong(299 - i, Long.MIN_VALUE + i);
+      floatList.putFloat(299 - i, i + 0.5f);
+    }
+    intList.putInts(times, ints);
+    for (TVList tvList : new TVList[]{booleanList, intList, longList, floatList}) {
+      tvList.sort();
+      Assert.assertEquals(300, tvList.size());
+    }
+    for (int i = 0; i < 300; i++) {
+      Assert.assertEquals(i, intList.getTime(i));
+      Assert.assertEquals((299 - i) % 2 == 0, booleanList.getBoolean(i));
+      Assert.assertEquals(i - 299, intList.getInt(i));
+      Assert.assertEquals(Long.MIN_VALUE + 299 - i, longList.getLong(i));
+      Assert.assertEquals(299 - i + 0.5f, floatList.getFloat(i), 0);
+    }
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testInconsistentDataType() {
+    new OffHeapTVList(TSDataType.INT32).putLong(1, 1);
+  }
+
+  @Test
+  public void testSnapshotAndRelease() {
+    long inUseBytes = OffHeapArena.getInstance().getInUseBytes();
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.INT64);
+    for (long i = 999; i >= 0; i--) {
+      tvList.putLong(i, i);
+    }
+    TVList snapshot = tvList.snapshot();
+
+    // modifications of the working list are invisible to the snapshot
+    for (long i = 2000; i <= 2100; i++) {
+      tvList.putLong(i, i);
+    }
+    tvList.delete(100);
+    tvList.sort();
+    Assert.assertEquals(1000, tvList.size());
+    Assert.assertEquals(101, tvList.getTime(0));
+    Assert.assertEquals(2100, tvList.getLong(999));
+
+    snapshot.setTimeOffset(500);
+    snapshot.sort();
+    Assert.assertEquals(500, snapshot.size());
+    for (int i = 0; i < snapshot.size(); i++) {
+      Assert.assertEquals(500 + i, snapshot.getTime(i));
+      Assert.assertEquals(500 + i, snapshot.getLong(i));
+    }
+
+    tvList.clear();
+    Assert.assertEquals(inUseBytes, OffHeapArena.getInstance().getInUseBytes());
+  }
+
+  @Test
+  public void testSlabsHandedOverToSnapshot() {
+    long inUseBytes = OffHeapArena.getInstance().getInUseBytes();
+    OffHeapTVList tvList = new OffHeapTVList(TSDataType.INT32);
+    for (int i = 0; i < 1000; i++) {
+      tvList.putInt(i, i);
+    }
+    TVList snapshot = tvList.snapshot();
+    long sharedBytes = OffHeapArena.getInstance().getInUseBytes() - inUseBytes;
+
+    // the slabs read by the snapshot are kept until the snapshot lets them go
+    for (int i = 1000; i < 2000; i++) {
+      tvList.putInt(i, i);
+    }
+    tvList.clear();
+    Assert.assertEquals(inUseBytes + sharedBytes, OffHeapArena.getInstance().getInUseBytes());
+    for (int i = 0; i < snapshot.size(); i++) {
+      Assert.assertEquals(i, snapshot.getInt(i));
+    }
+
+    snapshot.clear();
+    Assert.assertEquals(inUseBytes, OffHeapArena.getInstance().getInUseBytes());
+    Assert.assertTrue(OffHeapArena.getInstance().getChunkBytes() > 0);
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Time alignment benchmark. Align the timestamps of many series, most of which are sampled at the
+ * same time and some of which miss a part of the points, with a TreeSet and with a TimeSelector,
+ * and print the rows aligned per second.
+ */
+public class TimeSelectorBenchmark {
+
+  private static int seriesNum = 1000;
+  private static int pointNum = 10000;
+  private static int rounds = 5;
+
+  public static void main(String[] args) {
+    long[][] times = generateTimes();
+    for (int round = 0; round < rounds; round++) {
+      long startTime = System.nanoTime();
+      long rowNum = alignWithTreeSet(times);
+      long treeSetTime = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      long selectorRowNum = alignWithTimeSelector(times);
+      long selectorTime = System.nanoTime() - startTime;
+      if (rowNum != selectorRowNum) {
+        throw new IllegalStateException(rowNum + " != " + selectorRowNum);
+      }
+      System.out.println(String.format(
+          "round %d, %d series, %d rows, TreeSet: %.1f rows/ms, TimeSelector: %.1f rows/ms",
+          round, seriesNum, rowNum, rowNum / (treeSetTime / 1e6),
+          rowNum / (selectorTime / 1e6)));
+    }
+  }
+
+  private static long alignWithTreeSet(long[][] times) {
+    int[] cursors = new int[seriesNum];
+    TreeSet<Long> timeHeap = new TreeSet<>();
+    for (long[] seriesTimes : times) {
+      timeHeap.add(seriesTimes[0]);
+    }
+    long rowNum = 0;
+    while (!timeHeap.isEmpty()) {
+      long minTime = timeHeap.pollFirst();
+      for (int i = 0; i < seriesNum; i++) {
+        if (cursors[i] < times[i].length && times[i][cursors[i]] == minTime) {
+          cursors[i]++;
+          if (cursors[i] < times[i].length) {
+            timeHeap.add(times[i][cursors[i]]);
+          }
+        }
+      }
+      rowNum++;
+    }
+    return rowNum;
+  }
+
+  private static long alignWithTimeSelector(long[][] times) {
+    int[] cursors = new int[seriesNum];
+    TimeSelector timeHeap = new TimeSelector(seriesNum);
+    for (long[] seriesTimes : times) {
+      timeHeap.add(seriesTimes[0]);
+    }
+    long rowNum = 0;
+    while (!timeHeap.isEmpty()) {
+      long minTime = timeHeap.pollFirst();
+      for (int i = 0; i < seriesNum; i++) {
+        if (cursors[i] < times[i].length && times[i][cursors[i]] == minTime) {
+          cursors[i]++;
+          if (cursors[i] < times[i].length) {
+            timeHeap.add(times[i][cursors[i]]);
+          }
+        }
+      }
+      rowNum++;
+    }
+    return rowNum;
+  }
+
+  private static long[][] generateTimes() {
+    Random random = new Random(1);
+    long[][] times = new long[seriesNum][];
+    for (int i = 0; i < seriesNum; i++) {
+      // one in ten series misses about half of the points
+      boolean sparse = i % 10 == 0;
+      long[] seriesTimes = new long[pointNum];
+      int size = 0;
+      for (int j = 0; j < pointNum; j++) {
+        if (!sparse || random.nextBoolean()) {
+          seriesTimes[size++] = j * 1000L;
+        }
+      }
+      times[i] = Arrays.copyOf(seriesTimes, size);
+    }
+    return times;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeSelectorTest {
+
+  @Test
+  public void testDuplicatedTime() {
+    TimeSelector selector = new TimeSelector(2);
+    for (long time : new long[]{5, 3, 5, 1, 3, 3, 9, 1}) {
+      selector.add(time);
+    }
+    Assert.assertEquals(1, selector.first());
+    Assert.assertEquals(1, selector.pollFirst());
+    Assert.assertEquals(3, selector.pollFirst());
+    Assert.assertEquals(5, selector.pollFirst());
+    Assert.assertEquals(9, selector.pollFirst());
+    Assert.assertTrue(selector.isEmpty());
+  }
+
+  @Test
+  public void testSameAsTreeSet() {
+    Random random = new Random(7);
+    TimeSelector selector = new TimeSelector(16);
+    TreeSet<Long> treeSet = new TreeSet<>();
+    for (int i = 0; i < 100000; i++) {
+      // interleave adding and polling like aligning series does
+      if (random.nextInt(3) > 0 || treeSet.isEmpty()) {
+        long time = random.nextInt(1000) - 500;
+        selector.add(time);
+        treeSet.add(time);
+      } else {
+        Assert.assertEquals((long) treeSet.pollFirst(), selector.pollFirst());
+      }
+    }
+    while (!treeSet.isEmpty()) {
+      Assert.assertFalse(selector.isEmpty());
+      Assert.assertEquals((long) treeSet.pollFirst(), selector.pollFirst());
+    }
+    Assert.assertTrue(selector.isEmpty());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPollEmpty() {
+    TimeSelector selector = new TimeSelector(1);
+    selector.add(1);
+    selector.clear();
+    selector.pollFirst();
+  }
+}
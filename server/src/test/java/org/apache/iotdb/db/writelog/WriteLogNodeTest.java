@@ -24,12 +24,21 @@ import static junit.framework.TestCase.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.db.writelog.io.ILogReader;
+import org.apache.iotdb.db.writelog.manager.WALGroupCommitter;
 import org.apache.iotdb.db.writelog.node.ExclusiveWriteLogNode;
 import org.apache.iotdb.db.writelog.node.WriteLogNode;
 import org.apache.iotdb.tsfile.read.common.Path;
@@ -193,4 +202,125 @@ public class WriteLogNodeTest {
 
     logNode.delete();
   }
+
+  @Test
+  public void testGroupCommit() throws Exception {
+    // several threads write logs of two nodes concurrently through the WAL writer thread, then
+    // every log of a node can be read back in the order it is written by its thread
+    String[] identifiers = {"root.logTestDevice.group1", "root.logTestDevice.group2"};
+    WriteLogNode[] logNodes = new WriteLogNode[identifiers.length];
+    for (int i = 0; i < identifiers.length; i++) {
+      logNodes[i] = new ExclusiveWriteLogNode(identifiers[i]);
+    }
+    int threadNum = 4;
+    int logNumPerThread = 100;
+    WALGroupCommitter groupCommitter = WALGroupCommitter.getInstance();
+    groupCommitter.start();
+    try {
+      ExecutorService pool = Executors.newFixedThreadPool(threadNum);
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int t = 0; t < threadNum; t++) {
+        int threadId = t;
+        futures.add(pool.submit(() -> {
+          WriteLogNode logNode = logNodes[threadId % logNodes.length];
+          for (int i = 0; i < logNumPerThread; i++) {
+            logNode.write(new InsertPlan(logNode.getIdentifier(), threadId * 1000L + i,
+                new String[]{"s1"}, new String[]{"1.0"}));
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+      pool.shutdown();
+    } finally {
+      groupCommitter.stop();
+    }
+    assertFalse(groupCommitter.isRunning());
+    assertTrue(groupCommitter.getCommittedLogNum() >= threadNum * logNumPerThread);
+
+    for (WriteLogNode logNode : logNodes) {
+      ILogReader reader = logNode.getLogReader();
+      Map<Long, Long> lastTimeOfThreads = new HashMap<>();
+      int logNum = 0;
+      while (reader.hasNext()) {
+        InsertPlan plan = (InsertPlan) reader.next();
+        long threadId = plan.getTime() / 1000;
+        Long lastTime = lastTimeOfThreads.put(threadId, plan.getTime());
+        assertTrue(lastTime == null || lastTime < plan.getTime());
+        logNum++;
+      }
+      reader.close();
+      assertEquals(threadNum / logNodes.length * logNumPerThread, logNum);
+      logNode.delete();
+    }
+  }
+
+  @Test
+  public void testLoneWriterLatency() throws Exception {
+    // a single inserting thread does not wait for the max delay before its log is forced
+    long maxDelayInMs = config.getWalGroupCommitMaxDelayInMs();
+    config.setWalGroupCommitMaxDelayInMs(500);
+    WriteLogNode logNode = new ExclusiveWriteLogNode("root.logTestDevice.groupLone");
+    WALGroupCommitter groupCommitter = WALGroupCommitter.getInstance();
+    groupCommitter.start();
+    int logNum = 10;
+    long groupNum = groupCommitter.getCommittedGroupNum();
+    long startTime = System.currentTimeMillis();
+    try {
+      for (int i = 0; i < logNum; i++) {
+        logNode.write(new InsertPlan(logNode.getIdentifier(), i, new String[]{"s1"},
+            new String[]{"1.0"}));
+      }
+    } finally {
+      groupCommitter.stop();
+      config.setWalGroupCommitMaxDelayInMs(maxDelayInMs);
+    }
+    // waiting for the delay would take 5 seconds
+    assertTrue(System.currentTimeMillis() - startTime < 2500);
+    assertEquals(groupNum + logNum, groupCommitter.getCommittedGroupNum());
+    logNode.delete();
+  }
+
+  @Test
+  public void testStopDuringGroupCommit() throws Exception {
+    // the committer is stopped while threads are writing, no write may hang or lose its log
+    WriteLogNode logNode = new ExclusiveWriteLogNode("root.logTestDevice.groupStop");
+    int threadNum = 4;
+    int logNumPerThread = 500;
+    WALGroupCommitter groupCommitter = WALGroupCommitter.getInstance();
+    groupCommitter.start();
+    ExecutorService pool = Executors.newFixedThreadPool(threadNum);
+    List<Future<Void>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < threadNum; t++) {
+        int threadId = t;
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < logNumPerThread; i++) {
+            logNode.write(new InsertPlan(logNode.getIdentifier(), threadId * 1000L + i,
+                new String[]{"s1"}, new String[]{"1.0"}));
+          }
+          return null;
+        }));
+      }
+    } finally {
+      groupCommitter.stop();
+    }
+    for (Future<Void> future : futures) {
+      future.get(1, TimeUnit.MINUTES);
+    }
+    pool.shutdown();
+    logNode.forceSync();
+
+    ILogReader reader = logNode.getLogReader();
+    int logNum = 0;
+    while (reader.hasNext()) {
+      reader.next();
+      logNum++;
+    }
+    reader.close();
+    assertEquals(threadNum * logNumPerThread, logNum);
+    logNode.delete();
+  }
 }
@@ -27,8 +27,10 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
+import org.apache.iotdb.db.qp.physical.PhysicalPlan.PhysicalPlanType;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
 import org.apache.iotdb.db.qp.physical.crud.InsertPlan;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.junit.Before;
 import org.junit.Test;
@@ -49,9 +51,11 @@ public class LogWriterReaderTest {
     InsertPlan insertPlan2 = new InsertPlan("d1", 10L, new String[]{"s1", "s2"},
         new String[]{"1", "2"});
     DeletePlan deletePlan = new DeletePlan(10L, new Path("root.d1.s1"));
+    DeletePlan rangeDeletePlan = new DeletePlan(5L, 10L, new Path("root.d1.s1"));
     plans.add(insertPlan1);
     plans.add(insertPlan2);
     plans.add(deletePlan);
+    plans.add(rangeDeletePlan);
     for (PhysicalPlan plan : plans) {
       plan.serializeTo(logsBuffer);
     }
@@ -77,4 +81,27 @@ public class LogWriterReaderTest {
       new File(filePath).delete();
     }
   }
+
+  /**
+   * the logs written before the time ranges of deletions keep only the end time
+   */
+  @Test
+  public void testReadDeleteOfOldLayout() throws IOException {
+    byte[] path = "root.d1.s1".getBytes(TSFileConfig.STRING_CHARSET);
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    buffer.put((byte) PhysicalPlanType.DELETE.ordinal());
+    buffer.putLong(10L);
+    buffer.putInt(path.length);
+    buffer.put(path);
+    buffer.flip();
+    assertEquals(new DeletePlan(10L, new Path("root.d1.s1")), PhysicalPlan.Factory.create(buffer));
+    assertEquals(0, buffer.remaining());
+
+    // a deletion without a start time is still written in the old layout
+    ByteBuffer serialized = ByteBuffer.allocate(64);
+    new DeletePlan(10L, new Path("root.d1.s1")).serializeTo(serialized);
+    serialized.flip();
+    buffer.rewind();
+    assertEquals(buffer, serialized);
+  }
 }
@@ -191,10 +191,27 @@ struct TSInsertInBatchReq {
     5: required list<i64> timestamps
 }
 
+// the tablets of many devices, each one is encoded like a TSBatchInsertionReq
+struct TSInsertTabletsReq {
+    1: required i64 sessionId
+    2: required list<string> deviceIds
+    3: required list<list<string>> measurementsList
+    4: required list<binary> valuesList
+    5: required list<binary> timestampsList
+    6: required list<list<i32>> typesList
+    7: required list<i32> sizeList
+    // the null bitmap of each tablet, (size + 7) / 8 bytes for every measurement in which the bit
+    // (7 - row % 8) of byte (row / 8) is set if the row is null, the bits are in the same order as
+    // the bitmaps of TSQueryDataSet. An empty binary if the tablet has no null
+    8: optional list<binary> bitmapsList
+}
+
 struct TSDeleteDataReq {
     1: required i64 sessionId
     2: required list<string> paths
     3: required i64 timestamp
+    // the data in [startTime, timestamp] are deleted, and all the data up to timestamp if absent
+    4: optional i64 startTime
 }
 
 struct TSCreateTimeseriesReq {
@@ -269,12 +286,16 @@ service TSIService {
 
 	TSExecuteBatchStatementResp insertRowInBatch(1:TSInsertInBatchReq req);
 
+	TSExecuteBatchStatementResp insertTablets(1:TSInsertTabletsReq req);
+
 	TSExecuteBatchStatementResp testInsertBatch(1:TSBatchInsertionReq req);
 
   TSStatus testInsertRow(1:TSInsertReq req);
 
   TSExecuteBatchStatementResp testInsertRowInBatch(1:TSInsertInBatchReq req);
 
+  TSExecuteBatchStatementResp testInsertTablets(1:TSInsertTabletsReq req);
+
 	TSStatus deleteData(1:TSDeleteDataReq req);
 
 	i64 requestStatementId(1:i64 sessionId);
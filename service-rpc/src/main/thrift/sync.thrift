@@ -47,4 +47,16 @@ service SyncService{
 	SyncStatus syncData(1:binary buff)
 	SyncStatus checkDataMD5(1:string md5)
 	SyncStatus endSync()
+
+	// Join the sync task that the sender has started by check and startSync on another
+	// connection, so that the sender can transfer files over several connections in parallel.
+	SyncStatus joinSync(1:ConfirmInfo info)
+
+	// Start to receive a file from where its last transfer stopped, the msg of the result is the
+	// length of the data that the receiver has already received.
+	SyncStatus resumeSyncData(1:string filename)
+
+	// Receive a piece of the file at offset. The checksum is the CRC32 of the uncompressed piece,
+	// and the compressionType is the serialized CompressionType of buff.
+	SyncStatus syncDataPiece(1:i64 offset, 2:binary buff, 3:i64 checksum, 4:i16 compressionType)
 }
\ No newline at end of file
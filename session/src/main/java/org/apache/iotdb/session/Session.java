@@ -23,6 +23,7 @@ import static org.apache.iotdb.session.Config.PATH_PATTERN;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +41,7 @@ import org.apache.iotdb.service.rpc.thrift.TSGetTimeZoneResp;
 import org.apache.iotdb.service.rpc.thrift.TSIService;
 import org.apache.iotdb.service.rpc.thrift.TSInsertInBatchReq;
 import org.apache.iotdb.service.rpc.thrift.TSInsertReq;
+import org.apache.iotdb.service.rpc.thrift.TSInsertTabletsReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionResp;
 import org.apache.iotdb.service.rpc.thrift.TSProtocolVersion;
@@ -52,10 +54,13 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.record.RowBatch;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.thrift.TApplicationException;
 import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.transport.TFramedTransport;
 import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
 import org.apache.thrift.transport.TTransportException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,11 +75,15 @@ public class Session {
   private String password;
   private TSIService.Iface client = null;
   private long sessionId;
-  private TSocket transport;
+  private TTransport transport;
   private boolean isClosed = true;
   private ZoneId zoneId;
   private long statementId;
   private int fetchSize;
+  /**
+   * false if the server is older than insertTablets, the row batches are then inserted one by one
+   */
+  private volatile boolean insertTabletsSupported = true;
 
   public Session(String host, int port) {
     this(host, port, Config.DEFAULT_USER, Config.DEFAULT_PASSWORD);
@@ -101,19 +110,30 @@ public class Session {
   }
 
   public synchronized void open() throws IoTDBConnectionException {
-    open(false, Config.DEFAULT_TIMEOUT_MS);
+    open(false, false, Config.DEFAULT_TIMEOUT_MS);
   }
 
   public synchronized void open(boolean enableRPCCompression) throws IoTDBConnectionException {
-    open(enableRPCCompression, Config.DEFAULT_TIMEOUT_MS);
+    open(enableRPCCompression, false, Config.DEFAULT_TIMEOUT_MS);
   }
 
-  private synchronized void open(boolean enableRPCCompression, int connectionTimeoutInMs)
+  /**
+   * @param enableFramedTransport must be true if the server enables the non-blocking server
+   */
+  public synchronized void open(boolean enableRPCCompression, boolean enableFramedTransport)
       throws IoTDBConnectionException {
+    open(enableRPCCompression, enableFramedTransport, Config.DEFAULT_TIMEOUT_MS);
+  }
+
+  private synchronized void open(boolean enableRPCCompression, boolean enableFramedTransport,
+      int connectionTimeoutInMs) throws IoTDBConnectionException {
     if (!isClosed) {
       return;
     }
     transport = new TSocket(host, port, connectionTimeoutInMs);
+    if (enableFramedTransport) {
+      transport = new TFramedTransport(transport);
+    }
     if (!transport.isOpen()) {
       try {
         transport.open();
@@ -162,6 +182,7 @@ public class Session {
       throw new IoTDBConnectionException(e);
     }
     isClosed = false;
+    insertTabletsSupported = true;
 
     client = RpcUtils.newSynchronizedClient(client);
 
@@ -246,10 +267,7 @@ public class Session {
    */
   public void insertMultipleDeviceBatch
   (Map<String, RowBatch> rowBatchMap) throws IoTDBConnectionException, BatchExecutionException {
-    for (Map.Entry<String, RowBatch> dataInOneDevice : rowBatchMap.entrySet()) {
-      sortRowBatch(dataInOneDevice.getValue());
-      insertBatch(dataInOneDevice.getValue());
-    }
+    insertTablets(new ArrayList<>(rowBatchMap.values()));
   }
 
   /**
@@ -260,10 +278,95 @@ public class Session {
    */
   public void insertMultipleDeviceSortedBatch
   (Map<String, RowBatch> rowBatchMap) throws IoTDBConnectionException, BatchExecutionException {
-    for (Map.Entry<String, RowBatch> dataInOneDevice : rowBatchMap.entrySet()) {
-      checkSorted(dataInOneDevice.getValue());
-      insertSortedBatchIntern(dataInOneDevice.getValue());
+    insertSortedTablets(new ArrayList<>(rowBatchMap.values()));
+  }
+
+  /**
+   * insert the row batches of many devices in one RPC, the values are sent in binary and the
+   * values marked null in a row batch are not inserted. It is much cheaper than calling
+   * insertBatch for each device when there are many small row batches.
+   *
+   * @param rowBatches row batches of different devices
+   */
+  public void insertTablets(List<RowBatch> rowBatches)
+      throws IoTDBConnectionException, BatchExecutionException {
+    for (RowBatch rowBatch : rowBatches) {
+      sortRowBatch(rowBatch);
     }
+    insertSortedTabletsIntern(rowBatches);
+  }
+
+  /**
+   * insert the row batches of many devices in one RPC, times in each row batch must be sorted
+   * before!
+   *
+   * @param rowBatches row batches of different devices
+   */
+  public void insertSortedTablets(List<RowBatch> rowBatches)
+      throws IoTDBConnectionException, BatchExecutionException {
+    for (RowBatch rowBatch : rowBatches) {
+      if (!checkSorted(rowBatch)) {
+        throw new BatchExecutionException(
+            "Row batch of " + rowBatch.deviceId + " has't been sorted when calling "
+                + "insertSortedTablets");
+      }
+    }
+    insertSortedTabletsIntern(rowBatches);
+  }
+
+  private void insertSortedTabletsIntern(List<RowBatch> rowBatches)
+      throws IoTDBConnectionException, BatchExecutionException {
+    if (insertTabletsSupported) {
+      try {
+        RpcUtils.verifySuccess(client.insertTablets(genTSInsertTabletsReq(rowBatches)).statusList);
+        return;
+      } catch (TApplicationException e) {
+        if (e.getType() != TApplicationException.UNKNOWN_METHOD) {
+          throw new IoTDBConnectionException(e);
+        }
+        logger.info("The server does not support insertTablets, insert the row batches one by one");
+        insertTabletsSupported = false;
+      } catch (TException e) {
+        throw new IoTDBConnectionException(e);
+      }
+    }
+
+    // the old interface cannot carry nulls
+    for (RowBatch rowBatch : rowBatches) {
+      for (int i = 0; i < rowBatch.getSchemas().size(); i++) {
+        if (rowBatch.hasNull(i)) {
+          throw new BatchExecutionException("The server does not support null values, the row "
+              + "batch of " + rowBatch.deviceId + " cannot be inserted");
+        }
+      }
+    }
+    for (RowBatch rowBatch : rowBatches) {
+      insertSortedBatchIntern(rowBatch);
+    }
+  }
+
+  private TSInsertTabletsReq genTSInsertTabletsReq(List<RowBatch> rowBatches) {
+    TSInsertTabletsReq request = new TSInsertTabletsReq();
+    request.setSessionId(sessionId);
+    request.setDeviceIds(new ArrayList<>(rowBatches.size()));
+    request.setMeasurementsList(new ArrayList<>(rowBatches.size()));
+    request.setTypesList(new ArrayList<>(rowBatches.size()));
+    for (RowBatch rowBatch : rowBatches) {
+      List<String> measurements = new ArrayList<>(rowBatch.getSchemas().size());
+      List<Integer> types = new ArrayList<>(rowBatch.getSchemas().size());
+      for (MeasurementSchema measurementSchema : rowBatch.getSchemas()) {
+        measurements.add(measurementSchema.getMeasurementId());
+        types.add(measurementSchema.getType().ordinal());
+      }
+      request.addToDeviceIds(rowBatch.deviceId);
+      request.addToMeasurementsList(measurements);
+      request.addToTypesList(types);
+      request.addToTimestampsList(SessionUtils.getTimeBuffer(rowBatch));
+      request.addToValuesList(SessionUtils.getValueBuffer(rowBatch));
+      request.addToBitmapsList(SessionUtils.getBitmapBuffer(rowBatch));
+      request.addToSizeList(rowBatch.batchSize);
+    }
+    return request;
   }
 
   /**
@@ -294,6 +397,16 @@ public class Session {
     for (int i = 0; i < rowBatch.getSchemas().size(); i++) {
       rowBatch.values[i] =
           sortList(rowBatch.values[i], rowBatch.getSchemas().get(i).getType(), index);
+      BitSet nullRows = rowBatch.getNullRows(i);
+      if (nullRows != null) {
+        BitSet sortedNullRows = new BitSet(rowBatch.getMaxBatchSize());
+        for (int j = 0; j < index.length; j++) {
+          if (nullRows.get(index[j])) {
+            sortedNullRows.set(j);
+          }
+        }
+        rowBatch.setNullRows(i, sortedNullRows);
+      }
     }
   }
 
@@ -302,7 +415,7 @@ public class Session {
    *
    * @param valueList value list
    * @param dataType  data type
-   * @param index     index
+   * @param index     index[i] is the row that goes to position i after sorting
    * @return sorted list
    */
   private Object sortList(Object valueList, TSDataType dataType, Integer[] index) {
@@ -311,42 +424,42 @@ public class Session {
         boolean[] boolValues = (boolean[]) valueList;
         boolean[] sortedValues = new boolean[boolValues.length];
         for (int i = 0; i < index.length; i++) {
-          sortedValues[index[i]] = boolValues[i];
+          sortedValues[i] = boolValues[index[i]];
         }
         return sortedValues;
       case INT32:
         int[] intValues = (int[]) valueList;
         int[] sortedIntValues = new int[intValues.length];
         for (int i = 0; i < index.length; i++) {
-          sortedIntValues[index[i]] = intValues[i];
+          sortedIntValues[i] = intValues[index[i]];
         }
         return sortedIntValues;
       case INT64:
         long[] longValues = (long[]) valueList;
         long[] sortedLongValues = new long[longValues.length];
         for (int i = 0; i < index.length; i++) {
-          sortedLongValues[index[i]] = longValues[i];
+          sortedLongValues[i] = longValues[index[i]];
         }
         return sortedLongValues;
       case FLOAT:
         float[] floatValues = (float[]) valueList;
         float[] sortedFloatValues = new float[floatValues.length];
         for (int i = 0; i < index.length; i++) {
-          sortedFloatValues[index[i]] = floatValues[i];
+          sortedFloatValues[i] = floatValues[index[i]];
         }
         return sortedFloatValues;
       case DOUBLE:
         double[] doubleValues = (double[]) valueList;
         double[] sortedDoubleValues = new double[doubleValues.length];
         for (int i = 0; i < index.length; i++) {
-          sortedDoubleValues[index[i]] = doubleValues[i];
+          sortedDoubleValues[i] = doubleValues[index[i]];
         }
         return sortedDoubleValues;
       case TEXT:
         Binary[] binaryValues = (Binary[]) valueList;
         Binary[] sortedBinaryValues = new Binary[binaryValues.length];
         for (int i = 0; i < index.length; i++) {
-          sortedBinaryValues[index[i]] = binaryValues[i];
+          sortedBinaryValues[i] = binaryValues[index[i]];
         }
         return sortedBinaryValues;
       default:
@@ -453,6 +566,20 @@ public class Session {
     }
   }
 
+  /**
+   * This method NOT insert data into database and the server just return after accept the request,
+   * this method should be used to test other time cost in client
+   */
+  public void testInsertTablets(List<RowBatch> rowBatches)
+      throws IoTDBConnectionException, BatchExecutionException {
+    try {
+      RpcUtils
+          .verifySuccess(client.testInsertTablets(genTSInsertTabletsReq(rowBatches)).statusList);
+    } catch (TException e) {
+      throw new IoTDBConnectionException(e);
+    }
+  }
+
   /**
    * This method NOT insert data into database and the server just return after accept the request,
    * this method should be used to test other time cost in client
@@ -560,6 +687,28 @@ public class Session {
     }
   }
 
+  /**
+   * delete data >= startTime and <= endTime in multiple timeseries
+   *
+   * @param paths     data in which time series to delete
+   * @param startTime data with time stamp greater than or equal to startTime will be deleted
+   * @param endTime   data with time stamp less than or equal to endTime will be deleted
+   */
+  public void deleteData(List<String> paths, long startTime, long endTime)
+      throws IoTDBConnectionException, StatementExecutionException {
+    TSDeleteDataReq request = new TSDeleteDataReq();
+    request.setSessionId(sessionId);
+    request.setPaths(paths);
+    request.setStartTime(startTime);
+    request.setTimestamp(endTime);
+
+    try {
+      RpcUtils.verifySuccess(client.deleteData(request));
+    } catch (TException e) {
+      throw new IoTDBConnectionException(e);
+    }
+  }
+
   public void setStorageGroup(String storageGroupId)
       throws IoTDBConnectionException, StatementExecutionException {
     checkPathValidity(storageGroupId);
@@ -25,6 +25,8 @@ import org.apache.iotdb.tsfile.utils.BytesUtils;
 import org.apache.iotdb.tsfile.write.record.RowBatch;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
 
 public class SessionUtils {
 
@@ -75,8 +77,13 @@ public class SessionUtils {
         case TEXT:
           Binary[] binaryValues = (Binary[]) rowBatch.values[i];
           for (int index = 0; index < rowBatch.batchSize; index++) {
-            valueBuffer.putInt(binaryValues[index].getLength());
-            valueBuffer.put(binaryValues[index].getValues());
+            // the value of a null may be left unset
+            if (binaryValues[index] == null && rowBatch.isNull(index, i)) {
+              valueBuffer.putInt(0);
+            } else {
+              valueBuffer.putInt(binaryValues[index].getLength());
+              valueBuffer.put(binaryValues[index].getValues());
+            }
           }
           break;
         default:
@@ -87,4 +94,36 @@ public class SessionUtils {
     valueBuffer.flip();
     return valueBuffer;
   }
+
+  /**
+   * @return (batchSize + 7) / 8 bytes for each measurement in which the bit (7 - row % 8) of byte
+   * (row / 8) is set if the row is null, or an empty buffer if no value is null
+   */
+  public static ByteBuffer getBitmapBuffer(RowBatch rowBatch) {
+    int columns = rowBatch.getSchemas().size();
+    boolean hasNull = false;
+    for (int i = 0; i < columns && !hasNull; i++) {
+      hasNull = rowBatch.hasNull(i);
+    }
+    if (!hasNull) {
+      return ByteBuffer.allocate(0);
+    }
+
+    int bitmapSize = (rowBatch.batchSize + 7) / 8;
+    ByteBuffer bitmapBuffer = ByteBuffer.allocate(bitmapSize * columns);
+    byte[] bitmap = new byte[bitmapSize];
+    for (int i = 0; i < columns; i++) {
+      BitSet nullRows = rowBatch.getNullRows(i);
+      Arrays.fill(bitmap, (byte) 0);
+      if (nullRows != null) {
+        for (int row = nullRows.nextSetBit(0); row >= 0 && row < rowBatch.batchSize;
+            row = nullRows.nextSetBit(row + 1)) {
+          bitmap[row >>> 3] |= (byte) (0x80 >>> (row & 7));
+        }
+      }
+      bitmapBuffer.put(bitmap);
+    }
+    bitmapBuffer.flip();
+    return bitmapBuffer;
+  }
 }
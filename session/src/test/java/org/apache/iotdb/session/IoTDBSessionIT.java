@@ -44,6 +44,7 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.Field;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.record.RowBatch;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.schema.Schema;
@@ -224,6 +225,80 @@ public class IoTDBSessionIT {
     session.testInsertInBatch(deviceIds, timestamps, measurementsList, valuesList);
   }
 
+  @Test
+  public void testInsertTablets() throws SQLException, ClassNotFoundException,
+      IoTDBConnectionException, StatementExecutionException, BatchExecutionException {
+    session = new Session("127.0.0.1", 6667, "root", "root");
+    session.open();
+
+    session.setStorageGroup("root.sg1");
+    session.setStorageGroup("root.sg2");
+    String[] devices = {"root.sg1.d1", "root.sg1.d2", "root.sg2.d1"};
+    List<MeasurementSchema> schemas = new ArrayList<>();
+    schemas.add(new MeasurementSchema("s1", TSDataType.INT64, TSEncoding.RLE));
+    schemas.add(new MeasurementSchema("s2", TSDataType.DOUBLE, TSEncoding.GORILLA));
+    schemas.add(new MeasurementSchema("s3", TSDataType.TEXT, TSEncoding.PLAIN));
+    for (String device : devices) {
+      for (MeasurementSchema schema : schemas) {
+        session.createTimeseries(device + "." + schema.getMeasurementId(), schema.getType(),
+            schema.getEncodingType(), CompressionType.SNAPPY);
+      }
+    }
+
+    List<RowBatch> rowBatches = new ArrayList<>();
+    for (String device : devices) {
+      RowBatch rowBatch = new RowBatch(device, schemas, 100);
+      // the rows are in descending time order
+      for (int row = 0; row < 100; row++) {
+        long time = 99 - row;
+        rowBatch.timestamps[row] = time;
+        ((long[]) rowBatch.values[0])[row] = time;
+        ((double[]) rowBatch.values[1])[row] = time + 0.5;
+        ((Binary[]) rowBatch.values[2])[row] = new Binary("v" + time);
+      }
+      rowBatch.batchSize = 100;
+      rowBatches.add(rowBatch);
+    }
+    // s2 of root.sg1.d2 is null at even times, s3 of root.sg2.d1 is all null
+    for (int row = 1; row < 100; row += 2) {
+      rowBatches.get(1).markNull(row, 1);
+    }
+    for (int row = 0; row < 100; row++) {
+      rowBatches.get(2).markNull(row, 2);
+      ((Binary[]) rowBatches.get(2).values[2])[row] = null;
+    }
+    session.insertTablets(rowBatches);
+
+    Class.forName(Config.JDBC_DRIVER_NAME);
+    try (Connection connection = DriverManager
+        .getConnection(Config.IOTDB_URL_PREFIX + "127.0.0.1:6667/", "root", "root");
+        Statement statement = connection.createStatement()) {
+      int[][] expectedCounts = {{100, 100, 100}, {100, 50, 100}, {100, 100, 0}};
+      for (int i = 0; i < devices.length; i++) {
+        try (ResultSet resultSet = statement
+            .executeQuery("select count(s1), count(s2), count(s3) from " + devices[i])) {
+          assertTrue(resultSet.next());
+          for (int j = 0; j < 3; j++) {
+            assertEquals(expectedCounts[i][j], resultSet.getLong(j + 1));
+          }
+        }
+      }
+
+      try (ResultSet resultSet = statement
+          .executeQuery("select s1, s2, s3 from root.sg1.d2 where time < 4")) {
+        for (long time = 0; time < 4; time++) {
+          assertTrue(resultSet.next());
+          assertEquals(time, resultSet.getLong(1));
+          assertEquals(time, resultSet.getLong(2));
+          assertEquals(time % 2 == 0 ? null : String.valueOf(time + 0.5),
+              resultSet.getString(3));
+          assertEquals("v" + time, resultSet.getString(4));
+        }
+        assertFalse(resultSet.next());
+      }
+    }
+  }
+
   @Test
   public void testChineseCharacter() throws IoTDBConnectionException, StatementExecutionException {
     session = new Session("127.0.0.1", 6667, "root", "root");
@@ -90,6 +90,11 @@ public class TSFileConfig implements Serializable {
    * Max length limitation of input string.
    */
   private int maxStringLength = 128;
+  /**
+   * Max size of the dictionary of a page encoded by PLAIN_DICTIONARY, the page is encoded by PLAIN
+   * if its dictionary grows larger.
+   */
+  private int maxDictionarySizeInByte = 32 * 1024;
   /**
    * Floating-point precision.
    */
@@ -126,12 +131,16 @@ public class TSFileConfig implements Serializable {
    * Default SDT max error is 100.
    */
   private double sdtMaxError = 100;
+  /**
+   * Default PAA max error is 100.
+   */
+  private double paaMaxError = 100;
   /**
    * Default DFT satisfy rate is 0.1
    */
   private double dftSatisfyRate = 0.1;
   /**
-   * Data compression method, TsFile supports UNCOMPRESSED or SNAPPY. Default
+   * Data compression method, TsFile supports UNCOMPRESSED, SNAPPY, GZIP, LZ4 or ZSTD. Default
    * value is UNCOMPRESSED which means no compression
    */
   private CompressionType compressor = CompressionType.SNAPPY;
@@ -249,6 +258,14 @@ public class TSFileConfig implements Serializable {
     this.maxStringLength = maxStringLength;
   }
 
+  public int getMaxDictionarySizeInByte() {
+    return maxDictionarySizeInByte;
+  }
+
+  public void setMaxDictionarySizeInByte(int maxDictionarySizeInByte) {
+    this.maxDictionarySizeInByte = maxDictionarySizeInByte;
+  }
+
   public int getFloatPrecision() {
     return floatPrecision;
   }
@@ -317,6 +334,14 @@ public class TSFileConfig implements Serializable {
     this.sdtMaxError = sdtMaxError;
   }
 
+  public double getPaaMaxError() {
+    return paaMaxError;
+  }
+
+  public void setPaaMaxError(double paaMaxError) {
+    this.paaMaxError = paaMaxError;
+  }
+
   public double getDftSatisfyRate() {
     return dftSatisfyRate;
   }
@@ -123,11 +123,20 @@ public class TSFileDescriptor {
       conf.setTimeSeriesDataType(properties.getProperty("time_series_data_type", conf.getTimeSeriesDataType()));
       conf.setMaxStringLength(
           Integer.parseInt(properties.getProperty("max_string_length", Integer.toString(conf.getMaxStringLength()))));
+      conf.setMaxDictionarySizeInByte(Integer.parseInt(properties
+          .getProperty("max_dictionary_size_in_byte",
+              Integer.toString(conf.getMaxDictionarySizeInByte()))));
       conf.setFloatPrecision(
           Integer.parseInt(properties.getProperty("float_precision", Integer.toString(conf.getFloatPrecision()))));
       conf.setTimeEncoder(properties.getProperty("time_encoder", conf.getTimeEncoder()));
       conf.setValueEncoder(properties.getProperty("value_encoder", conf.getValueEncoder()));
       conf.setCompressor(properties.getProperty("compressor", conf.getCompressor().toString()));
+      conf.setSdtMaxError(Double.parseDouble(
+          properties.getProperty("sdt_max_error", Double.toString(conf.getSdtMaxError()))));
+      conf.setPaaMaxError(Double.parseDouble(
+          properties.getProperty("paa_max_error", Double.toString(conf.getPaaMaxError()))));
+      conf.setPlaMaxError(Double.parseDouble(
+          properties.getProperty("pla_max_error", Double.toString(conf.getPlaMaxError()))));
       conf.setBatchSize(Integer.parseInt(properties.getProperty("batch_size",
           Integer.toString(conf.getBatchSize()))));
     } catch (IOException e) {
@@ -19,10 +19,14 @@
 
 package org.apache.iotdb.tsfile.compress;
 
+import com.github.luben.zstd.Zstd;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.zip.GZIPOutputStream;
 
+import net.jpountz.lz4.LZ4Factory;
 import org.xerial.snappy.Snappy;
 
 import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
@@ -49,9 +53,20 @@ public interface ICompressor extends Serializable {
     }
     switch (name) {
       case UNCOMPRESSED:
+      case SDT:
+      case PAA:
+      case PLA:
+        // the points of the lossy compressions are reduced by ILossyCompressor, see
+        // ChunkWriterImpl, and their pages are stored uncompressed
         return new NoCompressor();
       case SNAPPY:
         return new SnappyCompressor();
+      case GZIP:
+        return new GZIPCompressor();
+      case LZ4:
+        return new LZ4Compressor();
+      case ZSTD:
+        return new ZstdCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
@@ -67,10 +82,12 @@ public interface ICompressor extends Serializable {
   int compress(byte[] data, int offset, int length, byte[] compressed) throws IOException;
 
   /**
-   * If the data is large, this function is better than byte[].
+   * If the data is large, this function is better than byte[]. The remaining bytes of data are
+   * compressed into compressed from its position, and the limit of compressed is set to the end of
+   * the compressed bytes.
    *
-   * @param data       MUST be DirectByteBuffer for Snappy.
-   * @param compressed MUST be DirectByteBuffer for Snappy.
+   * @param data       MUST be DirectByteBuffer for Snappy and ZSTD.
+   * @param compressed MUST be DirectByteBuffer for Snappy and ZSTD.
    * @return byte length of compressed data.
    */
   int compress(ByteBuffer data, ByteBuffer compressed) throws IOException;
@@ -140,4 +157,161 @@ public interface ICompressor extends Serializable {
       return CompressionType.SNAPPY;
     }
   }
+
+  class GZIPCompressor implements ICompressor {
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+      if (data == null) {
+        return new byte[0];
+      }
+      return compress(data, 0, data.length);
+    }
+
+    private byte[] compress(byte[] data, int offset, int length) throws IOException {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream(length / 2 + 32);
+      try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+        gzipOutputStream.write(data, offset, length);
+      }
+      return outputStream.toByteArray();
+    }
+
+    @Override
+    public int compress(byte[] data, int offset, int length, byte[] compressed)
+        throws IOException {
+      byte[] result = compress(data, offset, length);
+      System.arraycopy(result, 0, compressed, 0, result.length);
+      return result.length;
+    }
+
+    @Override
+    public int compress(ByteBuffer data, ByteBuffer compressed) throws IOException {
+      byte[] result;
+      if (data.hasArray()) {
+        result = compress(data.array(), data.arrayOffset() + data.position(), data.remaining());
+      } else {
+        byte[] dataArray = new byte[data.remaining()];
+        data.duplicate().get(dataArray);
+        result = compress(dataArray);
+      }
+      int position = compressed.position();
+      compressed.put(result);
+      compressed.position(position);
+      compressed.limit(position + result.length);
+      return result.length;
+    }
+
+    @Override
+    public int getMaxBytesForCompression(int uncompressedDataSize) {
+      // the bound of deflate plus the header and trailer of gzip
+      return uncompressedDataSize + (uncompressedDataSize >> 12) + (uncompressedDataSize >> 14)
+          + (uncompressedDataSize >> 25) + 13 + 18;
+    }
+
+    @Override
+    public CompressionType getType() {
+      return CompressionType.GZIP;
+    }
+  }
+
+  /**
+   * LZ4 block format has no uncompressed length, so it is written as an int before the block.
+   */
+  class LZ4Compressor implements ICompressor {
+
+    private static final net.jpountz.lz4.LZ4Compressor compressor = LZ4Factory.fastestInstance()
+        .fastCompressor();
+
+    @Override
+    public byte[] compress(byte[] data) {
+      if (data == null) {
+        return new byte[0];
+      }
+      byte[] compressed = new byte[getMaxBytesForCompression(data.length)];
+      int length = compress(data, 0, data.length, compressed);
+      byte[] result = new byte[length];
+      System.arraycopy(compressed, 0, result, 0, length);
+      return result;
+    }
+
+    @Override
+    public int compress(byte[] data, int offset, int length, byte[] compressed) {
+      ByteBuffer.wrap(compressed).putInt(length);
+      return Integer.BYTES + compressor
+          .compress(data, offset, length, compressed, Integer.BYTES,
+              compressed.length - Integer.BYTES);
+    }
+
+    @Override
+    public int compress(ByteBuffer data, ByteBuffer compressed) {
+      int position = compressed.position();
+      compressed.putInt(position, data.remaining());
+      int length = Integer.BYTES + compressor
+          .compress(data, data.position(), data.remaining(), compressed,
+              position + Integer.BYTES, compressed.capacity() - position - Integer.BYTES);
+      compressed.limit(position + length);
+      return length;
+    }
+
+    @Override
+    public int getMaxBytesForCompression(int uncompressedDataSize) {
+      return Integer.BYTES + compressor.maxCompressedLength(uncompressedDataSize);
+    }
+
+    @Override
+    public CompressionType getType() {
+      return CompressionType.LZ4;
+    }
+  }
+
+  class ZstdCompressor implements ICompressor {
+
+    private static final int COMPRESSION_LEVEL = 3;
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+      if (data == null) {
+        return new byte[0];
+      }
+      byte[] compressed = new byte[getMaxBytesForCompression(data.length)];
+      int length = compress(data, 0, data.length, compressed);
+      byte[] result = new byte[length];
+      System.arraycopy(compressed, 0, result, 0, length);
+      return result;
+    }
+
+    @Override
+    public int compress(byte[] data, int offset, int length, byte[] compressed)
+        throws IOException {
+      return checkResult(Zstd.compressByteArray(compressed, 0, compressed.length, data, offset,
+          length, COMPRESSION_LEVEL));
+    }
+
+    @Override
+    public int compress(ByteBuffer data, ByteBuffer compressed) throws IOException {
+      int position = compressed.position();
+      int length = checkResult(Zstd.compressDirectByteBuffer(compressed, position,
+          compressed.capacity() - position, data, data.position(), data.remaining(),
+          COMPRESSION_LEVEL));
+      compressed.limit(position + length);
+      return length;
+    }
+
+    private static int checkResult(long result) throws IOException {
+      if (Zstd.isError(result)) {
+        throw new IOException("ZSTD compression failed: " + Zstd.getErrorName(result));
+      }
+      return (int) result;
+    }
+
+    @Override
+    public int getMaxBytesForCompression(int uncompressedDataSize) {
+      return (int) Zstd.compressBound(uncompressedDataSize);
+    }
+
+    @Override
+    public CompressionType getType() {
+      return CompressionType.ZSTD;
+    }
+  }
 }
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.compress;
+
+import java.util.Map;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+/**
+ * Reduces the points of a chunk of a numeric series before they are encoded, so that the series
+ * can be reconstructed from the kept points within a bounded error. The error bound of a series is
+ * the property max_error of its schema, or the default of the compression in TSFileConfig.
+ *
+ * <ul>
+ * <li>SDT (swinging door trending) keeps a subset of the original points. Every dropped point is
+ * within max_error of the linear interpolation between the kept points around it.</li>
+ * <li>PLA (piecewise linear approximation) keeps the ends of the line segments fitted to the
+ * points. Every kept value is within max_error of the original one at its time, and every dropped
+ * point is within max_error of the linear interpolation between the kept points around it. PLA
+ * keeps fewer points than SDT for smooth series, but more for noisy ones.</li>
+ * <li>PAA (piecewise aggregate approximation) keeps the mean of every window of consecutive points
+ * at the time of the first point of the window. Every point of a window is within max_error of the
+ * mean, which holds until the next kept point.</li>
+ * </ul>
+ *
+ * The kept values of INT32 and INT64 are rounded, so the errors of PLA and PAA may be 0.5 larger,
+ * and INT64 values beyond 2^53 lose precision. A chunk starts with its first point with SDT and
+ * PLA, and ends with its last point with SDT.
+ */
+public interface ILossyCompressor {
+
+  String MAX_ERROR = "max_error";
+
+  /**
+   * get the ILossyCompressor of a series.
+   *
+   * @return null if the compression is lossless or the data type is not numeric, whose points are
+   * kept as they are
+   */
+  static ILossyCompressor getLossyCompressor(CompressionType type, TSDataType dataType,
+      Map<String, String> props) {
+    if (dataType != TSDataType.INT32 && dataType != TSDataType.INT64
+        && dataType != TSDataType.FLOAT && dataType != TSDataType.DOUBLE) {
+      return null;
+    }
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    switch (type) {
+      case SDT:
+        return new SDTCompressor(getMaxError(props, config.getSdtMaxError()));
+      case PAA:
+        return new PAACompressor(getMaxError(props, config.getPaaMaxError()));
+      case PLA:
+        return new PLACompressor(getMaxError(props, config.getPlaMaxError()));
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @return the max error in props, or defaultError if it is absent or not a non-negative number
+   */
+  static double getMaxError(Map<String, String> props, double defaultError) {
+    String maxError = props == null ? null : props.get(MAX_ERROR);
+    if (maxError == null) {
+      return defaultError;
+    }
+    try {
+      double error = Double.parseDouble(maxError);
+      return error >= 0 ? error : defaultError;
+    } catch (NumberFormatException e) {
+      return defaultError;
+    }
+  }
+
+  /**
+   * receive the next point of the chunk, whose time is larger than those of the received ones.
+   * The points to keep are written into writer.
+   */
+  void compress(long time, double value, PointWriter writer);
+
+  /**
+   * write the points held into writer at the end of the chunk, and start over for the next chunk.
+   */
+  void flush(PointWriter writer);
+
+  /**
+   * receives the points kept by an ILossyCompressor.
+   */
+  @FunctionalInterface
+  interface PointWriter {
+
+    void write(long time, double value);
+  }
+
+  /**
+   * Swings the doors of the slopes from the last kept point, which keep the received points within
+   * maxError, and keeps the last received point once the slope to the next one is out of the
+   * doors.
+   */
+  class SDTCompressor implements ILossyCompressor {
+
+    private final double maxError;
+
+    private boolean started;
+    private long startTime;
+    private double startValue;
+
+    private boolean pending;
+    private long lastTime;
+    private double lastValue;
+
+    private double minSlope;
+    private double maxSlope;
+
+    public SDTCompressor(double maxError) {
+      this.maxError = maxError;
+    }
+
+    @Override
+    public void compress(long time, double value, PointWriter writer) {
+      if (!started) {
+        writer.write(time, value);
+        startSegment(time, value);
+        return;
+      }
+      double slope = (value - startValue) / (time - startTime);
+      if (slope < minSlope || slope > maxSlope) {
+        // dropping the last point would take the points in between out of maxError
+        writer.write(lastTime, lastValue);
+        startSegment(lastTime, lastValue);
+      }
+      double interval = (double) (time - startTime);
+      minSlope = Math.max(minSlope, (value - maxError - startValue) / interval);
+      maxSlope = Math.min(maxSlope, (value + maxError - startValue) / interval);
+      pending = true;
+      lastTime = time;
+      lastValue = value;
+    }
+
+    private void startSegment(long time, double value) {
+      started = true;
+      startTime = time;
+      startValue = value;
+      pending = false;
+      minSlope = Double.NEGATIVE_INFINITY;
+      maxSlope = Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public void flush(PointWriter writer) {
+      if (pending) {
+        writer.write(lastTime, lastValue);
+      }
+      started = false;
+      pending = false;
+    }
+  }
+
+  /**
+   * Fits a line segment from the last kept point to as many received points as possible within
+   * maxError, and keeps its end at the last point it fits, where the next segment starts.
+   */
+  class PLACompressor implements ILossyCompressor {
+
+    private final double maxError;
+
+    private boolean started;
+    private long startTime;
+    private double startValue;
+
+    private boolean pending;
+    private long lastTime;
+    private double lastValue;
+
+    private double minSlope;
+    private double maxSlope;
+
+    public PLACompressor(double maxError) {
+      this.maxError = maxError;
+    }
+
+    @Override
+    public void compress(long time, double value, PointWriter writer) {
+      if (!started) {
+        writer.write(time, value);
+        startSegment(time, value);
+        return;
+      }
+      double interval = (double) (time - startTime);
+      double low = Math.max(minSlope, (value - maxError - startValue) / interval);
+      double high = Math.min(maxSlope, (value + maxError - startValue) / interval);
+      if (low > high) {
+        // no segment fits the point, end the segment at the last point
+        endSegment(writer);
+        interval = (double) (time - startTime);
+        low = (value - maxError - startValue) / interval;
+        high = (value + maxError - startValue) / interval;
+      }
+      minSlope = low;
+      maxSlope = high;
+      pending = true;
+      lastTime = time;
+      lastValue = value;
+    }
+
+    private void startSegment(long time, double value) {
+      started = true;
+      startTime = time;
+      startValue = value;
+      pending = false;
+      minSlope = Double.NEGATIVE_INFINITY;
+      maxSlope = Double.POSITIVE_INFINITY;
+    }
+
+    private void endSegment(PointWriter writer) {
+      // the fitted end nearest to the last point leaves the next segment the most room
+      double slope = Math.min(maxSlope,
+          Math.max(minSlope, (lastValue - startValue) / (lastTime - startTime)));
+      double endValue = startValue + slope * (lastTime - startTime);
+      writer.write(lastTime, endValue);
+      startSegment(lastTime, endValue);
+    }
+
+    @Override
+    public void flush(PointWriter writer) {
+      if (pending) {
+        endSegment(writer);
+      }
+      started = false;
+      pending = false;
+    }
+  }
+
+  /**
+   * Adds the received points to the current window until the mean of the window would take one of
+   * its points out of maxError, and keeps the mean of the window.
+   */
+  class PAACompressor implements ILossyCompressor {
+
+    private final double maxError;
+
+    private int count;
+    private long startTime;
+    private double sum;
+    private double min;
+    private double max;
+
+    public PAACompressor(double maxError) {
+      this.maxError = maxError;
+    }
+
+    @Override
+    public void compress(long time, double value, PointWriter writer) {
+      if (count > 0) {
+        double mean = (sum + value) / (count + 1);
+        if (Math.max(max, value) - mean > maxError || mean - Math.min(min, value) > maxError) {
+          flush(writer);
+        }
+      }
+      if (count == 0) {
+        startTime = time;
+        sum = 0;
+        min = value;
+        max = value;
+      }
+      count++;
+      sum += value;
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+
+    @Override
+    public void flush(PointWriter writer) {
+      if (count > 0) {
+        writer.write(startTime, sum / count);
+      }
+      count = 0;
+    }
+  }
+}
@@ -19,9 +19,16 @@
 
 package org.apache.iotdb.tsfile.compress;
 
+import com.github.luben.zstd.Zstd;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.GZIPInputStream;
 
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xerial.snappy.Snappy;
@@ -46,9 +53,19 @@ public interface IUnCompressor {
     }
     switch (name) {
       case UNCOMPRESSED:
+      case SDT:
+      case PAA:
+      case PLA:
+        // the pages of the lossy compressions are stored uncompressed
         return new NoUnCompressor();
       case SNAPPY:
         return new SnappyUnCompressor();
+      case GZIP:
+        return new GZIPUnCompressor();
+      case LZ4:
+        return new LZ4UnCompressor();
+      case ZSTD:
+        return new ZstdUnCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
@@ -85,10 +102,12 @@ public interface IUnCompressor {
       throws IOException;
 
   /**
-   * if the data is large, using this function is better.
+   * if the data is large, using this function is better. The remaining bytes of compressed are
+   * uncompressed into uncompressed from its position, and the limit of uncompressed is set to the
+   * end of the uncompressed bytes.
    *
-   * @param compressed MUST be DirectByteBuffer
-   * @param uncompressed MUST be DirectByteBuffer
+   * @param compressed MUST be DirectByteBuffer for Snappy and ZSTD
+   * @param uncompressed MUST be DirectByteBuffer for Snappy and ZSTD
    */
   int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException;
 
@@ -184,4 +203,221 @@ public interface IUnCompressor {
       return CompressionType.SNAPPY;
     }
   }
+
+  class GZIPUnCompressor implements IUnCompressor {
+
+    private static final Logger logger = LoggerFactory.getLogger(GZIPUnCompressor.class);
+
+    /**
+     * the uncompressed length modulo 2^32 is stored in the last 4 bytes of a gzip stream
+     */
+    @Override
+    public int getUncompressedLength(byte[] array, int offset, int length) {
+      return ByteBuffer.wrap(array, offset + length - Integer.BYTES, Integer.BYTES)
+          .order(ByteOrder.LITTLE_ENDIAN).getInt();
+    }
+
+    @Override
+    public int getUncompressedLength(ByteBuffer buffer) {
+      return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+          .getInt(buffer.limit() - Integer.BYTES);
+    }
+
+    @Override
+    public byte[] uncompress(byte[] byteArray) {
+      if (byteArray == null) {
+        return new byte[0];
+      }
+      try {
+        byte[] output = new byte[getUncompressedLength(byteArray, 0, byteArray.length)];
+        uncompress(byteArray, 0, byteArray.length, output, 0);
+        return output;
+      } catch (IOException e) {
+        logger.error(
+            "tsfile-compression GZIPUnCompressor: errors occurs when uncompress input byte", e);
+      }
+      return new byte[0];
+    }
+
+    @Override
+    public int uncompress(byte[] byteArray, int offset, int length, byte[] output, int outOffset)
+        throws IOException {
+      int outLength = getUncompressedLength(byteArray, offset, length);
+      try (InputStream inputStream = new GZIPInputStream(
+          new ByteArrayInputStream(byteArray, offset, length))) {
+        int read = 0;
+        while (read < outLength) {
+          int n = inputStream.read(output, outOffset + read, outLength - read);
+          if (n < 0) {
+            throw new IOException("GZIP stream ends before " + outLength + " bytes are read");
+          }
+          read += n;
+        }
+      }
+      return outLength;
+    }
+
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+      if (compressed == null || !compressed.hasRemaining()) {
+        return 0;
+      }
+      byte[] compressedArray;
+      int offset;
+      if (compressed.hasArray()) {
+        compressedArray = compressed.array();
+        offset = compressed.arrayOffset() + compressed.position();
+      } else {
+        compressedArray = new byte[compressed.remaining()];
+        compressed.duplicate().get(compressedArray);
+        offset = 0;
+      }
+      byte[] output = new byte[getUncompressedLength(compressedArray, offset,
+          compressed.remaining())];
+      uncompress(compressedArray, offset, compressed.remaining(), output, 0);
+      int position = uncompressed.position();
+      uncompressed.put(output);
+      uncompressed.position(position);
+      uncompressed.limit(position + output.length);
+      return output.length;
+    }
+
+    @Override
+    public CompressionType getCodecName() {
+      return CompressionType.GZIP;
+    }
+  }
+
+  /**
+   * see ICompressor.LZ4Compressor for the format
+   */
+  class LZ4UnCompressor implements IUnCompressor {
+
+    private static final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance()
+        .fastDecompressor();
+
+    @Override
+    public int getUncompressedLength(byte[] array, int offset, int length) {
+      return ByteBuffer.wrap(array, offset, length).getInt();
+    }
+
+    @Override
+    public int getUncompressedLength(ByteBuffer buffer) {
+      return buffer.getInt(buffer.position());
+    }
+
+    @Override
+    public byte[] uncompress(byte[] byteArray) {
+      if (byteArray == null) {
+        return new byte[0];
+      }
+      byte[] output = new byte[getUncompressedLength(byteArray, 0, byteArray.length)];
+      uncompress(byteArray, 0, byteArray.length, output, 0);
+      return output;
+    }
+
+    @Override
+    public int uncompress(byte[] byteArray, int offset, int length, byte[] output,
+        int outOffset) {
+      int outLength = getUncompressedLength(byteArray, offset, length);
+      decompressor.decompress(byteArray, offset + Integer.BYTES, output, outOffset, outLength);
+      return outLength;
+    }
+
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) {
+      if (compressed == null || !compressed.hasRemaining()) {
+        return 0;
+      }
+      int outLength = getUncompressedLength(compressed);
+      int position = uncompressed.position();
+      decompressor.decompress(compressed, compressed.position() + Integer.BYTES, uncompressed,
+          position, outLength);
+      uncompressed.limit(position + outLength);
+      return outLength;
+    }
+
+    @Override
+    public CompressionType getCodecName() {
+      return CompressionType.LZ4;
+    }
+  }
+
+  class ZstdUnCompressor implements IUnCompressor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZstdUnCompressor.class);
+
+    /**
+     * the max size of a ZSTD frame header, which holds the uncompressed length
+     */
+    private static final int FRAME_HEADER_SIZE_MAX = 18;
+
+    @Override
+    public int getUncompressedLength(byte[] array, int offset, int length) throws IOException {
+      byte[] header = array;
+      if (offset != 0 || length != array.length) {
+        header = new byte[Math.min(length, FRAME_HEADER_SIZE_MAX)];
+        System.arraycopy(array, offset, header, 0, header.length);
+      }
+      return checkResult(Zstd.decompressedSize(header));
+    }
+
+    @Override
+    public int getUncompressedLength(ByteBuffer buffer) throws IOException {
+      if (buffer.isDirect()) {
+        return checkResult(Zstd.decompressedDirectByteBufferSize(buffer, buffer.position(),
+            buffer.remaining()));
+      }
+      return getUncompressedLength(buffer.array(), buffer.arrayOffset() + buffer.position(),
+          buffer.remaining());
+    }
+
+    @Override
+    public byte[] uncompress(byte[] byteArray) {
+      if (byteArray == null) {
+        return new byte[0];
+      }
+      try {
+        byte[] output = new byte[getUncompressedLength(byteArray, 0, byteArray.length)];
+        uncompress(byteArray, 0, byteArray.length, output, 0);
+        return output;
+      } catch (IOException e) {
+        logger.error(
+            "tsfile-compression ZstdUnCompressor: errors occurs when uncompress input byte", e);
+      }
+      return new byte[0];
+    }
+
+    @Override
+    public int uncompress(byte[] byteArray, int offset, int length, byte[] output, int outOffset)
+        throws IOException {
+      return checkResult(Zstd.decompressByteArray(output, outOffset, output.length - outOffset,
+          byteArray, offset, length));
+    }
+
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+      if (compressed == null || !compressed.hasRemaining()) {
+        return 0;
+      }
+      int position = uncompressed.position();
+      int outLength = checkResult(Zstd.decompressDirectByteBuffer(uncompressed, position,
+          uncompressed.capacity() - position, compressed, compressed.position(),
+          compressed.remaining()));
+      uncompressed.limit(position + outLength);
+      return outLength;
+    }
+
+    private static int checkResult(long result) throws IOException {
+      if (Zstd.isError(result)) {
+        throw new IOException("ZSTD decompression failed: " + Zstd.getErrorName(result));
+      }
+      return (int) result;
+    }
+
+    @Override
+    public CompressionType getCodecName() {
+      return CompressionType.ZSTD;
+    }
+  }
 }
@@ -102,6 +102,12 @@ public abstract class Decoder {
           throw new TsFileDecodingException(
               "Decoder not found:" + type + " , DataType is :" + dataType);
       }
+    } else if (type == TSEncoding.PLAIN_DICTIONARY) {
+      if (dataType == TSDataType.TEXT) {
+        return new DictionaryDecoder();
+      }
+      throw new TsFileDecodingException(
+          "Decoder not found:" + type + " , DataType is :" + dataType);
     } else if (type == TSEncoding.REGULAR) {
       switch (dataType) {
         case INT32:
@@ -150,6 +156,64 @@ public abstract class Decoder {
     throw new TsFileDecodingException("Method readBigDecimal is not supproted by Decoder");
   }
 
+  /**
+   * decode up to length int values into the array. The decoders that decode values in groups
+   * override it to copy the decoded groups.
+   *
+   * @param values the array to fill from the offset
+   * @return the number of the decoded values, less than length only if the buffer is run out
+   */
+  public int readInts(ByteBuffer buffer, int[] values, int offset, int length)
+      throws IOException {
+    int i = 0;
+    while (i < length && hasNext(buffer)) {
+      values[offset + i++] = readInt(buffer);
+    }
+    return i;
+  }
+
+  /**
+   * decode up to length long values into the array.
+   *
+   * @see #readInts(ByteBuffer, int[], int, int)
+   */
+  public int readLongs(ByteBuffer buffer, long[] values, int offset, int length)
+      throws IOException {
+    int i = 0;
+    while (i < length && hasNext(buffer)) {
+      values[offset + i++] = readLong(buffer);
+    }
+    return i;
+  }
+
+  /**
+   * decode up to length float values into the array.
+   *
+   * @see #readInts(ByteBuffer, int[], int, int)
+   */
+  public int readFloats(ByteBuffer buffer, float[] values, int offset, int length)
+      throws IOException {
+    int i = 0;
+    while (i < length && hasNext(buffer)) {
+      values[offset + i++] = readFloat(buffer);
+    }
+    return i;
+  }
+
+  /**
+   * decode up to length double values into the array.
+   *
+   * @see #readInts(ByteBuffer, int[], int, int)
+   */
+  public int readDoubles(ByteBuffer buffer, double[] values, int offset, int length)
+      throws IOException {
+    int i = 0;
+    while (i < length && hasNext(buffer)) {
+      values[offset + i++] = readDouble(buffer);
+    }
+    return i;
+  }
+
   public abstract boolean hasNext(ByteBuffer buffer) throws IOException;
 
   public abstract void reset();
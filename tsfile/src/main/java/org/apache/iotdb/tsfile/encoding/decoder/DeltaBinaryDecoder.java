@@ -116,6 +116,26 @@ public abstract class DeltaBinaryDecoder extends Decoder {
       return readT(buffer);
     }
 
+    @Override
+    public int readInts(ByteBuffer buffer, int[] values, int offset, int length) {
+      int read = 0;
+      while (read < length) {
+        if (nextReadIndex == readIntTotalCount) {
+          if (!buffer.hasRemaining()) {
+            break;
+          }
+          values[offset + read++] = loadIntBatch(buffer);
+        } else {
+          // copy the decoded values of the pack
+          int num = Math.min(length - read, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, values, offset + read, num);
+          nextReadIndex += num;
+          read += num;
+        }
+      }
+      return read;
+    }
+
     /**
      * if remaining data has been run out, load next pack from InputStream.
      *
@@ -234,6 +254,26 @@ public abstract class DeltaBinaryDecoder extends Decoder {
       return readT(buffer);
     }
 
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] values, int offset, int length) {
+      int read = 0;
+      while (read < length) {
+        if (nextReadIndex == readIntTotalCount) {
+          if (!buffer.hasRemaining()) {
+            break;
+          }
+          values[offset + read++] = loadIntBatch(buffer);
+        } else {
+          // copy the decoded values of the pack
+          int num = Math.min(length - read, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, values, offset + read, num);
+          nextReadIndex += num;
+          read += num;
+        }
+      }
+      return read;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readLong(buffer);
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.encoding.encoder.DictionaryEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * Decoder for the pages encoded by {@link DictionaryEncoder}. The dictionary of a page is read
+ * before its first value, and the values share the entries of the dictionary.
+ */
+public class DictionaryDecoder extends Decoder {
+
+  private boolean pageTypeRead;
+  /**
+   * the dictionary of the page, null if the values of the page are encoded by PLAIN
+   */
+  private Binary[] dictionary;
+  private IntRleDecoder idDecoder = new IntRleDecoder(EndianType.BIG_ENDIAN);
+  private PlainDecoder plainDecoder = new PlainDecoder(EndianType.BIG_ENDIAN);
+
+  public DictionaryDecoder() {
+    super(TSEncoding.PLAIN_DICTIONARY);
+  }
+
+  private void readPageType(ByteBuffer buffer) {
+    if (pageTypeRead || !buffer.hasRemaining()) {
+      return;
+    }
+    pageTypeRead = true;
+    if (buffer.get() == DictionaryEncoder.DICTIONARY_PAGE) {
+      dictionary = new Binary[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)];
+      for (int i = 0; i < dictionary.length; i++) {
+        byte[] bytes = new byte[ReadWriteForEncodingUtils.readUnsignedVarInt(buffer)];
+        buffer.get(bytes);
+        dictionary[i] = new Binary(bytes);
+      }
+    }
+  }
+
+  /**
+   * @return the dictionary of the page, or null if the values of the page are encoded by PLAIN
+   */
+  public Binary[] getDictionary(ByteBuffer buffer) {
+    readPageType(buffer);
+    return dictionary;
+  }
+
+  /**
+   * decode up to length ids of the values of a page with a dictionary into the array, so the
+   * values can be examined by their ids.
+   *
+   * @return the number of the decoded ids, less than length only if the buffer is run out
+   */
+  public int readIds(ByteBuffer buffer, int[] ids, int offset, int length) throws IOException {
+    readPageType(buffer);
+    return idDecoder.readInts(buffer, ids, offset, length);
+  }
+
+  @Override
+  public Binary readBinary(ByteBuffer buffer) {
+    readPageType(buffer);
+    if (dictionary != null) {
+      return dictionary[idDecoder.readInt(buffer)];
+    }
+    return plainDecoder.readBinary(buffer);
+  }
+
+  @Override
+  public boolean hasNext(ByteBuffer buffer) throws IOException {
+    readPageType(buffer);
+    if (dictionary != null) {
+      return idDecoder.hasNext(buffer);
+    }
+    return buffer.hasRemaining();
+  }
+
+  @Override
+  public void reset() {
+    pageTypeRead = false;
+    dictionary = null;
+    idDecoder.reset();
+    plainDecoder.reset();
+  }
+}
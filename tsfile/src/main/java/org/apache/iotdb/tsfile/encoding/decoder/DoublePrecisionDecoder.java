@@ -91,11 +91,8 @@ public class DoublePrecisionDecoder extends GorillaDecoder {
 
     if (!nextFlag2) {
       // case: '10'
-      long tmp = 0;
-      for (int i = 0; i < TSFileConfig.DOUBLE_LENGTH - leadingZeroNum - tailingZeroNum; i++) {
-        long bit = readBit(buffer) ? 1 : 0;
-        tmp |= (bit << (TSFileConfig.DOUBLE_LENGTH - 1 - leadingZeroNum - i));
-      }
+      long tmp = readLongFromStream(buffer,
+          TSFileConfig.DOUBLE_LENGTH - leadingZeroNum - tailingZeroNum) << tailingZeroNum;
       tmp ^= preValue;
       preValue = tmp;
     } else {
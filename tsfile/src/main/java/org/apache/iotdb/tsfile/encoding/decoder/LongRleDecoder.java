@@ -21,6 +21,7 @@ package org.apache.iotdb.tsfile.encoding.decoder;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -98,6 +99,41 @@ public class LongRleDecoder extends RleDecoder {
     return result;
   }
 
+  @Override
+  public int readLongs(ByteBuffer buffer, long[] values, int offset, int length)
+      throws IOException {
+    int read = 0;
+    while (read < length && hasNext(buffer)) {
+      if (!isLengthAndBitWidthReaded) {
+        // start to read a new rle+bit-packing pattern
+        readLengthAndBitWidth(buffer);
+      }
+      if (currentCount == 0) {
+        readNext();
+      }
+      // copy the values of the current rle run or bit-packing groups
+      int num = Math.min(length - read, currentCount);
+      switch (mode) {
+      case RLE:
+        Arrays.fill(values, offset + read, offset + read + num, currentValue);
+        break;
+      case BIT_PACKED:
+        System.arraycopy(currentBuffer, bitPackingNum - currentCount, values, offset + read, num);
+        break;
+      default:
+        throw new TsFileDecodingException(
+            String.format("tsfile-encoding LongRleDecoder: not a valid mode %s", mode));
+      }
+      currentCount -= num;
+      read += num;
+
+      if (!hasNextPackage()) {
+        isLengthAndBitWidthReaded = false;
+      }
+    }
+    return read;
+  }
+
   @Override
   protected void initPacker() {
     packer = new LongPacker(bitWidth);
@@ -120,4 +156,4 @@ public class LongRleDecoder extends RleDecoder {
     packer.unpackAllValues(bytes, bytesToRead, currentBuffer);
   }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
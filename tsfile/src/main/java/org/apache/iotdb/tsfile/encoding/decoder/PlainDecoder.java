@@ -98,6 +98,53 @@ public class PlainDecoder extends Decoder {
     return buffer.getDouble();
   }
 
+  /**
+   * copy the values through a view of the buffer in the byte order of the values.
+   */
+  @Override
+  public int readInts(ByteBuffer buffer, int[] values, int offset, int length) {
+    if (this.getEndianType() == EndianType.LITTLE_ENDIAN) {
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+    int num = Math.min(length, buffer.remaining() / Integer.BYTES);
+    buffer.asIntBuffer().get(values, offset, num);
+    buffer.position(buffer.position() + num * Integer.BYTES);
+    return num;
+  }
+
+  @Override
+  public int readLongs(ByteBuffer buffer, long[] values, int offset, int length) {
+    if (this.getEndianType() == EndianType.LITTLE_ENDIAN) {
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+    int num = Math.min(length, buffer.remaining() / Long.BYTES);
+    buffer.asLongBuffer().get(values, offset, num);
+    buffer.position(buffer.position() + num * Long.BYTES);
+    return num;
+  }
+
+  @Override
+  public int readFloats(ByteBuffer buffer, float[] values, int offset, int length) {
+    if (this.getEndianType() == EndianType.LITTLE_ENDIAN) {
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+    int num = Math.min(length, buffer.remaining() / Float.BYTES);
+    buffer.asFloatBuffer().get(values, offset, num);
+    buffer.position(buffer.position() + num * Float.BYTES);
+    return num;
+  }
+
+  @Override
+  public int readDoubles(ByteBuffer buffer, double[] values, int offset, int length) {
+    if (this.getEndianType() == EndianType.LITTLE_ENDIAN) {
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+    int num = Math.min(length, buffer.remaining() / Double.BYTES);
+    buffer.asDoubleBuffer().get(values, offset, num);
+    buffer.position(buffer.position() + num * Double.BYTES);
+    return num;
+  }
+
   @Override
   public Binary readBinary(ByteBuffer buffer) {
     int length = readInt(buffer);
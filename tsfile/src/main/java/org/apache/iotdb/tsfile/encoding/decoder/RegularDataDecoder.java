@@ -154,6 +154,23 @@ public abstract class RegularDataDecoder extends Decoder {
       return readT(buffer);
     }
 
+    @Override
+    public int readInts(ByteBuffer buffer, int[] values, int offset, int length) {
+      int read = 0;
+      while (read < length && (nextReadIndex < readIntTotalCount || buffer.hasRemaining())) {
+        if (nextReadIndex == readIntTotalCount || isMissingPoint) {
+          values[offset + read++] = readT(buffer);
+        } else {
+          // copy the decoded values of the pack without missing points
+          int num = Math.min(length - read, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, values, offset + read, num);
+          nextReadIndex += num;
+          read += num;
+        }
+      }
+      return read;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readInt(buffer);
@@ -268,6 +285,23 @@ public abstract class RegularDataDecoder extends Decoder {
       return readT(buffer);
     }
 
+    @Override
+    public int readLongs(ByteBuffer buffer, long[] values, int offset, int length) {
+      int read = 0;
+      while (read < length && (nextReadIndex < readIntTotalCount || buffer.hasRemaining())) {
+        if (nextReadIndex == readIntTotalCount || isMissingPoint) {
+          values[offset + read++] = readT(buffer);
+        } else {
+          // copy the decoded values of the pack without missing points
+          int num = Math.min(length - read, readIntTotalCount - nextReadIndex);
+          System.arraycopy(data, nextReadIndex, values, offset + read, num);
+          nextReadIndex += num;
+          read += num;
+        }
+      }
+      return read;
+    }
+
     @Override
     protected void readHeader(ByteBuffer buffer) {
       minDeltaBase = ReadWriteIOUtils.readLong(buffer);
@@ -87,11 +87,8 @@ public class SinglePrecisionDecoder extends GorillaDecoder {
 
     if (!nextFlag2) {
       // case: '10'
-      int tmp = 0;
-      for (int i = 0; i < TSFileConfig.FLOAT_LENGTH - leadingZeroNum - tailingZeroNum; i++) {
-        int bit = readBit(buffer) ? 1 : 0;
-        tmp |= bit << (TSFileConfig.FLOAT_LENGTH - 1 - leadingZeroNum - i);
-      }
+      int tmp = readIntFromStream(buffer,
+          TSFileConfig.FLOAT_LENGTH - leadingZeroNum - tailingZeroNum) << tailingZeroNum;
       tmp ^= preValue;
       preValue = tmp;
     } else {
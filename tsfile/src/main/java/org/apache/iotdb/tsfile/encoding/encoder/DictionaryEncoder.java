@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
+
+/**
+ * Encodes the TEXT values of a page with a dictionary of the page. The distinct values are kept in
+ * the dictionary once, and every value is encoded as its id in the dictionary by RLE/bit-packing,
+ * which suits the series of few distinct values, such as status codes.
+ *
+ * If the dictionary grows larger than maxDictionarySize, the values of the page are encoded by
+ * PLAIN instead. Encoding format of a page:
+ *
+ * <pre>
+ * page := dictionary-page | plain-page
+ * dictionary-page := DICTIONARY_PAGE entry-num entry* ids
+ * entry := length bytes
+ * plain-page := PLAIN_PAGE values
+ * </pre>
+ * entry-num and length are unsigned var ints, ids are encoded by {@link IntRleEncoder} and values
+ * by {@link PlainEncoder}.
+ */
+public class DictionaryEncoder extends Encoder {
+
+  public static final byte DICTIONARY_PAGE = 0;
+  public static final byte PLAIN_PAGE = 1;
+
+  private int maxDictionarySize;
+  private int maxStringLength;
+
+  private Map<Binary, Integer> entryIndex = new HashMap<>();
+  private List<Binary> entries = new ArrayList<>();
+  /**
+   * the serialized size of the entries
+   */
+  private int dictionarySize;
+  private int[] ids = new int[64];
+  private int idNum;
+  private IntRleEncoder idEncoder = new IntRleEncoder(EndianType.BIG_ENDIAN);
+
+  private PlainEncoder plainEncoder;
+  /**
+   * the values of the page encoded by PLAIN since the dictionary is too large, null if the
+   * dictionary is not
+   */
+  private PublicBAOS plainOut;
+
+  public DictionaryEncoder(int maxDictionarySize, int maxStringLength) {
+    super(TSEncoding.PLAIN_DICTIONARY);
+    this.maxDictionarySize = maxDictionarySize;
+    this.maxStringLength = maxStringLength;
+    this.plainEncoder = new PlainEncoder(EndianType.BIG_ENDIAN, TSDataType.TEXT, maxStringLength);
+  }
+
+  @Override
+  public void encode(Binary value, ByteArrayOutputStream out) {
+    if (plainOut != null) {
+      plainEncoder.encode(value, plainOut);
+      return;
+    }
+    Integer id = entryIndex.get(value);
+    if (id == null) {
+      int entrySize = ReadWriteForEncodingUtils.getUnsignedVarInt(value.getLength()).length
+          + value.getLength();
+      if (dictionarySize + entrySize > maxDictionarySize) {
+        fallBackToPlain();
+        plainEncoder.encode(value, plainOut);
+        return;
+      }
+      id = entries.size();
+      entries.add(value);
+      entryIndex.put(value, id);
+      dictionarySize += entrySize;
+    }
+    if (idNum == ids.length) {
+      ids = Arrays.copyOf(ids, idNum << 1);
+    }
+    ids[idNum++] = id;
+  }
+
+  /**
+   * encode the values of the page received so far by PLAIN, and the following ones as well.
+   */
+  private void fallBackToPlain() {
+    plainOut = new PublicBAOS();
+    for (int i = 0; i < idNum; i++) {
+      plainEncoder.encode(entries.get(ids[i]), plainOut);
+    }
+    clearDictionary();
+  }
+
+  private void clearDictionary() {
+    entryIndex.clear();
+    entries.clear();
+    dictionarySize = 0;
+    idNum = 0;
+  }
+
+  @Override
+  public void flush(ByteArrayOutputStream out) throws IOException {
+    if (plainOut != null) {
+      out.write(PLAIN_PAGE);
+      plainOut.writeTo(out);
+      plainOut = null;
+    } else if (idNum > 0) {
+      out.write(DICTIONARY_PAGE);
+      ReadWriteForEncodingUtils.writeUnsignedVarInt(entries.size(), out);
+      for (Binary entry : entries) {
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(entry.getLength(), out);
+        out.write(entry.getValues());
+      }
+      for (int i = 0; i < idNum; i++) {
+        idEncoder.encode(ids[i], out);
+      }
+      idEncoder.flush(out);
+    }
+    clearDictionary();
+  }
+
+  @Override
+  public int getOneItemMaxSize() {
+    // a new entry of the dictionary and its id, or a PLAIN value after falling back
+    return 4 + TSFileConfig.BYTE_SIZE_PER_CHAR * maxStringLength + 4;
+  }
+
+  @Override
+  public long getMaxByteSize() {
+    if (plainOut != null) {
+      return 1 + (long) plainOut.size();
+    }
+    // every 8 ids are bit-packed into bitWidth bytes, with a header for at most 63 groups
+    int bitWidth = 32 - Integer.numberOfLeadingZeros(Math.max(entries.size() - 1, 1));
+    int groupNum = idNum / 8 + 1;
+    return (long) 1 + 4 + dictionarySize + 8 + groupNum * bitWidth + (groupNum / 63 + 1) * 5;
+  }
+}
@@ -66,6 +66,8 @@ public abstract class TSEncodingBuilder {
         return new GORILLA();
       case REGULAR:
         return new REGULAR();
+      case PLAIN_DICTIONARY:
+        return new PLAIN_DICTIONARY();
       default:
         throw new UnsupportedOperationException(type.toString());
     }
@@ -267,4 +269,38 @@ public abstract class TSEncodingBuilder {
       // allowed do nothing
     }
   }
+
+  /**
+   * for TEXT.
+   */
+  public static class PLAIN_DICTIONARY extends TSEncodingBuilder {
+
+    private int maxStringLength = TSFileDescriptor.getInstance().getConfig().getMaxStringLength();
+
+    @Override
+    public Encoder getEncoder(TSDataType type) {
+      if (type == TSDataType.TEXT) {
+        return new DictionaryEncoder(
+            TSFileDescriptor.getInstance().getConfig().getMaxDictionarySizeInByte(),
+            maxStringLength);
+      }
+      throw new UnSupportedDataTypeException(
+          "PLAIN_DICTIONARY doesn't support data type: " + type);
+    }
+
+    @Override
+    public void initFromProps(Map<String, String> props) {
+      if (props == null || !props.containsKey(Encoder.MAX_STRING_LENGTH)) {
+        maxStringLength = TSFileDescriptor.getInstance().getConfig().getMaxStringLength();
+      } else {
+        maxStringLength = Integer.valueOf(props.get(Encoder.MAX_STRING_LENGTH));
+        if (maxStringLength < 0) {
+          maxStringLength = TSFileDescriptor.getInstance().getConfig().getMaxStringLength();
+          logger.warn(
+              "cannot set max string length to negative value, replaced with default value:{}",
+              maxStringLength);
+        }
+      }
+    }
+  }
 }
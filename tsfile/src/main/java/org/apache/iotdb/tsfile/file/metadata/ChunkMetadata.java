@@ -20,12 +20,14 @@ package org.apache.iotdb.tsfile.file.metadata;
 
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.read.controller.IChunkLoader;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -49,9 +51,10 @@ public class ChunkMetadata {
   private long version;
 
   /**
-   * All data with timestamp <= deletedAt are considered deleted.
+   * All data whose timestamp is in one of the ranges is considered deleted. The ranges are sorted
+   * and disjoint, null if no data is deleted.
    */
-  private long deletedAt = Long.MIN_VALUE;
+  private List<TimeRange> deleteIntervalList;
 
   /**
    * ChunkLoader of metadata, used to create ChunkReaderWrap
@@ -81,8 +84,8 @@ public class ChunkMetadata {
 
   @Override
   public String toString() {
-    return String.format("measurementId: %s, datatype: %s, version: %d, deletedAt: %d, "
-        + "Statistics: %s", measurementUid, tsDataType, version, deletedAt, statistics);
+    return String.format("measurementId: %s, datatype: %s, version: %d, deleteIntervalList: %s, "
+        + "Statistics: %s", measurementUid, tsDataType, version, deleteIntervalList, statistics);
   }
 
   public long getNumOfPoints() {
@@ -161,12 +164,48 @@ public class ChunkMetadata {
     this.version = version;
   }
 
-  public long getDeletedAt() {
-    return deletedAt;
+  public List<TimeRange> getDeleteIntervalList() {
+    return deleteIntervalList;
   }
 
-  public void setDeletedAt(long deletedAt) {
-    this.deletedAt = deletedAt;
+  public void setDeleteIntervalList(List<TimeRange> deleteIntervalList) {
+    this.deleteIntervalList = deleteIntervalList;
+  }
+
+  /**
+   * add the deleted range [startTime, endTime] into deleteIntervalList, merging the ranges it
+   * overlaps or adjoins so that the list stays sorted and disjoint.
+   */
+  public void insertIntoSortedDeletions(long startTime, long endTime) {
+    deleteIntervalList = TimeRange.insertIntoSortedRanges(deleteIntervalList, startTime, endTime);
+  }
+
+  /**
+   * @return true if all data of the chunk is deleted
+   */
+  public boolean isDeleted() {
+    if (deleteIntervalList != null) {
+      for (TimeRange range : deleteIntervalList) {
+        if (range.contains(getStartTime(), getEndTime())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if some but not all data of the chunk may be deleted
+   */
+  public boolean isPartlyDeleted() {
+    if (deleteIntervalList != null) {
+      for (TimeRange range : deleteIntervalList) {
+        if (range.getMin() <= getEndTime() && range.getMax() >= getStartTime()) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   public IChunkLoader getChunkLoader() {
@@ -188,7 +227,7 @@ public class ChunkMetadata {
     ChunkMetadata that = (ChunkMetadata) o;
     return offsetOfChunkHeader == that.offsetOfChunkHeader &&
         version == that.version &&
-        deletedAt == that.deletedAt &&
+        Objects.equals(deleteIntervalList, that.deleteIntervalList) &&
         Objects.equals(measurementUid, that.measurementUid) &&
         tsDataType == that.tsDataType &&
         Objects.equals(statistics, that.statistics);
@@ -196,7 +235,7 @@ public class ChunkMetadata {
 
   @Override
   public int hashCode() {
-    return Objects.hash(measurementUid, deletedAt, tsDataType, statistics,
+    return Objects.hash(measurementUid, deleteIntervalList, tsDataType, statistics,
         version, offsetOfChunkHeader);
   }
 }
\ No newline at end of file
@@ -109,6 +109,10 @@ public class TimeseriesMetadata {
     this.statistics = statistics;
   }
 
+  public IChunkMetadataLoader getChunkMetadataLoader() {
+    return chunkMetadataLoader;
+  }
+
   public void setChunkMetadataLoader(IChunkMetadataLoader chunkMetadataLoader) {
     this.chunkMetadataLoader = chunkMetadataLoader;
   }
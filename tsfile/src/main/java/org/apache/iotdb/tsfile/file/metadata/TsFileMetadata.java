@@ -142,7 +142,8 @@ public class TsFileMetadata {
   }
 
   /**
-   * use the given outputStream to serialize bloom filter.
+   * use the given outputStream to serialize bloom filter, which is kept as the bloom filter of
+   * this metadata.
    *
    * @param outputStream      -output stream to determine byte length
    * @return -byte length
@@ -151,6 +152,7 @@ public class TsFileMetadata {
       throws IOException {
     int byteLen = 0;
     BloomFilter filter = buildBloomFilter(paths);
+    bloomFilter = filter;
 
     byte[] bytes = filter.serialize();
     byteLen += ReadWriteIOUtils.write(bytes.length, outputStream);
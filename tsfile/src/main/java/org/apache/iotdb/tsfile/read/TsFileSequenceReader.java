@@ -144,6 +144,18 @@ public class TsFileSequenceReader implements AutoCloseable {
     }
   }
 
+  /**
+   * Create a file reader of the given file over the given input, e.g., a {@link
+   * org.apache.iotdb.tsfile.read.reader.MmapTsFileInput} of the file.
+   *
+   * @param file  the data file
+   * @param input the input of the data file
+   */
+  public TsFileSequenceReader(String file, TsFileInput input) throws IOException {
+    this(input, true);
+    this.file = file;
+  }
+
   /**
    * construct function for TsFileSequenceReader.
    *
@@ -455,7 +467,7 @@ public class TsFileSequenceReader implements AutoCloseable {
     ChunkHeader header = readChunkHeader(metaData.getOffsetOfChunkHeader(), chunkHeadSize, false);
     ByteBuffer buffer = readChunk(metaData.getOffsetOfChunkHeader() + header.getSerializedSize(),
         header.getDataSize());
-    return new Chunk(header, buffer, metaData.getDeletedAt(), endianType);
+    return new Chunk(header, buffer, metaData.getDeleteIntervalList(), endianType);
   }
 
   /**
@@ -486,14 +498,19 @@ public class TsFileSequenceReader implements AutoCloseable {
   private ByteBuffer readPage(PageHeader header, CompressionType type, long position)
       throws IOException {
     ByteBuffer buffer = readData(position, header.getCompressedSize());
-    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(type);
-    ByteBuffer uncompressedBuffer = ByteBuffer.allocate(header.getUncompressedSize());
     if (type == CompressionType.UNCOMPRESSED) {
       return buffer;
-    }// FIXME if the buffer is not array-implemented.
-    unCompressor.uncompress(buffer.array(), buffer.position(), buffer.remaining(),
-        uncompressedBuffer.array(),
-        0);
+    }
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(type);
+    if (!buffer.hasArray()) {
+      // some codecs can only uncompress a direct buffer into another direct buffer
+      ByteBuffer uncompressedBuffer = ByteBuffer.allocateDirect(header.getUncompressedSize());
+      unCompressor.uncompress(buffer, uncompressedBuffer);
+      return uncompressedBuffer;
+    }
+    ByteBuffer uncompressedBuffer = ByteBuffer.allocate(header.getUncompressedSize());
+    unCompressor.uncompress(buffer.array(), buffer.arrayOffset() + buffer.position(),
+        buffer.remaining(), uncompressedBuffer.array(), 0);
     return uncompressedBuffer;
   }
 
@@ -536,18 +553,13 @@ public class TsFileSequenceReader implements AutoCloseable {
    * @return data that been read.
    */
   private ByteBuffer readData(long position, int size) throws IOException {
-    ByteBuffer buffer = ByteBuffer.allocate(size);
     if (position == -1) {
-      if (ReadWriteIOUtils.readAsPossible(tsFileInput, buffer) != size) {
-        throw new IOException("reach the end of the data");
-      }
-    } else {
-      if (ReadWriteIOUtils.readAsPossible(tsFileInput, buffer, position, size) != size) {
-        throw new IOException("reach the end of the data");
-      }
+      long currentPosition = tsFileInput.position();
+      ByteBuffer buffer = tsFileInput.read(currentPosition, size);
+      tsFileInput.position(currentPosition + size);
+      return buffer;
     }
-    buffer.flip();
-    return buffer;
+    return tsFileInput.read(position, size);
   }
 
   /**
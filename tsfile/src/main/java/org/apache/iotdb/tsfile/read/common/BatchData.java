@@ -419,6 +419,48 @@ public class BatchData implements Serializable {
   }
 
 
+  /**
+   * put the first length points of the columns into this empty batch data, which takes over the
+   * arrays instead of copying the points.
+   *
+   * @param times the time column
+   * @param values the value column, an array of the data type as long as the time column
+   */
+  public void putColumns(long[] times, Object values, int length) {
+    if (count != 0) {
+      throw new IllegalStateException("Only an empty BatchData can take over columns");
+    }
+    if (length == 0) {
+      return;
+    }
+    capacity = times.length;
+    timeRet.set(0, times);
+    switch (dataType) {
+      case BOOLEAN:
+        booleanRet.set(0, (boolean[]) values);
+        break;
+      case INT32:
+        intRet.set(0, (int[]) values);
+        break;
+      case INT64:
+        longRet.set(0, (long[]) values);
+        break;
+      case FLOAT:
+        floatRet.set(0, (float[]) values);
+        break;
+      case DOUBLE:
+        doubleRet.set(0, (double[]) values);
+        break;
+      case TEXT:
+        binaryRet.set(0, (Binary[]) values);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+    writeCurArrayIndex = length;
+    count = length;
+  }
+
   public boolean getBoolean() {
     return this.booleanRet.get(readCurListIndex)[readCurArrayIndex];
   }
@@ -580,4 +622,22 @@ public class BatchData implements Serializable {
     this.readCurArrayIndex = 0;
     this.readCurListIndex = 0;
   }
+
+  /**
+   * Reset the read position to a position got by {@link #getReadCurArrayIndex()} and {@link
+   * #getReadCurListIndex()}, so that the visitors of a batch data can start from where the last
+   * visit ends instead of from the first point.
+   */
+  public void resetBatchData(int readCurArrayIndex, int readCurListIndex) {
+    this.readCurArrayIndex = readCurArrayIndex;
+    this.readCurListIndex = readCurListIndex;
+  }
+
+  public int getReadCurArrayIndex() {
+    return readCurArrayIndex;
+  }
+
+  public int getReadCurListIndex() {
+    return readCurListIndex;
+  }
 }
@@ -19,6 +19,7 @@
 package org.apache.iotdb.tsfile.read.common;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
@@ -31,15 +32,16 @@ public class Chunk {
   private ChunkHeader chunkHeader;
   private ByteBuffer chunkData;
   /**
-   * All data with timestamp <= deletedAt are considered deleted.
+   * All data whose timestamp is in one of the sorted and disjoint ranges is considered deleted.
    */
-  private long deletedAt;
+  private List<TimeRange> deleteIntervalList;
   private EndianType endianType;
 
-  public Chunk(ChunkHeader header, ByteBuffer buffer, long deletedAt, EndianType endianType) {
+  public Chunk(ChunkHeader header, ByteBuffer buffer, List<TimeRange> deleteIntervalList,
+      EndianType endianType) {
     this.chunkHeader = header;
     this.chunkData = buffer;
-    this.deletedAt = deletedAt;
+    this.deleteIntervalList = deleteIntervalList;
     this.endianType = endianType;
   }
 
@@ -51,15 +53,15 @@ public class Chunk {
     return chunkData;
   }
 
-  public long getDeletedAt() {
-    return deletedAt;
+  public List<TimeRange> getDeleteIntervalList() {
+    return deleteIntervalList;
   }
 
   public EndianType getEndianType() {
     return endianType;
   }
 
-  public void setDeletedAt(long deletedAt) {
-    this.deletedAt = deletedAt;
+  public void setDeleteIntervalList(List<TimeRange> deleteIntervalList) {
+    this.deleteIntervalList = deleteIntervalList;
   }
 }
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.common;
+
+import org.apache.iotdb.tsfile.utils.Binary;
+
+/**
+ * A TEXT column of a page encoded by PLAIN_DICTIONARY, whose values are the ids of the entries of
+ * the dictionary of the page, so the filters can examine every entry once instead of every value.
+ */
+public class DictionaryColumn {
+
+  private final Binary[] dictionary;
+  private final int[] ids;
+
+  public DictionaryColumn(Binary[] dictionary, int[] ids) {
+    this.dictionary = dictionary;
+    this.ids = ids;
+  }
+
+  public Binary[] getDictionary() {
+    return dictionary;
+  }
+
+  public int[] getIds() {
+    return ids;
+  }
+
+  public Binary get(int index) {
+    return dictionary[ids[index]];
+  }
+}
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 
 import org.apache.iotdb.tsfile.read.expression.IExpression;
 import org.apache.iotdb.tsfile.read.expression.impl.BinaryExpression;
@@ -170,6 +171,24 @@ public class TimeRange implements Comparable<TimeRange> {
     }
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TimeRange that = (TimeRange) o;
+    return min == that.min && max == that.max && leftClose == that.leftClose
+        && rightClose == that.rightClose;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(min, max, leftClose, rightClose);
+  }
+
   @Override
   public String toString() {
     StringBuilder res = new StringBuilder();
@@ -242,6 +261,35 @@ public class TimeRange implements Comparable<TimeRange> {
     return unionResult;
   }
 
+  /**
+   * Add the closed interval [min,max] into the sorted and disjoint closed intervals, the
+   * intervals it overlaps or adjoins are merged with it.
+   *
+   * @param sortedRanges sorted and disjoint closed intervals, null if there is none
+   * @return the new sorted and disjoint closed intervals
+   */
+  public static List<TimeRange> insertIntoSortedRanges(List<TimeRange> sortedRanges, long min,
+      long max) {
+    List<TimeRange> result = new ArrayList<>();
+    if (sortedRanges != null) {
+      for (TimeRange range : sortedRanges) {
+        // compare before adding 1 to avoid overflows
+        if (range.max < min && range.max + 1 < min) {
+          result.add(range);
+        } else if (range.min > max && range.min - 1 > max) {
+          result.add(new TimeRange(min, max));
+          min = range.min;
+          max = range.max;
+        } else {
+          min = Math.min(range.min, min);
+          max = Math.max(range.max, max);
+        }
+      }
+    }
+    result.add(new TimeRange(min, max));
+    return result;
+  }
+
   /**
    * Get the remaining time ranges in the current ranges but not in
    * timeRangesPrev.
@@ -59,6 +59,15 @@ public class GroupByFilter implements Filter, Serializable {
       return (time - startTime) % slidingStep <= interval;
   }
 
+  @Override
+  public void satisfy(long[] times, Object values, int length, boolean[] selected) {
+    for (int i = 0; i < length; i++) {
+      long time = times[i];
+      selected[i] &= time >= startTime && time <= endTime
+          && (time - startTime) % slidingStep <= interval;
+    }
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     if (endTime < this.startTime)
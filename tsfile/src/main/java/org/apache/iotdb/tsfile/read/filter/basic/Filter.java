@@ -19,8 +19,10 @@
 package org.apache.iotdb.tsfile.read.filter.basic;
 
 import java.io.DataOutputStream;
+import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.DictionaryColumn;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterSerializeId;
 
 /**
@@ -47,6 +49,37 @@ public interface Filter {
    */
   boolean satisfy(long time, Object value);
 
+  /**
+   * To examine the points of a page in batch. The default implementation examines them one by
+   * one, and the filters on numbers override it with primitive loops.
+   *
+   * @param times
+   *            the times of the points
+   * @param values
+   *            the values of the points, an array of the data type, or a DictionaryColumn
+   * @param length
+   *            the number of the points
+   * @param selected
+   *            selected[i] is set to false if the i-th point does not satisfy the filter, the
+   *            points that are not selected are not examined
+   */
+  default void satisfy(long[] times, Object values, int length, boolean[] selected) {
+    if (values instanceof DictionaryColumn) {
+      DictionaryColumn column = (DictionaryColumn) values;
+      for (int i = 0; i < length; i++) {
+        if (selected[i]) {
+          selected[i] = satisfy(times[i], column.get(i));
+        }
+      }
+      return;
+    }
+    for (int i = 0; i < length; i++) {
+      if (selected[i]) {
+        selected[i] = satisfy(times[i], Array.get(values, i));
+      }
+    }
+  }
+
   /**
    * To examine whether the min time and max time are satisfied with the filter.
    *
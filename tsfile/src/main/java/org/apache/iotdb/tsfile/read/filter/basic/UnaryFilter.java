@@ -23,7 +23,9 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.util.Objects;
+import org.apache.iotdb.tsfile.read.common.DictionaryColumn;
 import org.apache.iotdb.tsfile.read.filter.factory.FilterType;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
 /**
@@ -58,6 +60,72 @@ public abstract class UnaryFilter<T extends Comparable<T>> implements Filter, Se
     return filterType;
   }
 
+  /**
+   * examine the points in batch by comparing the time or the value of every selected point with
+   * the value of this filter in a primitive loop.
+   *
+   * @param less whether a point less than the value of this filter satisfies it
+   * @param equal whether a point equal to the value of this filter satisfies it
+   * @param greater whether a point greater than the value of this filter satisfies it
+   */
+  protected void satisfyByComparison(long[] times, Object values, int length, boolean[] selected,
+      boolean less, boolean equal, boolean greater) {
+    Object column = filterType == FilterType.TIME_FILTER ? times : values;
+    if (column instanceof long[] && value instanceof Long) {
+      long[] longs = (long[]) column;
+      long v = (Long) value;
+      for (int i = 0; i < length; i++) {
+        if (selected[i]) {
+          int cmp = Long.compare(longs[i], v);
+          selected[i] = cmp < 0 ? less : (cmp == 0 ? equal : greater);
+        }
+      }
+    } else if (column instanceof int[] && value instanceof Integer) {
+      int[] ints = (int[]) column;
+      int v = (Integer) value;
+      for (int i = 0; i < length; i++) {
+        if (selected[i]) {
+          int cmp = Integer.compare(ints[i], v);
+          selected[i] = cmp < 0 ? less : (cmp == 0 ? equal : greater);
+        }
+      }
+    } else if (column instanceof float[] && value instanceof Float) {
+      float[] floats = (float[]) column;
+      float v = (Float) value;
+      for (int i = 0; i < length; i++) {
+        if (selected[i]) {
+          int cmp = Float.compare(floats[i], v);
+          selected[i] = cmp < 0 ? less : (cmp == 0 ? equal : greater);
+        }
+      }
+    } else if (column instanceof double[] && value instanceof Double) {
+      double[] doubles = (double[]) column;
+      double v = (Double) value;
+      for (int i = 0; i < length; i++) {
+        if (selected[i]) {
+          int cmp = Double.compare(doubles[i], v);
+          selected[i] = cmp < 0 ? less : (cmp == 0 ? equal : greater);
+        }
+      }
+    } else if (column instanceof DictionaryColumn && value instanceof Binary) {
+      // compare every entry of the dictionary once, then examine the points by their ids
+      Binary[] dictionary = ((DictionaryColumn) column).getDictionary();
+      int[] ids = ((DictionaryColumn) column).getIds();
+      boolean[] satisfied = new boolean[dictionary.length];
+      for (int i = 0; i < dictionary.length; i++) {
+        int cmp = dictionary[i].compareTo((Binary) value);
+        satisfied[i] = cmp < 0 ? less : (cmp == 0 ? equal : greater);
+      }
+      for (int i = 0; i < length; i++) {
+        if (selected[i]) {
+          selected[i] = satisfied[ids[i]];
+        }
+      }
+    } else {
+      Filter.super.satisfy(times, values, length, selected);
+    }
+  }
+
   @Override
   public abstract String toString();
 
@@ -47,6 +47,12 @@ public class AndFilter extends BinaryFilter {
     return left.satisfy(time, value) && right.satisfy(time, value);
   }
 
+  @Override
+  public void satisfy(long[] times, Object values, int length, boolean[] selected) {
+    left.satisfy(times, values, length, selected);
+    right.satisfy(times, values, length, selected);
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     return left.satisfyStartEndTime(startTime, endTime) && right
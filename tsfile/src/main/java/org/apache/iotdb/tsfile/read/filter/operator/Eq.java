@@ -61,6 +61,11 @@ public class Eq<T extends Comparable<T>> extends UnaryFilter<T> {
     return this.value.equals(v);
   }
 
+  @Override
+  public void satisfy(long[] times, Object values, int length, boolean[] selected) {
+    satisfyByComparison(times, values, length, selected, false, true, false);
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     if (filterType == FilterType.TIME_FILTER) {
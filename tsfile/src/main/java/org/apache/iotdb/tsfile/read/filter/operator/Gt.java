@@ -59,6 +59,11 @@ public class Gt<T extends Comparable<T>> extends UnaryFilter<T> {
     return this.value.compareTo((T) v) < 0;
   }
 
+  @Override
+  public void satisfy(long[] times, Object values, int length, boolean[] selected) {
+    satisfyByComparison(times, values, length, selected, false, false, true);
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     if (filterType == FilterType.TIME_FILTER) {
@@ -60,6 +60,11 @@ public class LtEq<T extends Comparable<T>> extends UnaryFilter<T> {
     return this.value.compareTo((T) v) >= 0;
   }
 
+  @Override
+  public void satisfy(long[] times, Object values, int length, boolean[] selected) {
+    satisfyByComparison(times, values, length, selected, true, true, false);
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     if (filterType == FilterType.TIME_FILTER) {
@@ -60,6 +60,11 @@ public class NotEq<T extends Comparable<T>> extends UnaryFilter<T> {
     return !this.value.equals(v);
   }
 
+  @Override
+  public void satisfy(long[] times, Object values, int length, boolean[] selected) {
+    satisfyByComparison(times, values, length, selected, true, false, true);
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     if (filterType == FilterType.TIME_FILTER) {
@@ -22,6 +22,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
@@ -53,6 +54,15 @@ public class NotFilter implements Filter, Serializable {
     return !that.satisfy(time, value);
   }
 
+  @Override
+  public void satisfy(long[] times, Object values, int length, boolean[] selected) {
+    boolean[] thatSelected = Arrays.copyOf(selected, length);
+    that.satisfy(times, values, length, thatSelected);
+    for (int i = 0; i < length; i++) {
+      selected[i] &= !thatSelected[i];
+    }
+  }
+
   /**
    * Notice that, if the not filter only contains value filter, this method may return false, this
    * may cause misunderstanding.
@@ -19,6 +19,7 @@
 package org.apache.iotdb.tsfile.read.filter.operator;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.filter.basic.BinaryFilter;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
@@ -58,6 +59,16 @@ public class OrFilter extends BinaryFilter implements Serializable {
     return left.satisfy(time, value) || right.satisfy(time, value);
   }
 
+  @Override
+  public void satisfy(long[] times, Object values, int length, boolean[] selected) {
+    boolean[] rightSelected = Arrays.copyOf(selected, length);
+    left.satisfy(times, values, length, selected);
+    right.satisfy(times, values, length, rightSelected);
+    for (int i = 0; i < length; i++) {
+      selected[i] |= rightSelected[i];
+    }
+  }
+
   @Override
   public boolean satisfyStartEndTime(long startTime, long endTime) {
     return left.satisfyStartEndTime(startTime, endTime) || right
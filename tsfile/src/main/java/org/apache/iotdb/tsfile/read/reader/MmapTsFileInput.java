@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A TsFileInput over a read-only memory mapping of a sealed TsFile. Positional reads return views
+ * of the mapping instead of copies and never move a shared file pointer, so one instance can be
+ * used by concurrent readers. Only the sequential API (position(), read(ByteBuffer) ...) keeps a
+ * position and is not thread safe, just like the other inputs.
+ *
+ * <p>
+ * The file must not be modified or truncated while it is mapped. {@link #close()} does not unmap
+ * the file, because the buffers returned by {@link #read(long, int)} may still be read by others,
+ * the mapping is released when the last buffer over it is garbage collected. The owner which knows
+ * that no buffer is used any more releases the mapping at once by {@link #unmap()}.
+ * </p>
+ */
+public class MmapTsFileInput implements TsFileInput {
+
+  private static final Logger logger = LoggerFactory.getLogger(MmapTsFileInput.class);
+
+  /**
+   * a single MappedByteBuffer is limited to Integer.MAX_VALUE bytes, so larger files are mapped in
+   * segments.
+   */
+  private static final int SEGMENT_SIZE = 1 << 30;
+
+  private final FileChannel channel;
+  private final long size;
+  private volatile MappedByteBuffer[] segments;
+  /**
+   * the mapping kept for {@link #unmap()} after the input is closed
+   */
+  private MappedByteBuffer[] mapping;
+  private boolean unmapped = false;
+  private long position = 0;
+
+  public MmapTsFileInput(Path file) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      size = channel.size();
+      int segmentNum = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+      MappedByteBuffer[] mapped = new MappedByteBuffer[segmentNum];
+      for (int i = 0; i < segmentNum; i++) {
+        long start = (long) i * SEGMENT_SIZE;
+        mapped[i] = channel.map(MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+      }
+      segments = mapped;
+      mapping = mapped;
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public long position() {
+    return position;
+  }
+
+  @Override
+  public TsFileInput position(long newPosition) {
+    if (newPosition < 0) {
+      throw new IllegalArgumentException("position: " + newPosition);
+    }
+    position = newPosition;
+    return this;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    int read = read(dst, position);
+    if (read > 0) {
+      position += read;
+    }
+    return read;
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    if (position < 0) {
+      throw new IllegalArgumentException("position: " + position);
+    }
+    if (position >= size) {
+      return -1;
+    }
+    int length = (int) Math.min(dst.remaining(), size - position);
+    dst.put(view(position, length));
+    return length;
+  }
+
+  @Override
+  public ByteBuffer read(long position, int size) throws IOException {
+    if (position < 0 || position + size > this.size) {
+      throw new IOException("reach the end of the data");
+    }
+    return view(position, size);
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (position >= size) {
+      return -1;
+    }
+    int index = (int) (position % SEGMENT_SIZE);
+    int b = getSegments()[(int) (position / SEGMENT_SIZE)].get(index) & 0xFF;
+    position++;
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int read = read(ByteBuffer.wrap(b, off, len), position);
+    if (read > 0) {
+      position += read;
+    }
+    return read;
+  }
+
+  /**
+   * @return the channel the file is mapped from, it is closed along with this input
+   */
+  @Override
+  public FileChannel wrapAsFileChannel() {
+    return channel;
+  }
+
+  @Override
+  public InputStream wrapAsInputStream() {
+    return new InputStream() {
+      @Override
+      public int read() throws IOException {
+        return MmapTsFileInput.this.read();
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+          return 0;
+        }
+        return MmapTsFileInput.this.read(b, off, len);
+      }
+
+      @Override
+      public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, size - position));
+      }
+    };
+  }
+
+  @Override
+  public void close() throws IOException {
+    // the buffers already returned stay valid, the mapping is released by the GC
+    segments = null;
+    channel.close();
+  }
+
+  /**
+   * Close the input and release the mapping now instead of waiting for the GC. Any access to the
+   * buffers returned by {@link #read(long, int)} afterwards may crash the JVM, so the caller must
+   * make sure that no reader uses them any more.
+   *
+   * @return whether the mapping is released, false if the JVM does not support it and the mapping
+   * is left to the GC
+   */
+  public synchronized boolean unmap() throws IOException {
+    close();
+    if (!unmapped) {
+      for (MappedByteBuffer buffer : mapping) {
+        if (!Cleaner.clean(buffer)) {
+          return false;
+        }
+      }
+      unmapped = true;
+      mapping = null;
+    }
+    return true;
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    ByteBuffer buffer = read(position, Integer.BYTES);
+    position += Integer.BYTES;
+    return buffer.getInt();
+  }
+
+  /**
+   * @return a read-only buffer over [position, position + length) of the file, the buffer shares
+   * the mapped memory unless the range crosses two segments.
+   */
+  private ByteBuffer view(long position, int length) throws IOException {
+    MappedByteBuffer[] mapped = getSegments();
+    int segmentIndex = (int) (position / SEGMENT_SIZE);
+    int offset = (int) (position % SEGMENT_SIZE);
+    if (offset + length <= SEGMENT_SIZE) {
+      return slice(mapped[segmentIndex], offset, length);
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      int segmentRemaining = Math.min(SEGMENT_SIZE - offset, buffer.remaining());
+      buffer.put(slice(mapped[segmentIndex], offset, segmentRemaining));
+      segmentIndex++;
+      offset = 0;
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  private static ByteBuffer slice(MappedByteBuffer segment, int offset, int length) {
+    // a new buffer so that concurrent readers never touch the position of the shared segment
+    ByteBuffer buffer = segment.asReadOnlyBuffer();
+    buffer.position(offset);
+    buffer.limit(offset + length);
+    return buffer.slice();
+  }
+
+  private MappedByteBuffer[] getSegments() throws ClosedChannelException {
+    MappedByteBuffer[] mapped = segments;
+    if (mapped == null) {
+      throw new ClosedChannelException();
+    }
+    return mapped;
+  }
+
+  private static class Cleaner {
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+      Object unsafe = null;
+      Method invokeCleaner = null;
+      try {
+        // Java 9+
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        unsafe = theUnsafe.get(null);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        invokeCleaner = null;
+      }
+      UNSAFE = unsafe;
+      INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private Cleaner() {
+    }
+
+    static boolean clean(MappedByteBuffer buffer) {
+      try {
+        if (INVOKE_CLEANER != null) {
+          INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } else {
+          // Java 8
+          Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+          cleanerMethod.setAccessible(true);
+          Object cleaner = cleanerMethod.invoke(buffer);
+          if (cleaner != null) {
+            cleaner.getClass().getMethod("clean").invoke(cleaner);
+          }
+        }
+        return true;
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        logger.debug("Cannot unmap a mapped buffer, leave it to the GC", e);
+        return false;
+      }
+    }
+  }
+}
@@ -26,6 +26,7 @@ import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
 public interface TsFileInput {
 
@@ -110,6 +111,30 @@ public interface TsFileInput {
    */
   int read(ByteBuffer dst, long position) throws IOException;
 
+  /**
+   * Reads exactly <tt>size</tt> bytes starting at the given position without modifying this
+   * TsFileInput's position.
+   *
+   * <p>
+   * The returned buffer is ready to be read and must be treated as read-only, implementations
+   * backed by memory mapped files may return a view of the file instead of a copy, which is only
+   * valid until this TsFileInput is closed.
+   * </p>
+   *
+   * @param position The position at which the transfer is to begin
+   * @param size     The number of bytes to read
+   * @throws IOException If the input ends before <tt>size</tt> bytes are read or some other I/O
+   *                     error occurs
+   */
+  default ByteBuffer read(long position, int size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    if (ReadWriteIOUtils.readAsPossible(this, buffer, position, size) != size) {
+      throw new IOException("reach the end of the data");
+    }
+    buffer.flip();
+    return buffer;
+  }
+
   /**
    * read a byte from the Input.
    */
@@ -25,10 +25,12 @@ import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.Chunk;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.read.reader.IPageReader;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.reader.IChunkReader;
@@ -54,9 +56,10 @@ public class ChunkReader implements IChunkReader {
   private List<IPageReader> pageReaderList = new LinkedList<>();
 
   /**
-   * Data whose timestamp <= deletedAt should be considered deleted(not be returned).
+   * Data whose timestamp is in one of the sorted and disjoint ranges should be considered
+   * deleted(not be returned).
    */
-  protected long deletedAt;
+  protected List<TimeRange> deleteIntervalList;
 
   /**
    * constructor of ChunkReader.
@@ -67,7 +70,7 @@ public class ChunkReader implements IChunkReader {
   public ChunkReader(Chunk chunk, Filter filter) throws IOException {
     this.filter = filter;
     this.chunkDataBuffer = chunk.getData();
-    this.deletedAt = chunk.getDeletedAt();
+    this.deleteIntervalList = chunk.getDeleteIntervalList();
     endianType = chunk.getEndianType();
     chunkHeader = chunk.getHeader();
     this.unCompressor = IUnCompressor.getUnCompressor(chunkHeader.getCompressionType());
@@ -118,18 +121,40 @@ public class ChunkReader implements IChunkReader {
   }
 
   public boolean pageSatisfied(PageHeader pageHeader) {
-    if (pageHeader.getEndTime() <= deletedAt) {
+    if (isPageDeleted(pageHeader)) {
       return false;
-    } else if (pageHeader.getStartTime() <= deletedAt) {
-      pageHeader.getStatistics().setCanUseStatistics(false);
     }
     return filter == null || filter.satisfy(pageHeader.getStatistics());
   }
 
+  /**
+   * examine the page header by the deleted ranges, the statistics of a page partly deleted can not
+   * be used.
+   *
+   * @return true if all points of the page are deleted, so the page can be skipped without
+   * decoding it
+   */
+  protected boolean isPageDeleted(PageHeader pageHeader) {
+    if (deleteIntervalList == null) {
+      return false;
+    }
+    for (TimeRange range : deleteIntervalList) {
+      if (range.getMin() > pageHeader.getEndTime()) {
+        break;
+      }
+      if (range.contains(pageHeader.getStartTime(), pageHeader.getEndTime())) {
+        return true;
+      }
+      if (range.getMax() >= pageHeader.getStartTime()) {
+        pageHeader.getStatistics().setCanUseStatistics(false);
+      }
+    }
+    return false;
+  }
+
   private PageReader constructPageReaderForNextPage(PageHeader pageHeader)
       throws IOException {
     int compressedPageBodyLength = pageHeader.getCompressedSize();
-    byte[] compressedPageBody = new byte[compressedPageBodyLength];
 
     // doesn't has a complete page body
     if (compressedPageBodyLength > chunkDataBuffer.remaining()) {
@@ -137,17 +162,42 @@ public class ChunkReader implements IChunkReader {
           + ". Actual:" + chunkDataBuffer.remaining());
     }
 
-    chunkDataBuffer.get(compressedPageBody);
     Decoder valueDecoder = Decoder
             .getDecoderByType(chunkHeader.getEncodingType(), chunkHeader.getDataType());
     valueDecoder.setEndianType(endianType);
-    ByteBuffer pageData = ByteBuffer.wrap(unCompressor.uncompress(compressedPageBody));
+    ByteBuffer pageData = uncompressPageBody(pageHeader);
     PageReader reader = new PageReader(pageHeader, pageData, chunkHeader.getDataType(),
         valueDecoder, timeDecoder, filter);
-    reader.setDeletedAt(deletedAt);
+    reader.setDeleteIntervalList(deleteIntervalList);
     return reader;
   }
 
+  /**
+   * uncompress the next page body in chunkDataBuffer with the uncompressed size in the page
+   * header, the compressed bytes are read in place if the buffer is backed by an array. An
+   * uncompressed page body is returned as a view of chunkDataBuffer without copying.
+   */
+  private ByteBuffer uncompressPageBody(PageHeader pageHeader) throws IOException {
+    int compressedPageBodyLength = pageHeader.getCompressedSize();
+    if (chunkHeader.getCompressionType() == CompressionType.UNCOMPRESSED) {
+      ByteBuffer pageBody = chunkDataBuffer.slice();
+      pageBody.limit(compressedPageBodyLength);
+      chunkDataBuffer.position(chunkDataBuffer.position() + compressedPageBodyLength);
+      return pageBody;
+    }
+    if (!chunkDataBuffer.hasArray()) {
+      byte[] compressedPageBody = new byte[compressedPageBodyLength];
+      chunkDataBuffer.get(compressedPageBody);
+      return ByteBuffer.wrap(unCompressor.uncompress(compressedPageBody));
+    }
+    byte[] uncompressedPageBody = new byte[pageHeader.getUncompressedSize()];
+    unCompressor.uncompress(chunkDataBuffer.array(),
+        chunkDataBuffer.arrayOffset() + chunkDataBuffer.position(), compressedPageBodyLength,
+        uncompressedPageBody, 0);
+    chunkDataBuffer.position(chunkDataBuffer.position() + compressedPageBodyLength);
+    return ByteBuffer.wrap(uncompressedPageBody);
+  }
+
   @Override
   public void close() {
   }
@@ -19,11 +19,14 @@
 package org.apache.iotdb.tsfile.read.reader.page;
 
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.decoder.DictionaryDecoder;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.DictionaryColumn;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.read.reader.IPageReader;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.utils.Binary;
@@ -31,9 +34,16 @@ import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
 
 public class PageReader implements IPageReader {
 
+  /**
+   * the initial capacity of the columns of a page without header
+   */
+  private static final int DEFAULT_COLUMN_CAPACITY = 1024;
+
   private PageHeader pageHeader;
 
   private TSDataType dataType;
@@ -61,9 +71,15 @@ public class PageReader implements IPageReader {
   private Filter filter;
 
   /**
-   * Data whose timestamp <= deletedAt should be considered deleted(not be returned).
+   * Data whose timestamp is in one of the sorted and disjoint ranges should be considered
+   * deleted(not be returned).
    */
-  private long deletedAt = Long.MIN_VALUE;
+  private List<TimeRange> deleteIntervalList;
+
+  /**
+   * the index of the first range in deleteIntervalList that may contain the next point
+   */
+  private int deleteCursor = 0;
 
   public PageReader(ByteBuffer pageData, TSDataType dataType, Decoder valueDecoder,
       Decoder timeDecoder, Filter filter) {
@@ -100,6 +116,198 @@ public class PageReader implements IPageReader {
    */
   @Override
   public BatchData getAllSatisfiedPageData() throws IOException {
+    switch (dataType) {
+      case INT32:
+      case INT64:
+      case FLOAT:
+      case DOUBLE:
+        return getAllSatisfiedColumns();
+      case TEXT:
+        if (valueDecoder instanceof DictionaryDecoder) {
+          Binary[] dictionary = ((DictionaryDecoder) valueDecoder).getDictionary(valueBuffer);
+          if (dictionary != null) {
+            return getAllSatisfiedDictionaryColumns(dictionary);
+          }
+        }
+        return getAllSatisfiedPoints();
+      default:
+        return getAllSatisfiedPoints();
+    }
+  }
+
+  /**
+   * decode the whole time column.
+   *
+   * @return the times of the page, as long as the number of the points
+   */
+  private long[] readTimes() throws IOException {
+    long[] times = new long[pageHeader != null ? Math.max((int) pageHeader.getNumOfValues(), 1)
+        : DEFAULT_COLUMN_CAPACITY];
+    int length = 0;
+    while (timeDecoder.hasNext(timeBuffer)) {
+      if (length == times.length) {
+        times = Arrays.copyOf(times, length << 1);
+      }
+      int read = timeDecoder.readLongs(timeBuffer, times, length, times.length - length);
+      if (read == 0) {
+        break;
+      }
+      length += read;
+    }
+    return length == times.length ? times : Arrays.copyOf(times, length);
+  }
+
+  /**
+   * examine the points by the deleted ranges and the filter in batch.
+   *
+   * @return selected[i] tells whether the i-th point is satisfied, or null if all the points are
+   */
+  private boolean[] select(long[] times, Object values, int length) {
+    if (filter == null && deleteIntervalList == null) {
+      return null;
+    }
+    boolean[] selected = new boolean[length];
+    Arrays.fill(selected, 0, length, true);
+    if (deleteIntervalList != null) {
+      // the points are sorted by time, so the ones of a range are consecutive
+      int i = 0;
+      for (TimeRange range : deleteIntervalList) {
+        while (i < length && times[i] < range.getMin()) {
+          i++;
+        }
+        while (i < length && times[i] <= range.getMax()) {
+          selected[i++] = false;
+        }
+        if (i == length) {
+          break;
+        }
+      }
+    }
+    if (filter != null) {
+      filter.satisfy(times, values, length, selected);
+    }
+    return selected;
+  }
+
+  /**
+   * decode the whole time and value columns first, then examine the points in batch and hand
+   * over the columns of the satisfied points to the BatchData.
+   */
+  private BatchData getAllSatisfiedColumns() throws IOException {
+    long[] times = readTimes();
+    int length = times.length;
+
+    Object values;
+    switch (dataType) {
+      case INT32:
+        int[] ints = new int[times.length];
+        length = valueDecoder.readInts(valueBuffer, ints, 0, length);
+        values = ints;
+        break;
+      case INT64:
+        long[] longs = new long[times.length];
+        length = valueDecoder.readLongs(valueBuffer, longs, 0, length);
+        values = longs;
+        break;
+      case FLOAT:
+        float[] floats = new float[times.length];
+        length = valueDecoder.readFloats(valueBuffer, floats, 0, length);
+        values = floats;
+        break;
+      case DOUBLE:
+        double[] doubles = new double[times.length];
+        length = valueDecoder.readDoubles(valueBuffer, doubles, 0, length);
+        values = doubles;
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+
+    boolean[] selected = select(times, values, length);
+    if (selected != null) {
+      length = retainSelected(times, values, length, selected);
+    }
+
+    BatchData pageData = new BatchData(dataType);
+    pageData.putColumns(times, values, length);
+    return pageData;
+  }
+
+  /**
+   * examine the points of a TEXT page with a dictionary by the ids of their values, and hand over
+   * the columns of the satisfied points to the BatchData, whose values share the entries of the
+   * dictionary.
+   */
+  private BatchData getAllSatisfiedDictionaryColumns(Binary[] dictionary) throws IOException {
+    long[] times = readTimes();
+    int[] ids = new int[times.length];
+    int length = ((DictionaryDecoder) valueDecoder).readIds(valueBuffer, ids, 0, times.length);
+    boolean[] selected = select(times, new DictionaryColumn(dictionary, ids), length);
+
+    Binary[] values = new Binary[times.length];
+    int num = 0;
+    for (int i = 0; i < length; i++) {
+      if (selected == null || selected[i]) {
+        times[num] = times[i];
+        values[num++] = dictionary[ids[i]];
+      }
+    }
+    BatchData pageData = new BatchData(dataType);
+    pageData.putColumns(times, values, num);
+    return pageData;
+  }
+
+  /**
+   * move the selected points to the front of the columns.
+   *
+   * @return the number of the selected points
+   */
+  private int retainSelected(long[] times, Object values, int length, boolean[] selected) {
+    int num = 0;
+    switch (dataType) {
+      case INT32:
+        int[] ints = (int[]) values;
+        for (int i = 0; i < length; i++) {
+          if (selected[i]) {
+            times[num] = times[i];
+            ints[num++] = ints[i];
+          }
+        }
+        break;
+      case INT64:
+        long[] longs = (long[]) values;
+        for (int i = 0; i < length; i++) {
+          if (selected[i]) {
+            times[num] = times[i];
+            longs[num++] = longs[i];
+          }
+        }
+        break;
+      case FLOAT:
+        float[] floats = (float[]) values;
+        for (int i = 0; i < length; i++) {
+          if (selected[i]) {
+            times[num] = times[i];
+            floats[num++] = floats[i];
+          }
+        }
+        break;
+      case DOUBLE:
+        double[] doubles = (double[]) values;
+        for (int i = 0; i < length; i++) {
+          if (selected[i]) {
+            times[num] = times[i];
+            doubles[num++] = doubles[i];
+          }
+        }
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+    return num;
+  }
+
+  private BatchData getAllSatisfiedPoints() throws IOException {
 
     BatchData pageData = new BatchData(dataType);
 
@@ -108,37 +316,37 @@ public class PageReader implements IPageReader {
       switch (dataType) {
         case BOOLEAN:
           boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, aBoolean))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aBoolean))) {
             pageData.putBoolean(timestamp, aBoolean);
           }
           break;
         case INT32:
           int anInt = valueDecoder.readInt(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, anInt))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, anInt))) {
             pageData.putInt(timestamp, anInt);
           }
           break;
         case INT64:
           long aLong = valueDecoder.readLong(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, aLong))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aLong))) {
             pageData.putLong(timestamp, aLong);
           }
           break;
         case FLOAT:
           float aFloat = valueDecoder.readFloat(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, aFloat))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aFloat))) {
             pageData.putFloat(timestamp, aFloat);
           }
           break;
         case DOUBLE:
           double aDouble = valueDecoder.readDouble(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, aDouble))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aDouble))) {
             pageData.putDouble(timestamp, aDouble);
           }
           break;
         case TEXT:
           Binary aBinary = valueDecoder.readBinary(valueBuffer);
-          if (timestamp > deletedAt && (filter == null || filter.satisfy(timestamp, aBinary))) {
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aBinary))) {
             pageData.putBinary(timestamp, aBinary);
           }
           break;
@@ -159,7 +367,23 @@ public class PageReader implements IPageReader {
     this.filter = filter;
   }
 
-  public void setDeletedAt(long deletedAt) {
-    this.deletedAt = deletedAt;
+  public void setDeleteIntervalList(List<TimeRange> deleteIntervalList) {
+    this.deleteIntervalList = deleteIntervalList;
+  }
+
+  /**
+   * the points are examined in the order of time, so the ranges earlier than the point are never
+   * examined again.
+   */
+  private boolean isDeleted(long timestamp) {
+    while (deleteIntervalList != null && deleteCursor < deleteIntervalList.size()) {
+      TimeRange range = deleteIntervalList.get(deleteCursor);
+      if (range.getMax() < timestamp) {
+        deleteCursor++;
+      } else {
+        return range.getMin() <= timestamp;
+      }
+    }
+    return false;
   }
 }
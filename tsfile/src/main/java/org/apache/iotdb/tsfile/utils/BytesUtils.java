@@ -169,15 +169,7 @@ public class BytesUtils {
    * @return integer variable
    */
   public static int bytesToInt(byte[] result, int pos, int width) {
-
-    int value = 0;
-    int temp = 0;
-
-    for (int i = 0; i < width; i++) {
-      temp = (pos + width - 1 - i) / 8;
-      value = setIntN(value, i, getByteN(result[temp], pos + width - 1 - i));
-    }
-    return value;
+    return (int) bytesToLong(result, pos, width);
   }
 
   /**
@@ -533,10 +525,17 @@ public class BytesUtils {
    */
   public static long bytesToLong(byte[] result, int pos, int width) {
     long value = 0;
-    int temp = 0;
-    for (int i = 0; i < width; i++) {
-      temp = (pos + width - 1 - i) / 8;
-      value = setLongN(value, i, getByteN(result[temp], pos + width - 1 - i));
+    int bytePos = pos >>> 3;
+    // the bits of a byte not read yet, from high to low
+    int bitsInByte = 8 - (pos & 7);
+    // read the bits of a byte at a time instead of bit by bit
+    while (width > 0) {
+      int bitNum = Math.min(width, bitsInByte);
+      int bits = ((result[bytePos] & 0xFF) >>> (bitsInByte - bitNum)) & ((1 << bitNum) - 1);
+      value = (value << bitNum) | bits;
+      width -= bitNum;
+      bytePos++;
+      bitsInByte = 8;
     }
     return value;
   }
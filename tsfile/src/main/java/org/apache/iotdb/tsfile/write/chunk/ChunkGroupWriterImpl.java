@@ -83,7 +83,48 @@ public class ChunkGroupWriterImpl implements IChunkGroupWriter {
       if (!chunkWriters.containsKey(measurementId)) {
         throw new NoMeasurementException("measurement id" + measurementId + " not found!");
       }
-      writeByDataType(rowBatch, measurementId, dataType, i);
+      if (rowBatch.hasNull(i)) {
+        writeNonNullByDataType(rowBatch, measurementId, dataType, i);
+      } else {
+        writeByDataType(rowBatch, measurementId, dataType, i);
+      }
+    }
+  }
+
+  /**
+   * write the points of a measurement one by one, skipping the null rows
+   */
+  private void writeNonNullByDataType(
+          RowBatch rowBatch, String measurementId, TSDataType dataType, int index) {
+    IChunkWriter chunkWriter = chunkWriters.get(measurementId);
+    for (int row = 0; row < rowBatch.batchSize; row++) {
+      if (rowBatch.isNull(row, index)) {
+        continue;
+      }
+      long time = rowBatch.timestamps[row];
+      switch (dataType) {
+        case INT32:
+          chunkWriter.write(time, ((int[]) rowBatch.values[index])[row]);
+          break;
+        case INT64:
+          chunkWriter.write(time, ((long[]) rowBatch.values[index])[row]);
+          break;
+        case FLOAT:
+          chunkWriter.write(time, ((float[]) rowBatch.values[index])[row]);
+          break;
+        case DOUBLE:
+          chunkWriter.write(time, ((double[]) rowBatch.values[index])[row]);
+          break;
+        case BOOLEAN:
+          chunkWriter.write(time, ((boolean[]) rowBatch.values[index])[row]);
+          break;
+        case TEXT:
+          chunkWriter.write(time, ((Binary[]) rowBatch.values[index])[row]);
+          break;
+        default:
+          throw new UnSupportedDataTypeException(
+                  String.format("Data type %s is not supported.", dataType));
+      }
     }
   }
 
@@ -24,6 +24,8 @@ import java.nio.channels.Channels;
 import java.nio.channels.WritableByteChannel;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.compress.ILossyCompressor;
+import org.apache.iotdb.tsfile.compress.ILossyCompressor.PointWriter;
 import org.apache.iotdb.tsfile.exception.write.PageException;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
@@ -45,6 +47,13 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   private ICompressor compressor;
 
+  /**
+   * reduces the points before they are written into pages, null if the compression is lossless.
+   */
+  private ILossyCompressor lossyCompressor;
+
+  private PointWriter approximationWriter = this::writeApproximation;
+
   /**
    * all pages of this chunk.
    */
@@ -81,7 +90,20 @@ public class ChunkWriterImpl implements IChunkWriter {
    * @param schema schema of this measurement
    */
   public ChunkWriterImpl(MeasurementSchema schema) {
+    this(schema, true);
+  }
+
+  /**
+   * @param schema schema of this measurement
+   * @param lossy  false to keep all the points of a series of a lossy compression, e.g., which
+   *               have been reduced once
+   */
+  public ChunkWriterImpl(MeasurementSchema schema, boolean lossy) {
     this.measurementSchema = schema;
+    if (lossy) {
+      this.lossyCompressor = ILossyCompressor
+          .getLossyCompressor(schema.getCompressor(), schema.getType(), schema.getProps());
+    }
     this.compressor = ICompressor.getCompressor(schema.getCompressor());
     this.pageBuffer = new PublicBAOS();
 
@@ -101,12 +123,20 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   @Override
   public void write(long time, long value) {
+    if (lossyCompressor != null) {
+      lossyCompressor.compress(time, value, approximationWriter);
+      return;
+    }
     pageWriter.write(time, value);
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long time, int value) {
+    if (lossyCompressor != null) {
+      lossyCompressor.compress(time, value, approximationWriter);
+      return;
+    }
     pageWriter.write(time, value);
     checkPageSizeAndMayOpenANewPage();
   }
@@ -119,12 +149,20 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   @Override
   public void write(long time, float value) {
+    if (lossyCompressor != null) {
+      lossyCompressor.compress(time, value, approximationWriter);
+      return;
+    }
     pageWriter.write(time, value);
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long time, double value) {
+    if (lossyCompressor != null) {
+      lossyCompressor.compress(time, value, approximationWriter);
+      return;
+    }
     pageWriter.write(time, value);
     checkPageSizeAndMayOpenANewPage();
   }
@@ -137,12 +175,24 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   @Override
   public void write(long[] timestamps, int[] values, int batchSize) {
+    if (lossyCompressor != null) {
+      for (int i = 0; i < batchSize; i++) {
+        lossyCompressor.compress(timestamps[i], values[i], approximationWriter);
+      }
+      return;
+    }
     pageWriter.write(timestamps, values, batchSize);
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, long[] values, int batchSize) {
+    if (lossyCompressor != null) {
+      for (int i = 0; i < batchSize; i++) {
+        lossyCompressor.compress(timestamps[i], values[i], approximationWriter);
+      }
+      return;
+    }
     pageWriter.write(timestamps, values, batchSize);
     checkPageSizeAndMayOpenANewPage();
   }
@@ -155,12 +205,24 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   @Override
   public void write(long[] timestamps, float[] values, int batchSize) {
+    if (lossyCompressor != null) {
+      for (int i = 0; i < batchSize; i++) {
+        lossyCompressor.compress(timestamps[i], values[i], approximationWriter);
+      }
+      return;
+    }
     pageWriter.write(timestamps, values, batchSize);
     checkPageSizeAndMayOpenANewPage();
   }
 
   @Override
   public void write(long[] timestamps, double[] values, int batchSize) {
+    if (lossyCompressor != null) {
+      for (int i = 0; i < batchSize; i++) {
+        lossyCompressor.compress(timestamps[i], values[i], approximationWriter);
+      }
+      return;
+    }
     pageWriter.write(timestamps, values, batchSize);
     checkPageSizeAndMayOpenANewPage();
   }
@@ -171,6 +233,26 @@ public class ChunkWriterImpl implements IChunkWriter {
     checkPageSizeAndMayOpenANewPage();
   }
 
+  /**
+   * write a point kept by the lossy compressor in the data type of the series.
+   */
+  private void writeApproximation(long time, double value) {
+    switch (measurementSchema.getType()) {
+      case INT32:
+        pageWriter.write(time, (int) Math.round(value));
+        break;
+      case INT64:
+        pageWriter.write(time, Math.round(value));
+        break;
+      case FLOAT:
+        pageWriter.write(time, (float) value);
+        break;
+      default:
+        pageWriter.write(time, value);
+    }
+    checkPageSizeAndMayOpenANewPage();
+  }
+
   /**
    * check occupied memory size, if it exceeds the PageSize threshold, construct a page and 
    * put it to pageBuffer
@@ -240,6 +322,10 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   @Override
   public void sealCurrentPage() {
+    if (lossyCompressor != null) {
+      // the chunk ends, so are the points held by the lossy compressor
+      lossyCompressor.flush(approximationWriter);
+    }
     if (pageWriter.getPointNumber() > 0) {
       writePageToPageBuffer();
     }
@@ -250,7 +250,8 @@ public class PageWriter {
       compressedBytes = new byte[compressor.getMaxBytesForCompression(uncompressedSize)];
       compressedPosition = 0;
       // data is never a directByteBuffer now, so we can use data.array()
-      compressedSize = compressor.compress(pageData.array(), pageData.position(), uncompressedSize, compressedBytes);
+      compressedSize = compressor.compress(pageData.array(),
+          pageData.arrayOffset() + pageData.position(), uncompressedSize, compressedBytes);
     }
 
     // write the page header to IOWriter
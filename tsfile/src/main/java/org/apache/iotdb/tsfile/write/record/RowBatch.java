@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.tsfile.write.record;
 
+import java.util.BitSet;
 import java.util.List;
 
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
@@ -50,6 +51,10 @@ public class RowBatch {
    * measurement
    */
   public Object[] values;
+  /**
+   * each BitSet marks the null rows of one measurement, it is null if the measurement has no null
+   */
+  private BitSet[] nullRows;
   /**
    * the number of rows to include in this row batch
    */
@@ -111,6 +116,53 @@ public class RowBatch {
    */
   public void reset() {
     batchSize = 0;
+    nullRows = null;
+  }
+
+  /**
+   * mark the value of a measurement in a row as null, i.e., the measurement has no point at the
+   * timestamp of the row. The value in the column is ignored.
+   *
+   * @param row the index of the row
+   * @param column the index of the measurement in the schemas
+   */
+  public void markNull(int row, int column) {
+    if (nullRows == null) {
+      nullRows = new BitSet[schemas.size()];
+    }
+    if (nullRows[column] == null) {
+      nullRows[column] = new BitSet(maxBatchSize);
+    }
+    nullRows[column].set(row);
+  }
+
+  public boolean isNull(int row, int column) {
+    return nullRows != null && nullRows[column] != null && nullRows[column].get(row);
+  }
+
+  /**
+   * @return whether the measurement has any null in the first batchSize rows
+   */
+  public boolean hasNull(int column) {
+    if (nullRows == null || nullRows[column] == null) {
+      return false;
+    }
+    int firstNullRow = nullRows[column].nextSetBit(0);
+    return firstNullRow != -1 && firstNullRow < batchSize;
+  }
+
+  /**
+   * @return the null rows of the measurement, or null if it has no null
+   */
+  public BitSet getNullRows(int column) {
+    return hasNull(column) ? nullRows[column] : null;
+  }
+
+  public void setNullRows(int column, BitSet rows) {
+    if (nullRows == null) {
+      nullRows = new BitSet[schemas.size()];
+    }
+    nullRows[column] = rows;
   }
 
   private void createColumns() {
@@ -173,8 +225,12 @@ public class RowBatch {
         break;
       case TEXT:
         valueOccupation += batchSize * 4;
-        for (Binary value : (Binary[]) values[i]) {
-          valueOccupation += value.getLength();
+        Binary[] binaryValues = (Binary[]) values[i];
+        for (int row = 0; row < batchSize; row++) {
+          // the value of a null may be left unset
+          if (binaryValues[row] != null) {
+            valueOccupation += binaryValues[row].getLength();
+          }
         }
         break;
       default:
@@ -20,18 +20,15 @@ package org.apache.iotdb.tsfile.write.writer;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Map;
 import org.apache.iotdb.tsfile.exception.write.TsFileNotCompleteException;
-import org.apache.iotdb.tsfile.file.metadata.TsFileMetadata;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
-import org.apache.iotdb.tsfile.utils.Pair;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * ForceAppendTsFileWriter opens a COMPLETE TsFile, reads and truncate its metadata to support
- * appending new data.
+ * ForceAppendTsFileWriter opens a COMPLETE TsFile, reads the metadata of its chunk groups and
+ * truncates its metadata to support appending new data.
  */
 public class ForceAppendTsFileWriter extends TsFileIOWriter {
 
@@ -58,15 +55,10 @@ public class ForceAppendTsFileWriter extends TsFileIOWriter {
         throw new TsFileNotCompleteException(
             "File " + file.getPath() + " is not a complete TsFile");
       }
-      TsFileMetadata tsFileMetadata = reader.readFileMetadata();
-      Map<String, Pair<Long, Integer>> deviceMap = tsFileMetadata.getDeviceMetadataIndex();
-      long firstDeviceMetaPos = Long.MAX_VALUE;
-      for (Pair<Long, Integer> deviceMetadataIndex : deviceMap.values()) {
-        firstDeviceMetaPos = firstDeviceMetaPos > deviceMetadataIndex.left ?
-            deviceMetadataIndex.left : firstDeviceMetaPos;
-      }
-      // truncate metadata and marker
-      truncatePosition = firstDeviceMetaPos - 1;
+      // the chunk groups in the file are kept, so that they can be filtered and indexed again
+      // with the appended ones, the metadata after them is truncated
+      truncatePosition = reader.selfCheck(null, chunkGroupMetadataList, versionInfo, false);
+      totalChunkNum = reader.getTotalChunkNum();
     }
   }
 
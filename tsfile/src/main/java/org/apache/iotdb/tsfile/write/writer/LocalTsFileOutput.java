@@ -53,7 +53,16 @@ public class LocalTsFileOutput implements TsFileOutput {
 
   @Override
   public void write(ByteBuffer b) throws IOException {
-    bufferedStream.write(b.array());
+    if (b.hasArray()) {
+      bufferedStream.write(b.array());
+      return;
+    }
+    // e.g., a chunk read from a memory mapped file
+    ByteBuffer data = b.duplicate();
+    data.clear();
+    byte[] bytes = new byte[data.remaining()];
+    data.get(bytes);
+    bufferedStream.write(bytes);
   }
 
   @Override
@@ -35,6 +35,7 @@ import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.BytesUtils;
 import org.apache.iotdb.tsfile.utils.Pair;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
@@ -86,6 +87,10 @@ public class TsFileIOWriter {
   private long currentChunkGroupStartOffset;
   protected List<Pair<Long, Long>> versionInfo = new ArrayList<>();
 
+  // the bloom filter and the byte size of the file metadata written by endFile()
+  private BloomFilter bloomFilter;
+  private int fileMetadataSize;
+
   /**
    * empty construct function.
    */
@@ -255,6 +260,9 @@ public class TsFileIOWriter {
       logger.debug("finish flushing the bloom filter file pos:{}", out.getPosition());
     }
 
+    bloomFilter = tsFileMetaData.getBloomFilter();
+    fileMetadataSize = size;
+
     // write TsFileMetaData size
     ReadWriteIOUtils.write(size, out.wrapAsStream());// write the size of the file metadata.
 
@@ -378,6 +386,20 @@ public class TsFileIOWriter {
     return invalidChunkNum;
   }
 
+  /**
+   * @return the bloom filter of the series in the file, null if the file is not ended
+   */
+  public BloomFilter getBloomFilter() {
+    return bloomFilter;
+  }
+
+  /**
+   * @return the byte size of the file metadata, 0 if the file is not ended
+   */
+  public int getFileMetadataSize() {
+    return fileMetadataSize;
+  }
+
   public File getFile() {
     return file;
   }
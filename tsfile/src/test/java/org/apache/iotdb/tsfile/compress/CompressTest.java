@@ -18,9 +18,11 @@
  */
 package org.apache.iotdb.tsfile.compress;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
@@ -31,6 +33,7 @@ import org.xerial.snappy.Snappy;
 
 import org.apache.iotdb.tsfile.compress.ICompressor;
 import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
 
 public class CompressTest {
@@ -72,6 +75,42 @@ public class CompressTest {
     assertEquals(inputString, result);
   }
 
+  @Test
+  public void allCompressorsTest() throws IOException {
+    byte[] input = (inputString + inputString + inputString).getBytes(StandardCharsets.UTF_8);
+    for (CompressionType type : new CompressionType[]{CompressionType.SNAPPY,
+        CompressionType.GZIP, CompressionType.LZ4, CompressionType.ZSTD}) {
+      ICompressor compressor = ICompressor.getCompressor(type);
+      IUnCompressor unCompressor = IUnCompressor.getUnCompressor(type);
+
+      byte[] compressed = compressor.compress(input);
+      assertEquals(input.length,
+          unCompressor.getUncompressedLength(compressed, 0, compressed.length));
+      assertArrayEquals(input, unCompressor.uncompress(compressed));
+
+      // compress into the middle of an array
+      byte[] withOffset = new byte[compressor.getMaxBytesForCompression(input.length) + 10];
+      int size = compressor.compress(input, 0, input.length, withOffset);
+      byte[] output = new byte[input.length + 5];
+      assertEquals(input.length, unCompressor.uncompress(withOffset, 0, size, output, 5));
+      assertArrayEquals(input, Arrays.copyOfRange(output, 5, output.length));
+
+      ByteBuffer source = ByteBuffer.allocateDirect(input.length);
+      source.put(input);
+      source.flip();
+      ByteBuffer compressedBuffer = ByteBuffer
+          .allocateDirect(compressor.getMaxBytesForCompression(input.length));
+      assertEquals(size, compressor.compress(source, compressedBuffer));
+      assertEquals(size, compressedBuffer.remaining());
+      assertEquals(input.length, unCompressor.getUncompressedLength(compressedBuffer));
+      ByteBuffer uncompressedBuffer = ByteBuffer.allocateDirect(input.length);
+      assertEquals(input.length, unCompressor.uncompress(compressedBuffer, uncompressedBuffer));
+      byte[] result = new byte[uncompressedBuffer.remaining()];
+      uncompressedBuffer.get(result);
+      assertArrayEquals(type.toString(), input, result);
+    }
+  }
+
   @Test
   public void snappyTest() throws IOException {
     byte[] compressed = Snappy.compress(inputString.getBytes(StandardCharsets.UTF_8));
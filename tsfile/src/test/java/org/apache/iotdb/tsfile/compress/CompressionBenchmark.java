@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.compress;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+
+/**
+ * Compression benchmark. Compress and uncompress pages of simulated sensor data (timestamps with
+ * jitter, a slowly drifting temperature with noise) with each codec, and print the compression
+ * ratio and the throughput over the uncompressed bytes.
+ */
+public class CompressionBenchmark {
+
+  private static int numOfPage = 200;
+  private static int pointsPerPage = 8192;
+  private static int rounds = 5;
+
+  private static CompressionType[] compressionTypes = {CompressionType.SNAPPY,
+      CompressionType.GZIP, CompressionType.LZ4, CompressionType.ZSTD};
+
+  public static void main(String[] args) throws IOException {
+    for (TSEncoding valueEncoding : new TSEncoding[]{TSEncoding.PLAIN, TSEncoding.GORILLA}) {
+      List<byte[]> pages = generatePages(valueEncoding);
+      long totalSize = 0;
+      for (byte[] page : pages) {
+        totalSize += page.length;
+      }
+      System.out.println(String.format("Value encoding: %s, num of pages: %d, total size: %d B",
+          valueEncoding, pages.size(), totalSize));
+      for (CompressionType type : compressionTypes) {
+        bench(type, pages, totalSize);
+      }
+    }
+  }
+
+  private static void bench(CompressionType type, List<byte[]> pages, long totalSize)
+      throws IOException {
+    ICompressor compressor = ICompressor.getCompressor(type);
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(type);
+    List<byte[]> compressedPages = new ArrayList<>(pages.size());
+    long compressedSize = 0;
+    long compressTime = 0;
+    long uncompressTime = 0;
+    for (int round = 0; round < rounds; round++) {
+      compressedPages.clear();
+      compressedSize = 0;
+      long startTime = System.nanoTime();
+      for (byte[] page : pages) {
+        byte[] compressed = compressor.compress(page);
+        compressedPages.add(compressed);
+        compressedSize += compressed.length;
+      }
+      compressTime += System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      for (int i = 0; i < compressedPages.size(); i++) {
+        byte[] compressed = compressedPages.get(i);
+        unCompressor.uncompress(compressed, 0, compressed.length, new byte[pages.get(i).length],
+            0);
+      }
+      uncompressTime += System.nanoTime() - startTime;
+    }
+    System.out.println(String.format(
+        "%-8s ratio: %.2f, compression: %.1f MB/s, decompression: %.1f MB/s", type,
+        (double) totalSize / compressedSize, throughput(totalSize * rounds, compressTime),
+        throughput(totalSize * rounds, uncompressTime)));
+  }
+
+  private static double throughput(long bytes, long nanos) {
+    return bytes / 1024.0 / 1024.0 / (nanos / 1e9);
+  }
+
+  private static List<byte[]> generatePages(TSEncoding valueEncoding) throws IOException {
+    Random random = new Random(1);
+    List<byte[]> pages = new ArrayList<>(numOfPage);
+    long time = 1577836800000L;
+    double temperature = 20.0;
+    for (int i = 0; i < numOfPage; i++) {
+      Encoder timeEncoder = TSEncodingBuilder.getEncodingBuilder(TSEncoding.TS_2DIFF)
+          .getEncoder(TSDataType.INT64);
+      Encoder valueEncoder = TSEncodingBuilder.getEncodingBuilder(valueEncoding)
+          .getEncoder(TSDataType.DOUBLE);
+      PublicBAOS timeOut = new PublicBAOS();
+      PublicBAOS valueOut = new PublicBAOS();
+      for (int j = 0; j < pointsPerPage; j++) {
+        // sampled every second with a small jitter
+        time += 1000 + random.nextInt(5) - 2;
+        temperature += random.nextGaussian() * 0.05;
+        // sensors usually report values with a fixed precision
+        double value = Math.round(temperature * 100) / 100.0;
+        timeEncoder.encode(time, timeOut);
+        valueEncoder.encode(value, valueOut);
+      }
+      timeEncoder.flush(timeOut);
+      valueEncoder.flush(valueOut);
+      PublicBAOS page = new PublicBAOS();
+      timeOut.writeTo(page);
+      valueOut.writeTo(page);
+      pages.add(page.toByteArray());
+    }
+    return pages;
+  }
+}
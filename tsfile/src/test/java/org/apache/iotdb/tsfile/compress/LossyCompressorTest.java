@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.compress;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.compress.ILossyCompressor.PAACompressor;
+import org.apache.iotdb.tsfile.compress.ILossyCompressor.PLACompressor;
+import org.apache.iotdb.tsfile.compress.ILossyCompressor.SDTCompressor;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.junit.Test;
+
+public class LossyCompressorTest {
+
+  private static final int POINT_NUM = 10000;
+  private static final double MAX_ERROR = 0.5;
+  private static final double DELTA = 1e-9;
+
+  private long[] times = new long[POINT_NUM];
+  private double[] values = new double[POINT_NUM];
+
+  public LossyCompressorTest() {
+    for (int i = 0; i < POINT_NUM; i++) {
+      times[i] = i * 3L + i % 2;
+      // a slow wave with some noise and a step
+      values[i] = 10 * Math.sin(i / 200.0) + (i * 7919 % 13) / 13.0 * 0.3 + (i < 5000 ? 0 : 20);
+    }
+  }
+
+  @Test
+  public void testSDT() {
+    List<double[]> kept = compress(new SDTCompressor(MAX_ERROR), 0, POINT_NUM);
+    assertTrue(kept.size() * 10 < POINT_NUM);
+    assertEquals(times[0], (long) kept.get(0)[0]);
+    assertEquals(times[POINT_NUM - 1], (long) kept.get(kept.size() - 1)[0]);
+    // the kept points are the original ones
+    int j = 0;
+    for (double[] point : kept) {
+      while (times[j] != (long) point[0]) {
+        j++;
+      }
+      assertEquals(values[j], point[1], 0);
+    }
+    assertInterpolated(kept);
+  }
+
+  @Test
+  public void testPLA() {
+    List<double[]> kept = compress(new PLACompressor(MAX_ERROR), 0, POINT_NUM);
+    assertTrue(kept.size() * 10 < POINT_NUM);
+    assertEquals(times[POINT_NUM - 1], (long) kept.get(kept.size() - 1)[0]);
+    assertInterpolated(kept);
+  }
+
+  @Test
+  public void testPAA() {
+    List<double[]> kept = compress(new PAACompressor(MAX_ERROR), 0, POINT_NUM);
+    assertTrue(kept.size() * 5 < POINT_NUM);
+    int k = 0;
+    for (int i = 0; i < POINT_NUM; i++) {
+      while (k + 1 < kept.size() && kept.get(k + 1)[0] <= times[i]) {
+        k++;
+      }
+      assertEquals(values[i], kept.get(k)[1], MAX_ERROR + DELTA);
+    }
+  }
+
+  @Test
+  public void testZeroError() {
+    // only the points on the lines through their neighbours are dropped
+    for (int i = 0; i < POINT_NUM; i++) {
+      values[i] = i <= 100 ? i * 2 : 300 - i;
+      times[i] = i;
+    }
+    List<double[]> kept = compress(new SDTCompressor(0), 0, POINT_NUM);
+    assertEquals(3, kept.size());
+    assertEquals(100, (long) kept.get(1)[0]);
+    assertInterpolated(kept);
+  }
+
+  @Test
+  public void testChunks() {
+    // every chunk starts over
+    ILossyCompressor compressor = new SDTCompressor(MAX_ERROR);
+    List<double[]> first = compress(compressor, 0, POINT_NUM / 2);
+    List<double[]> second = compress(compressor, POINT_NUM / 2, POINT_NUM);
+    assertEquals(times[POINT_NUM / 2], (long) second.get(0)[0]);
+    assertEquals(values[POINT_NUM / 2], second.get(0)[1], 0);
+    first.addAll(second);
+    assertInterpolated(first);
+  }
+
+  @Test
+  public void testGetLossyCompressor() {
+    assertTrue(ILossyCompressor.getLossyCompressor(CompressionType.SDT, TSDataType.INT32,
+        Collections.emptyMap()) instanceof SDTCompressor);
+    assertTrue(ILossyCompressor.getLossyCompressor(CompressionType.PAA, TSDataType.FLOAT,
+        null) instanceof PAACompressor);
+    assertTrue(ILossyCompressor.getLossyCompressor(CompressionType.PLA, TSDataType.DOUBLE,
+        null) instanceof PLACompressor);
+    assertNull(ILossyCompressor.getLossyCompressor(CompressionType.SNAPPY, TSDataType.DOUBLE,
+        null));
+    assertNull(ILossyCompressor.getLossyCompressor(CompressionType.SDT, TSDataType.TEXT, null));
+    assertNull(ILossyCompressor.getLossyCompressor(CompressionType.SDT, TSDataType.BOOLEAN,
+        null));
+
+    double defaultError = TSFileDescriptor.getInstance().getConfig().getSdtMaxError();
+    assertEquals(0.25, ILossyCompressor.getMaxError(
+        Collections.singletonMap(ILossyCompressor.MAX_ERROR, "0.25"), defaultError), 0);
+    assertEquals(defaultError, ILossyCompressor.getMaxError(
+        Collections.singletonMap(ILossyCompressor.MAX_ERROR, "-1"), defaultError), 0);
+    assertEquals(defaultError, ILossyCompressor.getMaxError(
+        Collections.singletonMap(ILossyCompressor.MAX_ERROR, "abc"), defaultError), 0);
+  }
+
+  private List<double[]> compress(ILossyCompressor compressor, int start, int end) {
+    List<double[]> kept = new ArrayList<>();
+    for (int i = start; i < end; i++) {
+      compressor.compress(times[i], values[i], (t, v) -> kept.add(new double[]{t, v}));
+    }
+    compressor.flush((t, v) -> kept.add(new double[]{t, v}));
+    return kept;
+  }
+
+  /**
+   * every point is within MAX_ERROR of the linear interpolation between the kept points.
+   */
+  private void assertInterpolated(List<double[]> kept) {
+    int k = 0;
+    for (int i = 0; i < POINT_NUM; i++) {
+      while (k + 1 < kept.size() && kept.get(k + 1)[0] < times[i]) {
+        k++;
+      }
+      double[] left = kept.get(k);
+      double[] right = kept.get(Math.min(k + 1, kept.size() - 1));
+      double approximation = right[0] == left[0] ? left[1]
+          : left[1] + (right[1] - left[1]) * (times[i] - left[0]) / (right[0] - left[0]);
+      assertEquals("time " + times[i], values[i], approximation, MAX_ERROR + DELTA);
+    }
+  }
+}
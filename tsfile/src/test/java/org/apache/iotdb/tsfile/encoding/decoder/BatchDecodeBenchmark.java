@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.utils.PublicBAOS;
+
+/**
+ * Batch decoding benchmark. Decode pages of simulated sensor data with each encoding, one value
+ * per call and a whole column per call, and print the throughput in millions of points per
+ * second.
+ */
+public class BatchDecodeBenchmark {
+
+  private static int numOfPage = 200;
+  private static int pointsPerPage = 8192;
+  private static int rounds = 10;
+
+  public static void main(String[] args) throws IOException {
+    bench(TSEncoding.TS_2DIFF, TSDataType.INT64);
+    bench(TSEncoding.TS_2DIFF, TSDataType.INT32);
+    bench(TSEncoding.RLE, TSDataType.INT64);
+    bench(TSEncoding.RLE, TSDataType.INT32);
+    bench(TSEncoding.REGULAR, TSDataType.INT64);
+    bench(TSEncoding.GORILLA, TSDataType.DOUBLE);
+    bench(TSEncoding.GORILLA, TSDataType.FLOAT);
+    bench(TSEncoding.PLAIN, TSDataType.INT64);
+    bench(TSEncoding.PLAIN, TSDataType.DOUBLE);
+    bench(TSEncoding.RLE, TSDataType.DOUBLE);
+  }
+
+  private static void bench(TSEncoding encoding, TSDataType dataType) throws IOException {
+    List<ByteBuffer> pages = generatePages(encoding, dataType);
+    long[] longs = new long[pointsPerPage];
+    int[] ints = new int[pointsPerPage];
+    double[] doubles = new double[pointsPerPage];
+    float[] floats = new float[pointsPerPage];
+    // the sum keeps the decoded values alive
+    double sum = 0;
+
+    long oneByOneTime = 0;
+    long batchTime = 0;
+    for (int round = 0; round < rounds; round++) {
+      long startTime = System.nanoTime();
+      for (ByteBuffer page : pages) {
+        ByteBuffer buffer = page.duplicate();
+        Decoder decoder = Decoder.getDecoderByType(encoding, dataType);
+        while (decoder.hasNext(buffer)) {
+          switch (dataType) {
+            case INT32:
+              sum += decoder.readInt(buffer);
+              break;
+            case INT64:
+              sum += decoder.readLong(buffer);
+              break;
+            case FLOAT:
+              sum += decoder.readFloat(buffer);
+              break;
+            default:
+              sum += decoder.readDouble(buffer);
+              break;
+          }
+        }
+      }
+      oneByOneTime += System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      for (ByteBuffer page : pages) {
+        ByteBuffer buffer = page.duplicate();
+        Decoder decoder = Decoder.getDecoderByType(encoding, dataType);
+        switch (dataType) {
+          case INT32:
+            decoder.readInts(buffer, ints, 0, pointsPerPage);
+            sum += ints[pointsPerPage - 1];
+            break;
+          case INT64:
+            decoder.readLongs(buffer, longs, 0, pointsPerPage);
+            sum += longs[pointsPerPage - 1];
+            break;
+          case FLOAT:
+            decoder.readFloats(buffer, floats, 0, pointsPerPage);
+            sum += floats[pointsPerPage - 1];
+            break;
+          default:
+            decoder.readDoubles(buffer, doubles, 0, pointsPerPage);
+            sum += doubles[pointsPerPage - 1];
+            break;
+        }
+      }
+      batchTime += System.nanoTime() - startTime;
+    }
+    long points = (long) numOfPage * pointsPerPage * rounds;
+    System.out.println(String.format(
+        "%-8s %-6s one by one: %.1f Mpoints/s, batch: %.1f Mpoints/s (%s)", encoding, dataType,
+        throughput(points, oneByOneTime), throughput(points, batchTime), sum != 0));
+  }
+
+  private static double throughput(long points, long nanos) {
+    return points / 1e6 / (nanos / 1e9);
+  }
+
+  private static List<ByteBuffer> generatePages(TSEncoding encoding, TSDataType dataType)
+      throws IOException {
+    Random random = new Random(1);
+    List<ByteBuffer> pages = new ArrayList<>(numOfPage);
+    long time = 1577836800000L;
+    double temperature = 20.0;
+    for (int i = 0; i < numOfPage; i++) {
+      Encoder encoder = TSEncodingBuilder.getEncodingBuilder(encoding).getEncoder(dataType);
+      PublicBAOS out = new PublicBAOS();
+      for (int j = 0; j < pointsPerPage; j++) {
+        // sampled every second, with a small jitter unless the encoding expects regular data
+        time += encoding == TSEncoding.REGULAR ? 1000 : 1000 + random.nextInt(5) - 2;
+        temperature += random.nextGaussian() * 0.05;
+        // sensors usually report values with a fixed precision
+        double value = Math.round(temperature * 100) / 100.0;
+        switch (dataType) {
+          case INT32:
+            encoder.encode((int) Math.round(value * 100), out);
+            break;
+          case INT64:
+            encoder.encode(encoding == TSEncoding.REGULAR ? time : Math.round(value * 100), out);
+            break;
+          case FLOAT:
+            encoder.encode((float) value, out);
+            break;
+          default:
+            encoder.encode(value, out);
+            break;
+        }
+      }
+      encoder.flush(out);
+      pages.add(ByteBuffer.wrap(out.toByteArray()));
+    }
+    return pages;
+  }
+}
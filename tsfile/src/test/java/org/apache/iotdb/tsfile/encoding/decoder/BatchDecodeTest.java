@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
+import org.apache.iotdb.tsfile.encoding.encoder.TSEncodingBuilder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.junit.Test;
+
+/**
+ * Decode the encoded columns in batches of various sizes mixed with single reads, and compare the
+ * values with the ones decoded one by one.
+ */
+public class BatchDecodeTest {
+
+  private static final int[] SIZES = {1, 7, 128, 1000, 10000};
+
+  private Random random = new Random(2020);
+
+  @Test
+  public void testPlain() throws IOException {
+    testEncoding(TSEncoding.PLAIN, TSDataType.INT32, TSDataType.INT64, TSDataType.FLOAT,
+        TSDataType.DOUBLE);
+  }
+
+  @Test
+  public void testRle() throws IOException {
+    testEncoding(TSEncoding.RLE, TSDataType.INT32, TSDataType.INT64, TSDataType.FLOAT,
+        TSDataType.DOUBLE);
+  }
+
+  @Test
+  public void testTs2Diff() throws IOException {
+    testEncoding(TSEncoding.TS_2DIFF, TSDataType.INT32, TSDataType.INT64, TSDataType.FLOAT,
+        TSDataType.DOUBLE);
+  }
+
+  @Test
+  public void testGorilla() throws IOException {
+    testEncoding(TSEncoding.GORILLA, TSDataType.FLOAT, TSDataType.DOUBLE);
+  }
+
+  @Test
+  public void testRegular() throws IOException {
+    testEncoding(TSEncoding.REGULAR, TSDataType.INT32, TSDataType.INT64);
+  }
+
+  private void testEncoding(TSEncoding encoding, TSDataType... dataTypes) throws IOException {
+    for (TSDataType dataType : dataTypes) {
+      for (int size : SIZES) {
+        long[] data = generateData(encoding, size);
+        ByteBuffer encoded = encode(encoding, dataType, data);
+        Object expected = decodeOneByOne(encoding, dataType, encoded.duplicate(), size);
+        Object actual = decodeInBatch(encoding, dataType, encoded.duplicate(), size);
+        assertColumnEquals(encoding + " " + dataType + " " + size, dataType, expected, actual,
+            size);
+      }
+    }
+  }
+
+  /**
+   * runs of repeated values mixed with random jumps, or an arithmetic sequence with missing points
+   * for REGULAR
+   */
+  private long[] generateData(TSEncoding encoding, int size) {
+    long[] data = new long[size];
+    long value = random.nextInt(1000);
+    for (int i = 0; i < size; i++) {
+      if (encoding == TSEncoding.REGULAR) {
+        value += random.nextInt(10) == 0 ? 20 : 10;
+      } else if (random.nextInt(4) == 0) {
+        value = random.nextInt(1 << 20) - (1 << 19);
+      }
+      data[i] = value;
+    }
+    return data;
+  }
+
+  private ByteBuffer encode(TSEncoding encoding, TSDataType dataType, long[] data)
+      throws IOException {
+    Encoder encoder = TSEncodingBuilder.getEncodingBuilder(encoding).getEncoder(dataType);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (long value : data) {
+      switch (dataType) {
+        case INT32:
+          encoder.encode((int) value, out);
+          break;
+        case INT64:
+          encoder.encode(value, out);
+          break;
+        case FLOAT:
+          encoder.encode(value / 100.0f, out);
+          break;
+        case DOUBLE:
+          encoder.encode(value / 100.0, out);
+          break;
+        default:
+          throw new UnsupportedOperationException(dataType.toString());
+      }
+    }
+    encoder.flush(out);
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+
+  private Object decodeOneByOne(TSEncoding encoding, TSDataType dataType, ByteBuffer buffer,
+      int size) throws IOException {
+    Decoder decoder = Decoder.getDecoderByType(encoding, dataType);
+    Object values = newColumn(dataType, size);
+    int num = 0;
+    while (decoder.hasNext(buffer)) {
+      switch (dataType) {
+        case INT32:
+          ((int[]) values)[num++] = decoder.readInt(buffer);
+          break;
+        case INT64:
+          ((long[]) values)[num++] = decoder.readLong(buffer);
+          break;
+        case FLOAT:
+          ((float[]) values)[num++] = decoder.readFloat(buffer);
+          break;
+        case DOUBLE:
+          ((double[]) values)[num++] = decoder.readDouble(buffer);
+          break;
+        default:
+          throw new UnsupportedOperationException(dataType.toString());
+      }
+    }
+    assertEquals(size, num);
+    return values;
+  }
+
+  private Object decodeInBatch(TSEncoding encoding, TSDataType dataType, ByteBuffer buffer,
+      int size) throws IOException {
+    Decoder decoder = Decoder.getDecoderByType(encoding, dataType);
+    Object values = newColumn(dataType, size);
+    int num = 0;
+    while (num < size) {
+      if (random.nextInt(5) == 0) {
+        // a single read between the batches
+        switch (dataType) {
+          case INT32:
+            ((int[]) values)[num++] = decoder.readInt(buffer);
+            break;
+          case INT64:
+            ((long[]) values)[num++] = decoder.readLong(buffer);
+            break;
+          case FLOAT:
+            ((float[]) values)[num++] = decoder.readFloat(buffer);
+            break;
+          case DOUBLE:
+            ((double[]) values)[num++] = decoder.readDouble(buffer);
+            break;
+          default:
+            throw new UnsupportedOperationException(dataType.toString());
+        }
+        continue;
+      }
+      int length = Math.min(1 + random.nextInt(300), size - num);
+      int read;
+      switch (dataType) {
+        case INT32:
+          read = decoder.readInts(buffer, (int[]) values, num, length);
+          break;
+        case INT64:
+          read = decoder.readLongs(buffer, (long[]) values, num, length);
+          break;
+        case FLOAT:
+          read = decoder.readFloats(buffer, (float[]) values, num, length);
+          break;
+        case DOUBLE:
+          read = decoder.readDoubles(buffer, (double[]) values, num, length);
+          break;
+        default:
+          throw new UnsupportedOperationException(dataType.toString());
+      }
+      assertEquals(length, read);
+      num += read;
+    }
+    assertFalse(decoder.hasNext(buffer));
+    return values;
+  }
+
+  private Object newColumn(TSDataType dataType, int size) {
+    switch (dataType) {
+      case INT32:
+        return new int[size];
+      case INT64:
+        return new long[size];
+      case FLOAT:
+        return new float[size];
+      case DOUBLE:
+        return new double[size];
+      default:
+        throw new UnsupportedOperationException(dataType.toString());
+    }
+  }
+
+  private void assertColumnEquals(String message, TSDataType dataType, Object expected,
+      Object actual, int size) {
+    for (int i = 0; i < size; i++) {
+      switch (dataType) {
+        case INT32:
+          assertEquals(message, ((int[]) expected)[i], ((int[]) actual)[i]);
+          break;
+        case INT64:
+          assertEquals(message, ((long[]) expected)[i], ((long[]) actual)[i]);
+          break;
+        case FLOAT:
+          assertEquals(message, ((float[]) expected)[i], ((float[]) actual)[i], 0);
+          break;
+        case DOUBLE:
+          assertEquals(message, ((double[]) expected)[i], ((double[]) actual)[i], 0);
+          break;
+        default:
+          throw new UnsupportedOperationException(dataType.toString());
+      }
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.encoding.decoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.iotdb.tsfile.encoding.common.EndianType;
+import org.apache.iotdb.tsfile.encoding.encoder.DictionaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.Test;
+
+public class DictionaryDecoderTest {
+
+  private static final String[] STATUS = {"OK", "WARN", "ERROR", "OFFLINE", "MAINTENANCE"};
+
+  @Test
+  public void testLowCardinality() throws IOException {
+    List<Binary> values = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      values.add(new Binary(STATUS[i / 7 % STATUS.length]));
+    }
+    DictionaryEncoder encoder = new DictionaryEncoder(1024, 128);
+    ByteBuffer page = encode(encoder, values);
+    assertEquals(DictionaryEncoder.DICTIONARY_PAGE, page.get(0));
+    assertTrue(page.remaining() * 10 < plainSize(values));
+
+    DictionaryDecoder decoder = new DictionaryDecoder();
+    assertEquals(STATUS.length, decoder.getDictionary(page).length);
+    assertDecoded(values, decoder, page);
+  }
+
+  @Test
+  public void testFallBackToPlain() throws IOException {
+    List<Binary> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      // the dictionary overflows in the middle of the page
+      values.add(new Binary(i < 500 ? STATUS[i % STATUS.length] : "value" + i));
+    }
+    DictionaryEncoder encoder = new DictionaryEncoder(1024, 128);
+    ByteBuffer page = encode(encoder, values);
+    assertEquals(DictionaryEncoder.PLAIN_PAGE, page.get(0));
+    assertEquals(plainSize(values) + 1, page.remaining());
+
+    DictionaryDecoder decoder = new DictionaryDecoder();
+    assertNull(decoder.getDictionary(page));
+    assertDecoded(values, decoder, page);
+  }
+
+  /**
+   * every page has its own dictionary and may fall back to PLAIN alone.
+   */
+  @Test
+  public void testPages() throws IOException {
+    DictionaryEncoder encoder = new DictionaryEncoder(64, 128);
+    DictionaryDecoder decoder = new DictionaryDecoder();
+    for (int p = 0; p < 4; p++) {
+      List<Binary> values = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        values.add(new Binary(p % 2 == 0 ? STATUS[i % 2] : "page" + p + "value" + i));
+      }
+      ByteBuffer page = encode(encoder, values);
+      decoder.reset();
+      if (p % 2 == 0) {
+        assertNotNull(decoder.getDictionary(page));
+        assertEquals(2, decoder.getDictionary(page).length);
+      } else {
+        assertNull(decoder.getDictionary(page));
+      }
+      assertDecoded(values, decoder, page);
+    }
+  }
+
+  @Test
+  public void testReadIds() throws IOException {
+    List<Binary> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add(new Binary(STATUS[i * 7 % STATUS.length]));
+    }
+    ByteBuffer page = encode(new DictionaryEncoder(1024, 128), values);
+    DictionaryDecoder decoder = new DictionaryDecoder();
+    Binary[] dictionary = decoder.getDictionary(page);
+    int[] ids = new int[values.size()];
+    assertEquals(values.size(), decoder.readIds(page, ids, 0, ids.length));
+    for (int i = 0; i < values.size(); i++) {
+      assertEquals(values.get(i), dictionary[ids[i]]);
+    }
+    assertFalse(decoder.hasNext(page));
+  }
+
+  @Test
+  public void testEmptyPage() throws IOException {
+    ByteBuffer page = encode(new DictionaryEncoder(1024, 128), new ArrayList<>());
+    assertEquals(0, page.remaining());
+    assertFalse(new DictionaryDecoder().hasNext(page));
+  }
+
+  private ByteBuffer encode(DictionaryEncoder encoder, List<Binary> values) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (Binary value : values) {
+      encoder.encode(value, out);
+    }
+    assertTrue(encoder.getMaxByteSize() >= 0);
+    encoder.flush(out);
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+
+  private int plainSize(List<Binary> values) {
+    PlainEncoder encoder = new PlainEncoder(EndianType.BIG_ENDIAN, TSDataType.TEXT, 128);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (Binary value : values) {
+      encoder.encode(value, out);
+    }
+    return out.size();
+  }
+
+  private void assertDecoded(List<Binary> values, Decoder decoder, ByteBuffer page)
+      throws IOException {
+    for (Binary value : values) {
+      assertTrue(decoder.hasNext(page));
+      assertEquals(value, decoder.readBinary(page));
+    }
+    assertFalse(decoder.hasNext(page));
+  }
+}
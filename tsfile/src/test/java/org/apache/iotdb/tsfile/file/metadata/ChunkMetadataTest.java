@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.file.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.junit.Test;
+
+public class ChunkMetadataTest {
+
+  @Test
+  public void testInsertIntoSortedDeletions() {
+    ChunkMetadata metadata = createChunkMetadata(0, 100);
+    assertNull(metadata.getDeleteIntervalList());
+
+    metadata.insertIntoSortedDeletions(50, 60);
+    metadata.insertIntoSortedDeletions(10, 20);
+    metadata.insertIntoSortedDeletions(80, 90);
+    assertEquals(Arrays.asList(new TimeRange(10, 20), new TimeRange(50, 60),
+        new TimeRange(80, 90)), metadata.getDeleteIntervalList());
+
+    // overlapping and adjoining ranges are merged
+    metadata.insertIntoSortedDeletions(15, 49);
+    assertEquals(Arrays.asList(new TimeRange(10, 60), new TimeRange(80, 90)),
+        metadata.getDeleteIntervalList());
+    metadata.insertIntoSortedDeletions(Long.MIN_VALUE, 5);
+    metadata.insertIntoSortedDeletions(95, Long.MAX_VALUE);
+    assertEquals(Arrays.asList(new TimeRange(Long.MIN_VALUE, 5), new TimeRange(10, 60),
+        new TimeRange(80, 90), new TimeRange(95, Long.MAX_VALUE)),
+        metadata.getDeleteIntervalList());
+    assertTrue(metadata.isPartlyDeleted());
+    assertFalse(metadata.isDeleted());
+
+    metadata.insertIntoSortedDeletions(6, 94);
+    assertEquals(Arrays.asList(new TimeRange(Long.MIN_VALUE, Long.MAX_VALUE)),
+        metadata.getDeleteIntervalList());
+    assertTrue(metadata.isDeleted());
+  }
+
+  @Test
+  public void testDeletionsOutOfChunk() {
+    ChunkMetadata metadata = createChunkMetadata(100, 200);
+    metadata.insertIntoSortedDeletions(0, 99);
+    metadata.insertIntoSortedDeletions(201, 300);
+    assertFalse(metadata.isPartlyDeleted());
+    assertFalse(metadata.isDeleted());
+    metadata.insertIntoSortedDeletions(150, 150);
+    assertTrue(metadata.isPartlyDeleted());
+    assertFalse(metadata.isDeleted());
+  }
+
+  private ChunkMetadata createChunkMetadata(long startTime, long endTime) {
+    Statistics<?> statistics = Statistics.getStatsByType(TSDataType.INT64);
+    statistics.update(startTime, 0L);
+    statistics.update(endTime, 0L);
+    return new ChunkMetadata("s1", TSDataType.INT64, 0, statistics);
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.apache.iotdb.tsfile.read.common.DictionaryColumn;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.junit.Test;
+
+/**
+ * Examine the columns by the filters in batch, and compare the results with the ones examined
+ * point by point.
+ */
+public class BatchFilterTest {
+
+  private static final int LENGTH = 100;
+
+  private long[] times = new long[LENGTH + 10];
+  private int[] ints = new int[LENGTH + 10];
+  private long[] longs = new long[LENGTH + 10];
+  private float[] floats = new float[LENGTH + 10];
+  private double[] doubles = new double[LENGTH + 10];
+
+  public BatchFilterTest() {
+    for (int i = 0; i < LENGTH; i++) {
+      times[i] = i * 2L;
+      ints[i] = i % 17;
+      longs[i] = i % 17;
+      floats[i] = i % 17 + 0.5f;
+      doubles[i] = i % 17 + 0.5;
+    }
+    floats[3] = Float.NaN;
+    doubles[3] = Double.NaN;
+  }
+
+  @Test
+  public void testTimeFilters() {
+    Filter[] filters = {TimeFilter.eq(40L), TimeFilter.notEq(40L), TimeFilter.gt(40L),
+        TimeFilter.gtEq(40L), TimeFilter.lt(40L), TimeFilter.ltEq(40L),
+        TimeFilter.not(TimeFilter.lt(40L)),
+        TimeFilter.in(new HashSet<>(Arrays.asList(2L, 3L, 40L)), false),
+        new GroupByFilter(5, 20, 10, 150)};
+    for (Filter filter : filters) {
+      for (Object values : new Object[]{ints, longs, floats, doubles}) {
+        assertBatchEquals(filter, values);
+      }
+    }
+  }
+
+  @Test
+  public void testValueFilters() {
+    assertBatchEquals(ValueFilter.eq(5), ints);
+    assertBatchEquals(ValueFilter.eq(5L), longs);
+    assertBatchEquals(ValueFilter.eq(5.5f), floats);
+    assertBatchEquals(ValueFilter.eq(5.5), doubles);
+    assertBatchEquals(ValueFilter.notEq(5), ints);
+    assertBatchEquals(ValueFilter.notEq(5L), longs);
+    assertBatchEquals(ValueFilter.notEq(5.5f), floats);
+    assertBatchEquals(ValueFilter.notEq(5.5), doubles);
+    assertBatchEquals(ValueFilter.gt(5), ints);
+    assertBatchEquals(ValueFilter.gt(5L), longs);
+    assertBatchEquals(ValueFilter.gt(5.5f), floats);
+    assertBatchEquals(ValueFilter.gt(5.5), doubles);
+    assertBatchEquals(ValueFilter.gtEq(5), ints);
+    assertBatchEquals(ValueFilter.gtEq(5L), longs);
+    assertBatchEquals(ValueFilter.gtEq(5.5f), floats);
+    assertBatchEquals(ValueFilter.gtEq(5.5), doubles);
+    assertBatchEquals(ValueFilter.lt(5), ints);
+    assertBatchEquals(ValueFilter.lt(5L), longs);
+    assertBatchEquals(ValueFilter.lt(5.5f), floats);
+    assertBatchEquals(ValueFilter.lt(5.5), doubles);
+    assertBatchEquals(ValueFilter.ltEq(5), ints);
+    assertBatchEquals(ValueFilter.ltEq(5L), longs);
+    assertBatchEquals(ValueFilter.ltEq(5.5f), floats);
+    assertBatchEquals(ValueFilter.ltEq(5.5), doubles);
+    assertBatchEquals(ValueFilter.in(new HashSet<>(Arrays.asList(1, 5)), true), ints);
+  }
+
+  @Test
+  public void testComposedFilters() {
+    assertBatchEquals(FilterFactory.and(TimeFilter.gt(20L), ValueFilter.lt(8)), ints);
+    assertBatchEquals(FilterFactory.or(TimeFilter.gt(150L), ValueFilter.eq(3L)), longs);
+    assertBatchEquals(
+        FilterFactory.not(FilterFactory.or(TimeFilter.lt(20L), ValueFilter.gt(10.5f))), floats);
+    assertBatchEquals(FilterFactory.and(new GroupByFilter(5, 20, 10, 150),
+        FilterFactory.or(ValueFilter.ltEq(2.5), ValueFilter.not(ValueFilter.lt(12.5)))), doubles);
+  }
+
+  @Test
+  public void testDictionaryColumn() {
+    Binary[] dictionary = {new Binary("b"), new Binary("a"), new Binary("c")};
+    int[] ids = new int[LENGTH];
+    for (int i = 0; i < LENGTH; i++) {
+      ids[i] = i % 7 % 3;
+    }
+    DictionaryColumn column = new DictionaryColumn(dictionary, ids);
+    Filter[] filters = {ValueFilter.eq(new Binary("a")), ValueFilter.notEq(new Binary("a")),
+        ValueFilter.gt(new Binary("a")), ValueFilter.gtEq(new Binary("b")),
+        ValueFilter.lt(new Binary("c")), ValueFilter.ltEq(new Binary("b")),
+        ValueFilter.eq(new Binary("d")),
+        ValueFilter.in(new HashSet<>(Arrays.asList(new Binary("a"), new Binary("c"))), false),
+        FilterFactory.and(TimeFilter.gt(20L), ValueFilter.notEq(new Binary("c")))};
+    for (Filter filter : filters) {
+      boolean[] selected = new boolean[LENGTH];
+      Arrays.fill(selected, true);
+      selected[LENGTH - 1] = false;
+      filter.satisfy(times, column, LENGTH, selected);
+      for (int i = 0; i < LENGTH; i++) {
+        boolean expected = i != LENGTH - 1 && filter.satisfy(times[i], column.get(i));
+        assertEquals(filter + " " + i, expected, selected[i]);
+      }
+    }
+  }
+
+  private void assertBatchEquals(Filter filter, Object values) {
+    boolean[] selected = new boolean[LENGTH];
+    Arrays.fill(selected, true);
+    // the unselected points stay unselected
+    selected[LENGTH - 1] = false;
+    filter.satisfy(times, values, LENGTH, selected);
+    for (int i = 0; i < LENGTH; i++) {
+      boolean expected = i != LENGTH - 1 && filter.satisfy(times[i], Array.get(values, i));
+      assertEquals(filter + " " + i, expected, selected[i]);
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iotdb.tsfile.read.ReadOnlyTsFile;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.expression.QueryExpression;
+import org.apache.iotdb.tsfile.read.query.dataset.QueryDataSet;
+import org.apache.iotdb.tsfile.utils.FileGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MmapTsFileInputTest {
+
+  private static final String FILE_PATH = FileGenerator.outputDataFile;
+
+  @Before
+  public void before() throws IOException {
+    FileGenerator.generateFile(1000, 100);
+  }
+
+  @After
+  public void after() {
+    FileGenerator.after();
+  }
+
+  @Test
+  public void testQuery() throws IOException {
+    List<String> expected;
+    try (ReadOnlyTsFile tsFile = new ReadOnlyTsFile(new TsFileSequenceReader(FILE_PATH))) {
+      expected = queryAll(tsFile);
+    }
+    List<String> actual;
+    try (ReadOnlyTsFile tsFile = new ReadOnlyTsFile(new TsFileSequenceReader(FILE_PATH,
+        new MmapTsFileInput(Paths.get(FILE_PATH))))) {
+      actual = queryAll(tsFile);
+    }
+    assertFalse(expected.isEmpty());
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testConcurrentRead() throws Exception {
+    LocalTsFileInput channelInput = new LocalTsFileInput(Paths.get(FILE_PATH));
+    MmapTsFileInput mmapInput = new MmapTsFileInput(Paths.get(FILE_PATH));
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      long size = channelInput.size();
+      assertEquals(size, mmapInput.size());
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        int step = 7 + i;
+        futures.add(pool.submit(() -> {
+          for (long position = 0; position + step * 3 <= size; position += step) {
+            ByteBuffer view = mmapInput.read(position, step * 3);
+            if (!view.equals(channelInput.read(position, step * 3))) {
+              return false;
+            }
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> future : futures) {
+        assertTrue(future.get());
+      }
+      // positional reads do not move the position
+      assertEquals(0, mmapInput.position());
+    } finally {
+      pool.shutdown();
+      channelInput.close();
+      mmapInput.close();
+    }
+  }
+
+  @Test
+  public void testSequentialRead() throws IOException {
+    MmapTsFileInput input = new MmapTsFileInput(Paths.get(FILE_PATH));
+    try {
+      input.position(input.size() - 6);
+      ByteBuffer buffer = ByteBuffer.allocate(10);
+      assertEquals(6, input.read(buffer));
+      assertEquals(input.size(), input.position());
+      assertEquals(-1, input.read(buffer));
+      assertEquals(-1, input.wrapAsInputStream().read());
+    } finally {
+      input.close();
+    }
+  }
+
+  @Test(expected = ClosedChannelException.class)
+  public void testReadAfterClose() throws IOException {
+    MmapTsFileInput input = new MmapTsFileInput(Paths.get(FILE_PATH));
+    input.close();
+    // closing twice is harmless
+    input.close();
+    input.read(0, 1);
+  }
+
+  @Test
+  public void testBufferAndChannelAfterClose() throws IOException {
+    MmapTsFileInput input = new MmapTsFileInput(Paths.get(FILE_PATH));
+    ByteBuffer view = input.read(0, 6);
+    ByteBuffer channelBuffer = ByteBuffer.allocate(6);
+    assertEquals(6, input.wrapAsFileChannel().read(channelBuffer, 0));
+    channelBuffer.flip();
+    assertEquals(channelBuffer, view.duplicate());
+    input.close();
+    assertFalse(input.wrapAsFileChannel().isOpen());
+    // a buffer got before close is still readable
+    assertEquals(channelBuffer, view);
+  }
+
+  @Test(expected = ClosedChannelException.class)
+  public void testUnmap() throws IOException {
+    MmapTsFileInput input = new MmapTsFileInput(Paths.get(FILE_PATH));
+    assertEquals(6, input.read(0, 6).remaining());
+    assertTrue(input.unmap());
+    // unmapping twice is harmless
+    assertTrue(input.unmap());
+    assertFalse(input.wrapAsFileChannel().isOpen());
+    input.read(0, 1);
+  }
+
+  private List<String> queryAll(ReadOnlyTsFile tsFile) throws IOException {
+    QueryExpression queryExpression = QueryExpression.create();
+    for (String measurement : new String[]{"s1", "s2", "s3", "s4"}) {
+      queryExpression.addSelectedPath(new Path("d1." + measurement));
+      queryExpression.addSelectedPath(new Path("d2." + measurement));
+    }
+    QueryDataSet dataSet = tsFile.query(queryExpression);
+    List<String> rows = new ArrayList<>();
+    while (dataSet.hasNext()) {
+      rows.add(dataSet.next().toString());
+    }
+    return rows;
+  }
+}
@@ -20,15 +20,20 @@ package org.apache.iotdb.tsfile.read.reader;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import org.apache.iotdb.tsfile.encoding.common.EndianType;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.encoding.decoder.DeltaBinaryDecoder;
+import org.apache.iotdb.tsfile.encoding.decoder.DictionaryDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.DoublePrecisionDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.IntRleDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.LongRleDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.PlainDecoder;
 import org.apache.iotdb.tsfile.encoding.decoder.SinglePrecisionDecoder;
 import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DictionaryEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.DoublePrecisionEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.Encoder;
 import org.apache.iotdb.tsfile.encoding.encoder.IntRleEncoder;
@@ -37,6 +42,11 @@ import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
 import org.apache.iotdb.tsfile.encoding.encoder.SinglePrecisionEncoder;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.BatchData;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 import org.apache.iotdb.tsfile.read.reader.page.PageReader;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.write.page.PageWriter;
@@ -142,6 +152,117 @@ public class PageReaderTest {
     test.test(TSDataType.TEXT);
   }
 
+  @Test
+  public void testFilterAndDeletion() throws IOException {
+    TSDataType[] dataTypes = {TSDataType.INT32, TSDataType.INT64, TSDataType.FLOAT,
+        TSDataType.DOUBLE, TSDataType.BOOLEAN};
+    Encoder[] encoders = {new IntRleEncoder(EndianType.BIG_ENDIAN),
+        new DeltaBinaryEncoder.LongDeltaEncoder(), new SinglePrecisionEncoder(),
+        new PlainEncoder(EndianType.BIG_ENDIAN, TSDataType.DOUBLE, 0),
+        new IntRleEncoder(EndianType.BIG_ENDIAN)};
+    Decoder[] decoders = {new IntRleDecoder(EndianType.BIG_ENDIAN),
+        new DeltaBinaryDecoder.LongDeltaDecoder(), new SinglePrecisionDecoder(),
+        new PlainDecoder(EndianType.BIG_ENDIAN), new IntRleDecoder(EndianType.BIG_ENDIAN)};
+    Filter[] filters = {ValueFilter.gt(30), ValueFilter.gt(30L), ValueFilter.gt(30f),
+        ValueFilter.gt(30d), ValueFilter.eq(true)};
+    int count = 1000;
+    List<TimeRange> deleteIntervalList = Arrays.asList(new TimeRange(Long.MIN_VALUE, 400),
+        new TimeRange(600, 650), new TimeRange(700, 700));
+    for (int t = 0; t < dataTypes.length; t++) {
+      PageWriter pageWriter = new PageWriter();
+      pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+      pageWriter.setValueEncoder(encoders[t]);
+      pageWriter.initStatistics(dataTypes[t]);
+      for (int i = 0; i < count; i++) {
+        switch (dataTypes[t]) {
+          case INT32:
+            pageWriter.write(i, i % 50);
+            break;
+          case INT64:
+            pageWriter.write(i, (long) (i % 50));
+            break;
+          case FLOAT:
+            pageWriter.write(i, (float) (i % 50));
+            break;
+          case DOUBLE:
+            pageWriter.write(i, (double) (i % 50));
+            break;
+          default:
+            pageWriter.write(i, i % 50 > 30);
+            break;
+        }
+      }
+
+      PageReader pageReader = new PageReader(
+          ByteBuffer.wrap(pageWriter.getUncompressedBytes().array()), dataTypes[t], decoders[t],
+          new DeltaBinaryDecoder.LongDeltaDecoder(),
+          FilterFactory.and(filters[t], TimeFilter.lt(900L)));
+      pageReader.setDeleteIntervalList(deleteIntervalList);
+      BatchData data = pageReader.getAllSatisfiedPageData();
+
+      for (int i = 0; i < count; i++) {
+        if (!isDeleted(deleteIntervalList, i) && i < 900 && i % 50 > 30) {
+          Assert.assertTrue(data.hasCurrent());
+          Assert.assertEquals(i, data.currentTime());
+          Assert.assertEquals(dataTypes[t] == TSDataType.BOOLEAN ? "true"
+              : String.valueOf(i % 50), data.currentValue().toString().replace(".0", ""));
+          data.next();
+        }
+      }
+      Assert.assertFalse(data.hasCurrent());
+    }
+  }
+
+  @Test
+  public void testDictionary() throws IOException {
+    String[] status = {"OK", "WARN", "ERROR"};
+    Filter[] filters = {null, ValueFilter.eq(new Binary("WARN")),
+        ValueFilter.notEq(new Binary("WARN")), ValueFilter.eq(new Binary("UNKNOWN")),
+        FilterFactory.or(ValueFilter.gt(new Binary("OK")), TimeFilter.gt(900L)),
+        ValueFilter.in(new HashSet<>(Arrays.asList(new Binary("OK"), new Binary("ERROR"))),
+            false)};
+    int count = 1000;
+    List<TimeRange> deleteIntervalList = Arrays.asList(new TimeRange(Long.MIN_VALUE, 100),
+        new TimeRange(500, 599));
+    for (int pageSize : new int[]{1024, 8}) {
+      PageWriter pageWriter = new PageWriter();
+      pageWriter.setTimeEncoder(new DeltaBinaryEncoder.LongDeltaEncoder());
+      // the dictionary of the small page overflows, so the page falls back to PLAIN
+      pageWriter.setValueEncoder(new DictionaryEncoder(pageSize, 128));
+      pageWriter.initStatistics(TSDataType.TEXT);
+      for (int i = 0; i < count; i++) {
+        pageWriter.write(i, new Binary(status[i % 3]));
+      }
+      ByteBuffer page = pageWriter.getUncompressedBytes();
+
+      for (Filter filter : filters) {
+        PageReader pageReader = new PageReader(page.duplicate(), TSDataType.TEXT,
+            new DictionaryDecoder(), new DeltaBinaryDecoder.LongDeltaDecoder(), filter);
+        pageReader.setDeleteIntervalList(deleteIntervalList);
+        BatchData data = pageReader.getAllSatisfiedPageData();
+        for (int i = 0; i < count; i++) {
+          Binary value = new Binary(status[i % 3]);
+          if (!isDeleted(deleteIntervalList, i) && (filter == null || filter.satisfy(i, value))) {
+            Assert.assertTrue(data.hasCurrent());
+            Assert.assertEquals(i, data.currentTime());
+            Assert.assertEquals(value, data.getBinary());
+            data.next();
+          }
+        }
+        Assert.assertFalse(data.hasCurrent());
+      }
+    }
+  }
+
+  private boolean isDeleted(List<TimeRange> deleteIntervalList, long time) {
+    for (TimeRange range : deleteIntervalList) {
+      if (range.getMin() <= time && time <= range.getMax()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private abstract static class LoopWriteReadTest {
 
     private Encoder encoder;
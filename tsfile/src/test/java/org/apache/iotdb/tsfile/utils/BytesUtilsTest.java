@@ -121,6 +121,26 @@ public class BytesUtilsTest {
     assertEquals(lSNum, BytesUtils.bytesToLong(BytesUtils.longToBytes(lSNum, 1), 1));
   }
 
+  @Test
+  public void testBitsToLong() {
+    Random random = new Random(1);
+    byte[] bytes = new byte[16];
+    random.nextBytes(bytes);
+    for (int pos = 0; pos < 64; pos++) {
+      for (int width = 1; width <= 64; width++) {
+        // read bit by bit, from the highest bit of a byte
+        long expected = 0;
+        for (int i = pos; i < pos + width; i++) {
+          expected = (expected << 1) | BytesUtils.getByteN(bytes[i / 8], i);
+        }
+        assertEquals(expected, BytesUtils.bytesToLong(bytes, pos, width));
+        if (width <= 32) {
+          assertEquals((int) expected, BytesUtils.bytesToInt(bytes, pos, width));
+        }
+      }
+    }
+  }
+
   @Test
   public void testLongToBytesWithBytesArray() {
     long b1 = 3214342243342L;
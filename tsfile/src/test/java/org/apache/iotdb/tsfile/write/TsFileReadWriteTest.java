@@ -24,13 +24,17 @@ import static org.junit.Assert.assertTrue;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.compress.ILossyCompressor;
 import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.read.ReadOnlyTsFile;
@@ -140,13 +144,82 @@ public class TsFileReadWriteTest {
     TSFileDescriptor.getInstance().getConfig().setTimeEncoder("TS_2DIFF");
   }
 
+  @Test
+  public void compressionTest() throws IOException, WriteProcessException {
+    for (CompressionType compressionType : new CompressionType[]{CompressionType.UNCOMPRESSED,
+        CompressionType.SNAPPY, CompressionType.GZIP, CompressionType.LZ4,
+        CompressionType.ZSTD}) {
+      writeDataByTSRecord(TSDataType.DOUBLE, (i) -> new DoubleDataPoint("sensor_1", i / 3.0),
+          TSEncoding.GORILLA, compressionType, 100000);
+      readData((i, field, delta) -> assertEquals(i / 3.0, field.getDoubleV(), delta));
+      assertTrue(f.delete());
+    }
+  }
+
+  @Test
+  public void lossyCompressionTest() throws IOException, WriteProcessException {
+    double maxError = 0.5;
+    int pointNum = 100000;
+    double[] values = new double[pointNum];
+    for (int i = 0; i < pointNum; i++) {
+      values[i] = 10 * Math.sin(i / 500.0) + (i * 7919 % 13) / 13.0 * 0.3;
+    }
+    for (CompressionType compressionType : new CompressionType[]{CompressionType.SDT,
+        CompressionType.PAA, CompressionType.PLA}) {
+      try (TsFileWriter tsFileWriter = new TsFileWriter(f)) {
+        tsFileWriter.registerTimeseries(new Path("device_1", "sensor_1"),
+            new MeasurementSchema("sensor_1", TSDataType.DOUBLE, TSEncoding.GORILLA,
+                compressionType,
+                Collections.singletonMap(ILossyCompressor.MAX_ERROR, Double.toString(maxError))));
+        for (int i = 0; i < pointNum; i++) {
+          TSRecord tsRecord = new TSRecord(i, "device_1");
+          tsRecord.addTuple(new DoubleDataPoint("sensor_1", values[i]));
+          tsFileWriter.write(tsRecord);
+        }
+      }
+
+      List<Long> times = new ArrayList<>();
+      List<Double> keptValues = new ArrayList<>();
+      try (TsFileSequenceReader reader = new TsFileSequenceReader(path)) {
+        QueryDataSet queryDataSet = new ReadOnlyTsFile(reader).query(QueryExpression
+            .create(Collections.singletonList(new Path("device_1.sensor_1")), null));
+        while (queryDataSet.hasNext()) {
+          RowRecord r = queryDataSet.next();
+          times.add(r.getTimestamp());
+          keptValues.add(r.getFields().get(0).getDoubleV());
+        }
+      }
+      assertTrue(compressionType.toString(), times.size() * 10 < pointNum);
+      // reconstruct the points by the kept ones
+      int k = 0;
+      for (int i = 0; i < pointNum; i++) {
+        while (k + 1 < times.size() && times.get(k + 1) <= i) {
+          k++;
+        }
+        double approximation = keptValues.get(k);
+        if (compressionType != CompressionType.PAA && k + 1 < times.size() && times.get(k) < i) {
+          approximation += (keptValues.get(k + 1) - keptValues.get(k)) * (i - times.get(k))
+              / (times.get(k + 1) - times.get(k));
+        }
+        assertEquals(compressionType + " " + i, values[i], approximation, maxError + delta);
+      }
+      assertTrue(f.delete());
+    }
+  }
+
   private void writeDataByTSRecord(TSDataType dataType, DataPointProxy proxy, TSEncoding encodingType)
       throws IOException, WriteProcessException {
-    int floatCount = 1024 * 1024 * 13 + 1023;
+    writeDataByTSRecord(dataType, proxy, encodingType,
+        TSFileDescriptor.getInstance().getConfig().getCompressor(), 1024 * 1024 * 13 + 1023);
+  }
+
+  private void writeDataByTSRecord(TSDataType dataType, DataPointProxy proxy,
+      TSEncoding encodingType, CompressionType compressionType, int floatCount)
+      throws IOException, WriteProcessException {
     // add measurements into file schema
     try (TsFileWriter tsFileWriter = new TsFileWriter(f)) {
       tsFileWriter.registerTimeseries(new Path("device_1", "sensor_1"),
-          new MeasurementSchema("sensor_1", dataType, encodingType));
+          new MeasurementSchema("sensor_1", dataType, encodingType, compressionType));
       for (long i = 1; i < floatCount; i++) {
         // construct TSRecord
         TSRecord tsRecord = new TSRecord(i, "device_1");
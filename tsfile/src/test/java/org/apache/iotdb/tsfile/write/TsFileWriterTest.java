@@ -221,6 +221,40 @@ public class TsFileWriterTest {
     readOneRow(0);
   }
 
+  @Test
+  public void writeRowBatchWithNull() throws IOException, WriteProcessException {
+    RowBatch rowBatch = new RowBatch("d1", Arrays.asList(new MeasurementSchema[]{
+        new MeasurementSchema("s1", TSDataType.FLOAT, TSEncoding.RLE, CompressionType.SNAPPY),
+        new MeasurementSchema("s2", TSDataType.INT32, TSEncoding.RLE, CompressionType.SNAPPY)
+    }));
+    rowBatch.timestamps[0] = 10000;
+    ((float[])rowBatch.values[0])[0] = 5.0f;
+    ((int[])rowBatch.values[1])[0] = 5;
+    rowBatch.timestamps[1] = 10001;
+    ((float[])rowBatch.values[0])[1] = 6.0f;
+    rowBatch.markNull(1, 1);
+    rowBatch.batchSize = 2;
+    assertFalse(rowBatch.hasNull(0));
+    assertTrue(rowBatch.hasNull(1));
+    writer.write(rowBatch);
+    closeFile();
+
+    ReadOnlyTsFile readOnlyTsFile = new ReadOnlyTsFile(
+        new TsFileSequenceReader("target/tsfileWriter-" + fileName));
+    QueryDataSet dataSet = readOnlyTsFile.query(QueryExpression.create()
+        .addSelectedPath(new Path("d1.s1"))
+        .addSelectedPath(new Path("d1.s2")));
+    RowRecord result = dataSet.next();
+    assertEquals(10000, result.getTimestamp());
+    assertEquals(5, result.getFields().get(1).getIntV());
+    result = dataSet.next();
+    assertEquals(10001, result.getTimestamp());
+    assertEquals(6.0f, result.getFields().get(0).getFloatV(), 0.00001);
+    assertNull(result.getFields().get(1));
+    assertFalse(dataSet.hasNext());
+    readOnlyTsFile.close();
+  }
+
   @Test
   public void getIOWriter() throws IOException {
     //The interface is just for test